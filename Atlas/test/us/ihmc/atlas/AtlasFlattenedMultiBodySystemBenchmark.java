@@ -0,0 +1,20 @@
+package us.ihmc.atlas;
+
+import us.ihmc.avatar.FlattenedMultiBodySystemBenchmark;
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+
+public class AtlasFlattenedMultiBodySystemBenchmark extends FlattenedMultiBodySystemBenchmark
+{
+   private final DRCRobotModel robotModel = new AtlasRobotModel(AtlasRobotVersion.ATLAS_UNPLUGGED_V5_NO_HANDS, DRCRobotModel.RobotTarget.SCS, false);
+
+   @Override
+   public DRCRobotModel getRobotModel()
+   {
+      return robotModel;
+   }
+
+   public static void main(String[] args)
+   {
+      new AtlasFlattenedMultiBodySystemBenchmark().runBenchmark();
+   }
+}
@@ -40,12 +40,14 @@ public class WholeBodyControllerCore
    private final YoLowLevelOneDoFJointDesiredDataHolder yoLowLevelOneDoFJointDesiredDataHolder;
 
    private OneDoFJoint[] controlledOneDoFJoints;
-   private final ExecutionTimer controllerCoreComputeTimer = new ExecutionTimer("controllerCoreComputeTimer", 1.0, registry);
-   private final ExecutionTimer controllerCoreSubmitTimer = new ExecutionTimer("controllerCoreSubmitTimer", 1.0, registry);
+   private final ExecutionTimer controllerCoreComputeTimer;
+   private final ExecutionTimer controllerCoreSubmitTimer;
 
    public WholeBodyControllerCore(WholeBodyControlCoreToolbox toolbox, FeedbackControlCommandList allPossibleCommands,
          YoVariableRegistry parentRegistry)
    {
+      controllerCoreComputeTimer = new ExecutionTimer("controllerCoreComputeTimer", 1.0, toolbox.getControlDT(), registry);
+      controllerCoreSubmitTimer = new ExecutionTimer("controllerCoreSubmitTimer", 1.0, toolbox.getControlDT(), registry);
 
       feedbackController = new WholeBodyFeedbackController(toolbox, allPossibleCommands, registry);
 
@@ -57,8 +57,8 @@ public class HighLevelHumanoidControllerManager implements RobotController
 
    private final HighLevelStateChangeStatusMessage highLevelStateChangeStatusMessage = new HighLevelStateChangeStatusMessage();
 
-   private final ExecutionTimer highLevelControllerTimer = new ExecutionTimer("activeHighLevelControllerTimer", 1.0, registry);
-   private final ExecutionTimer controllerCoreTimer = new ExecutionTimer("controllerCoreTimer", 1.0, registry);
+   private final ExecutionTimer highLevelControllerTimer;
+   private final ExecutionTimer controllerCoreTimer;
 
    public HighLevelHumanoidControllerManager(CommandInputManager commandInputManager, StatusMessageOutputManager statusMessageOutputManager,
          WholeBodyControllerCore controllerCore, HighLevelState initialBehavior, ArrayList<HighLevelBehavior> highLevelBehaviors,
@@ -71,6 +71,10 @@ public class HighLevelHumanoidControllerManager implements RobotController
       this.controllerCoreOutput = controllerCoreOutput;
       this.controllerCore = controllerCore;
 
+      double controlDT = momentumBasedController.getControlDT();
+      highLevelControllerTimer = new ExecutionTimer("activeHighLevelControllerTimer", 1.0, controlDT, registry);
+      controllerCoreTimer = new ExecutionTimer("controllerCoreTimer", 1.0, controlDT, registry);
+
       this.stateMachine = setUpStateMachine(highLevelBehaviors, yoTime, registry);
       requestedHighLevelState.set(initialBehavior);
 
@@ -126,6 +126,7 @@ public class InverseDynamicsOptimizationControlModule
       qpSolver = new InverseDynamicsQPSolver(numberOfDoFs, rhoSize, registry);
       qpSolver.setAccelerationRegularizationWeight(momentumOptimizationSettings.getJointAccelerationWeight());
       qpSolver.setJerkRegularizationWeight(momentumOptimizationSettings.getJointJerkWeight());
+      qpSolver.setUseWarmStart(momentumOptimizationSettings.useWarmStartInSolver());
 
       parentRegistry.addChild(registry);
    }
@@ -44,6 +44,10 @@ public class InverseDynamicsQPSolver
    private final DenseMatrix64F solverOutput_rhos;
 
    private final IntegerYoVariable numberOfIterations = new IntegerYoVariable("numberOfIterations", registry);
+   private final IntegerYoVariable numberOfFactorizations = new IntegerYoVariable("numberOfFactorizations", registry);
+   private final IntegerYoVariable numberOfFactorizationUpdates = new IntegerYoVariable("numberOfFactorizationUpdates", registry);
+   private final IntegerYoVariable numberOfActiveConstraints = new IntegerYoVariable("numberOfActiveConstraints", registry);
+   private final BooleanYoVariable useWarmStart = new BooleanYoVariable("useWarmStart", registry);
    private final IntegerYoVariable numberOfEqualityConstraints = new IntegerYoVariable("numberOfEqualityConstraints", registry);
    private final IntegerYoVariable numberOfInequalityConstraints = new IntegerYoVariable("numberOfInequalityConstraints", registry);
    private final IntegerYoVariable numberOfConstraints = new IntegerYoVariable("numberOfConstraints", registry);
@@ -69,6 +73,7 @@ public class InverseDynamicsQPSolver
       this.problemSize = numberOfDoFs + rhoSize;
 
       firstCall.set(true);
+      useWarmStart.set(false);
 
       solverInput_H = new DenseMatrix64F(problemSize, problemSize);
       solverInput_f = new DenseMatrix64F(problemSize, 1);
@@ -119,6 +124,14 @@ public class InverseDynamicsQPSolver
       parentRegistry.addChild(registry);
    }
 
+   /**
+    * Starts every solve from the active set of the previous one. It is disabled by default.
+    */
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      this.useWarmStart.set(useWarmStart);
+   }
+
    public void setAccelerationRegularizationWeight(double weight)
    {
       jointAccelerationRegularization.set(weight);
@@ -325,6 +338,7 @@ public class InverseDynamicsQPSolver
       qpSolverTimer.startMeasurement();
 
       qpSolver.clear();
+      qpSolver.setUseWarmStart(useWarmStart.getBooleanValue());
 
       qpSolver.setQuadraticCostFunction(solverInput_H, solverInput_f, 0.0);
       qpSolver.setVariableBounds(solverInput_lb, solverInput_ub);
@@ -334,6 +348,10 @@ public class InverseDynamicsQPSolver
       numberOfIterations.set(qpSolver.solve(solverOutput));
 
       qpSolverTimer.stopMeasurement();
+
+      numberOfFactorizations.set(qpSolver.getNumberOfFactorizations());
+      numberOfFactorizationUpdates.set(qpSolver.getNumberOfFactorizationUpdates());
+      numberOfActiveConstraints.set(qpSolver.getNumberOfActiveConstraints());
       
       hasWrenchesEquilibriumConstraintBeenSetup = false;
 
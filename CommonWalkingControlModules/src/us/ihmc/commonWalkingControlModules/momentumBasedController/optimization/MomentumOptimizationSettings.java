@@ -64,4 +64,13 @@ public abstract class MomentumOptimizationSettings
    public abstract int getRhoSize();
 
    public abstract double getSpineJointspaceWeight();
+
+   /**
+    * Determines whether the QP solver starts every control tick from the active set of the previous tick. It needs fewer iterations
+    * when the contact state and the active limits do not change from one tick to the next.
+    */
+   public boolean useWarmStartInSolver()
+   {
+      return false;
+   }
 }
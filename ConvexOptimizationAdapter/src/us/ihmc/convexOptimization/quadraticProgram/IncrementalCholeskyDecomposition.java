@@ -0,0 +1,187 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import java.util.Arrays;
+
+/**
+ * Cholesky decomposition M = L * L<sup>T</sup> of a symmetric positive definite matrix that is built one row and column at a
+ * time, and from which any row and column can be removed.
+ * <p>
+ * Adding a row costs O(n<sup>2</sup>) instead of the O(n<sup>3</sup>) of a new decomposition, which is what an active set method
+ * needs when one constraint enters the active set. Removing a row is a rank-one update of the part of L below that row, also
+ * O(n<sup>2</sup>).
+ */
+public class IncrementalCholeskyDecomposition
+{
+   private static final double POSITIVE_DEFINITE_TOLERANCE = 1e-12;
+
+   private int capacity;
+   private double[] L;
+   private int size = 0;
+
+   private double[] tempVector;
+
+   public IncrementalCholeskyDecomposition(int initialCapacity)
+   {
+      capacity = Math.max(initialCapacity, 1);
+      L = new double[capacity * capacity];
+      tempVector = new double[capacity];
+   }
+
+   public void clear()
+   {
+      size = 0;
+   }
+
+   public int getSize()
+   {
+      return size;
+   }
+
+   /**
+    * Keeps only the first rows and columns. The decomposition of a leading block of M is the leading block of L, so this is free.
+    */
+   public void truncate(int newSize)
+   {
+      if (newSize > size)
+         throw new RuntimeException("Cannot truncate to a larger size: " + newSize + " > " + size);
+
+      size = newSize;
+   }
+
+   public double get(int row, int column)
+   {
+      return L[row * capacity + column];
+   }
+
+   /**
+    * Appends a row and a column to M.
+    *
+    * @param offDiagonal the first {@link #getSize()} elements of the new column of M.
+    * @param diagonal the new diagonal element of M.
+    * @return false if M would not be positive definite anymore, in which case the decomposition is left unchanged.
+    */
+   public boolean add(double[] offDiagonal, double diagonal)
+   {
+      if (size == capacity)
+         grow(2 * capacity);
+
+      // Solve L * l = offDiagonal for the new row of L.
+      int rowStart = size * capacity;
+      double lengthSquared = 0.0;
+
+      for (int i = 0; i < size; i++)
+      {
+         double value = offDiagonal[i];
+         int iStart = i * capacity;
+
+         for (int j = 0; j < i; j++)
+         {
+            value -= L[iStart + j] * L[rowStart + j];
+         }
+
+         value /= L[iStart + i];
+         L[rowStart + i] = value;
+         lengthSquared += value * value;
+      }
+
+      double pivot = diagonal - lengthSquared;
+
+      if (!(pivot > POSITIVE_DEFINITE_TOLERANCE * Math.abs(diagonal)))
+         return false;
+
+      L[rowStart + size] = Math.sqrt(pivot);
+      size++;
+
+      return true;
+   }
+
+   /**
+    * Removes a row and the corresponding column from M.
+    */
+   public void remove(int index)
+   {
+      if (index < 0 || index >= size)
+         throw new RuntimeException("Index out of bounds: " + index);
+
+      // The column below the removed row goes into the rank-one update of the block below the removed row.
+      double[] v = tempVector;
+      int numberOfRowsBelow = size - index - 1;
+
+      for (int i = 0; i < numberOfRowsBelow; i++)
+      {
+         int row = index + 1 + i;
+         v[i] = L[row * capacity + index];
+
+         // Shift the row up and its elements past the removed column to the left.
+         int source = row * capacity;
+         int destination = (row - 1) * capacity;
+         System.arraycopy(L, source, L, destination, index);
+         System.arraycopy(L, source + index + 1, L, destination + index, row - index);
+      }
+
+      size--;
+
+      for (int p = 0; p < numberOfRowsBelow; p++)
+      {
+         int diagonalIndex = (index + p) * capacity + index + p;
+         double Lpp = L[diagonalIndex];
+         double r = Math.sqrt(Lpp * Lpp + v[p] * v[p]);
+         double c = r / Lpp;
+         double s = v[p] / Lpp;
+         L[diagonalIndex] = r;
+
+         for (int i = p + 1; i < numberOfRowsBelow; i++)
+         {
+            int elementIndex = (index + i) * capacity + index + p;
+            double Lip = (L[elementIndex] + s * v[i]) / c;
+            L[elementIndex] = Lip;
+            v[i] = c * v[i] - s * Lip;
+         }
+      }
+   }
+
+   /**
+    * Solves M * x = b.
+    */
+   public void solve(double[] b, double[] xToPack)
+   {
+      for (int i = 0; i < size; i++)
+      {
+         double value = b[i];
+         int iStart = i * capacity;
+
+         for (int j = 0; j < i; j++)
+         {
+            value -= L[iStart + j] * xToPack[j];
+         }
+
+         xToPack[i] = value / L[iStart + i];
+      }
+
+      for (int i = size - 1; i >= 0; i--)
+      {
+         double value = xToPack[i];
+
+         for (int j = i + 1; j < size; j++)
+         {
+            value -= L[j * capacity + i] * xToPack[j];
+         }
+
+         xToPack[i] = value / L[i * capacity + i];
+      }
+   }
+
+   private void grow(int newCapacity)
+   {
+      double[] newL = new double[newCapacity * newCapacity];
+
+      for (int i = 0; i < size; i++)
+      {
+         System.arraycopy(L, i * capacity, newL, i * newCapacity, i + 1);
+      }
+
+      L = newL;
+      capacity = newCapacity;
+      tempVector = Arrays.copyOf(tempVector, newCapacity);
+   }
+}
@@ -10,6 +10,17 @@ public interface SimpleActiveSetQPSolverInterface
 
    public abstract void setMaxNumberOfIterations(int maxNumberOfIterations);
 
+   /**
+    * When enabled, each solve starts from the active set of the previous solve, which also seeds the solution and the Lagrange
+    * multipliers. The previous active set is dropped when the size of the problem changes or the previous solve failed.
+    */
+   public abstract void setUseWarmStart(boolean useWarmStart);
+
+   /**
+    * Forgets the active set of the previous solve, so that the next solve starts with no active inequality constraints.
+    */
+   public abstract void resetActiveConstraints();
+
    public abstract void clear();
 
    public abstract void setQuadraticCostFunction(double[][] quadraticCostFunctionWMatrix, double[] quadraticCostFunctionGVector, double quadraticCostScalar);
@@ -1,9 +1,12 @@
 package us.ihmc.convexOptimization.quadraticProgram;
 
+import java.util.Arrays;
+
 import org.ejml.data.DenseMatrix64F;
 import org.ejml.factory.LinearSolverFactory;
 import org.ejml.interfaces.linsol.LinearSolver;
 import org.ejml.ops.CommonOps;
+import org.ejml.ops.MatrixFeatures;
 
 import gnu.trove.list.array.TIntArrayList;
 import us.ihmc.robotics.linearAlgebra.MatrixTools;
@@ -16,6 +19,17 @@ import us.ihmc.robotics.linearAlgebra.MatrixTools;
  * 
  *  Algorithm is very fast when it can find a solution.
  * 
+ * The equality constrained subproblems are solved with a Cholesky decomposition of the
+ * active constraints projected through the inverse of the cost matrix. That decomposition
+ * is updated when a constraint enters or leaves the active set instead of being recomputed,
+ * and the inverse of the cost matrix and the part of the decomposition due to the equality
+ * constraints are kept from one solve to the next when they did not change.
+ * 
+ * With warm start enabled, a solve starts from the active set found by the previous solve.
+ * The solution and the Lagrange multipliers only depend on the active set, so this also
+ * seeds them. When the problem changes a little from one call to the next, the previous
+ * active set is often the right one and a single iteration is needed.
+ * 
  * Uses the algorithm and naming convention found in MIT Paper
  * "An efficiently solvable quadratic program for stabilizing dynamic locomotion"
  * by Scott Kuindersma, Frank Permenter, and Russ Tedrake.
@@ -101,12 +115,77 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
 
    private final LinearSolver<DenseMatrix64F> solver = LinearSolverFactory.linear(0);
 
+   private static final int EQUALITY = 0, INEQUALITY = 1, LOWER_BOUND = 2, UPPER_BOUND = 3;
+
+   private boolean useWarmStart = false;
+   private boolean canWarmStart = false;
+   private int previousNumberOfVariables = -1;
+   private int previousNumberOfInequalityConstraints = -1;
+
+   private final DenseMatrix64F quadraticCostQMatrixOfQInverse = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F linearEqualityConstraintsAMatrixOfFactorization = new DenseMatrix64F(0, 0);
+   private boolean areEqualityConstraintsFactorized = false;
+   private boolean areEqualityConstraintsLinearlyDependent = false;
+
+   /**
+    * Cholesky decomposition of G Q<sup>-1</sup> G<sup>T</sup>, where the rows of G are the equality constraints followed by the
+    * active constraints, in the order in which they entered the active set.
+    */
+   private final IncrementalCholeskyDecomposition activeSetFactorization = new IncrementalCholeskyDecomposition(16);
+   private final TIntArrayList factorizedConstraintTypes = new TIntArrayList();
+   private final TIntArrayList factorizedConstraintIndices = new TIntArrayList();
+   /** Row r holds the row g<sub>r</sub> of G. */
+   private double[] factorizedConstraintRows = new double[0];
+   /** Row r holds Q<sup>-1</sup> g<sub>r</sub><sup>T</sup>. */
+   private double[] factorizedConstraintRowsQInverse = new double[0];
+   private final DenseMatrix64F unconstrainedSolution = new DenseMatrix64F(0, 0);
+   private double[] factorizationColumn = new double[16];
+   private double[] factorizationRightHandSide = new double[16];
+   private double[] factorizationLagrangeMultipliers = new double[16];
+
+   private int numberOfFactorizations = 0;
+   private int numberOfFactorizationUpdates = 0;
+
    @Override
    public void setMaxNumberOfIterations(int maxNumberOfIterations)
    {
       this.maxNumberOfIterations = maxNumberOfIterations;
    }
 
+   @Override
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      this.useWarmStart = useWarmStart;
+   }
+
+   @Override
+   public void resetActiveConstraints()
+   {
+      canWarmStart = false;
+   }
+
+   /**
+    * @return the number of times the cost matrix was inverted or the decomposition of the active constraints was rebuilt from
+    *         scratch during the last solve.
+    */
+   public int getNumberOfFactorizations()
+   {
+      return numberOfFactorizations;
+   }
+
+   /**
+    * @return the number of constraints added to or removed from the decomposition of the active constraints during the last solve.
+    */
+   public int getNumberOfFactorizationUpdates()
+   {
+      return numberOfFactorizationUpdates;
+   }
+
+   public int getNumberOfActiveConstraints()
+   {
+      return activeInequalityIndices.size() + activeLowerBoundIndices.size() + activeUpperBoundIndices.size();
+   }
+
    @Override
    public void clear()
    {
@@ -341,15 +420,6 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
                     DenseMatrix64F lagrangeInequalityConstraintMultipliersToPack, DenseMatrix64F lagrangeLowerBoundConstraintMultipliersToPack,
                     DenseMatrix64F lagrangeUpperBoundConstraintMultipliersToPack)
    {
-      CBar.reshape(0, 0);
-      CHat.reshape(0, 0);
-      DBar.reshape(0, 0);
-      DHat.reshape(0, 0);
-
-      activeInequalityIndices.reset();
-      activeUpperBoundIndices.reset();
-      activeLowerBoundIndices.reset();
-
       int numberOfIterations = 0;
 
       int numberOfVariables = quadraticCostQMatrix.getNumRows();
@@ -358,6 +428,24 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
       int numberOfLowerBoundConstraints = variableLowerBounds.getNumRows();
       int numberOfUpperBoundConstraints = variableUpperBounds.getNumRows();
 
+      boolean warmStart = useWarmStart && canWarmStart && (numberOfVariables == previousNumberOfVariables)
+            && (numberOfInequalityConstraints == previousNumberOfInequalityConstraints);
+
+      canWarmStart = false;
+      previousNumberOfVariables = numberOfVariables;
+      previousNumberOfInequalityConstraints = numberOfInequalityConstraints;
+
+      if (warmStart)
+      {
+         removeActiveConstraintsThatCannotBeActive();
+      }
+      else
+      {
+         activeInequalityIndices.reset();
+         activeUpperBoundIndices.reset();
+         activeLowerBoundIndices.reset();
+      }
+
       solutionToPack.reshape(numberOfVariables, 1);
       lagrangeEqualityConstraintMultipliersToPack.reshape(numberOfEqualityConstraints, 1);
       lagrangeEqualityConstraintMultipliersToPack.zero();
@@ -368,10 +456,17 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
       lagrangeUpperBoundConstraintMultipliersToPack.reshape(numberOfUpperBoundConstraints, 1);
       lagrangeUpperBoundConstraintMultipliersToPack.zero();
 
+      numberOfFactorizations = 0;
+      numberOfFactorizationUpdates = 0;
+
       computeQInverseAndAQInverse();
 
-      solveEqualityConstrainedSubproblemEfficiently(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
-                                                    lagrangeLowerBoundConstraintMultipliersToPack, lagrangeUpperBoundConstraintMultipliersToPack);
+      // The inequality constraints may have changed since the last solve, only the equality constraints are kept.
+      if (areEqualityConstraintsFactorized)
+         truncateFactorization(numberOfEqualityConstraints);
+
+      solveEqualityConstrainedSubproblem(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
+                                         lagrangeLowerBoundConstraintMultipliersToPack, lagrangeUpperBoundConstraintMultipliersToPack);
 
       //      System.out.println(numberOfInequalityConstraints + ", " + numberOfLowerBoundConstraints + ", " + numberOfUpperBoundConstraints);
       if ((numberOfInequalityConstraints == 0) && (numberOfLowerBoundConstraints == 0) && (numberOfUpperBoundConstraints == 0))
@@ -387,7 +482,10 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
          numberOfIterations++;
 
          if (!activeSetWasModified)
+         {
+            canWarmStart = !containsNaN(solutionToPack);
             return numberOfIterations;
+         }
       }
 
       for (int i = 0; i < numberOfVariables; i++)
@@ -403,10 +501,25 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
 
       ATranspose.reshape(linearEqualityConstraintsAMatrix.getNumCols(), linearEqualityConstraintsAMatrix.getNumRows());
       CommonOps.transpose(linearEqualityConstraintsAMatrix, ATranspose);
-      QInverse.reshape(numberOfVariables, numberOfVariables);
 
-      solver.setA(quadraticCostQMatrix);
-      solver.invert(QInverse);
+      if (!MatrixFeatures.isEquals(quadraticCostQMatrix, quadraticCostQMatrixOfQInverse))
+      {
+         QInverse.reshape(numberOfVariables, numberOfVariables);
+         solver.setA(quadraticCostQMatrix);
+         solver.invert(QInverse);
+
+         quadraticCostQMatrixOfQInverse.set(quadraticCostQMatrix);
+         areEqualityConstraintsFactorized = false;
+         areEqualityConstraintsLinearlyDependent = false;
+         numberOfFactorizations++;
+      }
+
+      if (!MatrixFeatures.isEquals(linearEqualityConstraintsAMatrix, linearEqualityConstraintsAMatrixOfFactorization))
+      {
+         linearEqualityConstraintsAMatrixOfFactorization.set(linearEqualityConstraintsAMatrix);
+         areEqualityConstraintsFactorized = false;
+         areEqualityConstraintsLinearlyDependent = false;
+      }
 
       AQInverse.reshape(numberOfEqualityConstraints, numberOfVariables);
       QInverseATranspose.reshape(numberOfVariables, numberOfEqualityConstraints);
@@ -635,6 +748,41 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
          activeUpperBoundIndices.remove(upperBoundIndicesToRemoveFromActiveSet.get(i));
       }
 
+      solveEqualityConstrainedSubproblem(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
+                                         lagrangeLowerBoundConstraintMultipliersToPack, lagrangeUpperBoundConstraintMultipliersToPack);
+
+      return true;
+   }
+
+   private void removeActiveConstraintsThatCannotBeActive()
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+
+      for (int i = activeInequalityIndices.size() - 1; i >= 0; i--)
+      {
+         if (!Double.isFinite(linearInequalityConstraintsDVectorO.get(activeInequalityIndices.get(i))))
+            activeInequalityIndices.removeAt(i);
+      }
+
+      for (int i = activeLowerBoundIndices.size() - 1; i >= 0; i--)
+      {
+         int index = activeLowerBoundIndices.get(i);
+         if (index >= variableLowerBounds.getNumRows() || index >= numberOfVariables || !Double.isFinite(variableLowerBounds.get(index)))
+            activeLowerBoundIndices.removeAt(i);
+      }
+
+      for (int i = activeUpperBoundIndices.size() - 1; i >= 0; i--)
+      {
+         int index = activeUpperBoundIndices.get(i);
+         if (index >= variableUpperBounds.getNumRows() || index >= numberOfVariables || !Double.isFinite(variableUpperBounds.get(index)))
+            activeUpperBoundIndices.removeAt(i);
+      }
+   }
+
+   private void buildActiveSetConstraintMatrices()
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+
       // Add active set constraints as equality constraints:
       int sizeOfActiveSet = activeInequalityIndices.size();
 
@@ -679,11 +827,6 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
          DHat.set(row, 0, variableUpperBounds.get(upperBoundsConstraintIndex));
          row++;
       }
-
-      solveEqualityConstrainedSubproblemEfficiently(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
-                                                    lagrangeLowerBoundConstraintMultipliersToPack, lagrangeUpperBoundConstraintMultipliersToPack);
-
-      return true;
    }
 
    private boolean containsNaN(DenseMatrix64F solution)
@@ -697,6 +840,307 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
       return false;
    }
 
+   private void solveEqualityConstrainedSubproblem(DenseMatrix64F xSolutionToPack, DenseMatrix64F lagrangeEqualityConstraintMultipliersToPack,
+                                                   DenseMatrix64F lagrangeInequalityConstraintMultipliersToPack,
+                                                   DenseMatrix64F lagrangeLowerBoundConstraintMultipliersToPack,
+                                                   DenseMatrix64F lagrangeUpperBoundConstraintMultipliersToPack)
+   {
+      if (updateActiveSetFactorization())
+      {
+         solveEqualityConstrainedSubproblemWithFactorization(xSolutionToPack, lagrangeEqualityConstraintMultipliersToPack,
+                                                             lagrangeInequalityConstraintMultipliersToPack, lagrangeLowerBoundConstraintMultipliersToPack,
+                                                             lagrangeUpperBoundConstraintMultipliersToPack);
+      }
+      else
+      {
+         // The active constraints are linearly dependent, fall back to solving the full system.
+         buildActiveSetConstraintMatrices();
+         solveEqualityConstrainedSubproblemEfficiently(xSolutionToPack, lagrangeEqualityConstraintMultipliersToPack,
+                                                       lagrangeInequalityConstraintMultipliersToPack, lagrangeLowerBoundConstraintMultipliersToPack,
+                                                       lagrangeUpperBoundConstraintMultipliersToPack);
+      }
+   }
+
+   /**
+    * Brings the decomposition of the active constraints in line with the active set: the constraints that left the active set are
+    * removed and the ones that entered it are appended.
+    * 
+    * @return false if the active constraints are not linearly independent.
+    */
+   private boolean updateActiveSetFactorization()
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+      int numberOfEqualityConstraints = linearEqualityConstraintsAMatrix.getNumRows();
+
+      if (areEqualityConstraintsLinearlyDependent)
+         return false;
+
+      if (!areEqualityConstraintsFactorized)
+      {
+         truncateFactorization(0);
+         numberOfFactorizations++;
+
+         for (int i = 0; i < numberOfEqualityConstraints; i++)
+         {
+            if (!addConstraintToFactorization(EQUALITY, i, numberOfVariables))
+            {
+               areEqualityConstraintsLinearlyDependent = true;
+               return false;
+            }
+         }
+
+         areEqualityConstraintsFactorized = true;
+      }
+
+      for (int row = activeSetFactorization.getSize() - 1; row >= numberOfEqualityConstraints; row--)
+      {
+         if (!getActiveIndices(factorizedConstraintTypes.get(row)).contains(factorizedConstraintIndices.get(row)))
+         {
+            removeConstraintFromFactorization(row, numberOfVariables);
+            numberOfFactorizationUpdates++;
+         }
+      }
+
+      if (!addActiveConstraintsToFactorization(INEQUALITY, numberOfVariables))
+         return false;
+      if (!addActiveConstraintsToFactorization(LOWER_BOUND, numberOfVariables))
+         return false;
+      if (!addActiveConstraintsToFactorization(UPPER_BOUND, numberOfVariables))
+         return false;
+
+      return true;
+   }
+
+   private TIntArrayList getActiveIndices(int constraintType)
+   {
+      switch (constraintType)
+      {
+      case INEQUALITY:
+         return activeInequalityIndices;
+      case LOWER_BOUND:
+         return activeLowerBoundIndices;
+      case UPPER_BOUND:
+         return activeUpperBoundIndices;
+      default:
+         throw new RuntimeException("Equality constraints are always active.");
+      }
+   }
+
+   private boolean addActiveConstraintsToFactorization(int constraintType, int numberOfVariables)
+   {
+      TIntArrayList activeIndices = getActiveIndices(constraintType);
+
+      for (int i = 0; i < activeIndices.size(); i++)
+      {
+         int constraintIndex = activeIndices.get(i);
+
+         if (isFactorized(constraintType, constraintIndex))
+            continue;
+
+         if (!addConstraintToFactorization(constraintType, constraintIndex, numberOfVariables))
+            return false;
+
+         numberOfFactorizationUpdates++;
+      }
+
+      return true;
+   }
+
+   private boolean isFactorized(int constraintType, int constraintIndex)
+   {
+      for (int row = linearEqualityConstraintsAMatrix.getNumRows(); row < factorizedConstraintTypes.size(); row++)
+      {
+         if (factorizedConstraintTypes.get(row) == constraintType && factorizedConstraintIndices.get(row) == constraintIndex)
+            return true;
+      }
+
+      return false;
+   }
+
+   private boolean addConstraintToFactorization(int constraintType, int constraintIndex, int numberOfVariables)
+   {
+      int row = activeSetFactorization.getSize();
+
+      if (factorizedConstraintRows.length < (row + 1) * numberOfVariables)
+      {
+         int newLength = Math.max(2 * factorizedConstraintRows.length, (row + 1) * numberOfVariables);
+         factorizedConstraintRows = Arrays.copyOf(factorizedConstraintRows, newLength);
+         factorizedConstraintRowsQInverse = Arrays.copyOf(factorizedConstraintRowsQInverse, newLength);
+      }
+
+      if (factorizationColumn.length < row + 1)
+      {
+         factorizationColumn = new double[2 * (row + 1)];
+         factorizationRightHandSide = new double[2 * (row + 1)];
+         factorizationLagrangeMultipliers = new double[2 * (row + 1)];
+      }
+
+      int rowStart = row * numberOfVariables;
+
+      switch (constraintType)
+      {
+      case EQUALITY:
+         System.arraycopy(linearEqualityConstraintsAMatrix.getData(), constraintIndex * numberOfVariables, factorizedConstraintRows, rowStart, numberOfVariables);
+         break;
+      case INEQUALITY:
+         System.arraycopy(linearInequalityConstraintsCMatrixO.getData(), constraintIndex * numberOfVariables, factorizedConstraintRows, rowStart,
+                          numberOfVariables);
+         break;
+      default:
+         Arrays.fill(factorizedConstraintRows, rowStart, rowStart + numberOfVariables, 0.0);
+         factorizedConstraintRows[rowStart + constraintIndex] = constraintType == LOWER_BOUND ? -1.0 : 1.0;
+         break;
+      }
+
+      // Q is symmetric, so Q^-1 g^T is computed as g Q^-1.
+      double[] QInverseData = QInverse.getData();
+      for (int j = 0; j < numberOfVariables; j++)
+      {
+         factorizedConstraintRowsQInverse[rowStart + j] = 0.0;
+      }
+
+      for (int k = 0; k < numberOfVariables; k++)
+      {
+         double g = factorizedConstraintRows[rowStart + k];
+         if (g == 0.0)
+            continue;
+
+         int QInverseRowStart = k * numberOfVariables;
+         for (int j = 0; j < numberOfVariables; j++)
+         {
+            factorizedConstraintRowsQInverse[rowStart + j] += g * QInverseData[QInverseRowStart + j];
+         }
+      }
+
+      for (int otherRow = 0; otherRow < row; otherRow++)
+      {
+         factorizationColumn[otherRow] = dot(factorizedConstraintRows, otherRow * numberOfVariables, factorizedConstraintRowsQInverse, rowStart, numberOfVariables);
+      }
+
+      double diagonal = dot(factorizedConstraintRows, rowStart, factorizedConstraintRowsQInverse, rowStart, numberOfVariables);
+
+      if (!activeSetFactorization.add(factorizationColumn, diagonal))
+         return false;
+
+      factorizedConstraintTypes.add(constraintType);
+      factorizedConstraintIndices.add(constraintIndex);
+      return true;
+   }
+
+   private void removeConstraintFromFactorization(int row, int numberOfVariables)
+   {
+      activeSetFactorization.remove(row);
+      factorizedConstraintTypes.removeAt(row);
+      factorizedConstraintIndices.removeAt(row);
+
+      int numberOfRowsToShift = factorizedConstraintTypes.size() - row;
+      System.arraycopy(factorizedConstraintRows, (row + 1) * numberOfVariables, factorizedConstraintRows, row * numberOfVariables,
+                       numberOfRowsToShift * numberOfVariables);
+      System.arraycopy(factorizedConstraintRowsQInverse, (row + 1) * numberOfVariables, factorizedConstraintRowsQInverse, row * numberOfVariables,
+                       numberOfRowsToShift * numberOfVariables);
+   }
+
+   private void truncateFactorization(int size)
+   {
+      size = Math.min(size, activeSetFactorization.getSize());
+      activeSetFactorization.truncate(size);
+      factorizedConstraintTypes.remove(size, factorizedConstraintTypes.size() - size);
+      factorizedConstraintIndices.remove(size, factorizedConstraintIndices.size() - size);
+   }
+
+   private static double dot(double[] a, int aStart, double[] b, int bStart, int length)
+   {
+      double result = 0.0;
+      for (int i = 0; i < length; i++)
+      {
+         result += a[aStart + i] * b[bStart + i];
+      }
+      return result;
+   }
+
+   private void solveEqualityConstrainedSubproblemWithFactorization(DenseMatrix64F xSolutionToPack, DenseMatrix64F lagrangeEqualityConstraintMultipliersToPack,
+                                                                    DenseMatrix64F lagrangeInequalityConstraintMultipliersToPack,
+                                                                    DenseMatrix64F lagrangeLowerBoundConstraintMultipliersToPack,
+                                                                    DenseMatrix64F lagrangeUpperBoundConstraintMultipliersToPack)
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+      int numberOfFactorizedConstraints = activeSetFactorization.getSize();
+
+      negativeQuadraticCostQVector.set(quadraticCostQVector);
+      CommonOps.scale(-1.0, negativeQuadraticCostQVector);
+      unconstrainedSolution.reshape(numberOfVariables, 1);
+      CommonOps.mult(QInverse, negativeQuadraticCostQVector, unconstrainedSolution);
+
+      xSolutionToPack.set(unconstrainedSolution);
+
+      if (numberOfFactorizedConstraints == 0)
+         return;
+
+      // G Q^-1 G^T lambda = G x0 - h, where x0 = -Q^-1 q is the unconstrained solution.
+      double[] x0 = unconstrainedSolution.getData();
+
+      for (int row = 0; row < numberOfFactorizedConstraints; row++)
+      {
+         double constraintValue = dot(factorizedConstraintRows, row * numberOfVariables, x0, 0, numberOfVariables);
+         int constraintIndex = factorizedConstraintIndices.get(row);
+
+         switch (factorizedConstraintTypes.get(row))
+         {
+         case EQUALITY:
+            constraintValue -= linearEqualityConstraintsBVector.get(constraintIndex);
+            break;
+         case INEQUALITY:
+            constraintValue -= linearInequalityConstraintsDVectorO.get(constraintIndex);
+            break;
+         case LOWER_BOUND:
+            constraintValue += variableLowerBounds.get(constraintIndex);
+            break;
+         case UPPER_BOUND:
+            constraintValue -= variableUpperBounds.get(constraintIndex);
+            break;
+         }
+
+         factorizationRightHandSide[row] = constraintValue;
+      }
+
+      activeSetFactorization.solve(factorizationRightHandSide, factorizationLagrangeMultipliers);
+
+      // x = x0 - Q^-1 G^T lambda
+      double[] x = xSolutionToPack.getData();
+      lagrangeInequalityConstraintMultipliersToPack.zero();
+      lagrangeLowerBoundConstraintMultipliersToPack.zero();
+      lagrangeUpperBoundConstraintMultipliersToPack.zero();
+
+      for (int row = 0; row < numberOfFactorizedConstraints; row++)
+      {
+         double lagrangeMultiplier = factorizationLagrangeMultipliers[row];
+         int rowStart = row * numberOfVariables;
+
+         for (int j = 0; j < numberOfVariables; j++)
+         {
+            x[j] -= lagrangeMultiplier * factorizedConstraintRowsQInverse[rowStart + j];
+         }
+
+         int constraintIndex = factorizedConstraintIndices.get(row);
+
+         switch (factorizedConstraintTypes.get(row))
+         {
+         case EQUALITY:
+            lagrangeEqualityConstraintMultipliersToPack.set(constraintIndex, 0, lagrangeMultiplier);
+            break;
+         case INEQUALITY:
+            lagrangeInequalityConstraintMultipliersToPack.set(constraintIndex, 0, lagrangeMultiplier);
+            break;
+         case LOWER_BOUND:
+            lagrangeLowerBoundConstraintMultipliersToPack.set(constraintIndex, 0, lagrangeMultiplier);
+            break;
+         case UPPER_BOUND:
+            lagrangeUpperBoundConstraintMultipliersToPack.set(constraintIndex, 0, lagrangeMultiplier);
+            break;
+         }
+      }
+   }
+
    private void solveEqualityConstrainedSubproblemEfficiently(DenseMatrix64F xSolutionToPack, DenseMatrix64F lagrangeEqualityConstraintMultipliersToPack,
                                                               DenseMatrix64F lagrangeInequalityConstraintMultipliersToPack,
                                                               DenseMatrix64F lagrangeLowerBoundConstraintMultipliersToPack,
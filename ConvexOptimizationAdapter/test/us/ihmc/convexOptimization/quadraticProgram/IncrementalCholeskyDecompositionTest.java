@@ -0,0 +1,162 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.junit.Test;
+
+import us.ihmc.robotics.random.RandomTools;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class IncrementalCholeskyDecompositionTest
+{
+   private static final double EPSILON = 1e-9;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testRandomAddAndRemove()
+   {
+      Random random = new Random(4576L);
+
+      int dimension = 30;
+      DenseMatrix64F G = RandomTools.generateRandomMatrix(random, 2 * dimension, dimension);
+
+      IncrementalCholeskyDecomposition decomposition = new IncrementalCholeskyDecomposition(1);
+      ArrayList<Integer> rows = new ArrayList<>();
+
+      for (int step = 0; step < 500; step++)
+      {
+         boolean add = rows.isEmpty() || (rows.size() < dimension && random.nextBoolean());
+
+         if (add)
+         {
+            int newRow = random.nextInt(G.getNumRows());
+            if (rows.contains(newRow))
+               continue;
+
+            double[] offDiagonal = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++)
+            {
+               offDiagonal[i] = dot(G, rows.get(i), newRow);
+            }
+
+            assertTrue(decomposition.add(offDiagonal, dot(G, newRow, newRow)));
+            rows.add(newRow);
+         }
+         else
+         {
+            int index = random.nextInt(rows.size());
+            decomposition.remove(index);
+            rows.remove(index);
+         }
+
+         assertEquals(rows.size(), decomposition.getSize());
+         assertDecompositionIsCorrect(G, rows, decomposition);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSolve()
+   {
+      Random random = new Random(123L);
+
+      int size = 12;
+      DenseMatrix64F G = RandomTools.generateRandomMatrix(random, size, size + 3);
+      IncrementalCholeskyDecomposition decomposition = new IncrementalCholeskyDecomposition(4);
+
+      for (int row = 0; row < size; row++)
+      {
+         double[] offDiagonal = new double[row];
+         for (int i = 0; i < row; i++)
+         {
+            offDiagonal[i] = dot(G, i, row);
+         }
+         assertTrue(decomposition.add(offDiagonal, dot(G, row, row)));
+      }
+
+      double[] b = new double[size];
+      for (int i = 0; i < size; i++)
+      {
+         b[i] = RandomTools.generateRandomDouble(random, 10.0);
+      }
+
+      double[] x = new double[size];
+      decomposition.solve(b, x);
+
+      for (int i = 0; i < size; i++)
+      {
+         double Mx = 0.0;
+         for (int j = 0; j < size; j++)
+         {
+            Mx += dot(G, i, j) * x[j];
+         }
+         assertEquals(b[i], Mx, 1e-8);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testAddLinearlyDependentRow()
+   {
+      IncrementalCholeskyDecomposition decomposition = new IncrementalCholeskyDecomposition(2);
+
+      assertTrue(decomposition.add(new double[0], 4.0));
+      assertTrue(decomposition.add(new double[] {2.0}, 5.0));
+
+      // Third row of G is the sum of the first two: G = [2 0; 1 2; 3 2].
+      assertFalse(decomposition.add(new double[] {6.0, 7.0}, 13.0));
+      assertEquals(2, decomposition.getSize());
+
+      assertEquals(2.0, decomposition.get(0, 0), EPSILON);
+      assertEquals(1.0, decomposition.get(1, 0), EPSILON);
+      assertEquals(2.0, decomposition.get(1, 1), EPSILON);
+
+      decomposition.truncate(1);
+      assertEquals(1, decomposition.getSize());
+      assertTrue(decomposition.add(new double[] {6.0}, 13.0));
+   }
+
+   private static void assertDecompositionIsCorrect(DenseMatrix64F G, ArrayList<Integer> rows, IncrementalCholeskyDecomposition decomposition)
+   {
+      int size = rows.size();
+      DenseMatrix64F L = new DenseMatrix64F(size, size);
+
+      for (int i = 0; i < size; i++)
+      {
+         for (int j = 0; j <= i; j++)
+         {
+            L.set(i, j, decomposition.get(i, j));
+         }
+      }
+
+      DenseMatrix64F LLTranspose = new DenseMatrix64F(size, size);
+      CommonOps.multTransB(L, L, LLTranspose);
+
+      for (int i = 0; i < size; i++)
+      {
+         assertTrue(L.get(i, i) > 0.0);
+
+         for (int j = 0; j < size; j++)
+         {
+            assertEquals(dot(G, rows.get(i), rows.get(j)), LLTranspose.get(i, j), 1e-8);
+         }
+      }
+   }
+
+   private static double dot(DenseMatrix64F G, int rowOne, int rowTwo)
+   {
+      double result = 0.0;
+      for (int i = 0; i < G.getNumCols(); i++)
+      {
+         result += G.get(rowOne, i) * G.get(rowTwo, i);
+      }
+      return result;
+   }
+}
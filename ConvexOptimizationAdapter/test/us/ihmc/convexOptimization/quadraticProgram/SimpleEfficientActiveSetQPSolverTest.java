@@ -1,5 +1,18 @@
 package us.ihmc.convexOptimization.quadraticProgram;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.junit.Test;
+
+import us.ihmc.robotics.random.RandomTools;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
 public class SimpleEfficientActiveSetQPSolverTest extends AbstractSimpleActiveSetQPSolverTest
 {
    @Override
@@ -7,4 +20,155 @@ public class SimpleEfficientActiveSetQPSolverTest extends AbstractSimpleActiveSe
    {
       return new SimpleEfficientActiveSetQPSolver();
    }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testWarmStartOnSlowlyChangingProblem()
+   {
+      Random random = new Random(1492L);
+
+      int numberOfVariables = 40;
+      int numberOfEqualityConstraints = 6;
+      int numberOfInequalityConstraints = 20;
+      int numberOfTicks = 200;
+
+      DenseMatrix64F costQuadraticMatrix = RandomTools.generateRandomMatrix(random, numberOfVariables, numberOfVariables);
+      DenseMatrix64F identity = CommonOps.identity(numberOfVariables, numberOfVariables);
+      CommonOps.scale(numberOfVariables, identity);
+      CommonOps.addEquals(costQuadraticMatrix, identity);
+
+      DenseMatrix64F costLinearVector = RandomTools.generateRandomMatrix(random, numberOfVariables, 1, -10.0, 10.0);
+      DenseMatrix64F variableLowerBounds = RandomTools.generateRandomMatrix(random, numberOfVariables, 1, -0.5, -0.05);
+      DenseMatrix64F variableUpperBounds = RandomTools.generateRandomMatrix(random, numberOfVariables, 1, 0.05, 0.5);
+
+      // Build the constraints around a point that satisfies all of them so that the problem stays feasible.
+      DenseMatrix64F feasiblePoint = RandomTools.generateRandomMatrix(random, numberOfVariables, 1, -0.01, 0.01);
+
+      DenseMatrix64F linearEqualityConstraintsAMatrix = RandomTools.generateRandomMatrix(random, numberOfEqualityConstraints, numberOfVariables);
+      DenseMatrix64F linearEqualityConstraintsBVector = new DenseMatrix64F(numberOfEqualityConstraints, 1);
+      CommonOps.mult(linearEqualityConstraintsAMatrix, feasiblePoint, linearEqualityConstraintsBVector);
+
+      DenseMatrix64F linearInequalityConstraintsCMatrix = RandomTools.generateRandomMatrix(random, numberOfInequalityConstraints, numberOfVariables);
+      DenseMatrix64F linearInequalityConstraintsDVector = RandomTools.generateRandomMatrix(random, numberOfInequalityConstraints, 1, 0.1, 1.0);
+      CommonOps.multAdd(linearInequalityConstraintsCMatrix, feasiblePoint, linearInequalityConstraintsDVector);
+
+      SimpleEfficientActiveSetQPSolver coldSolver = new SimpleEfficientActiveSetQPSolver();
+      SimpleEfficientActiveSetQPSolver warmSolver = new SimpleEfficientActiveSetQPSolver();
+      warmSolver.setUseWarmStart(true);
+
+      DenseMatrix64F coldSolution = new DenseMatrix64F(0, 0);
+      DenseMatrix64F warmSolution = new DenseMatrix64F(0, 0);
+      DenseMatrix64F coldInequalityMultipliers = new DenseMatrix64F(0, 0);
+      DenseMatrix64F warmInequalityMultipliers = new DenseMatrix64F(0, 0);
+      DenseMatrix64F coldEqualityMultipliers = new DenseMatrix64F(0, 0);
+      DenseMatrix64F warmEqualityMultipliers = new DenseMatrix64F(0, 0);
+      DenseMatrix64F lowerBoundMultipliers = new DenseMatrix64F(0, 0);
+      DenseMatrix64F upperBoundMultipliers = new DenseMatrix64F(0, 0);
+
+      int totalColdIterations = 0;
+      int totalWarmIterations = 0;
+      int numberOfSolvedTicks = 0;
+      int numberOfTicksWithActiveConstraints = 0;
+
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         for (int i = 0; i < numberOfVariables; i++)
+         {
+            costLinearVector.add(i, 0, RandomTools.generateRandomDouble(random, 0.05));
+         }
+
+         for (SimpleEfficientActiveSetQPSolver solver : new SimpleEfficientActiveSetQPSolver[] {coldSolver, warmSolver})
+         {
+            solver.clear();
+            solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+            solver.setLinearEqualityConstraints(linearEqualityConstraintsAMatrix, linearEqualityConstraintsBVector);
+            solver.setLinearInequalityConstraints(linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector);
+            solver.setVariableBounds(variableLowerBounds, variableUpperBounds);
+         }
+
+         int coldIterations = coldSolver.solve(coldSolution, coldEqualityMultipliers, coldInequalityMultipliers, lowerBoundMultipliers, upperBoundMultipliers);
+         int warmIterations = warmSolver.solve(warmSolution, warmEqualityMultipliers, warmInequalityMultipliers, lowerBoundMultipliers, upperBoundMultipliers);
+
+         if (Double.isNaN(coldSolution.get(0)) || Double.isNaN(warmSolution.get(0)))
+            continue;
+
+         numberOfSolvedTicks++;
+         totalColdIterations += coldIterations;
+         totalWarmIterations += warmIterations;
+         if (warmSolver.getNumberOfActiveConstraints() > 0)
+            numberOfTicksWithActiveConstraints++;
+
+         for (int i = 0; i < numberOfVariables; i++)
+         {
+            assertEquals(coldSolution.get(i), warmSolution.get(i), 1e-7);
+         }
+
+         for (int i = 0; i < numberOfEqualityConstraints; i++)
+         {
+            assertEquals(coldEqualityMultipliers.get(i), warmEqualityMultipliers.get(i), 1e-6);
+         }
+
+         for (int i = 0; i < numberOfInequalityConstraints; i++)
+         {
+            assertEquals(coldInequalityMultipliers.get(i), warmInequalityMultipliers.get(i), 1e-6);
+         }
+
+         // The cost matrix and the equality constraints never change, so they are only factorized on the first tick.
+         if (tick > 0)
+            assertEquals(0, warmSolver.getNumberOfFactorizations());
+      }
+
+      assertTrue(numberOfSolvedTicks > numberOfTicks / 2);
+      assertTrue(numberOfTicksWithActiveConstraints > numberOfSolvedTicks / 2);
+      assertTrue("Warm start iterations: " + totalWarmIterations + ", cold start iterations: " + totalColdIterations,
+                 totalWarmIterations < totalColdIterations);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testResetActiveConstraints()
+   {
+      SimpleEfficientActiveSetQPSolver solver = new SimpleEfficientActiveSetQPSolver();
+      solver.setUseWarmStart(true);
+
+      double[][] costQuadraticMatrix = new double[][] {{2.0, 0.0}, {0.0, 2.0}};
+      double[] costLinearVector = new double[] {-4.0, -4.0};
+      double[][] linearInequalityConstraintsCMatrix = new double[][] {{1.0, 1.0}};
+      double[] linearInequalityConstraintsDVector = new double[] {1.0};
+
+      double[] solution = new double[2];
+
+      solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+      solver.setLinearInequalityConstraints(linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector);
+      solver.solve(solution);
+      assertEquals(0.5, solution[0], 1e-9);
+      assertEquals(0.5, solution[1], 1e-9);
+      assertEquals(1, solver.getNumberOfActiveConstraints());
+
+      // The constraint is not active anymore, warm start has to release it.
+      solver.clear();
+      costLinearVector = new double[] {0.0, 0.0};
+      solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+      solver.setLinearInequalityConstraints(linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector);
+      solver.solve(solution);
+      assertEquals(0.0, solution[0], 1e-9);
+      assertEquals(0.0, solution[1], 1e-9);
+      assertEquals(0, solver.getNumberOfActiveConstraints());
+
+      solver.clear();
+      costLinearVector = new double[] {-4.0, -4.0};
+      solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+      solver.setLinearInequalityConstraints(linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector);
+      solver.solve(solution);
+      assertEquals(1, solver.getNumberOfActiveConstraints());
+
+      solver.resetActiveConstraints();
+      solver.clear();
+      solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+      solver.setLinearInequalityConstraints(linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector);
+      int numberOfIterations = solver.solve(solution);
+      assertFalse(numberOfIterations < 2);
+      assertEquals(0.5, solution[0], 1e-9);
+      assertEquals(0.5, solution[1], 1e-9);
+   }
 }
@@ -92,7 +92,7 @@ public class DRCEstimatorThread implements MultiThreadedRobotControlElement
    private final BooleanYoVariable firstTick = new BooleanYoVariable("firstTick", estimatorRegistry);
 
    private final LongYoVariable startClockTime = new LongYoVariable("startTime", estimatorRegistry);
-   private final ExecutionTimer estimatorTimer = new ExecutionTimer("estimatorTimer", 10.0, estimatorRegistry);
+   private final ExecutionTimer estimatorTimer;
 
    private final LongYoVariable actualEstimatorDT = new LongYoVariable("actualEstimatorDT", estimatorRegistry);
 
@@ -114,6 +114,7 @@ public class DRCEstimatorThread implements MultiThreadedRobotControlElement
       this.threadDataSynchronizer = threadDataSynchronizer;
       this.robotVisualizer = robotVisualizer;
       this.globalDataProducer = dataProducer;
+      estimatorTimer = new ExecutionTimer("estimatorTimer", 10.0, stateEstimatorParameters.getEstimatorDT(), estimatorRegistry);
       estimatorFullRobotModel = threadDataSynchronizer.getEstimatorFullRobotModel();
       FloatingInverseDynamicsJoint rootJoint = estimatorFullRobotModel.getRootJoint();
       rootFrame = rootJoint.getFrameAfterJoint();
@@ -10,11 +10,15 @@ import us.ihmc.communication.packets.SimulatedLidarScanPacket;
 import us.ihmc.jMonkeyEngineToolkit.GPULidar;
 import us.ihmc.jMonkeyEngineToolkit.GPULidarListener;
 import us.ihmc.jMonkeyEngineToolkit.Graphics3DAdapter;
+import us.ihmc.jMonkeyEngineToolkit.rayCasting.BoundingVolumeHierarchy;
+import us.ihmc.jMonkeyEngineToolkit.rayCasting.RayCastingLidar;
+import us.ihmc.jMonkeyEngineToolkit.rayCasting.TriangleMeshCollector;
 import us.ihmc.robotics.geometry.RigidBodyTransform;
 import us.ihmc.robotics.lidar.LidarScanParameters;
 import us.ihmc.robotics.time.TimeTools;
 import us.ihmc.sensorProcessing.parameters.DRCRobotLidarParameters;
 import us.ihmc.simulationconstructionset.simulatedSensors.LidarMount;
+import us.ihmc.simulationconstructionset.util.ground.TerrainObject3D;
 import us.ihmc.tools.TimestampProvider;
 import us.ihmc.wholeBodyController.DRCRobotJointMap;
 
@@ -62,6 +66,32 @@ public class DRCLidar
     }
  }
 
+   /**
+    * Same as {@link #setupDRCRobotLidar(FloatingRootJointRobot, Graphics3DAdapter, LocalObjectCommunicator, DRCRobotJointMap, DRCRobotLidarParameters, TimestampProvider, boolean)}
+    * but the scans are ray cast on the CPU against the given scene, see {@link #createLidarScene(TerrainObject3D)}. This does not need a graphics adapter and can be used headless.
+    */
+   public static void setupRayCastingDRCRobotLidar(FloatingRootJointRobot robot, BoundingVolumeHierarchy scene, LocalObjectCommunicator objectCommunicator,
+         DRCRobotLidarParameters lidarParams)
+   {
+      LidarMount lidarMount = getSensor(robot, lidarParams.getSensorNameInSdf());
+      if (lidarMount == null)
+         return;
+
+      LidarScanParameters lidarScanParameters = lidarMount.getLidarScanParameters();
+      DRCLidarCallback callback = new DRCLidarCallback(objectCommunicator, lidarScanParameters, lidarParams.getSensorId());
+      RayCastingLidar lidar = new RayCastingLidar(scene, lidarScanParameters);
+      lidar.addGPULidarListener(callback);
+      lidarMount.setLidar(lidar);
+   }
+
+   public static BoundingVolumeHierarchy createLidarScene(TerrainObject3D terrainObject3D)
+   {
+      TriangleMeshCollector triangleMeshCollector = new TriangleMeshCollector();
+      if (terrainObject3D != null)
+         triangleMeshCollector.addGraphics(terrainObject3D.getLinkGraphics());
+      return triangleMeshCollector.createBoundingVolumeHierarchy();
+   }
+
    public static class DRCLidarCallback implements GPULidarListener
    {
       private final ObjectCommunicator objectCommunicator;
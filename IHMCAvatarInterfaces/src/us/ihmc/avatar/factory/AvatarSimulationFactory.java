@@ -25,6 +25,7 @@ import us.ihmc.robotDataLogger.YoVariableServer;
 import us.ihmc.robotModels.FullRobotModel;
 import us.ihmc.robotics.controllers.YoPDGains;
 import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistryStartupProfiler;
 import us.ihmc.robotics.partNames.JointRole;
 import us.ihmc.robotics.screwTheory.OneDoFJoint;
 import us.ihmc.sensorProcessing.parameters.DRCRobotLidarParameters;
@@ -428,6 +429,9 @@ public class AvatarSimulationFactory
       avatarSimulation.setSimulatedRobotTimeProvider(simulatedRobotTimeProvider);
       avatarSimulation.setThreadDataSynchronizer(threadDataSynchronizer);
 
+      if (YoVariableRegistryStartupProfiler.isProfiling())
+         YoVariableRegistryStartupProfiler.printReport(simulationConstructionSet.getRootRegistry(), System.out);
+
       FactoryTools.disposeFactory(this);
 
       return avatarSimulation;
@@ -0,0 +1,58 @@
+package us.ihmc.avatar.logProcessor;
+
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.humanoidRobotics.frames.HumanoidReferenceFrames;
+import us.ihmc.robotDataVisualizer.logger.batch.LogBatchContext;
+import us.ihmc.robotDataVisualizer.logger.batch.LogBatchFunction;
+import us.ihmc.robotModels.FullHumanoidRobotModel;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.sensorProcessing.simulatedSensors.SDFPerfectSimulatedSensorReader;
+import us.ihmc.simulationconstructionset.HumanoidFloatingRootJointRobot;
+
+/**
+ * Base class for batch log processing with a full robot model, the offline counterpart of {@link LogDataProcessorFunction}.
+ *
+ * Every chunk gets its own robot and full robot model, which are updated from the joint states of the log before {@link #processTick(long)} is called.
+ * Use with a {@link us.ihmc.robotDataVisualizer.logger.batch.LogBatchProcessor} to run over many logs in parallel.
+ */
+public abstract class DRCLogBatchFunction<R> implements LogBatchFunction<R>
+{
+   protected final LogBatchContext context;
+   protected final FullHumanoidRobotModel fullRobotModel;
+   protected final HumanoidReferenceFrames referenceFrames;
+
+   private final SDFPerfectSimulatedSensorReader sensorReader;
+
+   public DRCLogBatchFunction(DRCRobotModel drcRobotModel, LogBatchContext context)
+   {
+      this.context = context;
+
+      HumanoidFloatingRootJointRobot robot = drcRobotModel.createHumanoidFloatingRootJointRobot(false);
+      context.attachRobot(robot);
+
+      fullRobotModel = drcRobotModel.createFullRobotModel();
+      referenceFrames = new HumanoidReferenceFrames(fullRobotModel);
+      sensorReader = new SDFPerfectSimulatedSensorReader(robot, fullRobotModel, referenceFrames);
+   }
+
+   /**
+    * All variables are read, the joint states are needed to update the robot.
+    */
+   @Override
+   public final YoVariable<?>[] getVariablesToRead()
+   {
+      return null;
+   }
+
+   @Override
+   public final void process(long timestamp)
+   {
+      sensorReader.read();
+      processTick(timestamp);
+   }
+
+   /**
+    * Called for every tick after the full robot model and reference frames are updated.
+    */
+   protected abstract void processTick(long timestamp);
+}
@@ -7,6 +7,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -16,7 +17,6 @@ import javax.vecmath.Point3d;
 import javax.vecmath.Point3f;
 import javax.vecmath.Quat4f;
 
-import gnu.trove.list.array.TFloatArrayList;
 import scan_to_cloud.PointCloud2WithSource;
 import sensor_msgs.PointCloud2;
 import us.ihmc.communication.net.ObjectCommunicator;
@@ -30,9 +30,9 @@ import us.ihmc.communication.packets.SimulatedLidarScanPacket;
 import us.ihmc.humanoidRobotics.kryo.PPSTimestampOffsetProvider;
 import us.ihmc.ihmcPerception.depthData.CollisionBoxProvider;
 import us.ihmc.ihmcPerception.depthData.CollisionShapeTester;
-import us.ihmc.ihmcPerception.depthData.RosPointCloudReceiver;
 import us.ihmc.robotModels.FullHumanoidRobotModel;
 import us.ihmc.robotModels.FullHumanoidRobotModelFactory;
+import us.ihmc.robotics.dataStructures.PointCloudBuffer;
 import us.ihmc.robotics.geometry.RigidBodyTransform;
 import us.ihmc.robotics.lidar.LidarScan;
 import us.ihmc.robotics.lidar.LidarScanParameters;
@@ -43,7 +43,6 @@ import us.ihmc.tools.thread.ThreadTools;
 import us.ihmc.utilities.ros.RosMainNode;
 import us.ihmc.utilities.ros.subscriber.AbstractRosTopicSubscriber;
 import us.ihmc.utilities.ros.subscriber.RosPointCloudSubscriber;
-import us.ihmc.utilities.ros.subscriber.RosPointCloudSubscriber.UnpackedPointCloud;
 import us.ihmc.utilities.ros.subscriber.RosTopicSubscriberInterface;
 
 public class LidarScanPublisher
@@ -56,6 +55,8 @@ public class LidarScanPublisher
    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(ThreadTools.getNamedThreadFactory(name));
    
    private final AtomicReference<ScanData> scanDataToPublish = new AtomicReference<>(null);
+   /** Scans that have been published or dropped, reused by the subscribers so the point buffers are allocated only once. */
+   private final ConcurrentLinkedQueue<ScanData> recycledScanData = new ConcurrentLinkedQueue<>();
 
    private final PacketCommunicator packetCommunicator;
    private final ConcurrentLinkedDeque<PacketDestination> listeners = new ConcurrentLinkedDeque<>();
@@ -146,11 +147,11 @@ public class LidarScanPublisher
          @Override
          public void onNewMessage(PointCloud2 pointCloud)
          {
-            UnpackedPointCloud pointCloudData = unpackPointsAndIntensities(pointCloud);
-            Point3d[] scanPoints = pointCloudData.getPoints();
-            long timestamp = pointCloud.getHeader().getStamp().totalNsecs();
+            ScanData scanData = getScanDataToFill();
+            unpackPointCloud(pointCloud, scanData.scanPoints);
+            scanData.timestamp = pointCloud.getHeader().getStamp().totalNsecs();
 
-            scanDataToPublish.set(new ScanData(timestamp, scanPoints));
+            submitScanData(scanData);
          }
       };
    }
@@ -163,11 +164,11 @@ public class LidarScanPublisher
          public void onNewMessage(PointCloud2WithSource pointCloud)
          {
             PointCloud2 cloud = pointCloud.getCloud();
-            UnpackedPointCloud pointCloudData = RosPointCloudReceiver.unpackPointsAndIntensities(cloud);
-            Point3d[] scanPoints = pointCloudData.getPoints();
-            long timestamp = cloud.getHeader().getStamp().totalNsecs();
+            ScanData scanData = getScanDataToFill();
+            RosPointCloudSubscriber.unpackPointCloud(cloud, scanData.scanPoints);
+            scanData.timestamp = cloud.getHeader().getStamp().totalNsecs();
 
-            scanDataToPublish.set(new ScanData(timestamp, scanPoints));
+            submitScanData(scanData);
          }
       };
    }
@@ -188,13 +189,34 @@ public class LidarScanPublisher
             // Set the world transforms to nothing, so points are in lidar scan frame
             scan.setWorldTransforms(identityTransform, identityTransform);
             List<Point3d> scanPoints = scan.getAllPoints();
-            long timestamp = packet.getScanStartTime();
 
-            scanDataToPublish.set(new ScanData(timestamp, scanPoints));
+            ScanData scanData = getScanDataToFill();
+            scanData.scanPoints.clear();
+            for (int i = 0; i < scanPoints.size(); i++)
+            {
+               Point3d scanPoint = scanPoints.get(i);
+               scanData.scanPoints.add((float) scanPoint.getX(), (float) scanPoint.getY(), (float) scanPoint.getZ());
+            }
+            scanData.timestamp = packet.getScanStartTime();
+
+            submitScanData(scanData);
          }
       };
    }
 
+   private ScanData getScanDataToFill()
+   {
+      ScanData scanData = recycledScanData.poll();
+      return scanData == null ? new ScanData() : scanData;
+   }
+
+   private void submitScanData(ScanData scanData)
+   {
+      ScanData droppedScanData = scanDataToPublish.getAndSet(scanData);
+      if (droppedScanData != null)
+         recycledScanData.offer(droppedScanData);
+   }
+
    private Runnable createPublisherTask()
    {
       return new Runnable()
@@ -208,6 +230,18 @@ public class LidarScanPublisher
             if (scanData == null)
                return;
 
+            try
+            {
+               publish(scanData);
+            }
+            finally
+            {
+               recycledScanData.offer(scanData);
+            }
+         }
+
+         private void publish(ScanData scanData)
+         {
             if (listeners.isEmpty())
                return;
 
@@ -225,12 +259,12 @@ public class LidarScanPublisher
 
             if (ppsTimestampOffsetProvider == null)
             {
-               robotTimestamp = scanData.getTimestamp();
+               robotTimestamp = scanData.timestamp;
                robotConfigurationDataBuffer.updateFullRobotModelWithNewestData(fullRobotModel, null);
             }
             else
             {
-               long timestamp = scanData.getTimestamp();
+               long timestamp = scanData.timestamp;
                robotTimestamp = ppsTimestampOffsetProvider.adjustTimeStampToRobotClock(timestamp);
                boolean waitForTimestamp = true;
                boolean success = robotConfigurationDataBuffer.updateFullRobotModel(waitForTimestamp, robotTimestamp, fullRobotModel, null) != -1;
@@ -241,21 +275,18 @@ public class LidarScanPublisher
             if (!scanPointsFrame.isWorldFrame())
             {
                scanPointsFrame.getTransformToDesiredFrame(transformToWorld, worldFrame);
-               scanData.transform(transformToWorld);
+               scanData.scanPoints.applyTransform(transformToWorld);
             }
 
-            float[] scanPointBuffer;
-
             if (collisionBoxNode != null)
             {
                collisionBoxNode.update();
-               scanPointBuffer = scanData.getFilteredScanBuffer(collisionBoxNode);
-            }
-            else
-            {
-               scanPointBuffer = scanData.getScanBuffer();
+               collisionBoxNode.removeContainedPoints(scanData.scanPoints);
             }
 
+            // The message is queued by the communicator, so it gets its own copy of the points.
+            float[] scanPointBuffer = scanData.scanPoints.toXYZArray();
+
             Point3f lidarPosition;
             Quat4f lidarOrientation;
 
@@ -313,70 +344,9 @@ public class LidarScanPublisher
       };
    }
 
-   private class ScanData
+   private static class ScanData
    {
-      private final long timestamp;
-      private final Point3d[] scanPoints;
-      private final int numberOfScanPoints;
-
-      public ScanData(long timestamp, Point3d[] scanPoints)
-      {
-         this.timestamp = timestamp;
-         this.scanPoints = scanPoints;
-         numberOfScanPoints = scanPoints.length;
-      }
-
-      public ScanData(long timestamp, List<Point3d> scanPoints)
-      {
-         this.timestamp = timestamp;
-         this.scanPoints = scanPoints.toArray(new Point3d[0]);
-         numberOfScanPoints = scanPoints.size();
-      }
-
-      public long getTimestamp()
-      {
-         return timestamp;
-      }
-
-      public void transform(RigidBodyTransform transform)
-      {
-         for (int i = 0; i < numberOfScanPoints; i++)
-            transform.transform(scanPoints[i]);
-      }
-
-      public float[] getFilteredScanBuffer(CollisionShapeTester collisionShapeTester)
-      {
-         TFloatArrayList scanPointBuffer = new TFloatArrayList();
-
-         for (int i = 0; i < numberOfScanPoints; i++)
-         {
-            Point3d scanPoint = scanPoints[i];
-
-            if (collisionShapeTester.contains(scanPoint))
-               continue;
-
-            scanPointBuffer.add((float) scanPoint.getX());
-            scanPointBuffer.add((float) scanPoint.getY());
-            scanPointBuffer.add((float) scanPoint.getZ());
-         }
-
-         return scanPointBuffer.toArray();
-      }
-
-      public float[] getScanBuffer()
-      {
-         TFloatArrayList scanPointBuffer = new TFloatArrayList();
-
-         for (int i = 0; i < numberOfScanPoints; i++)
-         {
-            Point3d scanPoint = scanPoints[i];
-
-            scanPointBuffer.add((float) scanPoint.getX());
-            scanPointBuffer.add((float) scanPoint.getY());
-            scanPointBuffer.add((float) scanPoint.getZ());
-         }
-
-         return scanPointBuffer.toArray();
-      }
+      private long timestamp;
+      private final PointCloudBuffer scanPoints = new PointCloudBuffer();
    }
 }
@@ -3,7 +3,9 @@ package us.ihmc.avatar.ros;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.vecmath.Point2d;
 import javax.vecmath.Point3d;
@@ -35,6 +37,7 @@ import us.ihmc.humanoidRobotics.communication.packets.walking.PelvisTrajectoryMe
 import us.ihmc.humanoidRobotics.communication.packets.wholebody.WholeBodyTrajectoryMessage;
 import us.ihmc.robotics.robotSide.RobotSide;
 import us.ihmc.robotics.trajectories.TrajectoryType;
+import us.ihmc.utilities.ros.msgToPacket.converter.GeneratedROSTranslationTools;
 import us.ihmc.utilities.ros.msgToPacket.converter.GenericROSTranslationTools;
 import us.ihmc.utilities.ros.msgToPacket.converter.RosEnumConversionException;
 
@@ -42,6 +45,11 @@ public class IHMCROSTranslationRuntimeTools
 {
    private static final MessageFactory messageFactory = GenericROSTranslationTools.getMessageFactory();
 
+   // Looked up once, the messages without custom converter go through the generated converters.
+   private static final Map<Class<?>, Method> customConvertToRosMessageMethods = findCustomConverters("customConvertToRosMessage");
+   private static final Map<Class<?>, Method> customConvertToIHMCMessageMethods = findCustomConverters("customConvertToIHMCMessage");
+   private static final Class<?>[] rosMessageTypesWithCustomConverter = customConvertToIHMCMessageMethods.keySet().toArray(new Class<?>[0]);
+
    public static Message convertToRosMessage(Packet<?> ihmcMessage)
          throws InvocationTargetException, IllegalAccessException, NoSuchMethodException, ClassNotFoundException
    {
@@ -49,17 +57,14 @@ public class IHMCROSTranslationRuntimeTools
       {
          return null;
       }
-      Class<? extends Packet> aClass = ihmcMessage.getClass();
-      try
+      Method convertToRosMessageMethod = customConvertToRosMessageMethods.get(ihmcMessage.getClass());
+
+      if (convertToRosMessageMethod != null)
       {
-         Method convertToRosMessageMethod = IHMCROSTranslationRuntimeTools.class.getDeclaredMethod("customConvertToRosMessage", aClass);
-         convertToRosMessageMethod.setAccessible(true);
          return (Message) convertToRosMessageMethod.invoke(null, ihmcMessage);
       }
-      catch (NoSuchMethodException exception)
-      {
-         return GenericROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessage);
-      }
+
+      return GeneratedROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessage);
    }
 
    public static Packet<?> convertToIHMCMessage(Message rosMessage)
@@ -70,18 +75,32 @@ public class IHMCROSTranslationRuntimeTools
       {
          return null;
       }
-      Class<?> aClass = Class.forName(rosMessage.toRawMessage().getType().replace("/", "."));
 
-      try
+      for (Class<?> rosMessageType : rosMessageTypesWithCustomConverter)
       {
-         Method convertToIHMCMessageMethod = IHMCROSTranslationRuntimeTools.class.getDeclaredMethod("customConvertToIHMCMessage", aClass);
-         convertToIHMCMessageMethod.setAccessible(true);
-         return (Packet<?>) convertToIHMCMessageMethod.invoke(null, rosMessage);
+         if (rosMessageType.isInstance(rosMessage))
+         {
+            return (Packet<?>) customConvertToIHMCMessageMethods.get(rosMessageType).invoke(null, rosMessage);
+         }
       }
-      catch (NoSuchMethodException exception)
+
+      return GeneratedROSTranslationTools.convertRosMessageToIHMCMessage(rosMessage);
+   }
+
+   private static Map<Class<?>, Method> findCustomConverters(String methodName)
+   {
+      Map<Class<?>, Method> customConverters = new HashMap<>();
+
+      for (Method method : IHMCROSTranslationRuntimeTools.class.getDeclaredMethods())
       {
-         return GenericROSTranslationTools.convertRosMessageToIHMCMessage(rosMessage);
+         if (method.getName().equals(methodName))
+         {
+            method.setAccessible(true);
+            customConverters.put(method.getParameterTypes()[0], method);
+         }
       }
+
+      return customConverters;
    }
 
    private static Packet customConvertToIHMCMessage(FootstepDataListRosMessage message) throws Exception
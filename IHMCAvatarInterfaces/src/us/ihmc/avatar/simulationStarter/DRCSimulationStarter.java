@@ -35,6 +35,7 @@ import us.ihmc.humanoidRobotics.communication.subscribers.PelvisPoseCorrectionCo
 import us.ihmc.humanoidRobotics.kryo.IHMCCommunicationKryoNetClassList;
 import us.ihmc.jMonkeyEngineToolkit.Graphics3DAdapter;
 import us.ihmc.jMonkeyEngineToolkit.camera.CameraConfiguration;
+import us.ihmc.jMonkeyEngineToolkit.rayCasting.BoundingVolumeHierarchy;
 import us.ihmc.robotDataVisualizer.logger.BehaviorVisualizer;
 import us.ihmc.robotics.controllers.ControllerFailureListener;
 import us.ihmc.robotics.robotSide.SideDependentList;
@@ -479,9 +480,20 @@ public class DRCSimulationStarter implements SimulationStarterInterface
             simulationConstructionSet.startStreamingVideoData(cameraConfiguration, width, height, drcRenderedSceneVideoHandler, timeStampProvider, framesPerSecond);
          }
 
+         BoundingVolumeHierarchy lidarScene = null;
          for (DRCRobotLidarParameters lidarParams : sensorInformation.getLidarParameters())
          {
-            DRCLidar.setupDRCRobotLidar(robot, graphics3dAdapter, scsSensorOutputPacketCommunicator, jointMap, lidarParams, timeStampProvider, true);
+            if (graphics3dAdapter != null)
+            {
+               DRCLidar.setupDRCRobotLidar(robot, graphics3dAdapter, scsSensorOutputPacketCommunicator, jointMap, lidarParams, timeStampProvider, true);
+            }
+            else if (environment != null)
+            {
+               // No display, the lidar scans are ray cast on the CPU against the environment.
+               if (lidarScene == null)
+                  lidarScene = DRCLidar.createLidarScene(environment.getTerrainObject3D());
+               DRCLidar.setupRayCastingDRCRobotLidar(robot, lidarScene, scsSensorOutputPacketCommunicator, lidarParams);
+            }
          }
       }
 
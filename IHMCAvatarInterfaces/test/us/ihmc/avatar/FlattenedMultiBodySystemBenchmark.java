@@ -0,0 +1,121 @@
+package us.ihmc.avatar;
+
+import java.util.Random;
+
+import org.ejml.ops.RandomMatrices;
+
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.robotModels.FullHumanoidRobotModel;
+import us.ihmc.robotics.referenceFrames.CenterOfMassReferenceFrame;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.robotics.screwTheory.CentroidalMomentumMatrix;
+import us.ihmc.robotics.screwTheory.CompositeRigidBodyMassMatrixCalculator;
+import us.ihmc.robotics.screwTheory.InverseDynamicsCalculator;
+import us.ihmc.robotics.screwTheory.OneDoFJoint;
+import us.ihmc.robotics.screwTheory.RigidBody;
+import us.ihmc.robotics.screwTheory.ScrewTestTools;
+import us.ihmc.robotics.screwTheory.TwistCalculator;
+
+/**
+ * Compares the run time of the inverse dynamics, mass matrix, and centroidal momentum matrix calculators
+ * on the rigid-body tree with the run time of the same calculators delegating to a {@code FlattenedMultiBodySystem}.
+ */
+public abstract class FlattenedMultiBodySystemBenchmark
+{
+   private static final int NUMBER_OF_WARMUP_ITERATIONS = 20000;
+   private static final int NUMBER_OF_ITERATIONS = 100000;
+
+   public abstract DRCRobotModel getRobotModel();
+
+   public void runBenchmark()
+   {
+      Random random = new Random(1455L);
+      FullHumanoidRobotModel fullRobotModel = getRobotModel().createFullRobotModel();
+      RigidBody elevator = fullRobotModel.getElevator();
+      OneDoFJoint[] oneDoFJoints = fullRobotModel.getOneDoFJoints();
+
+      ScrewTestTools.setRandomPositionAndOrientation(fullRobotModel.getRootJoint(), random);
+      ScrewTestTools.setRandomVelocity(fullRobotModel.getRootJoint(), random);
+      ScrewTestTools.setRandomPositionsWithinJointLimits(oneDoFJoints, random);
+      ScrewTestTools.setRandomVelocities(oneDoFJoints, random);
+      ScrewTestTools.setRandomDesiredAccelerations(oneDoFJoints, random);
+      fullRobotModel.getRootJoint().setDesiredAcceleration(RandomMatrices.createRandom(6, 1, random), 0);
+      elevator.updateFramesRecursively();
+
+      CenterOfMassReferenceFrame centerOfMassFrame = new CenterOfMassReferenceFrame("centerOfMass", ReferenceFrame.getWorldFrame(), elevator);
+      centerOfMassFrame.update();
+
+      System.out.println(getClass().getSimpleName() + ", " + oneDoFJoints.length + " one DoF joints, time per call in microseconds:");
+      System.out.println(String.format("%-32s %12s %12s", "", "tree", "flattened"));
+
+      double[] times = new double[2];
+      for (int i = 0; i < 2; i++)
+      {
+         TwistCalculator twistCalculator = new TwistCalculator(ReferenceFrame.getWorldFrame(), elevator);
+         InverseDynamicsCalculator inverseDynamicsCalculator = new InverseDynamicsCalculator(twistCalculator, 9.81);
+         inverseDynamicsCalculator.setUseFlattenedMultiBodySystem(i == 1);
+         times[i] = timeInverseDynamics(twistCalculator, inverseDynamicsCalculator);
+      }
+      print("Inverse dynamics", times);
+
+      for (int i = 0; i < 2; i++)
+      {
+         CompositeRigidBodyMassMatrixCalculator massMatrixCalculator = new CompositeRigidBodyMassMatrixCalculator(elevator);
+         massMatrixCalculator.setUseFlattenedMultiBodySystem(i == 1);
+         times[i] = timeMassMatrix(massMatrixCalculator);
+      }
+      print("Mass matrix", times);
+
+      for (int i = 0; i < 2; i++)
+      {
+         CentroidalMomentumMatrix centroidalMomentumMatrix = new CentroidalMomentumMatrix(elevator, centerOfMassFrame);
+         centroidalMomentumMatrix.setUseFlattenedMultiBodySystem(i == 1);
+         times[i] = timeCentroidalMomentumMatrix(centroidalMomentumMatrix);
+      }
+      print("Centroidal momentum matrix", times);
+   }
+
+   private static double timeInverseDynamics(TwistCalculator twistCalculator, InverseDynamicsCalculator inverseDynamicsCalculator)
+   {
+      for (int i = 0; i < NUMBER_OF_WARMUP_ITERATIONS; i++)
+      {
+         twistCalculator.compute();
+         inverseDynamicsCalculator.compute();
+      }
+
+      long startTime = System.nanoTime();
+      for (int i = 0; i < NUMBER_OF_ITERATIONS; i++)
+      {
+         twistCalculator.compute();
+         inverseDynamicsCalculator.compute();
+      }
+      return (System.nanoTime() - startTime) / 1000.0 / NUMBER_OF_ITERATIONS;
+   }
+
+   private static double timeMassMatrix(CompositeRigidBodyMassMatrixCalculator massMatrixCalculator)
+   {
+      for (int i = 0; i < NUMBER_OF_WARMUP_ITERATIONS; i++)
+         massMatrixCalculator.compute();
+
+      long startTime = System.nanoTime();
+      for (int i = 0; i < NUMBER_OF_ITERATIONS; i++)
+         massMatrixCalculator.compute();
+      return (System.nanoTime() - startTime) / 1000.0 / NUMBER_OF_ITERATIONS;
+   }
+
+   private static double timeCentroidalMomentumMatrix(CentroidalMomentumMatrix centroidalMomentumMatrix)
+   {
+      for (int i = 0; i < NUMBER_OF_WARMUP_ITERATIONS; i++)
+         centroidalMomentumMatrix.compute();
+
+      long startTime = System.nanoTime();
+      for (int i = 0; i < NUMBER_OF_ITERATIONS; i++)
+         centroidalMomentumMatrix.compute();
+      return (System.nanoTime() - startTime) / 1000.0 / NUMBER_OF_ITERATIONS;
+   }
+
+   private static void print(String name, double[] times)
+   {
+      System.out.println(String.format("%-32s %12.2f %12.2f", name, times[0], times[1]));
+   }
+}
@@ -0,0 +1,109 @@
+package us.ihmc.avatar.ros;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.reflections.Reflections;
+import org.ros.internal.message.Message;
+
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.communication.ros.generators.RosMessagePacket;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.tools.continuousIntegration.IntegrationCategory;
+import us.ihmc.utilities.ros.msgToPacket.converter.GeneratedROSTranslationTools;
+import us.ihmc.utilities.ros.msgToPacket.converter.GenericROSTranslationTools;
+
+@ContinuousIntegrationPlan(categories = IntegrationCategory.FAST)
+public class GeneratedROSTranslationToolsTest
+{
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   @ContinuousIntegrationTest(estimatedDuration = 5.0)
+   @Test(timeout = 60000)
+   public void testGeneratedConvertersMatchReflectiveConversion() throws Exception
+   {
+      Random random = new Random(1977L);
+      int numberOfComparedPackets = 0;
+
+      for (Class<?> concreteType : getConcreteRosMessagePackets())
+      {
+         Constructor<?> randomConstructor;
+         try
+         {
+            randomConstructor = concreteType.getConstructor(Random.class);
+         }
+         catch (NoSuchMethodException e)
+         {
+            continue;
+         }
+
+         for (int i = 0; i < 20; i++)
+         {
+            Packet ihmcMessage = (Packet<?>) randomConstructor.newInstance(random);
+
+            Message expectedRosMessage;
+            Packet expectedPacket;
+            try
+            {
+               expectedRosMessage = GenericROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessage);
+               expectedPacket = GenericROSTranslationTools.convertRosMessageToIHMCMessage(expectedRosMessage);
+            }
+            catch (Exception e)
+            {
+               // Not supported by the reflective conversion, IHMCROSTranslationRuntimeTools has a custom converter for it.
+               break;
+            }
+
+            Message actualRosMessage = GeneratedROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessage);
+            assertEquals(expectedRosMessage.toRawMessage().getType(), actualRosMessage.toRawMessage().getType());
+
+            Packet actualPacket = GeneratedROSTranslationTools.convertRosMessageToIHMCMessage(actualRosMessage);
+            Packet packetFromExpectedRosMessage = GeneratedROSTranslationTools.convertRosMessageToIHMCMessage(expectedRosMessage);
+
+            if (expectedPacket == null)
+            {
+               assertTrue(actualPacket == null && packetFromExpectedRosMessage == null);
+               continue;
+            }
+
+            assertTrue("Problem with packet " + concreteType + ". \n" + expectedPacket + ", \n" + actualPacket, expectedPacket.epsilonEquals(actualPacket, 1.0e-12));
+            assertTrue("Problem with packet " + concreteType + ". \n" + expectedPacket + ", \n" + packetFromExpectedRosMessage,
+                       expectedPacket.epsilonEquals(packetFromExpectedRosMessage, 1.0e-12));
+            numberOfComparedPackets++;
+         }
+      }
+
+      assertFalse(numberOfComparedPackets == 0);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testConvertersAreCached()
+   {
+      for (Class<?> concreteType : getConcreteRosMessagePackets())
+      {
+         assertTrue(GeneratedROSTranslationTools.getConverterForIHMCMessage(concreteType) == GeneratedROSTranslationTools.getConverterForIHMCMessage(concreteType));
+      }
+   }
+
+   private static Set<Class<?>> getConcreteRosMessagePackets()
+   {
+      Set<Class<?>> concreteTypes = new HashSet<>();
+      for (Class<?> aClass : new Reflections("us.ihmc").getTypesAnnotatedWith(RosMessagePacket.class))
+      {
+         if (!Modifier.isAbstract(aClass.getModifiers()))
+         {
+            concreteTypes.add(aClass);
+         }
+      }
+      return concreteTypes;
+   }
+}
@@ -0,0 +1,76 @@
+package us.ihmc.avatar.ros;
+
+import java.lang.reflect.Constructor;
+import java.util.Random;
+
+import org.ros.internal.message.Message;
+
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.utilities.ros.msgToPacket.converter.GeneratedROSTranslationTools;
+import us.ihmc.utilities.ros.msgToPacket.converter.GenericROSTranslationTools;
+
+/**
+ * Compares the throughput of the reflective {@link GenericROSTranslationTools} with the generated converters of {@link GeneratedROSTranslationTools}
+ * on the status packets published by the {@code RosModule}.
+ */
+public class ROSTranslationBenchmark
+{
+   private static final int NUMBER_OF_WARMUP_ITERATIONS = 2000;
+   private static final int NUMBER_OF_ITERATIONS = 20000;
+
+   public static void main(String[] args) throws Exception
+   {
+      Random random = new Random(1978L);
+
+      System.out.println("Time per conversion in microseconds:");
+      System.out.println(String.format("%-48s %12s %12s %12s %12s", "", "to ROS", "generated", "to IHMC", "generated"));
+
+      for (Class<?> outputTopic : GenericROSTranslationTools.getCoreOutputTopics())
+      {
+         Packet<?> packet;
+         Message rosMessage;
+         try
+         {
+            Constructor<?> randomConstructor = outputTopic.getConstructor(Random.class);
+            packet = (Packet<?>) randomConstructor.newInstance(random);
+            rosMessage = GenericROSTranslationTools.convertIHMCMessageToRosMessage(packet);
+            GenericROSTranslationTools.convertRosMessageToIHMCMessage(rosMessage);
+         }
+         catch (Exception e)
+         {
+            System.out.println(String.format("%-48s not supported by the reflective conversion", outputTopic.getSimpleName()));
+            continue;
+         }
+
+         double reflectiveToRos = 0.0, generatedToRos = 0.0, reflectiveToIHMC = 0.0, generatedToIHMC = 0.0;
+
+         for (int pass = 0; pass < 2; pass++)
+         {
+            int iterations = pass == 0 ? NUMBER_OF_WARMUP_ITERATIONS : NUMBER_OF_ITERATIONS;
+
+            long startTime = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+               GenericROSTranslationTools.convertIHMCMessageToRosMessage(packet);
+            reflectiveToRos = (System.nanoTime() - startTime) / 1000.0 / iterations;
+
+            startTime = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+               GeneratedROSTranslationTools.convertIHMCMessageToRosMessage(packet);
+            generatedToRos = (System.nanoTime() - startTime) / 1000.0 / iterations;
+
+            startTime = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+               GenericROSTranslationTools.convertRosMessageToIHMCMessage(rosMessage);
+            reflectiveToIHMC = (System.nanoTime() - startTime) / 1000.0 / iterations;
+
+            startTime = System.nanoTime();
+            for (int i = 0; i < iterations; i++)
+               GeneratedROSTranslationTools.convertRosMessageToIHMCMessage(rosMessage);
+            generatedToIHMC = (System.nanoTime() - startTime) / 1000.0 / iterations;
+         }
+
+         System.out.println(String.format("%-48s %12.2f %12.2f %12.2f %12.2f", outputTopic.getSimpleName(), reflectiveToRos, generatedToRos, reflectiveToIHMC,
+                                          generatedToIHMC));
+      }
+   }
+}
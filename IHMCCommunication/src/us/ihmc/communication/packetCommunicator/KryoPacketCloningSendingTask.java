@@ -2,6 +2,7 @@ package us.ihmc.communication.packetCommunicator;
 
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -20,6 +21,7 @@ public class KryoPacketCloningSendingTask implements Callable<Void>
    private final Kryo kryo = new Kryo();
    private final ArrayList<Class<?>> packetList = new ArrayList<Class<?>>();
    private final boolean clonePackets = true;
+   private final ConcurrentHashMap<Class<?>, PacketPool<?>> packetPools = new ConcurrentHashMap<>();
 
    
    //should just populate the class list using the passed in classes instead of the whole classlist
@@ -52,13 +54,42 @@ public class KryoPacketCloningSendingTask implements Callable<Void>
       packetQueue.add(packet);
    }
 
+   /**
+    * Submits a packet borrowed from the given pool. It is passed to the consumer without being cloned and released to the pool
+    * afterwards, so the consumer has to be done with it, e.g. by serializing it, when {@link PacketConsumer#receivedPacket} returns.
+    */
+   public <T extends Packet<?>> void submitPacket(T packet, PacketPool<T> packetPool)
+   {
+      if (!packetPool.isBorrowedFromThisPool(packet))
+         throw new RuntimeException("The " + packet.getClass().getSimpleName() + " was not borrowed from the given pool.");
+
+      PacketPool<?> previousPacketPool = packetPools.putIfAbsent(packet.getClass(), packetPool);
+      if (previousPacketPool != null && previousPacketPool != packetPool)
+         throw new RuntimeException("Only one pool per packet class is supported, got a second one for " + packet.getClass().getSimpleName());
+
+      packetQueue.add(packet);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
    @Override
    public Void call() throws Exception
    {
       isRunning.set(true);
       while ((packetToSend = packetQueue.poll()) != null)
       {
-         if (packetList.contains(packetToSend.getClass()) && clonePackets )
+         PacketPool packetPool = packetPools.get(packetToSend.getClass());
+         if (packetPool != null && packetPool.isBorrowedFromThisPool(packetToSend))
+         {
+            try
+            {
+               consumer.receivedPacket(packetToSend);
+            }
+            finally
+            {
+               packetPool.release(packetToSend);
+            }
+         }
+         else if (packetList.contains(packetToSend.getClass()) && clonePackets )
          {
             Packet<?> clonedPacket = kryo.copy(packetToSend);
             consumer.receivedPacket(clonedPacket);
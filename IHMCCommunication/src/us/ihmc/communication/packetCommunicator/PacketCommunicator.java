@@ -3,6 +3,7 @@ package us.ihmc.communication.packetCommunicator;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import us.ihmc.communication.net.GlobalObjectConsumer;
 import us.ihmc.communication.net.KryoObjectClient;
@@ -25,6 +26,7 @@ public class PacketCommunicator
    private final NetworkedObjectCommunicator communicator;
    private final HashMap<Class<?>, HashMap<PacketConsumer<?>, ObjectConsumer<?>>> consumers = new HashMap<>();
    private final HashMap<GlobalPacketConsumer, GlobalObjectConsumer> globalConsumers = new HashMap<>();
+   private final ConcurrentHashMap<Class<?>, PacketPool<?>> packetPools = new ConcurrentHashMap<>();
 
    private final List<Class<?>> registeredClasses;
    
@@ -162,6 +164,56 @@ public class PacketCommunicator
    {
       return communicator.send(packet);
    }
+
+   /**
+    * @return the pool of reusable packets of the given class, created on first use
+    */
+   @SuppressWarnings("unchecked")
+   public <T extends Packet<?>> PacketPool<T> getPacketPool(Class<T> clazz)
+   {
+      PacketPool<?> packetPool = packetPools.get(clazz);
+      if (packetPool == null)
+      {
+         PacketPool<T> newPacketPool = new PacketPool<>(clazz);
+         packetPool = packetPools.putIfAbsent(clazz, newPacketPool);
+         if (packetPool == null)
+            packetPool = newPacketPool;
+      }
+      return (PacketPool<T>) packetPool;
+   }
+
+   /**
+    * Borrows a packet to fill and pass to {@link #sendAndRelease(Packet)}, instead of allocating a new packet for every message.
+    * The packet may have been used for a previous message: its destination, unique id and notes are reset, but every other
+    * field still holds the previous values and must be overwritten.
+    */
+   public <T extends Packet<?>> T borrowPacket(Class<T> clazz)
+   {
+      return getPacketPool(clazz).borrow();
+   }
+
+   /**
+    * Sends a packet borrowed with {@link #borrowPacket(Class)} and returns it to its pool. The packet is serialized before
+    * {@link #send(Packet)} returns, so it is not copied and must not be used by the caller afterwards.
+    *
+    * @throws RuntimeException without sending the packet if it is not currently borrowed from this communicator.
+    */
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public int sendAndRelease(Packet<?> packet)
+   {
+      PacketPool packetPool = packetPools.get(packet.getClass());
+      if (packetPool == null || !packetPool.isBorrowedFromThisPool(packet))
+         throw new RuntimeException("The " + packet.getClass().getSimpleName() + " was not borrowed with borrowPacket() or has already been released.");
+
+      try
+      {
+         return send(packet);
+      }
+      finally
+      {
+         packetPool.release(packet);
+      }
+   }
    
    private static class GlobalPacketObjectConsumer implements GlobalObjectConsumer
    {
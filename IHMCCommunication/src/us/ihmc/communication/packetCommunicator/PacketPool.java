@@ -0,0 +1,75 @@
+package us.ihmc.communication.packetCommunicator;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.communication.packets.PacketDestination;
+
+/**
+ * Pool of reusable packets of a single class. Borrow a packet, fill it, send it, and release it once it has been serialized,
+ * so that large packets do not have to be allocated or deep copied for every message.
+ */
+public class PacketPool<T extends Packet<?>>
+{
+   private final Class<T> packetClass;
+   private final ArrayDeque<T> availablePackets = new ArrayDeque<>();
+   /** Every packet created by this pool, mapped to whether it is currently borrowed. */
+   private final IdentityHashMap<T, Boolean> packetsFromThisPool = new IdentityHashMap<>();
+
+   public PacketPool(Class<T> packetClass)
+   {
+      this.packetClass = packetClass;
+   }
+
+   /**
+    * Only the {@link Packet} header is reset, the other fields of a reused packet keep the values of its previous message.
+    */
+   public synchronized T borrow()
+   {
+      T packet = availablePackets.poll();
+
+      if (packet == null)
+      {
+         try
+         {
+            packet = packetClass.newInstance();
+         }
+         catch (InstantiationException | IllegalAccessException e)
+         {
+            throw new RuntimeException("Could not create a new " + packetClass.getSimpleName() + ", it needs a public empty constructor.", e);
+         }
+      }
+
+      packet.setDestination(PacketDestination.BROADCAST);
+      packet.setUniqueId(0L);
+      packet.setNotes(null);
+
+      packetsFromThisPool.put(packet, Boolean.TRUE);
+      return packet;
+   }
+
+   public synchronized void release(T packet)
+   {
+      if (packetsFromThisPool.get(packet) != Boolean.TRUE)
+         throw new RuntimeException("The " + packetClass.getSimpleName() + " was not borrowed from this pool or has already been released.");
+
+      packetsFromThisPool.put(packet, Boolean.FALSE);
+      availablePackets.push(packet);
+   }
+
+   public synchronized boolean isBorrowedFromThisPool(Packet<?> packet)
+   {
+      return packetsFromThisPool.get(packet) == Boolean.TRUE;
+   }
+
+   public synchronized int getNumberOfAvailablePackets()
+   {
+      return availablePackets.size();
+   }
+
+   public Class<T> getPacketClass()
+   {
+      return packetClass;
+   }
+}
@@ -0,0 +1,258 @@
+package us.ihmc.communication.packetCommunicator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import us.ihmc.communication.net.GlobalObjectConsumer;
+import us.ihmc.communication.net.NetClassList;
+import us.ihmc.communication.net.NetStateListener;
+import us.ihmc.communication.net.NetworkedObjectCommunicator;
+import us.ihmc.communication.net.ObjectConsumer;
+import us.ihmc.communication.net.PacketConsumer;
+import us.ihmc.communication.net.TcpNetStateListener;
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.communication.packets.PacketDestination;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class PacketPoolTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testBorrowAndRelease()
+   {
+      PacketPool<TestPacket> packetPool = new PacketPool<>(TestPacket.class);
+      TestPacket packet = packetPool.borrow();
+      assertTrue(packetPool.isBorrowedFromThisPool(packet));
+      assertNotSame(packet, packetPool.borrow());
+
+      packetPool.release(packet);
+      assertFalse(packetPool.isBorrowedFromThisPool(packet));
+      assertEquals(1, packetPool.getNumberOfAvailablePackets());
+      assertSame(packet, packetPool.borrow());
+      assertEquals(0, packetPool.getNumberOfAvailablePackets());
+
+      try
+      {
+         packetPool.release(new TestPacket());
+         fail("Released a packet that was not borrowed from the pool");
+      }
+      catch (RuntimeException e)
+      {
+      }
+
+      packetPool.release(packet);
+      try
+      {
+         packetPool.release(packet);
+         fail("Released a packet twice");
+      }
+      catch (RuntimeException e)
+      {
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testBorrowResetsTheHeader()
+   {
+      PacketPool<TestPacket> packetPool = new PacketPool<>(TestPacket.class);
+      TestPacket packet = packetPool.borrow();
+      packet.setDestination(PacketDestination.CONTROLLER);
+      packet.setUniqueId(12L);
+      packet.setNotes("first message");
+      packet.value = 3;
+      packetPool.release(packet);
+
+      TestPacket borrowedAgain = packetPool.borrow();
+      assertSame(packet, borrowedAgain);
+      assertEquals(PacketDestination.BROADCAST.ordinal(), borrowedAgain.getDestination());
+      assertEquals(0L, borrowedAgain.getUniqueId());
+      assertNull(borrowedAgain.getNotes());
+      // The body is left to the caller to overwrite.
+      assertEquals(3, borrowedAgain.value);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testPooledPacketsAreNotCloned() throws Exception
+   {
+      final ArrayList<TestPacket> receivedPackets = new ArrayList<>();
+      final ArrayList<Integer> receivedValues = new ArrayList<>();
+      PacketConsumer<TestPacket> consumer = new PacketConsumer<TestPacket>()
+      {
+         @Override
+         public void receivedPacket(TestPacket packet)
+         {
+            receivedPackets.add(packet);
+            receivedValues.add(packet.value);
+         }
+      };
+
+      KryoPacketCloningSendingTask sendingTask = new KryoPacketCloningSendingTask(new NetClassList(TestPacket.class), consumer);
+      PacketPool<TestPacket> packetPool = new PacketPool<>(TestPacket.class);
+
+      for (int i = 0; i < 3; i++)
+      {
+         TestPacket packet = packetPool.borrow();
+         packet.value = i;
+         sendingTask.submitPacket(packet, packetPool);
+         sendingTask.call();
+         assertFalse(packetPool.isBorrowedFromThisPool(packet));
+      }
+
+      assertEquals(1, packetPool.getNumberOfAvailablePackets());
+      assertSame(receivedPackets.get(0), receivedPackets.get(2));
+      for (int i = 0; i < 3; i++)
+         assertEquals(i, receivedValues.get(i).intValue());
+
+      TestPacket packet = new TestPacket();
+      packet.value = 42;
+      sendingTask.submitPacket(packet);
+      sendingTask.call();
+      TestPacket clonedPacket = receivedPackets.get(3);
+      assertNotSame(packet, clonedPacket);
+      assertEquals(42, clonedPacket.value);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSendAndRelease()
+   {
+      RecordingObjectCommunicator objectCommunicator = new RecordingObjectCommunicator();
+      PacketCommunicator packetCommunicator = PacketCommunicator.createCustomPacketCommunicator(objectCommunicator, new NetClassList(TestPacket.class));
+
+      TestPacket packet = packetCommunicator.borrowPacket(TestPacket.class);
+      packetCommunicator.sendAndRelease(packet);
+      assertEquals(1, objectCommunicator.sentObjects.size());
+      assertFalse(packetCommunicator.getPacketPool(TestPacket.class).isBorrowedFromThisPool(packet));
+
+      try
+      {
+         packetCommunicator.sendAndRelease(packet);
+         fail("Sent a packet that was already released");
+      }
+      catch (RuntimeException e)
+      {
+      }
+      try
+      {
+         packetCommunicator.sendAndRelease(new TestPacket());
+         fail("Sent a packet that was not borrowed");
+      }
+      catch (RuntimeException e)
+      {
+      }
+      assertEquals(1, objectCommunicator.sentObjects.size());
+
+      // The exception of send() goes through, and the packet still goes back to its pool.
+      RuntimeException sendException = new RuntimeException("send failed");
+      objectCommunicator.sendException = sendException;
+      packet = packetCommunicator.borrowPacket(TestPacket.class);
+      try
+      {
+         packetCommunicator.sendAndRelease(packet);
+         fail("The exception of send() was not thrown");
+      }
+      catch (RuntimeException e)
+      {
+         assertSame(sendException, e);
+      }
+      assertFalse(packetCommunicator.getPacketPool(TestPacket.class).isBorrowedFromThisPool(packet));
+   }
+
+   private static class RecordingObjectCommunicator implements NetworkedObjectCommunicator
+   {
+      private final ArrayList<Object> sentObjects = new ArrayList<>();
+      private RuntimeException sendException;
+
+      @Override
+      public int send(Object object)
+      {
+         if (sendException != null)
+            throw sendException;
+         sentObjects.add(object);
+         return 0;
+      }
+
+      @Override
+      public void consumeObject(Object object)
+      {
+         send(object);
+      }
+
+      @Override
+      public void attachStateListener(TcpNetStateListener stateListener)
+      {
+      }
+
+      @Override
+      public void attachStateListener(NetStateListener stateListener)
+      {
+      }
+
+      @Override
+      public <T> void attachListener(Class<T> clazz, ObjectConsumer<T> listener)
+      {
+      }
+
+      @Override
+      public <T> void detachListener(Class<T> clazz, ObjectConsumer<T> listener)
+      {
+      }
+
+      @Override
+      public void attachGlobalListener(GlobalObjectConsumer listener)
+      {
+      }
+
+      @Override
+      public void detachGlobalListener(GlobalObjectConsumer listener)
+      {
+      }
+
+      @Override
+      public boolean isConnected()
+      {
+         return true;
+      }
+
+      @Override
+      public void closeConnection()
+      {
+      }
+
+      @Override
+      public void close()
+      {
+      }
+
+      @Override
+      public void connect()
+      {
+      }
+   }
+
+   public static class TestPacket extends Packet<TestPacket>
+   {
+      public int value;
+
+      public TestPacket()
+      {
+      }
+
+      @Override
+      public boolean epsilonEquals(TestPacket other, double epsilon)
+      {
+         return value == other.value;
+      }
+   }
+}
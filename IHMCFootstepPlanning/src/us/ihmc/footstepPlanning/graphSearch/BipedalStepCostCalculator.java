@@ -7,4 +7,7 @@ public interface BipedalStepCostCalculator
    // Returns the cost for taking a step with the swingSide given the soleTransforms.
    public abstract double calculateCost(FramePose stanceFoot, FramePose swingStartFoot, FramePose idealFootstep, FramePose candidateFootstep,
                                         double percentageOfFoothold);
+
+   // Returns a lower bound of the cost of any step, used by the planner heuristics.
+   public abstract double getMinimumCost();
 }
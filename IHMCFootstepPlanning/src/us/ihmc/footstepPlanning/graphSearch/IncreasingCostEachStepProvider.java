@@ -14,4 +14,9 @@ public class IncreasingCostEachStepProvider implements BipedalStepCostCalculator
       return cost;
    }
 
+   @Override
+   public double getMinimumCost()
+   {
+      return 1.0;
+   }
 }
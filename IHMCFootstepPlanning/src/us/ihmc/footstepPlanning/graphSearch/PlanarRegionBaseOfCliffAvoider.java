@@ -138,6 +138,7 @@ public class PlanarRegionBaseOfCliffAvoider
         LineSegment2d lineSegmentInWorldFrame = new LineSegment2d();
         Point3d pointOneInWorldFrame = new Point3d();
         Point3d pointTwoInWorldFrame = new Point3d();
+        ArrayList<PlanarRegion> intersectingRegionsToPack = new ArrayList<>();
 
         for (LineSegment2d lineSegmentInSoleFrame : lineSegmentsInSoleFrame)
         {
@@ -149,7 +150,7 @@ public class PlanarRegionBaseOfCliffAvoider
 
            lineSegmentInWorldFrame.set(pointOneInWorldFrame.getX(), pointOneInWorldFrame.getY(), pointTwoInWorldFrame.getX(), pointTwoInWorldFrame.getY());
 
-           ArrayList<PlanarRegion> intersectingRegionsToPack = new ArrayList<>();
+           intersectingRegionsToPack.clear();
            planarRegionsList.findPlanarRegionsIntersectingLineSegment(lineSegmentInWorldFrame, intersectingRegionsToPack);
            for (PlanarRegion intersectingRegion : intersectingRegionsToPack)
            {
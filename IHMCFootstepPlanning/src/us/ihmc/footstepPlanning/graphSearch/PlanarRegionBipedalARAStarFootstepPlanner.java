@@ -0,0 +1,655 @@
+package us.ihmc.footstepPlanning.graphSearch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.robotics.time.TimeTools;
+
+/**
+ * Anytime footstep planner using ARA*: a weighted A* search is run with a decreasing heuristic weight, reusing the states of the previous
+ * searches, so a first plan is found quickly and is then improved until the weight reaches one or the timeout is reached.
+ * <p>
+ * The nodes are generated and scored by the {@link PlanarRegionPotentialNextStepCalculator}. Two nodes are the same state of the search when
+ * they are on the same foot and in the same cell of a lattice of {@link BipedalFootstepPlannerNode#getXyDistanceThresholdToConsiderNodesEqual()}
+ * in position and {@link BipedalFootstepPlannerNode#getYawRotationThresholdToConsiderNodesEqual()} in yaw, and only the cheapest node of a cell
+ * is kept. The heuristic is {@link PlanarRegionPotentialNextStepCalculator#computeCostToGoalLowerBound(BipedalFootstepPlannerNode)}, so the
+ * cost of each plan is at most the heuristic weight times the cost of the optimal plan on the lattice.
+ * </p>
+ * <p>
+ * Snapping and wiggling the candidate steps of an expansion is most of the planning time, so it is split between a pool of threads that each have
+ * their own copy of the planar regions. The listener is notified of the snapping results on the planning thread, in the order of the candidates.
+ * Call {@link #close()} to stop the threads once the planner is not used anymore.
+ * </p>
+ * <p>
+ * With {@link #setExitAfterInitialSolution(boolean)} the planner returns the plan of the first search instead of improving it.
+ * </p>
+ */
+public class PlanarRegionBipedalARAStarFootstepPlanner extends PlanarRegionBipedalFootstepPlanner
+{
+   private static final double DEFAULT_INITIAL_HEURISTIC_WEIGHT = 5.0;
+   private static final double DEFAULT_HEURISTIC_WEIGHT_DECREMENT = 0.5;
+
+   private final DoubleYoVariable initialHeuristicWeight = new DoubleYoVariable("initialHeuristicWeight", registry);
+   private final DoubleYoVariable heuristicWeightDecrement = new DoubleYoVariable("heuristicWeightDecrement", registry);
+   private final DoubleYoVariable heuristicWeight = new DoubleYoVariable("heuristicWeight", registry);
+   private final DoubleYoVariable costOfBestPlan = new DoubleYoVariable("costOfBestPlan", registry);
+
+   private final HashMap<Long, LatticeState> latticeStates = new HashMap<>();
+   private final PriorityQueue<LatticeState> openSet = new PriorityQueue<>(100, new Comparator<LatticeState>()
+   {
+      @Override
+      public int compare(LatticeState state1, LatticeState state2)
+      {
+         // On ties the deepest state goes first, which finds a first plan faster.
+         if (state1.priority == state2.priority)
+            return Double.compare(state2.costFromStart, state1.costFromStart);
+         return Double.compare(state1.priority, state2.priority);
+      }
+   });
+   private final ArrayList<LatticeState> inconsistentStates = new ArrayList<>();
+   private int searchIndex = 0;
+
+   private final AtomicReference<FootstepPlan> bestPlanYet = new AtomicReference<>();
+
+   private final ArrayList<BipedalFootstepPlannerNode> childrenNodes = new ArrayList<>();
+   private final ArrayList<BipedalFootstepPlannerNode> candidateNodes = new ArrayList<>();
+   private final Vector3d idealStepVector = new Vector3d();
+   private boolean[] acceptableCandidates = new boolean[0];
+
+   private final PlanarRegionPotentialNextStepCalculator[] snappingCalculators;
+   private final SnappingEventRecorder[] snappingEventRecorders;
+   private final ExecutorService executorService;
+   private final List<Callable<Void>> snappingTasks = new ArrayList<>();
+
+   /**
+    * Creates a planner that snaps the candidate steps on as many threads as there are processors.
+    */
+   public PlanarRegionBipedalARAStarFootstepPlanner(BipedalFootstepPlannerParameters parameters, YoVariableRegistry parentRegistry)
+   {
+      this(parameters, Runtime.getRuntime().availableProcessors(), parentRegistry);
+   }
+
+   /**
+    * @param numberOfThreads the number of threads used to snap the candidate steps, if one they are snapped on the planning thread.
+    */
+   public PlanarRegionBipedalARAStarFootstepPlanner(BipedalFootstepPlannerParameters parameters, int numberOfThreads, YoVariableRegistry parentRegistry)
+   {
+      super(parameters, parentRegistry);
+
+      if (numberOfThreads < 1)
+         throw new RuntimeException("Need at least one thread, got " + numberOfThreads);
+
+      initialHeuristicWeight.set(DEFAULT_INITIAL_HEURISTIC_WEIGHT);
+      heuristicWeightDecrement.set(DEFAULT_HEURISTIC_WEIGHT_DECREMENT);
+      // The search is meant to be stopped by the timeout, after improving the plan for as long as it allows.
+      maximumNumberOfNodesToExpand.set(Integer.MAX_VALUE);
+      exitAfterInitialSolution.set(false);
+
+      if (numberOfThreads == 1)
+      {
+         snappingCalculators = null;
+         snappingEventRecorders = null;
+         executorService = null;
+         return;
+      }
+
+      // The calculators cache the last snapping results, so each thread needs its own.
+      snappingCalculators = new PlanarRegionPotentialNextStepCalculator[numberOfThreads];
+      snappingEventRecorders = new SnappingEventRecorder[numberOfThreads];
+      for (int i = 0; i < numberOfThreads; i++)
+      {
+         YoVariableRegistry snappingThreadRegistry = new YoVariableRegistry("SnappingThread" + i);
+         registry.addChild(snappingThreadRegistry);
+         snappingCalculators[i] = new PlanarRegionPotentialNextStepCalculator(parameters, snappingThreadRegistry, null);
+         snappingEventRecorders[i] = new SnappingEventRecorder();
+         snappingTasks.add(new SnappingTask(i, numberOfThreads));
+      }
+
+      executorService = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory()
+      {
+         private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+         @Override
+         public Thread newThread(Runnable runnable)
+         {
+            Thread thread = new Thread(runnable, "ARAStarFootstepPlanner-thread-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+         }
+      });
+   }
+
+   /**
+    * @param initialHeuristicWeight weight of the heuristic for the first search, the higher the faster a first plan is found.
+    */
+   public void setInitialHeuristicWeight(double initialHeuristicWeight)
+   {
+      this.initialHeuristicWeight.set(initialHeuristicWeight);
+   }
+
+   /**
+    * @param heuristicWeightDecrement how much the heuristic weight is decreased after each search.
+    */
+   public void setHeuristicWeightDecrement(double heuristicWeightDecrement)
+   {
+      this.heuristicWeightDecrement.set(heuristicWeightDecrement);
+   }
+
+   @Override
+   public void setBipedalFootstepPlannerListener(BipedalFootstepPlannerListener listener)
+   {
+      super.setBipedalFootstepPlannerListener(listener);
+
+      if (snappingCalculators == null)
+         return;
+
+      // The listeners are not thread safe, so the snapping threads record their events and they are passed to the listener after the snapping.
+      for (int i = 0; i < snappingCalculators.length; i++)
+         snappingCalculators[i].setBipedalFootstepPlannerListener(listener == null ? null : snappingEventRecorders[i]);
+   }
+
+   /**
+    * Stops the snapping threads. The planner cannot be used anymore after this.
+    */
+   public void close()
+   {
+      if (executorService != null)
+         executorService.shutdownNow();
+   }
+
+   @Override
+   public void setFeetPolygons(SideDependentList<ConvexPolygon2d> footPolygonsInSoleFrame)
+   {
+      setFeetPolygons(footPolygonsInSoleFrame, footPolygonsInSoleFrame);
+   }
+
+   @Override
+   public void setFeetPolygons(SideDependentList<ConvexPolygon2d> footPolygonsInSoleFrame, SideDependentList<ConvexPolygon2d> controllerPolygonsInSoleFrame)
+   {
+      super.setFeetPolygons(footPolygonsInSoleFrame, controllerPolygonsInSoleFrame);
+
+      if (snappingCalculators == null)
+         return;
+
+      for (int i = 0; i < snappingCalculators.length; i++)
+         snappingCalculators[i].setFeetPolygons(copyPolygons(footPolygonsInSoleFrame), copyPolygons(controllerPolygonsInSoleFrame));
+   }
+
+   private static SideDependentList<ConvexPolygon2d> copyPolygons(SideDependentList<ConvexPolygon2d> polygons)
+   {
+      SideDependentList<ConvexPolygon2d> copies = new SideDependentList<>();
+      for (RobotSide robotSide : RobotSide.values)
+         copies.put(robotSide, new ConvexPolygon2d(polygons.get(robotSide)));
+      return copies;
+   }
+
+   @Override
+   public void setPlanarRegions(PlanarRegionsList planarRegionsList)
+   {
+      super.setPlanarRegions(planarRegionsList);
+
+      if (snappingCalculators == null)
+         return;
+
+      for (int i = 0; i < snappingCalculators.length; i++)
+         snappingCalculators[i].setPlanarRegions(planarRegionsList == null ? null : planarRegionsList.copy());
+   }
+
+   /**
+    * Can be called from another thread while planning.
+    *
+    * @return the best plan found so far by the current or last call to {@link #plan()}, or null if none was found yet.
+    */
+   public FootstepPlan getBestPlanYet()
+   {
+      return bestPlanYet.get();
+   }
+
+   @Override
+   public FootstepPlanningResult plan()
+   {
+      bestGoalNode = null;
+      goalNodes.clear();
+      footstepPlan = null;
+      bestPlanYet.set(null);
+      costOfBestPlan.set(Double.POSITIVE_INFINITY);
+
+      if (!initialStanceFootWasSet || !goalWasSet)
+      {
+         return FootstepPlanningResult.NO_PATH_EXISTS;
+      }
+
+      startNode = new BipedalFootstepPlannerNode(initialSide, initialFootPose);
+      notifiyListenersStartNodeWasAdded(startNode);
+      planarRegionPotentialNextStepCalculator.setStartNode(startNode);
+      if (snappingCalculators != null)
+      {
+         for (int i = 0; i < snappingCalculators.length; i++)
+            snappingCalculators[i].setStartNode(startNode);
+      }
+
+      latticeStates.clear();
+      openSet.clear();
+      inconsistentStates.clear();
+      searchIndex = 0;
+      numberOfNodesExpanded.set(0);
+      planningStartTime.set(System.nanoTime());
+      heuristicWeight.set(Math.max(1.0, initialHeuristicWeight.getDoubleValue()));
+
+      LatticeState startState = new LatticeState();
+      startState.node = startNode;
+      startState.costFromStart = 0.0;
+      startState.heuristicCost = planarRegionPotentialNextStepCalculator.computeCostToGoalLowerBound(startNode);
+      latticeStates.put(computeLatticeKey(startNode), startState);
+      addToOpenSet(startState);
+
+      boolean searchedWithoutInflation = false;
+
+      while (improvePath())
+      {
+         if (bestGoalNode != null && exitAfterInitialSolution.getBooleanValue())
+            break;
+
+         if (heuristicWeight.getDoubleValue() <= 1.0)
+         {
+            searchedWithoutInflation = true;
+            break;
+         }
+
+         heuristicWeight.set(Math.max(1.0, heuristicWeight.getDoubleValue() - heuristicWeightDecrement.getDoubleValue()));
+         startNextSearch();
+      }
+
+      if (bestGoalNode == null)
+      {
+         notifyListenerSolutionWasNotFound();
+         if (searchedWithoutInflation || openSet.isEmpty())
+            return FootstepPlanningResult.NO_PATH_EXISTS;
+         return FootstepPlanningResult.TIMED_OUT_BEFORE_SOLUTION;
+      }
+
+      footstepPlan = getPlan();
+
+      if (searchedWithoutInflation)
+         return FootstepPlanningResult.OPTIMAL_SOLUTION;
+      return FootstepPlanningResult.SUB_OPTIMAL_SOLUTION;
+   }
+
+   /**
+    * Expands the states in the open set until no state can lead to a plan better than the best plan found so far by more than the heuristic weight.
+    *
+    * @return false if the search was stopped by the timeout or the maximum number of nodes to expand.
+    */
+   private boolean improvePath()
+   {
+      while (!openSet.isEmpty() && openSet.peek().priority < costOfBestPlan.getDoubleValue())
+      {
+         if (numberOfNodesExpanded.getIntegerValue() >= maximumNumberOfNodesToExpand.getIntegerValue())
+            return false;
+
+         long timeInNano = System.nanoTime();
+         if (TimeTools.nanoSecondstoSeconds(timeInNano - planningStartTime.getLongValue()) > timeout.getDoubleValue())
+            return false;
+
+         LatticeState stateToExpand = openSet.poll();
+         stateToExpand.isInOpenSet = false;
+         stateToExpand.closedSearchIndex = searchIndex;
+
+         numberOfNodesExpanded.increment();
+         notifyListenerNodeIsBeingExpanded(stateToExpand.node);
+
+         expand(stateToExpand);
+      }
+
+      return true;
+   }
+
+   private void expand(LatticeState stateToExpand)
+   {
+      computeChildrenNodes(stateToExpand.node);
+
+      for (int i = 0; i < childrenNodes.size(); i++)
+      {
+         BipedalFootstepPlannerNode childNode = childrenNodes.get(i);
+         double costFromStart = stateToExpand.costFromStart + childNode.getSingleStepCost();
+
+         if (childNode.isAtGoal())
+         {
+            if (costFromStart < costOfBestPlan.getDoubleValue())
+               updateBestPlan(childNode, costFromStart);
+            continue;
+         }
+
+         double heuristicCost = planarRegionPotentialNextStepCalculator.computeCostToGoalLowerBound(childNode);
+         if (costFromStart + heuristicCost >= costOfBestPlan.getDoubleValue())
+            continue;
+
+         long latticeKey = computeLatticeKey(childNode);
+         LatticeState childState = latticeStates.get(latticeKey);
+
+         if (childState == null)
+         {
+            childState = new LatticeState();
+            latticeStates.put(latticeKey, childState);
+         }
+         else if (costFromStart >= childState.costFromStart)
+         {
+            continue;
+         }
+
+         // The priority of a state in the queue cannot change while it is in it.
+         if (childState.isInOpenSet)
+            openSet.remove(childState);
+
+         childState.node = childNode;
+         childState.costFromStart = costFromStart;
+         childState.heuristicCost = heuristicCost;
+
+         if (childState.closedSearchIndex == searchIndex)
+         {
+            if (!childState.isInconsistent)
+            {
+               childState.isInconsistent = true;
+               inconsistentStates.add(childState);
+            }
+         }
+         else
+         {
+            addToOpenSet(childState);
+         }
+      }
+   }
+
+   private void updateBestPlan(BipedalFootstepPlannerNode goalNode, double cost)
+   {
+      goalNodes.add(goalNode);
+      bestGoalNode = goalNode;
+      costOfBestPlan.set(cost);
+
+      FootstepPlan plan = new FootstepPlan(goalNode);
+      bestPlanYet.set(plan);
+      notifyListenerSolutionWasFound(plan);
+   }
+
+   /**
+    * Puts the inconsistent states back in the open set with the new heuristic weight, and reopens the closed states.
+    */
+   private void startNextSearch()
+   {
+      ArrayList<LatticeState> statesToOpen = new ArrayList<>(openSet);
+      openSet.clear();
+
+      for (int i = 0; i < statesToOpen.size(); i++)
+         addToOpenSet(statesToOpen.get(i));
+
+      for (int i = 0; i < inconsistentStates.size(); i++)
+      {
+         LatticeState state = inconsistentStates.get(i);
+         state.isInconsistent = false;
+         addToOpenSet(state);
+      }
+      inconsistentStates.clear();
+
+      searchIndex++;
+   }
+
+   private void addToOpenSet(LatticeState state)
+   {
+      // States that cannot lead to a better plan are dropped.
+      if (state.costFromStart + state.heuristicCost >= costOfBestPlan.getDoubleValue())
+      {
+         state.isInOpenSet = false;
+         return;
+      }
+
+      state.priority = state.costFromStart + heuristicWeight.getDoubleValue() * state.heuristicCost;
+      state.isInOpenSet = true;
+      openSet.add(state);
+   }
+
+   private void computeChildrenNodes(BipedalFootstepPlannerNode nodeToExpand)
+   {
+      childrenNodes.clear();
+      double smallestCostToGoal = costOfBestPlan.getDoubleValue();
+
+      if (snappingCalculators == null)
+      {
+         childrenNodes.addAll(planarRegionPotentialNextStepCalculator.computeChildrenNodes(nodeToExpand, smallestCostToGoal));
+         return;
+      }
+
+      BipedalFootstepPlannerNode goalNode = planarRegionPotentialNextStepCalculator.computeGoalNodeIfGoalIsReachable(nodeToExpand);
+      if (goalNode != null)
+      {
+         if (listener != null)
+            listener.nodeUnderConsideration(goalNode);
+
+         if (planarRegionPotentialNextStepCalculator.snapNodeAndCheckIfAcceptableToExpand(goalNode)
+               && planarRegionPotentialNextStepCalculator.computeStepCostAndCheckIfLowerThan(goalNode, new Vector3d(), 0.0, smallestCostToGoal))
+         {
+            childrenNodes.add(goalNode);
+            return;
+         }
+      }
+
+      candidateNodes.clear();
+      double idealStepYaw = planarRegionPotentialNextStepCalculator.computeCandidateChildrenNodes(nodeToExpand, candidateNodes, idealStepVector);
+
+      if (acceptableCandidates.length < candidateNodes.size())
+         acceptableCandidates = new boolean[candidateNodes.size()];
+
+      for (int i = 0; i < snappingEventRecorders.length; i++)
+         snappingEventRecorders[i].clear();
+
+      try
+      {
+         List<Future<Void>> futures = executorService.invokeAll(snappingTasks);
+         for (int i = 0; i < futures.size(); i++)
+            futures.get(i).get();
+      }
+      catch (InterruptedException e)
+      {
+         throw new RuntimeException(e);
+      }
+      catch (ExecutionException e)
+      {
+         throw new RuntimeException(e.getCause());
+      }
+
+      // The step costs are computed on this thread since the cost calculators keep a state.
+      for (int i = 0; i < candidateNodes.size(); i++)
+      {
+         BipedalFootstepPlannerNode candidateNode = candidateNodes.get(i);
+
+         if (listener != null)
+         {
+            listener.nodeUnderConsideration(candidateNode);
+            snappingEventRecorders[i % snappingEventRecorders.length].notifyListenerOfCandidateEvents(i, listener);
+         }
+
+         if (acceptableCandidates[i]
+               && planarRegionPotentialNextStepCalculator.computeStepCostAndCheckIfLowerThan(candidateNode, idealStepVector, idealStepYaw, smallestCostToGoal))
+            childrenNodes.add(candidateNode);
+      }
+
+      // Same order as on a single thread, it decides which node is kept when two children end up in the same lattice cell at the same cost.
+      planarRegionPotentialNextStepCalculator.sortByStepCost(childrenNodes);
+   }
+
+   private class SnappingTask implements Callable<Void>
+   {
+      private final int firstCandidateIndex;
+      private final int numberOfTasks;
+
+      public SnappingTask(int firstCandidateIndex, int numberOfTasks)
+      {
+         this.firstCandidateIndex = firstCandidateIndex;
+         this.numberOfTasks = numberOfTasks;
+      }
+
+      @Override
+      public Void call() throws Exception
+      {
+         PlanarRegionPotentialNextStepCalculator snappingCalculator = snappingCalculators[firstCandidateIndex];
+         SnappingEventRecorder snappingEventRecorder = snappingEventRecorders[firstCandidateIndex];
+
+         for (int i = firstCandidateIndex; i < candidateNodes.size(); i += numberOfTasks)
+         {
+            snappingEventRecorder.setCandidateIndex(i);
+            acceptableCandidates[i] = snappingCalculator.snapNodeAndCheckIfAcceptableToExpand(candidateNodes.get(i));
+         }
+
+         return null;
+      }
+   }
+
+   /**
+    * Records the results of the snapping done on one thread, so they can be passed to the listener on the planning thread.
+    */
+   private static class SnappingEventRecorder implements BipedalFootstepPlannerListener
+   {
+      private final ArrayList<SnappingEvent> events = new ArrayList<>();
+      private int candidateIndex;
+      private int nextEventIndex;
+
+      public void clear()
+      {
+         events.clear();
+         nextEventIndex = 0;
+      }
+
+      public void setCandidateIndex(int candidateIndex)
+      {
+         this.candidateIndex = candidateIndex;
+      }
+
+      /**
+       * The candidates are snapped in increasing order, so their events are consumed in the order they were recorded.
+       */
+      public void notifyListenerOfCandidateEvents(int candidateIndex, BipedalFootstepPlannerListener listener)
+      {
+         while (nextEventIndex < events.size() && events.get(nextEventIndex).candidateIndex == candidateIndex)
+         {
+            SnappingEvent event = events.get(nextEventIndex++);
+            if (event.rejectionReason == null)
+               listener.nodeUnderConsiderationWasSuccessful(event.node);
+            else
+               listener.nodeUnderConsiderationWasRejected(event.node, event.rejectionReason);
+         }
+      }
+
+      @Override
+      public void nodeUnderConsiderationWasRejected(BipedalFootstepPlannerNode rejectedNode, BipedalFootstepPlannerNodeRejectionReason reason)
+      {
+         events.add(new SnappingEvent(candidateIndex, rejectedNode, reason));
+      }
+
+      @Override
+      public void nodeUnderConsiderationWasSuccessful(BipedalFootstepPlannerNode node)
+      {
+         events.add(new SnappingEvent(candidateIndex, node, null));
+      }
+
+      @Override
+      public void goalWasSet(RigidBodyTransform goalLeftFootPose, RigidBodyTransform goalRightFootPose)
+      {
+      }
+
+      @Override
+      public void startNodeWasAdded(BipedalFootstepPlannerNode startNode)
+      {
+      }
+
+      @Override
+      public void planarRegionsListSet(PlanarRegionsList planarRegionsList)
+      {
+      }
+
+      @Override
+      public void nodeIsBeingExpanded(BipedalFootstepPlannerNode nodeToExpand)
+      {
+      }
+
+      @Override
+      public void nodeUnderConsideration(BipedalFootstepPlannerNode nodeToExpand)
+      {
+      }
+
+      @Override
+      public void solutionWasFound(FootstepPlan footstepPlan)
+      {
+      }
+
+      @Override
+      public void solutionWasNotFound()
+      {
+      }
+   }
+
+   private static class SnappingEvent
+   {
+      private final int candidateIndex;
+      private final BipedalFootstepPlannerNode node;
+      private final BipedalFootstepPlannerNodeRejectionReason rejectionReason;
+
+      public SnappingEvent(int candidateIndex, BipedalFootstepPlannerNode node, BipedalFootstepPlannerNodeRejectionReason rejectionReason)
+      {
+         this.candidateIndex = candidateIndex;
+         this.node = node;
+         this.rejectionReason = rejectionReason;
+      }
+   }
+
+   private static long computeLatticeKey(BipedalFootstepPlannerNode node)
+   {
+      Point3d solePosition = node.getSolePosition();
+      double xyResolution = BipedalFootstepPlannerNode.getXyDistanceThresholdToConsiderNodesEqual();
+      double yawResolution = BipedalFootstepPlannerNode.getYawRotationThresholdToConsiderNodesEqual();
+
+      long xIndex = Math.round(solePosition.getX() / xyResolution);
+      long yIndex = Math.round(solePosition.getY() / xyResolution);
+      long numberOfYawCells = Math.round(2.0 * Math.PI / yawResolution);
+      long yawIndex = Math.floorMod(Math.round(node.getSoleYaw() / yawResolution), numberOfYawCells);
+
+      // 24 bits per position index is more than 400km at 5cm, and 15 bits are enough for the yaw index.
+      long key = node.getRobotSide() == RobotSide.LEFT ? 0L : 1L;
+      key = (key << 15) | yawIndex;
+      key = (key << 24) | (xIndex & 0xFFFFFFL);
+      key = (key << 24) | (yIndex & 0xFFFFFFL);
+      return key;
+   }
+
+   private static class LatticeState
+   {
+      private BipedalFootstepPlannerNode node;
+      private double costFromStart = Double.POSITIVE_INFINITY;
+      private double heuristicCost;
+      private double priority;
+      private boolean isInOpenSet = false;
+      private boolean isInconsistent = false;
+      private int closedSearchIndex = -1;
+   }
+}
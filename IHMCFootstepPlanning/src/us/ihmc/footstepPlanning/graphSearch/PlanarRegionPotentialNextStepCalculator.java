@@ -12,7 +12,7 @@ import javax.vecmath.Vector3d;
 import us.ihmc.footstepPlanning.FootstepPlannerGoal;
 import us.ihmc.footstepPlanning.FootstepPlannerGoalType;
 import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListPolygonSnapper;
-import us.ihmc.footstepPlanning.polygonWiggling.PolygonWiggler;
+import us.ihmc.footstepPlanning.polygonWiggling.PolygonWiggleSolver;
 import us.ihmc.footstepPlanning.polygonWiggling.WiggleParameters;
 import us.ihmc.footstepPlanning.scoring.BipedalStepAdjustmentCostCalculator;
 import us.ihmc.graphicsDescription.yoGraphics.YoGraphicsListRegistry;
@@ -65,6 +65,9 @@ public class PlanarRegionPotentialNextStepCalculator
    private final IncreasingCostEachStepProvider increasingCostEachStepProvider;
    private final PlanarRegionBaseOfCliffAvoider baseOfCliffAvoider;
 
+   private final PolygonWiggleSolver wiggleSolver = new PolygonWiggleSolver();
+   private final WiggleParameters wiggleParameters = new WiggleParameters();
+
    PlanarRegionPotentialNextStepCalculator(BipedalFootstepPlannerParameters parameters, YoVariableRegistry parentRegistry, YoGraphicsListRegistry yoGraphicsListRegistry)
    {
       this.parameters = parameters;
@@ -95,6 +98,11 @@ public class PlanarRegionPotentialNextStepCalculator
    {
       this.planarRegionsList = planarRegionsList;
 
+      if (planarRegionsList != null)
+      {
+         planarRegionsList.updateGridIndex();
+      }
+
       if (listener != null)
       {
          listener.planarRegionsListSet(planarRegionsList);
@@ -269,6 +277,34 @@ public class PlanarRegionPotentialNextStepCalculator
             return nodesToAdd;
       }
 
+      ArrayList<BipedalFootstepPlannerNode> candidateNodes = new ArrayList<>();
+      Vector3d idealStepVector = new Vector3d();
+      double idealStepYaw = computeCandidateChildrenNodes(nodeToExpand, candidateNodes, idealStepVector);
+
+      for (int i = 0; i < candidateNodes.size(); i++)
+         checkIfNodeAcceptableCostAndAddToList(candidateNodes.get(i), nodesToAdd, idealStepVector, idealStepYaw, smallestCostToGoal);
+
+      sortByStepCost(nodesToAdd);
+      return nodesToAdd;
+   }
+
+   /**
+    * Sorts the children of a node in the order {@link #computeChildrenNodes(BipedalFootstepPlannerNode, double)} returns them.
+    */
+   void sortByStepCost(List<BipedalFootstepPlannerNode> nodes)
+   {
+      Collections.sort(nodes, nodeCostComparator);
+   }
+
+   /**
+    * Creates the nodes for the steps that can be taken from the node to expand, without snapping them or computing their cost.
+    *
+    * @param idealStepVectorToPack the ideal step from the node to expand, to pass to {@link #computeStepCostAndCheckIfLowerThan}.
+    * @return the yaw of the ideal step from the node to expand.
+    */
+   double computeCandidateChildrenNodes(BipedalFootstepPlannerNode nodeToExpand, List<BipedalFootstepPlannerNode> candidateNodesToPack,
+                                        Vector3d idealStepVectorToPack)
+   {
       RigidBodyTransform soleZUpTransform = computeSoleZUpTransform(nodeToExpand);
 
       RobotSide currentSide = nodeToExpand.getRobotSide();
@@ -280,7 +316,8 @@ public class PlanarRegionPotentialNextStepCalculator
       currentToGoalVector.sub(goalPosition, currentPosition);
 
       double distance = currentToGoalVector.length();
-      Vector3d idealStepVector = computeIdealStepVector(parameters, soleZUpTransform, nextSide, currentToGoalVector);
+      idealStepVectorToPack.set(computeIdealStepVector(parameters, soleZUpTransform, nextSide, currentToGoalVector));
+      Vector3d idealStepVector = idealStepVectorToPack;
 
       Point3d idealStepLocationInWorld = new Point3d(idealStepVector);
       soleZUpTransform.transform(idealStepLocationInWorld);
@@ -308,8 +345,7 @@ public class PlanarRegionPotentialNextStepCalculator
 
       BipedalFootstepPlannerNode childNode = createAndAddNextNodeGivenStep(soleZUpTransform, nodeToExpand, idealStepVector, idealStepYaw);
       seeIfNodeIsAtGoal(childNode);
-
-      checkIfNodeAcceptableCostAndAddToList(childNode, nodesToAdd, idealStepVector, idealStepYaw, smallestCostToGoal);
+      candidateNodesToPack.add(childNode);
 
       for (double xStep = idealStepVector.getX() / 2.0; xStep < 1.6 * idealStepVector.getX(); xStep = xStep + idealStepVector.getX() / 4.0)
       {
@@ -322,8 +358,7 @@ public class PlanarRegionPotentialNextStepCalculator
                childNode = createAndAddNextNodeGivenStep(soleZUpTransform, nodeToExpand, nextStepVector, nextStepYaw);
 
                seeIfNodeIsAtGoal(childNode);
-
-               checkIfNodeAcceptableCostAndAddToList(childNode, nodesToAdd, idealStepVector, idealStepYaw, smallestCostToGoal);
+               candidateNodesToPack.add(childNode);
             }
          }
       }
@@ -336,12 +371,9 @@ public class PlanarRegionPotentialNextStepCalculator
       childNode = createAndAddNextNodeGivenStep(soleZUpTransform, nodeToExpand, nextStepVector, nextStepYaw);
 
       seeIfNodeIsAtGoal(childNode);
-      checkIfNodeAcceptableCostAndAddToList(childNode, nodesToAdd, idealStepVector, idealStepYaw, smallestCostToGoal);
+      candidateNodesToPack.add(childNode);
 
-      NodeCostComparator nodeCostComparator = new NodeCostComparator();
-
-      Collections.sort(nodesToAdd, nodeCostComparator);
-      return nodesToAdd;
+      return idealStepYaw;
    }
 
    private static Vector3d computeIdealStepVector(BipedalFootstepPlannerParameters parameters, RigidBodyTransform soleZUpTransform, RobotSide nextSide,
@@ -406,54 +438,100 @@ public class PlanarRegionPotentialNextStepCalculator
 
       if (acceptable)
       {
-         BipedalFootstepPlannerNode parentNode = node.getParentNode();
-
-         if (parentNode == null)
-         {
-            node.setSingleStepCost(0.0);
-         }
+         if (computeStepCostAndCheckIfLowerThan(node, idealStepVector, idealStepYaw, smallestCostToGoal))
+            nodesToAdd.add(node);
          else
-         {
-            node.getSoleTransform(soleTransforms.get(node.getRobotSide()));
-            parentNode.getSoleTransform(soleTransforms.get(parentNode.getRobotSide()));
+            return false;
+      }
+      else
+      {
+         node.setSingleStepCost(Double.POSITIVE_INFINITY);
+      }
+
+      return acceptable;
+   }
 
-            RigidBodyTransform nodeTransform = new RigidBodyTransform();
-            node.getSoleTransform(nodeTransform);
-            FramePose candidateFootPose = new FramePose(ReferenceFrame.getWorldFrame(), nodeTransform);
+   /**
+    * Sets the cost of the step to the given snapped node.
+    *
+    * @return whether the cost from the start to the node is lower than {@code smallestCostToGoal}.
+    */
+   boolean computeStepCostAndCheckIfLowerThan(BipedalFootstepPlannerNode node, Vector3d idealStepVector, double idealStepYaw, double smallestCostToGoal)
+   {
+      BipedalFootstepPlannerNode parentNode = node.getParentNode();
 
-            RigidBodyTransform stanceFootTransform = soleTransforms.get(node.getRobotSide().getOppositeSide());
-            RigidBodyTransform swingStartFootTransform = soleTransforms.get(node.getRobotSide());
+      if (parentNode == null)
+      {
+         node.setSingleStepCost(0.0);
+      }
+      else
+      {
+         node.getSoleTransform(soleTransforms.get(node.getRobotSide()));
+         parentNode.getSoleTransform(soleTransforms.get(parentNode.getRobotSide()));
 
-            FramePose stanceFootPose = new FramePose(ReferenceFrame.getWorldFrame(), stanceFootTransform);
-            FramePose swingStartFootPose = new FramePose(ReferenceFrame.getWorldFrame(), swingStartFootTransform);
+         RigidBodyTransform nodeTransform = new RigidBodyTransform();
+         node.getSoleTransform(nodeTransform);
+         FramePose candidateFootPose = new FramePose(ReferenceFrame.getWorldFrame(), nodeTransform);
 
-            RigidBodyTransform idealStepTransform = getTransformFromStepToWorld(stanceFootTransform, idealStepVector, idealStepYaw);
-            FramePose idealFootstepPose = new FramePose(ReferenceFrame.getWorldFrame(), idealStepTransform);
+         RigidBodyTransform stanceFootTransform = soleTransforms.get(node.getRobotSide().getOppositeSide());
+         RigidBodyTransform swingStartFootTransform = soleTransforms.get(node.getRobotSide());
 
-            double cost;
-            if (enableStepAdjustmentCosts.getBooleanValue())
-            {
-               cost = stepAdjustmentCostCalculator.calculateCost(stanceFootPose, swingStartFootPose, idealFootstepPose, candidateFootPose, node.getPercentageOfFoothold());
-            }
-            else
-            {
-               cost = increasingCostEachStepProvider.calculateCost(stanceFootPose, swingStartFootPose, idealFootstepPose, candidateFootPose, node.getPercentageOfFoothold());
-            }
+         FramePose stanceFootPose = new FramePose(ReferenceFrame.getWorldFrame(), stanceFootTransform);
+         FramePose swingStartFootPose = new FramePose(ReferenceFrame.getWorldFrame(), swingStartFootTransform);
 
-            node.setSingleStepCost(cost);
-         }
+         RigidBodyTransform idealStepTransform = getTransformFromStepToWorld(stanceFootTransform, idealStepVector, idealStepYaw);
+         FramePose idealFootstepPose = new FramePose(ReferenceFrame.getWorldFrame(), idealStepTransform);
 
-         if (node.getCostToHereFromStart() < smallestCostToGoal)
-            nodesToAdd.add(node);
+         double cost;
+         if (enableStepAdjustmentCosts.getBooleanValue())
+         {
+            cost = stepAdjustmentCostCalculator.calculateCost(stanceFootPose, swingStartFootPose, idealFootstepPose, candidateFootPose, node.getPercentageOfFoothold());
+         }
          else
-            return false;
+         {
+            cost = increasingCostEachStepProvider.calculateCost(stanceFootPose, swingStartFootPose, idealFootstepPose, candidateFootPose, node.getPercentageOfFoothold());
+         }
+
+         node.setSingleStepCost(cost);
       }
+
+      return node.getCostToHereFromStart() < smallestCostToGoal;
+   }
+
+   /**
+    * Lower bound of the cost from the given node to the goal, usable as an admissible heuristic: every step costs at least
+    * {@link BipedalStepCostCalculator#getMinimumCost()}, moves the foot by at most the maximum step reach, and turns it by at most the
+    * maximum step yaw plus what the wiggler can add.
+    */
+   double computeCostToGoalLowerBound(BipedalFootstepPlannerNode node)
+   {
+      Point3d solePosition = node.getSolePosition();
+      double minimumStepCost;
+      if (enableStepAdjustmentCosts.getBooleanValue())
+         minimumStepCost = stepAdjustmentCostCalculator.getMinimumCost();
       else
+         minimumStepCost = increasingCostEachStepProvider.getMinimumCost();
+
+      if (footstepPlannerGoalType == FootstepPlannerGoalType.CLOSE_TO_XY_POSITION)
       {
-         node.setSingleStepCost(Double.POSITIVE_INFINITY);
+         double distanceToGoal = Math.hypot(solePosition.getX() - xyGoal.getX(), solePosition.getY() - xyGoal.getY()) - distanceFromXYGoal;
+         return minimumStepCost * Math.ceil(Math.max(0.0, distanceToGoal) / parameters.getMaximumStepReach());
       }
 
-      return acceptable;
+      // The goal can be reached with either foot, and at least one more step is needed to get there.
+      double soleYaw = node.getSoleYaw();
+      double maximumYawPerStep = parameters.getMaximumStepYaw() + Math.max(wiggleParameters.maxYaw, -wiggleParameters.minYaw);
+      double numberOfSteps = Double.POSITIVE_INFINITY;
+      for (RobotSide robotSide : RobotSide.values)
+      {
+         Point3d goalPosition = goalPositions.get(robotSide);
+         double distanceToGoal = Math.hypot(solePosition.getX() - goalPosition.getX(), solePosition.getY() - goalPosition.getY());
+         double yawToGoal = Math.abs(AngleTools.computeAngleDifferenceMinusPiToPi(goalYaws.get(robotSide), soleYaw));
+         double numberOfStepsToReach = Math.ceil(distanceToGoal / parameters.getMaximumStepReach());
+         double numberOfStepsToTurn = Math.ceil(yawToGoal / maximumYawPerStep);
+         numberOfSteps = Math.min(numberOfSteps, Math.max(numberOfStepsToReach, numberOfStepsToTurn));
+      }
+      return minimumStepCost * Math.max(1.0, numberOfSteps);
    }
 
    private BipedalFootstepPlannerNode createAndAddNextNodeGivenStep(RigidBodyTransform soleZUpTransform, BipedalFootstepPlannerNode nodeToExpand,
@@ -713,6 +791,14 @@ public class PlanarRegionPotentialNextStepCalculator
       return true;
    }
 
+   private final ArrayList<PlanarRegion> planarRegionsIntersectingSnappedAndWiggledPolygon = new ArrayList<>();
+   private final RigidBodyTransform wiggleTransformLocalToLocal = new RigidBodyTransform();
+   private final RigidBodyTransform wiggleTransformWorldToWorld = new RigidBodyTransform();
+   private final RigidBodyTransform regionToWorldTransform = new RigidBodyTransform();
+   private final RigidBodyTransform worldToRegionTransform = new RigidBodyTransform();
+   private final RigidBodyTransform snapAndWiggleTransform = new RigidBodyTransform();
+   private final RigidBodyTransform transformToWorldFromIntersectingPlanarRegion = new RigidBodyTransform();
+
    private RigidBodyTransform getSnapAndWiggleTransform(double wiggleInsideDelta, BipedalFootstepPlannerNode bipedalFootstepPlannerNode,
                                                         PlanarRegion planarRegionToPack)
    {
@@ -753,7 +839,6 @@ public class PlanarRegionPotentialNextStepCalculator
       nodeAfterSnap.transformSoleTransformWithSnapTransformFromZeroZ(snapTransform, planarRegionToPack);
       //      notifyListenerNodeSnappedAndStillSelectedForExpansion(nodeAfterSnap);
 
-      WiggleParameters wiggleParameters = new WiggleParameters();
       wiggleParameters.deltaInside = wiggleInsideDelta;
       //      parameters.minX = -0.1;
       //      parameters.maxX = 0.1;
@@ -767,13 +852,15 @@ public class PlanarRegionPotentialNextStepCalculator
       //      System.out.println("polygonToWiggleInRegionFrame = \n" + polygonToWiggleInRegionFrame);
       //      System.out.println("planarRegionToPack = \n" + planarRegionToPack);
 
-      RigidBodyTransform wiggleTransformLocalToLocal = null;
+      boolean wiggleSucceeded;
       if (parameters.getWiggleIntoConvexHullOfPlanarRegions())
-         wiggleTransformLocalToLocal = PolygonWiggler.wigglePolygonIntoConvexHullOfRegion(polygonToWiggleInRegionFrame, planarRegionToPack, wiggleParameters);
+         wiggleSucceeded = wiggleSolver.wigglePolygonIntoConvexHullOfRegion(polygonToWiggleInRegionFrame, planarRegionToPack, wiggleParameters,
+                                                                            wiggleTransformLocalToLocal);
       else
-         wiggleTransformLocalToLocal = PolygonWiggler.wigglePolygonIntoRegion(polygonToWiggleInRegionFrame, planarRegionToPack, wiggleParameters);
+         wiggleSucceeded = wiggleSolver.wigglePolygonIntoRegion(polygonToWiggleInRegionFrame, planarRegionToPack, wiggleParameters,
+                                                                wiggleTransformLocalToLocal);
 
-      if (wiggleTransformLocalToLocal == null)
+      if (!wiggleSucceeded)
       {
          notifyListenerNodeUnderConsiderationWasRejected(nodeAfterSnap, BipedalFootstepPlannerNodeRejectionReason.COULD_NOT_WIGGLE_INSIDE);
 
@@ -813,30 +900,27 @@ public class PlanarRegionPotentialNextStepCalculator
 
       //      System.out.println("Limited wiggleTransformLocalToLocal = \n" + wiggleTransformLocalToLocal);
 
-      RigidBodyTransform wiggleTransformWorldToWorld = new RigidBodyTransform();
-      RigidBodyTransform transformOne = new RigidBodyTransform();
-      planarRegionToPack.getTransformToWorld(transformOne);
-      RigidBodyTransform transformTwo = new RigidBodyTransform(transformOne);
-      transformTwo.invert();
+      planarRegionToPack.getTransformToWorld(regionToWorldTransform);
+      worldToRegionTransform.set(regionToWorldTransform);
+      worldToRegionTransform.invert();
 
-      wiggleTransformWorldToWorld.multiply(transformOne, wiggleTransformLocalToLocal);
-      wiggleTransformWorldToWorld.multiply(wiggleTransformWorldToWorld, transformTwo);
+      wiggleTransformWorldToWorld.multiply(regionToWorldTransform, wiggleTransformLocalToLocal);
+      wiggleTransformWorldToWorld.multiply(wiggleTransformWorldToWorld, worldToRegionTransform);
 
       //      System.out.println("wiggleTransformWorldToWorld = \n" + wiggleTransformWorldToWorld);
 
-      RigidBodyTransform snapAndWiggleTransform = new RigidBodyTransform();
       snapAndWiggleTransform.multiply(wiggleTransformWorldToWorld, snapTransform);
 
       // Ensure polygon will be completely above the planarRegions with this snap and wiggle:
       ConvexPolygon2d checkFootPolygonInWorld = new ConvexPolygon2d(currentFootPolygon);
       checkFootPolygonInWorld.applyTransformAndProjectToXYPlane(snapAndWiggleTransform);
 
-      List<PlanarRegion> planarRegionsIntersectingSnappedAndWiggledPolygon = planarRegionsList.findPlanarRegionsIntersectingPolygon(checkFootPolygonInWorld);
+      planarRegionsIntersectingSnappedAndWiggledPolygon.clear();
+      planarRegionsList.findPlanarRegionsIntersectingPolygon(checkFootPolygonInWorld, planarRegionsIntersectingSnappedAndWiggledPolygon);
 
       ArrayList<ConvexPolygon2d> intersectionsInPlaneFrameToPack = new ArrayList<>();
-      RigidBodyTransform transformToWorldFromIntersectingPlanarRegion = new RigidBodyTransform();
 
-      if (planarRegionsIntersectingSnappedAndWiggledPolygon != null)
+      if (!planarRegionsIntersectingSnappedAndWiggledPolygon.isEmpty())
       {
          for (PlanarRegion planarRegionIntersectingSnappedAndWiggledPolygon : planarRegionsIntersectingSnappedAndWiggledPolygon)
          {
@@ -908,6 +992,8 @@ public class PlanarRegionPotentialNextStepCalculator
       return goalPositions.get(robotSide);
    }
 
+   private final NodeCostComparator nodeCostComparator = new NodeCostComparator();
+
    private class NodeCostComparator implements Comparator<BipedalFootstepPlannerNode>
    {
       @Override
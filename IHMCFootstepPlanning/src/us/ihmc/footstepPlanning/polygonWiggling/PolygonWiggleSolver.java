@@ -0,0 +1,514 @@
+package us.ihmc.footstepPlanning.polygonWiggling;
+
+import javax.vecmath.Point2d;
+
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.PlanarRegion;
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+
+/**
+ * Solves the same problem as the {@link PolygonWiggler}, but with a solver written for its three variables (x, y, yaw) instead of a general QP
+ * solver. The constraints are kept in preallocated arrays that only grow when a larger problem comes in, so wiggling does not allocate once the
+ * solver is warmed up. Use one instance per thread.
+ * <p>
+ * The QP is min 0.5 * (x^2 + y^2 + w * yaw^2) s.t. A * [x y yaw]^T <= b. It is solved with the dual active set method of Goldfarb and Idnani: starting
+ * from the unconstrained optimum the most violated constraint is added to the active set, dropping the active constraints whose multiplier would become
+ * negative, until all constraints are satisfied. The optimum is unique, so the result is the same as the one of the {@link PolygonWiggler}.
+ * The active set of the previous wiggle is used as a warm start: in the planner the successive candidate steps usually end up against the same
+ * edges, in which case the solver terminates without any iteration. The final solution is recomputed from the active set alone, so it does not depend
+ * on the previous wiggles down to the last bit, and the planner gives the same plan whatever number of threads it snaps the steps on.
+ * </p>
+ */
+public class PolygonWiggleSolver
+{
+   private static final int NUMBER_OF_VARIABLES = 3;
+   private static final int NUMBER_OF_BOUND_CONSTRAINTS = 6;
+   private static final double VIOLATION_TOLERANCE = 1.0e-10;
+   private static final double DEPENDENCY_TOLERANCE = 1.0e-12;
+
+   private int numberOfConstraints = 0;
+   private double[] constraintNormals = new double[0];
+   private double[] constraintBounds = new double[0];
+   private double[] edgeNormals = new double[0];
+   private double[] edgeBounds = new double[0];
+
+   private final double[] solution = new double[NUMBER_OF_VARIABLES];
+   private final double[] stepDirection = new double[NUMBER_OF_VARIABLES];
+
+   private int activeSetSize = 0;
+   private final int[] activeSet = new int[NUMBER_OF_VARIABLES];
+   private final double[] multipliers = new double[NUMBER_OF_VARIABLES];
+   private final double[] multiplierStep = new double[NUMBER_OF_VARIABLES];
+   private final double[] projection = new double[NUMBER_OF_VARIABLES];
+   /** Orthonormal basis of the active constraint normals, one row per active constraint, and the upper triangular R such that N = Q * R. */
+   private final double[][] orthonormalBasis = new double[NUMBER_OF_VARIABLES][NUMBER_OF_VARIABLES];
+   private final double[][] upperTriangular = new double[NUMBER_OF_VARIABLES][NUMBER_OF_VARIABLES];
+
+   private int previousNumberOfConstraints = -1;
+   private int previousActiveSetSize = 0;
+   private final int[] previousActiveSet = new int[NUMBER_OF_VARIABLES];
+
+   private int numberOfIterations = 0;
+   private boolean wasWarmStarted = false;
+   private boolean isInfeasible = false;
+
+   private final ConvexPolygon2d intersection = new ConvexPolygon2d();
+
+   /**
+    * Same as {@link PolygonWiggler#wigglePolygonIntoConvexHullOfRegion(ConvexPolygon2d, PlanarRegion, WiggleParameters)}.
+    *
+    * @return false if the polygon can not be wiggled into the region within the limits of the parameters.
+    */
+   public boolean wigglePolygonIntoConvexHullOfRegion(ConvexPolygon2d polygonToWiggleInRegionFrame, PlanarRegion regionToWiggleInto,
+                                                      WiggleParameters parameters, RigidBodyTransform wiggleTransformToPack)
+   {
+      return findWiggleTransform(polygonToWiggleInRegionFrame, regionToWiggleInto.getConvexHull(), parameters, wiggleTransformToPack);
+   }
+
+   /**
+    * Same as {@link PolygonWiggler#wigglePolygonIntoRegion(ConvexPolygon2d, PlanarRegion, WiggleParameters)}.
+    *
+    * @return false if the polygon does not overlap the region or can not be wiggled into it within the limits of the parameters.
+    */
+   public boolean wigglePolygonIntoRegion(ConvexPolygon2d polygonToWiggleInRegionFrame, PlanarRegion regionToWiggleInto, WiggleParameters parameters,
+                                          RigidBodyTransform wiggleTransformToPack)
+   {
+      // find the part of the region that has the biggest intersection with the polygon
+      ConvexPolygon2d bestMatch = null;
+      double overlap = 0.0;
+      for (int i = 0; i < regionToWiggleInto.getNumberOfConvexPolygons(); i++)
+      {
+         intersection.clearAndUpdate();
+         if (!regionToWiggleInto.getConvexPolygon(i).intersectionWith(polygonToWiggleInRegionFrame, intersection))
+            continue;
+
+         if (intersection.getArea() > overlap)
+         {
+            overlap = intersection.getArea();
+            bestMatch = regionToWiggleInto.getConvexPolygon(i);
+         }
+      }
+
+      if (bestMatch == null)
+         return false;
+
+      return findWiggleTransform(polygonToWiggleInRegionFrame, bestMatch, parameters, wiggleTransformToPack);
+   }
+
+   /**
+    * Same as {@link PolygonWiggler#findWiggleTransform(ConvexPolygon2d, ConvexPolygon2d, WiggleParameters)}.
+    *
+    * @return false if the polygon can not be wiggled into the plane within the limits of the parameters.
+    */
+   public boolean findWiggleTransform(ConvexPolygon2d polygonToWiggle, ConvexPolygon2d planeToWiggleInto, WiggleParameters parameters,
+                                      RigidBodyTransform wiggleTransformToPack)
+   {
+      Point2d pointToRotateAbout = polygonToWiggle.getCentroid();
+      double centroidX = pointToRotateAbout.getX();
+      double centroidY = pointToRotateAbout.getY();
+
+      // The yaw is scaled by the square root of the rotation weight so the cost becomes the squared norm of the solution.
+      double yawScale = Math.sqrt(parameters.rotationWeight);
+      setupConstraints(polygonToWiggle, planeToWiggleInto, parameters, 1.0 / yawScale);
+
+      if (!solve())
+         return false;
+
+      double x = solution[0];
+      double y = solution[1];
+      double yaw = solution[2] / yawScale;
+
+      // rotation about the centroid followed by the translation expressed in the rotated frame
+      double cos = Math.cos(yaw);
+      double sin = Math.sin(yaw);
+      wiggleTransformToPack.setRotationYawAndZeroTranslation(yaw);
+      wiggleTransformToPack.setTranslation(x + centroidX - cos * centroidX + sin * centroidY, y + centroidY - sin * centroidX - cos * centroidY, 0.0);
+      return true;
+   }
+
+   /**
+    * @return the number of constraints that were added to or dropped from the active set during the last wiggle.
+    */
+   public int getNumberOfIterations()
+   {
+      return numberOfIterations;
+   }
+
+   /**
+    * @return whether the last wiggle started from the active set of the previous one.
+    */
+   public boolean wasWarmStarted()
+   {
+      return wasWarmStarted;
+   }
+
+   private void setupConstraints(ConvexPolygon2d polygonToWiggle, ConvexPolygon2d planeToWiggleInto, WiggleParameters parameters, double yawNormalScale)
+   {
+      int numberOfEdges = planeToWiggleInto.getNumberOfVertices();
+      int numberOfPoints = polygonToWiggle.getNumberOfVertices();
+      numberOfConstraints = numberOfEdges * numberOfPoints + NUMBER_OF_BOUND_CONSTRAINTS;
+
+      if (constraintBounds.length < numberOfConstraints)
+      {
+         constraintNormals = new double[NUMBER_OF_VARIABLES * numberOfConstraints];
+         constraintBounds = new double[numberOfConstraints];
+      }
+      if (edgeBounds.length < numberOfEdges)
+      {
+         edgeNormals = new double[2 * numberOfEdges];
+         edgeBounds = new double[numberOfEdges];
+      }
+
+      // same as PolygonWiggler.convertToInequalityConstraints
+      for (int edgeIndex = 0; edgeIndex < numberOfEdges; edgeIndex++)
+      {
+         Point2d firstPoint = planeToWiggleInto.getVertex(edgeIndex);
+         Point2d secondPoint = planeToWiggleInto.getNextVertex(edgeIndex);
+         double edgeX = secondPoint.getX() - firstPoint.getX();
+         double edgeY = secondPoint.getY() - firstPoint.getY();
+         double edgeLength = Math.sqrt(edgeX * edgeX + edgeY * edgeY);
+         edgeX /= edgeLength;
+         edgeY /= edgeLength;
+
+         edgeNormals[2 * edgeIndex] = -edgeY;
+         edgeNormals[2 * edgeIndex + 1] = edgeX;
+         edgeBounds[edgeIndex] = -parameters.deltaInside + firstPoint.getY() * edgeX - firstPoint.getX() * edgeY;
+      }
+
+      // every vertex moved by the linearized rotation about the centroid and the translation has to be inside every edge
+      Point2d pointToRotateAbout = polygonToWiggle.getCentroid();
+      int row = 0;
+      for (int pointIndex = 0; pointIndex < numberOfPoints; pointIndex++)
+      {
+         Point2d point = polygonToWiggle.getVertex(pointIndex);
+         double leverX = point.getX() - pointToRotateAbout.getX();
+         double leverY = point.getY() - pointToRotateAbout.getY();
+
+         for (int edgeIndex = 0; edgeIndex < numberOfEdges; edgeIndex++)
+         {
+            double normalX = edgeNormals[2 * edgeIndex];
+            double normalY = edgeNormals[2 * edgeIndex + 1];
+            setConstraint(row++, normalX, normalY, yawNormalScale * (normalY * leverX - normalX * leverY),
+                          edgeBounds[edgeIndex] - normalX * point.getX() - normalY * point.getY());
+         }
+      }
+
+      // limits on allowed rotation and translation
+      setConstraint(row++, 1.0, 0.0, 0.0, parameters.maxX);
+      setConstraint(row++, -1.0, 0.0, 0.0, -parameters.minX);
+      setConstraint(row++, 0.0, 1.0, 0.0, parameters.maxY);
+      setConstraint(row++, 0.0, -1.0, 0.0, -parameters.minY);
+      setConstraint(row++, 0.0, 0.0, yawNormalScale, parameters.maxYaw);
+      setConstraint(row++, 0.0, 0.0, -yawNormalScale, -parameters.minYaw);
+   }
+
+   private void setConstraint(int row, double normalX, double normalY, double normalYaw, double bound)
+   {
+      constraintNormals[NUMBER_OF_VARIABLES * row] = normalX;
+      constraintNormals[NUMBER_OF_VARIABLES * row + 1] = normalY;
+      constraintNormals[NUMBER_OF_VARIABLES * row + 2] = normalYaw;
+      constraintBounds[row] = bound;
+   }
+
+   private boolean solve()
+   {
+      int maximumNumberOfIterations = 2 * numberOfConstraints + 10;
+
+      wasWarmStarted = initializeFromPreviousActiveSet();
+      if (!wasWarmStarted)
+         initializeUnconstrained();
+
+      boolean success = iterate(maximumNumberOfIterations);
+      if (!success && !isInfeasible && wasWarmStarted)
+      {
+         // numerical trouble, the cold start is what the solver was tested with
+         wasWarmStarted = false;
+         initializeUnconstrained();
+         success = iterate(maximumNumberOfIterations);
+      }
+
+      if (success)
+      {
+         solveOnSortedActiveSet();
+         previousNumberOfConstraints = numberOfConstraints;
+         previousActiveSetSize = activeSetSize;
+         System.arraycopy(activeSet, 0, previousActiveSet, 0, activeSetSize);
+      }
+      else
+      {
+         previousNumberOfConstraints = -1;
+      }
+
+      return success;
+   }
+
+   private void initializeUnconstrained()
+   {
+      activeSetSize = 0;
+      for (int i = 0; i < NUMBER_OF_VARIABLES; i++)
+         solution[i] = 0.0;
+   }
+
+   /**
+    * Starts from the optimum on the previous active set if it is dual feasible, i.e. all the multipliers are positive. This is always a valid
+    * starting point for the dual method, even if the previous active set has nothing to do with the new problem.
+    */
+   private boolean initializeFromPreviousActiveSet()
+   {
+      if (previousNumberOfConstraints != numberOfConstraints)
+         return false;
+
+      activeSetSize = previousActiveSetSize;
+      System.arraycopy(previousActiveSet, 0, activeSet, 0, activeSetSize);
+      if (!factorizeActiveSet())
+         return false;
+
+      computeMultipliersAndSolutionOnActiveSet();
+      for (int i = 0; i < activeSetSize; i++)
+      {
+         if (multipliers[i] < 0.0)
+            return false;
+      }
+
+      return true;
+   }
+
+   /**
+    * Recomputes the solution from the active constraints taken in increasing order, which only depends on the problem and the final active set,
+    * not on the path the iterations took to it.
+    */
+   private void solveOnSortedActiveSet()
+   {
+      for (int i = 1; i < activeSetSize; i++)
+      {
+         int constraint = activeSet[i];
+         int j = i - 1;
+         for (; j >= 0 && activeSet[j] > constraint; j--)
+            activeSet[j + 1] = activeSet[j];
+         activeSet[j + 1] = constraint;
+      }
+
+      // The constraints were independent in the order they were added, in the rare case they are not in this order the solution is kept as is.
+      if (factorizeActiveSet())
+         computeMultipliersAndSolutionOnActiveSet();
+   }
+
+   private boolean factorizeActiveSet()
+   {
+      for (int i = 0; i < activeSetSize; i++)
+      {
+         if (!updateFactorization(i))
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * Optimum with the active constraints as equalities, the active set has to be factorized.
+    */
+   private void computeMultipliersAndSolutionOnActiveSet()
+   {
+      // multipliers = -(N^T N)^-1 * b = -R^-1 * R^-T * b
+      for (int i = 0; i < activeSetSize; i++)
+      {
+         double value = constraintBounds[activeSet[i]];
+         for (int j = 0; j < i; j++)
+            value -= upperTriangular[j][i] * projection[j];
+         projection[i] = value / upperTriangular[i][i];
+      }
+      solveUpperTriangular(projection, multipliers);
+
+      for (int i = 0; i < activeSetSize; i++)
+         multipliers[i] = -multipliers[i];
+
+      // solution = -N * multipliers
+      for (int k = 0; k < NUMBER_OF_VARIABLES; k++)
+      {
+         double value = 0.0;
+         for (int i = 0; i < activeSetSize; i++)
+            value -= constraintNormals[NUMBER_OF_VARIABLES * activeSet[i] + k] * multipliers[i];
+         solution[k] = value;
+      }
+   }
+
+   private boolean iterate(int maximumNumberOfIterations)
+   {
+      numberOfIterations = 0;
+      isInfeasible = false;
+
+      while (true)
+      {
+         int constraintToAdd = findMostViolatedConstraint();
+         if (constraintToAdd < 0)
+            return true;
+
+         double constraintMultiplier = 0.0;
+         int constraintOffset = NUMBER_OF_VARIABLES * constraintToAdd;
+
+         while (true)
+         {
+            if (++numberOfIterations > maximumNumberOfIterations)
+               return false;
+
+            // split the normal of the new constraint in its projection on the active normals and the step direction orthogonal to them
+            double stepDirectionSquaredNorm = 0.0;
+            for (int k = 0; k < NUMBER_OF_VARIABLES; k++)
+               stepDirection[k] = -constraintNormals[constraintOffset + k];
+            for (int i = 0; i < activeSetSize; i++)
+            {
+               double[] basisVector = orthonormalBasis[i];
+               projection[i] = -(basisVector[0] * stepDirection[0] + basisVector[1] * stepDirection[1] + basisVector[2] * stepDirection[2]);
+               for (int k = 0; k < NUMBER_OF_VARIABLES; k++)
+                  stepDirection[k] += projection[i] * basisVector[k];
+            }
+            for (int k = 0; k < NUMBER_OF_VARIABLES; k++)
+               stepDirectionSquaredNorm += stepDirection[k] * stepDirection[k];
+            solveUpperTriangular(projection, multiplierStep);
+
+            double normalSquaredNorm = 0.0;
+            for (int k = 0; k < NUMBER_OF_VARIABLES; k++)
+               normalSquaredNorm += constraintNormals[constraintOffset + k] * constraintNormals[constraintOffset + k];
+            boolean isDependent = stepDirectionSquaredNorm <= DEPENDENCY_TOLERANCE * normalSquaredNorm;
+
+            // the largest step that keeps the multipliers of the active constraints positive
+            double partialStep = Double.POSITIVE_INFINITY;
+            int constraintToDrop = -1;
+            for (int i = 0; i < activeSetSize; i++)
+            {
+               if (multiplierStep[i] > 0.0 && multipliers[i] / multiplierStep[i] < partialStep)
+               {
+                  partialStep = multipliers[i] / multiplierStep[i];
+                  constraintToDrop = i;
+               }
+            }
+
+            // the step that makes the new constraint active
+            double fullStep = isDependent ? Double.POSITIVE_INFINITY : computeViolation(constraintToAdd) / stepDirectionSquaredNorm;
+
+            if (constraintToDrop < 0 && isDependent)
+            {
+               isInfeasible = true;
+               return false;
+            }
+
+            double step = Math.min(partialStep, fullStep);
+            if (!isDependent)
+            {
+               for (int k = 0; k < NUMBER_OF_VARIABLES; k++)
+                  solution[k] += step * stepDirection[k];
+            }
+            for (int i = 0; i < activeSetSize; i++)
+               multipliers[i] -= step * multiplierStep[i];
+            constraintMultiplier += step;
+
+            if (fullStep <= partialStep)
+            {
+               activeSet[activeSetSize] = constraintToAdd;
+               multipliers[activeSetSize] = constraintMultiplier;
+               activeSetSize++;
+               updateFactorization();
+               break;
+            }
+
+            dropConstraint(constraintToDrop);
+         }
+      }
+   }
+
+   private int findMostViolatedConstraint()
+   {
+      int mostViolatedConstraint = -1;
+      double largestViolation = VIOLATION_TOLERANCE;
+
+      for (int row = 0; row < numberOfConstraints; row++)
+      {
+         double violation = computeViolation(row);
+         if (violation > largestViolation)
+         {
+            largestViolation = violation;
+            mostViolatedConstraint = row;
+         }
+      }
+
+      return mostViolatedConstraint;
+   }
+
+   private double computeViolation(int row)
+   {
+      int offset = NUMBER_OF_VARIABLES * row;
+      return constraintNormals[offset] * solution[0] + constraintNormals[offset + 1] * solution[1] + constraintNormals[offset + 2] * solution[2]
+            - constraintBounds[row];
+   }
+
+   private void dropConstraint(int index)
+   {
+      for (int i = index; i < activeSetSize - 1; i++)
+      {
+         activeSet[i] = activeSet[i + 1];
+         multipliers[i] = multipliers[i + 1];
+      }
+      activeSetSize--;
+
+      for (int i = index; i < activeSetSize; i++)
+      {
+         if (!updateFactorization(i))
+            throw new RuntimeException("The active constraints should stay linearly independent.");
+      }
+   }
+
+   private boolean updateFactorization()
+   {
+      return updateFactorization(activeSetSize - 1);
+   }
+
+   /**
+    * Gram-Schmidt step for the active constraint at the given index, assuming the previous ones are already factorized.
+    *
+    * @return false if the normal of the constraint depends on the previous ones.
+    */
+   private boolean updateFactorization(int index)
+   {
+      int offset = NUMBER_OF_VARIABLES * activeSet[index];
+      double[] basisVector = orthonormalBasis[index];
+      double normalSquaredNorm = 0.0;
+      for (int k = 0; k < NUMBER_OF_VARIABLES; k++)
+      {
+         basisVector[k] = constraintNormals[offset + k];
+         normalSquaredNorm += basisVector[k] * basisVector[k];
+      }
+
+      for (int j = 0; j < index; j++)
+      {
+         double[] previousBasisVector = orthonormalBasis[j];
+         double dot = previousBasisVector[0] * constraintNormals[offset] + previousBasisVector[1] * constraintNormals[offset + 1]
+               + previousBasisVector[2] * constraintNormals[offset + 2];
+         upperTriangular[j][index] = dot;
+         for (int k = 0; k < NUMBER_OF_VARIABLES; k++)
+            basisVector[k] -= dot * previousBasisVector[k];
+      }
+
+      double squaredNorm = basisVector[0] * basisVector[0] + basisVector[1] * basisVector[1] + basisVector[2] * basisVector[2];
+      if (squaredNorm <= DEPENDENCY_TOLERANCE * normalSquaredNorm)
+         return false;
+
+      double norm = Math.sqrt(squaredNorm);
+      upperTriangular[index][index] = norm;
+      for (int k = 0; k < NUMBER_OF_VARIABLES; k++)
+         basisVector[k] /= norm;
+      return true;
+   }
+
+   /**
+    * Solves R * x = b for the current active set.
+    */
+   private void solveUpperTriangular(double[] b, double[] xToPack)
+   {
+      for (int i = activeSetSize - 1; i >= 0; i--)
+      {
+         double value = b[i];
+         for (int j = i + 1; j < activeSetSize; j++)
+            value -= upperTriangular[i][j] * xToPack[j];
+         xToPack[i] = value / upperTriangular[i][i];
+      }
+   }
+}
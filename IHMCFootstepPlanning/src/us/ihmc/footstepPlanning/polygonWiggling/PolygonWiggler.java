@@ -1,24 +1,20 @@
 package us.ihmc.footstepPlanning.polygonWiggling;
 
-import javax.vecmath.Matrix3d;
 import javax.vecmath.Point2d;
 import javax.vecmath.Vector2d;
-import javax.vecmath.Vector3d;
 
 import org.ejml.data.DenseMatrix64F;
-import org.ejml.ops.CommonOps;
 
-import us.ihmc.convexOptimization.quadraticProgram.QuadProgSolver;
 import us.ihmc.robotics.geometry.ConvexPolygon2d;
 import us.ihmc.robotics.geometry.PlanarRegion;
 import us.ihmc.robotics.geometry.RigidBodyTransform;
-import us.ihmc.tools.io.printing.PrintTools;
 
+/**
+ * Static entry points to the {@link PolygonWiggleSolver}. They create a new solver at each call, code that wiggles many polygons, like the
+ * footstep planners, should keep its own solver to avoid the allocations and benefit from the warm start.
+ */
 public class PolygonWiggler
 {
-   private static final boolean DEBUG = false;
-   private static final boolean coldStart = true;
-
    /**
     * Returns a transform that will move the given polygon into the convex hull of a planar region.
     *
@@ -43,24 +39,10 @@ public class PolygonWiggler
     */
    public static RigidBodyTransform wigglePolygonIntoRegion(ConvexPolygon2d polygonToWiggleInRegionFrame, PlanarRegion regionToWiggleInto, WiggleParameters parameters)
    {
-      // find the part of the region that has the biggest intersection with the polygon
-      ConvexPolygon2d bestMatch = null;
-      double overlap = 0.0;
-      for (int i = 0; i < regionToWiggleInto.getNumberOfConvexPolygons(); i++)
-      {
-         ConvexPolygon2d intersection = new ConvexPolygon2d();
-         regionToWiggleInto.getConvexPolygon(i).intersectionWith(polygonToWiggleInRegionFrame, intersection);
-         if (intersection.getArea() > overlap)
-         {
-            overlap = intersection.getArea();
-            bestMatch = regionToWiggleInto.getConvexPolygon(i);
-         }
-      }
-
-      if (bestMatch == null)
+      RigidBodyTransform wiggleTransform = new RigidBodyTransform();
+      if (!new PolygonWiggleSolver().wigglePolygonIntoRegion(polygonToWiggleInRegionFrame, regionToWiggleInto, parameters, wiggleTransform))
          return null;
-
-      return findWiggleTransform(polygonToWiggleInRegionFrame, bestMatch, parameters);
+      return wiggleTransform;
    }
 
    /**
@@ -94,107 +76,10 @@ public class PolygonWiggler
     */
    public static RigidBodyTransform findWiggleTransform(ConvexPolygon2d polygonToWiggle, ConvexPolygon2d planeToWiggleInto, WiggleParameters parameters)
    {
-      int constraintsPerPoint = planeToWiggleInto.getNumberOfVertices();
-      int numberOfPoints = polygonToWiggle.getNumberOfVertices();
-      Point2d pointToRotateAbout = polygonToWiggle.getCentroid();
-
-      DenseMatrix64F A = new DenseMatrix64F(0);
-      DenseMatrix64F b = new DenseMatrix64F(0);
-      convertToInequalityConstraints(planeToWiggleInto, A, b, parameters.deltaInside);
-
-      int boundConstraints = 6;
-      DenseMatrix64F A_full = new DenseMatrix64F(constraintsPerPoint * numberOfPoints + boundConstraints, 3);
-      DenseMatrix64F b_full = new DenseMatrix64F(constraintsPerPoint * numberOfPoints + boundConstraints, 1);
-      // add limits on allowed rotation and translation
-      A_full.set(constraintsPerPoint * numberOfPoints , 0, 1.0);
-      b_full.set(constraintsPerPoint * numberOfPoints , parameters.maxX);
-      A_full.set(constraintsPerPoint * numberOfPoints + 1, 0, -1.0);
-      b_full.set(constraintsPerPoint * numberOfPoints + 1, -parameters.minX);
-      A_full.set(constraintsPerPoint * numberOfPoints + 2, 1, 1.0);
-      b_full.set(constraintsPerPoint * numberOfPoints + 2, parameters.maxY);
-      A_full.set(constraintsPerPoint * numberOfPoints + 3, 1, -1.0);
-      b_full.set(constraintsPerPoint * numberOfPoints + 3, -parameters.minY);
-      A_full.set(constraintsPerPoint * numberOfPoints + 4, 2, 1.0);
-      b_full.set(constraintsPerPoint * numberOfPoints + 4, parameters.maxYaw);
-      A_full.set(constraintsPerPoint * numberOfPoints + 5, 2, -1.0);
-      b_full.set(constraintsPerPoint * numberOfPoints + 5, -parameters.minYaw);
-
-      for (int i = 0; i < numberOfPoints; i++)
-      {
-         DenseMatrix64F p = new DenseMatrix64F(2, 1);
-         p.set(0, polygonToWiggle.getVertex(i).x);
-         p.set(1, polygonToWiggle.getVertex(i).y);
-
-         // inequality constraint becomes A*V * x <= b - A*p
-         Point2d point = new Point2d(polygonToWiggle.getVertex(i));
-         point.sub(pointToRotateAbout);
-         DenseMatrix64F V = new DenseMatrix64F(new double[][] {{1.0, 0.0, -point.y}, {0.0, 1.0, point.x}});
-
-         DenseMatrix64F A_new = new DenseMatrix64F(constraintsPerPoint, 3);
-         DenseMatrix64F b_new = new DenseMatrix64F(constraintsPerPoint, 1);
-         CommonOps.mult(A, V, A_new);
-         CommonOps.mult(A, p, b_new);
-         CommonOps.changeSign(b_new);
-         CommonOps.add(b, b_new, b_new);
-
-         CommonOps.insert(A_new, A_full, constraintsPerPoint * i, 0);
-         CommonOps.insert(b_new, b_full, constraintsPerPoint * i, 0);
-      }
-
-      DenseMatrix64F costMatrix = new DenseMatrix64F(3, 3);
-      CommonOps.setIdentity(costMatrix);
-      costMatrix.set(2, 2, parameters.rotationWeight);
-      DenseMatrix64F costVector = new DenseMatrix64F(3, 1);
-      CommonOps.fill(costVector, 0.0);
-
-      QuadProgSolver solver = new QuadProgSolver();
-      DenseMatrix64F Aeq = new DenseMatrix64F(0, 3);
-      DenseMatrix64F beq = new DenseMatrix64F(0, 3);
-      DenseMatrix64F result = new DenseMatrix64F(3, 1);
-      try
-      {
-         int iterations = solver.solve(costMatrix, costVector, Aeq, beq, A_full, b_full, result, coldStart);
-         if (DEBUG)
-         {
-            PrintTools.info("Iterations: " + iterations);
-            PrintTools.info("Result: " + result);
-         }
-      }
-      catch (Exception e)
-      {
-         return null;
-      }
-
-      if (Double.isInfinite(solver.getCost()))
-      {
+      RigidBodyTransform wiggleTransform = new RigidBodyTransform();
+      if (!new PolygonWiggleSolver().findWiggleTransform(polygonToWiggle, planeToWiggleInto, parameters, wiggleTransform))
          return null;
-      }
-
-      // assemble the transform
-      double theta = result.get(2);
-      Vector3d translation = new Vector3d(result.get(0), result.get(1), 0.0);
-      Vector3d offset = new Vector3d(pointToRotateAbout.x, pointToRotateAbout.y, 0.0);
-
-      RigidBodyTransform toOriginTransform = new RigidBodyTransform();
-      toOriginTransform.setTranslationAndIdentityRotation(offset);
-
-      RigidBodyTransform rotationTransform = new RigidBodyTransform();
-      rotationTransform.applyRotationZ(theta);
-
-      RigidBodyTransform fullTransform = new RigidBodyTransform(toOriginTransform);
-      fullTransform.multiply(rotationTransform);
-      toOriginTransform.invert();
-      fullTransform.multiply(toOriginTransform);
-
-      Matrix3d rotationMatrix = new Matrix3d();
-      rotationTransform.getRotation(rotationMatrix);
-      rotationMatrix.transpose();
-      rotationMatrix.transform(translation);
-      RigidBodyTransform translationTransform = new RigidBodyTransform();
-      translationTransform.setTranslationAndIdentityRotation(translation);
-      fullTransform.multiply(translationTransform);
-
-      return fullTransform;
+      return wiggleTransform;
    }
 
    /**
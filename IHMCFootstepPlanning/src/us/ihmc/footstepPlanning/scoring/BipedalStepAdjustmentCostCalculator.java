@@ -121,6 +121,13 @@ public class BipedalStepAdjustmentCostCalculator implements BipedalStepCostCalcu
       return cost;
    }
 
+   @Override
+   public double getMinimumCost()
+   {
+      // All the penalties are positive as long as the scalars are.
+      return footstepBaseCost.getDoubleValue();
+   }
+
    private double penalizeCandidateFootstep(YoFrameVector penalizationVector, double penalizationWeight)
    {
       // TODO sqrt??
@@ -0,0 +1,283 @@
+package us.ihmc.footstepPlanning.polygonWiggling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import javax.vecmath.Matrix3d;
+import javax.vecmath.Point2d;
+import javax.vecmath.Vector3d;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.junit.Assume;
+import org.junit.Test;
+
+import us.ihmc.convexOptimization.quadraticProgram.QuadProgSolver;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.tools.continuousIntegration.IntegrationCategory;
+
+@ContinuousIntegrationAnnotations.ContinuousIntegrationPlan(categories = IntegrationCategory.FAST)
+public class PolygonWiggleSolverTest
+{
+   private static final double epsilon = 1.0e-7;
+
+   /**
+    * Needs the native library of the {@link QuadProgSolver}, and is skipped where it can not be loaded.
+    */
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSameResultAsGeneralQPSolver()
+   {
+      Assume.assumeTrue(isQuadProgAvailable());
+
+      Random random = new Random(4271L);
+      PolygonWiggleSolver solver = new PolygonWiggleSolver();
+      int numberOfFeasibleProblems = 0;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         ConvexPolygon2d plane = createRandomPlane(random);
+         ConvexPolygon2d foot = createRandomFoot(random);
+         WiggleParameters parameters = createRandomParameters(random);
+
+         RigidBodyTransform expectedTransform = findWiggleTransformWithQuadProg(foot, plane, parameters);
+         RigidBodyTransform wiggleTransform = new RigidBodyTransform();
+         boolean success = solver.findWiggleTransform(foot, plane, parameters, wiggleTransform);
+
+         if (expectedTransform == null)
+         {
+            assertFalse(success);
+            assertNull(PolygonWiggler.findWiggleTransform(foot, plane, parameters));
+            continue;
+         }
+
+         numberOfFeasibleProblems++;
+         assertTrue(success);
+         assertTrue(expectedTransform.epsilonEquals(wiggleTransform, epsilon));
+         assertTrue(expectedTransform.epsilonEquals(PolygonWiggler.findWiggleTransform(foot, plane, parameters), epsilon));
+      }
+
+      // make sure the test covers both cases
+      assertTrue(numberOfFeasibleProblems > 100);
+      assertTrue(numberOfFeasibleProblems < 900);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testWarmStart()
+   {
+      ConvexPolygon2d plane = new ConvexPolygon2d();
+      plane.addVertex(0.0, 0.0);
+      plane.addVertex(0.5, 0.0);
+      plane.addVertex(0.0, 0.5);
+      plane.addVertex(0.5, 0.5);
+      plane.update();
+
+      ConvexPolygon2d foot = PlanningTestTools.createDefaultFootPolygon();
+      RigidBodyTransform initialFootTransform = new RigidBodyTransform();
+      initialFootTransform.setRotationYawAndZeroTranslation(Math.toRadians(-30.0));
+      initialFootTransform.setTranslation(-0.1, -0.3, 0.0);
+      foot.applyTransformAndProjectToXYPlane(initialFootTransform);
+
+      WiggleParameters parameters = new WiggleParameters();
+      PolygonWiggleSolver solver = new PolygonWiggleSolver();
+      RigidBodyTransform firstTransform = new RigidBodyTransform();
+      assertTrue(solver.findWiggleTransform(foot, plane, parameters, firstTransform));
+      assertFalse(solver.wasWarmStarted());
+      assertTrue(solver.getNumberOfIterations() > 0);
+
+      RigidBodyTransform secondTransform = new RigidBodyTransform();
+      assertTrue(solver.findWiggleTransform(foot, plane, parameters, secondTransform));
+      assertTrue(solver.wasWarmStarted());
+      assertEquals(0, solver.getNumberOfIterations());
+      assertTrue(firstTransform.epsilonEquals(secondTransform, 1.0e-12));
+
+      ConvexPolygon2d wiggledFoot = new ConvexPolygon2d(foot);
+      wiggledFoot.applyTransformAndProjectToXYPlane(secondTransform);
+      assertNotNull(PolygonWiggler.wigglePolygon(foot, plane, parameters));
+      assertTrue(PolygonWiggler.wigglePolygon(foot, plane, parameters).epsilonEquals(wiggledFoot, 1.0e-12));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testResultDoesNotDependOnPreviousWiggles()
+   {
+      Random random = new Random(1776L);
+      PolygonWiggleSolver solver = new PolygonWiggleSolver();
+      int numberOfWarmStarts = 0;
+
+      // As in the planner, several feet are wiggled into each plane so the solver gets warm started.
+      for (int i = 0; i < 100; i++)
+      {
+         ConvexPolygon2d plane = createRandomPlane(random);
+         WiggleParameters parameters = createRandomParameters(random);
+
+         for (int j = 0; j < 10; j++)
+         {
+            ConvexPolygon2d foot = createRandomFoot(random);
+            RigidBodyTransform wiggleTransform = new RigidBodyTransform();
+            boolean success = solver.findWiggleTransform(foot, plane, parameters, wiggleTransform);
+            if (solver.wasWarmStarted())
+               numberOfWarmStarts++;
+
+            RigidBodyTransform expectedTransform = new RigidBodyTransform();
+            assertEquals(new PolygonWiggleSolver().findWiggleTransform(foot, plane, parameters, expectedTransform), success);
+            if (success)
+               assertTrue(expectedTransform.epsilonEquals(wiggleTransform, 0.0));
+         }
+      }
+
+      assertTrue(numberOfWarmStarts > 100);
+   }
+
+   private static ConvexPolygon2d createRandomPlane(Random random)
+   {
+      ConvexPolygon2d plane = new ConvexPolygon2d();
+      int numberOfPoints = 3 + random.nextInt(8);
+      for (int i = 0; i < numberOfPoints; i++)
+         plane.addVertex(0.6 * (random.nextDouble() - 0.5), 0.6 * (random.nextDouble() - 0.5));
+      plane.update();
+      return plane;
+   }
+
+   private static ConvexPolygon2d createRandomFoot(Random random)
+   {
+      ConvexPolygon2d foot = PlanningTestTools.createDefaultFootPolygon();
+      RigidBodyTransform footTransform = new RigidBodyTransform();
+      footTransform.setRotationYawAndZeroTranslation(2.0 * Math.PI * random.nextDouble());
+      footTransform.setTranslation(0.4 * (random.nextDouble() - 0.5), 0.4 * (random.nextDouble() - 0.5), 0.0);
+      foot.applyTransformAndProjectToXYPlane(footTransform);
+      return foot;
+   }
+
+   private static WiggleParameters createRandomParameters(Random random)
+   {
+      WiggleParameters parameters = new WiggleParameters();
+      parameters.rotationWeight = 0.05 + random.nextDouble();
+      parameters.deltaInside = 0.04 * (random.nextDouble() - 0.5);
+      parameters.maxX = 0.3 * random.nextDouble();
+      parameters.minX = -0.3 * random.nextDouble();
+      parameters.maxY = 0.3 * random.nextDouble();
+      parameters.minY = -0.3 * random.nextDouble();
+      return parameters;
+   }
+
+   private static boolean isQuadProgAvailable()
+   {
+      try
+      {
+         new QuadProgSolver();
+         return true;
+      }
+      catch (LinkageError e)
+      {
+         return false;
+      }
+   }
+
+   /**
+    * The implementation of the {@link PolygonWiggler} before the {@link PolygonWiggleSolver}, with a general QP solver.
+    */
+   private static RigidBodyTransform findWiggleTransformWithQuadProg(ConvexPolygon2d polygonToWiggle, ConvexPolygon2d planeToWiggleInto,
+                                                                     WiggleParameters parameters)
+   {
+      int constraintsPerPoint = planeToWiggleInto.getNumberOfVertices();
+      int numberOfPoints = polygonToWiggle.getNumberOfVertices();
+      Point2d pointToRotateAbout = polygonToWiggle.getCentroid();
+
+      DenseMatrix64F A = new DenseMatrix64F(0);
+      DenseMatrix64F b = new DenseMatrix64F(0);
+      PolygonWiggler.convertToInequalityConstraints(planeToWiggleInto, A, b, parameters.deltaInside);
+
+      int boundConstraints = 6;
+      int boundRow = constraintsPerPoint * numberOfPoints;
+      DenseMatrix64F A_full = new DenseMatrix64F(boundRow + boundConstraints, 3);
+      DenseMatrix64F b_full = new DenseMatrix64F(boundRow + boundConstraints, 1);
+      A_full.set(boundRow, 0, 1.0);
+      b_full.set(boundRow, parameters.maxX);
+      A_full.set(boundRow + 1, 0, -1.0);
+      b_full.set(boundRow + 1, -parameters.minX);
+      A_full.set(boundRow + 2, 1, 1.0);
+      b_full.set(boundRow + 2, parameters.maxY);
+      A_full.set(boundRow + 3, 1, -1.0);
+      b_full.set(boundRow + 3, -parameters.minY);
+      A_full.set(boundRow + 4, 2, 1.0);
+      b_full.set(boundRow + 4, parameters.maxYaw);
+      A_full.set(boundRow + 5, 2, -1.0);
+      b_full.set(boundRow + 5, -parameters.minYaw);
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         DenseMatrix64F p = new DenseMatrix64F(2, 1);
+         p.set(0, polygonToWiggle.getVertex(i).x);
+         p.set(1, polygonToWiggle.getVertex(i).y);
+
+         Point2d point = new Point2d(polygonToWiggle.getVertex(i));
+         point.sub(pointToRotateAbout);
+         DenseMatrix64F V = new DenseMatrix64F(new double[][] {{1.0, 0.0, -point.y}, {0.0, 1.0, point.x}});
+
+         DenseMatrix64F A_new = new DenseMatrix64F(constraintsPerPoint, 3);
+         DenseMatrix64F b_new = new DenseMatrix64F(constraintsPerPoint, 1);
+         CommonOps.mult(A, V, A_new);
+         CommonOps.mult(A, p, b_new);
+         CommonOps.changeSign(b_new);
+         CommonOps.add(b, b_new, b_new);
+
+         CommonOps.insert(A_new, A_full, constraintsPerPoint * i, 0);
+         CommonOps.insert(b_new, b_full, constraintsPerPoint * i, 0);
+      }
+
+      DenseMatrix64F costMatrix = new DenseMatrix64F(3, 3);
+      CommonOps.setIdentity(costMatrix);
+      costMatrix.set(2, 2, parameters.rotationWeight);
+      DenseMatrix64F costVector = new DenseMatrix64F(3, 1);
+
+      QuadProgSolver solver = new QuadProgSolver();
+      DenseMatrix64F result = new DenseMatrix64F(3, 1);
+      try
+      {
+         solver.solve(costMatrix, costVector, new DenseMatrix64F(0, 3), new DenseMatrix64F(0, 3), A_full, b_full, result, true);
+      }
+      catch (Exception e)
+      {
+         return null;
+      }
+
+      if (Double.isInfinite(solver.getCost()))
+         return null;
+
+      double theta = result.get(2);
+      Vector3d translation = new Vector3d(result.get(0), result.get(1), 0.0);
+      Vector3d offset = new Vector3d(pointToRotateAbout.x, pointToRotateAbout.y, 0.0);
+
+      RigidBodyTransform toOriginTransform = new RigidBodyTransform();
+      toOriginTransform.setTranslationAndIdentityRotation(offset);
+
+      RigidBodyTransform rotationTransform = new RigidBodyTransform();
+      rotationTransform.applyRotationZ(theta);
+
+      RigidBodyTransform fullTransform = new RigidBodyTransform(toOriginTransform);
+      fullTransform.multiply(rotationTransform);
+      toOriginTransform.invert();
+      fullTransform.multiply(toOriginTransform);
+
+      Matrix3d rotationMatrix = new Matrix3d();
+      rotationTransform.getRotation(rotationMatrix);
+      rotationMatrix.transpose();
+      rotationMatrix.transform(translation);
+      RigidBodyTransform translationTransform = new RigidBodyTransform();
+      translationTransform.setTranslationAndIdentityRotation(translation);
+      fullTransform.multiply(translationTransform);
+
+      return fullTransform;
+   }
+}
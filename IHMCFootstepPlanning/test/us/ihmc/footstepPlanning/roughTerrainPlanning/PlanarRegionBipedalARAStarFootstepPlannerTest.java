@@ -0,0 +1,323 @@
+package us.ihmc.footstepPlanning.roughTerrainPlanning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import javax.vecmath.Vector3d;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.FootstepPlanner;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.footstepPlanning.graphSearch.BipedalFootstepPlannerListener;
+import us.ihmc.footstepPlanning.graphSearch.BipedalFootstepPlannerNode;
+import us.ihmc.footstepPlanning.graphSearch.BipedalFootstepPlannerNodeRejectionReason;
+import us.ihmc.footstepPlanning.graphSearch.BipedalFootstepPlannerParameters;
+import us.ihmc.footstepPlanning.graphSearch.PlanarRegionBipedalARAStarFootstepPlanner;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationTools;
+import us.ihmc.tools.continuousIntegration.IntegrationCategory;
+
+@ContinuousIntegrationPlan(categories = IntegrationCategory.FAST)
+public class PlanarRegionBipedalARAStarFootstepPlannerTest extends FootstepPlannerOnRoughTerrainTest
+{
+   private static final double DEFAULT_INITIAL_HEURISTIC_WEIGHT = 5.0;
+
+   private YoVariableRegistry registry;
+   private BipedalFootstepPlannerParameters parameters;
+   private PlanarRegionBipedalARAStarFootstepPlanner planner;
+
+   private static final boolean visualize = !ContinuousIntegrationTools.isRunningOnContinuousIntegrationServer();
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 300000)
+   public void testOnStairCase()
+   {
+      super.testOnStaircase(new Vector3d(), true);
+   }
+
+   @Override
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 300000)
+   public void testSimpleStepOnBox()
+   {
+      super.testSimpleStepOnBox(true);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 300000)
+   public void testSimpleStepOnBoxTwo()
+   {
+      super.testSimpleStepOnBoxTwo(true);
+   }
+
+   @Override
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 300000)
+   public void testSimpleGaps()
+   {
+      super.testSimpleGaps(true);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 300000)
+   public void testOverCinderBlockField()
+   {
+      super.testOverCinderBlockField(true);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 300000)
+   public void testWalkingAroundBox()
+   {
+      super.testWalkingAroundBox();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 3.0)
+   @Test(timeout = 300000)
+   public void testSameResultWithSeveralThreads()
+   {
+      // The plan is improved until it is optimal.
+      createPlanner(1, Double.POSITIVE_INFINITY);
+      super.testSimpleStepOnBox(true);
+      FootstepPlan expectedPlan = planner.getPlan();
+
+      createPlanner(4, Double.POSITIVE_INFINITY);
+      super.testSimpleStepOnBox(true);
+      assertSamePlan(expectedPlan, planner.getPlan());
+      assertSamePlan(planner.getPlan(), planner.getBestPlanYet());
+
+      // The improvement is interrupted by the maximum number of nodes to expand the same way as by the timeout, but at the same point whatever
+      // the number of threads. The first plan over the cinder blocks takes about fifty nodes and the optimal one about two thousand.
+      createPlanner(1, Double.POSITIVE_INFINITY);
+      planner.setMaximumNumberOfNodesToExpand(500);
+      super.testOverCinderBlockField(true);
+      expectedPlan = planner.getPlan();
+      double expectedHeuristicWeight = getHeuristicWeight();
+      assertTrue(expectedHeuristicWeight > 1.0 && expectedHeuristicWeight < DEFAULT_INITIAL_HEURISTIC_WEIGHT);
+
+      createPlanner(4, Double.POSITIVE_INFINITY);
+      planner.setMaximumNumberOfNodesToExpand(500);
+      super.testOverCinderBlockField(true);
+      assertSamePlan(expectedPlan, planner.getPlan());
+      assertEquals(expectedHeuristicWeight, getHeuristicWeight(), 0.0);
+
+      // Improving until the timeout, slowed down so the search can not finish in time on any machine: the plan is the best one found before it.
+      createPlanner(4, 0.5);
+      SlowExpansionListener listener = new SlowExpansionListener();
+      planner.setBipedalFootstepPlannerListener(listener);
+      super.testOverCinderBlockField(true);
+      assertEquals(FootstepPlanningResult.SUB_OPTIMAL_SOLUTION, planner.plan());
+      assertTrue(getHeuristicWeight() > 1.0 && getHeuristicWeight() < DEFAULT_INITIAL_HEURISTIC_WEIGHT);
+      assertSame(listener.lastSolution, planner.getBestPlanYet());
+      assertSamePlan(planner.getBestPlanYet(), planner.getPlan());
+   }
+
+   private void createPlanner(int numberOfThreads, double timeout)
+   {
+      planner.close();
+      registry = new YoVariableRegistry("threads" + numberOfThreads);
+      planner = new PlanarRegionBipedalARAStarFootstepPlanner(parameters, numberOfThreads, registry);
+      setDefaultParameters();
+      planner.setTimeout(timeout);
+   }
+
+   private double getHeuristicWeight()
+   {
+      return ((DoubleYoVariable) registry.getVariable("heuristicWeight")).getDoubleValue();
+   }
+
+   private static void assertSamePlan(FootstepPlan expectedPlan, FootstepPlan footstepPlan)
+   {
+      assertEquals(expectedPlan.getNumberOfSteps(), footstepPlan.getNumberOfSteps());
+      for (int i = 0; i < expectedPlan.getNumberOfSteps(); i++)
+         assertTrue(expectedPlan.getFootstep(i).epsilonEquals(footstepPlan.getFootstep(i), 1.0e-10));
+   }
+
+   @Before
+   public void setupPlanner()
+   {
+      registry = new YoVariableRegistry("test");
+      parameters = new BipedalFootstepPlannerParameters(registry);
+      planner = new PlanarRegionBipedalARAStarFootstepPlanner(parameters, registry);
+
+      setDefaultParameters();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 300000)
+   public void testListenerIsNotifiedOnPlanningThread()
+   {
+      planner.close();
+      planner = new PlanarRegionBipedalARAStarFootstepPlanner(parameters, 1, new YoVariableRegistry("singleThread"));
+      setDefaultParameters();
+      planner.setTimeout(Double.POSITIVE_INFINITY);
+      EventCountingListener expectedEvents = new EventCountingListener();
+      planner.setBipedalFootstepPlannerListener(expectedEvents);
+      super.testSimpleStepOnBox(true);
+
+      planner.close();
+      planner = new PlanarRegionBipedalARAStarFootstepPlanner(parameters, 4, new YoVariableRegistry("multiThread"));
+      setDefaultParameters();
+      planner.setTimeout(Double.POSITIVE_INFINITY);
+      EventCountingListener events = new EventCountingListener();
+      planner.setBipedalFootstepPlannerListener(events);
+      super.testSimpleStepOnBox(true);
+
+      assertTrue(expectedEvents.nodesUnderConsideration > 0);
+      assertEquals(expectedEvents.nodesUnderConsideration, events.nodesUnderConsideration);
+      assertEquals(expectedEvents.rejectedNodes, events.rejectedNodes);
+      assertEquals(expectedEvents.successfulNodes, events.successfulNodes);
+      assertEquals(0, events.eventsFromOtherThreads);
+   }
+
+   private static class SlowExpansionListener extends EventCountingListener
+   {
+      private FootstepPlan lastSolution;
+
+      @Override
+      public void nodeIsBeingExpanded(BipedalFootstepPlannerNode nodeToExpand)
+      {
+         try
+         {
+            Thread.sleep(1);
+         }
+         catch (InterruptedException e)
+         {
+            throw new RuntimeException(e);
+         }
+      }
+
+      @Override
+      public void solutionWasFound(FootstepPlan footstepPlan)
+      {
+         lastSolution = footstepPlan;
+      }
+   }
+
+   private static class EventCountingListener implements BipedalFootstepPlannerListener
+   {
+      private final Thread planningThread = Thread.currentThread();
+      private int nodesUnderConsideration;
+      private int rejectedNodes;
+      private int successfulNodes;
+      private int eventsFromOtherThreads;
+
+      @Override
+      public void nodeUnderConsideration(BipedalFootstepPlannerNode nodeToExpand)
+      {
+         nodesUnderConsideration++;
+         checkThread();
+      }
+
+      @Override
+      public void nodeUnderConsiderationWasRejected(BipedalFootstepPlannerNode rejectedNode, BipedalFootstepPlannerNodeRejectionReason reason)
+      {
+         rejectedNodes++;
+         checkThread();
+      }
+
+      @Override
+      public void nodeUnderConsiderationWasSuccessful(BipedalFootstepPlannerNode node)
+      {
+         successfulNodes++;
+         checkThread();
+      }
+
+      private void checkThread()
+      {
+         if (Thread.currentThread() != planningThread)
+            eventsFromOtherThreads++;
+      }
+
+      @Override
+      public void goalWasSet(RigidBodyTransform goalLeftFootPose, RigidBodyTransform goalRightFootPose)
+      {
+      }
+
+      @Override
+      public void startNodeWasAdded(BipedalFootstepPlannerNode startNode)
+      {
+      }
+
+      @Override
+      public void planarRegionsListSet(PlanarRegionsList planarRegionsList)
+      {
+      }
+
+      @Override
+      public void nodeIsBeingExpanded(BipedalFootstepPlannerNode nodeToExpand)
+      {
+      }
+
+      @Override
+      public void solutionWasFound(FootstepPlan footstepPlan)
+      {
+      }
+
+      @Override
+      public void solutionWasNotFound()
+      {
+      }
+   }
+
+   @After
+   public void closePlanner()
+   {
+      planner.close();
+   }
+
+   private void setDefaultParameters()
+   {
+      parameters.setMaximumStepReach(0.55);
+      parameters.setMaximumStepZ(0.25);
+      parameters.setMaximumStepXWhenForwardAndDown(0.25);
+      parameters.setMaximumStepZWhenForwardAndDown(0.25);
+      parameters.setMaximumStepYaw(0.15);
+      parameters.setMaximumStepWidth(0.4);
+      parameters.setMinimumStepWidth(0.15);
+      parameters.setMinimumFootholdPercent(0.95);
+
+      parameters.setMinimumStepLength(-0.03);
+
+      parameters.setWiggleInsideDelta(0.05);
+      parameters.setMaximumXYWiggleDistance(1.0);
+      parameters.setMaximumYawWiggle(0.1);
+
+      parameters.setCliffHeightToShiftAwayFrom(0.04);
+      parameters.setMinimumDistanceFromCliffBottoms(0.22);
+
+      double idealFootstepLength = 0.3;
+      double idealFootstepWidth = 0.2;
+      parameters.setIdealFootstep(idealFootstepLength, idealFootstepWidth);
+
+      SideDependentList<ConvexPolygon2d> footPolygonsInSoleFrame = PlanningTestTools.createDefaultFootPolygons();
+      planner.setFeetPolygons(footPolygonsInSoleFrame);
+
+      planner.setTimeout(10.0);
+   }
+
+   @Override
+   public FootstepPlanner getPlanner()
+   {
+      return planner;
+   }
+
+   @Override
+   public boolean visualize()
+   {
+      return visualize;
+   }
+}
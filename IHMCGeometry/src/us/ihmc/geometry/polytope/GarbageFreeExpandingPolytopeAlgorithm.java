@@ -0,0 +1,657 @@
+package us.ihmc.geometry.polytope;
+
+import java.util.Arrays;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Tuple3d;
+import javax.vecmath.Vector3d;
+
+/**
+ * Expanding Polytope Algorithm (EPA) that does not allocate any memory in steady state.
+ * <p>
+ * Same algorithm as {@link ExpandingPolytopeAlgorithm}, but the vertices and the triangles of the polytope are stored by index in
+ * arrays that are only grown when a polytope larger than any previous one is expanded. The triangles to expand are kept in an
+ * index-based binary heap, and new triangles are stitched together with per-vertex tables instead of a map keyed by points.
+ * <p>
+ * Each triangle stores its outward unit normal and its distance to the origin, so the closest point of its plane to the origin is
+ * the normal scaled by that distance, and the visibility from a new vertex is a single dot product.
+ */
+public class GarbageFreeExpandingPolytopeAlgorithm
+{
+   private static final int MAXIMUM_NUMBER_OF_ITERATIONS = 1000;
+   private static final double AFFINELY_DEPENDENT_EPSILON = 1e-14;
+
+   private final double epsilonRelative;
+
+   private SupportingVertexHolder polytopeA;
+   private SupportingVertexHolder polytopeB;
+
+   private int numberOfVertices = 0;
+   private double[] vertices;
+   private double[] verticesOnA;
+   private double[] verticesOnB;
+
+   private int numberOfTriangles = 0;
+   private int[] triangleVertices;
+   private int[] adjacentTriangles;
+   private int[] adjacentTriangleEdges;
+   private double[] normals;
+   private double[] distances;
+   private double[] triangleLambdas;
+   private boolean[] obsolete;
+
+   private int heapSize = 0;
+   private int[] heap;
+
+   private int numberOfSilhouetteEdges = 0;
+   private int[] silhouetteTriangles;
+   private int[] silhouetteEdges;
+
+   private int[] newTriangleStartingAtVertex;
+
+   private final Vector3d supportDirection = new Vector3d();
+   private final Vector3d tempVector = new Vector3d();
+   private final Vector3d segmentDirection = new Vector3d();
+   private final Point3d tempPointOnA = new Point3d();
+   private final Point3d tempPointOnB = new Point3d();
+   private final Point3d tempPoint = new Point3d();
+
+   private final double[] closestPoint = new double[3];
+
+   public GarbageFreeExpandingPolytopeAlgorithm(double epsilonRelative)
+   {
+      this(epsilonRelative, 64);
+   }
+
+   /**
+    * @param initialVertexCapacity number of vertices of the expanded polytope for which memory is allocated up front.
+    */
+   public GarbageFreeExpandingPolytopeAlgorithm(double epsilonRelative, int initialVertexCapacity)
+   {
+      this.epsilonRelative = epsilonRelative;
+
+      int vertexCapacity = Math.max(initialVertexCapacity, 4);
+      vertices = new double[3 * vertexCapacity];
+      verticesOnA = new double[3 * vertexCapacity];
+      verticesOnB = new double[3 * vertexCapacity];
+      newTriangleStartingAtVertex = new int[vertexCapacity];
+
+      int triangleCapacity = 4 * vertexCapacity;
+      triangleVertices = new int[3 * triangleCapacity];
+      adjacentTriangles = new int[3 * triangleCapacity];
+      adjacentTriangleEdges = new int[3 * triangleCapacity];
+      normals = new double[3 * triangleCapacity];
+      distances = new double[triangleCapacity];
+      triangleLambdas = new double[3 * triangleCapacity];
+      obsolete = new boolean[triangleCapacity];
+      heap = new int[triangleCapacity];
+      silhouetteTriangles = new int[3 * triangleCapacity];
+      silhouetteEdges = new int[3 * triangleCapacity];
+   }
+
+   /**
+    * Initializes the polytope from the simplex of a collision found by the GJK detector. If that simplex is not a tetrahedron, it
+    * is completed by searching the Minkowski difference in directions orthogonal to it.
+    *
+    * @return false if no tetrahedron could be built, which happens when the Minkowski difference is flat. The polytopes are then
+    *         only touching and there is nothing to expand.
+    */
+   public boolean setPolytopes(GarbageFreeGilbertJohnsonKeerthiCollisionDetector detector, SupportingVertexHolder polytopeOne,
+         SupportingVertexHolder polytopeTwo)
+   {
+      this.polytopeA = polytopeOne;
+      this.polytopeB = polytopeTwo;
+
+      numberOfVertices = 0;
+      numberOfTriangles = 0;
+      heapSize = 0;
+
+      for (int i = 0; i < detector.getNumberOfSimplexVertices(); i++)
+      {
+         detector.getSimplexVertex(i, tempPoint, tempPointOnA, tempPointOnB);
+         addVertex(tempPointOnA, tempPointOnB);
+      }
+
+      if (!completeTetrahedron())
+         return false;
+
+      if (tripleProduct(0, 1, 2, 3) > 0.0)
+      {
+         // Wind the faces so that their normals point away from the fourth vertex.
+         swapVertices(1, 2);
+      }
+
+      addTriangle(0, 1, 2);
+      addTriangle(2, 1, 3);
+      addTriangle(3, 1, 0);
+      addTriangle(0, 2, 3);
+
+      for (int triangle = 0; triangle < 4; triangle++)
+      {
+         for (int edge = 0; edge < 3; edge++)
+         {
+            linkToAdjacentTriangle(triangle, edge);
+         }
+      }
+
+      for (int triangle = 0; triangle < 4; triangle++)
+      {
+         if (closestIsInternal(triangle))
+            pushOnHeap(triangle);
+      }
+
+      return true;
+   }
+
+   /**
+    * Expands the polytope until its closest face to the origin is found.
+    *
+    * @param separatingVectorToPack closest point of the boundary of A - B to the origin. Translating B by it separates the polytopes.
+    */
+   public void computeExpandedPolytope(Vector3d separatingVectorToPack, Point3d closestPointOnA, Point3d closestPointOnB)
+   {
+      double mu = Double.POSITIVE_INFINITY; // Upper bound for the square penetration depth.
+      int closestTriangleToOrigin = -1;
+      int numberOfIterations = 0;
+
+      while (heapSize > 0)
+      {
+         numberOfIterations++;
+
+         int triangleToExpand = popFromHeap();
+
+         if (!obsolete[triangleToExpand])
+         {
+            closestTriangleToOrigin = triangleToExpand;
+            double distance = distances[triangleToExpand];
+            double lengthSquared = distance * distance;
+
+            // The normal is used as support direction so that it stays robust when the origin is on the face.
+            supportDirection.set(normals[3 * triangleToExpand], normals[3 * triangleToExpand + 1], normals[3 * triangleToExpand + 2]);
+            int w = addSupportVertex(supportDirection);
+
+            double vDotW = distance * dot(normals, triangleToExpand, vertices, w);
+            boolean closeEnough;
+
+            if (lengthSquared > 1e-12)
+            {
+               mu = Math.min(mu, vDotW * vDotW / lengthSquared);
+               closeEnough = (mu <= (1.0 + epsilonRelative) * (1.0 + epsilonRelative) * lengthSquared);
+            }
+            else
+            {
+               closeEnough = dot(normals, triangleToExpand, vertices, w) <= epsilonRelative;
+            }
+
+            if (closeEnough)
+               break;
+
+            if (!expand(triangleToExpand, w, lengthSquared, mu))
+               break;
+         }
+
+         if (numberOfIterations > MAXIMUM_NUMBER_OF_ITERATIONS)
+            break;
+
+         if (heapSize > 0)
+         {
+            double nextDistance = distances[heap[0]];
+            if (nextDistance * nextDistance > mu)
+               break;
+         }
+      }
+
+      if (closestTriangleToOrigin < 0)
+      {
+         throw new RuntimeException("No face of the polytope contains the projection of the origin");
+      }
+
+      computeClosestPoints(closestTriangleToOrigin, closestPointOnA, closestPointOnB);
+      separatingVectorToPack.set(closestPoint[0], closestPoint[1], closestPoint[2]);
+   }
+
+   public int getNumberOfVertices()
+   {
+      return numberOfVertices;
+   }
+
+   public int getNumberOfTriangles()
+   {
+      return numberOfTriangles;
+   }
+
+   /**
+    * Removes the faces visible from w and replaces them by a fan of triangles from their silhouette to w.
+    *
+    * @return false if one of the new triangles is degenerate, in which case the polytope cannot be expanded further.
+    */
+   private boolean expand(int triangleToExpand, int w, double closestDistanceSquared, double mu)
+   {
+      numberOfSilhouetteEdges = 0;
+      obsolete[triangleToExpand] = true;
+
+      for (int edge = 0; edge < 3; edge++)
+      {
+         computeSilhouette(adjacentTriangles[3 * triangleToExpand + edge], adjacentTriangleEdges[3 * triangleToExpand + edge], w);
+      }
+
+      int firstNewTriangle = numberOfTriangles;
+
+      for (int i = 0; i < numberOfSilhouetteEdges; i++)
+      {
+         int sentry = silhouetteTriangles[i];
+         int sentryEdge = silhouetteEdges[i];
+
+         int sentryVertexOne = triangleVertices[3 * sentry + sentryEdge];
+         int sentryVertexTwo = triangleVertices[3 * sentry + (sentryEdge + 1) % 3];
+
+         int newTriangle = addTriangle(sentryVertexTwo, sentryVertexOne, w);
+
+         if (newTriangle < 0)
+            return false;
+
+         adjacentTriangles[3 * newTriangle] = sentry;
+         adjacentTriangleEdges[3 * newTriangle] = sentryEdge;
+         adjacentTriangles[3 * sentry + sentryEdge] = newTriangle;
+         adjacentTriangleEdges[3 * sentry + sentryEdge] = 0;
+
+         newTriangleStartingAtVertex[sentryVertexTwo] = newTriangle;
+      }
+
+      // Stitch em up: the edge (one, w) of a new triangle is shared with the edge (w, one) of the new triangle starting at vertex one.
+      for (int newTriangle = firstNewTriangle; newTriangle < numberOfTriangles; newTriangle++)
+      {
+         int vertexOne = triangleVertices[3 * newTriangle + 1];
+         int otherTriangle = newTriangleStartingAtVertex[vertexOne];
+
+         if (otherTriangle < firstNewTriangle || otherTriangle >= numberOfTriangles || triangleVertices[3 * otherTriangle] != vertexOne)
+         {
+            throw new RuntimeException("Failed to stitch triangles!!");
+         }
+
+         adjacentTriangles[3 * newTriangle + 1] = otherTriangle;
+         adjacentTriangleEdges[3 * newTriangle + 1] = 2;
+         adjacentTriangles[3 * otherTriangle + 2] = newTriangle;
+         adjacentTriangleEdges[3 * otherTriangle + 2] = 1;
+      }
+
+      for (int newTriangle = firstNewTriangle; newTriangle < numberOfTriangles; newTriangle++)
+      {
+         double distanceSquared = distances[newTriangle] * distances[newTriangle];
+
+         if (closestIsInternal(newTriangle) && (closestDistanceSquared <= distanceSquared) && (distanceSquared <= mu))
+            pushOnHeap(newTriangle);
+      }
+
+      return true;
+   }
+
+   private void computeSilhouette(int triangle, int edge, int w)
+   {
+      if (obsolete[triangle])
+         return;
+
+      if (dot(normals, triangle, vertices, w) <= distances[triangle])
+      {
+         // Facet is not visible from w.
+         silhouetteTriangles[numberOfSilhouetteEdges] = triangle;
+         silhouetteEdges[numberOfSilhouetteEdges] = edge;
+         numberOfSilhouetteEdges++;
+         return;
+      }
+
+      // Mark the facet visible, and search its neighbors.
+      obsolete[triangle] = true;
+      int edgePlusOne = (edge + 1) % 3;
+      int edgePlusTwo = (edge + 2) % 3;
+      computeSilhouette(adjacentTriangles[3 * triangle + edgePlusOne], adjacentTriangleEdges[3 * triangle + edgePlusOne], w);
+      computeSilhouette(adjacentTriangles[3 * triangle + edgePlusTwo], adjacentTriangleEdges[3 * triangle + edgePlusTwo], w);
+   }
+
+   private boolean completeTetrahedron()
+   {
+      if (numberOfVertices == 0)
+         return false;
+
+      if (numberOfVertices == 1)
+      {
+         for (int direction = 0; direction < 6 && numberOfVertices < 2; direction++)
+         {
+            supportDirection.set(0.0, 0.0, 0.0);
+            setElement(supportDirection, direction / 2, direction % 2 == 0 ? 1.0 : -1.0);
+            int vertex = addSupportVertex(supportDirection);
+
+            if (distanceSquared(vertices, 0, vertex) < AFFINELY_DEPENDENT_EPSILON)
+               numberOfVertices--;
+         }
+      }
+
+      if (numberOfVertices == 2)
+      {
+         // Search around the segment, starting from the direction orthogonal to it and to its least aligned axis.
+         double dX = vertices[3] - vertices[0], dY = vertices[4] - vertices[1], dZ = vertices[5] - vertices[2];
+         int leastAlignedAxis = (Math.abs(dX) <= Math.abs(dY) && Math.abs(dX) <= Math.abs(dZ)) ? 0 : (Math.abs(dY) <= Math.abs(dZ) ? 1 : 2);
+         tempVector.set(0.0, 0.0, 0.0);
+         setElement(tempVector, leastAlignedAxis, 1.0);
+
+         segmentDirection.set(dX, dY, dZ);
+         tempVector.cross(segmentDirection, tempVector);
+
+         for (int direction = 0; direction < 4 && numberOfVertices < 3; direction++)
+         {
+            if (direction == 2)
+               tempVector.cross(segmentDirection, tempVector);
+            else if (direction != 0)
+               tempVector.negate();
+
+            supportDirection.set(tempVector);
+            int vertex = addSupportVertex(supportDirection);
+
+            if (triangleAreaSquared(0, 1, vertex) < AFFINELY_DEPENDENT_EPSILON)
+               numberOfVertices--;
+         }
+      }
+
+      if (numberOfVertices == 3)
+      {
+         for (int direction = 0; direction < 2 && numberOfVertices < 4; direction++)
+         {
+            computeNormal(0, 1, 2, supportDirection);
+            if (direction == 1)
+               supportDirection.negate();
+
+            int vertex = addSupportVertex(supportDirection);
+
+            if (Math.abs(tripleProduct(0, 1, 2, vertex)) < AFFINELY_DEPENDENT_EPSILON)
+               numberOfVertices--;
+         }
+      }
+
+      return numberOfVertices == 4 && Math.abs(tripleProduct(0, 1, 2, 3)) >= AFFINELY_DEPENDENT_EPSILON;
+   }
+
+   private int addSupportVertex(Vector3d direction)
+   {
+      Point3d supportingVertexOnA = polytopeA.getSupportingVertex(direction);
+      tempPointOnA.set(supportingVertexOnA);
+
+      direction.negate();
+      Point3d supportingVertexOnB = polytopeB.getSupportingVertex(direction);
+      direction.negate();
+
+      return addVertex(tempPointOnA, supportingVertexOnB);
+   }
+
+   private int addVertex(Tuple3d vertexOnA, Tuple3d vertexOnB)
+   {
+      if (3 * numberOfVertices >= vertices.length)
+      {
+         int newCapacity = 2 * numberOfVertices;
+         vertices = Arrays.copyOf(vertices, 3 * newCapacity);
+         verticesOnA = Arrays.copyOf(verticesOnA, 3 * newCapacity);
+         verticesOnB = Arrays.copyOf(verticesOnB, 3 * newCapacity);
+         newTriangleStartingAtVertex = Arrays.copyOf(newTriangleStartingAtVertex, newCapacity);
+      }
+
+      int index = numberOfVertices;
+
+      verticesOnA[3 * index] = vertexOnA.getX();
+      verticesOnA[3 * index + 1] = vertexOnA.getY();
+      verticesOnA[3 * index + 2] = vertexOnA.getZ();
+      verticesOnB[3 * index] = vertexOnB.getX();
+      verticesOnB[3 * index + 1] = vertexOnB.getY();
+      verticesOnB[3 * index + 2] = vertexOnB.getZ();
+
+      for (int axis = 0; axis < 3; axis++)
+      {
+         vertices[3 * index + axis] = verticesOnA[3 * index + axis] - verticesOnB[3 * index + axis];
+      }
+
+      numberOfVertices++;
+      return index;
+   }
+
+   private void swapVertices(int i, int j)
+   {
+      swap(vertices, i, j);
+      swap(verticesOnA, i, j);
+      swap(verticesOnB, i, j);
+   }
+
+   /**
+    * Adds the triangle abc, computes its outward normal, its distance to the origin and the barycentric coordinates of the
+    * projection of the origin on its plane.
+    *
+    * @return the index of the new triangle, or -1 if it is degenerate.
+    */
+   private int addTriangle(int a, int b, int c)
+   {
+      if (numberOfTriangles >= distances.length)
+         growTriangles();
+
+      int triangle = numberOfTriangles;
+
+      triangleVertices[3 * triangle] = a;
+      triangleVertices[3 * triangle + 1] = b;
+      triangleVertices[3 * triangle + 2] = c;
+      obsolete[triangle] = false;
+
+      for (int edge = 0; edge < 3; edge++)
+      {
+         adjacentTriangles[3 * triangle + edge] = -1;
+      }
+
+      computeNormal(a, b, c, tempVector);
+      double normalLength = tempVector.length();
+
+      if (normalLength < AFFINELY_DEPENDENT_EPSILON)
+         return -1;
+
+      tempVector.scale(1.0 / normalLength);
+      normals[3 * triangle] = tempVector.getX();
+      normals[3 * triangle + 1] = tempVector.getY();
+      normals[3 * triangle + 2] = tempVector.getZ();
+
+      double distance = dot(normals, triangle, vertices, a);
+      distances[triangle] = distance;
+
+      // Barycentric coordinates of the projection of the origin, see Ericson, Real-Time Collision Detection, section 3.4.
+      double abX = vertices[3 * b] - vertices[3 * a], abY = vertices[3 * b + 1] - vertices[3 * a + 1], abZ = vertices[3 * b + 2] - vertices[3 * a + 2];
+      double acX = vertices[3 * c] - vertices[3 * a], acY = vertices[3 * c + 1] - vertices[3 * a + 1], acZ = vertices[3 * c + 2] - vertices[3 * a + 2];
+      double apX = distance * tempVector.getX() - vertices[3 * a];
+      double apY = distance * tempVector.getY() - vertices[3 * a + 1];
+      double apZ = distance * tempVector.getZ() - vertices[3 * a + 2];
+
+      double d00 = abX * abX + abY * abY + abZ * abZ;
+      double d01 = abX * acX + abY * acY + abZ * acZ;
+      double d11 = acX * acX + acY * acY + acZ * acZ;
+      double d20 = apX * abX + apY * abY + apZ * abZ;
+      double d21 = apX * acX + apY * acY + apZ * acZ;
+      double denominator = d00 * d11 - d01 * d01;
+
+      double lambdaB = (d11 * d20 - d01 * d21) / denominator;
+      double lambdaC = (d00 * d21 - d01 * d20) / denominator;
+
+      triangleLambdas[3 * triangle] = 1.0 - lambdaB - lambdaC;
+      triangleLambdas[3 * triangle + 1] = lambdaB;
+      triangleLambdas[3 * triangle + 2] = lambdaC;
+
+      numberOfTriangles++;
+      return triangle;
+   }
+
+   private void growTriangles()
+   {
+      int newCapacity = 2 * distances.length;
+
+      triangleVertices = Arrays.copyOf(triangleVertices, 3 * newCapacity);
+      adjacentTriangles = Arrays.copyOf(adjacentTriangles, 3 * newCapacity);
+      adjacentTriangleEdges = Arrays.copyOf(adjacentTriangleEdges, 3 * newCapacity);
+      normals = Arrays.copyOf(normals, 3 * newCapacity);
+      distances = Arrays.copyOf(distances, newCapacity);
+      triangleLambdas = Arrays.copyOf(triangleLambdas, 3 * newCapacity);
+      obsolete = Arrays.copyOf(obsolete, newCapacity);
+      heap = Arrays.copyOf(heap, newCapacity);
+      silhouetteTriangles = Arrays.copyOf(silhouetteTriangles, 3 * newCapacity);
+      silhouetteEdges = Arrays.copyOf(silhouetteEdges, 3 * newCapacity);
+   }
+
+   private void linkToAdjacentTriangle(int triangle, int edge)
+   {
+      int start = triangleVertices[3 * triangle + edge];
+      int end = triangleVertices[3 * triangle + (edge + 1) % 3];
+
+      for (int other = 0; other < numberOfTriangles; other++)
+      {
+         for (int otherEdge = 0; otherEdge < 3; otherEdge++)
+         {
+            if (triangleVertices[3 * other + otherEdge] == end && triangleVertices[3 * other + (otherEdge + 1) % 3] == start)
+            {
+               adjacentTriangles[3 * triangle + edge] = other;
+               adjacentTriangleEdges[3 * triangle + edge] = otherEdge;
+               return;
+            }
+         }
+      }
+
+      throw new RuntimeException("Failed to stitch triangles!!");
+   }
+
+   private boolean closestIsInternal(int triangle)
+   {
+      for (int i = 0; i < 3; i++)
+      {
+         double lambda = triangleLambdas[3 * triangle + i];
+         if (lambda < 0.0 || lambda > 1.0)
+            return false;
+      }
+
+      return true;
+   }
+
+   private void computeClosestPoints(int triangle, Point3d closestPointOnA, Point3d closestPointOnB)
+   {
+      closestPointOnA.set(0.0, 0.0, 0.0);
+      closestPointOnB.set(0.0, 0.0, 0.0);
+      closestPoint[0] = closestPoint[1] = closestPoint[2] = 0.0;
+
+      for (int i = 0; i < 3; i++)
+      {
+         int vertex = triangleVertices[3 * triangle + i];
+         double lambda = triangleLambdas[3 * triangle + i];
+
+         closestPointOnA.x += lambda * verticesOnA[3 * vertex];
+         closestPointOnA.y += lambda * verticesOnA[3 * vertex + 1];
+         closestPointOnA.z += lambda * verticesOnA[3 * vertex + 2];
+         closestPointOnB.x += lambda * verticesOnB[3 * vertex];
+         closestPointOnB.y += lambda * verticesOnB[3 * vertex + 1];
+         closestPointOnB.z += lambda * verticesOnB[3 * vertex + 2];
+
+         for (int axis = 0; axis < 3; axis++)
+         {
+            closestPoint[axis] += lambda * vertices[3 * vertex + axis];
+         }
+      }
+   }
+
+   private void pushOnHeap(int triangle)
+   {
+      int child = heapSize++;
+      double distance = distances[triangle];
+
+      while (child > 0)
+      {
+         int parent = (child - 1) / 2;
+         if (distances[heap[parent]] <= distance)
+            break;
+
+         heap[child] = heap[parent];
+         child = parent;
+      }
+
+      heap[child] = triangle;
+   }
+
+   private int popFromHeap()
+   {
+      int top = heap[0];
+      int last = heap[--heapSize];
+      double distance = distances[last];
+
+      int parent = 0;
+      while (true)
+      {
+         int child = 2 * parent + 1;
+         if (child >= heapSize)
+            break;
+
+         if (child + 1 < heapSize && distances[heap[child + 1]] < distances[heap[child]])
+            child++;
+
+         if (distance <= distances[heap[child]])
+            break;
+
+         heap[parent] = heap[child];
+         parent = child;
+      }
+
+      if (heapSize > 0)
+         heap[parent] = last;
+
+      return top;
+   }
+
+   private void computeNormal(int a, int b, int c, Vector3d normalToPack)
+   {
+      double abX = vertices[3 * b] - vertices[3 * a], abY = vertices[3 * b + 1] - vertices[3 * a + 1], abZ = vertices[3 * b + 2] - vertices[3 * a + 2];
+      double acX = vertices[3 * c] - vertices[3 * a], acY = vertices[3 * c + 1] - vertices[3 * a + 1], acZ = vertices[3 * c + 2] - vertices[3 * a + 2];
+
+      normalToPack.set(abY * acZ - abZ * acY, abZ * acX - abX * acZ, abX * acY - abY * acX);
+   }
+
+   private double triangleAreaSquared(int a, int b, int c)
+   {
+      computeNormal(a, b, c, tempVector);
+      return 0.25 * tempVector.lengthSquared();
+   }
+
+   private double tripleProduct(int a, int b, int c, int d)
+   {
+      computeNormal(a, b, c, tempVector);
+      return tempVector.getX() * (vertices[3 * d] - vertices[3 * a]) + tempVector.getY() * (vertices[3 * d + 1] - vertices[3 * a + 1])
+            + tempVector.getZ() * (vertices[3 * d + 2] - vertices[3 * a + 2]);
+   }
+
+   private static double dot(double[] vectors, int i, double[] points, int j)
+   {
+      return vectors[3 * i] * points[3 * j] + vectors[3 * i + 1] * points[3 * j + 1] + vectors[3 * i + 2] * points[3 * j + 2];
+   }
+
+   private static double distanceSquared(double[] points, int i, int j)
+   {
+      double dx = points[3 * i] - points[3 * j];
+      double dy = points[3 * i + 1] - points[3 * j + 1];
+      double dz = points[3 * i + 2] - points[3 * j + 2];
+      return dx * dx + dy * dy + dz * dz;
+   }
+
+   private static void swap(double[] points, int i, int j)
+   {
+      for (int axis = 0; axis < 3; axis++)
+      {
+         double temp = points[3 * i + axis];
+         points[3 * i + axis] = points[3 * j + axis];
+         points[3 * j + axis] = temp;
+      }
+   }
+
+   private static void setElement(Vector3d vector, int axis, double value)
+   {
+      if (axis == 0)
+         vector.setX(value);
+      else if (axis == 1)
+         vector.setY(value);
+      else
+         vector.setZ(value);
+   }
+}
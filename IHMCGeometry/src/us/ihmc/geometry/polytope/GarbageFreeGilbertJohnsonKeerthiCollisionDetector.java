@@ -0,0 +1,543 @@
+package us.ihmc.geometry.polytope;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Tuple3d;
+import javax.vecmath.Vector3d;
+
+/**
+ * GilbertJohnsonKeerthi (GJK) collision detector that does not allocate any memory once constructed.
+ * <p>
+ * Same algorithm as {@link GilbertJohnsonKeerthiCollisionDetector}, but the simplex is stored as at most four vertices in pre-sized
+ * arrays, together with the points on A and B that generated them. The closest point of the simplex to the origin is computed in
+ * closed form from the barycentric coordinates of the segment, triangle or tetrahedron, without any matrix or map.
+ * <p>
+ * The search is warm-started from the separating vector found by the previous call. Shapes only move a little from one tick to
+ * the next, so this usually converges in one or two iterations. When one detector is used for several pairs of shapes, either
+ * use one detector per pair or give the initial guess explicitly.
+ * <p>
+ * For more information see book, papers, and presentations at http://realtimecollisiondetection.net/pubs/
+ */
+public class GarbageFreeGilbertJohnsonKeerthiCollisionDetector
+{
+   private static final int MAXIMUM_NUMBER_OF_ITERATIONS = 100;
+   private static final double RELATIVE_CONVERGENCE_EPSILON = 1e-10;
+   private static final double COLLISION_DISTANCE_SQUARED = 1e-16;
+   private static final double DUPLICATE_VERTEX_DISTANCE_SQUARED = 1e-20;
+
+   private final double[] simplexVertices = new double[12];
+   private final double[] simplexVerticesOnA = new double[12];
+   private final double[] simplexVerticesOnB = new double[12];
+   private final double[] lambdas = new double[4];
+   private int numberOfSimplexVertices = 0;
+
+   private final double[] closestPoint = new double[3];
+
+   private final int[] keptVertices = new int[4];
+   private final double[] keptLambdas = new double[4];
+   private int numberOfKeptVertices;
+
+   private final int[] bestKeptVertices = new int[3];
+   private final double[] bestKeptLambdas = new double[3];
+
+   private final Vector3d supportDirection = new Vector3d();
+   private final Vector3d defaultInitialGuessOfSeparatingVector = new Vector3d(0.0, 0.0, 1.0);
+   private final Vector3d previousSeparatingVector = new Vector3d();
+   private boolean hasPreviousSeparatingVector = false;
+   private boolean useWarmStart = true;
+
+   /**
+    * Enables or disables warm-starting from the previous separating vector. Enabled by default.
+    */
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      this.useWarmStart = useWarmStart;
+      hasPreviousSeparatingVector = false;
+   }
+
+   /**
+    * Forgets the separating vector of the previous call, to use when switching to a pair of shapes unrelated to the previous one.
+    */
+   public void resetWarmStart()
+   {
+      hasPreviousSeparatingVector = false;
+   }
+
+   public boolean arePolytopesColliding(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB, Point3d pointOnAToPack, Point3d pointOnBToPack)
+   {
+      if (useWarmStart && hasPreviousSeparatingVector)
+         return arePolytopesColliding(previousSeparatingVector, polytopeA, polytopeB, pointOnAToPack, pointOnBToPack);
+      else
+         return arePolytopesColliding(defaultInitialGuessOfSeparatingVector, polytopeA, polytopeB, pointOnAToPack, pointOnBToPack);
+   }
+
+   /**
+    * @param initialGuessOfSeparatingVector direction in which the first point of the Minkowski difference A - B is searched. The
+    *           best guess is the opposite of the closest point of A - B to the origin, as given by
+    *           {@link #getSeparatingVector(Vector3d)} at the previous tick.
+    * @return true if the polytopes intersect. The points on A and B are then points of the intersection. Otherwise, they are the
+    *         closest points between A and B.
+    */
+   public boolean arePolytopesColliding(Vector3d initialGuessOfSeparatingVector, SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB,
+         Point3d pointOnAToPack, Point3d pointOnBToPack)
+   {
+      numberOfSimplexVertices = 0;
+
+      supportDirection.set(initialGuessOfSeparatingVector);
+      if (supportDirection.lengthSquared() == 0.0)
+         supportDirection.set(defaultInitialGuessOfSeparatingVector);
+
+      addSupportVertex(polytopeA, polytopeB, supportDirection);
+
+      int iterations = 0;
+
+      while (true)
+      {
+         boolean originIsInside = updateClosestPointAndReduceSimplex();
+         double distanceSquared = closestPointDistanceSquared();
+
+         if (originIsInside || distanceSquared <= COLLISION_DISTANCE_SQUARED)
+         {
+            computeClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+            return true;
+         }
+
+         supportDirection.set(-closestPoint[0], -closestPoint[1], -closestPoint[2]);
+         int newVertex = addSupportVertex(polytopeA, polytopeB, supportDirection);
+
+         // The new vertex does not get closer to the origin than the current closest point, so that point is on the boundary of A - B.
+         double vDotW = -dot(supportDirection, simplexVertices, newVertex);
+         boolean converged = distanceSquared - vDotW <= RELATIVE_CONVERGENCE_EPSILON * distanceSquared;
+
+         iterations++;
+
+         if (converged || isDuplicateOfSimplexVertex(newVertex) || iterations >= MAXIMUM_NUMBER_OF_ITERATIONS)
+         {
+            numberOfSimplexVertices--;
+            break;
+         }
+      }
+
+      computeClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
+      previousSeparatingVector.set(-closestPoint[0], -closestPoint[1], -closestPoint[2]);
+      hasPreviousSeparatingVector = true;
+
+      return false;
+   }
+
+   /**
+    * Packs the closest point of the Minkowski difference A - B to the origin found by the last call.
+    */
+   public void getClosestPointOnMinkowskiDifference(Tuple3d closestPointToPack)
+   {
+      closestPointToPack.set(closestPoint[0], closestPoint[1], closestPoint[2]);
+   }
+
+   /**
+    * Packs the separating vector used to warm-start the next call, that is the opposite of the closest point of A - B to the origin.
+    */
+   public void getSeparatingVector(Vector3d separatingVectorToPack)
+   {
+      separatingVectorToPack.set(-closestPoint[0], -closestPoint[1], -closestPoint[2]);
+   }
+
+   public int getNumberOfSimplexVertices()
+   {
+      return numberOfSimplexVertices;
+   }
+
+   public void getSimplexVertex(int index, Tuple3d vertexToPack, Tuple3d vertexOnAToPack, Tuple3d vertexOnBToPack)
+   {
+      get(simplexVertices, index, vertexToPack);
+      get(simplexVerticesOnA, index, vertexOnAToPack);
+      get(simplexVerticesOnB, index, vertexOnBToPack);
+   }
+
+   public double getLambda(int index)
+   {
+      return lambdas[index];
+   }
+
+   private int addSupportVertex(SupportingVertexHolder polytopeA, SupportingVertexHolder polytopeB, Vector3d direction)
+   {
+      int index = numberOfSimplexVertices;
+
+      Point3d supportingVertexOnA = polytopeA.getSupportingVertex(direction);
+      set(simplexVerticesOnA, index, supportingVertexOnA);
+
+      direction.negate();
+      Point3d supportingVertexOnB = polytopeB.getSupportingVertex(direction);
+      set(simplexVerticesOnB, index, supportingVertexOnB);
+      direction.negate();
+
+      for (int axis = 0; axis < 3; axis++)
+      {
+         simplexVertices[3 * index + axis] = simplexVerticesOnA[3 * index + axis] - simplexVerticesOnB[3 * index + axis];
+      }
+
+      numberOfSimplexVertices++;
+      return index;
+   }
+
+   private boolean isDuplicateOfSimplexVertex(int vertex)
+   {
+      for (int i = 0; i < numberOfSimplexVertices; i++)
+      {
+         if (i != vertex && distanceSquared(simplexVertices, i, vertex) <= DUPLICATE_VERTEX_DISTANCE_SQUARED)
+            return true;
+      }
+
+      return false;
+   }
+
+   /**
+    * Computes the closest point of the simplex to the origin and removes the vertices that do not contribute to it.
+    *
+    * @return true if the simplex is a tetrahedron that contains the origin.
+    */
+   private boolean updateClosestPointAndReduceSimplex()
+   {
+      boolean originIsInside = false;
+
+      switch (numberOfSimplexVertices)
+      {
+      case 1:
+         numberOfKeptVertices = 1;
+         keptVertices[0] = 0;
+         keptLambdas[0] = 1.0;
+         break;
+      case 2:
+         projectOriginOntoSegment(0, 1);
+         break;
+      case 3:
+         projectOriginOntoTriangle(0, 1, 2);
+         break;
+      case 4:
+         originIsInside = projectOriginOntoTetrahedron();
+         break;
+      default:
+         throw new RuntimeException("Unexpected number of simplex vertices: " + numberOfSimplexVertices);
+      }
+
+      keepVertices();
+      return originIsInside;
+   }
+
+   private void projectOriginOntoSegment(int a, int b)
+   {
+      double abX = simplexVertices[3 * b] - simplexVertices[3 * a];
+      double abY = simplexVertices[3 * b + 1] - simplexVertices[3 * a + 1];
+      double abZ = simplexVertices[3 * b + 2] - simplexVertices[3 * a + 2];
+
+      double abLengthSquared = abX * abX + abY * abY + abZ * abZ;
+      double t = abLengthSquared > 0.0 ? -(simplexVertices[3 * a] * abX + simplexVertices[3 * a + 1] * abY + simplexVertices[3 * a + 2] * abZ) / abLengthSquared : 0.0;
+
+      if (t <= 0.0)
+      {
+         numberOfKeptVertices = 1;
+         keptVertices[0] = a;
+         keptLambdas[0] = 1.0;
+      }
+      else if (t >= 1.0)
+      {
+         numberOfKeptVertices = 1;
+         keptVertices[0] = b;
+         keptLambdas[0] = 1.0;
+      }
+      else
+      {
+         numberOfKeptVertices = 2;
+         keptVertices[0] = a;
+         keptVertices[1] = b;
+         keptLambdas[0] = 1.0 - t;
+         keptLambdas[1] = t;
+      }
+   }
+
+   /**
+    * Closest point to the origin on the triangle abc, by finding in which Voronoi region of the triangle the origin lies. See
+    * Ericson, Real-Time Collision Detection, section 5.1.5.
+    */
+   private void projectOriginOntoTriangle(int a, int b, int c)
+   {
+      double[] w = simplexVertices;
+
+      double abX = w[3 * b] - w[3 * a], abY = w[3 * b + 1] - w[3 * a + 1], abZ = w[3 * b + 2] - w[3 * a + 2];
+      double acX = w[3 * c] - w[3 * a], acY = w[3 * c + 1] - w[3 * a + 1], acZ = w[3 * c + 2] - w[3 * a + 2];
+
+      double d1 = -(abX * w[3 * a] + abY * w[3 * a + 1] + abZ * w[3 * a + 2]);
+      double d2 = -(acX * w[3 * a] + acY * w[3 * a + 1] + acZ * w[3 * a + 2]);
+      if (d1 <= 0.0 && d2 <= 0.0)
+      {
+         keepVertex(a);
+         return;
+      }
+
+      double d3 = -(abX * w[3 * b] + abY * w[3 * b + 1] + abZ * w[3 * b + 2]);
+      double d4 = -(acX * w[3 * b] + acY * w[3 * b + 1] + acZ * w[3 * b + 2]);
+      if (d3 >= 0.0 && d4 <= d3)
+      {
+         keepVertex(b);
+         return;
+      }
+
+      double vc = d1 * d4 - d3 * d2;
+      if (vc <= 0.0 && d1 >= 0.0 && d3 <= 0.0)
+      {
+         keepEdge(a, b, d1 / (d1 - d3));
+         return;
+      }
+
+      double d5 = -(abX * w[3 * c] + abY * w[3 * c + 1] + abZ * w[3 * c + 2]);
+      double d6 = -(acX * w[3 * c] + acY * w[3 * c + 1] + acZ * w[3 * c + 2]);
+      if (d6 >= 0.0 && d5 <= d6)
+      {
+         keepVertex(c);
+         return;
+      }
+
+      double vb = d5 * d2 - d1 * d6;
+      if (vb <= 0.0 && d2 >= 0.0 && d6 <= 0.0)
+      {
+         keepEdge(a, c, d2 / (d2 - d6));
+         return;
+      }
+
+      double va = d3 * d6 - d5 * d4;
+      if (va <= 0.0 && (d4 - d3) >= 0.0 && (d5 - d6) >= 0.0)
+      {
+         keepEdge(b, c, (d4 - d3) / ((d4 - d3) + (d5 - d6)));
+         return;
+      }
+
+      double sum = va + vb + vc;
+      if (sum <= 0.0)
+      {
+         // Degenerate triangle, the origin projects on its longest edge.
+         projectOriginOntoSegment(a, b);
+         return;
+      }
+
+      numberOfKeptVertices = 3;
+      keptVertices[0] = a;
+      keptVertices[1] = b;
+      keptVertices[2] = c;
+      keptLambdas[1] = vb / sum;
+      keptLambdas[2] = vc / sum;
+      keptLambdas[0] = 1.0 - keptLambdas[1] - keptLambdas[2];
+   }
+
+   /**
+    * The origin is inside the tetrahedron when it is on the same side as the opposite vertex for each of the four faces, and its
+    * barycentric coordinates are then the ratios of the signed distances to the faces. Otherwise, the closest point is on one of the
+    * faces that separate the origin from the opposite vertex.
+    */
+   private boolean projectOriginOntoTetrahedron()
+   {
+      double bestDistanceSquared = Double.POSITIVE_INFINITY;
+      int bestNumberOfKeptVertices = 0;
+      boolean originIsInside = true;
+
+      for (int opposite = 0; opposite < 4; opposite++)
+      {
+         int a = (opposite + 1) % 4;
+         int b = (opposite + 2) % 4;
+         int c = (opposite + 3) % 4;
+
+         double originSide = signedVolume(a, b, c, -1);
+         double oppositeSide = signedVolume(a, b, c, opposite);
+
+         if (originSide * oppositeSide > 0.0 && Math.abs(oppositeSide) > 1e-20)
+         {
+            lambdas[opposite] = originSide / oppositeSide;
+            continue;
+         }
+
+         originIsInside = false;
+
+         projectOriginOntoTriangle(a, b, c);
+         double distanceSquared = keptPointDistanceSquared();
+
+         if (distanceSquared < bestDistanceSquared)
+         {
+            bestDistanceSquared = distanceSquared;
+            bestNumberOfKeptVertices = numberOfKeptVertices;
+            for (int i = 0; i < numberOfKeptVertices; i++)
+            {
+               bestKeptVertices[i] = keptVertices[i];
+               bestKeptLambdas[i] = keptLambdas[i];
+            }
+         }
+      }
+
+      if (originIsInside)
+      {
+         numberOfKeptVertices = 4;
+         for (int i = 0; i < 4; i++)
+         {
+            keptVertices[i] = i;
+            keptLambdas[i] = lambdas[i];
+         }
+      }
+      else
+      {
+         numberOfKeptVertices = bestNumberOfKeptVertices;
+         for (int i = 0; i < numberOfKeptVertices; i++)
+         {
+            keptVertices[i] = bestKeptVertices[i];
+            keptLambdas[i] = bestKeptLambdas[i];
+         }
+      }
+
+      return originIsInside;
+   }
+
+   /**
+    * @return (b - a) x (c - a) . (p - a), where p is the given vertex or the origin if the vertex index is negative.
+    */
+   private double signedVolume(int a, int b, int c, int p)
+   {
+      double[] w = simplexVertices;
+
+      double abX = w[3 * b] - w[3 * a], abY = w[3 * b + 1] - w[3 * a + 1], abZ = w[3 * b + 2] - w[3 * a + 2];
+      double acX = w[3 * c] - w[3 * a], acY = w[3 * c + 1] - w[3 * a + 1], acZ = w[3 * c + 2] - w[3 * a + 2];
+
+      double nX = abY * acZ - abZ * acY;
+      double nY = abZ * acX - abX * acZ;
+      double nZ = abX * acY - abY * acX;
+
+      double pX = -w[3 * a], pY = -w[3 * a + 1], pZ = -w[3 * a + 2];
+      if (p >= 0)
+      {
+         pX += w[3 * p];
+         pY += w[3 * p + 1];
+         pZ += w[3 * p + 2];
+      }
+
+      return nX * pX + nY * pY + nZ * pZ;
+   }
+
+   private void keepVertex(int a)
+   {
+      numberOfKeptVertices = 1;
+      keptVertices[0] = a;
+      keptLambdas[0] = 1.0;
+   }
+
+   private void keepEdge(int a, int b, double t)
+   {
+      numberOfKeptVertices = 2;
+      keptVertices[0] = a;
+      keptVertices[1] = b;
+      keptLambdas[0] = 1.0 - t;
+      keptLambdas[1] = t;
+   }
+
+   private double keptPointDistanceSquared()
+   {
+      double x = 0.0, y = 0.0, z = 0.0;
+
+      for (int i = 0; i < numberOfKeptVertices; i++)
+      {
+         int vertex = keptVertices[i];
+         x += keptLambdas[i] * simplexVertices[3 * vertex];
+         y += keptLambdas[i] * simplexVertices[3 * vertex + 1];
+         z += keptLambdas[i] * simplexVertices[3 * vertex + 2];
+      }
+
+      return x * x + y * y + z * z;
+   }
+
+   /**
+    * Compacts the simplex down to the kept vertices and updates the closest point.
+    */
+   private void keepVertices()
+   {
+      // Sorting the kept vertices by increasing index makes it safe to compact the arrays in place.
+      for (int i = 1; i < numberOfKeptVertices; i++)
+      {
+         int vertex = keptVertices[i];
+         double lambda = keptLambdas[i];
+
+         int j = i - 1;
+         while (j >= 0 && keptVertices[j] > vertex)
+         {
+            keptVertices[j + 1] = keptVertices[j];
+            keptLambdas[j + 1] = keptLambdas[j];
+            j--;
+         }
+
+         keptVertices[j + 1] = vertex;
+         keptLambdas[j + 1] = lambda;
+      }
+
+      closestPoint[0] = closestPoint[1] = closestPoint[2] = 0.0;
+
+      for (int i = 0; i < numberOfKeptVertices; i++)
+      {
+         int vertex = keptVertices[i];
+
+         if (vertex != i)
+         {
+            System.arraycopy(simplexVertices, 3 * vertex, simplexVertices, 3 * i, 3);
+            System.arraycopy(simplexVerticesOnA, 3 * vertex, simplexVerticesOnA, 3 * i, 3);
+            System.arraycopy(simplexVerticesOnB, 3 * vertex, simplexVerticesOnB, 3 * i, 3);
+         }
+
+         lambdas[i] = keptLambdas[i];
+
+         for (int axis = 0; axis < 3; axis++)
+         {
+            closestPoint[axis] += lambdas[i] * simplexVertices[3 * i + axis];
+         }
+      }
+
+      numberOfSimplexVertices = numberOfKeptVertices;
+   }
+
+   private double closestPointDistanceSquared()
+   {
+      return closestPoint[0] * closestPoint[0] + closestPoint[1] * closestPoint[1] + closestPoint[2] * closestPoint[2];
+   }
+
+   private void computeClosestPointsOnAAndB(Point3d pointOnAToPack, Point3d pointOnBToPack)
+   {
+      pointOnAToPack.set(0.0, 0.0, 0.0);
+      pointOnBToPack.set(0.0, 0.0, 0.0);
+
+      for (int i = 0; i < numberOfSimplexVertices; i++)
+      {
+         double lambda = lambdas[i];
+         pointOnAToPack.x += lambda * simplexVerticesOnA[3 * i];
+         pointOnAToPack.y += lambda * simplexVerticesOnA[3 * i + 1];
+         pointOnAToPack.z += lambda * simplexVerticesOnA[3 * i + 2];
+         pointOnBToPack.x += lambda * simplexVerticesOnB[3 * i];
+         pointOnBToPack.y += lambda * simplexVerticesOnB[3 * i + 1];
+         pointOnBToPack.z += lambda * simplexVerticesOnB[3 * i + 2];
+      }
+   }
+
+   private static double dot(Vector3d vector, double[] points, int index)
+   {
+      return vector.getX() * points[3 * index] + vector.getY() * points[3 * index + 1] + vector.getZ() * points[3 * index + 2];
+   }
+
+   private static double distanceSquared(double[] points, int i, int j)
+   {
+      double dx = points[3 * i] - points[3 * j];
+      double dy = points[3 * i + 1] - points[3 * j + 1];
+      double dz = points[3 * i + 2] - points[3 * j + 2];
+      return dx * dx + dy * dy + dz * dz;
+   }
+
+   private static void set(double[] points, int index, Tuple3d point)
+   {
+      points[3 * index] = point.getX();
+      points[3 * index + 1] = point.getY();
+      points[3 * index + 2] = point.getZ();
+   }
+
+   private static void get(double[] points, int index, Tuple3d pointToPack)
+   {
+      pointToPack.set(points[3 * index], points[3 * index + 1], points[3 * index + 2]);
+   }
+}
@@ -11,7 +11,8 @@ import us.ihmc.tools.testing.MutationTestingTools;
 @RunWith(ContinuousIntegrationSuite.class)
 @ContinuousIntegrationSuiteCategory(IntegrationCategory.FAST)
 @SuiteClasses({ ExpandingPolytopeAlgorithmTest.class, IcoSphereCreatorTest.class, SimplexPolytopeTest.class, ExpandingPolytopeEntryTest.class, ExpandingPolytopeEntryFromSimpleMeshGeneratorTest.class,
-      ConvexPolytopeTest.class, GilbertJohnsonKeerthiCollisionDetectorTest.class, ConvexPolytopeFromExpandingPolytopeEntryGeneratorTest.class, ExpandingPolytopeSilhouetteConstructorTest.class })
+      ConvexPolytopeTest.class, GilbertJohnsonKeerthiCollisionDetectorTest.class, ConvexPolytopeFromExpandingPolytopeEntryGeneratorTest.class, ExpandingPolytopeSilhouetteConstructorTest.class,
+      GarbageFreeGilbertJohnsonKeerthiCollisionDetectorTest.class, GarbageFreeExpandingPolytopeAlgorithmTest.class })
 
 public class ConvexPolytopeTestSuite
 {
@@ -0,0 +1,180 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.robotics.random.RandomTools;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.tools.testing.JUnitTools;
+
+public class GarbageFreeExpandingPolytopeAlgorithmTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testWithAPointInsideACube()
+   {
+      ConvexPolytope polytopeOne = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.5, 0.5, 0.5);
+      ConvexPolytope polytopeTwo = ConvexPolytopeConstructor.constructSinglePointPolytope(new Point3d());
+      translateObject(polytopeOne, new Vector3d(0.1, 0.2, 0.35));
+      translateObject(polytopeTwo, new Vector3d(0.0, 0.0, 0.05));
+
+      GarbageFreeGilbertJohnsonKeerthiCollisionDetector detector = new GarbageFreeGilbertJohnsonKeerthiCollisionDetector();
+      GarbageFreeExpandingPolytopeAlgorithm expandingPolytopeAlgorithm = new GarbageFreeExpandingPolytopeAlgorithm(1e-5);
+
+      Point3d closestPointOnA = new Point3d();
+      Point3d closestPointOnB = new Point3d();
+      assertTrue(detector.arePolytopesColliding(polytopeOne, polytopeTwo, closestPointOnA, closestPointOnB));
+
+      assertTrue(expandingPolytopeAlgorithm.setPolytopes(detector, polytopeOne, polytopeTwo));
+      Vector3d separatingVector = new Vector3d();
+      expandingPolytopeAlgorithm.computeExpandedPolytope(separatingVector, closestPointOnA, closestPointOnB);
+
+      JUnitTools.assertTuple3dEquals(new Vector3d(0.0, 0.0, -0.2), separatingVector, 1e-7);
+      JUnitTools.assertTuple3dEquals(new Point3d(0.0, 0.0, -0.15), closestPointOnA, 1e-7);
+      JUnitTools.assertTuple3dEquals(new Point3d(0.0, 0.0, 0.05), closestPointOnB, 1e-7);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSeparatingVectorSeparatesRandomPolytopes()
+   {
+      Random random = new Random(1886L);
+
+      GarbageFreeGilbertJohnsonKeerthiCollisionDetector detector = new GarbageFreeGilbertJohnsonKeerthiCollisionDetector();
+      detector.setUseWarmStart(false);
+      GarbageFreeExpandingPolytopeAlgorithm expandingPolytopeAlgorithm = new GarbageFreeExpandingPolytopeAlgorithm(1e-6, 4);
+
+      Point3d closestPointOnA = new Point3d();
+      Point3d closestPointOnB = new Point3d();
+      Vector3d separatingVector = new Vector3d();
+      Vector3d nudge = new Vector3d();
+
+      int numberOfCollisions = 0;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         ConvexPolytope polytopeOne = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 30, 1.0, 0.5);
+         ConvexPolytope polytopeTwo = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 30, 1.0, 0.5);
+         translateObject(polytopeTwo, RandomTools.generateRandomVector(random, 1.5 * random.nextDouble()));
+
+         if (!detector.arePolytopesColliding(polytopeOne, polytopeTwo, closestPointOnA, closestPointOnB))
+            continue;
+
+         if (!expandingPolytopeAlgorithm.setPolytopes(detector, polytopeOne, polytopeTwo))
+            continue;
+
+         numberOfCollisions++;
+         expandingPolytopeAlgorithm.computeExpandedPolytope(separatingVector, closestPointOnA, closestPointOnB);
+
+         assertEquals(separatingVector.length(), closestPointOnA.distance(closestPointOnB), 1e-7);
+
+         // Moving B by slightly more than the penetration vector separates the polytopes, moving it by slightly less does not.
+         double depth = separatingVector.length();
+         nudge.set(separatingVector);
+         nudge.scale((depth + 1e-4) / depth);
+         translateObject(polytopeTwo, nudge);
+         assertTrue(!detector.arePolytopesColliding(polytopeOne, polytopeTwo, closestPointOnA, closestPointOnB));
+
+         nudge.set(separatingVector);
+         nudge.scale(-2e-4 / depth);
+         translateObject(polytopeTwo, nudge);
+         assertTrue(detector.arePolytopesColliding(polytopeOne, polytopeTwo, closestPointOnA, closestPointOnB));
+      }
+
+      assertTrue("numberOfCollisions = " + numberOfCollisions, numberOfCollisions > 300);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testNoAllocationInSteadyState()
+   {
+      java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+      com.sun.management.ThreadMXBean allocationCounter = (com.sun.management.ThreadMXBean) threadMXBean;
+      Assume.assumeTrue(allocationCounter.isThreadAllocatedMemorySupported());
+      allocationCounter.setThreadAllocatedMemoryEnabled(true);
+
+      Random random = new Random(4242L);
+      ConvexPolytope polytopeOne = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 100, 1.0, 0.5);
+      ConvexPolytope polytopeTwo = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 100, 1.0, 0.5);
+      TranslatedSupportingVertexHolder movingPolytope = new TranslatedSupportingVertexHolder(polytopeTwo);
+
+      GarbageFreeGilbertJohnsonKeerthiCollisionDetector detector = new GarbageFreeGilbertJohnsonKeerthiCollisionDetector();
+      GarbageFreeExpandingPolytopeAlgorithm expandingPolytopeAlgorithm = new GarbageFreeExpandingPolytopeAlgorithm(1e-6);
+
+      int numberOfTicks = 5000;
+      double[] offsets = new double[3 * numberOfTicks];
+      for (int i = 0; i < offsets.length; i++)
+      {
+         offsets[i] = RandomTools.generateRandomDouble(random, 2.0);
+      }
+
+      Point3d closestPointOnA = new Point3d();
+      Point3d closestPointOnB = new Point3d();
+      Vector3d separatingVector = new Vector3d();
+
+      // First pass lets the pools reach their final size and the JIT compile the code.
+      for (int pass = 0; pass < 2; pass++)
+      {
+         long threadId = Thread.currentThread().getId();
+         long overhead = -(allocationCounter.getThreadAllocatedBytes(threadId) - allocationCounter.getThreadAllocatedBytes(threadId));
+         long allocatedBytesBefore = allocationCounter.getThreadAllocatedBytes(threadId);
+         int numberOfCollisions = 0;
+
+         for (int tick = 0; tick < numberOfTicks; tick++)
+         {
+            movingPolytope.translation.set(offsets[3 * tick], offsets[3 * tick + 1], offsets[3 * tick + 2]);
+
+            if (detector.arePolytopesColliding(polytopeOne, movingPolytope, closestPointOnA, closestPointOnB))
+            {
+               numberOfCollisions++;
+
+               if (expandingPolytopeAlgorithm.setPolytopes(detector, polytopeOne, movingPolytope))
+                  expandingPolytopeAlgorithm.computeExpandedPolytope(separatingVector, closestPointOnA, closestPointOnB);
+            }
+         }
+
+         long allocatedBytes = allocationCounter.getThreadAllocatedBytes(threadId) - allocatedBytesBefore - overhead;
+
+         assertTrue(numberOfCollisions > 0);
+         if (pass == 1)
+            assertEquals("Allocated bytes in steady state", 0L, allocatedBytes);
+      }
+   }
+
+   private static class TranslatedSupportingVertexHolder implements SupportingVertexHolder
+   {
+      private final SupportingVertexHolder supportingVertexHolder;
+      private final Vector3d translation = new Vector3d();
+      private final Point3d supportingVertex = new Point3d();
+
+      public TranslatedSupportingVertexHolder(SupportingVertexHolder supportingVertexHolder)
+      {
+         this.supportingVertexHolder = supportingVertexHolder;
+      }
+
+      @Override
+      public Point3d getSupportingVertex(Vector3d supportDirection)
+      {
+         supportingVertex.add(supportingVertexHolder.getSupportingVertex(supportDirection), translation);
+         return supportingVertex;
+      }
+   }
+
+   private void translateObject(ConvexPolytope polytope, Vector3d translation)
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.setTranslation(translation);
+      polytope.applyTransform(transform);
+   }
+}
@@ -0,0 +1,138 @@
+package us.ihmc.geometry.polytope;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.robotics.random.RandomTools;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.tools.testing.JUnitTools;
+
+public class GarbageFreeGilbertJohnsonKeerthiCollisionDetectorTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSimpleCubes()
+   {
+      GarbageFreeGilbertJohnsonKeerthiCollisionDetector detector = new GarbageFreeGilbertJohnsonKeerthiCollisionDetector();
+
+      ConvexPolytope cubeOne = ConvexPolytopeConstructor.constructUnitCube();
+      ConvexPolytope cubeTwo = ConvexPolytopeConstructor.constructUnitCube();
+      translateObject(cubeTwo, new Vector3d(2.0, 0.5, 0.25));
+
+      Point3d closestPointOnA = new Point3d();
+      Point3d closestPointOnB = new Point3d();
+
+      assertFalse(detector.arePolytopesColliding(cubeOne, cubeTwo, closestPointOnA, closestPointOnB));
+      assertEquals(1.0, closestPointOnA.distance(closestPointOnB), 1e-7);
+      assertEquals(1.0, closestPointOnA.getX(), 1e-7);
+      assertEquals(2.0, closestPointOnB.getX(), 1e-7);
+
+      Vector3d separatingVector = new Vector3d();
+      detector.getSeparatingVector(separatingVector);
+      JUnitTools.assertTuple3dEquals(new Vector3d(1.0, 0.0, 0.0), separatingVector, 1e-7);
+
+      translateObject(cubeTwo, new Vector3d(-1.5, 0.0, 0.0));
+      assertTrue(detector.arePolytopesColliding(cubeOne, cubeTwo, closestPointOnA, closestPointOnB));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSameResultsAsGilbertJohnsonKeerthiCollisionDetector()
+   {
+      Random random = new Random(1776L);
+
+      GilbertJohnsonKeerthiCollisionDetector expectedDetector = new GilbertJohnsonKeerthiCollisionDetector();
+      GarbageFreeGilbertJohnsonKeerthiCollisionDetector detector = new GarbageFreeGilbertJohnsonKeerthiCollisionDetector();
+      detector.setUseWarmStart(false);
+
+      Point3d expectedPointOnA = new Point3d();
+      Point3d expectedPointOnB = new Point3d();
+      Point3d pointOnA = new Point3d();
+      Point3d pointOnB = new Point3d();
+
+      int numberOfCollisions = 0;
+      int numberOfTests = 1000;
+
+      for (int i = 0; i < numberOfTests; i++)
+      {
+         ConvexPolytope polytopeOne = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 20, 1.0, 0.5);
+         ConvexPolytope polytopeTwo = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 20, 1.0, 0.5);
+         translateObject(polytopeTwo, RandomTools.generateRandomVector(random, 2.5 * random.nextDouble()));
+
+         boolean expectedAreColliding = expectedDetector.arePolytopesColliding(polytopeOne, polytopeTwo, expectedPointOnA, expectedPointOnB);
+         boolean areColliding = detector.arePolytopesColliding(polytopeOne, polytopeTwo, pointOnA, pointOnB);
+
+         double expectedDistance = expectedPointOnA.distance(expectedPointOnB);
+         double distance = pointOnA.distance(pointOnB);
+
+         if (expectedAreColliding != areColliding)
+         {
+            // Only allowed when the polytopes are barely touching.
+            assertEquals(0.0, expectedDistance, 1e-4);
+            assertEquals(0.0, distance, 1e-4);
+            continue;
+         }
+
+         if (areColliding)
+            numberOfCollisions++;
+         else
+            assertEquals(expectedDistance, distance, 1e-6);
+      }
+
+      assertTrue(numberOfCollisions > 100);
+      assertTrue(numberOfCollisions < numberOfTests - 100);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testWarmStartGivesSameResults()
+   {
+      Random random = new Random(1984L);
+
+      GarbageFreeGilbertJohnsonKeerthiCollisionDetector coldDetector = new GarbageFreeGilbertJohnsonKeerthiCollisionDetector();
+      GarbageFreeGilbertJohnsonKeerthiCollisionDetector warmDetector = new GarbageFreeGilbertJohnsonKeerthiCollisionDetector();
+      coldDetector.setUseWarmStart(false);
+
+      ConvexPolytope polytopeOne = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 50, 1.0, 0.5);
+      ConvexPolytope polytopeTwo = ConvexPolytopeConstructor.constructRandomSphereOutlinedPolytope(random, 50, 1.0, 0.5);
+      translateObject(polytopeTwo, new Vector3d(3.0, 0.0, 0.0));
+
+      Point3d coldPointOnA = new Point3d();
+      Point3d coldPointOnB = new Point3d();
+      Point3d warmPointOnA = new Point3d();
+      Point3d warmPointOnB = new Point3d();
+
+      RigidBodyTransform transform = new RigidBodyTransform();
+
+      for (int tick = 0; tick < 500; tick++)
+      {
+         transform.setRotationEulerAndZeroTranslation(0.01, 0.02, -0.01);
+         transform.setTranslation(RandomTools.generateRandomVector(random, 0.02));
+         polytopeTwo.applyTransform(transform);
+
+         boolean coldAreColliding = coldDetector.arePolytopesColliding(polytopeOne, polytopeTwo, coldPointOnA, coldPointOnB);
+         boolean warmAreColliding = warmDetector.arePolytopesColliding(polytopeOne, polytopeTwo, warmPointOnA, warmPointOnB);
+
+         assertEquals(coldAreColliding, warmAreColliding);
+
+         if (!coldAreColliding)
+            assertEquals(coldPointOnA.distance(coldPointOnB), warmPointOnA.distance(warmPointOnB), 1e-7);
+      }
+   }
+
+   private void translateObject(ConvexPolytope polytope, Vector3d translation)
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.setTranslation(translation);
+      polytope.applyTransform(transform);
+   }
+}
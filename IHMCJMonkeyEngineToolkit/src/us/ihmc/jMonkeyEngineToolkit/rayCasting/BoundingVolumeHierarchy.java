@@ -0,0 +1,345 @@
+package us.ihmc.jMonkeyEngineToolkit.rayCasting;
+
+/**
+ * Static bounding volume hierarchy over a triangle soup, used to cast rays on the CPU.
+ * <p>
+ * The tree is stored in flat arrays: for each node its axis-aligned bounds and either the index of its first child (the second one directly follows) or the
+ * range of its triangles. The triangles are reordered so that each leaf refers to a contiguous range, and are stored as one vertex and two edges as used by
+ * the Moller-Trumbore intersection test. The tree is built once and is then only read, so it can be shared between threads.
+ * </p>
+ */
+public class BoundingVolumeHierarchy
+{
+   private static final int MAX_TRIANGLES_PER_LEAF = 4;
+   private static final int MAX_DEPTH = RayPacket.STACK_SIZE / 2 - 1;
+   private static final float EPSILON = 1.0e-9f;
+
+   private final int numberOfTriangles;
+   /** For each triangle: {@code v0x, v0y, v0z, e1x, e1y, e1z, e2x, e2y, e2z} with {@code e1 = v1 - v0} and {@code e2 = v2 - v0}. */
+   private final float[] triangles;
+
+   private int numberOfNodes = 0;
+   /** For each node: {@code xMin, yMin, zMin, xMax, yMax, zMax}. */
+   private float[] nodeBounds;
+   /** For each node: the index of the first child if {@link #nodeTriangleCount} is 0, the index of the first triangle otherwise. */
+   private int[] nodeFirstChildOrTriangle;
+   private int[] nodeTriangleCount;
+   private byte[] nodeSplitAxis;
+
+   /**
+    * @param vertices the vertices of the triangles, packed as {@code x0, y0, z0, x1, y1, z1, x2, y2, z2} for each triangle.
+    */
+   public BoundingVolumeHierarchy(float[] vertices)
+   {
+      if (vertices.length % 9 != 0)
+         throw new RuntimeException("The number of vertex coordinates must be a multiple of 9, was " + vertices.length);
+
+      numberOfTriangles = vertices.length / 9;
+      triangles = new float[vertices.length];
+
+      int maxNumberOfNodes = Math.max(1, 2 * numberOfTriangles - 1);
+      nodeBounds = new float[6 * maxNumberOfNodes];
+      nodeFirstChildOrTriangle = new int[maxNumberOfNodes];
+      nodeTriangleCount = new int[maxNumberOfNodes];
+      nodeSplitAxis = new byte[maxNumberOfNodes];
+
+      if (numberOfTriangles == 0)
+      {
+         setEmptyBounds(0);
+         numberOfNodes = 1;
+         return;
+      }
+
+      int[] triangleOrder = new int[numberOfTriangles];
+      float[] centroids = new float[3 * numberOfTriangles];
+      for (int i = 0; i < numberOfTriangles; i++)
+      {
+         triangleOrder[i] = i;
+         for (int axis = 0; axis < 3; axis++)
+            centroids[3 * i + axis] = (vertices[9 * i + axis] + vertices[9 * i + 3 + axis] + vertices[9 * i + 6 + axis]) / 3.0f;
+      }
+
+      numberOfNodes = 1;
+      buildNode(0, 0, numberOfTriangles, 0, vertices, centroids, triangleOrder);
+
+      for (int i = 0; i < numberOfTriangles; i++)
+      {
+         int source = 9 * triangleOrder[i];
+         int destination = 9 * i;
+         for (int axis = 0; axis < 3; axis++)
+         {
+            float v0 = vertices[source + axis];
+            triangles[destination + axis] = v0;
+            triangles[destination + 3 + axis] = vertices[source + 3 + axis] - v0;
+            triangles[destination + 6 + axis] = vertices[source + 6 + axis] - v0;
+         }
+      }
+   }
+
+   private void buildNode(int node, int start, int end, int depth, float[] vertices, float[] centroids, int[] triangleOrder)
+   {
+      setEmptyBounds(node);
+      float centroidMinX = Float.POSITIVE_INFINITY, centroidMinY = Float.POSITIVE_INFINITY, centroidMinZ = Float.POSITIVE_INFINITY;
+      float centroidMaxX = Float.NEGATIVE_INFINITY, centroidMaxY = Float.NEGATIVE_INFINITY, centroidMaxZ = Float.NEGATIVE_INFINITY;
+
+      for (int i = start; i < end; i++)
+      {
+         int triangle = triangleOrder[i];
+         for (int vertex = 0; vertex < 3; vertex++)
+            expandBounds(node, vertices, 9 * triangle + 3 * vertex);
+
+         centroidMinX = Math.min(centroidMinX, centroids[3 * triangle]);
+         centroidMinY = Math.min(centroidMinY, centroids[3 * triangle + 1]);
+         centroidMinZ = Math.min(centroidMinZ, centroids[3 * triangle + 2]);
+         centroidMaxX = Math.max(centroidMaxX, centroids[3 * triangle]);
+         centroidMaxY = Math.max(centroidMaxY, centroids[3 * triangle + 1]);
+         centroidMaxZ = Math.max(centroidMaxZ, centroids[3 * triangle + 2]);
+      }
+
+      float extentX = centroidMaxX - centroidMinX;
+      float extentY = centroidMaxY - centroidMinY;
+      float extentZ = centroidMaxZ - centroidMinZ;
+
+      if (end - start <= MAX_TRIANGLES_PER_LEAF || depth >= MAX_DEPTH || Math.max(extentX, Math.max(extentY, extentZ)) <= 0.0f)
+      {
+         nodeFirstChildOrTriangle[node] = start;
+         nodeTriangleCount[node] = end - start;
+         return;
+      }
+
+      int axis = extentX >= extentY && extentX >= extentZ ? 0 : (extentY >= extentZ ? 1 : 2);
+      int middle = (start + end) >>> 1;
+      selectMedian(triangleOrder, centroids, axis, start, end - 1, middle);
+
+      int leftChild = numberOfNodes;
+      numberOfNodes += 2;
+      nodeFirstChildOrTriangle[node] = leftChild;
+      nodeTriangleCount[node] = 0;
+      nodeSplitAxis[node] = (byte) axis;
+
+      buildNode(leftChild, start, middle, depth + 1, vertices, centroids, triangleOrder);
+      buildNode(leftChild + 1, middle, end, depth + 1, vertices, centroids, triangleOrder);
+   }
+
+   /**
+    * Partially sorts {@code triangleOrder} between {@code left} and {@code right} inclusive so that the triangle at {@code k} has the median centroid along
+    * {@code axis}, the ones before it being smaller and the ones after it being larger.
+    */
+   private static void selectMedian(int[] triangleOrder, float[] centroids, int axis, int left, int right, int k)
+   {
+      while (right > left)
+      {
+         float pivot = centroids[3 * triangleOrder[(left + right) >>> 1] + axis];
+         int i = left;
+         int j = right;
+
+         while (i <= j)
+         {
+            while (centroids[3 * triangleOrder[i] + axis] < pivot)
+               i++;
+            while (centroids[3 * triangleOrder[j] + axis] > pivot)
+               j--;
+
+            if (i <= j)
+            {
+               int temp = triangleOrder[i];
+               triangleOrder[i] = triangleOrder[j];
+               triangleOrder[j] = temp;
+               i++;
+               j--;
+            }
+         }
+
+         if (k <= j)
+            right = j;
+         else if (k >= i)
+            left = i;
+         else
+            return;
+      }
+   }
+
+   private void setEmptyBounds(int node)
+   {
+      for (int axis = 0; axis < 3; axis++)
+      {
+         nodeBounds[6 * node + axis] = Float.POSITIVE_INFINITY;
+         nodeBounds[6 * node + 3 + axis] = Float.NEGATIVE_INFINITY;
+      }
+   }
+
+   private void expandBounds(int node, float[] vertices, int vertexIndex)
+   {
+      for (int axis = 0; axis < 3; axis++)
+      {
+         float value = vertices[vertexIndex + axis];
+         nodeBounds[6 * node + axis] = Math.min(nodeBounds[6 * node + axis], value);
+         nodeBounds[6 * node + 3 + axis] = Math.max(nodeBounds[6 * node + 3 + axis], value);
+      }
+   }
+
+   /**
+    * Finds the closest intersection of a single ray with the triangles.
+    *
+    * @return the distance along {@code direction} to the closest hit in {@code [tMin, tMax]}, or {@link Double#POSITIVE_INFINITY} if there is none.
+    */
+   public double castRay(double originX, double originY, double originZ, double directionX, double directionY, double directionZ, double tMin, double tMax)
+   {
+      RayPacket rayPacket = new RayPacket(1);
+      rayPacket.setOrigin(originX, originY, originZ);
+      rayPacket.setRange(tMin, tMax);
+      rayPacket.addDirection(directionX, directionY, directionZ);
+      castRayPacket(rayPacket);
+      return rayPacket.getDistance(0);
+   }
+
+   /**
+    * Casts all the rays of the packet at once. The rays share the same origin, so the tree is traversed once for the whole packet: a node is visited if any
+    * of the rays still active hits its bounds, and the per-ray work in the nodes and leaves is done in simple loops over the packet arrays that the JIT can
+    * unroll and vectorize. The results are packed in the packet, see {@link RayPacket#getDistance(int)}.
+    */
+   public void castRayPacket(RayPacket rayPacket)
+   {
+      rayPacket.resetDistances();
+
+      int size = rayPacket.size();
+      if (size == 0 || numberOfTriangles == 0)
+         return;
+
+      float originX = (float) rayPacket.getOriginX();
+      float originY = (float) rayPacket.getOriginY();
+      float originZ = (float) rayPacket.getOriginZ();
+      float tMin = (float) rayPacket.getMinRange();
+
+      float[] directionX = rayPacket.directionX;
+      float[] directionY = rayPacket.directionY;
+      float[] directionZ = rayPacket.directionZ;
+      float[] inverseDirectionX = rayPacket.inverseDirectionX;
+      float[] inverseDirectionY = rayPacket.inverseDirectionY;
+      float[] inverseDirectionZ = rayPacket.inverseDirectionZ;
+      float[] tFar = rayPacket.tFar;
+      float[] nodeEntry = rayPacket.nodeEntry;
+      int[] stack = rayPacket.stack;
+
+      int stackSize = 0;
+      stack[stackSize++] = 0;
+
+      while (stackSize > 0)
+      {
+         int node = stack[--stackSize];
+
+         if (!intersectNodeBounds(node, originX, originY, originZ, tMin, inverseDirectionX, inverseDirectionY, inverseDirectionZ, tFar, nodeEntry, size))
+            continue;
+
+         int triangleCount = nodeTriangleCount[node];
+
+         if (triangleCount > 0)
+         {
+            int firstTriangle = nodeFirstChildOrTriangle[node];
+            for (int triangle = firstTriangle; triangle < firstTriangle + triangleCount; triangle++)
+               intersectTriangle(triangle, originX, originY, originZ, tMin, directionX, directionY, directionZ, tFar, size);
+         }
+         else
+         {
+            // Visits first the child that is closer to the origin along the split axis, for the packet's average direction, so that the ranges shrink early.
+            int leftChild = nodeFirstChildOrTriangle[node];
+            int axis = nodeSplitAxis[node];
+            float[] direction = axis == 0 ? directionX : (axis == 1 ? directionY : directionZ);
+            float directionSum = 0.0f;
+            for (int i = 0; i < size; i++)
+               directionSum += direction[i];
+
+            if (directionSum >= 0.0f)
+            {
+               stack[stackSize++] = leftChild + 1;
+               stack[stackSize++] = leftChild;
+            }
+            else
+            {
+               stack[stackSize++] = leftChild;
+               stack[stackSize++] = leftChild + 1;
+            }
+         }
+      }
+
+      rayPacket.packDistances();
+   }
+
+   private boolean intersectNodeBounds(int node, float originX, float originY, float originZ, float tMin, float[] inverseDirectionX,
+                                       float[] inverseDirectionY, float[] inverseDirectionZ, float[] tFar, float[] nodeEntry, int size)
+   {
+      int boundsIndex = 6 * node;
+      float xMin = nodeBounds[boundsIndex] - originX;
+      float yMin = nodeBounds[boundsIndex + 1] - originY;
+      float zMin = nodeBounds[boundsIndex + 2] - originZ;
+      float xMax = nodeBounds[boundsIndex + 3] - originX;
+      float yMax = nodeBounds[boundsIndex + 4] - originY;
+      float zMax = nodeBounds[boundsIndex + 5] - originZ;
+
+      // Slab test without branches, one entry distance per ray. The node is missed by a ray when the entry distance is larger than the exit distance.
+      for (int i = 0; i < size; i++)
+      {
+         float tx0 = xMin * inverseDirectionX[i];
+         float tx1 = xMax * inverseDirectionX[i];
+         float ty0 = yMin * inverseDirectionY[i];
+         float ty1 = yMax * inverseDirectionY[i];
+         float tz0 = zMin * inverseDirectionZ[i];
+         float tz1 = zMax * inverseDirectionZ[i];
+
+         float entry = Math.max(Math.max(Math.min(tx0, tx1), Math.min(ty0, ty1)), Math.max(Math.min(tz0, tz1), tMin));
+         float exit = Math.min(Math.min(Math.max(tx0, tx1), Math.max(ty0, ty1)), Math.min(Math.max(tz0, tz1), tFar[i]));
+         nodeEntry[i] = entry <= exit ? entry : Float.POSITIVE_INFINITY;
+      }
+
+      for (int i = 0; i < size; i++)
+      {
+         if (nodeEntry[i] != Float.POSITIVE_INFINITY)
+            return true;
+      }
+      return false;
+   }
+
+   private void intersectTriangle(int triangle, float originX, float originY, float originZ, float tMin, float[] directionX, float[] directionY,
+                                  float[] directionZ, float[] tFar, int size)
+   {
+      int index = 9 * triangle;
+      float e1x = triangles[index + 3], e1y = triangles[index + 4], e1z = triangles[index + 5];
+      float e2x = triangles[index + 6], e2y = triangles[index + 7], e2z = triangles[index + 8];
+
+      // The origin is shared by the whole packet, so the terms that only depend on it and on the triangle are computed once.
+      float sx = originX - triangles[index];
+      float sy = originY - triangles[index + 1];
+      float sz = originZ - triangles[index + 2];
+      float qx = sy * e1z - sz * e1y;
+      float qy = sz * e1x - sx * e1z;
+      float qz = sx * e1y - sy * e1x;
+      float qDotE2 = qx * e2x + qy * e2y + qz * e2z;
+
+      for (int i = 0; i < size; i++)
+      {
+         float dx = directionX[i], dy = directionY[i], dz = directionZ[i];
+         float px = dy * e2z - dz * e2y;
+         float py = dz * e2x - dx * e2z;
+         float pz = dx * e2y - dy * e2x;
+         float determinant = e1x * px + e1y * py + e1z * pz;
+         float inverseDeterminant = 1.0f / determinant;
+
+         float u = (sx * px + sy * py + sz * pz) * inverseDeterminant;
+         float v = (qx * dx + qy * dy + qz * dz) * inverseDeterminant;
+         float t = qDotE2 * inverseDeterminant;
+
+         boolean hit = Math.abs(determinant) > EPSILON && u >= 0.0f && v >= 0.0f && u + v <= 1.0f && t >= tMin && t < tFar[i];
+         tFar[i] = hit ? t : tFar[i];
+      }
+   }
+
+   public int getNumberOfTriangles()
+   {
+      return numberOfTriangles;
+   }
+
+   public int getNumberOfNodes()
+   {
+      return numberOfNodes;
+   }
+}
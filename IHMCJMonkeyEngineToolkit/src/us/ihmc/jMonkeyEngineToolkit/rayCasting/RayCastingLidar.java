@@ -0,0 +1,210 @@
+package us.ihmc.jMonkeyEngineToolkit.rayCasting;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import us.ihmc.jMonkeyEngineToolkit.GPULidar;
+import us.ihmc.jMonkeyEngineToolkit.GPULidarListener;
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.robotics.lidar.LidarScanParameters;
+
+/**
+ * {@link GPULidar} that casts the rays on the CPU against a {@link BoundingVolumeHierarchy}, so lidar simulations can run without a display or a GPU.
+ * <p>
+ * The rays of each scan line are grouped in small packets sharing the lidar origin, and the packets are cast in parallel on a {@link ForkJoinPool}.
+ * The scans have the same layout as the ones of the GPU lidar: {@code scanHeight} lines of {@code pointsPerSweep} ranges, a range of 0 meaning no hit.
+ * The scene is static: only the geometry given to the hierarchy is seen, the robot does not see itself.
+ * </p>
+ */
+public class RayCastingLidar implements GPULidar
+{
+   private static final int RAYS_PER_PACKET = 16;
+   private static final int PACKETS_PER_TASK = 8;
+   private static final double DEFAULT_SCAN_PERIOD = 1.0 / 40.0;
+
+   private final BoundingVolumeHierarchy boundingVolumeHierarchy;
+   private final ForkJoinPool forkJoinPool;
+   private final ArrayList<GPULidarListener> listeners = new ArrayList<GPULidarListener>();
+
+   private final int pointsPerSweep;
+   private final int scanHeight;
+   private final int packetsPerLine;
+   private final double minRange;
+   private final double maxRange;
+   private double scanPeriod;
+
+   /** Ray directions in the lidar frame, in scan order. */
+   private final float[] localDirections;
+   private final float[] worldDirections;
+   private final float[] scan;
+
+   private final RigidBodyTransform lidarTransform = new RigidBodyTransform();
+   private double originX, originY, originZ;
+   private double lastScanTime = Double.NEGATIVE_INFINITY;
+
+   private final ThreadLocal<RayPacket> rayPackets = new ThreadLocal<RayPacket>()
+   {
+      @Override
+      protected RayPacket initialValue()
+      {
+         return new RayPacket(RAYS_PER_PACKET);
+      }
+   };
+
+   public RayCastingLidar(BoundingVolumeHierarchy boundingVolumeHierarchy, LidarScanParameters lidarScanParameters)
+   {
+      this(boundingVolumeHierarchy, lidarScanParameters, ForkJoinPool.commonPool());
+   }
+
+   public RayCastingLidar(BoundingVolumeHierarchy boundingVolumeHierarchy, LidarScanParameters lidarScanParameters, ForkJoinPool forkJoinPool)
+   {
+      this.boundingVolumeHierarchy = boundingVolumeHierarchy;
+      this.forkJoinPool = forkJoinPool;
+
+      pointsPerSweep = lidarScanParameters.getPointsPerSweep();
+      scanHeight = Math.max(1, lidarScanParameters.getScanHeight());
+      packetsPerLine = (pointsPerSweep + RAYS_PER_PACKET - 1) / RAYS_PER_PACKET;
+      minRange = lidarScanParameters.getMinRange();
+      maxRange = lidarScanParameters.getMaxRange();
+      scanPeriod = lidarScanParameters.getScanTime() > 0.0f ? lidarScanParameters.getScanTime() : DEFAULT_SCAN_PERIOD;
+
+      int numberOfRays = pointsPerSweep * scanHeight;
+      localDirections = new float[3 * numberOfRays];
+      worldDirections = new float[3 * numberOfRays];
+      scan = new float[numberOfRays];
+
+      double yawPerIndex = pointsPerSweep > 1 ? (lidarScanParameters.sweepYawMax - lidarScanParameters.sweepYawMin) / (pointsPerSweep - 1) : 0.0;
+      double pitchPerIndex = scanHeight > 1 ? (lidarScanParameters.heightPitchMax - lidarScanParameters.heightPitchMin) / (scanHeight - 1) : 0.0;
+
+      for (int line = 0; line < scanHeight; line++)
+      {
+         double pitch = lidarScanParameters.heightPitchMin + pitchPerIndex * line;
+         for (int point = 0; point < pointsPerSweep; point++)
+         {
+            double yaw = lidarScanParameters.sweepYawMin + yawPerIndex * point;
+            int index = 3 * (line * pointsPerSweep + point);
+            localDirections[index] = (float) (Math.cos(yaw) * Math.cos(pitch));
+            localDirections[index + 1] = (float) (Math.sin(yaw) * Math.cos(pitch));
+            localDirections[index + 2] = (float) -Math.sin(pitch);
+         }
+      }
+   }
+
+   /**
+    * Sets the time between two scans, in seconds. By default the scan time of the lidar parameters is used, or 40Hz if it is not set.
+    */
+   public void setScanPeriod(double scanPeriod)
+   {
+      this.scanPeriod = scanPeriod;
+   }
+
+   @Override
+   public void setTransformFromWorld(RigidBodyTransform transformToWorld, double time)
+   {
+      if (time - lastScanTime < scanPeriod && time >= lastScanTime)
+         return;
+
+      lastScanTime = time;
+      scan(transformToWorld);
+
+      for (int i = 0; i < listeners.size(); i++)
+         listeners.get(i).scan(scan, lidarTransform, time);
+   }
+
+   /**
+    * Casts all the rays from the given lidar pose.
+    *
+    * @return the ranges, the array is reused for the next scan.
+    */
+   public float[] scan(RigidBodyTransform transformToWorld)
+   {
+      lidarTransform.set(transformToWorld);
+      originX = lidarTransform.mat03;
+      originY = lidarTransform.mat13;
+      originZ = lidarTransform.mat23;
+
+      for (int i = 0; i < localDirections.length; i += 3)
+      {
+         double x = localDirections[i];
+         double y = localDirections[i + 1];
+         double z = localDirections[i + 2];
+         worldDirections[i] = (float) (lidarTransform.mat00 * x + lidarTransform.mat01 * y + lidarTransform.mat02 * z);
+         worldDirections[i + 1] = (float) (lidarTransform.mat10 * x + lidarTransform.mat11 * y + lidarTransform.mat12 * z);
+         worldDirections[i + 2] = (float) (lidarTransform.mat20 * x + lidarTransform.mat21 * y + lidarTransform.mat22 * z);
+      }
+
+      forkJoinPool.invoke(new ScanTask(0, scanHeight * packetsPerLine));
+      return scan;
+   }
+
+   private void castPackets(int firstPacket, int endPacket)
+   {
+      RayPacket rayPacket = rayPackets.get();
+
+      for (int packet = firstPacket; packet < endPacket; packet++)
+      {
+         int line = packet / packetsPerLine;
+         int firstRay = line * pointsPerSweep + (packet % packetsPerLine) * RAYS_PER_PACKET;
+         int endRay = Math.min(firstRay + RAYS_PER_PACKET, (line + 1) * pointsPerSweep);
+
+         rayPacket.clear();
+         rayPacket.setOrigin(originX, originY, originZ);
+         rayPacket.setRange(minRange, maxRange);
+         for (int ray = firstRay; ray < endRay; ray++)
+            rayPacket.addDirection(worldDirections[3 * ray], worldDirections[3 * ray + 1], worldDirections[3 * ray + 2]);
+
+         boundingVolumeHierarchy.castRayPacket(rayPacket);
+
+         for (int ray = firstRay; ray < endRay; ray++)
+         {
+            double distance = rayPacket.getDistance(ray - firstRay);
+            scan[ray] = Double.isInfinite(distance) ? 0.0f : (float) distance;
+         }
+      }
+   }
+
+   private class ScanTask extends RecursiveAction
+   {
+      private static final long serialVersionUID = -3447461367813287641L;
+
+      private final int firstPacket;
+      private final int endPacket;
+
+      public ScanTask(int firstPacket, int endPacket)
+      {
+         this.firstPacket = firstPacket;
+         this.endPacket = endPacket;
+      }
+
+      @Override
+      protected void compute()
+      {
+         if (endPacket - firstPacket <= PACKETS_PER_TASK)
+         {
+            castPackets(firstPacket, endPacket);
+         }
+         else
+         {
+            int middle = (firstPacket + endPacket) >>> 1;
+            invokeAll(new ScanTask(firstPacket, middle), new ScanTask(middle, endPacket));
+         }
+      }
+   }
+
+   @Override
+   public void addGPULidarListener(GPULidarListener listener)
+   {
+      listeners.add(listener);
+   }
+
+   public int getPointsPerSweep()
+   {
+      return pointsPerSweep;
+   }
+
+   public int getScanHeight()
+   {
+      return scanHeight;
+   }
+}
@@ -0,0 +1,149 @@
+package us.ihmc.jMonkeyEngineToolkit.rayCasting;
+
+/**
+ * Group of rays sharing the same origin and range, cast together by {@link BoundingVolumeHierarchy#castRayPacket(RayPacket)}.
+ * The directions and results are stored in parallel arrays so that the traversal can process all the rays of the packet in straight loops.
+ * A packet is meant to be reused: {@link #clear()} it, add the directions, cast it, and read the distances.
+ */
+public class RayPacket
+{
+   static final int STACK_SIZE = 256;
+   private static final float SMALLEST_DIRECTION_COMPONENT = 1.0e-20f;
+
+   private final int capacity;
+   private int size = 0;
+
+   private double originX, originY, originZ;
+   private double minRange = 0.0;
+   private double maxRange = Double.POSITIVE_INFINITY;
+   private float initialFar;
+
+   final float[] directionX;
+   final float[] directionY;
+   final float[] directionZ;
+   final float[] inverseDirectionX;
+   final float[] inverseDirectionY;
+   final float[] inverseDirectionZ;
+   final float[] tFar;
+   final float[] nodeEntry;
+   final int[] stack = new int[STACK_SIZE];
+
+   private final double[] distances;
+
+   public RayPacket(int capacity)
+   {
+      this.capacity = capacity;
+      directionX = new float[capacity];
+      directionY = new float[capacity];
+      directionZ = new float[capacity];
+      inverseDirectionX = new float[capacity];
+      inverseDirectionY = new float[capacity];
+      inverseDirectionZ = new float[capacity];
+      tFar = new float[capacity];
+      nodeEntry = new float[capacity];
+      distances = new double[capacity];
+   }
+
+   public void clear()
+   {
+      size = 0;
+   }
+
+   public void setOrigin(double x, double y, double z)
+   {
+      originX = x;
+      originY = y;
+      originZ = z;
+   }
+
+   /**
+    * Only the hits with a distance in {@code [minRange, maxRange)} are reported.
+    */
+   public void setRange(double minRange, double maxRange)
+   {
+      this.minRange = minRange;
+      this.maxRange = maxRange;
+   }
+
+   /**
+    * Adds a ray to the packet. The distances are expressed in multiples of the direction, so it should be a unit vector to get metric distances.
+    */
+   public void addDirection(double x, double y, double z)
+   {
+      if (size >= capacity)
+         throw new RuntimeException("The packet is full, capacity = " + capacity);
+
+      directionX[size] = (float) x;
+      directionY[size] = (float) y;
+      directionZ[size] = (float) z;
+      // Avoids infinite inverses so the slab test never computes 0 * infinity.
+      inverseDirectionX[size] = 1.0f / nonZero((float) x);
+      inverseDirectionY[size] = 1.0f / nonZero((float) y);
+      inverseDirectionZ[size] = 1.0f / nonZero((float) z);
+      size++;
+   }
+
+   private static float nonZero(float value)
+   {
+      return Math.abs(value) < SMALLEST_DIRECTION_COMPONENT ? SMALLEST_DIRECTION_COMPONENT : value;
+   }
+
+   void resetDistances()
+   {
+      initialFar = (float) Math.min(maxRange, Float.MAX_VALUE);
+      for (int i = 0; i < size; i++)
+      {
+         tFar[i] = initialFar;
+         distances[i] = Double.POSITIVE_INFINITY;
+      }
+   }
+
+   void packDistances()
+   {
+      for (int i = 0; i < size; i++)
+         distances[i] = tFar[i] < initialFar ? tFar[i] : Double.POSITIVE_INFINITY;
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public int capacity()
+   {
+      return capacity;
+   }
+
+   /**
+    * @return the distance to the closest hit of the ray at {@code index}, or {@link Double#POSITIVE_INFINITY} if it did not hit anything in range.
+    */
+   public double getDistance(int index)
+   {
+      return distances[index];
+   }
+
+   public double getOriginX()
+   {
+      return originX;
+   }
+
+   public double getOriginY()
+   {
+      return originY;
+   }
+
+   public double getOriginZ()
+   {
+      return originZ;
+   }
+
+   public double getMinRange()
+   {
+      return minRange;
+   }
+
+   public double getMaxRange()
+   {
+      return maxRange;
+   }
+}
@@ -0,0 +1,310 @@
+package us.ihmc.jMonkeyEngineToolkit.rayCasting;
+
+import javax.vecmath.Matrix3d;
+import javax.vecmath.Matrix4d;
+import javax.vecmath.Point3d;
+import javax.vecmath.Point3f;
+import javax.vecmath.Vector3d;
+
+import gnu.trove.list.array.TFloatArrayList;
+import us.ihmc.graphicsDescription.Graphics3DObject;
+import us.ihmc.graphicsDescription.HeightMap;
+import us.ihmc.graphicsDescription.MeshDataGenerator;
+import us.ihmc.graphicsDescription.MeshDataHolder;
+import us.ihmc.graphicsDescription.instructions.ArcTorusGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CapsuleGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.ConeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CubeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CylinderGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.EllipsoidGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.ExtrudedPolygonGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddExtrusionInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddHeightMapInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddMeshDataInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddModelFileInstruction;
+import us.ihmc.graphicsDescription.instructions.HemiEllipsoidGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PolygonGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PrimitiveGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.PyramidCubeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.SphereGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.TruncatedConeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.WedgeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DRotateInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DScaleInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DTranslateInstruction;
+import us.ihmc.jMonkeyEngineToolkit.graphics.Graphics3DInstructionExecutor;
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+
+/**
+ * Collects the triangles of {@link Graphics3DObject}s and {@link MeshDataHolder}s, expressed in world, to build a {@link BoundingVolumeHierarchy}.
+ * Model files and extrusions are not supported and are skipped with a warning.
+ */
+public class TriangleMeshCollector extends Graphics3DInstructionExecutor
+{
+   private final TFloatArrayList triangles = new TFloatArrayList();
+
+   private final Matrix4d graphicsToWorld = new Matrix4d();
+   private final Matrix4d currentTransform = new Matrix4d();
+   private final Matrix4d tempTransform = new Matrix4d();
+   private final Point3d tempPoint = new Point3d();
+
+   public TriangleMeshCollector()
+   {
+      graphicsToWorld.setIdentity();
+      currentTransform.setIdentity();
+   }
+
+   public void addGraphics(Graphics3DObject graphics)
+   {
+      addGraphics(graphics, new RigidBodyTransform());
+   }
+
+   public void addGraphics(Graphics3DObject graphics, RigidBodyTransform transformToWorld)
+   {
+      if (graphics == null)
+         return;
+
+      transformToWorld.get(graphicsToWorld);
+      currentTransform.set(graphicsToWorld);
+      setUpGraphicsFromDefinition(graphics.getGraphics3DInstructions());
+   }
+
+   public void addMeshData(MeshDataHolder meshData, RigidBodyTransform transformToWorld)
+   {
+      transformToWorld.get(tempTransform);
+      addMeshData(meshData, tempTransform);
+   }
+
+   public void addTriangle(double x0, double y0, double z0, double x1, double y1, double z1, double x2, double y2, double z2)
+   {
+      triangles.add((float) x0);
+      triangles.add((float) y0);
+      triangles.add((float) z0);
+      triangles.add((float) x1);
+      triangles.add((float) y1);
+      triangles.add((float) z1);
+      triangles.add((float) x2);
+      triangles.add((float) y2);
+      triangles.add((float) z2);
+   }
+
+   public int getNumberOfTriangles()
+   {
+      return triangles.size() / 9;
+   }
+
+   /**
+    * @return the vertices of the triangles packed as {@code x0, y0, z0, x1, y1, z1, x2, y2, z2} for each triangle.
+    */
+   public float[] getTriangles()
+   {
+      return triangles.toArray();
+   }
+
+   public BoundingVolumeHierarchy createBoundingVolumeHierarchy()
+   {
+      return new BoundingVolumeHierarchy(getTriangles());
+   }
+
+   private void addMeshData(MeshDataHolder meshData, Matrix4d transformToWorld)
+   {
+      Point3f[] vertices = meshData.getVertices();
+      int[] triangleIndices = meshData.getTriangleIndices();
+
+      for (int i = 0; i + 2 < triangleIndices.length; i += 3)
+      {
+         for (int j = 0; j < 3; j++)
+         {
+            tempPoint.set(vertices[triangleIndices[i + j]]);
+            transformToWorld.transform(tempPoint);
+            triangles.add((float) tempPoint.getX());
+            triangles.add((float) tempPoint.getY());
+            triangles.add((float) tempPoint.getZ());
+         }
+      }
+   }
+
+   @Override
+   protected void doAddMeshDataInstruction(Graphics3DAddMeshDataInstruction graphics3DAddMeshData)
+   {
+      addMeshData(graphics3DAddMeshData.getMeshData(), currentTransform);
+   }
+
+   @Override
+   protected void doAddHeightMapInstruction(Graphics3DAddHeightMapInstruction graphics3DAddHeightMap)
+   {
+      HeightMap heightMap = graphics3DAddHeightMap.getHeightMap();
+      double xMin = heightMap.getBoundingBox().getXMin();
+      double xMax = heightMap.getBoundingBox().getXMax();
+      double yMin = heightMap.getBoundingBox().getYMin();
+      double yMax = heightMap.getBoundingBox().getYMax();
+      double zMax = heightMap.getBoundingBox().getZMax();
+
+      if (Double.isInfinite(xMin) || Double.isInfinite(xMax) || Double.isInfinite(yMin) || Double.isInfinite(yMax))
+      {
+         System.err.println(getClass().getSimpleName() + ": Cannot sample a height map with an infinite bounding box, skipping it.");
+         return;
+      }
+
+      int xPoints = Math.max(2, graphics3DAddHeightMap.getXPointsPerSide());
+      int yPoints = Math.max(2, graphics3DAddHeightMap.getYPointsPerSide());
+      Point3f[] vertices = new Point3f[xPoints * yPoints];
+
+      for (int i = 0; i < xPoints; i++)
+      {
+         double x = xMin + (xMax - xMin) * i / (xPoints - 1);
+         for (int j = 0; j < yPoints; j++)
+         {
+            double y = yMin + (yMax - yMin) * j / (yPoints - 1);
+            vertices[i * yPoints + j] = new Point3f((float) x, (float) y, (float) heightMap.heightAt(x, y, zMax));
+         }
+      }
+
+      int[] triangleIndices = new int[6 * (xPoints - 1) * (yPoints - 1)];
+      int index = 0;
+      for (int i = 0; i < xPoints - 1; i++)
+      {
+         for (int j = 0; j < yPoints - 1; j++)
+         {
+            int corner = i * yPoints + j;
+            triangleIndices[index++] = corner;
+            triangleIndices[index++] = corner + yPoints;
+            triangleIndices[index++] = corner + yPoints + 1;
+            triangleIndices[index++] = corner;
+            triangleIndices[index++] = corner + yPoints + 1;
+            triangleIndices[index++] = corner + 1;
+         }
+      }
+
+      addMeshData(new MeshDataHolder(vertices, null, triangleIndices, null), currentTransform);
+   }
+
+   @Override
+   protected void doAddExtrusionInstruction(Graphics3DAddExtrusionInstruction graphics3DAddText)
+   {
+      System.err.println(getClass().getSimpleName() + ": Extrusions are not supported, skipping it.");
+   }
+
+   @Override
+   protected void doAddModelFileInstruction(Graphics3DAddModelFileInstruction graphics3DAddModelFile)
+   {
+      System.err.println(getClass().getSimpleName() + ": Model files are not supported, skipping " + graphics3DAddModelFile.getFileName());
+   }
+
+   @Override
+   protected void doIdentityInstruction()
+   {
+      currentTransform.set(graphicsToWorld);
+   }
+
+   @Override
+   protected void doRotateInstruction(Graphics3DRotateInstruction graphics3DRotateMatrix)
+   {
+      Matrix3d rotation = graphics3DRotateMatrix.getRotationMatrix();
+      tempTransform.set(rotation);
+      currentTransform.mul(tempTransform);
+   }
+
+   @Override
+   protected void doScaleInstruction(Graphics3DScaleInstruction graphics3DScale)
+   {
+      Vector3d scaleFactor = graphics3DScale.getScaleFactor();
+      tempTransform.setIdentity();
+      tempTransform.setM00(scaleFactor.getX());
+      tempTransform.setM11(scaleFactor.getY());
+      tempTransform.setM22(scaleFactor.getZ());
+      currentTransform.mul(tempTransform);
+   }
+
+   @Override
+   protected void doTranslateInstruction(Graphics3DTranslateInstruction graphics3DTranslate)
+   {
+      tempTransform.setIdentity();
+      tempTransform.setTranslation(graphics3DTranslate.getTranslation());
+      currentTransform.mul(tempTransform);
+   }
+
+   @Override
+   protected void doAddPrimitiveInstruction(PrimitiveGraphics3DInstruction primitiveInstruction)
+   {
+      addMeshData(createMeshData(primitiveInstruction), currentTransform);
+   }
+
+   private static MeshDataHolder createMeshData(PrimitiveGraphics3DInstruction primitiveInstruction)
+   {
+      if (primitiveInstruction instanceof CubeGraphics3DInstruction)
+      {
+         CubeGraphics3DInstruction cube = (CubeGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.Cube(cube.getLength(), cube.getWidth(), cube.getHeight(), cube.getCenteredInTheCenter(), cube.getTextureFaces());
+      }
+      else if (primitiveInstruction instanceof SphereGraphics3DInstruction)
+      {
+         SphereGraphics3DInstruction sphere = (SphereGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.Sphere(sphere.getRadius(), sphere.getResolution(), sphere.getResolution());
+      }
+      else if (primitiveInstruction instanceof WedgeGraphics3DInstruction)
+      {
+         WedgeGraphics3DInstruction wedge = (WedgeGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.Wedge(wedge.getLengthX(), wedge.getWidthY(), wedge.getHeightZ());
+      }
+      else if (primitiveInstruction instanceof CapsuleGraphics3DInstruction)
+      {
+         CapsuleGraphics3DInstruction capsule = (CapsuleGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.Capsule(capsule.getHeight(), capsule.getXRadius(), capsule.getYRadius(), capsule.getZRadius(), capsule.getResolution(),
+                                          capsule.getResolution());
+      }
+      else if (primitiveInstruction instanceof EllipsoidGraphics3DInstruction)
+      {
+         EllipsoidGraphics3DInstruction ellipsoid = (EllipsoidGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.Ellipsoid(ellipsoid.getXRadius(), ellipsoid.getYRadius(), ellipsoid.getZRadius(), ellipsoid.getResolution(),
+                                            ellipsoid.getResolution());
+      }
+      else if (primitiveInstruction instanceof CylinderGraphics3DInstruction)
+      {
+         CylinderGraphics3DInstruction cylinder = (CylinderGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.Cylinder(cylinder.getRadius(), cylinder.getHeight(), cylinder.getResolution());
+      }
+      else if (primitiveInstruction instanceof ConeGraphics3DInstruction)
+      {
+         ConeGraphics3DInstruction cone = (ConeGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.Cone(cone.getHeight(), cone.getRadius(), cone.getResolution());
+      }
+      else if (primitiveInstruction instanceof TruncatedConeGraphics3DInstruction)
+      {
+         TruncatedConeGraphics3DInstruction cone = (TruncatedConeGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.GenTruncatedCone(cone.getHeight(), cone.getXBaseRadius(), cone.getYBaseRadius(), cone.getXTopRadius(), cone.getYTopRadius(),
+                                                   cone.getResolution());
+      }
+      else if (primitiveInstruction instanceof HemiEllipsoidGraphics3DInstruction)
+      {
+         HemiEllipsoidGraphics3DInstruction hemiEllipsoid = (HemiEllipsoidGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.HemiEllipsoid(hemiEllipsoid.getXRadius(), hemiEllipsoid.getYRadius(), hemiEllipsoid.getZRadius(),
+                                                hemiEllipsoid.getResolution(), hemiEllipsoid.getResolution());
+      }
+      else if (primitiveInstruction instanceof ArcTorusGraphics3DInstruction)
+      {
+         ArcTorusGraphics3DInstruction arcTorus = (ArcTorusGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.ArcTorus(arcTorus.getStartAngle(), arcTorus.getEndAngle(), arcTorus.getMajorRadius(), arcTorus.getMinorRadius(),
+                                           arcTorus.getResolution());
+      }
+      else if (primitiveInstruction instanceof PyramidCubeGraphics3DInstruction)
+      {
+         PyramidCubeGraphics3DInstruction pyramid = (PyramidCubeGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.PyramidCube(pyramid.getLengthX(), pyramid.getWidthY(), pyramid.getHeightZ(), pyramid.getPyramidHeight());
+      }
+      else if (primitiveInstruction instanceof PolygonGraphics3DInstruction)
+      {
+         PolygonGraphics3DInstruction polygon = (PolygonGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.Polygon(polygon.getPolygonPoints());
+      }
+      else if (primitiveInstruction instanceof ExtrudedPolygonGraphics3DInstruction)
+      {
+         ExtrudedPolygonGraphics3DInstruction extrudedPolygon = (ExtrudedPolygonGraphics3DInstruction) primitiveInstruction;
+         return MeshDataGenerator.ExtrudedPolygon(extrudedPolygon.getPolygonPoints(), extrudedPolygon.getExtrusionHeight());
+      }
+      else
+      {
+         throw new RuntimeException("Need to support that primitive type! primitiveInstruction = " + primitiveInstruction);
+      }
+   }
+}
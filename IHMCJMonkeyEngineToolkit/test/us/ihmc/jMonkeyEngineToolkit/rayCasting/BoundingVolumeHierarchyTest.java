@@ -0,0 +1,179 @@
+package us.ihmc.jMonkeyEngineToolkit.rayCasting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import javax.vecmath.Vector3d;
+
+import org.junit.Test;
+
+import us.ihmc.graphicsDescription.Graphics3DObject;
+import us.ihmc.jMonkeyEngineToolkit.GPULidarListener;
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.robotics.lidar.LidarScanParameters;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class BoundingVolumeHierarchyTest
+{
+   private static final double EPSILON = 1.0e-4;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testRayPacketsMatchBruteForce()
+   {
+      Random random = new Random(1776L);
+      int numberOfTriangles = 500;
+      float[] vertices = new float[9 * numberOfTriangles];
+      for (int i = 0; i < numberOfTriangles; i++)
+      {
+         float centerX = 10.0f * (random.nextFloat() - 0.5f);
+         float centerY = 10.0f * (random.nextFloat() - 0.5f);
+         float centerZ = 10.0f * (random.nextFloat() - 0.5f);
+         for (int j = 0; j < 9; j += 3)
+         {
+            vertices[9 * i + j] = centerX + random.nextFloat() - 0.5f;
+            vertices[9 * i + j + 1] = centerY + random.nextFloat() - 0.5f;
+            vertices[9 * i + j + 2] = centerZ + random.nextFloat() - 0.5f;
+         }
+      }
+
+      BoundingVolumeHierarchy boundingVolumeHierarchy = new BoundingVolumeHierarchy(vertices);
+      assertEquals(numberOfTriangles, boundingVolumeHierarchy.getNumberOfTriangles());
+
+      RayPacket rayPacket = new RayPacket(16);
+      int numberOfHits = 0;
+
+      for (int packet = 0; packet < 50; packet++)
+      {
+         double originX = 12.0 * (random.nextDouble() - 0.5);
+         double originY = 12.0 * (random.nextDouble() - 0.5);
+         double originZ = 12.0 * (random.nextDouble() - 0.5);
+         rayPacket.clear();
+         rayPacket.setOrigin(originX, originY, originZ);
+         rayPacket.setRange(0.1, 20.0);
+
+         Vector3d[] directions = new Vector3d[rayPacket.capacity()];
+         for (int i = 0; i < directions.length; i++)
+         {
+            directions[i] = new Vector3d(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+            directions[i].normalize();
+            rayPacket.addDirection(directions[i].getX(), directions[i].getY(), directions[i].getZ());
+         }
+
+         boundingVolumeHierarchy.castRayPacket(rayPacket);
+
+         for (int i = 0; i < directions.length; i++)
+         {
+            double expected = castRayBruteForce(vertices, originX, originY, originZ, directions[i], 0.1, 20.0);
+            double actual = rayPacket.getDistance(i);
+
+            if (Double.isInfinite(expected))
+            {
+               assertTrue(Double.isInfinite(actual));
+            }
+            else
+            {
+               assertEquals(expected, actual, EPSILON);
+               numberOfHits++;
+            }
+
+            double single = boundingVolumeHierarchy.castRay(originX, originY, originZ, directions[i].getX(), directions[i].getY(), directions[i].getZ(), 0.1,
+                                                            20.0);
+            assertEquals(actual, single, 0.0);
+         }
+      }
+
+      assertTrue(numberOfHits > 0);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testLidarScanOfAGround()
+   {
+      Graphics3DObject ground = new Graphics3DObject();
+      ground.translate(0.0, 0.0, -0.5);
+      ground.addCube(20.0, 20.0, 0.5);
+
+      TriangleMeshCollector triangleMeshCollector = new TriangleMeshCollector();
+      triangleMeshCollector.addGraphics(ground);
+      assertEquals(12, triangleMeshCollector.getNumberOfTriangles());
+
+      int pointsPerSweep = 101;
+      int scanHeight = 5;
+      LidarScanParameters lidarScanParameters = new LidarScanParameters(pointsPerSweep, scanHeight, (float) -Math.PI / 4.0f, (float) Math.PI / 4.0f, 0.2f,
+                                                                        0.6f, 0.0f, 0.1f, 30.0f, 0.0f, 0L);
+      RayCastingLidar lidar = new RayCastingLidar(triangleMeshCollector.createBoundingVolumeHierarchy(), lidarScanParameters);
+
+      final float[][] scans = new float[1][];
+      lidar.addGPULidarListener(new GPULidarListener()
+      {
+         @Override
+         public void scan(float[] scan, RigidBodyTransform lidarTransform, double time)
+         {
+            scans[0] = scan.clone();
+         }
+      });
+
+      double height = 1.0;
+      RigidBodyTransform lidarToWorld = new RigidBodyTransform();
+      lidarToWorld.setTranslation(new Vector3d(0.0, 0.0, height));
+      lidar.setTransformFromWorld(lidarToWorld, 0.0);
+
+      // The top of the ground is at z = 0, the range of a ray pitched down by pitch is height / sin(pitch).
+      float[] scan = scans[0];
+      assertEquals(pointsPerSweep * scanHeight, scan.length);
+      for (int line = 0; line < scanHeight; line++)
+      {
+         double pitch = 0.2 + 0.1 * line;
+         for (int point = 0; point < pointsPerSweep; point++)
+         {
+            assertEquals(height / Math.sin(pitch), scan[line * pointsPerSweep + point], EPSILON);
+         }
+      }
+
+      // Looking up, nothing is hit.
+      scans[0] = null;
+      lidarToWorld.setRotationRollAndZeroTranslation(Math.PI);
+      lidarToWorld.setTranslation(new Vector3d(0.0, 0.0, height));
+      lidar.setTransformFromWorld(lidarToWorld, 1.0);
+      for (float range : scans[0])
+         assertEquals(0.0f, range, 0.0f);
+
+      // Not enough time since the last scan.
+      scans[0] = null;
+      lidar.setTransformFromWorld(lidarToWorld, 1.001);
+      assertTrue(scans[0] == null);
+   }
+
+   private static double castRayBruteForce(float[] vertices, double originX, double originY, double originZ, Vector3d direction, double tMin, double tMax)
+   {
+      double closest = Double.POSITIVE_INFINITY;
+      Vector3d e1 = new Vector3d();
+      Vector3d e2 = new Vector3d();
+      Vector3d s = new Vector3d();
+      Vector3d p = new Vector3d();
+      Vector3d q = new Vector3d();
+
+      for (int i = 0; i < vertices.length; i += 9)
+      {
+         e1.set(vertices[i + 3] - vertices[i], vertices[i + 4] - vertices[i + 1], vertices[i + 5] - vertices[i + 2]);
+         e2.set(vertices[i + 6] - vertices[i], vertices[i + 7] - vertices[i + 1], vertices[i + 8] - vertices[i + 2]);
+         s.set(originX - vertices[i], originY - vertices[i + 1], originZ - vertices[i + 2]);
+         p.cross(direction, e2);
+         double determinant = e1.dot(p);
+         if (Math.abs(determinant) < 1.0e-9)
+            continue;
+
+         q.cross(s, e1);
+         double u = s.dot(p) / determinant;
+         double v = direction.dot(q) / determinant;
+         double t = e2.dot(q) / determinant;
+         if (u >= 0.0 && v >= 0.0 && u + v <= 1.0 && t >= tMin && t < tMax)
+            closest = Math.min(closest, t);
+      }
+
+      return closest;
+   }
+}
@@ -150,6 +150,128 @@ public class SnappyUtils
       }
    }
    
+   /**
+    * Uncompress the first bytes of a Snappy compressed data packet, without decompressing the rest of it.
+    *
+    * The native library can only uncompress whole packets. This decodes the Snappy format in Java and stops as soon as the
+    * requested number of bytes is available, which is faster when only the start of a large packet is needed.
+    * The input is read with absolute gets, so it can be a direct or memory-mapped buffer and its position is not changed.
+    *
+    * @param input Snappy compressed data
+    * @param inputOffset Position of the compressed data in input
+    * @param inputLength Length of the compressed data
+    * @param output Decompressed data. Needs room for the whole uncompressed packet
+    * @param outputOffset Position in output to write the decompressed data to
+    * @param prefixLength Number of bytes to uncompress
+    * @return Number of bytes uncompressed, min(prefixLength, uncompressed length)
+    * @throws IOException If the data is corrupt
+    */
+   public static int uncompressPrefix(ByteBuffer input, int inputOffset, int inputLength, byte[] output, int outputOffset, int prefixLength) throws IOException
+   {
+      int inputEnd = inputOffset + inputLength;
+
+      if (DISABLE_COMPRESSION)
+      {
+         int length = Math.min(prefixLength, inputLength);
+         for (int i = 0; i < length; i++)
+         {
+            output[outputOffset + i] = input.get(inputOffset + i);
+         }
+         return length;
+      }
+
+      int in = inputOffset;
+      int uncompressedLength = 0;
+      for (int shift = 0;; shift += 7)
+      {
+         if (in >= inputEnd || shift > 28)
+            throw new IOException("Corrupt Snappy data, cannot read uncompressed length");
+
+         int b = input.get(in++) & 0xFF;
+         uncompressedLength |= (b & 0x7F) << shift;
+         if ((b & 0x80) == 0)
+            break;
+      }
+
+      if (outputOffset + uncompressedLength > output.length)
+      {
+         throw new IllegalArgumentException("Cannot uncompress to output buffer, buffer size is: " + (output.length - outputOffset) + ", need " + uncompressedLength);
+      }
+
+      int bytesToUncompress = Math.min(prefixLength, uncompressedLength);
+      int out = 0;
+
+      while (out < bytesToUncompress)
+      {
+         if (in >= inputEnd)
+            throw new IOException("Corrupt Snappy data, reached end of input");
+
+         int tag = input.get(in++) & 0xFF;
+         int length;
+         int offset;
+
+         switch (tag & 0x3)
+         {
+         case 0: // Literal
+            length = tag >>> 2;
+            if (length >= 60)
+            {
+               int numberOfLengthBytes = length - 59;
+               length = 0;
+               for (int i = 0; i < numberOfLengthBytes; i++)
+               {
+                  length |= (input.get(in++) & 0xFF) << (8 * i);
+               }
+            }
+            length += 1;
+
+            if (in + length > inputEnd || out + length > uncompressedLength)
+               throw new IOException("Corrupt Snappy data, literal out of bounds");
+
+            // Incompressible data ends up in long literals, only copy the part that is needed
+            int literalBytesToCopy = Math.min(length, bytesToUncompress - out);
+            for (int i = 0; i < literalBytesToCopy; i++)
+            {
+               output[outputOffset + out + i] = input.get(in + i);
+            }
+            in += length;
+            out += literalBytesToCopy;
+            continue;
+
+         case 1: // Copy with 1 byte offset
+            length = 4 + ((tag >>> 2) & 0x7);
+            offset = ((tag >>> 5) << 8) | (input.get(in++) & 0xFF);
+            break;
+
+         case 2: // Copy with 2 byte offset
+            length = 1 + (tag >>> 2);
+            offset = (input.get(in) & 0xFF) | ((input.get(in + 1) & 0xFF) << 8);
+            in += 2;
+            break;
+
+         default: // Copy with 4 byte offset
+            length = 1 + (tag >>> 2);
+            offset = (input.get(in) & 0xFF) | ((input.get(in + 1) & 0xFF) << 8) | ((input.get(in + 2) & 0xFF) << 16) | ((input.get(in + 3) & 0xFF) << 24);
+            in += 4;
+            break;
+         }
+
+         if (offset <= 0 || offset > out || out + length > uncompressedLength)
+            throw new IOException("Corrupt Snappy data, copy out of bounds");
+
+         length = Math.min(length, bytesToUncompress - out);
+
+         // Byte by byte, the source and destination can overlap
+         for (int i = 0; i < length; i++)
+         {
+            output[outputOffset + out] = output[outputOffset + out - offset];
+            out++;
+         }
+      }
+
+      return out;
+   }
+
    /**
     * Get the maximum size of the compressed data
     * 
@@ -149,6 +149,45 @@ public class SnappyUtilsTest
          assertTrue(tensOut.position() < randomOut.position());
       }
 
+	@ContinuousIntegrationTest(estimatedDuration = 0.0)
+	@Test(timeout = 30000)
+      public void testUncompressPrefix() throws IOException
+      {
+         for (int test = 0; test < 100; test++)
+         {
+            int length = 1 + rand.nextInt(20000);
+            byte[] data = new byte[length];
+
+            // Mix random bytes with repeated runs so that the compressed data has both literals and copies
+            for (int i = 0; i < length; i++)
+            {
+               if (i > 8 && rand.nextInt(4) != 0)
+                  data[i] = data[i - 1 - rand.nextInt(Math.min(i, 8))];
+               else
+                  data[i] = (byte) rand.nextInt();
+            }
+
+            ByteBuffer compressed = ByteBuffer.allocateDirect(SnappyUtils.maxCompressedLength(length) + 16);
+            int compressedOffset = rand.nextInt(16);
+            compressed.position(compressedOffset);
+            SnappyUtils.compress(ByteBuffer.wrap(data), compressed);
+            int compressedLength = compressed.position() - compressedOffset;
+
+            int outputOffset = rand.nextInt(16);
+            byte[] output = new byte[length + outputOffset];
+            int prefixLength = rand.nextInt(length + 10);
+            int uncompressed = SnappyUtils.uncompressPrefix(compressed, compressedOffset, compressedLength, output, outputOffset, prefixLength);
+
+            assertEquals(Math.min(prefixLength, length), uncompressed);
+            assertEquals(compressedOffset + compressedLength, compressed.position());
+
+            for (int i = 0; i < uncompressed; i++)
+            {
+               assertEquals(data[i], output[outputOffset + i]);
+            }
+         }
+      }
+
       private void testCompression(int elements, ByteBuffer in, int inOffset, ByteBuffer out, int outOffset, ByteBuffer decompress, int decompressOffset) throws IOException
       {
          in.position(inOffset);
@@ -0,0 +1,87 @@
+package us.ihmc.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.geometry.polytope.ConvexPolytope;
+import us.ihmc.geometry.polytope.ConvexPolytopeConstructor;
+import us.ihmc.geometry.polytope.ExpandingPolytopeAlgorithm;
+import us.ihmc.geometry.polytope.GilbertJohnsonKeerthiCollisionDetector;
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+
+/**
+ * GJK distance queries between separated and penetrating boxes, the size of a foot and of a step, and EPA for the penetration depth.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionDetectionBenchmark
+{
+   private final GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+   private final ExpandingPolytopeAlgorithm expandingPolytopeAlgorithm = new ExpandingPolytopeAlgorithm(1e-4);
+
+   private ConvexPolytope foot;
+   private ConvexPolytope separatedStep;
+   private ConvexPolytope penetratingStep;
+
+   private final Point3d closestPointOnA = new Point3d();
+   private final Point3d closestPointOnB = new Point3d();
+   private final Vector3d separatingVector = new Vector3d();
+
+   @Setup
+   public void setup()
+   {
+      foot = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.11, 0.065, 0.04);
+      RigidBodyTransform footTransform = new RigidBodyTransform();
+      footTransform.setRotationYawAndZeroTranslation(0.3);
+      footTransform.setTranslation(0.05, 0.02, 0.0);
+      foot.applyTransform(footTransform);
+
+      separatedStep = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.2, 0.2, 0.1);
+      RigidBodyTransform separatedStepTransform = new RigidBodyTransform();
+      separatedStepTransform.setTranslation(0.0, 0.0, -0.2);
+      separatedStep.applyTransform(separatedStepTransform);
+
+      penetratingStep = ConvexPolytopeConstructor.constructBoxWithCenterAtZero(0.2, 0.2, 0.1);
+      RigidBodyTransform penetratingStepTransform = new RigidBodyTransform();
+      penetratingStepTransform.setTranslation(0.0, 0.0, -0.12);
+      penetratingStep.applyTransform(penetratingStepTransform);
+   }
+
+   @Benchmark
+   public boolean gilbertJohnsonKeerthiSeparated()
+   {
+      return detector.arePolytopesColliding(foot, separatedStep, closestPointOnA, closestPointOnB);
+   }
+
+   @Benchmark
+   public boolean gilbertJohnsonKeerthiPenetrating()
+   {
+      return detector.arePolytopesColliding(foot, penetratingStep, closestPointOnA, closestPointOnB);
+   }
+
+   @Benchmark
+   public Vector3d gilbertJohnsonKeerthiAndExpandingPolytopePenetrating()
+   {
+      detector.arePolytopesColliding(foot, penetratingStep, closestPointOnA, closestPointOnB);
+      expandingPolytopeAlgorithm.setPolytopes(detector.getSimplex(), foot, penetratingStep);
+      expandingPolytopeAlgorithm.computeExpandedPolytope(separatingVector, closestPointOnA, closestPointOnB);
+      return separatingVector;
+   }
+}
@@ -0,0 +1,104 @@
+package us.ihmc.microbenchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Point2d;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.ConvexPolygonTools;
+
+/**
+ * Operations on support polygons: the convex hull of the contact points of two feet, and queries against it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvexPolygon2dBenchmark
+{
+   private static final int NUMBER_OF_QUERY_POINTS = 64;
+
+   private final Point2d[] contactPoints = new Point2d[8];
+   private final ConvexPolygon2d supportPolygon = new ConvexPolygon2d();
+   private final ConvexPolygon2d footholdPolygon = new ConvexPolygon2d();
+   private final ConvexPolygon2d intersection = new ConvexPolygon2d();
+   private final Point2d[] queryPoints = new Point2d[NUMBER_OF_QUERY_POINTS];
+   private final Point2d projection = new Point2d();
+   private int queryIndex = 0;
+
+   @Setup
+   public void setup()
+   {
+      double[][] footContactPoints = {{0.11, 0.065}, {0.11, -0.065}, {-0.11, 0.065}, {-0.11, -0.065}};
+      for (int i = 0; i < footContactPoints.length; i++)
+      {
+         contactPoints[i] = new Point2d(footContactPoints[i][0], footContactPoints[i][1] + 0.15);
+         contactPoints[i + 4] = new Point2d(footContactPoints[i][0] + 0.2, footContactPoints[i][1] - 0.15);
+      }
+
+      supportPolygon.setAndUpdate(contactPoints, contactPoints.length);
+
+      // A foothold that partially overlaps the support polygon.
+      for (int i = 0; i < footContactPoints.length; i++)
+         footholdPolygon.addVertex(footContactPoints[i][0] + 0.35, footContactPoints[i][1] - 0.1);
+      footholdPolygon.update();
+
+      Random random = new Random(1776L);
+      for (int i = 0; i < NUMBER_OF_QUERY_POINTS; i++)
+         queryPoints[i] = new Point2d(0.6 * random.nextDouble() - 0.2, 0.6 * random.nextDouble() - 0.3);
+   }
+
+   private Point2d nextQueryPoint()
+   {
+      queryIndex = (queryIndex + 1) % NUMBER_OF_QUERY_POINTS;
+      return queryPoints[queryIndex];
+   }
+
+   @Benchmark
+   public ConvexPolygon2d setAndUpdate()
+   {
+      supportPolygon.setAndUpdate(contactPoints, contactPoints.length);
+      return supportPolygon;
+   }
+
+   @Benchmark
+   public boolean isPointInside()
+   {
+      return supportPolygon.isPointInside(nextQueryPoint());
+   }
+
+   @Benchmark
+   public Point2d orthogonalProjection()
+   {
+      projection.set(nextQueryPoint());
+      supportPolygon.orthogonalProjection(projection);
+      return projection;
+   }
+
+   @Benchmark
+   public double distance()
+   {
+      return supportPolygon.distance(nextQueryPoint());
+   }
+
+   @Benchmark
+   public ConvexPolygon2d intersectionOfPolygons()
+   {
+      ConvexPolygonTools.computeIntersectionOfPolygons(supportPolygon, footholdPolygon, intersection);
+      return intersection;
+   }
+}
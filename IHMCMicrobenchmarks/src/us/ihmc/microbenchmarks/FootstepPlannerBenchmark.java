@@ -0,0 +1,126 @@
+package us.ihmc.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.AxisAngle4d;
+import javax.vecmath.Point2d;
+import javax.vecmath.Vector3d;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.footstepPlanning.FootstepPlannerGoal;
+import us.ihmc.footstepPlanning.FootstepPlannerGoalType;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.footstepPlanning.graphSearch.BipedalFootstepPlannerParameters;
+import us.ihmc.footstepPlanning.graphSearch.PlanarRegionBipedalFootstepPlanner;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.FramePose;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.geometry.PlanarRegionsListGenerator;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+
+/**
+ * Plans over a row of boxes separated by gaps with the {@link PlanarRegionBipedalFootstepPlanner}, set up as in the rough terrain
+ * planner tests. Every candidate step is snapped and wiggled into its box, so this is mostly the cost of the polygon wiggler. To compare
+ * two versions of the planner, run this benchmark on both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FootstepPlannerBenchmark
+{
+   private static final double BOX_HEIGHT = 0.2;
+   private static final double BOX_SIZE = 0.87;
+   private static final double GAP_SIZE = 0.2;
+   private static final int NUMBER_OF_GAPS = 6;
+
+   private final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+
+   private PlanarRegionBipedalFootstepPlanner planner;
+   private PlanarRegionsList planarRegionsList;
+   private final FramePose initialStanceFootPose = new FramePose(worldFrame);
+   private final FootstepPlannerGoal goal = new FootstepPlannerGoal();
+
+   @Setup
+   public void setup()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry("benchmark");
+      BipedalFootstepPlannerParameters parameters = new BipedalFootstepPlannerParameters(registry);
+      parameters.setMaximumStepReach(0.55);
+      parameters.setMaximumStepZ(0.25);
+      parameters.setMaximumStepXWhenForwardAndDown(0.25);
+      parameters.setMaximumStepZWhenForwardAndDown(0.25);
+      parameters.setMaximumStepYaw(0.15);
+      parameters.setMaximumStepWidth(0.4);
+      parameters.setMinimumStepWidth(0.15);
+      parameters.setMinimumFootholdPercent(0.95);
+      parameters.setMinimumStepLength(-0.03);
+      parameters.setWiggleInsideDelta(0.05);
+      parameters.setMaximumXYWiggleDistance(1.0);
+      parameters.setMaximumYawWiggle(0.1);
+      parameters.setCliffHeightToShiftAwayFrom(0.04);
+      parameters.setMinimumDistanceFromCliffBottoms(0.22);
+      parameters.setIdealFootstep(0.3, 0.2);
+
+      planner = new PlanarRegionBipedalFootstepPlanner(parameters, registry);
+      planner.setFeetPolygons(createFootPolygons());
+      planner.setMaximumNumberOfNodesToExpand(100);
+
+      PlanarRegionsListGenerator generator = new PlanarRegionsListGenerator();
+      generator.addCubeReferencedAtBottomMiddle(BOX_SIZE, BOX_SIZE, BOX_HEIGHT);
+      for (int i = 0; i < NUMBER_OF_GAPS; i++)
+      {
+         generator.translate(BOX_SIZE + GAP_SIZE, 0.0, 0.0);
+         generator.addCubeReferencedAtBottomMiddle(BOX_SIZE, BOX_SIZE, BOX_HEIGHT);
+      }
+      planarRegionsList = generator.getPlanarRegionsList();
+
+      initialStanceFootPose.setPosition(0.0, 0.0, BOX_HEIGHT);
+
+      FramePose goalPose = new FramePose(worldFrame);
+      goalPose.setPosition(NUMBER_OF_GAPS * (BOX_SIZE + GAP_SIZE), 0.0, BOX_HEIGHT);
+      goalPose.setOrientation(new AxisAngle4d(new Vector3d(0.0, 0.0, 1.0), Math.PI));
+      goal.setFootstepPlannerGoalType(FootstepPlannerGoalType.POSE_BETWEEN_FEET);
+      goal.setGoalPoseBetweenFeet(goalPose);
+      goal.setXYGoal(new Point2d(goalPose.getX(), goalPose.getY()), 0.5);
+   }
+
+   private static SideDependentList<ConvexPolygon2d> createFootPolygons()
+   {
+      double footLength = 0.2;
+      double footWidth = 0.1;
+
+      ConvexPolygon2d footPolygon = new ConvexPolygon2d();
+      footPolygon.addVertex(footLength / 2.0, footWidth / 2.0);
+      footPolygon.addVertex(footLength / 2.0, -footWidth / 2.0);
+      footPolygon.addVertex(-footLength / 2.0, footWidth / 2.0);
+      footPolygon.addVertex(-footLength / 2.0, -footWidth / 2.0);
+      footPolygon.update();
+
+      return new SideDependentList<>(footPolygon, new ConvexPolygon2d(footPolygon));
+   }
+
+   @Benchmark
+   public FootstepPlanningResult planOverGaps()
+   {
+      planner.setInitialStanceFoot(initialStanceFootPose, RobotSide.LEFT);
+      planner.setGoal(goal);
+      planner.setPlanarRegions(planarRegionsList);
+      return planner.plan();
+   }
+}
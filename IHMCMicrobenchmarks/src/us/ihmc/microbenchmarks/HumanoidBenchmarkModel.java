@@ -0,0 +1,154 @@
+package us.ihmc.microbenchmarks;
+
+import java.util.Random;
+
+import javax.vecmath.Matrix3d;
+import javax.vecmath.Vector3d;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.robotics.screwTheory.OneDoFJoint;
+import us.ihmc.robotics.screwTheory.RevoluteJoint;
+import us.ihmc.robotics.screwTheory.RigidBody;
+import us.ihmc.robotics.screwTheory.ScrewTestTools;
+import us.ihmc.robotics.screwTheory.ScrewTools;
+import us.ihmc.robotics.screwTheory.SixDoFJoint;
+import us.ihmc.robotics.screwTheory.Twist;
+
+/**
+ * Floating-base humanoid with the kinematic structure, dimensions and masses of an Atlas or Valkyrie, without depending on their model files:
+ * 3 back joints, 3 neck joints, two 7 DoF arms and two 6 DoF legs, so 32 joints plus the floating joint.
+ */
+public class HumanoidBenchmarkModel
+{
+   private static final Vector3d X = new Vector3d(1.0, 0.0, 0.0);
+   private static final Vector3d Y = new Vector3d(0.0, 1.0, 0.0);
+   private static final Vector3d Z = new Vector3d(0.0, 0.0, 1.0);
+
+   private final RigidBody elevator;
+   private final SixDoFJoint rootJoint;
+   private final RigidBody pelvis;
+   private final RigidBody chest;
+   private final RigidBody head;
+   private final RigidBody leftHand;
+   private final RigidBody rightFoot;
+   private final OneDoFJoint[] oneDoFJoints;
+
+   public HumanoidBenchmarkModel()
+   {
+      ReferenceFrame elevatorFrame = ReferenceFrame.constructBodyFrameWithUnchangingTransformToParent("elevator", ReferenceFrame.getWorldFrame(),
+            new RigidBodyTransform());
+      elevator = new RigidBody("elevator", elevatorFrame);
+      rootJoint = new SixDoFJoint("rootJoint", elevator, elevatorFrame);
+      pelvis = ScrewTools.addRigidBody("pelvis", rootJoint, inertia(15.0, 0.2), 15.0, new Vector3d());
+
+      RigidBody body = addLink("backZ", pelvis, new Vector3d(-0.01, 0.0, 0.05), Z, 2.0, 0.1);
+      body = addLink("backY", body, new Vector3d(0.0, 0.0, 0.16), Y, 2.0, 0.1);
+      chest = addLink("backX", body, new Vector3d(0.0, 0.0, 0.05), X, 50.0, 0.4);
+
+      body = addLink("lowerNeckPitch", chest, new Vector3d(0.2, 0.0, 0.45), Y, 1.0, 0.05);
+      body = addLink("neckYaw", body, new Vector3d(0.0, 0.0, 0.05), Z, 1.0, 0.05);
+      head = addLink("upperNeckPitch", body, new Vector3d(0.0, 0.0, 0.05), Y, 5.0, 0.2);
+
+      leftHand = addArm("left", 1.0);
+      addArm("right", -1.0);
+      addLeg("left", 1.0);
+      rightFoot = addLeg("right", -1.0);
+
+      oneDoFJoints = ScrewTools.filterJoints(ScrewTools.computeSubtreeJoints(elevator), OneDoFJoint.class);
+      elevator.updateFramesRecursively();
+   }
+
+   private RigidBody addArm(String side, double sign)
+   {
+      RigidBody body = addLink(side + "ShoulderZ", chest, new Vector3d(0.1, sign * 0.25, 0.4), Z, 3.0, 0.1);
+      body = addLink(side + "ShoulderX", body, new Vector3d(0.0, sign * 0.1, 0.0), X, 3.0, 0.3);
+      body = addLink(side + "ElbowY", body, new Vector3d(0.0, sign * 0.2, 0.0), Y, 2.0, 0.1);
+      body = addLink(side + "ElbowX", body, new Vector3d(0.0, sign * 0.1, 0.0), X, 2.0, 0.3);
+      body = addLink(side + "WristY", body, new Vector3d(0.0, sign * 0.2, 0.0), Y, 1.0, 0.1);
+      body = addLink(side + "WristX", body, new Vector3d(0.0, sign * 0.05, 0.0), X, 1.0, 0.05);
+      return addLink(side + "WristY2", body, new Vector3d(0.0, sign * 0.05, 0.0), Y, 2.0, 0.1);
+   }
+
+   private RigidBody addLeg(String side, double sign)
+   {
+      RigidBody body = addLink(side + "HipZ", pelvis, new Vector3d(0.0, sign * 0.09, -0.05), Z, 2.0, 0.1);
+      body = addLink(side + "HipX", body, new Vector3d(0.0, 0.0, -0.05), X, 2.0, 0.1);
+      body = addLink(side + "HipY", body, new Vector3d(0.05, 0.0, -0.05), Y, 8.0, 0.4);
+      body = addLink(side + "KneeY", body, new Vector3d(-0.05, 0.0, -0.4), Y, 5.0, 0.4);
+      body = addLink(side + "AnkleY", body, new Vector3d(0.0, 0.0, -0.4), Y, 1.0, 0.05);
+      return addLink(side + "AnkleX", body, new Vector3d(0.0, 0.0, 0.0), X, 2.0, 0.2);
+   }
+
+   private static RigidBody addLink(String jointName, RigidBody parentBody, Vector3d jointOffset, Vector3d jointAxis, double mass, double length)
+   {
+      RevoluteJoint joint = ScrewTools.addRevoluteJoint(jointName, parentBody, jointOffset, jointAxis);
+      return ScrewTools.addRigidBody(jointName + "Link", joint, inertia(mass, length), mass, new Vector3d(0.0, 0.0, -0.5 * length));
+   }
+
+   private static Matrix3d inertia(double mass, double length)
+   {
+      double momentOfInertia = mass * length * length / 12.0;
+      Matrix3d inertia = new Matrix3d();
+      inertia.setM00(momentOfInertia);
+      inertia.setM11(momentOfInertia);
+      inertia.setM22(0.1 * momentOfInertia);
+      return inertia;
+   }
+
+   /**
+    * Sets random joint positions, velocities and desired accelerations, and updates the frames.
+    */
+   public void setRandomState(Random random)
+   {
+      rootJoint.setRotation(random.nextDouble() - 0.5, 0.2 * (random.nextDouble() - 0.5), 0.2 * (random.nextDouble() - 0.5));
+      rootJoint.setPosition(random.nextDouble(), random.nextDouble(), 0.9);
+
+      Twist rootJointTwist = new Twist();
+      rootJoint.getJointTwist(rootJointTwist);
+      rootJointTwist.setAngularPart(0.1 * random.nextDouble(), 0.1 * random.nextDouble(), 0.1 * random.nextDouble());
+      rootJointTwist.setLinearPart(random.nextDouble(), random.nextDouble(), 0.1 * random.nextDouble());
+      rootJoint.setJointTwist(rootJointTwist);
+
+      ScrewTestTools.setRandomPositions(oneDoFJoints, random, -1.0, 1.0);
+      ScrewTestTools.setRandomVelocities(oneDoFJoints, random);
+      ScrewTestTools.setRandomDesiredAccelerations(oneDoFJoints, random);
+
+      elevator.updateFramesRecursively();
+   }
+
+   public RigidBody getElevator()
+   {
+      return elevator;
+   }
+
+   public SixDoFJoint getRootJoint()
+   {
+      return rootJoint;
+   }
+
+   public RigidBody getPelvis()
+   {
+      return pelvis;
+   }
+
+   public RigidBody getHead()
+   {
+      return head;
+   }
+
+   public RigidBody getLeftHand()
+   {
+      return leftHand;
+   }
+
+   public RigidBody getRightFoot()
+   {
+      return rightFoot;
+   }
+
+   public OneDoFJoint[] getOneDoFJoints()
+   {
+      return oneDoFJoints;
+   }
+}
@@ -0,0 +1,26 @@
+package us.ihmc.microbenchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the microbenchmarks with the GC profiler, which reports the allocation rate and allocated bytes per operation next to the time.
+ * <p>
+ * Usage: {@code MicrobenchmarkRunner [regex]}, where the regular expression selects the benchmarks to run, for instance
+ * {@code ScrewTheoryBenchmark} or {@code QPSolverBenchmark.solve}. All benchmarks are run by default. From Gradle:
+ * {@code gradle :IHMCMicrobenchmarks:runMicrobenchmarks -Pbenchmarks=regex}.
+ * </p>
+ */
+public class MicrobenchmarkRunner
+{
+   public static void main(String[] args) throws RunnerException
+   {
+      String benchmarks = args.length > 0 ? args[0] : MicrobenchmarkRunner.class.getPackage().getName() + ".";
+
+      Options options = new OptionsBuilder().include(benchmarks).addProfiler(GCProfiler.class).build();
+      new Runner(options).run();
+   }
+}
@@ -0,0 +1,88 @@
+package us.ihmc.microbenchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.ejml.ops.RandomMatrices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.convexOptimization.quadraticProgram.SimpleEfficientActiveSetQPSolver;
+
+/**
+ * Set up and solve of a random convex QP with equality constraints, inequality constraints and variable bounds. With 38 variables the
+ * problem has the size of the whole-body inverse dynamics QP of an Atlas or Valkyrie, 80 variables includes the contact forces.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QPSolverBenchmark
+{
+   @Param({"10", "38", "80"})
+   private int numberOfVariables;
+
+   private final SimpleEfficientActiveSetQPSolver solver = new SimpleEfficientActiveSetQPSolver();
+
+   private DenseMatrix64F costQuadraticMatrix;
+   private DenseMatrix64F costLinearVector;
+   private DenseMatrix64F equalityConstraintsAMatrix;
+   private DenseMatrix64F equalityConstraintsBVector;
+   private DenseMatrix64F inequalityConstraintsCMatrix;
+   private DenseMatrix64F inequalityConstraintsDVector;
+   private DenseMatrix64F variableLowerBounds;
+   private DenseMatrix64F variableUpperBounds;
+   private DenseMatrix64F solution;
+
+   @Setup
+   public void setup()
+   {
+      Random random = new Random(1776L);
+      int numberOfEqualityConstraints = 6;
+      int numberOfInequalityConstraints = numberOfVariables / 2;
+
+      DenseMatrix64F randomMatrix = RandomMatrices.createRandom(numberOfVariables, numberOfVariables, -1.0, 1.0, random);
+      costQuadraticMatrix = new DenseMatrix64F(numberOfVariables, numberOfVariables);
+      CommonOps.multInner(randomMatrix, costQuadraticMatrix);
+      for (int i = 0; i < numberOfVariables; i++)
+         costQuadraticMatrix.add(i, i, 1.0);
+
+      costLinearVector = RandomMatrices.createRandom(numberOfVariables, 1, -10.0, 10.0, random);
+      equalityConstraintsAMatrix = RandomMatrices.createRandom(numberOfEqualityConstraints, numberOfVariables, -1.0, 1.0, random);
+      equalityConstraintsBVector = RandomMatrices.createRandom(numberOfEqualityConstraints, 1, -1.0, 1.0, random);
+      inequalityConstraintsCMatrix = RandomMatrices.createRandom(numberOfInequalityConstraints, numberOfVariables, -1.0, 1.0, random);
+      inequalityConstraintsDVector = RandomMatrices.createRandom(numberOfInequalityConstraints, 1, 0.0, 1.0, random);
+
+      variableLowerBounds = new DenseMatrix64F(numberOfVariables, 1);
+      variableUpperBounds = new DenseMatrix64F(numberOfVariables, 1);
+      CommonOps.fill(variableLowerBounds, -2.0);
+      CommonOps.fill(variableUpperBounds, 2.0);
+
+      solution = new DenseMatrix64F(numberOfVariables, 1);
+   }
+
+   @Benchmark
+   public DenseMatrix64F solve()
+   {
+      solver.clear();
+      solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+      solver.setLinearEqualityConstraints(equalityConstraintsAMatrix, equalityConstraintsBVector);
+      solver.setLinearInequalityConstraints(inequalityConstraintsCMatrix, inequalityConstraintsDVector);
+      solver.setVariableBounds(variableLowerBounds, variableUpperBounds);
+      solver.solve(solution);
+      return solution;
+   }
+}
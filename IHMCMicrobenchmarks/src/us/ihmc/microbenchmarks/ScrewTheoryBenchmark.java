@@ -0,0 +1,107 @@
+package us.ihmc.microbenchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.robotics.screwTheory.InverseDynamicsCalculator;
+import us.ihmc.robotics.screwTheory.SpatialAccelerationCalculator;
+import us.ihmc.robotics.screwTheory.TwistCalculator;
+
+/**
+ * Rigid-body dynamics and reference frame operations on a {@link HumanoidBenchmarkModel}, as done by the controller every tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScrewTheoryBenchmark
+{
+   private static final double GRAVITY = 9.81;
+
+   private HumanoidBenchmarkModel model;
+   private TwistCalculator twistCalculator;
+   private SpatialAccelerationCalculator spatialAccelerationCalculator;
+   private InverseDynamicsCalculator inverseDynamicsCalculator;
+
+   private ReferenceFrame handFrame;
+   private ReferenceFrame footFrame;
+   private final RigidBodyTransform handToFootTransform = new RigidBodyTransform();
+
+   @Setup
+   public void setup()
+   {
+      model = new HumanoidBenchmarkModel();
+      model.setRandomState(new Random(1776L));
+
+      twistCalculator = new TwistCalculator(ReferenceFrame.getWorldFrame(), model.getElevator());
+      spatialAccelerationCalculator = new SpatialAccelerationCalculator(model.getElevator(), twistCalculator, GRAVITY, true);
+      inverseDynamicsCalculator = new InverseDynamicsCalculator(twistCalculator, GRAVITY);
+
+      handFrame = model.getLeftHand().getBodyFixedFrame();
+      footFrame = model.getRightFoot().getBodyFixedFrame();
+   }
+
+   @Benchmark
+   public TwistCalculator twistCalculator()
+   {
+      twistCalculator.compute();
+      return twistCalculator;
+   }
+
+   @Benchmark
+   public SpatialAccelerationCalculator spatialAccelerationCalculator()
+   {
+      twistCalculator.compute();
+      spatialAccelerationCalculator.compute();
+      return spatialAccelerationCalculator;
+   }
+
+   @Benchmark
+   public InverseDynamicsCalculator inverseDynamicsCalculator()
+   {
+      inverseDynamicsCalculator.compute();
+      return inverseDynamicsCalculator;
+   }
+
+   @Benchmark
+   public void updateFramesRecursively()
+   {
+      model.getElevator().updateFramesRecursively();
+   }
+
+   /**
+    * Transform between two frames whose cached transforms to the root are up to date, which is the common case within a tick.
+    */
+   @Benchmark
+   public RigidBodyTransform getTransformToDesiredFrame()
+   {
+      handFrame.getTransformToDesiredFrame(handToFootTransform, footFrame);
+      return handToFootTransform;
+   }
+
+   /**
+    * Transform between two frames right after the frames have been updated, so the transforms to the root have to be recomputed.
+    */
+   @Benchmark
+   public RigidBodyTransform getTransformToDesiredFrameAfterUpdate()
+   {
+      model.getElevator().updateFramesRecursively();
+      handFrame.getTransformToDesiredFrame(handToFootTransform, footFrame);
+      return handToFootTransform;
+   }
+}
@@ -7,12 +7,14 @@ import javax.vecmath.Point3d;
 
 import us.ihmc.robotModels.FullRobotModel;
 import us.ihmc.ihmcPerception.depthData.collisionShapes.CollisionShape;
+import us.ihmc.robotics.dataStructures.PointCloudBuffer;
 import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
 import us.ihmc.robotics.screwTheory.OneDoFJoint;
 
 public class CollisionShapeTester
 {
    private final ArrayList<TrackingCollisionShape> trackingCollisionShapes = new ArrayList<>();
+   private final Point3d tempPoint = new Point3d();
 
    public CollisionShapeTester(FullRobotModel fullRobotModel, CollisionBoxProvider collissionBoxProvider)
    {
@@ -58,4 +60,25 @@ public class CollisionShapeTester
       return false;
    }
 
+   /**
+    * Removes the points that are inside the collision shapes, keeping the order of the other points.
+    */
+   public void removeContainedPoints(PointCloudBuffer pointCloud)
+   {
+      int numberOfPointsKept = 0;
+
+      for (int i = 0; i < pointCloud.size(); i++)
+      {
+         pointCloud.getPoint(i, tempPoint);
+
+         if (contains(tempPoint))
+            continue;
+
+         if (i != numberOfPointsKept)
+            pointCloud.copyPoint(i, numberOfPointsKept);
+         numberOfPointsKept++;
+      }
+
+      pointCloud.setSize(numberOfPointsKept);
+   }
 }
@@ -3,6 +3,7 @@ package us.ihmc.ihmcPerception.depthData;
 import javax.vecmath.Point3d;
 
 import us.ihmc.humanoidRobotics.communication.packets.sensing.DepthDataFilterParameters;
+import us.ihmc.robotics.dataStructures.PointCloudBuffer;
 import us.ihmc.robotics.geometry.RigidBodyTransform;
 
 public class DepthDataFilter extends DepthDataStore
@@ -11,6 +12,8 @@ public class DepthDataFilter extends DepthDataStore
    // See DRCManualLidarTransform and DRCLidarVisualizationManager. This is a bit of a hack but less likely to have unintended consequences.
    private final RigidBodyTransform worldToCorrected = new RigidBodyTransform();
 
+   private final Point3d tempPoint = new Point3d();
+   private final Point3d tempCenter = new Point3d();
 
    public DepthDataFilter()
    {
@@ -23,6 +26,59 @@ public class DepthDataFilter extends DepthDataStore
    }
 
    public boolean addNearScanPoint(Point3d point, Point3d sensorOrigin)
+   {
+      updateRobotDependentData();
+      return addNearScanPointInternal(point, sensorOrigin);
+   }
+
+   public boolean addQuatreePoint(Point3d point, Point3d sensorOrigin)
+   {
+      updateRobotDependentData();
+      return addQuatreePointInternal(point, sensorOrigin);
+   }
+
+   /**
+    * Adds all the points of the cloud to the near scan. The points in the cloud are not modified.
+    * The data depending on the robot configuration is computed once for all the points.
+    */
+   public boolean addNearScanPoints(PointCloudBuffer points, Point3d sensorOrigin)
+   {
+      updateRobotDependentData();
+
+      boolean send = false;
+      for (int i = 0; i < points.size(); i++)
+      {
+         points.getPoint(i, tempPoint);
+         send = addNearScanPointInternal(tempPoint, sensorOrigin) || send;
+      }
+      return send;
+   }
+
+   /**
+    * Adds all the points of the cloud to the quad tree. The points in the cloud are not modified.
+    * The data depending on the robot configuration is computed once for all the points.
+    */
+   public boolean addQuadTreePoints(PointCloudBuffer points, Point3d sensorOrigin)
+   {
+      updateRobotDependentData();
+
+      boolean send = false;
+      for (int i = 0; i < points.size(); i++)
+      {
+         points.getPoint(i, tempPoint);
+         send = addQuatreePointInternal(tempPoint, sensorOrigin) || send;
+      }
+      return send;
+   }
+
+   /**
+    * Called once before adding one point or a batch of points. Filters depending on the robot configuration should compute what they need here.
+    */
+   protected void updateRobotDependentData()
+   {
+   }
+
+   private boolean addNearScanPointInternal(Point3d point, Point3d sensorOrigin)
    {
       boolean send = false;
       if(!pointInRange(point, sensorOrigin))
@@ -39,7 +95,8 @@ public class DepthDataFilter extends DepthDataStore
 
       return send;
    }
-   public boolean addQuatreePoint(Point3d point, Point3d sensorOrigin)
+
+   private boolean addQuatreePointInternal(Point3d point, Point3d sensorOrigin)
    {
       boolean send = false;
       if(!pointInRange(point, sensorOrigin))
@@ -71,8 +128,8 @@ public class DepthDataFilter extends DepthDataStore
       boolean valid = true;
       valid &= point.getZ() < lidarOrigin.getZ() + parameters.nearScanZMaxAboveHead;
 
-      Point3d center = new Point3d(lidarOrigin.getX(), lidarOrigin.getY(), point.getZ());
-      valid &= point.distance(center) < parameters.nearScanRadius;
+      tempCenter.set(lidarOrigin.getX(), lidarOrigin.getY(), point.getZ());
+      valid &= point.distance(tempCenter) < parameters.nearScanRadius;
 
 
       return valid;
@@ -1,7 +1,9 @@
 package us.ihmc.ihmcPerception.depthData;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -23,6 +25,7 @@ import us.ihmc.humanoidRobotics.communication.packets.sensing.DepthDataStateComm
 import us.ihmc.humanoidRobotics.communication.packets.sensing.MultisenseMocapExperimentPacket;
 import us.ihmc.humanoidRobotics.communication.packets.sensing.MultisenseTest;
 import us.ihmc.humanoidRobotics.kryo.PPSTimestampOffsetProvider;
+import us.ihmc.robotics.dataStructures.PointCloudBuffer;
 import us.ihmc.robotics.geometry.FramePoint;
 import us.ihmc.robotics.geometry.RigidBodyTransform;
 import us.ihmc.robotics.referenceFrames.ReferenceFrame;
@@ -45,6 +48,8 @@ public class PointCloudDataReceiver extends Thread implements NetStateListener,
 
    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
    private final LinkedBlockingQueue<PointCloudData> dataQueue = new LinkedBlockingQueue<PointCloudData>();
+   /** Processed data, reused for the next point clouds so the point buffers are allocated only once. */
+   private final ConcurrentLinkedQueue<PointCloudData> recycledData = new ConcurrentLinkedQueue<PointCloudData>();
    private final AtomicBoolean sendData = new AtomicBoolean(false);
    private volatile boolean running = true;
 
@@ -53,6 +58,10 @@ public class PointCloudDataReceiver extends Thread implements NetStateListener,
    private final PacketCommunicator sensorSuitePacketCommunicator;
    private boolean DEBUG_WITH_MOCAP = false;
 
+   private final RigidBodyTransform scanFrameToWorld = new RigidBodyTransform();
+   private final Point3d origin = new Point3d();
+   private final PointCloudBuffer pointsWithSameTimestamp = new PointCloudBuffer();
+
    public PointCloudDataReceiver(FullHumanoidRobotModelFactory modelFactory, CollisionBoxProvider collisionBoxProvider,
          PPSTimestampOffsetProvider ppsTimestampOffsetProvider, DRCRobotJointMap jointMap, RobotConfigurationDataBuffer robotConfigurationDataBuffer,
          PacketCommunicator sensorSuitePacketCommunicator)
@@ -130,8 +139,7 @@ public class PointCloudDataReceiver extends Thread implements NetStateListener,
                {
                   if(cloudSource == PointCloudSource.NEARSCAN)
                   {
-                     Point3d[] points = new Point3d[data.points.size()];
-                     points = data.points.toArray(points);
+                     Point3d[] points = data.points.toPoint3dArray();
                      MultisenseMocapExperimentPacket packet = new MultisenseMocapExperimentPacket();
                      packet.setPointCloud(points, MultisenseTest.NEAR_SCAN_IN_POINT_CLOUD_DATA_RECEIVER);
                      sensorSuitePacketCommunicator.send(packet);
@@ -166,62 +174,34 @@ public class PointCloudDataReceiver extends Thread implements NetStateListener,
 
             if (data != null && sendData.get())
             {
-               long prevTimestamp = -1;
+               scanFrameToWorld.setIdentity();
 
-               RigidBodyTransform scanFrameToWorld = new RigidBodyTransform();
-               for (int i = 0; i < data.points.size(); i++)
+               // Process the points by group of consecutive points with the same timestamp, the robot configuration is updated once per group.
+               int startIndex = 0;
+               while (startIndex < data.points.size())
                {
-                  long nextTimestamp = ppsTimestampOffsetProvider.adjustTimeStampToRobotClock(data.timestamps[i]);
-                  if (nextTimestamp != prevTimestamp)
-                  {
-                     if (robotConfigurationDataBuffer.updateFullRobotModel(true, nextTimestamp, fullRobotModel, null) == -1)
-                     {
-                        continue;
-                     }
-                     if (collisionBoxNode != null)
-                     {
-                        collisionBoxNode.update();
-                     }
-                     prevTimestamp = nextTimestamp;
-                  }
+                  long timestamp = data.timestamps[startIndex];
+                  int endIndex = startIndex + 1;
+                  while (endIndex < data.points.size() && data.timestamps[endIndex] == timestamp)
+                     endIndex++;
 
-                  Point3d pointInWorld;
-                  if (!data.scanFrame.isWorldFrame())
+                  if (startIndex == 0 && endIndex == data.points.size())
                   {
-                     data.scanFrame.getTransformToDesiredFrame(scanFrameToWorld, ReferenceFrame.getWorldFrame());
-
-                     pointInWorld = data.points.get(i);
-                     scanFrameToWorld.transform(pointInWorld);
+                     processPoints(data, timestamp, data.points);
                   }
                   else
                   {
-                     pointInWorld = data.points.get(i);
+                     pointsWithSameTimestamp.set(data.points, startIndex, endIndex);
+                     processPoints(data, timestamp, pointsWithSameTimestamp);
                   }
 
-                  Point3d origin = new Point3d();
-                  data.lidarFrame.getTransformToWorldFrame().transform(origin);
-                  if (collisionBoxNode == null || !collisionBoxNode.contains(pointInWorld) || depthDataFilter.getParameters().boundingBoxScale<=0)                  
-                  {
-                     for (PointCloudSource cloudSource : data.sources)
-                     {
-                        switch (cloudSource)
-                        {
-                        case NEARSCAN:
-                           depthDataFilter.addNearScanPoint(pointInWorld, origin);
-                           break;
-                        case QUADTREE:
-                           depthDataFilter.addQuatreePoint(pointInWorld, origin);
-                           break;
-                        default:
-                           System.out.println(getClass().getSimpleName() + " unrecognized cloud source " + cloudSource.name());
-                        }
-                     }
-                  }
+                  startIndex = endIndex;
                }
 
                if (sendData.get())
                   pointCloudWorldPacketGenerator.setLidarPose(scanFrameToWorld);
             }
+            recycledData.offer(data);
             readWriteLock.writeLock().unlock();
          }
          catch (InterruptedException e)
@@ -233,7 +213,50 @@ public class PointCloudDataReceiver extends Thread implements NetStateListener,
    }
 
    /**
-    * Receive new data. Data is stored in a queue, so do not reuse!
+    * Updates the robot configuration for the given timestamp, transforms the points to world, removes the ones colliding with the robot and adds the
+    * others to the depth data filter.
+    */
+   private void processPoints(PointCloudData data, long timestamp, PointCloudBuffer points)
+   {
+      long robotTimestamp = ppsTimestampOffsetProvider.adjustTimeStampToRobotClock(timestamp);
+      if (robotConfigurationDataBuffer.updateFullRobotModel(true, robotTimestamp, fullRobotModel, null) == -1)
+      {
+         return;
+      }
+
+      if (!data.scanFrame.isWorldFrame())
+      {
+         data.scanFrame.getTransformToDesiredFrame(scanFrameToWorld, ReferenceFrame.getWorldFrame());
+         points.applyTransform(scanFrameToWorld);
+      }
+
+      origin.set(0.0, 0.0, 0.0);
+      data.lidarFrame.getTransformToWorldFrame().transform(origin);
+
+      if (collisionBoxNode != null && depthDataFilter.getParameters().boundingBoxScale > 0)
+      {
+         collisionBoxNode.update();
+         collisionBoxNode.removeContainedPoints(points);
+      }
+
+      for (PointCloudSource cloudSource : data.sources)
+      {
+         switch (cloudSource)
+         {
+         case NEARSCAN:
+            depthDataFilter.addNearScanPoints(points, origin);
+            break;
+         case QUADTREE:
+            depthDataFilter.addQuadTreePoints(points, origin);
+            break;
+         default:
+            System.out.println(getClass().getSimpleName() + " unrecognized cloud source " + cloudSource.name());
+         }
+      }
+   }
+
+   /**
+    * Receive new data. The points are copied, so the list can be reused.
     * @param scanFrame
     * @param lidarFrame
     * @param timestamps
@@ -249,7 +272,46 @@ public class PointCloudDataReceiver extends Thread implements NetStateListener,
          throw new RuntimeException("Number of timestamps does not match number of points");
       }
 
-      dataQueue.offer(new PointCloudData(scanFrame, lidarFrame, timestamps, points, sources));
+      PointCloudData data = getDataToFill(scanFrame, lidarFrame, points.size(), sources);
+
+      for (int i = 0; i < points.size(); i++)
+      {
+         Point3d point = points.get(i);
+         data.points.add((float) point.getX(), (float) point.getY(), (float) point.getZ());
+      }
+      System.arraycopy(timestamps, 0, data.timestamps, 0, timestamps.length);
+
+      dataQueue.offer(data);
+   }
+
+   /**
+    * Receive new data where all the points have the same timestamp. The points are copied, so the buffer can be reused.
+    */
+   @Override
+   public void receivedPointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, long timestamp, PointCloudBuffer points,
+         PointCloudSource... sources)
+   {
+      PointCloudData data = getDataToFill(scanFrame, lidarFrame, points.size(), sources);
+      data.points.set(points);
+      Arrays.fill(data.timestamps, 0, points.size(), timestamp);
+
+      dataQueue.offer(data);
+   }
+
+   private PointCloudData getDataToFill(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, int numberOfPoints, PointCloudSource[] sources)
+   {
+      PointCloudData data = recycledData.poll();
+      if (data == null)
+         data = new PointCloudData();
+
+      data.scanFrame = scanFrame;
+      data.lidarFrame = lidarFrame;
+      data.sources = sources;
+      data.points.clear();
+      if (data.timestamps.length < numberOfPoints)
+         data.timestamps = new long[Math.max(numberOfPoints, 2 * data.timestamps.length)];
+
+      return data;
    }
 
    @Override
@@ -360,20 +422,10 @@ public class PointCloudDataReceiver extends Thread implements NetStateListener,
 
    private static class PointCloudData
    {
-      public PointCloudSource[] sources;
+      private PointCloudSource[] sources;
       private ReferenceFrame scanFrame;
       private ReferenceFrame lidarFrame;
-      private long[] timestamps;
-      private ArrayList<Point3d> points;
-
-      public PointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, long[] timestamps, ArrayList<Point3d> points, PointCloudSource[] sources)
-      {
-         this.scanFrame = scanFrame;
-         this.lidarFrame = lidarFrame;
-         this.timestamps = timestamps;
-         this.points = points;
-         this.sources = sources;
-      }
-
+      private long[] timestamps = new long[0];
+      private final PointCloudBuffer points = new PointCloudBuffer();
    }
 }
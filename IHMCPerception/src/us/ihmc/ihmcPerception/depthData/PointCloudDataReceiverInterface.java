@@ -1,13 +1,26 @@
 package us.ihmc.ihmcPerception.depthData;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import javax.vecmath.Point3d;
 
+import us.ihmc.robotics.dataStructures.PointCloudBuffer;
 import us.ihmc.robotics.referenceFrames.ReferenceFrame;
 
 public interface PointCloudDataReceiverInterface
 {
    void receivedPointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, long[] timestamps, ArrayList<Point3d> points, PointCloudSource... sources);
 
+   /**
+    * Receive a point cloud where all the points have the same timestamp. The buffer is reused by the caller, so implementations have to copy what they keep.
+    * The default implementation converts the points and calls {@link #receivedPointCloudData(ReferenceFrame, ReferenceFrame, long[], ArrayList, PointCloudSource...)}.
+    */
+   default void receivedPointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, long timestamp, PointCloudBuffer points, PointCloudSource... sources)
+   {
+      ArrayList<Point3d> pointsAsArrayList = new ArrayList<Point3d>(Arrays.asList(points.toPoint3dArray()));
+      long[] timestamps = new long[points.size()];
+      Arrays.fill(timestamps, timestamp);
+      receivedPointCloudData(scanFrame, lidarFrame, timestamps, pointsAsArrayList, sources);
+   }
 }
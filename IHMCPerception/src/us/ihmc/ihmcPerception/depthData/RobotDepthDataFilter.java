@@ -13,6 +13,12 @@ public class RobotDepthDataFilter extends DepthDataFilter
 {
    private final FullHumanoidRobotModel fullRobotModel;
 
+   private final RigidBodyTransform footToWorld = new RigidBodyTransform();
+   private final Point3d leftFootPoint = new Point3d();
+   private final Point3d midFootPoint = new Point3d();
+   private final RigidBodyTransform worldToPelvis = new RigidBodyTransform();
+   private final Point3d pointInPelvisFrame = new Point3d();
+   private final Point3d footAverage = new Point3d();
 
    public RobotDepthDataFilter(FullHumanoidRobotModel fullRobotModel)
    {
@@ -20,12 +26,18 @@ public class RobotDepthDataFilter extends DepthDataFilter
       this.fullRobotModel = fullRobotModel;
    }
 
-   
+   @Override
+   protected void updateRobotDependentData()
+   {
+      updateMidFootPoint();
+      ReferenceFrame.getWorldFrame().getTransformToDesiredFrame(worldToPelvis, fullRobotModel.getPelvis().getBodyFixedFrame());
+   }
+
    @Override
    public boolean isValidNearScan(Point3d point, Point3d lidarOrigin)
    {
       boolean valid = super.isValidNearScan(point, lidarOrigin);
-      valid &= point.getZ() > getMidFootPoint().getZ() + parameters.nearScanZMinAboveFeet;
+      valid &= point.getZ() > midFootPoint.getZ() + parameters.nearScanZMinAboveFeet;
 //      valid &= parameters.nearScanCollisions || robotBoundingBoxes.isValidPoint(lidarOrigin, point);
       valid &= Math.abs(getAngleToPelvis(point, lidarOrigin)) < parameters.nearScanRadians;
 
@@ -46,12 +58,12 @@ public class RobotDepthDataFilter extends DepthDataFilter
    @Override
    public boolean isPossibleGround(Point3d point, Point3d lidarOrigin)
    {
-      Point3d footAvg = getMidFootPoint();
+      footAverage.set(midFootPoint);
 
-      double footZ = footAvg.getZ();
-      footAvg.setZ(point.getZ());
+      double footZ = footAverage.getZ();
+      footAverage.setZ(point.getZ());
 
-      double maxHeight = parameters.quadTreeZAboveFeet + point.distance(footAvg) * parameters.quadTreeZSlope;
+      double maxHeight = parameters.quadTreeZAboveFeet + point.distance(footAverage) * parameters.quadTreeZSlope;
       if (maxHeight > parameters.quadTreeZMax)
       {
          maxHeight = parameters.quadTreeZMax;
@@ -60,41 +72,32 @@ public class RobotDepthDataFilter extends DepthDataFilter
       return (point.getZ() - footZ) < maxHeight;
    }
 
-   private Point3d getMidFootPoint()
+   private void updateMidFootPoint()
    {
-      RigidBodyTransform temp = new RigidBodyTransform();
-      Point3d left = new Point3d();
-      Point3d avg = new Point3d();
-
-      fullRobotModel.getFoot(RobotSide.LEFT).getBodyFixedFrame().getTransformToDesiredFrame(temp, ReferenceFrame.getWorldFrame());
-      temp.transform(left);
-      fullRobotModel.getFoot(RobotSide.RIGHT).getBodyFixedFrame().getTransformToDesiredFrame(temp, ReferenceFrame.getWorldFrame());
-      temp.transform(avg);
+      leftFootPoint.set(0.0, 0.0, 0.0);
+      midFootPoint.set(0.0, 0.0, 0.0);
 
-      avg.add(left);
-      avg.scale(0.5);
+      fullRobotModel.getFoot(RobotSide.LEFT).getBodyFixedFrame().getTransformToDesiredFrame(footToWorld, ReferenceFrame.getWorldFrame());
+      footToWorld.transform(leftFootPoint);
+      fullRobotModel.getFoot(RobotSide.RIGHT).getBodyFixedFrame().getTransformToDesiredFrame(footToWorld, ReferenceFrame.getWorldFrame());
+      footToWorld.transform(midFootPoint);
 
-      return avg;
+      midFootPoint.add(leftFootPoint);
+      midFootPoint.scale(0.5);
    }
 
    private boolean isAheadOfPelvis(Point3d point)
    {
-      RigidBodyTransform tf = new RigidBodyTransform();
-      ReferenceFrame.getWorldFrame().getTransformToDesiredFrame(tf, fullRobotModel.getPelvis().getBodyFixedFrame());
-      Point3d tfPoint = new Point3d(point);
-      tf.transform(tfPoint);
+      worldToPelvis.transform(point, pointInPelvisFrame);
 
-      return tfPoint.getX() > parameters.xCutoffPelvis;
+      return pointInPelvisFrame.getX() > parameters.xCutoffPelvis;
    }
 
    private double getAngleToPelvis(Point3d point, Point3d lidarOrigin)
    {
-      RigidBodyTransform tf = new RigidBodyTransform();
-      ReferenceFrame.getWorldFrame().getTransformToDesiredFrame(tf, fullRobotModel.getPelvis().getBodyFixedFrame());
-      Point3d tfPoint = new Point3d(point);
-      tf.transform(tfPoint);
+      worldToPelvis.transform(point, pointInPelvisFrame);
 
-      return Math.atan2(tfPoint.getY(), tfPoint.getX());
+      return Math.atan2(pointInPelvisFrame.getY(), pointInPelvisFrame.getX());
    }
 
    @Override
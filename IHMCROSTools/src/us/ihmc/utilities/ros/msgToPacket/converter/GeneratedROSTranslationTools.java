@@ -0,0 +1,401 @@
+package us.ihmc.utilities.ros.msgToPacket.converter;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.vecmath.Point2d;
+import javax.vecmath.Tuple3d;
+import javax.vecmath.Tuple4d;
+
+import org.apache.commons.lang3.StringUtils;
+import org.ros.internal.message.Message;
+
+import geometry_msgs.Quaternion;
+import geometry_msgs.Vector3;
+import ihmc_msgs.Point2dRosMessage;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.communication.ros.generators.RosExportedField;
+import us.ihmc.communication.ros.generators.RosMessagePacket;
+import us.ihmc.tools.io.printing.PrintTools;
+
+/**
+ * Same conversions as {@link GenericROSTranslationTools#convertIHMCMessageToRosMessage(Packet)} and
+ * {@link GenericROSTranslationTools#convertRosMessageToIHMCMessage(Message)} without the reflection.
+ * <p>
+ * The first time a message type is converted, a {@link RosPacketConverter} that copies the fields directly is generated with javassist
+ * and cached in a table indexed by the class of the message. Following conversions only cost a table lookup and the field copies.
+ * Message types that cannot be handled by the generator fall back to {@link GenericROSTranslationTools}.
+ * </p>
+ */
+public class GeneratedROSTranslationTools
+{
+   private static final String TOOLS = GenericROSTranslationTools.class.getName();
+   private static final String GENERATED_TOOLS = GeneratedROSTranslationTools.class.getName();
+   private static final String GENERATED_CLASS_PREFIX = RosPacketConverter.class.getPackage().getName() + ".generated.";
+
+   private static final ClassPool classPool = createClassPool();
+
+   private static final Map<Class<?>, RosPacketConverter> convertersForIHMCMessages = new ConcurrentHashMap<>();
+   private static final Map<Class<?>, RosPacketConverter> convertersForRosMessages = new ConcurrentHashMap<>();
+   private static final Map<String, RosPacketConverter> convertersForRosMessageTypes = new ConcurrentHashMap<>();
+   /** Indexed by the name of the generated class, only accessed while holding the lock on this class. */
+   private static final Map<String, RosPacketConverter> generatedConverters = new HashMap<>();
+
+   private static final RosPacketConverter reflectiveConverter = new RosPacketConverter()
+   {
+      @Override
+      public Message convertIHMCMessageToRosMessage(Packet<?> ihmcMessage)
+            throws IllegalAccessException, ClassNotFoundException, NoSuchMethodException, InvocationTargetException
+      {
+         return GenericROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessage);
+      }
+
+      @Override
+      public Packet<?> convertRosMessageToIHMCMessage(Message rosMessage) throws ClassNotFoundException, NoSuchFieldException, IllegalAccessException,
+            InstantiationException, InvocationTargetException, RosEnumConversionException
+      {
+         return GenericROSTranslationTools.convertRosMessageToIHMCMessage(rosMessage);
+      }
+   };
+
+   private static ClassPool createClassPool()
+   {
+      ClassPool classPool = new ClassPool(true);
+      classPool.appendClassPath(new LoaderClassPath(GeneratedROSTranslationTools.class.getClassLoader()));
+      return classPool;
+   }
+
+   public static Message convertIHMCMessageToRosMessage(Packet<?> ihmcMessage)
+         throws IllegalAccessException, ClassNotFoundException, NoSuchMethodException, InvocationTargetException
+   {
+      return getConverterForIHMCMessage(ihmcMessage.getClass()).convertIHMCMessageToRosMessage(ihmcMessage);
+   }
+
+   public static Packet<?> convertRosMessageToIHMCMessage(Message rosMessage) throws ClassNotFoundException, NoSuchFieldException, IllegalAccessException,
+         InstantiationException, InvocationTargetException, RosEnumConversionException
+   {
+      return getConverterForRosMessage(rosMessage).convertRosMessageToIHMCMessage(rosMessage);
+   }
+
+   public static RosPacketConverter getConverterForIHMCMessage(Class<?> ihmcMessageClass)
+   {
+      RosPacketConverter converter = convertersForIHMCMessages.get(ihmcMessageClass);
+
+      if (converter == null)
+      {
+         converter = createConverterForIHMCMessage(ihmcMessageClass);
+         convertersForIHMCMessages.put(ihmcMessageClass, converter);
+      }
+
+      return converter;
+   }
+
+   /**
+    * ROS messages created by the message factory are proxies, one class per message type, so the class of the message is used as key.
+    * Any other implementation is looked up by its type name.
+    */
+   public static RosPacketConverter getConverterForRosMessage(Message rosMessage)
+   {
+      Class<? extends Message> rosMessageClass = rosMessage.getClass();
+      boolean isProxy = Proxy.isProxyClass(rosMessageClass);
+
+      RosPacketConverter converter;
+      String rosMessageType = null;
+
+      if (isProxy)
+      {
+         converter = convertersForRosMessages.get(rosMessageClass);
+      }
+      else
+      {
+         rosMessageType = rosMessage.toRawMessage().getType();
+         converter = convertersForRosMessageTypes.get(rosMessageType);
+      }
+
+      if (converter == null)
+      {
+         if (rosMessageType == null)
+            rosMessageType = rosMessage.toRawMessage().getType();
+
+         converter = createConverterForRosMessage(rosMessageType);
+
+         if (isProxy)
+            convertersForRosMessages.put(rosMessageClass, converter);
+         else
+            convertersForRosMessageTypes.put(rosMessageType, converter);
+      }
+
+      return converter;
+   }
+
+   private static RosPacketConverter createConverterForIHMCMessage(Class<?> ihmcMessageClass)
+   {
+      RosMessagePacket rosAnnotation = ihmcMessageClass.getAnnotation(RosMessagePacket.class);
+      if (rosAnnotation == null)
+         return reflectiveConverter;
+
+      String rosMessageClassName = GenericROSTranslationTools.getRosMessageClassNameFromIHMCMessage(ihmcMessageClass.getSimpleName());
+      return getOrGenerateConverter(ihmcMessageClass, rosAnnotation.rosPackage() + "/" + rosMessageClassName);
+   }
+
+   private static RosPacketConverter createConverterForRosMessage(String rosMessageType)
+   {
+      String rosMessageName = rosMessageType.split("/")[1];
+      Class<?> ihmcMessageClass = GenericROSTranslationTools.getIHMCMessageClassForROSMessage(GenericROSTranslationTools.getAllRosMessagePacketAnnotatedClasses(),
+                                                                                              rosMessageName);
+      if (ihmcMessageClass == null)
+         return reflectiveConverter;
+
+      return getOrGenerateConverter(ihmcMessageClass, rosMessageType);
+   }
+
+   private static synchronized RosPacketConverter getOrGenerateConverter(Class<?> ihmcMessageClass, String rosMessageType)
+   {
+      String className = GENERATED_CLASS_PREFIX + ihmcMessageClass.getName().replace('.', '_') + "__" + rosMessageType.replace('/', '_');
+      RosPacketConverter converter = generatedConverters.get(className);
+
+      if (converter == null)
+      {
+         try
+         {
+            converter = generateConverter(className, ihmcMessageClass, rosMessageType);
+         }
+         catch (Exception e)
+         {
+            PrintTools.warn(GeneratedROSTranslationTools.class, "Could not generate a converter for " + ihmcMessageClass.getSimpleName() + " <-> " + rosMessageType
+                  + ", using reflection instead: " + e.getMessage());
+            converter = reflectiveConverter;
+         }
+
+         generatedConverters.put(className, converter);
+      }
+
+      return converter;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static RosPacketConverter generateConverter(String className, Class<?> ihmcMessageClass, String rosMessageType) throws Exception
+   {
+      Class<?> rosMessageClass = Class.forName(rosMessageType.replace("/", "."));
+      List<Class<? extends Enum>> enumClasses = new ArrayList<>();
+
+      String toRosMessageSource = createIHMCToRosMessageSource(ihmcMessageClass, rosMessageClass, rosMessageType);
+      String toIHMCMessageSource = createRosToIHMCMessageSource(ihmcMessageClass, rosMessageClass, enumClasses);
+
+      CtClass converterClass = classPool.makeClass(className, classPool.get(RosPacketConverter.class.getName()));
+      converterClass.addMethod(CtNewMethod.make(toRosMessageSource, converterClass));
+      converterClass.addMethod(CtNewMethod.make(toIHMCMessageSource, converterClass));
+      Class<?> generatedClass = converterClass.toClass(ihmcMessageClass.getClassLoader(), ihmcMessageClass.getProtectionDomain());
+      converterClass.detach();
+
+      RosPacketConverter converter = (RosPacketConverter) generatedClass.newInstance();
+      converter.setEnumClasses(enumClasses.toArray(new Class[enumClasses.size()]));
+      return converter;
+   }
+
+   /**
+    * Mirrors {@link GenericROSTranslationTools#convertIHMCMessageToRosMessage(Packet)}.
+    * Unlike the reflective version, {@code Point2d} fields are set using the setter of the ROS message.
+    */
+   private static String createIHMCToRosMessageSource(Class<?> ihmcMessageClass, Class<?> rosMessageClass, String rosMessageType) throws Exception
+   {
+      String ihmcMessageClassName = getSourceName(ihmcMessageClass);
+      String rosMessageClassName = getSourceName(rosMessageClass);
+
+      StringBuilder source = new StringBuilder();
+      source.append("public " + Message.class.getName() + " convertIHMCMessageToRosMessage(" + Packet.class.getName() + " packet)\n{\n");
+      source.append(ihmcMessageClassName + " ihmcMessage = (" + ihmcMessageClassName + ") $1;\n");
+      source.append(rosMessageClassName + " rosMessage = (" + rosMessageClassName + ") " + TOOLS + ".getMessageFactory().newFromType(\"" + rosMessageType
+            + "\");\n");
+
+      for (Field field : ihmcMessageClass.getFields())
+      {
+         if (!field.isAnnotationPresent(RosExportedField.class))
+            continue;
+
+         Class<?> fieldType = field.getType();
+         String value = getFieldAccess(field, "ihmcMessage");
+         String setter = "rosMessage.set" + StringUtils.capitalize(field.getName());
+
+         if (fieldType.getCanonicalName().contains("javax.vecmath"))
+         {
+            // Same converters as GenericROSTranslationTools.setPoint2dField and setVecmathField, e.g. convertTuple3d for a Point3d.
+            Class<?> converterParameterType = fieldType.equals(Point2d.class) ? Point2d.class : fieldType.getSuperclass();
+            String converterName = "convert" + converterParameterType.getSimpleName();
+            Method converter = GenericROSTranslationTools.class.getMethod(converterName, converterParameterType);
+            checkSetter(rosMessageClass, field, converter.getReturnType());
+            source.append(setter + "(" + TOOLS + "." + converterName + "(" + value + "));\n");
+         }
+         else if (fieldType.isArray() && !fieldType.getComponentType().isPrimitive())
+         {
+            checkSetter(rosMessageClass, field, List.class);
+            source.append("if (" + value + " == null) " + setter + "(new java.util.ArrayList());\n");
+            source.append("else " + setter + "(java.util.Arrays.asList((Object[]) " + value + "));\n");
+         }
+         else if (Enum.class.isAssignableFrom(fieldType))
+         {
+            checkSetter(rosMessageClass, field, byte.class);
+            source.append("if (" + value + " != null) " + setter + "((byte) " + value + ".ordinal());\n");
+         }
+         else
+         {
+            checkSetter(rosMessageClass, field, fieldType);
+            source.append(setter + "(" + value + ");\n");
+         }
+      }
+
+      source.append("return rosMessage;\n}");
+      return source.toString();
+   }
+
+   /**
+    * Mirrors {@link GenericROSTranslationTools#convertRosMessageToIHMCMessage(Message)}.
+    * ROS getters without a matching field in the IHMC message are ignored.
+    */
+   private static String createRosToIHMCMessageSource(Class<?> ihmcMessageClass, Class<?> rosMessageClass, List<Class<? extends Enum>> enumClassesToPack)
+         throws Exception
+   {
+      Map<Method, Field> rosGetterToIHMCFieldMap = new LinkedHashMap<>();
+
+      for (Method getter : rosMessageClass.getMethods())
+      {
+         if (!getter.getName().startsWith("get"))
+            continue;
+
+         String fieldName = StringUtils.uncapitalize(getter.getName().replace("get", ""));
+         try
+         {
+            rosGetterToIHMCFieldMap.put(getter, ihmcMessageClass.getField(fieldName));
+         }
+         catch (NoSuchFieldException e)
+         {
+         }
+      }
+
+      StringBuilder source = new StringBuilder();
+      source.append("public " + Packet.class.getName() + " convertRosMessageToIHMCMessage(" + Message.class.getName() + " message)\n{\n");
+
+      if (rosGetterToIHMCFieldMap.isEmpty())
+      {
+         source.append("return null;\n}");
+         return source.toString();
+      }
+
+      String ihmcMessageClassName = getSourceName(ihmcMessageClass);
+      String rosMessageClassName = getSourceName(rosMessageClass);
+      source.append(rosMessageClassName + " rosMessage = (" + rosMessageClassName + ") $1;\n");
+      source.append(ihmcMessageClassName + " ihmcMessage = new " + ihmcMessageClassName + "();\n");
+
+      int variableIndex = 0;
+
+      for (Map.Entry<Method, Field> getterFieldEntry : rosGetterToIHMCFieldMap.entrySet())
+      {
+         Method getter = getterFieldEntry.getKey();
+         Field field = getterFieldEntry.getValue();
+         Class<?> fieldType = field.getType();
+         Class<?> returnType = getter.getReturnType();
+
+         if (getter.getParameterTypes().length != 0 || Modifier.isFinal(field.getModifiers()))
+            throw new RuntimeException("Cannot set the field " + field.getName() + " from " + getter.getName());
+
+         String target = getFieldAccess(field, "ihmcMessage");
+         String value = "rosMessage." + getter.getName() + "()";
+
+         if (List.class.isAssignableFrom(returnType) && fieldType.isArray())
+         {
+            Class<?> componentType = fieldType.getComponentType();
+            if (componentType.isPrimitive())
+               throw new RuntimeException("Cannot convert a list to the primitive array " + field.getName());
+
+            String componentName = getSourceName(componentType);
+            String list = "list" + variableIndex;
+            String array = "array" + variableIndex;
+            String element = "element" + variableIndex;
+            String index = "i" + variableIndex;
+            variableIndex++;
+
+            source.append("java.util.List " + list + " = " + value + ";\n");
+            source.append(componentName + "[] " + array + " = new " + componentName + "[" + list + ".size()];\n");
+            source.append("for (int " + index + " = 0; " + index + " < " + array + ".length; " + index + "++)\n{\n");
+            source.append("Object " + element + " = " + list + ".get(" + index + ");\n");
+            source.append("if (" + element + " instanceof " + Message.class.getName() + ") " + array + "[" + index + "] = (" + componentName + ") " + GENERATED_TOOLS
+                  + ".convertRosMessageToIHMCMessage((" + Message.class.getName() + ") " + element + ");\n");
+            source.append("else " + array + "[" + index + "] = (" + componentName + ") " + element + ";\n");
+            source.append("}\n");
+            source.append(target + " = " + array + ";\n");
+         }
+         else if (fieldType.isEnum())
+         {
+            if (!returnType.equals(byte.class))
+               throw new RuntimeException("Expected a byte for the enum field " + field.getName() + ", got a " + returnType.getSimpleName());
+
+            source.append(target + " = (" + getSourceName(fieldType) + ") getEnumConstant(" + enumClassesToPack.size() + ", " + value + ");\n");
+            enumClassesToPack.add((Class<? extends Enum>) fieldType);
+         }
+         else if (fieldType.getCanonicalName().contains("javax.vecmath"))
+         {
+            if (fieldType.equals(Point2d.class))
+            {
+               source.append(target + " = " + TOOLS + ".convertPoint2DRos((" + Point2dRosMessage.class.getName() + ") " + value + ");\n");
+            }
+            else if (returnType.equals(Quaternion.class) || returnType.equals(Vector3.class))
+            {
+               boolean isQuaternion = returnType.equals(Quaternion.class);
+               Class<?> tupleClass = isQuaternion ? Tuple4d.class : Tuple3d.class;
+               if (!tupleClass.isAssignableFrom(fieldType))
+                  throw new RuntimeException("Cannot convert a " + returnType.getSimpleName() + " to the " + fieldType.getSimpleName() + " " + field.getName());
+
+               String tuple = "tuple" + variableIndex++;
+               source.append(getSourceName(fieldType) + " " + tuple + " = new " + getSourceName(fieldType) + "();\n");
+               source.append("((" + tupleClass.getName() + ") " + tuple + ").set(" + TOOLS + (isQuaternion ? ".convertQuaternion(" : ".convertVector3(") + value
+                     + "));\n");
+               source.append(target + " = " + tuple + ";\n");
+            }
+         }
+         else
+         {
+            if (!fieldType.equals(returnType) && (fieldType.isPrimitive() || !fieldType.isAssignableFrom(returnType)))
+               throw new RuntimeException("Cannot assign a " + returnType.getSimpleName() + " to the " + fieldType.getSimpleName() + " " + field.getName());
+
+            source.append(target + " = " + value + ";\n");
+         }
+      }
+
+      source.append("return ihmcMessage;\n}");
+      return source.toString();
+   }
+
+   private static void checkSetter(Class<?> rosMessageClass, Field field, Class<?> parameterType) throws NoSuchMethodException
+   {
+      rosMessageClass.getMethod("set" + StringUtils.capitalize(field.getName()), parameterType);
+   }
+
+   private static String getFieldAccess(Field field, String instanceName)
+   {
+      if (Modifier.isStatic(field.getModifiers()))
+         return getSourceName(field.getDeclaringClass()) + "." + field.getName();
+      else
+         return instanceName + "." + field.getName();
+   }
+
+   private static String getSourceName(Class<?> clazz)
+   {
+      if (clazz.isArray())
+         return getSourceName(clazz.getComponentType()) + "[]";
+      else
+         return clazz.getName();
+   }
+}
@@ -0,0 +1,52 @@
+package us.ihmc.utilities.ros.msgToPacket.converter;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.ros.internal.message.Message;
+
+import us.ihmc.communication.packets.Packet;
+
+/**
+ * Converts one type of IHMC packet to its ROS message and back.
+ * Implementations are generated at runtime by {@link GeneratedROSTranslationTools} and copy the fields directly, without reflection.
+ */
+public abstract class RosPacketConverter
+{
+   private Class<? extends Enum>[] enumClasses;
+   private Enum[][] enumConstants;
+
+   public abstract Message convertIHMCMessageToRosMessage(Packet<?> ihmcMessage)
+         throws IllegalAccessException, ClassNotFoundException, NoSuchMethodException, InvocationTargetException;
+
+   public abstract Packet<?> convertRosMessageToIHMCMessage(Message rosMessage)
+         throws ClassNotFoundException, NoSuchFieldException, IllegalAccessException, InstantiationException, InvocationTargetException,
+         RosEnumConversionException;
+
+   void setEnumClasses(Class<? extends Enum>[] enumClasses)
+   {
+      this.enumClasses = enumClasses;
+      enumConstants = new Enum[enumClasses.length][];
+
+      for (int i = 0; i < enumClasses.length; i++)
+      {
+         enumConstants[i] = enumClasses[i].getEnumConstants();
+      }
+   }
+
+   /**
+    * Used by the generated converters to get the value of an enum field from its ordinal without calling {@code values()}.
+    *
+    * @param enumIndex the index of the enum class in the array given to {@link #setEnumClasses(Class[])}.
+    */
+   protected final Enum getEnumConstant(int enumIndex, byte ordinal) throws RosEnumConversionException
+   {
+      Enum[] constants = enumConstants[enumIndex];
+
+      if (ordinal >= constants.length)
+      {
+         throw new RosEnumConversionException(enumClasses[enumIndex], ordinal, "");
+      }
+
+      return constants[ordinal];
+   }
+}
@@ -7,6 +7,7 @@ import java.nio.ByteOrder;
 import javax.vecmath.Point3d;
 
 import sensor_msgs.PointCloud2;
+import us.ihmc.robotics.dataStructures.PointCloudBuffer;
 import us.ihmc.utilities.ros.types.PointType;
 
 public abstract class RosPointCloudSubscriber extends AbstractRosTopicSubscriber<PointCloud2>
@@ -197,6 +198,65 @@ public abstract class RosPointCloudSubscriber extends AbstractRosTopicSubscriber
       return packet;
    }
 
+   /**
+    * Decodes the points directly from the message data into {@code pointCloudToPack}, without creating any object per point.
+    * The buffer is cleared first and keeps its memory, so it can be reused for every message.
+    *
+    * @return the type of the points contained in the message.
+    */
+   public static PointType unpackPointCloud(PointCloud2 pointCloud, PointCloudBuffer pointCloudToPack)
+   {
+      PointType pointType = PointType.fromFromFieldNames(pointCloud.getFields());
+      int numberOfPoints = pointCloud.getWidth() * pointCloud.getHeight();
+      int pointStep = pointCloud.getPointStep();
+
+      pointCloudToPack.clear();
+      pointCloudToPack.setSize(numberOfPoints);
+      pointCloudToPack.setHasIntensities(pointType == PointType.XYZI);
+      pointCloudToPack.setHasColors(pointType == PointType.XYZRGB);
+
+      float[] xyz = pointCloudToPack.getXYZArray();
+      float[] intensities = pointCloudToPack.getIntensityArray();
+      int[] colors = pointCloudToPack.getColorArray();
+
+      // Wraps the message data, nothing is copied. The reads below use absolute indices in the backing array.
+      int offset = pointCloud.getData().arrayOffset();
+      ByteBuffer byteBuffer = ByteBuffer.wrap(pointCloud.getData().array(), offset, numberOfPoints * pointStep);
+      byteBuffer.order(pointCloud.getIsBigendian() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         int pointIndex = offset + i * pointStep;
+         xyz[3 * i] = byteBuffer.getFloat(pointIndex);
+         xyz[3 * i + 1] = byteBuffer.getFloat(pointIndex + 4);
+         xyz[3 * i + 2] = byteBuffer.getFloat(pointIndex + 8);
+
+         switch (pointType)
+         {
+         case XYZI:
+            intensities[i] = byteBuffer.getFloat(pointIndex + 12);
+            colors[i] = 0;
+            break;
+
+         case XYZRGB:
+            int b = byteToUnsignedInt(byteBuffer.get(pointIndex + 12));
+            int g = byteToUnsignedInt(byteBuffer.get(pointIndex + 13));
+            int r = byteToUnsignedInt(byteBuffer.get(pointIndex + 14));
+            // Same packing as java.awt.Color(r, g, b).getRGB(), the alpha byte is ignored.
+            colors[i] = 0xff000000 | (r << 16) | (g << 8) | b;
+            intensities[i] = 0.0f;
+            break;
+
+         case XYZ:
+            intensities[i] = 0.0f;
+            colors[i] = 0;
+            break;
+         }
+      }
+
+      return pointType;
+   }
+
    private static int byteToUnsignedInt(byte b)
    {
       return ((int) b) & 0xff;
@@ -7,18 +7,23 @@ import java.nio.ByteBuffer;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
-import us.ihmc.concurrent.Builder;
-import us.ihmc.concurrent.ConcurrentRingBuffer;
 import us.ihmc.multicastLogDataProtocol.control.LogHandshake;
 import us.ihmc.multicastLogDataProtocol.control.SummaryProvider;
 import us.ihmc.multicastLogDataProtocol.modelLoaders.LogModelProvider;
 import us.ihmc.robotDataLogger.YoVariableHandShakeBuilder;
+import us.ihmc.tools.io.printing.PrintTools;
 
 public class MultiClientStreamingDataTCPServer extends Thread
 {
+   private static final boolean DEBUG = false;
 
-   private final ClientHandler handlers[] = new ClientHandler[4];
+   private static final int MAXIMUM_NUMBER_OF_CLIENTS = 4;
+   private static final long WAIT_FOR_DATA_TIMEOUT = 1000000;
+
+   private final ClientHandler handlers[] = new ClientHandler[MAXIMUM_NUMBER_OF_CLIENTS];
+   private final SharedFrameRing ring;
    private final ServerSocketChannel server;
    
    private ByteBuffer handshakeBuffer;
@@ -33,7 +38,7 @@ public class MultiClientStreamingDataTCPServer extends Thread
     * @param port port to accept connections on
     * @param handshakeBuffer ByteBuffer with handshake data
     * @param dataSize Maximum length of data send by this server
-    * @param bufferLength Number of buffers. Memory usage is 4 * bufferLength * dataSize bytes.
+    * @param bufferLength Number of buffers shared by all clients. Memory usage is (bufferLength + 5) * dataSize bytes.
     *  
     * @throws IOException
     */
@@ -42,9 +47,10 @@ public class MultiClientStreamingDataTCPServer extends Thread
       server = ServerSocketChannel.open();
       server.bind(new InetSocketAddress(port));
       this.handshakeBuffer = handshakeBuffer;
+      ring = new SharedFrameRing(bufferLength, MAXIMUM_NUMBER_OF_CLIENTS, dataSize);
       for (int i = 0; i < handlers.length; i++)
       {
-         handlers[i] = new ClientHandler(dataSize, bufferLength);
+         handlers[i] = new ClientHandler(ring);
          new Thread(handlers[i], "StreamingDataTCPServer-" + i).start();
       }
    }
@@ -83,12 +89,22 @@ public class MultiClientStreamingDataTCPServer extends Thread
 
    public void send(ByteBuffer data)
    {
+      send(data, false);
+   }
+
+   /**
+    * Send data to all clients. The data is copied once in a ring shared by all clients, that each client reads at its own pace. Does not block on
+    * slow clients, they drop data instead.
+    * 
+    * @param data Data to send
+    * @param sendToAllClients Also send to clients that only receive every Nth tick. Used for keyframes that clients need to decode the ticks after it.
+    */
+   public void send(ByteBuffer data, boolean sendToAllClients)
+   {
+      ring.publish(data, sendToAllClients);
       for (int i = 0; i < handlers.length; i++)
       {
-         ClientHandler handler = handlers[i];
-         data.mark();
-         handler.send(data);
-         data.reset();
+         handlers[i].dataAvailable();
       }
    }
 
@@ -179,39 +195,40 @@ public class MultiClientStreamingDataTCPServer extends Thread
       }
    }
 
+   /**
+    * Sends the frames in the shared ring to a single client, at the pace of that client.
+    * 
+    * A client that cannot keep up and gets overrun by the producer skips ahead to the newest frame, and doubles its decimation. When it
+    * keeps up again, the decimation is reduced back to what the client requested. Keyframes are always send.
+    */
    private static class ClientHandler implements Runnable
    {
+      private static final int MAXIMUM_DECIMATION_FACTOR = 64;
 
-      private final ConcurrentRingBuffer<ByteBuffer> data;
-
+      private final SharedFrameRing ring;
+      private final ByteBuffer[] frameViews;
 
       private final Object dataLock = new Object();
       
       private volatile boolean active = false;
+      private volatile Thread thread;
 
-      private long count;
       private int sendEveryNTicks;
       private SocketChannel client;
       
 
       private AtomicReference<InetSocketAddress> udpAddress = new AtomicReference<InetSocketAddress>(null);
       
-      private ClientHandler(final int dataSize, int bufferLength)
+      private ClientHandler(SharedFrameRing ring)
       {
-         data = new ConcurrentRingBuffer<>(new Builder<ByteBuffer>()
-         {
-
-            @Override
-            public ByteBuffer newInstance()
-            {
-               return ByteBuffer.allocateDirect(dataSize);
-            }
-         }, bufferLength);
+         this.ring = ring;
+         frameViews = new ByteBuffer[ring.getPoolSize()];
       }
 
       @Override
       public void run()
       {
+         thread = Thread.currentThread();
          for (;;)
          {
             synchronized (dataLock)
@@ -226,54 +243,15 @@ public class MultiClientStreamingDataTCPServer extends Thread
                   {
                   }
                }
-               
-               // Flush queue
-               data.poll();
-               while (data.read() != null);
-               data.flush();
-               
             }            
             System.out.println("Accepted client:  " + client);
 
-            for (;;)
+            try
+            {
+               sendFrames();
+            }
+            catch (IOException e)
             {
-               if (!client.isConnected())
-               {
-                  if (!client.isConnectionPending())
-                  {
-                     break;
-                  }
-                  continue;
-               }
-
-               if (data.poll())
-               {
-                  ByteBuffer currentData = data.read();
-                  try
-                  {
-                     client.write(currentData);
-                  }
-                  catch (IOException e)
-                  {
-                     break;
-                  }
-                  data.flush();
-               }
-               else
-               {
-                  synchronized (dataLock)
-                  {
-                     try
-                     {
-                        dataLock.wait();
-                     }
-                     catch (InterruptedException e)
-                     {
-                     }
-                     
-                  }
-               }
-
             }
             System.out.println("Connection closed:  " + client);
             
@@ -293,6 +271,90 @@ public class MultiClientStreamingDataTCPServer extends Thread
          }
       }
 
+      private void sendFrames() throws IOException
+      {
+         int decimation = sendEveryNTicks;
+         int ticksKeepingUp = 0;
+         long droppedFrames = 0;
+
+         // Start at the newest frame, older frames are of no interest to a new client
+         long nextSequence = ring.getPublishedSequence() + 1;
+
+         for (;;)
+         {
+            if (!client.isConnected())
+            {
+               if (!client.isConnectionPending())
+               {
+                  return;
+               }
+               continue;
+            }
+
+            long publishedSequence = ring.getPublishedSequence();
+            if (nextSequence > publishedSequence)
+            {
+               LockSupport.parkNanos(this, WAIT_FOR_DATA_TIMEOUT);
+               continue;
+            }
+
+            SharedFrameRing.Frame frame = ring.acquire(nextSequence);
+            if (frame == null)
+            {
+               // Overrun by the producer, skip to the newest frame and send less
+               droppedFrames += publishedSequence - nextSequence;
+               nextSequence = publishedSequence;
+               ticksKeepingUp = 0;
+               if (decimation < sendEveryNTicks * MAXIMUM_DECIMATION_FACTOR)
+               {
+                  decimation *= 2;
+                  PrintTools.debug(DEBUG, this, client + " cannot keep up. Dropped " + droppedFrames + " frames, sending every " + decimation + " ticks.");
+               }
+               continue;
+            }
+
+            try
+            {
+               if (frame.isKeyframe() || frame.getSequence() % decimation == 0)
+               {
+                  ByteBuffer view = getView(frame);
+                  while (view.hasRemaining())
+                  {
+                     client.write(view);
+                  }
+               }
+            }
+            finally
+            {
+               frame.release();
+            }
+
+            if (decimation > sendEveryNTicks && ring.getPublishedSequence() - nextSequence < ring.getCapacity() / 4)
+            {
+               if (++ticksKeepingUp > ring.getCapacity())
+               {
+                  decimation = Math.max(sendEveryNTicks, decimation / 2);
+                  ticksKeepingUp = 0;
+                  PrintTools.debug(DEBUG, this, client + " is keeping up, sending every " + decimation + " ticks.");
+               }
+            }
+            nextSequence++;
+         }
+      }
+
+      private ByteBuffer getView(SharedFrameRing.Frame frame)
+      {
+         ByteBuffer view = frameViews[frame.getIndex()];
+         if (view == null)
+         {
+            view = frame.getData().duplicate();
+            frameViews[frame.getIndex()] = view;
+         }
+         view.limit(frame.getLength());
+         view.position(0);
+         return view;
+      }
+
       /**
        * Set the client
        * @param client
@@ -309,7 +371,7 @@ public class MultiClientStreamingDataTCPServer extends Thread
             if (!internalActive)
             {
                this.client = client;
-               this.sendEveryNTicks = sendEveryNTicks;
+               this.sendEveryNTicks = Math.max(sendEveryNTicks, 1);
                try
                {
                   SocketAddress socketAddress = client.getRemoteAddress();
@@ -334,28 +396,15 @@ public class MultiClientStreamingDataTCPServer extends Thread
          return !internalActive;
       }
 
-      public void send(ByteBuffer dataToSend)
+      /**
+       * Wake up the handler thread if it is waiting for data. Does not block.
+       */
+      public void dataAvailable()
       {
-         if (active)
+         Thread handlerThread = thread;
+         if (active && handlerThread != null)
          {
-
-            if (count % sendEveryNTicks == 0)
-            {
-               ByteBuffer nextData = data.next();
-
-               if (nextData != null)
-               {
-                  nextData.clear();
-                  nextData.put(dataToSend);
-                  nextData.flip();
-               }
-               data.commit();
-               synchronized (dataLock)
-               {
-                  dataLock.notifyAll();
-               }
-            }
-            count++;
+            LockSupport.unpark(handlerThread);
          }
       }
       
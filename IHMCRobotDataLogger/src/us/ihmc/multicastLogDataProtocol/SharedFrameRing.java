@@ -0,0 +1,207 @@
+package us.ihmc.multicastLogDataProtocol;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring of frames that is shared by all readers. A single writer publishes frames, every reader follows at its own pace with its own sequence number.
+ *
+ * Frames are reference counted. The ring holds a reference to the frames in it, and a reader holds a reference while it sends a frame. The writer only
+ * reuses frames without references, so it never waits for readers and never overwrites data that is being read. Readers that fall more than
+ * the capacity behind find their frames gone and have to skip ahead.
+ *
+ * The frame pool holds one frame more than the ring and the readers can reference at the same time, so the writer always finds a free frame.
+ */
+public class SharedFrameRing
+{
+   private static final int CLAIMED = -1;
+
+   private final int capacity;
+   private final Frame[] pool;
+   private final AtomicReferenceArray<Frame> ring;
+
+   private volatile long publishedSequence = -1;
+   private int nextFreeFrame = 0;
+
+   /**
+    * @param capacity Number of frames in the ring
+    * @param maximumNumberOfReaders Number of readers that can hold a frame at the same time
+    * @param frameSize Maximum size of a frame in bytes
+    */
+   public SharedFrameRing(int capacity, int maximumNumberOfReaders, int frameSize)
+   {
+      if (capacity < 1)
+      {
+         throw new RuntimeException("Capacity must be at least one");
+      }
+
+      this.capacity = capacity;
+      this.ring = new AtomicReferenceArray<>(capacity);
+      this.pool = new Frame[capacity + maximumNumberOfReaders + 1];
+      for (int i = 0; i < pool.length; i++)
+      {
+         pool[i] = new Frame(i, frameSize);
+      }
+   }
+
+   /**
+    * Copies data in a free frame and publishes it. Only call from the writer thread.
+    *
+    * @param data Data to publish. The position of data is not modified.
+    * @param keyframe Send this frame to all readers, also those that skip frames
+    */
+   public void publish(ByteBuffer data, boolean keyframe)
+   {
+      Frame frame = claimFreeFrame();
+
+      data.mark();
+      frame.data.clear();
+      frame.data.put(data);
+      frame.data.flip();
+      data.reset();
+
+      long sequence = publishedSequence + 1;
+      frame.sequence = sequence;
+      frame.keyframe = keyframe;
+      frame.references.set(1); // Reference of the ring, publishes the data to the readers
+
+      Frame previous = ring.getAndSet((int) (sequence % capacity), frame);
+      if (previous != null)
+      {
+         previous.release();
+      }
+
+      publishedSequence = sequence;
+   }
+
+   private Frame claimFreeFrame()
+   {
+      for (int i = 0; i < pool.length; i++)
+      {
+         Frame frame = pool[nextFreeFrame];
+         nextFreeFrame = (nextFreeFrame + 1) % pool.length;
+         if (frame.references.compareAndSet(0, CLAIMED))
+         {
+            return frame;
+         }
+      }
+      throw new RuntimeException("No free frames. More readers than expected are holding on to frames.");
+   }
+
+   /**
+    * @return Sequence number of the last published frame, or -1 if nothing is published yet
+    */
+   public long getPublishedSequence()
+   {
+      return publishedSequence;
+   }
+
+   /**
+    * Get the frame with the given sequence number and hold on to it. Call {@link Frame#release()} when done.
+    *
+    * @param sequence Sequence number of the frame
+    * @return The frame, or null if the frame is not published yet or already overwritten
+    */
+   public Frame acquire(long sequence)
+   {
+      if (sequence > publishedSequence || sequence < 0)
+      {
+         return null;
+      }
+
+      Frame frame = ring.get((int) (sequence % capacity));
+      if (frame == null || !frame.retain())
+      {
+         return null;
+      }
+
+      if (frame.sequence != sequence)
+      {
+         frame.release();
+         return null;
+      }
+
+      return frame;
+   }
+
+   public int getCapacity()
+   {
+      return capacity;
+   }
+
+   public int getPoolSize()
+   {
+      return pool.length;
+   }
+
+   public static class Frame
+   {
+      private final int index;
+      private final ByteBuffer data;
+      private final AtomicInteger references = new AtomicInteger();
+
+      private long sequence = -1;
+      private boolean keyframe;
+
+      private Frame(int index, int frameSize)
+      {
+         this.index = index;
+         this.data = ByteBuffer.allocateDirect(frameSize);
+      }
+
+      private boolean retain()
+      {
+         int count;
+         do
+         {
+            count = references.get();
+            if (count <= 0)
+            {
+               return false;
+            }
+         }
+         while (!references.compareAndSet(count, count + 1));
+         return true;
+      }
+
+      public void release()
+      {
+         references.decrementAndGet();
+      }
+
+      /**
+       * @return Index of this frame in the pool, between 0 and {@link SharedFrameRing#getPoolSize()}. Useful to keep a view per frame.
+       */
+      public int getIndex()
+      {
+         return index;
+      }
+
+      /**
+       * @return Length of the data in bytes
+       */
+      public int getLength()
+      {
+         return data.limit();
+      }
+
+      /**
+       * @return The data of this frame. Shared by all readers, so only read from a duplicate.
+       */
+      public ByteBuffer getData()
+      {
+         return data;
+      }
+
+      public long getSequence()
+      {
+         return sequence;
+      }
+
+      public boolean isKeyframe()
+      {
+         return keyframe;
+      }
+   }
+}
@@ -0,0 +1,28 @@
+package us.ihmc.robotDataLogger;
+
+/**
+ * Encoding of the frames send by the {@link YoVariableProducer}.
+ *
+ * With delta encoding, every frame is XOR'ed with a reference frame before compression. Variables that did not change become zero and
+ * variables that changed a little only keep their low bits, which compresses a lot better. Keyframes are send unencoded at a fixed interval,
+ * so clients can start decoding when they join mid-stream or after a dropped packet.
+ */
+public enum DeltaEncodingMode
+{
+   /**
+    * Every frame is send as is.
+    */
+   NONE,
+
+   /**
+    * Frames are XOR'ed with the last keyframe. Frames can be decoded as long as the last keyframe is received, so this works for clients that
+    * skip packets.
+    */
+   KEYFRAME,
+
+   /**
+    * Frames are XOR'ed with the previous frame. This compresses best, but a single dropped packet makes the client wait for the next keyframe,
+    * so only use this when all clients receive every tick.
+    */
+   PREVIOUS_TICK
+}
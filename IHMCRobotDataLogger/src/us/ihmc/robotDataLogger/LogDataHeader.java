@@ -13,6 +13,8 @@ public class LogDataHeader
    public static final byte KEEP_ALIVE_PACKET = 0x11;
    public static final byte DATA_PACKET = 0x22;
    public static final byte VIDEO_PACKET = 0x33;
+   public static final byte DELTA_KEYFRAME_PACKET = 0x44;
+   public static final byte DELTA_PREVIOUS_PACKET = 0x55;
 
    public static final short HEADER = 0x7A7A;
    private long uid;
@@ -0,0 +1,366 @@
+package us.ihmc.robotDataLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+import us.ihmc.robotDataLogger.jointState.JointState;
+import us.ihmc.robotDataLogger.logger.LogProperties;
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Random access reader for YoVariable logs that memory-maps the data and index files.
+ * <p>
+ * A log record is the timestamp followed by the long bits of every variable and then the joint states. Records are either stored
+ * back to back, or Snappy compressed one by one with an index file holding the timestamp and data offset of each record.
+ * <p>
+ * Nothing is read until a record is asked for, and the index is used in place instead of being loaded in arrays. Uncompressed
+ * records are returned as views on the mapped file. In projection mode, only a chosen subset of the longs of a record is read, and
+ * compressed records are only decompressed up to the last long of that subset.
+ * <p>
+ * The files are mapped in segments of at most 1GB so that logs of any size can be read. Segments overlap by the maximum size of a
+ * record, so that a record is always in a single segment.
+ * <p>
+ * This class is not thread safe. Use one reader per thread, the mapped memory is shared between them by the operating system.
+ */
+public class MappedLogReader
+{
+   private static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+   private static final int INDEX_ENTRY_SIZE = 16;
+
+   private final RandomAccessFile dataFile;
+   private final RandomAccessFile indexFile;
+
+   private final boolean compressed;
+   private final int recordLength;
+   private final int recordSize;
+   private final long dataSize;
+   private final int numberOfRecords;
+
+   private final long segmentSize;
+   private final MappedByteBuffer[] dataSegments;
+   private final ByteBuffer[] dataSegmentViews;
+   private final LongBuffer index;
+
+   private final byte[] compressedRecord;
+   private final byte[] uncompressedRecord;
+   private final ByteBuffer uncompressedRecordBuffer;
+
+   private int[] projection = new int[0];
+   private int projectionSize = 0;
+
+   /**
+    * Opens the log in logDirectory.
+    *
+    * @param logDirectory Directory of the log
+    * @param logProperties Properties of the log
+    * @param numberOfVariables Number of variables in the handshake of the log
+    * @param numberOfJointStateValues Number of values used by the joint states, see {@link JointState#getNumberOfJointStates(java.util.List)}
+    */
+   public MappedLogReader(File logDirectory, LogProperties logProperties, int numberOfVariables, int numberOfJointStateValues) throws IOException
+   {
+      this(new File(logDirectory, logProperties.getVariableDataFile()),
+            logProperties.getCompressed() ? new File(logDirectory, logProperties.getVariablesIndexFile()) : null,
+            1 + numberOfVariables + numberOfJointStateValues);
+   }
+
+   /**
+    * @param dataFile File with the log records
+    * @param indexFile Index of the records if they are compressed, null if they are not
+    * @param recordLength Number of longs in a record, including the timestamp
+    */
+   public MappedLogReader(File dataFile, File indexFile, int recordLength) throws IOException
+   {
+      this(dataFile, indexFile, recordLength, DEFAULT_SEGMENT_SIZE);
+   }
+
+   MappedLogReader(File dataFile, File indexFile, int recordLength, long segmentSize) throws IOException
+   {
+      if (!dataFile.exists())
+      {
+         throw new RuntimeException("Cannot find " + dataFile);
+      }
+      if (indexFile != null && !indexFile.exists())
+      {
+         throw new RuntimeException("Cannot find " + indexFile);
+      }
+
+      this.compressed = indexFile != null;
+      this.recordLength = recordLength;
+      this.recordSize = recordLength * 8;
+      this.segmentSize = segmentSize;
+
+      this.dataFile = new RandomAccessFile(dataFile, "r");
+      FileChannel dataChannel = this.dataFile.getChannel();
+      this.dataSize = dataChannel.size();
+
+      int maximumRecordSize = compressed ? SnappyUtils.maxCompressedLength(recordSize) : recordSize;
+      int numberOfSegments = (int) Math.max(1, (dataSize + segmentSize - 1) / segmentSize);
+      dataSegments = new MappedByteBuffer[numberOfSegments];
+      dataSegmentViews = new ByteBuffer[numberOfSegments];
+
+      for (int i = 0; i < numberOfSegments; i++)
+      {
+         long start = i * segmentSize;
+         long size = Math.min(segmentSize + maximumRecordSize, dataSize - start);
+         dataSegments[i] = dataChannel.map(MapMode.READ_ONLY, start, Math.max(size, 0));
+         dataSegmentViews[i] = dataSegments[i].asReadOnlyBuffer();
+      }
+
+      if (compressed)
+      {
+         this.indexFile = new RandomAccessFile(indexFile, "r");
+         FileChannel indexChannel = this.indexFile.getChannel();
+         long indexSize = indexChannel.size();
+         if (indexSize / INDEX_ENTRY_SIZE > Integer.MAX_VALUE / 2)
+         {
+            throw new RuntimeException("Index " + indexFile + " is too large");
+         }
+         index = indexChannel.map(MapMode.READ_ONLY, 0, indexSize - indexSize % INDEX_ENTRY_SIZE).asLongBuffer();
+         numberOfRecords = index.limit() / 2;
+         compressedRecord = new byte[maximumRecordSize];
+      }
+      else
+      {
+         this.indexFile = null;
+         index = null;
+         numberOfRecords = (int) (dataSize / recordSize);
+         compressedRecord = null;
+      }
+
+      uncompressedRecord = new byte[recordSize];
+      uncompressedRecordBuffer = ByteBuffer.wrap(uncompressedRecord);
+   }
+
+   public boolean isCompressed()
+   {
+      return compressed;
+   }
+
+   public int getNumberOfRecords()
+   {
+      return numberOfRecords;
+   }
+
+   /**
+    * @return The number of longs in a record, including the timestamp.
+    */
+   public int getRecordLength()
+   {
+      return recordLength;
+   }
+
+   public long getTimestamp(int tick)
+   {
+      checkTick(tick);
+
+      if (compressed)
+      {
+         return index.get(2 * tick);
+      }
+      else
+      {
+         long offset = (long) tick * recordSize;
+         return getSegment(offset).getLong(getPositionInSegment(offset));
+      }
+   }
+
+   public long getInitialTimestamp()
+   {
+      return getTimestamp(0);
+   }
+
+   public long getFinalTimestamp()
+   {
+      return getTimestamp(numberOfRecords - 1);
+   }
+
+   /**
+    * @return The first tick with a timestamp at or after the given timestamp, or the last tick if there are none.
+    */
+   public int findTick(long timestamp)
+   {
+      int head = 0;
+      int tail = numberOfRecords - 1;
+
+      while (head < tail)
+      {
+         int middle = (head + tail) >>> 1;
+
+         if (getTimestamp(middle) < timestamp)
+            head = middle + 1;
+         else
+            tail = middle;
+      }
+
+      return head;
+   }
+
+   /**
+    * Reads a record.
+    *
+    * @return The record, starting at position 0 with the timestamp. Uncompressed records are a view on the mapped file. The buffer is only valid until the next call.
+    */
+   public ByteBuffer getRecord(int tick) throws IOException
+   {
+      checkTick(tick);
+
+      if (compressed)
+      {
+         long offset = getDataOffset(tick);
+         int size = getCompressedSize(tick, offset);
+         ByteBuffer segment = getSegmentView(offset);
+         segment.clear();
+         segment.position(getPositionInSegment(offset));
+         segment.get(compressedRecord, 0, size);
+
+         if (SnappyUtils.DISABLE_COMPRESSION)
+            System.arraycopy(compressedRecord, 0, uncompressedRecord, 0, size);
+         else
+            SnappyUtils.snappyLibrary.uncompress(compressedRecord, 0, size, uncompressedRecord, 0);
+
+         uncompressedRecordBuffer.clear();
+         return uncompressedRecordBuffer;
+      }
+      else
+      {
+         long offset = (long) tick * recordSize;
+         ByteBuffer segment = getSegmentView(offset);
+         int position = getPositionInSegment(offset);
+         segment.limit(position + recordSize);
+         segment.position(position);
+         return segment.slice();
+      }
+   }
+
+   /**
+    * Reads a record into recordToPack, which needs to hold at least {@link #getRecordLength()} longs.
+    */
+   public void readRecord(int tick, long[] recordToPack) throws IOException
+   {
+      ByteBuffer record = getRecord(tick);
+      for (int i = 0; i < recordLength; i++)
+      {
+         recordToPack[i] = record.getLong(8 * i);
+      }
+   }
+
+   /**
+    * Sets the longs read by {@link #readProjection(int, long[])}.
+    *
+    * @param offsets Offsets of the longs in the record. The timestamp is at offset 0, and variable i is at offset 1 + i.
+    */
+   public void setProjection(int... offsets)
+   {
+      for (int offset : offsets)
+      {
+         if (offset < 0 || offset >= recordLength)
+            throw new RuntimeException("Offset " + offset + " is outside of the record, record length is " + recordLength);
+      }
+
+      if (projection.length < offsets.length)
+         projection = new int[offsets.length];
+
+      System.arraycopy(offsets, 0, projection, 0, offsets.length);
+      projectionSize = offsets.length;
+   }
+
+   public int getProjectionSize()
+   {
+      return projectionSize;
+   }
+
+   /**
+    * Reads the longs set with {@link #setProjection(int...)} from a record.
+    *
+    * @param valuesToPack The values, in the order of the projection.
+    */
+   public void readProjection(int tick, long[] valuesToPack) throws IOException
+   {
+      checkTick(tick);
+
+      if (compressed)
+      {
+         int lastOffset = 0;
+         for (int i = 0; i < projectionSize; i++)
+         {
+            lastOffset = Math.max(lastOffset, projection[i]);
+         }
+
+         long offset = getDataOffset(tick);
+         int size = getCompressedSize(tick, offset);
+         SnappyUtils.uncompressPrefix(getSegment(offset), getPositionInSegment(offset), size, uncompressedRecord, 0, 8 * (lastOffset + 1));
+
+         for (int i = 0; i < projectionSize; i++)
+         {
+            valuesToPack[i] = uncompressedRecordBuffer.getLong(8 * projection[i]);
+         }
+      }
+      else
+      {
+         long offset = (long) tick * recordSize;
+         ByteBuffer segment = getSegment(offset);
+         int position = getPositionInSegment(offset);
+
+         for (int i = 0; i < projectionSize; i++)
+         {
+            valuesToPack[i] = segment.getLong(position + 8 * projection[i]);
+         }
+      }
+   }
+
+   public void close()
+   {
+      Arrays.fill(dataSegments, null);
+      Arrays.fill(dataSegmentViews, null);
+
+      try
+      {
+         dataFile.close();
+         if (indexFile != null)
+            indexFile.close();
+      }
+      catch (IOException e)
+      {
+         // Nothing to do here
+      }
+   }
+
+   private long getDataOffset(int tick)
+   {
+      return index.get(2 * tick + 1);
+   }
+
+   private int getCompressedSize(int tick, long dataOffset)
+   {
+      long nextDataOffset = tick + 1 < numberOfRecords ? getDataOffset(tick + 1) : dataSize;
+      return (int) (nextDataOffset - dataOffset);
+   }
+
+   private MappedByteBuffer getSegment(long offset)
+   {
+      return dataSegments[(int) (offset / segmentSize)];
+   }
+
+   private ByteBuffer getSegmentView(long offset)
+   {
+      return dataSegmentViews[(int) (offset / segmentSize)];
+   }
+
+   private int getPositionInSegment(long offset)
+   {
+      return (int) (offset % segmentSize);
+   }
+
+   private void checkTick(int tick)
+   {
+      if (tick < 0 || tick >= numberOfRecords)
+         throw new IndexOutOfBoundsException("Tick " + tick + " is outside of the log, number of records is " + numberOfRecords);
+   }
+}
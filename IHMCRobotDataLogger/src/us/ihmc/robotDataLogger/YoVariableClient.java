@@ -46,6 +46,9 @@ public class YoVariableClient implements LogPacketHandler
    private final int displayOneInNPackets;
    
    private ByteBuffer decompressed;
+   private LongBuffer decompressedLongs;
+   private YoVariableFrameDeltaDecoder deltaDecoder;
+   private boolean waitingForKeyframe = false;
    private long previous;
    private ClientState state = ClientState.WAITING;
    private TimestampListener timestampListener;
@@ -134,6 +137,17 @@ public class YoVariableClient implements LogPacketHandler
          return;
       }
 
+      if (!deltaDecoder.decode(header.getType(), header.getTimestamp(), decompressedLongs))
+      {
+         if (!waitingForKeyframe)
+         {
+            System.err.println("[" + getClass().getSimpleName() + "] Cannot decode packet " + header.getUid() + ". Waiting for keyframe.");
+            waitingForKeyframe = true;
+         }
+         return;
+      }
+      waitingForKeyframe = false;
+
       long timestamp = decompressed.getLong();
 
       if(this.yoVariablesUpdatedListener.updateYoVariables())
@@ -234,6 +248,8 @@ public class YoVariableClient implements LogPacketHandler
       }
 
       decompressed = ByteBuffer.allocate(handshakeParser.getBufferSize());
+      decompressedLongs = decompressed.asLongBuffer();
+      deltaDecoder = new YoVariableFrameDeltaDecoder(handshakeParser.getBufferSize() / 8);
 
       threadedLogPacketHandler.start();
       streamingDataTCPClient.start();
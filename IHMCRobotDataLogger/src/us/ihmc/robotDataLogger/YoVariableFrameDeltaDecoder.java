@@ -0,0 +1,73 @@
+package us.ihmc.robotDataLogger;
+
+import java.nio.LongBuffer;
+
+/**
+ * Decodes frames encoded by the {@link YoVariableFrameDeltaEncoder}. Unencoded frames are passed through, so the decoder can always be used.
+ */
+public class YoVariableFrameDeltaDecoder
+{
+   private final long[] reference;
+   private boolean hasReference = false;
+
+   /**
+    * @param frameLength Number of longs in a frame, including the timestamp
+    */
+   public YoVariableFrameDeltaDecoder(int frameLength)
+   {
+      reference = new long[frameLength];
+   }
+
+   /**
+    * Decodes a frame in place.
+    *
+    * The reference frame of a delta frame is checked by comparing the decoded timestamp with the timestamp in the header. If the reference
+    * frame was not received, the frame cannot be decoded and the decoder waits for the next keyframe.
+    *
+    * @param packetType Type of the packet in the header
+    * @param timestamp Timestamp in the header
+    * @param frame Frame to decode, starting with the timestamp
+    * @return false if the frame cannot be decoded and needs to be dropped
+    */
+   public boolean decode(byte packetType, long timestamp, LongBuffer frame)
+   {
+      switch (packetType)
+      {
+      case LogDataHeader.DATA_PACKET:
+         frame.get(reference, 0, reference.length);
+         frame.clear();
+         hasReference = true;
+         return true;
+
+      case LogDataHeader.DELTA_KEYFRAME_PACKET:
+      case LogDataHeader.DELTA_PREVIOUS_PACKET:
+         if (!hasReference || (frame.get(0) ^ reference[0]) != timestamp)
+         {
+            return false;
+         }
+
+         boolean updateReference = packetType == LogDataHeader.DELTA_PREVIOUS_PACKET;
+         for (int i = 0; i < reference.length; i++)
+         {
+            long value = frame.get(i) ^ reference[i];
+            frame.put(i, value);
+            if (updateReference)
+            {
+               reference[i] = value;
+            }
+         }
+         return true;
+
+      default:
+         return false;
+      }
+   }
+
+   /**
+    * Forgets the reference frame, for example after reconnecting.
+    */
+   public void reset()
+   {
+      hasReference = false;
+   }
+}
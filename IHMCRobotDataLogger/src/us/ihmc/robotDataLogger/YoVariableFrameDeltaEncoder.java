@@ -0,0 +1,96 @@
+package us.ihmc.robotDataLogger;
+
+import java.nio.LongBuffer;
+
+/**
+ * Delta encodes the frames of the {@link YoVariableProducer}, see {@link DeltaEncodingMode}. Decoded by the {@link YoVariableFrameDeltaDecoder}.
+ */
+public class YoVariableFrameDeltaEncoder
+{
+   private final DeltaEncodingMode mode;
+   private final int keyframeInterval;
+   private final long[] reference;
+
+   private int ticksSinceKeyframe = 0;
+
+   /**
+    * @param mode Encoding mode
+    * @param keyframeInterval Number of frames between keyframes
+    * @param frameLength Number of longs in a frame, including the timestamp
+    */
+   public YoVariableFrameDeltaEncoder(DeltaEncodingMode mode, int keyframeInterval, int frameLength)
+   {
+      if (keyframeInterval < 1)
+      {
+         throw new RuntimeException("Keyframe interval must be at least one");
+      }
+
+      this.mode = mode;
+      this.keyframeInterval = keyframeInterval;
+      this.reference = mode == DeltaEncodingMode.NONE ? null : new long[frameLength];
+   }
+
+   /**
+    * Encodes a frame.
+    *
+    * @param frame Frame to encode, starting with the timestamp. Not modified.
+    * @param encodedFrameToPack Encoded frame. Not written to if the frame is a keyframe.
+    * @return The type of the packet, {@link LogDataHeader#DATA_PACKET} if frame needs to be send as is.
+    */
+   public byte encode(LongBuffer frame, LongBuffer encodedFrameToPack)
+   {
+      if (mode == DeltaEncodingMode.NONE)
+      {
+         return LogDataHeader.DATA_PACKET;
+      }
+
+      if (ticksSinceKeyframe == 0)
+      {
+         frame.get(reference, 0, reference.length);
+         frame.clear();
+         ticksSinceKeyframe = 1 % keyframeInterval;
+         return LogDataHeader.DATA_PACKET;
+      }
+
+      if (mode == DeltaEncodingMode.KEYFRAME)
+      {
+         for (int i = 0; i < reference.length; i++)
+         {
+            encodedFrameToPack.put(i, frame.get(i) ^ reference[i]);
+         }
+      }
+      else
+      {
+         for (int i = 0; i < reference.length; i++)
+         {
+            long value = frame.get(i);
+            encodedFrameToPack.put(i, value ^ reference[i]);
+            reference[i] = value;
+         }
+      }
+
+      ticksSinceKeyframe = (ticksSinceKeyframe + 1) % keyframeInterval;
+      return mode == DeltaEncodingMode.KEYFRAME ? LogDataHeader.DELTA_KEYFRAME_PACKET : LogDataHeader.DELTA_PREVIOUS_PACKET;
+   }
+
+   /**
+    * @return true if packets of packetType need to be send to all clients, also those that skip packets
+    */
+   public boolean isKeyframe(byte packetType)
+   {
+      return mode != DeltaEncodingMode.NONE && packetType == LogDataHeader.DATA_PACKET;
+   }
+
+   /**
+    * Makes the next frame a keyframe.
+    */
+   public void requestKeyframe()
+   {
+      ticksSinceKeyframe = 0;
+   }
+
+   public DeltaEncodingMode getMode()
+   {
+      return mode;
+   }
+}
@@ -9,6 +9,8 @@ import java.nio.LongBuffer;
 import java.nio.channels.DatagramChannel;
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.zip.CRC32;
 
 import us.ihmc.concurrent.ConcurrentRingBuffer;
@@ -24,6 +26,7 @@ public class YoVariableProducer implements Runnable
    public static final int KEEP_ALIVE_RATE = 1000;
    public static final int TIMESTAMP_HEADER  = 0xAFAF;
    private static final int SEND_BUFFER_LENGTH = 1024;
+   private static final long NO_TIMESTAMP = Long.MIN_VALUE;
    
    private final PeriodicThreadScheduler scheduler;
    
@@ -33,8 +36,9 @@ public class YoVariableProducer implements Runnable
    private final byte[] compressedBackingArray;
    private final ByteBuffer byteWriteBuffer;
    private final LongBuffer writeBuffer;
+   private final ByteBuffer byteEncodedBuffer;
+   private final LongBuffer encodedBuffer;
    private final ByteBuffer compressedBuffer;
-   private final ByteBuffer compressedBufferDirect;
    
    private final SummaryProvider summaryProvider;
 
@@ -55,10 +59,23 @@ public class YoVariableProducer implements Runnable
    private final ByteBuffer timestampBuffer = ByteBuffer.allocateDirect(12);
    
    private final boolean sendKeepAlive;
+   private final TimestampPublisher timestampPublisher = new TimestampPublisher();
+   private final YoVariableFrameDeltaEncoder deltaEncoder;
    
-   @SuppressWarnings("unchecked")
    public YoVariableProducer(PeriodicThreadScheduler scheduler, LogSessionBroadcaster session, YoVariableHandShakeBuilder handshakeBuilder, LogModelProvider logModelProvider,
          ConcurrentRingBuffer<FullStateBuffer> mainBuffer, Collection<ConcurrentRingBuffer<RegistryBuffer>> buffers, SummaryProvider summaryProvider, boolean sendKeepAlive)
+   {
+      this(scheduler, session, handshakeBuilder, logModelProvider, mainBuffer, buffers, summaryProvider, sendKeepAlive, DeltaEncodingMode.NONE, 1);
+   }
+
+   /**
+    * @param deltaEncodingMode Delta encoding of the frames, see {@link DeltaEncodingMode}
+    * @param keyframeInterval Number of frames between unencoded keyframes when delta encoding is enabled
+    */
+   @SuppressWarnings("unchecked")
+   public YoVariableProducer(PeriodicThreadScheduler scheduler, LogSessionBroadcaster session, YoVariableHandShakeBuilder handshakeBuilder, LogModelProvider logModelProvider,
+         ConcurrentRingBuffer<FullStateBuffer> mainBuffer, Collection<ConcurrentRingBuffer<RegistryBuffer>> buffers, SummaryProvider summaryProvider, boolean sendKeepAlive,
+         DeltaEncodingMode deltaEncodingMode, int keyframeInterval)
    {
       this.scheduler = scheduler;
       this.mainBuffer = mainBuffer;
@@ -75,9 +92,13 @@ public class YoVariableProducer implements Runnable
       byteWriteBuffer = ByteBuffer.allocate(bufferSize);
       writeBuffer = byteWriteBuffer.asLongBuffer();
 
+      // The registries only write new data in the write buffer, so the encoded frame needs its own buffer
+      byteEncodedBuffer = ByteBuffer.allocate(bufferSize);
+      encodedBuffer = byteEncodedBuffer.asLongBuffer();
+      deltaEncoder = new YoVariableFrameDeltaEncoder(deltaEncodingMode, keyframeInterval, bufferSize / 8);
+
       compressedBackingArray = new byte[SnappyUtils.maxCompressedLength(bufferSize) + LogDataHeader.length()];
       compressedBuffer = ByteBuffer.wrap(compressedBackingArray);
-      compressedBufferDirect = ByteBuffer.allocateDirect(compressedBuffer.capacity());
       this.session = session;
 
       timestampBuffer.putInt(0, TIMESTAMP_HEADER);
@@ -96,25 +117,14 @@ public class YoVariableProducer implements Runnable
    }
    
    
+   /**
+    * Publish the timestamp to all clients. Does not block, the datagrams are send from a separate thread.
+    * 
+    * @param timestamp
+    */
    public void publishTimestampRealtime(long timestamp)
    {
-      timestampBuffer.putLong(4, timestamp);
-      for(int i = 0; i < server.getMaximumNumberOfConnections(); i++)
-      {
-         InetSocketAddress target = server.getUDPAddress(i);
-         if(target != null)
-         {
-            timestampBuffer.clear();
-            try
-            {
-               channel.send(timestampBuffer, target);
-            }
-            catch (IOException e)
-            {
-               System.out.println(e.getMessage());
-            }
-         }
-      }
+      timestampPublisher.publish(timestamp);
    }
 
    private void updateBuffers(long timestamp)
@@ -142,6 +152,7 @@ public class YoVariableProducer implements Runnable
          // Make server here, so it is open before the logger connects
          server = new MultiClientStreamingDataTCPServer(session.getPort(), handshakeBuilder, logModelProvider, summaryProvider, compressedBackingArray.length, SEND_BUFFER_LENGTH);
          server.start();
+         timestampPublisher.start();
       }
       catch (IOException e)
       {
@@ -165,12 +176,15 @@ public class YoVariableProducer implements Runnable
             fullStateBuffer.getJointStatesInBuffer(writeBuffer, jointStateOffset + 1);
             updateBuffers(fullStateBuffer.getTimestamp());
 
-            byteWriteBuffer.clear();
+            byte packetType = deltaEncoder.encode(writeBuffer, encodedBuffer);
+            ByteBuffer frameBuffer = packetType == LogDataHeader.DATA_PACKET ? byteWriteBuffer : byteEncodedBuffer;
+
+            frameBuffer.clear();
             compressedBuffer.clear();
             compressedBuffer.position(LogDataHeader.length());
             try
             {
-               SnappyUtils.compress(byteWriteBuffer, compressedBuffer);
+               SnappyUtils.compress(frameBuffer, compressedBuffer);
                compressedBuffer.flip();
             }
             catch (IllegalArgumentException | IOException e)
@@ -184,14 +198,11 @@ public class YoVariableProducer implements Runnable
             crc32.update(compressedBackingArray, LogDataHeader.length() + compressedBuffer.arrayOffset(), dataSize);
             logDataHeader.setUid(fullStateBuffer.getUid());
             logDataHeader.setTimestamp(fullStateBuffer.getTimestamp());
-            logDataHeader.setType(LogDataHeader.DATA_PACKET);
+            logDataHeader.setType(packetType);
             logDataHeader.setDataSize(dataSize);
             logDataHeader.setCrc32((int) crc32.getValue());
             logDataHeader.writeBuffer(0, compressedBuffer);
-            compressedBufferDirect.clear();
-            compressedBufferDirect.put(compressedBuffer);
-            compressedBufferDirect.flip();
-            server.send(compressedBufferDirect);
+            server.send(compressedBuffer, deltaEncoder.isKeyframe(packetType));
             
             keepAliveCounter = 0;
          }
@@ -209,10 +220,10 @@ public class YoVariableProducer implements Runnable
             logDataHeader.setCrc32(0);
             keepAliveCounter = 0;
             
-            compressedBufferDirect.clear();
-            logDataHeader.writeBuffer(0, compressedBufferDirect);
-            compressedBufferDirect.limit(LogDataHeader.length());
-            server.send(compressedBufferDirect);
+            compressedBuffer.clear();
+            logDataHeader.writeBuffer(0, compressedBuffer);
+            compressedBuffer.limit(LogDataHeader.length());
+            server.send(compressedBuffer, true);
             
          }
       }
@@ -222,7 +233,67 @@ public class YoVariableProducer implements Runnable
    public void close()
    {
       scheduler.shutdown();
+      timestampPublisher.shutdown();
       server.close();
       
    }
+
+   /**
+    * Sends the latest timestamp to the UDP address of every client. Timestamps that are published faster than they can be send are skipped.
+    */
+   private class TimestampPublisher extends Thread
+   {
+      private final AtomicLong latestTimestamp = new AtomicLong(NO_TIMESTAMP);
+      private volatile boolean running = true;
+
+      private TimestampPublisher()
+      {
+         super("YoVariableProducerTimestampPublisher");
+         setDaemon(true);
+      }
+
+      private void publish(long timestamp)
+      {
+         latestTimestamp.set(timestamp);
+         LockSupport.unpark(this);
+      }
+
+      private void shutdown()
+      {
+         running = false;
+         LockSupport.unpark(this);
+      }
+
+      @Override
+      public void run()
+      {
+         while (running)
+         {
+            long timestamp = latestTimestamp.getAndSet(NO_TIMESTAMP);
+            if (timestamp == NO_TIMESTAMP)
+            {
+               LockSupport.park(this);
+               continue;
+            }
+
+            timestampBuffer.putLong(4, timestamp);
+            for (int i = 0; i < server.getMaximumNumberOfConnections(); i++)
+            {
+               InetSocketAddress target = server.getUDPAddress(i);
+               if (target != null)
+               {
+                  timestampBuffer.clear();
+                  try
+                  {
+                     channel.send(timestampBuffer, target);
+                  }
+                  catch (IOException e)
+                  {
+                     System.out.println(e.getMessage());
+                  }
+               }
+            }
+         }
+      }
+   }
 }
\ No newline at end of file
@@ -73,6 +73,8 @@ public class YoVariableServer implements RobotVisualizer, TickAndUpdatable
    private long uid = 0; 
    
    private boolean sendKeepAlive = false;
+   private DeltaEncodingMode deltaEncodingMode = DeltaEncodingMode.NONE;
+   private int keyframeInterval = 1;
    
    private final SummaryProvider summaryProvider = new SummaryProvider();
    
@@ -111,7 +113,7 @@ public class YoVariableServer implements RobotVisualizer, TickAndUpdatable
       InetSocketAddress controlAddress = new InetSocketAddress(bindAddress, controlServer.getPort());
       sessionBroadcaster = new LogSessionBroadcaster(controlAddress, bindAddress, mainClazz, logSettings);
       producer = new YoVariableProducer(scheduler, sessionBroadcaster, handshakeBuilder, logModelProvider, mainBuffer,
-            buffers.values(), summaryProvider, sendKeepAlive);
+            buffers.values(), summaryProvider, sendKeepAlive, deltaEncodingMode, keyframeInterval);
             
       sessionBroadcaster.requestPort();
       producer.start();
@@ -124,6 +126,22 @@ public class YoVariableServer implements RobotVisualizer, TickAndUpdatable
    {
       this.sendKeepAlive = sendKeepAlive;
    }
+
+   /**
+    * Enable delta encoding of the data send to the clients, see {@link DeltaEncodingMode}. Disabled by default, because older clients cannot decode it.
+    * 
+    * @param deltaEncodingMode Delta encoding mode
+    * @param keyframeInterval Number of ticks between keyframes. Clients that connect or drop a packet wait at most this many ticks for data.
+    */
+   public void setDeltaEncoding(DeltaEncodingMode deltaEncodingMode, int keyframeInterval)
+   {
+      if(started)
+      {
+         throw new RuntimeException("Server already started");
+      }
+      this.deltaEncodingMode = deltaEncodingMode;
+      this.keyframeInterval = keyframeInterval;
+   }
    
    private List<JointHolder> startControlServer()
    {
@@ -0,0 +1,185 @@
+package us.ihmc.multicastLogDataProtocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class SharedFrameRingTest
+{
+   private static final int FRAME_SIZE = 64;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testPublishAndAcquire()
+   {
+      SharedFrameRing ring = new SharedFrameRing(8, 2, FRAME_SIZE);
+      ByteBuffer data = ByteBuffer.allocate(FRAME_SIZE);
+
+      assertEquals(-1, ring.getPublishedSequence());
+      assertNull(ring.acquire(0));
+
+      for (int i = 0; i < 20; i++)
+      {
+         publish(ring, data, i, i % 5 == 0);
+      }
+      assertEquals(19, ring.getPublishedSequence());
+
+      // Overwritten frames
+      for (int i = 0; i < 12; i++)
+      {
+         assertNull(ring.acquire(i));
+      }
+
+      for (int i = 12; i < 20; i++)
+      {
+         SharedFrameRing.Frame frame = ring.acquire(i);
+         assertNotNull(frame);
+         assertEquals(i, frame.getSequence());
+         assertEquals(i % 5 == 0, frame.isKeyframe());
+         assertEquals(12, frame.getLength());
+         assertEquals(i, frame.getData().getLong(0));
+         frame.release();
+      }
+
+      assertNull(ring.acquire(20));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testHeldFramesAreNotOverwritten()
+   {
+      int maximumNumberOfReaders = 2;
+      SharedFrameRing ring = new SharedFrameRing(4, maximumNumberOfReaders, FRAME_SIZE);
+      ByteBuffer data = ByteBuffer.allocate(FRAME_SIZE);
+
+      publish(ring, data, 0, false);
+      publish(ring, data, 1, false);
+      SharedFrameRing.Frame first = ring.acquire(0);
+      SharedFrameRing.Frame second = ring.acquire(1);
+
+      // The writer keeps going while the readers hold on to their frames
+      for (int i = 2; i < 100; i++)
+      {
+         publish(ring, data, i, false);
+      }
+
+      assertEquals(0, first.getData().getLong(0));
+      assertEquals(0, first.getSequence());
+      assertEquals(1, second.getData().getLong(0));
+      assertEquals(1, second.getSequence());
+      first.release();
+      second.release();
+
+      for (int i = 100; i < 200; i++)
+      {
+         publish(ring, data, i, false);
+      }
+      assertEquals(199, ring.acquire(199).getData().getLong(0));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testConcurrentFastAndSlowReaders() throws InterruptedException
+   {
+      final int numberOfFrames = 200000;
+      final SharedFrameRing ring = new SharedFrameRing(64, 2, FRAME_SIZE);
+      final AtomicBoolean done = new AtomicBoolean(false);
+      final AtomicBoolean corrupted = new AtomicBoolean(false);
+
+      final AtomicLong fastFrames = new AtomicLong();
+      final AtomicLong slowFrames = new AtomicLong();
+      Thread fastReader = new Thread(new Reader(ring, done, corrupted, fastFrames, 0));
+      Thread slowReader = new Thread(new Reader(ring, done, corrupted, slowFrames, 50000));
+      fastReader.start();
+      slowReader.start();
+
+      ByteBuffer data = ByteBuffer.allocate(FRAME_SIZE);
+      for (int i = 0; i < numberOfFrames; i++)
+      {
+         publish(ring, data, i, false);
+      }
+      done.set(true);
+      fastReader.join();
+      slowReader.join();
+
+      assertEquals(false, corrupted.get());
+      assertTrue(fastFrames.get() > 0);
+      assertTrue(slowFrames.get() > 0);
+   }
+
+   private static void publish(SharedFrameRing ring, ByteBuffer data, long sequence, boolean keyframe)
+   {
+      // Frame is the sequence number, a marker and its inverse, so torn frames can be detected
+      data.clear();
+      data.putLong(sequence);
+      data.putInt((int) ~sequence);
+      data.flip();
+      ring.publish(data, keyframe);
+      assertEquals(0, data.position());
+   }
+
+   private static class Reader implements Runnable
+   {
+      private final SharedFrameRing ring;
+      private final AtomicBoolean done;
+      private final AtomicBoolean corrupted;
+      private final AtomicLong receivedFrames;
+      private final long workPerFrame;
+
+      private Reader(SharedFrameRing ring, AtomicBoolean done, AtomicBoolean corrupted, AtomicLong receivedFrames, long workPerFrame)
+      {
+         this.ring = ring;
+         this.done = done;
+         this.corrupted = corrupted;
+         this.receivedFrames = receivedFrames;
+         this.workPerFrame = workPerFrame;
+      }
+
+      @Override
+      public void run()
+      {
+         long nextSequence = 0;
+         while (!done.get() || nextSequence <= ring.getPublishedSequence())
+         {
+            long publishedSequence = ring.getPublishedSequence();
+            if (nextSequence > publishedSequence)
+            {
+               Thread.yield();
+               continue;
+            }
+
+            SharedFrameRing.Frame frame = ring.acquire(nextSequence);
+            if (frame == null)
+            {
+               nextSequence = publishedSequence;
+               continue;
+            }
+
+            ByteBuffer data = frame.getData();
+            long start = data.getLong(0);
+            long sum = 0;
+            for (long i = 0; i < workPerFrame; i++)
+            {
+               sum += i;
+            }
+            if (data.getLong(0) != nextSequence || data.getInt(8) != (int) ~start || frame.getSequence() != nextSequence || sum < 0)
+            {
+               corrupted.set(true);
+            }
+            frame.release();
+
+            receivedFrames.incrementAndGet();
+            nextSequence++;
+         }
+      }
+   }
+}
@@ -0,0 +1,182 @@
+package us.ihmc.robotDataLogger;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.tools.compression.SnappyUtils;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class MappedLogReaderTest
+{
+   private static final int NUMBER_OF_RECORDS = 500;
+   private static final int RECORD_LENGTH = 200;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testCompressedLog() throws IOException
+   {
+      long[][] records = createRecords(new Random(1654L));
+
+      File dataFile = File.createTempFile("mappedLogReaderTest", ".data");
+      File indexFile = File.createTempFile("mappedLogReaderTest", ".index");
+      dataFile.deleteOnExit();
+      indexFile.deleteOnExit();
+      writeLog(records, dataFile, indexFile);
+
+      // Small segments so that records end up in different mappings.
+      MappedLogReader reader = new MappedLogReader(dataFile, indexFile, RECORD_LENGTH, 1000);
+      assertEquals(true, reader.isCompressed());
+      checkReader(reader, records, new Random(1655L));
+      reader.close();
+
+      reader = new MappedLogReader(dataFile, indexFile, RECORD_LENGTH);
+      checkReader(reader, records, new Random(1656L));
+      reader.close();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testUncompressedLog() throws IOException
+   {
+      long[][] records = createRecords(new Random(1657L));
+
+      File dataFile = File.createTempFile("mappedLogReaderTest", ".data");
+      dataFile.deleteOnExit();
+      writeLog(records, dataFile, null);
+
+      MappedLogReader reader = new MappedLogReader(dataFile, (File) null, RECORD_LENGTH, 3 * 8 * RECORD_LENGTH + 24);
+      assertEquals(false, reader.isCompressed());
+      checkReader(reader, records, new Random(1658L));
+      reader.close();
+
+      reader = new MappedLogReader(dataFile, (File) null, RECORD_LENGTH);
+      checkReader(reader, records, new Random(1659L));
+      reader.close();
+   }
+
+   private static void checkReader(MappedLogReader reader, long[][] records, Random random) throws IOException
+   {
+      assertEquals(NUMBER_OF_RECORDS, reader.getNumberOfRecords());
+      assertEquals(RECORD_LENGTH, reader.getRecordLength());
+      assertEquals(records[0][0], reader.getInitialTimestamp());
+      assertEquals(records[NUMBER_OF_RECORDS - 1][0], reader.getFinalTimestamp());
+
+      long[] record = new long[RECORD_LENGTH];
+
+      for (int i = 0; i < 1000; i++)
+      {
+         int tick = random.nextInt(NUMBER_OF_RECORDS);
+         assertEquals(records[tick][0], reader.getTimestamp(tick));
+
+         ByteBuffer buffer = reader.getRecord(tick);
+         for (int j = 0; j < RECORD_LENGTH; j++)
+         {
+            assertEquals(records[tick][j], buffer.getLong(8 * j));
+         }
+
+         reader.readRecord(tick, record);
+         for (int j = 0; j < RECORD_LENGTH; j++)
+         {
+            assertEquals(records[tick][j], record[j]);
+         }
+
+         assertEquals(tick, reader.findTick(records[tick][0]));
+         assertEquals(tick, reader.findTick(records[tick][0] - 1));
+      }
+
+      assertEquals(0, reader.findTick(Long.MIN_VALUE));
+      assertEquals(NUMBER_OF_RECORDS - 1, reader.findTick(Long.MAX_VALUE));
+
+      for (int i = 0; i < 100; i++)
+      {
+         int[] projection = new int[1 + random.nextInt(10)];
+         for (int j = 0; j < projection.length; j++)
+         {
+            projection[j] = random.nextInt(RECORD_LENGTH);
+         }
+         reader.setProjection(projection);
+
+         long[] values = new long[projection.length];
+         for (int j = 0; j < 20; j++)
+         {
+            int tick = random.nextInt(NUMBER_OF_RECORDS);
+            reader.readProjection(tick, values);
+
+            for (int k = 0; k < projection.length; k++)
+            {
+               assertEquals(records[tick][projection[k]], values[k]);
+            }
+         }
+      }
+   }
+
+   private static long[][] createRecords(Random random)
+   {
+      long[][] records = new long[NUMBER_OF_RECORDS][RECORD_LENGTH];
+      long timestamp = 1000000L;
+
+      for (int i = 0; i < NUMBER_OF_RECORDS; i++)
+      {
+         timestamp += 2 + random.nextInt(1000);
+         records[i][0] = timestamp;
+
+         for (int j = 1; j < RECORD_LENGTH; j++)
+         {
+            // Mostly slowly changing values, as in a real log, so the records compress to different sizes.
+            if (i > 0 && random.nextBoolean())
+               records[i][j] = records[i - 1][j];
+            else if (random.nextBoolean())
+               records[i][j] = Double.doubleToLongBits(random.nextDouble());
+            else
+               records[i][j] = random.nextInt(10);
+         }
+      }
+
+      return records;
+   }
+
+   private static void writeLog(long[][] records, File dataFile, File indexFile) throws IOException
+   {
+      FileChannel dataChannel = new FileOutputStream(dataFile).getChannel();
+      FileChannel indexChannel = indexFile == null ? null : new FileOutputStream(indexFile).getChannel();
+
+      ByteBuffer record = ByteBuffer.allocate(8 * RECORD_LENGTH);
+      ByteBuffer compressedRecord = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(8 * RECORD_LENGTH));
+      ByteBuffer indexEntry = ByteBuffer.allocate(16);
+
+      for (long[] values : records)
+      {
+         record.clear();
+         record.asLongBuffer().put(values);
+
+         if (indexChannel == null)
+         {
+            dataChannel.write(record);
+            continue;
+         }
+
+         indexEntry.clear();
+         indexEntry.putLong(values[0]);
+         indexEntry.putLong(dataChannel.position());
+         indexEntry.flip();
+         indexChannel.write(indexEntry);
+
+         compressedRecord.clear();
+         SnappyUtils.compress(record, compressedRecord);
+         compressedRecord.flip();
+         dataChannel.write(compressedRecord);
+      }
+
+      dataChannel.close();
+      if (indexChannel != null)
+         indexChannel.close();
+   }
+}
@@ -0,0 +1,215 @@
+package us.ihmc.robotDataLogger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.tools.compression.SnappyUtils;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class YoVariableFrameDeltaCodecTest
+{
+   private static final int FRAME_LENGTH = 500;
+   private static final int NUMBER_OF_FRAMES = 1000;
+   private static final int KEYFRAME_INTERVAL = 50;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testNoEncoding()
+   {
+      YoVariableFrameDeltaEncoder encoder = new YoVariableFrameDeltaEncoder(DeltaEncodingMode.NONE, KEYFRAME_INTERVAL, FRAME_LENGTH);
+      LongBuffer frame = LongBuffer.allocate(FRAME_LENGTH);
+      LongBuffer encoded = LongBuffer.allocate(FRAME_LENGTH);
+      for (int i = 0; i < 10; i++)
+      {
+         assertEquals(LogDataHeader.DATA_PACKET, encoder.encode(frame, encoded));
+         assertFalse(encoder.isKeyframe(LogDataHeader.DATA_PACKET));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testKeyframeEncodingWithSkippedPackets()
+   {
+      // Decoding against the keyframe works for a client that only receives every third packet
+      int received = roundTrip(DeltaEncodingMode.KEYFRAME, 3, 0.0);
+      assertEquals(true, received > NUMBER_OF_FRAMES / 3);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testPreviousTickEncoding()
+   {
+      assertEquals(NUMBER_OF_FRAMES, roundTrip(DeltaEncodingMode.PREVIOUS_TICK, 1, 0.0));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testDroppedPackets()
+   {
+      // Frames that cannot be decoded are rejected, never decoded wrongly
+      roundTrip(DeltaEncodingMode.PREVIOUS_TICK, 1, 0.05);
+      roundTrip(DeltaEncodingMode.KEYFRAME, 1, 0.05);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testJoinMidStream()
+   {
+      Random random = new Random(4812L);
+      YoVariableFrameDeltaEncoder encoder = new YoVariableFrameDeltaEncoder(DeltaEncodingMode.KEYFRAME, KEYFRAME_INTERVAL, FRAME_LENGTH);
+      YoVariableFrameDeltaDecoder decoder = new YoVariableFrameDeltaDecoder(FRAME_LENGTH);
+      long[] state = createInitialState(random);
+      LongBuffer frame = LongBuffer.allocate(FRAME_LENGTH);
+      LongBuffer encoded = LongBuffer.allocate(FRAME_LENGTH);
+
+      int firstDecoded = -1;
+      for (int tick = 0; tick < 2 * KEYFRAME_INTERVAL; tick++)
+      {
+         step(state, tick, random);
+         frame.clear();
+         frame.put(state);
+         frame.clear();
+         byte type = encoder.encode(frame, encoded);
+
+         // Client joins at tick 10
+         if (tick >= 10 && firstDecoded < 0)
+         {
+            LongBuffer received = type == LogDataHeader.DATA_PACKET ? frame : encoded;
+            if (decoder.decode(type, state[0], received))
+            {
+               firstDecoded = tick;
+            }
+         }
+      }
+      assertEquals(KEYFRAME_INTERVAL, firstDecoded);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.3)
+   @Test(timeout = 30000)
+   public void testCompressedSize() throws IOException
+   {
+      long raw = compressedSize(DeltaEncodingMode.NONE);
+      long keyframe = compressedSize(DeltaEncodingMode.KEYFRAME);
+      long previousTick = compressedSize(DeltaEncodingMode.PREVIOUS_TICK);
+
+      assertTrue(keyframe < raw);
+      assertTrue(previousTick < raw);
+   }
+
+   private int roundTrip(DeltaEncodingMode mode, int sendEveryNTicks, double dropProbability)
+   {
+      Random random = new Random(4811L);
+      YoVariableFrameDeltaEncoder encoder = new YoVariableFrameDeltaEncoder(mode, KEYFRAME_INTERVAL, FRAME_LENGTH);
+      YoVariableFrameDeltaDecoder decoder = new YoVariableFrameDeltaDecoder(FRAME_LENGTH);
+
+      long[] state = createInitialState(random);
+      long[] decoded = new long[FRAME_LENGTH];
+      LongBuffer frame = LongBuffer.allocate(FRAME_LENGTH);
+      LongBuffer encoded = LongBuffer.allocate(FRAME_LENGTH);
+      LongBuffer received = LongBuffer.allocate(FRAME_LENGTH);
+
+      int numberOfDecodedFrames = 0;
+      for (int tick = 0; tick < NUMBER_OF_FRAMES; tick++)
+      {
+         step(state, tick, random);
+         frame.clear();
+         frame.put(state);
+         frame.clear();
+
+         byte type = encoder.encode(frame, encoded);
+         boolean send = encoder.isKeyframe(type) || tick % sendEveryNTicks == 0;
+         if (!send || random.nextDouble() < dropProbability)
+         {
+            continue;
+         }
+
+         received.clear();
+         received.put(type == LogDataHeader.DATA_PACKET ? frame : encoded);
+         frame.clear();
+         encoded.clear();
+         received.clear();
+
+         if (decoder.decode(type, state[0], received))
+         {
+            received.get(decoded);
+            assertArrayEquals(state, decoded);
+            numberOfDecodedFrames++;
+         }
+      }
+      return numberOfDecodedFrames;
+   }
+
+   private long compressedSize(DeltaEncodingMode mode) throws IOException
+   {
+      Random random = new Random(4813L);
+      YoVariableFrameDeltaEncoder encoder = new YoVariableFrameDeltaEncoder(mode, KEYFRAME_INTERVAL, FRAME_LENGTH);
+      long[] state = createInitialState(random);
+
+      ByteBuffer frame = ByteBuffer.allocate(FRAME_LENGTH * 8);
+      ByteBuffer encoded = ByteBuffer.allocate(FRAME_LENGTH * 8);
+      ByteBuffer compressed = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(FRAME_LENGTH * 8));
+      LongBuffer frameLongs = frame.asLongBuffer();
+      LongBuffer encodedLongs = encoded.asLongBuffer();
+
+      long size = 0;
+      for (int tick = 0; tick < NUMBER_OF_FRAMES; tick++)
+      {
+         step(state, tick, random);
+         frameLongs.clear();
+         frameLongs.put(state);
+         frameLongs.clear();
+
+         byte type = encoder.encode(frameLongs, encodedLongs);
+         ByteBuffer toCompress = type == LogDataHeader.DATA_PACKET ? frame : encoded;
+         toCompress.clear();
+         compressed.clear();
+         SnappyUtils.compress(toCompress, compressed);
+         compressed.flip();
+         size += compressed.remaining();
+      }
+      return size;
+   }
+
+   /**
+    * Timestamp, a few integer counters and enums, and doubles that change slowly, like a controller's variables.
+    */
+   private static long[] createInitialState(Random random)
+   {
+      long[] state = new long[FRAME_LENGTH];
+      state[0] = 1000000L;
+      for (int i = 1; i < FRAME_LENGTH; i++)
+      {
+         state[i] = i % 5 == 0 ? random.nextInt(4) : Double.doubleToLongBits(random.nextDouble());
+      }
+      return state;
+   }
+
+   private static void step(long[] state, int tick, Random random)
+   {
+      state[0] += 1000000L;
+      for (int i = 1; i < FRAME_LENGTH; i++)
+      {
+         if (i % 5 == 0)
+         {
+            if (random.nextDouble() < 0.01)
+            {
+               state[i] = random.nextInt(4);
+            }
+         }
+         else if (i % 2 == 0)
+         {
+            double value = Double.longBitsToDouble(state[i]);
+            state[i] = Double.doubleToLongBits(value + 1e-6 * random.nextGaussian());
+         }
+      }
+   }
+}
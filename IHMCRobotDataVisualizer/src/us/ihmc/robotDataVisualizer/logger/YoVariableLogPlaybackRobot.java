@@ -1,15 +1,12 @@
 package us.ihmc.robotDataVisualizer.logger;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.LongBuffer;
-import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
 
-import us.ihmc.robotDataLogger.LogIndex;
+import us.ihmc.robotDataLogger.MappedLogReader;
 import us.ihmc.robotDataLogger.jointState.JointState;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
 import us.ihmc.robotDataVisualizer.VisualizerRobot;
@@ -24,7 +21,6 @@ import us.ihmc.robotics.robotDescription.RobotDescription;
 import us.ihmc.robotics.time.TimeTools;
 import us.ihmc.simulationconstructionset.Joint;
 import us.ihmc.simulationconstructionset.SimulationConstructionSet;
-import us.ihmc.tools.compression.SnappyUtils;
 
 public class YoVariableLogPlaybackRobot extends VisualizerRobot implements RewoundListener
 {
@@ -32,13 +28,9 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
    private final SimulationConstructionSet scs;
    private final LongYoVariable timestamp;
    private final DoubleYoVariable robotTime;
-   private final FileChannel logChannel;
    private final List<YoVariable<?>> variables;
 
-   // Compressed data helpers
-   private final boolean compressed;
-   private final LogIndex logIndex;
-   private final ByteBuffer compressedBuffer;
+   private final MappedLogReader logReader;
    private int index = 0;
 
    private final List<JointState> jointStates;
@@ -46,9 +38,6 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
 
    private final ArrayList<YoVariableLogPlaybackListener> listeners = new ArrayList<>();
 
-   private final ByteBuffer logLine;
-   private final LongBuffer logLongArray;
-
    private final IntegerYoVariable currentRecordTick;
 
    private final int numberOfEntries;
@@ -72,61 +61,23 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
       this.variables = variables;
       this.scs = scs;
 
-      int jointStateOffset = variables.size();
       int numberOfJointStates = JointState.getNumberOfJointStates(jointStates);
-      int bufferSize = (1 + jointStateOffset + numberOfJointStates) * 8;
+      logReader = new MappedLogReader(selectedFile, logProperties, variables.size(), numberOfJointStates);
 
-      File logdata = new File(selectedFile, logProperties.getVariableDataFile());
-      if (!logdata.exists())
+      if (logReader.isCompressed())
       {
-         throw new RuntimeException("Cannot find " + logProperties.getVariableDataFile());
-      }
-      this.logChannel = new FileInputStream(logdata).getChannel();
-
-      this.compressed = logProperties.getCompressed();
-      if (this.compressed)
-      {
-         File indexData = new File(selectedFile, logProperties.getVariablesIndexFile());
-         if (!indexData.exists())
-         {
-            throw new RuntimeException("Cannot find " + logProperties.getVariablesIndexFile());
-         }
-         logIndex = new LogIndex(indexData, logChannel.size());
-         compressedBuffer = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
-         numberOfEntries = logIndex.getNumberOfEntries();
+         numberOfEntries = logReader.getNumberOfRecords();
       }
       else
       {
-         numberOfEntries = (int) (logChannel.size() / bufferSize) - 1;
-         logIndex = null;
-         compressedBuffer = null;
+         numberOfEntries = logReader.getNumberOfRecords() - 1;
       }
 
       JointUpdater.getJointUpdaterList(getRootJoints(), jointStates, jointUpdaters);
 
-      logLine = ByteBuffer.allocate(bufferSize);
-      logLongArray = logLine.asLongBuffer();
-
       currentRecordTick = new IntegerYoVariable("currentRecordTick", getRobotsYoVariableRegistry());
 
-      try
-      {
-      	if(this.compressed)
-      	{
-         	initialTimestamp = logIndex.getInitialTimestamp();
-         	positionChannel(0);
-         }
-         else
-         {
-         	readLogLine();
-         	initialTimestamp = logLine.getLong(0);
-         	positionChannel(0);
-         }
-      }
-      catch (IOException e)
-      {
-         throw new RuntimeException(e);
-      }
+      initialTimestamp = logReader.getInitialTimestamp();
 
       scs.setRobot(this);
       scs.attachSimulationRewoundListener(this);
@@ -155,14 +106,7 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
    public void seek(int position)
    {
       currentRecordTick.set(position);
-      try
-      {
-         positionChannel(position);
-      }
-      catch (IOException e)
-      {
-         throw new RuntimeException(e);
-      }
+      index = position;
    }
 
    public void setReadEveryNTicks(int readEveryNTicks)
@@ -194,14 +138,16 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
 
    private boolean readAndProcessALogLineReturnTrueIfDone(double DT)
    {
+      if (index >= logReader.getNumberOfRecords())
+      {
+         System.out.println("Reached end of file, stopping simulation thread");
+         scs.stop();
+         return true;
+      }
+
       try
       {
-         if (!readLogLine())
-         {
-            System.out.println("Reached end of file, stopping simulation thread");
-            scs.stop();
-            return true;
-         }
+         LongBuffer logLongArray = logReader.getRecord(index++).asLongBuffer();
 
          timestamp.set(logLongArray.get());
          robotTime.set(TimeTools.nanoSecondstoSeconds(timestamp.getLongValue() - initialTimestamp));
@@ -237,77 +183,20 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
       return false;
    }
 
-   private void positionChannel(int position) throws IOException
-   {
-      if (compressed)
-      {
-         index = position;
-         if(index < logIndex.dataOffsets.length)
-         {
-            logChannel.position(logIndex.dataOffsets[position]);
-         }
-      }
-      else
-      {
-         logChannel.position(((long)position) * ((long)logLine.capacity()));
-      }
-   }
-
+   /**
+    * @return The timestamp of the record at position, without reading the record.
+    */
    public long getTimestamp(int position)
    {
-      if(!compressed)
-      {
-         throw new RuntimeException("Cannot get timestamp for non-compressed logs");
-      }
-
-      return logIndex.timestamps[position];
+      return logReader.getTimestamp(position);
    }
 
-   private boolean readLogLine() throws IOException
+   /**
+    * @return The position of the first record at or after timestamp.
+    */
+   public int findPosition(long timestamp)
    {
-      logLine.clear();
-      logLongArray.clear();
-
-      if (compressed)
-      {
-         if(index >= logIndex.getNumberOfEntries())
-         {
-            return false;
-         }
-         int size = logIndex.compressedSizes[index];
-         compressedBuffer.clear();
-         compressedBuffer.limit(size);
-
-         int read = logChannel.read(compressedBuffer);
-
-         if(read != size)
-         {
-            throw new RuntimeException("Expected read of " + size + ", got " + read + ". TODO: Implement loop for reading the full log line.");
-         }
-         compressedBuffer.flip();
-
-         SnappyUtils.uncompress(compressedBuffer, logLine);
-         ++index;
-
-         return true;
-      }
-      else
-      {
-         int read = logChannel.read(logLine);
-         if(read < 0)
-         {
-            return false;
-         }
-         else if (read != logLine.capacity())
-         {
-            throw new RuntimeException("Expected read of " + logLine.capacity() + ", got " + read + ". TODO: Implement loop for reading the full log line.");
-         }
-         else
-         {
-            return true;
-         }
-
-      }
+      return logReader.findTick(timestamp);
    }
 
    public void addCurrentRecordTickListener(VariableChangedListener listener)
@@ -317,15 +206,7 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
 
    public void wasRewound()
    {
-      int position = currentRecordTick.getIntegerValue();
-      try
-      {
-         positionChannel(position);
-      }
-      catch (IOException e)
-      {
-         throw new RuntimeException("Cannot skip to position " + position);
-      }
+      index = currentRecordTick.getIntegerValue();
    }
 
 
@@ -0,0 +1,246 @@
+package us.ihmc.robotDataVisualizer.logger.batch;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import us.ihmc.modelFileLoaders.SdfLoader.GeneralizedSDFRobotModel;
+import us.ihmc.modelFileLoaders.SdfLoader.RobotDescriptionFromSDFLoader;
+import us.ihmc.multicastLogDataProtocol.modelLoaders.SDFModelLoader;
+import us.ihmc.robotDataLogger.MappedLogReader;
+import us.ihmc.robotDataLogger.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.jointState.JointState;
+import us.ihmc.robotDataLogger.logger.LogProperties;
+import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+import us.ihmc.robotDataVisualizer.visualizer.JointUpdater;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.robotics.robotDescription.RobotDescription;
+import us.ihmc.simulationconstructionset.Robot;
+
+/**
+ * The state of one log, as seen by one worker of the {@link LogBatchProcessor}.
+ *
+ * Every worker parses the handshake of the log itself, so the variables, joint states and robots of a context are never shared between threads.
+ */
+public class LogBatchContext
+{
+   private final File logDirectory;
+   private final LogPropertiesReader logProperties;
+   private final YoVariableHandshakeParser parser;
+   private final List<YoVariable<?>> variables;
+   private final List<JointState> jointStates;
+   private final MappedLogReader logReader;
+
+   private RobotDescription robotDescription;
+   private final ArrayList<JointUpdater> jointUpdaters = new ArrayList<>();
+
+   private YoVariable<?>[] variablesToRead;
+   private long[] values = new long[0];
+
+   /**
+    * Opens the log in logDirectory. The format of the log is not updated, see {@link us.ihmc.robotDataLogger.logger.converters.LogFormatUpdater}.
+    */
+   public LogBatchContext(File logDirectory) throws IOException
+   {
+      this.logDirectory = logDirectory;
+
+      logProperties = new LogPropertiesReader(new File(logDirectory, YoVariableLoggerListener.propertyFile));
+      logProperties.removeVideos();
+
+      parser = parseHandshake(logDirectory, logProperties);
+      variables = parser.getYoVariablesList();
+      jointStates = parser.getJointStates();
+
+      logReader = new MappedLogReader(logDirectory, logProperties, variables.size(), JointState.getNumberOfJointStates(jointStates));
+   }
+
+   public static YoVariableHandshakeParser parseHandshake(File logDirectory, LogProperties logProperties) throws IOException
+   {
+      File handshake = new File(logDirectory, logProperties.getHandshakeFile());
+      if (!handshake.exists())
+      {
+         throw new RuntimeException("Cannot find " + logProperties.getHandshakeFile());
+      }
+
+      YoVariableHandshakeParser parser = new YoVariableHandshakeParser("logged");
+      parser.parseFrom(readFile(handshake));
+      return parser;
+   }
+
+   public static RobotDescription loadRobotDescription(File logDirectory, LogProperties logProperties) throws IOException
+   {
+      if (logProperties.getModelLoaderClass() == null)
+      {
+         throw new RuntimeException("No model available for log");
+      }
+
+      SDFModelLoader loader = new SDFModelLoader();
+      String modelName = logProperties.getModelName();
+      String[] resourceDirectories = logProperties.getModelResourceDirectories();
+
+      byte[] modelData = readFile(new File(logDirectory, logProperties.getModelPath()));
+      byte[] resourceData = readFile(new File(logDirectory, logProperties.getModelResourceBundlePath()));
+
+      loader.load(modelName, modelData, resourceDirectories, resourceData, null);
+      GeneralizedSDFRobotModel generalizedSDFRobotModel = loader.createJaxbSDFLoader().getGeneralizedSDFRobotModel(modelName);
+
+      boolean useCollisionMeshes = false;
+      RobotDescriptionFromSDFLoader descriptionLoader = new RobotDescriptionFromSDFLoader();
+      return descriptionLoader.loadRobotDescriptionFromSDF(generalizedSDFRobotModel, null, useCollisionMeshes);
+   }
+
+   private static byte[] readFile(File file) throws IOException
+   {
+      DataInputStream stream = new DataInputStream(new FileInputStream(file));
+      byte[] data = new byte[(int) file.length()];
+      stream.readFully(data);
+      stream.close();
+      return data;
+   }
+
+   public File getLogDirectory()
+   {
+      return logDirectory;
+   }
+
+   public LogProperties getLogProperties()
+   {
+      return logProperties;
+   }
+
+   public YoVariableHandshakeParser getParser()
+   {
+      return parser;
+   }
+
+   public YoVariableRegistry getRootRegistry()
+   {
+      return parser.getRootRegistry();
+   }
+
+   public List<YoVariable<?>> getVariables()
+   {
+      return variables;
+   }
+
+   public List<JointState> getJointStates()
+   {
+      return jointStates;
+   }
+
+   public double getDt()
+   {
+      return parser.getDt();
+   }
+
+   public int getNumberOfTicks()
+   {
+      return logReader.getNumberOfRecords();
+   }
+
+   public long getTimestamp(int tick)
+   {
+      return logReader.getTimestamp(tick);
+   }
+
+   /**
+    * @return The description of the robot model stored in the log. Loaded on the first call.
+    */
+   public RobotDescription getRobotDescription() throws IOException
+   {
+      if (robotDescription == null)
+      {
+         robotDescription = loadRobotDescription(logDirectory, logProperties);
+      }
+      return robotDescription;
+   }
+
+   /**
+    * Updates the joints of robot from the joint states of the log on every tick, before the function is called.
+    * Robots are detached at the end of every chunk. The function needs to read all variables for the joint states to be read.
+    */
+   public void attachRobot(Robot robot)
+   {
+      JointUpdater.getJointUpdaterList(robot.getRootJoints(), jointStates, jointUpdaters);
+   }
+
+   void detachRobots()
+   {
+      jointUpdaters.clear();
+   }
+
+   /**
+    * @param variablesToRead Variables to read, or null to read all variables and joint states
+    */
+   void setVariablesToRead(YoVariable<?>[] variablesToRead)
+   {
+      this.variablesToRead = variablesToRead;
+      if (variablesToRead == null)
+      {
+         return;
+      }
+
+      int[] offsets = new int[variablesToRead.length];
+      for (int i = 0; i < variablesToRead.length; i++)
+      {
+         int index = variables.indexOf(variablesToRead[i]);
+         if (index < 0)
+         {
+            throw new RuntimeException(variablesToRead[i].getName() + " is not in " + logDirectory);
+         }
+         offsets[i] = 1 + index;
+      }
+
+      logReader.setProjection(offsets);
+      if (values.length < offsets.length)
+      {
+         values = new long[offsets.length];
+      }
+   }
+
+   /**
+    * Sets the variables, and if all variables are read the joint states and attached robots, to their value at tick.
+    * Variable changed listeners are not notified.
+    */
+   void read(int tick) throws IOException
+   {
+      if (variablesToRead != null)
+      {
+         logReader.readProjection(tick, values);
+         for (int i = 0; i < variablesToRead.length; i++)
+         {
+            variablesToRead[i].setValueFromLongBits(values[i], false);
+         }
+         return;
+      }
+
+      LongBuffer record = logReader.getRecord(tick).asLongBuffer();
+      record.position(1);
+
+      for (int i = 0; i < variables.size(); i++)
+      {
+         variables.get(i).setValueFromLongBits(record.get(), false);
+      }
+
+      for (int i = 0; i < jointStates.size(); i++)
+      {
+         jointStates.get(i).update(record);
+      }
+
+      for (int i = 0; i < jointUpdaters.size(); i++)
+      {
+         jointUpdaters.get(i).update();
+      }
+   }
+
+   void close()
+   {
+      logReader.close();
+   }
+}
@@ -0,0 +1,33 @@
+package us.ihmc.robotDataVisualizer.logger.batch;
+
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+
+/**
+ * Function that is run over a chunk of a log by the {@link LogBatchProcessor}.
+ *
+ * A function is created for every chunk, on the worker thread that processes the chunk, and is only called from that thread.
+ *
+ * @param <R> Type of the result of the function
+ */
+public interface LogBatchFunction<R>
+{
+   /**
+    * @return The variables used by this function. Only these variables are read from the log, which is a lot faster for large logs.
+    * Return null to read all variables and the joint states, this is needed when a robot is attached to the {@link LogBatchContext}.
+    */
+   public abstract YoVariable<?>[] getVariablesToRead();
+
+   /**
+    * Called for every tick of the chunk, in order, after the variables are updated.
+    *
+    * @param timestamp Timestamp of the tick
+    */
+   public abstract void process(long timestamp);
+
+   /**
+    * Called after the last tick of the chunk.
+    *
+    * @return The result for this chunk. The results of all chunks are merged by the {@link LogBatchReducer}.
+    */
+   public abstract R getResult();
+}
@@ -0,0 +1,11 @@
+package us.ihmc.robotDataVisualizer.logger.batch;
+
+public interface LogBatchFunctionFactory<R>
+{
+   /**
+    * Creates the function for a chunk of a log. Called on the worker thread that processes the chunk.
+    *
+    * @param context The variables, joint states and robot model of the log, owned by the worker thread
+    */
+   public abstract LogBatchFunction<R> createFunction(LogBatchContext context);
+}
@@ -0,0 +1,279 @@
+package us.ihmc.robotDataVisualizer.logger.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+import us.ihmc.robotDataLogger.logger.converters.LogFormatUpdater;
+import us.ihmc.robotics.time.TimeTools;
+
+/**
+ * Runs a {@link LogBatchFunction} over a set of logs on a pool of worker threads, and merges the results with a {@link LogBatchReducer}.
+ *
+ * The logs are split in chunks of ticks that are processed independently. By default a chunk is a whole log, so a function sees every tick of a log in order.
+ * Functions that do not depend on the ticks before the start of their chunk can set a chunk size to spread a single large log over all workers.
+ *
+ * Each worker thread parses the handshake of the log it is working on, and keeps its variables, joint states and robots for the chunks of that log it gets.
+ * The data is read with a {@link us.ihmc.robotDataLogger.MappedLogReader}, so the workers share the log data through the page cache.
+ *
+ * @param <R> Type of the result
+ */
+public class LogBatchProcessor<R>
+{
+   private final List<File> logDirectories;
+   private final LogBatchFunctionFactory<R> functionFactory;
+   private final LogBatchReducer<R> reducer;
+
+   private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+   private int ticksPerChunk = 0;
+
+   private final ThreadLocal<LogBatchContext> workerContexts = new ThreadLocal<>();
+   private final ConcurrentLinkedQueue<LogBatchContext> openContexts = new ConcurrentLinkedQueue<>();
+
+   private final AtomicLong numberOfProcessedTicks = new AtomicLong();
+   private long processingTime = 0;
+
+   public LogBatchProcessor(List<File> logDirectories, LogBatchFunctionFactory<R> functionFactory, LogBatchReducer<R> reducer)
+   {
+      if (logDirectories.isEmpty())
+      {
+         throw new RuntimeException("No logs to process");
+      }
+
+      this.logDirectories = new ArrayList<>(logDirectories);
+      this.functionFactory = functionFactory;
+      this.reducer = reducer;
+   }
+
+   public void setNumberOfThreads(int numberOfThreads)
+   {
+      if (numberOfThreads < 1)
+      {
+         throw new RuntimeException("Need at least one thread");
+      }
+      this.numberOfThreads = numberOfThreads;
+   }
+
+   public int getNumberOfThreads()
+   {
+      return numberOfThreads;
+   }
+
+   /**
+    * @param ticksPerChunk Maximum number of ticks in a chunk, or 0 to process every log as a single chunk
+    */
+   public void setTicksPerChunk(int ticksPerChunk)
+   {
+      if (ticksPerChunk < 0)
+      {
+         throw new RuntimeException("Ticks per chunk cannot be negative");
+      }
+      this.ticksPerChunk = ticksPerChunk;
+   }
+
+   public int getTicksPerChunk()
+   {
+      return ticksPerChunk;
+   }
+
+   /**
+    * Processes all logs. Blocks till all workers are done.
+    *
+    * @return The reduced result of all chunks of all logs
+    */
+   public R run()
+   {
+      // Updating the format writes to the log, so it is done before the workers start
+      for (File logDirectory : logDirectories)
+      {
+         LogPropertiesReader logProperties = new LogPropertiesReader(new File(logDirectory, YoVariableLoggerListener.propertyFile));
+         LogFormatUpdater.updateLogs(logDirectory, logProperties);
+      }
+
+      numberOfProcessedTicks.set(0);
+      ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+
+      try
+      {
+         long startTime = System.nanoTime();
+         R result = pool.invoke(new BatchTask());
+         processingTime = System.nanoTime() - startTime;
+         return result;
+      }
+      finally
+      {
+         pool.shutdown();
+
+         LogBatchContext context;
+         while ((context = openContexts.poll()) != null)
+         {
+            context.close();
+         }
+      }
+   }
+
+   public long getNumberOfProcessedTicks()
+   {
+      return numberOfProcessedTicks.get();
+   }
+
+   /**
+    * @return Wall time of the last run in seconds
+    */
+   public double getProcessingTime()
+   {
+      return TimeTools.nanoSecondstoSeconds(processingTime);
+   }
+
+   public double getTicksPerSecond()
+   {
+      return getNumberOfProcessedTicks() / getProcessingTime();
+   }
+
+   /**
+    * @return Ticks per second of the last run, divided by the number of threads or cores, whichever is less
+    */
+   public double getTicksPerSecondPerCore()
+   {
+      int numberOfCores = Math.min(numberOfThreads, Runtime.getRuntime().availableProcessors());
+      return getTicksPerSecond() / numberOfCores;
+   }
+
+   private LogBatchContext getContext(File logDirectory)
+   {
+      LogBatchContext context = workerContexts.get();
+      if (context != null && context.getLogDirectory().equals(logDirectory))
+      {
+         return context;
+      }
+
+      if (context != null)
+      {
+         openContexts.remove(context);
+         context.close();
+      }
+
+      try
+      {
+         context = new LogBatchContext(logDirectory);
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException("Cannot open " + logDirectory, e);
+      }
+
+      openContexts.add(context);
+      workerContexts.set(context);
+      return context;
+   }
+
+   private R reduce(List<? extends RecursiveTask<R>> tasks)
+   {
+      R result = tasks.get(0).join();
+      for (int i = 1; i < tasks.size(); i++)
+      {
+         result = reducer.reduce(result, tasks.get(i).join());
+      }
+      return result;
+   }
+
+   private class BatchTask extends RecursiveTask<R>
+   {
+      private static final long serialVersionUID = 3327391718066815361L;
+
+      @Override
+      protected R compute()
+      {
+         ArrayList<LogTask> logTasks = new ArrayList<>();
+         for (File logDirectory : logDirectories)
+         {
+            logTasks.add(new LogTask(logDirectory));
+         }
+
+         invokeAll(logTasks);
+         return reduce(logTasks);
+      }
+   }
+
+   private class LogTask extends RecursiveTask<R>
+   {
+      private static final long serialVersionUID = -4563213957000738519L;
+      private final File logDirectory;
+
+      private LogTask(File logDirectory)
+      {
+         this.logDirectory = logDirectory;
+      }
+
+      @Override
+      protected R compute()
+      {
+         int numberOfTicks = getContext(logDirectory).getNumberOfTicks();
+         int chunkSize = ticksPerChunk == 0 ? Math.max(numberOfTicks, 1) : ticksPerChunk;
+
+         ArrayList<ChunkTask> chunkTasks = new ArrayList<>();
+         int firstTick = 0;
+         do
+         {
+            int lastTick = Math.min(firstTick + chunkSize, numberOfTicks);
+            chunkTasks.add(new ChunkTask(logDirectory, firstTick, lastTick));
+            firstTick = lastTick;
+         }
+         while (firstTick < numberOfTicks);
+
+         invokeAll(chunkTasks);
+         return reduce(chunkTasks);
+      }
+   }
+
+   private class ChunkTask extends RecursiveTask<R>
+   {
+      private static final long serialVersionUID = 1840533795420367893L;
+      private final File logDirectory;
+      private final int firstTick;
+      private final int endTick;
+
+      private ChunkTask(File logDirectory, int firstTick, int endTick)
+      {
+         this.logDirectory = logDirectory;
+         this.firstTick = firstTick;
+         this.endTick = endTick;
+      }
+
+      @Override
+      protected R compute()
+      {
+         LogBatchContext context = getContext(logDirectory);
+         LogBatchFunction<R> function = functionFactory.createFunction(context);
+
+         try
+         {
+            context.setVariablesToRead(function.getVariablesToRead());
+
+            for (int tick = firstTick; tick < endTick; tick++)
+            {
+               context.read(tick);
+               function.process(context.getTimestamp(tick));
+            }
+         }
+         catch (IOException e)
+         {
+            throw new RuntimeException("Cannot read " + logDirectory, e);
+         }
+         finally
+         {
+            context.detachRobots();
+         }
+
+         numberOfProcessedTicks.addAndGet(endTick - firstTick);
+         return function.getResult();
+      }
+   }
+}
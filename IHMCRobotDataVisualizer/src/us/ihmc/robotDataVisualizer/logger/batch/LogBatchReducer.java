@@ -0,0 +1,16 @@
+package us.ihmc.robotDataVisualizer.logger.batch;
+
+public interface LogBatchReducer<R>
+{
+   /**
+    * Merges the results of two consecutive parts of the batch.
+    *
+    * Results are always merged in order: chunks in tick order, and logs in the order they were given to the {@link LogBatchProcessor}.
+    * The reducer does not have to be commutative, but it has to be associative for the result to be independent of the chunk size.
+    *
+    * @param first Result of the first part
+    * @param second Result of the part that directly follows the first part
+    * @return The merged result. The arguments can be modified and returned.
+    */
+   public abstract R reduce(R first, R second);
+}
@@ -1,17 +1,13 @@
 package us.ihmc.robotDataVisualizer.logger.searcher;
 
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 
-import us.ihmc.modelFileLoaders.SdfLoader.GeneralizedSDFRobotModel;
-import us.ihmc.modelFileLoaders.SdfLoader.RobotDescriptionFromSDFLoader;
-import us.ihmc.multicastLogDataProtocol.modelLoaders.SDFModelLoader;
 import us.ihmc.robotDataLogger.YoVariableHandshakeParser;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
 import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
 import us.ihmc.robotDataLogger.logger.converters.LogFormatUpdater;
+import us.ihmc.robotDataVisualizer.logger.batch.LogBatchContext;
 import us.ihmc.robotics.dataStructures.variable.YoVariable;
 import us.ihmc.robotics.robotDescription.RobotDescription;
 import us.ihmc.robotics.time.TimeTools;
@@ -37,52 +33,10 @@ public class LogCrawler implements Runnable
       logProperties.removeVideos();
       LogFormatUpdater.updateLogs(selectedFile, logProperties);
 
-      File handshake = new File(selectedFile, logProperties.getHandshakeFile());
-      if (!handshake.exists())
-      {
-         throw new RuntimeException("Cannot find " + logProperties.getHandshakeFile());
-      }
-
-      DataInputStream handshakeStream = new DataInputStream(new FileInputStream(handshake));
-      byte[] handshakeData = new byte[(int) handshake.length()];
-      handshakeStream.readFully(handshakeData);
-      handshakeStream.close();
-
-      YoVariableHandshakeParser parser = new YoVariableHandshakeParser("logged");
-      parser.parseFrom(handshakeData);
+      YoVariableHandshakeParser parser = LogBatchContext.parseHandshake(selectedFile, logProperties);
       YoVariable<?>[] yoVariablesToUpdate = playbackListener.getYovariablesToUpdate(parser.getRootRegistry());
 
-      GeneralizedSDFRobotModel generalizedSDFRobotModel;
-      if (logProperties.getModelLoaderClass() != null)
-      {
-         SDFModelLoader loader = new SDFModelLoader();
-         String modelName = logProperties.getModelName();
-         String[] resourceDirectories = logProperties.getModelResourceDirectories();
-
-         File model = new File(selectedFile, logProperties.getModelPath());
-         DataInputStream modelStream = new DataInputStream(new FileInputStream(model));
-         byte[] modelData = new byte[(int) model.length()];
-         modelStream.readFully(modelData);
-         modelStream.close();
-
-         File resourceBundle = new File(selectedFile, logProperties.getModelResourceBundlePath());
-         DataInputStream resourceStream = new DataInputStream(new FileInputStream(resourceBundle));
-         byte[] resourceData = new byte[(int) resourceBundle.length()];
-         resourceStream.readFully(resourceData);
-         resourceStream.close();
-
-         loader.load(modelName, modelData, resourceDirectories, resourceData, null);
-         generalizedSDFRobotModel = loader.createJaxbSDFLoader().getGeneralizedSDFRobotModel(modelName);
-      }
-      else
-      {
-         throw new RuntimeException("No model available for log");
-      }
-
-      boolean useCollisionMeshes = false;
-
-      RobotDescriptionFromSDFLoader loader = new RobotDescriptionFromSDFLoader();
-      RobotDescription robotDescription = loader.loadRobotDescriptionFromSDF(generalizedSDFRobotModel, null, useCollisionMeshes);
+      RobotDescription robotDescription = LogBatchContext.loadRobotDescription(selectedFile, logProperties);
 
       robot = new SpecificLogVariableUpdater(selectedFile, robotDescription, parser.getJointStates(), parser.getYoVariablesList(), logProperties,
             yoVariablesToUpdate);
@@ -0,0 +1,141 @@
+package us.ihmc.robotDataVisualizer.logger.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+
+/**
+ * Reports the throughput of the {@link LogBatchProcessor} in ticks per second per core, for an increasing number of threads.
+ *
+ * Pass log directories as arguments to benchmark on real logs, otherwise synthetic logs are written to the temporary directory.
+ */
+public class LogBatchProcessorBenchmark
+{
+   private static final int NUMBER_OF_SYNTHETIC_LOGS = 8;
+   private static final int NUMBER_OF_TICKS = 20000;
+   private static final int NUMBER_OF_VARIABLES = 2000;
+   private static final int TICKS_PER_CHUNK = 5000;
+
+   public static void main(String[] args) throws IOException
+   {
+      ArrayList<File> logs = new ArrayList<>();
+      boolean synthetic = args.length == 0;
+
+      if (synthetic)
+      {
+         Random random = new Random(1234L);
+         for (int i = 0; i < NUMBER_OF_SYNTHETIC_LOGS; i++)
+         {
+            logs.add(SyntheticLogWriter.writeLog(NUMBER_OF_VARIABLES, NUMBER_OF_TICKS, random));
+         }
+      }
+      else
+      {
+         for (String arg : args)
+         {
+            logs.add(new File(arg));
+         }
+      }
+
+      int maximumNumberOfThreads = Runtime.getRuntime().availableProcessors();
+
+      // Warm up
+      run(logs, maximumNumberOfThreads, true);
+      run(logs, maximumNumberOfThreads, false);
+
+      for (boolean readAllVariables : new boolean[] {true, false})
+      {
+         System.out.println(readAllVariables ? "Reading all variables" : "Reading one variable");
+         for (int numberOfThreads = 1; numberOfThreads <= maximumNumberOfThreads; numberOfThreads *= 2)
+         {
+            LogBatchProcessor<double[]> processor = run(logs, numberOfThreads, readAllVariables);
+            System.out.println(String.format("%3d threads: %12.0f ticks/s, %12.0f ticks/s/core", numberOfThreads, processor.getTicksPerSecond(),
+                  processor.getTicksPerSecondPerCore()));
+         }
+      }
+
+      if (synthetic)
+      {
+         for (File log : logs)
+         {
+            SyntheticLogWriter.deleteLog(log);
+         }
+      }
+   }
+
+   private static LogBatchProcessor<double[]> run(ArrayList<File> logs, int numberOfThreads, final boolean readAllVariables)
+   {
+      LogBatchFunctionFactory<double[]> factory = new LogBatchFunctionFactory<double[]>()
+      {
+         @Override
+         public LogBatchFunction<double[]> createFunction(LogBatchContext context)
+         {
+            return new MaximumFinder(context, readAllVariables);
+         }
+      };
+
+      LogBatchReducer<double[]> reducer = new LogBatchReducer<double[]>()
+      {
+         @Override
+         public double[] reduce(double[] first, double[] second)
+         {
+            first[0] = Math.max(first[0], second[0]);
+            return first;
+         }
+      };
+
+      LogBatchProcessor<double[]> processor = new LogBatchProcessor<>(logs, factory, reducer);
+      processor.setNumberOfThreads(numberOfThreads);
+      processor.setTicksPerChunk(TICKS_PER_CHUNK);
+      processor.run();
+      return processor;
+   }
+
+   /**
+    * Finds the maximum of the first double variable, so the work per tick is dominated by reading the log.
+    */
+   private static class MaximumFinder implements LogBatchFunction<double[]>
+   {
+      private final DoubleYoVariable variable;
+      private final boolean readAllVariables;
+      private final double[] maximum = {Double.NEGATIVE_INFINITY};
+
+      private MaximumFinder(LogBatchContext context, boolean readAllVariables)
+      {
+         DoubleYoVariable firstDoubleVariable = null;
+         for (YoVariable<?> variable : context.getVariables())
+         {
+            if (variable instanceof DoubleYoVariable)
+            {
+               firstDoubleVariable = (DoubleYoVariable) variable;
+               break;
+            }
+         }
+
+         this.variable = firstDoubleVariable;
+         this.readAllVariables = readAllVariables;
+      }
+
+      @Override
+      public YoVariable<?>[] getVariablesToRead()
+      {
+         return readAllVariables ? null : new YoVariable<?>[] {variable};
+      }
+
+      @Override
+      public void process(long timestamp)
+      {
+         maximum[0] = Math.max(maximum[0], variable.getDoubleValue());
+      }
+
+      @Override
+      public double[] getResult()
+      {
+         return maximum;
+      }
+   }
+}
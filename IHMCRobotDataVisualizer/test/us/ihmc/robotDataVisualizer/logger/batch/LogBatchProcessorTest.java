@@ -0,0 +1,130 @@
+package us.ihmc.robotDataVisualizer.logger.batch;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class LogBatchProcessorTest
+{
+   private static final int NUMBER_OF_LOGS = 3;
+   private static final int NUMBER_OF_TICKS = 2000;
+   private static final int NUMBER_OF_VARIABLES = 20;
+
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   @Test(timeout = 30000)
+   public void testParallelChunksAreSameAsSerial() throws IOException
+   {
+      Random random = new Random(4582L);
+      ArrayList<File> logs = new ArrayList<>();
+      for (int i = 0; i < NUMBER_OF_LOGS; i++)
+      {
+         logs.add(SyntheticLogWriter.writeLog(NUMBER_OF_VARIABLES, NUMBER_OF_TICKS, random));
+      }
+
+      try
+      {
+         Result serial = run(logs, 1, 0, false);
+         Result parallel = run(logs, 4, 300, false);
+         Result parallelAllVariables = run(logs, 4, 77, true);
+
+         assertEquals(NUMBER_OF_LOGS * NUMBER_OF_TICKS, serial.ticks.size());
+         for (int i = 0; i < serial.ticks.size(); i++)
+         {
+            assertEquals(i % NUMBER_OF_TICKS, serial.ticks.get(i).longValue());
+         }
+
+         assertEquals(serial.ticks, parallel.ticks);
+         assertEquals(serial.ticks, parallelAllVariables.ticks);
+         assertEquals(serial.sum, parallel.sum, 1e-8);
+         assertEquals(serial.sum, parallelAllVariables.sum, 1e-8);
+      }
+      finally
+      {
+         for (File log : logs)
+         {
+            SyntheticLogWriter.deleteLog(log);
+         }
+      }
+   }
+
+   private static Result run(ArrayList<File> logs, int numberOfThreads, int ticksPerChunk, final boolean readAllVariables)
+   {
+      LogBatchFunctionFactory<Result> factory = new LogBatchFunctionFactory<Result>()
+      {
+         @Override
+         public LogBatchFunction<Result> createFunction(LogBatchContext context)
+         {
+            return new TickCollector(context, readAllVariables);
+         }
+      };
+
+      LogBatchReducer<Result> reducer = new LogBatchReducer<Result>()
+      {
+         @Override
+         public Result reduce(Result first, Result second)
+         {
+            first.ticks.addAll(second.ticks);
+            first.sum += second.sum;
+            return first;
+         }
+      };
+
+      LogBatchProcessor<Result> processor = new LogBatchProcessor<>(logs, factory, reducer);
+      processor.setNumberOfThreads(numberOfThreads);
+      processor.setTicksPerChunk(ticksPerChunk);
+      Result result = processor.run();
+
+      assertEquals(NUMBER_OF_LOGS * NUMBER_OF_TICKS, processor.getNumberOfProcessedTicks());
+      return result;
+   }
+
+   private static class Result
+   {
+      private final ArrayList<Long> ticks = new ArrayList<>();
+      private double sum = 0.0;
+   }
+
+   private static class TickCollector implements LogBatchFunction<Result>
+   {
+      private final LongYoVariable tick;
+      private final DoubleYoVariable variable;
+      private final boolean readAllVariables;
+      private final Result result = new Result();
+
+      private TickCollector(LogBatchContext context, boolean readAllVariables)
+      {
+         this.tick = (LongYoVariable) context.getRootRegistry().getVariable("tick");
+         this.variable = (DoubleYoVariable) context.getRootRegistry().getVariable("variable3");
+         this.readAllVariables = readAllVariables;
+      }
+
+      @Override
+      public YoVariable<?>[] getVariablesToRead()
+      {
+         return readAllVariables ? null : new YoVariable<?>[] {tick, variable};
+      }
+
+      @Override
+      public void process(long timestamp)
+      {
+         result.ticks.add(tick.getLongValue());
+         result.sum += variable.getDoubleValue();
+      }
+
+      @Override
+      public Result getResult()
+      {
+         return result;
+      }
+   }
+}
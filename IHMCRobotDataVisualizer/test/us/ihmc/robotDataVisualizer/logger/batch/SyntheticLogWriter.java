@@ -0,0 +1,113 @@
+package us.ihmc.robotDataVisualizer.logger.batch;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Random;
+
+import us.ihmc.robotDataLogger.YoVariableHandShakeBuilder;
+import us.ihmc.robotDataLogger.logger.LogPropertiesWriter;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Writes compressed logs without a robot model, in the same format as the {@link YoVariableLoggerListener}.
+ *
+ * The log has a LongYoVariable "tick" that holds the tick number, and DoubleYoVariables "variable0", "variable1", ... with random walks.
+ */
+class SyntheticLogWriter
+{
+   static File writeLog(int numberOfVariables, int numberOfTicks, Random random) throws IOException
+   {
+      File logDirectory = Files.createTempDirectory("syntheticLog").toFile();
+
+      YoVariableRegistry registry = new YoVariableRegistry("synthetic");
+      LongYoVariable tick = new LongYoVariable("tick", registry);
+      DoubleYoVariable[] variables = new DoubleYoVariable[numberOfVariables];
+      for (int i = 0; i < numberOfVariables; i++)
+      {
+         variables[i] = new DoubleYoVariable("variable" + i, registry);
+      }
+
+      YoVariableHandShakeBuilder handshakeBuilder = new YoVariableHandShakeBuilder(null, 0.001);
+      ArrayList<YoVariable<?>> variableList = new ArrayList<>();
+      handshakeBuilder.addRegistry(registry, variableList);
+
+      FileOutputStream handshakeStream = new FileOutputStream(new File(logDirectory, "handshake.proto"));
+      handshakeStream.write(handshakeBuilder.toByteArray());
+      handshakeStream.close();
+
+      LogPropertiesWriter logProperties = new LogPropertiesWriter(new File(logDirectory, YoVariableLoggerListener.propertyFile));
+      logProperties.setHandshakeFile("handshake.proto");
+      logProperties.setVariableDataFile("robotData.bsz");
+      logProperties.setCompressed(true);
+      logProperties.setTimestampedIndex(true);
+      logProperties.setVariablesIndexFile("robotData.dat");
+      logProperties.setLogName(logDirectory.getName());
+      logProperties.store();
+
+      FileChannel dataChannel = new FileOutputStream(new File(logDirectory, "robotData.bsz")).getChannel();
+      FileChannel indexChannel = new FileOutputStream(new File(logDirectory, "robotData.dat")).getChannel();
+
+      ByteBuffer buffer = ByteBuffer.allocate(8 * (1 + variableList.size()));
+      ByteBuffer compressedBuffer = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(buffer.capacity()));
+      ByteBuffer indexBuffer = ByteBuffer.allocate(16);
+
+      long timestamp = 1000000000L;
+      for (int i = 0; i < numberOfTicks; i++)
+      {
+         timestamp += 1000000L;
+         tick.set(i);
+         for (DoubleYoVariable variable : variables)
+         {
+            variable.add(random.nextDouble() - 0.5);
+         }
+
+         buffer.clear();
+         buffer.putLong(timestamp);
+         for (int j = 0; j < variableList.size(); j++)
+         {
+            buffer.putLong(variableList.get(j).getValueAsLongBits());
+         }
+         buffer.flip();
+
+         compressedBuffer.clear();
+         SnappyUtils.compress(buffer, compressedBuffer);
+         compressedBuffer.flip();
+
+         indexBuffer.clear();
+         indexBuffer.putLong(timestamp);
+         indexBuffer.putLong(dataChannel.position());
+         indexBuffer.flip();
+
+         indexChannel.write(indexBuffer);
+         dataChannel.write(compressedBuffer);
+      }
+
+      dataChannel.close();
+      indexChannel.close();
+
+      return logDirectory;
+   }
+
+   static void deleteLog(File logDirectory)
+   {
+      File[] files = logDirectory.listFiles();
+      if (files != null)
+      {
+         for (File file : files)
+         {
+            file.delete();
+         }
+      }
+      logDirectory.delete();
+   }
+}
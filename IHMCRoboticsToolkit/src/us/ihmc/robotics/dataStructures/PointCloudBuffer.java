@@ -0,0 +1,244 @@
+package us.ihmc.robotics.dataStructures;
+
+import java.util.Arrays;
+
+import javax.vecmath.Point3d;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+
+/**
+ * Reusable point cloud stored as flat arrays: {@code x0, y0, z0, x1, y1, z1, ...} for the positions, plus one intensity and one packed ARGB color per point.
+ * The arrays only grow, so a buffer that is cleared and refilled for every scan does not allocate once it has reached the size of the largest scan.
+ * Intensities and colors are stored for every point but are only meaningful if the source provides them, see {@link #hasIntensities()} and {@link #hasColors()}.
+ */
+public class PointCloudBuffer
+{
+   private static final int INITIAL_CAPACITY = 1024;
+
+   private float[] xyz;
+   private float[] intensities;
+   private int[] colors;
+   private int size = 0;
+
+   private boolean hasIntensities = false;
+   private boolean hasColors = false;
+
+   public PointCloudBuffer()
+   {
+      this(INITIAL_CAPACITY);
+   }
+
+   public PointCloudBuffer(int initialCapacity)
+   {
+      initialCapacity = Math.max(initialCapacity, 1);
+      xyz = new float[3 * initialCapacity];
+      intensities = new float[initialCapacity];
+      colors = new int[initialCapacity];
+   }
+
+   /**
+    * Removes all the points without releasing the memory.
+    */
+   public void clear()
+   {
+      size = 0;
+      hasIntensities = false;
+      hasColors = false;
+   }
+
+   public void ensureCapacity(int numberOfPoints)
+   {
+      if (numberOfPoints <= colors.length)
+         return;
+
+      int newCapacity = Math.max(numberOfPoints, 2 * colors.length);
+      xyz = Arrays.copyOf(xyz, 3 * newCapacity);
+      intensities = Arrays.copyOf(intensities, newCapacity);
+      colors = Arrays.copyOf(colors, newCapacity);
+   }
+
+   /**
+    * Sets the number of points, growing the arrays if needed. Used by decoders that write directly in {@link #getXYZArray()}.
+    */
+   public void setSize(int numberOfPoints)
+   {
+      ensureCapacity(numberOfPoints);
+      size = numberOfPoints;
+   }
+
+   public void add(float x, float y, float z)
+   {
+      add(x, y, z, 0.0f, 0);
+   }
+
+   public void add(float x, float y, float z, float intensity, int argb)
+   {
+      ensureCapacity(size + 1);
+      set(size++, x, y, z, intensity, argb);
+   }
+
+   public void set(int index, float x, float y, float z, float intensity, int argb)
+   {
+      int xyzIndex = 3 * index;
+      xyz[xyzIndex] = x;
+      xyz[xyzIndex + 1] = y;
+      xyz[xyzIndex + 2] = z;
+      intensities[index] = intensity;
+      colors[index] = argb;
+   }
+
+   /**
+    * Copies the point at {@code sourceIndex} over the point at {@code destinationIndex}.
+    * Filters use it to compact the buffer in place, keeping the order of the points, before calling {@link #setSize(int)}.
+    */
+   public void copyPoint(int sourceIndex, int destinationIndex)
+   {
+      set(destinationIndex, getX(sourceIndex), getY(sourceIndex), getZ(sourceIndex), intensities[sourceIndex], colors[sourceIndex]);
+   }
+
+   public void set(PointCloudBuffer other)
+   {
+      set(other, 0, other.size);
+   }
+
+   /**
+    * Sets this buffer to the points of {@code other} from {@code startIndex} inclusive to {@code endIndex} exclusive.
+    */
+   public void set(PointCloudBuffer other, int startIndex, int endIndex)
+   {
+      int numberOfPoints = endIndex - startIndex;
+      setSize(numberOfPoints);
+      System.arraycopy(other.xyz, 3 * startIndex, xyz, 0, 3 * numberOfPoints);
+      System.arraycopy(other.intensities, startIndex, intensities, 0, numberOfPoints);
+      System.arraycopy(other.colors, startIndex, colors, 0, numberOfPoints);
+      hasIntensities = other.hasIntensities;
+      hasColors = other.hasColors;
+   }
+
+   /**
+    * Transforms all the points in place.
+    */
+   public void applyTransform(RigidBodyTransform transform)
+   {
+      double m00 = transform.mat00, m01 = transform.mat01, m02 = transform.mat02, m03 = transform.mat03;
+      double m10 = transform.mat10, m11 = transform.mat11, m12 = transform.mat12, m13 = transform.mat13;
+      double m20 = transform.mat20, m21 = transform.mat21, m22 = transform.mat22, m23 = transform.mat23;
+
+      for (int i = 0; i < 3 * size; i += 3)
+      {
+         double x = xyz[i];
+         double y = xyz[i + 1];
+         double z = xyz[i + 2];
+         xyz[i] = (float) (m00 * x + m01 * y + m02 * z + m03);
+         xyz[i + 1] = (float) (m10 * x + m11 * y + m12 * z + m13);
+         xyz[i + 2] = (float) (m20 * x + m21 * y + m22 * z + m23);
+      }
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   public float getX(int index)
+   {
+      return xyz[3 * index];
+   }
+
+   public float getY(int index)
+   {
+      return xyz[3 * index + 1];
+   }
+
+   public float getZ(int index)
+   {
+      return xyz[3 * index + 2];
+   }
+
+   public void getPoint(int index, Point3d pointToPack)
+   {
+      int xyzIndex = 3 * index;
+      pointToPack.set(xyz[xyzIndex], xyz[xyzIndex + 1], xyz[xyzIndex + 2]);
+   }
+
+   public float getIntensity(int index)
+   {
+      return intensities[index];
+   }
+
+   /**
+    * @return the color of the point packed as in {@link java.awt.Color#getRGB()}.
+    */
+   public int getColor(int index)
+   {
+      return colors[index];
+   }
+
+   public boolean hasIntensities()
+   {
+      return hasIntensities;
+   }
+
+   public void setHasIntensities(boolean hasIntensities)
+   {
+      this.hasIntensities = hasIntensities;
+   }
+
+   public boolean hasColors()
+   {
+      return hasColors;
+   }
+
+   public void setHasColors(boolean hasColors)
+   {
+      this.hasColors = hasColors;
+   }
+
+   /**
+    * Direct access to the positions, only the first {@code 3 * size()} elements are valid. The array changes when the buffer grows.
+    */
+   public float[] getXYZArray()
+   {
+      return xyz;
+   }
+
+   /**
+    * Direct access to the intensities, only the first {@code size()} elements are valid. The array changes when the buffer grows.
+    */
+   public float[] getIntensityArray()
+   {
+      return intensities;
+   }
+
+   /**
+    * Direct access to the colors, only the first {@code size()} elements are valid. The array changes when the buffer grows.
+    */
+   public int[] getColorArray()
+   {
+      return colors;
+   }
+
+   /**
+    * @return a new array containing the positions of the points, as expected by the point cloud packets.
+    */
+   public float[] toXYZArray()
+   {
+      return Arrays.copyOf(xyz, 3 * size);
+   }
+
+   public Point3d[] toPoint3dArray()
+   {
+      Point3d[] points = new Point3d[size];
+      for (int i = 0; i < size; i++)
+      {
+         points[i] = new Point3d();
+         getPoint(i, points[i]);
+      }
+      return points;
+   }
+}
@@ -0,0 +1,17 @@
+package us.ihmc.robotics.dataStructures.listener;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/*
+ * RewoundListener that holds state which is not stored in YoVariables, for instance the internal state of a filter or a planner.
+ * Simulation checkpoints write that state with writeCheckpoint() and give it back with readCheckpoint() when the simulation is restored
+ * to the checkpoint, before wasRewound() is called.
+ */
+public interface CheckpointableRewoundListener extends RewoundListener
+{
+   public void writeCheckpoint(DataOutput dataOutput) throws IOException;
+
+   public void readCheckpoint(DataInput dataInput) throws IOException;
+}
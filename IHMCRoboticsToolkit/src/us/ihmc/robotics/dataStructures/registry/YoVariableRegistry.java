@@ -32,6 +32,14 @@ public class YoVariableRegistry implements YoVariableHolder
    private boolean isLogged = false;
    private boolean isSent = false;
 
+   /**
+    * Index of this subtree, built after {@link #LOOKUPS_BEFORE_INDEXING} lookups without changes so that registries being built and queried at the same
+    * time do not rebuild it after every new variable. Any change in the subtree drops it, see {@link #invalidateIndex()}.
+    */
+   private volatile YoVariableRegistryIndex index = null;
+   private int lookupsSinceLastChange = 0;
+   private static final int LOOKUPS_BEFORE_INDEXING = 8;
+
    private static final Pattern illegalCharacters = Pattern.compile("[ .*?@#$%/^&()<>,:{}'\"\\\\]");
 
    protected static void checkForIllegalCharacters(String name)
@@ -67,6 +75,8 @@ public class YoVariableRegistry implements YoVariableHolder
 
       this.isLogged = isLogged;
       this.isSent = isSent;
+
+      YoVariableRegistryStartupProfiler.recordEvent(this);
    }
 
    public String getName()
@@ -138,7 +148,9 @@ public class YoVariableRegistry implements YoVariableHolder
 
       controlVarsHashMap.put(variableName, variable);
       controlVars.add(variable);
+      invalidateIndex();
 
+      YoVariableRegistryStartupProfiler.recordEvent(this);
       notifyListenersYoVariableWasRegistered(variable);
    }
 
@@ -208,6 +220,15 @@ public class YoVariableRegistry implements YoVariableHolder
     * in which they were added. Returns null if no variable is found.
     */
    public YoVariable<?> getVariable(String name)
+   {
+      YoVariableRegistryIndex index = getIndexForLookup();
+      if (index != null)
+         return index.getVariable(name);
+
+      return getVariableRecursively(name);
+   }
+
+   private YoVariable<?> getVariableRecursively(String name)
    {
       String matchedName = matchNameSpace(name);
 
@@ -222,7 +243,7 @@ public class YoVariableRegistry implements YoVariableHolder
 
       for (YoVariableRegistry child : children)
       {
-         YoVariable<?> variable = child.getVariable(name);
+         YoVariable<?> variable = child.getVariableRecursively(name);
          if (variable != null)
             return variable;
       }
@@ -260,6 +281,18 @@ public class YoVariableRegistry implements YoVariableHolder
     * in this YoVariableRegistry and all of its children.
     */
    public void getVariables(ArrayList<YoVariable<?>> listToPack, String name)
+   {
+      YoVariableRegistryIndex index = getIndexForLookup();
+      if (index != null)
+      {
+         index.getVariables(listToPack, name);
+         return;
+      }
+
+      getVariablesRecursively(listToPack, name);
+   }
+
+   private void getVariablesRecursively(ArrayList<YoVariable<?>> listToPack, String name)
    {
       String matchedName = matchNameSpace(name);
 
@@ -274,7 +307,7 @@ public class YoVariableRegistry implements YoVariableHolder
 
       for (YoVariableRegistry child : children)
       {
-         child.getVariables(listToPack, name);
+         child.getVariablesRecursively(listToPack, name);
       }
    }
 
@@ -304,7 +337,8 @@ public class YoVariableRegistry implements YoVariableHolder
     */
    public boolean hasUniqueVariable(String name)
    {
-      int numberOfInstances = this.getNumberOfInstancesRecursively(name);
+      YoVariableRegistryIndex index = getIndexForLookup();
+      int numberOfInstances = index != null ? index.getNumberOfMatchingVariables(name) : this.getNumberOfInstancesRecursively(name);
       if (numberOfInstances == 1)
          return true;
 
@@ -348,6 +382,42 @@ public class YoVariableRegistry implements YoVariableHolder
       return name;
    }
 
+   /**
+    * Returns the lookup index of this registry and its descendants, building it if it is not up to date.
+    * The index is immutable: a new one is built on the next call after this subtree has changed.
+    */
+   public YoVariableRegistryIndex getIndex()
+   {
+      YoVariableRegistryIndex index = this.index;
+      if (index == null)
+      {
+         index = new YoVariableRegistryIndex(this);
+         this.index = index;
+      }
+      return index;
+   }
+
+   private YoVariableRegistryIndex getIndexForLookup()
+   {
+      if (index != null)
+         return index;
+      if (++lookupsSinceLastChange < LOOKUPS_BEFORE_INDEXING)
+         return null;
+      return getIndex();
+   }
+
+   /**
+    * Drops the index of this registry and of its ancestors, which all include this subtree.
+    */
+   private void invalidateIndex()
+   {
+      for (YoVariableRegistry registry = this; registry != null; registry = registry.parent)
+      {
+         registry.index = null;
+         registry.lookupsSinceLastChange = 0;
+      }
+   }
+
    public void addChild(YoVariableRegistry child)
    {
       addChild(child, true);
@@ -381,6 +451,7 @@ public class YoVariableRegistry implements YoVariableHolder
 
       child.setParent(this);
       children.add(child);
+      invalidateIndex();
 
       if (notifyListeners) notifyListenersYoVariableRegistryWasAdded(child);
    }
@@ -394,6 +465,7 @@ public class YoVariableRegistry implements YoVariableHolder
 
       // Fix my name
       this.nameSpace = new NameSpace(parentNameSpace.getName() + "." + this.nameSpace.getName());
+      this.index = null;
 
       // Fix my children
       for (YoVariableRegistry child : children)
@@ -424,6 +496,7 @@ public class YoVariableRegistry implements YoVariableHolder
    {
       System.err.println("Warning: Changing namespace from " + this.nameSpace + " to " + newNamespace);
       this.nameSpace = new NameSpace(newNamespace);
+      invalidateIndex();
    }
 
    public ArrayList<YoVariableRegistry> getChildren()
@@ -503,6 +576,7 @@ public class YoVariableRegistry implements YoVariableHolder
       controlVars.clear();
       controlVarsHashMap.clear();
       children.clear();
+      invalidateIndex();
 
       notifyListenersYoVariableRegistryWasCleared(this);
    }
@@ -714,7 +788,7 @@ public class YoVariableRegistry implements YoVariableHolder
       return ret;
    }
 
-   public synchronized ArrayList<YoVariable<?>> getMatchingVariables(String[] names, String[] regularExpressions)
+   public ArrayList<YoVariable<?>> getMatchingVariables(String[] names, String[] regularExpressions)
    {
       ArrayList<YoVariable<?>> ret = new ArrayList<YoVariable<?>>();
 
@@ -735,35 +809,38 @@ public class YoVariableRegistry implements YoVariableHolder
          }
       }
 
-      recursivelyGetMatchingVariables(ret, regularExpressions);
+      if (regularExpressions != null)
+      {
+         // Same order as before the index: registry by registry, then expression by expression.
+         Pattern[] patterns = new Pattern[regularExpressions.length];
+         for (int i = 0; i < regularExpressions.length; i++)
+            patterns[i] = Pattern.compile(regularExpressions[i]);
+
+         recursivelyGetMatchingVariables(ret, patterns);
+      }
 
       return ret;
    }
 
-   private void recursivelyGetMatchingVariables(ArrayList<YoVariable<?>> ret, String[] regularExpressions)
+   private void recursivelyGetMatchingVariables(ArrayList<YoVariable<?>> ret, Pattern[] patterns)
    {
-      if (regularExpressions != null)
+      for (int i = 0; i < patterns.length; i++)
       {
-         for (int i = 0; i < regularExpressions.length; i++)
+         for (int j = 0; j < controlVars.size(); j++)
          {
-            Pattern pattern = Pattern.compile(regularExpressions[i]);
+            YoVariable<?> var = controlVars.get(j);
+            Matcher matcher = patterns[i].matcher(var.getName());
 
-            for (int j = 0; j < controlVars.size(); j++)
+            if (matcher.matches())
             {
-               YoVariable<?> var = controlVars.get(j);
-               Matcher matcher = pattern.matcher(var.getName());
-
-               if (matcher.matches())
-               {
-                  ret.add(var);
-               }
+               ret.add(var);
             }
          }
       }
 
       for (YoVariableRegistry child : children)
       {
-         child.recursivelyGetMatchingVariables(ret, regularExpressions);
+         child.recursivelyGetMatchingVariables(ret, patterns);
       }
    }
 
@@ -917,6 +994,7 @@ public class YoVariableRegistry implements YoVariableHolder
       }
 
       parent = null;
+      index = null;
 
       if (simulationRewoundListeners != null)
       {
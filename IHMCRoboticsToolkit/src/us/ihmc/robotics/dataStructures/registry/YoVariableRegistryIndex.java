@@ -0,0 +1,336 @@
+package us.ihmc.robotics.dataStructures.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import gnu.trove.list.array.TIntArrayList;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+
+/**
+ * Immutable lookup index over all the variables of a {@link YoVariableRegistry} and its descendants.
+ * <p>
+ * Built by {@link YoVariableRegistry#getIndex()} and dropped by the registry as soon as its subtree changes, so an instance always describes the tree as it
+ * was when it was built. All the results are in the order of {@link YoVariableRegistry#getAllVariablesIncludingDescendants()}, which is the order in which
+ * {@link YoVariableRegistry#getVariable(String)} searches the tree.
+ * </p>
+ * <p>
+ * Names are matched case insensitively, as in the registries, and namespaces case sensitively.
+ * </p>
+ */
+public class YoVariableRegistryIndex
+{
+   private static final int GRAM_LENGTH = 3;
+   private static final int[] NO_INDICES = new int[0];
+
+   private final YoVariable<?>[] variables;
+   private final String[] lowerCaseNames;
+   /** Namespace of the registry holding each variable, which is not always the registry the variable was created with. */
+   private final NameSpace[] nameSpaces;
+
+   private final HashMap<String, int[]> variablesByName;
+   private final HashMap<String, int[]> variablesByShortName;
+   private final HashMap<String, YoVariable<?>> variablesByFullName;
+
+   /** Indices of the variables sorted by lower case name, for prefix queries. */
+   private final int[] sortedByName;
+
+   /** Built on the first contains query: for each substring of {@link #GRAM_LENGTH} characters, the indices of the variables whose name contains it. */
+   private volatile HashMap<String, int[]> variablesByGram;
+
+   public YoVariableRegistryIndex(YoVariableRegistry root)
+   {
+      ArrayList<YoVariable<?>> allVariables = new ArrayList<YoVariable<?>>();
+      ArrayList<NameSpace> allNameSpaces = new ArrayList<NameSpace>();
+      collectVariables(root, allVariables, allNameSpaces);
+
+      variables = allVariables.toArray(new YoVariable<?>[allVariables.size()]);
+      nameSpaces = allNameSpaces.toArray(new NameSpace[allNameSpaces.size()]);
+      lowerCaseNames = new String[variables.length];
+
+      HashMap<String, TIntArrayList> byName = new HashMap<String, TIntArrayList>();
+      HashMap<String, TIntArrayList> byShortName = new HashMap<String, TIntArrayList>();
+      variablesByFullName = new HashMap<String, YoVariable<?>>(2 * variables.length);
+
+      for (int i = 0; i < variables.length; i++)
+      {
+         YoVariable<?> variable = variables[i];
+         lowerCaseNames[i] = variable.getName().toLowerCase();
+         addToMultiMap(byName, lowerCaseNames[i], i);
+         addToMultiMap(byShortName, variable.getShortName().toLowerCase(), i);
+
+         String fullName = variable.getFullNameWithNameSpace();
+         if (!variablesByFullName.containsKey(fullName))
+            variablesByFullName.put(fullName, variable);
+      }
+
+      variablesByName = toArrayMap(byName);
+      variablesByShortName = toArrayMap(byShortName);
+
+      Integer[] sortedIndices = new Integer[variables.length];
+      for (int i = 0; i < sortedIndices.length; i++)
+         sortedIndices[i] = i;
+      Arrays.sort(sortedIndices, new Comparator<Integer>()
+      {
+         @Override
+         public int compare(Integer index1, Integer index2)
+         {
+            int comparison = lowerCaseNames[index1].compareTo(lowerCaseNames[index2]);
+            return comparison != 0 ? comparison : Integer.compare(index1, index2);
+         }
+      });
+      sortedByName = new int[sortedIndices.length];
+      for (int i = 0; i < sortedIndices.length; i++)
+         sortedByName[i] = sortedIndices[i];
+   }
+
+   private static void collectVariables(YoVariableRegistry registry, ArrayList<YoVariable<?>> allVariables, ArrayList<NameSpace> allNameSpaces)
+   {
+      ArrayList<YoVariable<?>> registryVariables = registry.getAllVariablesInThisListOnly();
+      for (int i = 0; i < registryVariables.size(); i++)
+      {
+         allVariables.add(registryVariables.get(i));
+         allNameSpaces.add(registry.getNameSpace());
+      }
+
+      ArrayList<YoVariableRegistry> children = registry.getChildren();
+      for (int i = 0; i < children.size(); i++)
+         collectVariables(children.get(i), allVariables, allNameSpaces);
+   }
+
+   private static void addToMultiMap(HashMap<String, TIntArrayList> map, String key, int index)
+   {
+      TIntArrayList list = map.get(key);
+      if (list == null)
+      {
+         list = new TIntArrayList(1);
+         map.put(key, list);
+      }
+      list.add(index);
+   }
+
+   private static HashMap<String, int[]> toArrayMap(HashMap<String, TIntArrayList> map)
+   {
+      HashMap<String, int[]> arrayMap = new HashMap<String, int[]>(2 * map.size());
+      for (Map.Entry<String, TIntArrayList> entry : map.entrySet())
+         arrayMap.put(entry.getKey(), entry.getValue().toArray());
+      return arrayMap;
+   }
+
+   /**
+    * Same as {@link YoVariableRegistry#getVariable(String)}: {@code name} is either a variable name or a variable name preceded by the end of its namespace,
+    * for instance {@code "controller.module.variableName"}. The name is a single hash lookup, the namespace is then checked on the few variables having
+    * that name.
+    *
+    * @return the first matching variable, or null if there is none.
+    */
+   public YoVariable<?> getVariable(String name)
+   {
+      int dotIndex = name.lastIndexOf('.');
+      int[] candidates = getCandidates(name, dotIndex);
+      String nameSpaceEnding = dotIndex == -1 ? null : name.substring(0, dotIndex);
+
+      for (int candidate : candidates)
+      {
+         if (isInNameSpaceEndingWith(candidate, nameSpaceEnding))
+            return variables[candidate];
+      }
+      return null;
+   }
+
+   /**
+    * Same as {@link YoVariableRegistry#getVariables(ArrayList, String)}.
+    */
+   public void getVariables(ArrayList<YoVariable<?>> listToPack, String name)
+   {
+      int dotIndex = name.lastIndexOf('.');
+      int[] candidates = getCandidates(name, dotIndex);
+      String nameSpaceEnding = dotIndex == -1 ? null : name.substring(0, dotIndex);
+
+      for (int candidate : candidates)
+      {
+         if (isInNameSpaceEndingWith(candidate, nameSpaceEnding))
+            listToPack.add(variables[candidate]);
+      }
+   }
+
+   /**
+    * @return the number of variables matching {@code name}, as defined in {@link #getVariable(String)}.
+    */
+   public int getNumberOfMatchingVariables(String name)
+   {
+      int dotIndex = name.lastIndexOf('.');
+      int[] candidates = getCandidates(name, dotIndex);
+      String nameSpaceEnding = dotIndex == -1 ? null : name.substring(0, dotIndex);
+
+      int numberOfMatches = 0;
+      for (int candidate : candidates)
+      {
+         if (isInNameSpaceEndingWith(candidate, nameSpaceEnding))
+            numberOfMatches++;
+      }
+      return numberOfMatches;
+   }
+
+   private int[] getCandidates(String name, int dotIndex)
+   {
+      int[] candidates = variablesByName.get(name.substring(dotIndex + 1).toLowerCase());
+      return candidates == null ? NO_INDICES : candidates;
+   }
+
+   private boolean isInNameSpaceEndingWith(int variableIndex, String nameSpaceEnding)
+   {
+      if (nameSpaceEnding == null)
+         return true;
+      NameSpace nameSpace = nameSpaces[variableIndex];
+      return nameSpace != null && nameSpace.endsWith(nameSpaceEnding);
+   }
+
+   /**
+    * @return the variable with exactly this name and namespace, as returned by {@link YoVariable#getFullNameWithNameSpace()}, or null.
+    */
+   public YoVariable<?> getVariableByFullName(String fullNameWithNameSpace)
+   {
+      return variablesByFullName.get(fullNameWithNameSpace);
+   }
+
+   /**
+    * @return the variables whose {@link YoVariable#getShortName()} is {@code shortName}, ignoring case.
+    */
+   public ArrayList<YoVariable<?>> getVariablesByShortName(String shortName)
+   {
+      int[] matches = variablesByShortName.get(shortName.toLowerCase());
+      return toVariableList(matches == null ? NO_INDICES : matches);
+   }
+
+   /**
+    * @return the variables whose name starts with {@code prefix}, ignoring case.
+    */
+   public ArrayList<YoVariable<?>> getVariablesStartingWith(String prefix)
+   {
+      String lowerCasePrefix = prefix.toLowerCase();
+
+      int low = 0;
+      int high = sortedByName.length;
+      while (low < high)
+      {
+         int middle = (low + high) >>> 1;
+         if (lowerCaseNames[sortedByName[middle]].compareTo(lowerCasePrefix) < 0)
+            low = middle + 1;
+         else
+            high = middle;
+      }
+
+      TIntArrayList matchingIndices = new TIntArrayList();
+      for (int i = low; i < sortedByName.length && lowerCaseNames[sortedByName[i]].startsWith(lowerCasePrefix); i++)
+         matchingIndices.add(sortedByName[i]);
+
+      matchingIndices.sort();
+      return toVariableList(matchingIndices);
+   }
+
+   /**
+    * @return the variables whose name contains {@code part}, ignoring case.
+    */
+   public ArrayList<YoVariable<?>> getVariablesContaining(String part)
+   {
+      String lowerCasePart = part.toLowerCase();
+      TIntArrayList matchingIndices = new TIntArrayList();
+
+      if (lowerCasePart.length() < GRAM_LENGTH)
+      {
+         for (int i = 0; i < lowerCaseNames.length; i++)
+         {
+            if (lowerCaseNames[i].contains(lowerCasePart))
+               matchingIndices.add(i);
+         }
+         return toVariableList(matchingIndices);
+      }
+
+      // Only the variables containing the rarest substring of the query can match, the others are not looked at.
+      HashMap<String, int[]> gramIndex = getGramIndex();
+      int[] candidates = null;
+      for (int start = 0; start + GRAM_LENGTH <= lowerCasePart.length(); start++)
+      {
+         int[] postings = gramIndex.get(lowerCasePart.substring(start, start + GRAM_LENGTH));
+         if (postings == null)
+            return new ArrayList<YoVariable<?>>();
+         if (candidates == null || postings.length < candidates.length)
+            candidates = postings;
+      }
+
+      for (int candidate : candidates)
+      {
+         if (lowerCaseNames[candidate].contains(lowerCasePart))
+            matchingIndices.add(candidate);
+      }
+      return toVariableList(matchingIndices);
+   }
+
+   /**
+    * @return the variables whose name matches {@code regularExpression}, see {@link java.util.regex.Matcher#matches()}.
+    */
+   public ArrayList<YoVariable<?>> getVariablesMatching(Pattern regularExpression)
+   {
+      ArrayList<YoVariable<?>> matches = new ArrayList<YoVariable<?>>();
+      for (YoVariable<?> variable : variables)
+      {
+         if (regularExpression.matcher(variable.getName()).matches())
+            matches.add(variable);
+      }
+      return matches;
+   }
+
+   private HashMap<String, int[]> getGramIndex()
+   {
+      HashMap<String, int[]> gramIndex = variablesByGram;
+      if (gramIndex == null)
+      {
+         HashMap<String, TIntArrayList> postings = new HashMap<String, TIntArrayList>();
+         for (int i = 0; i < lowerCaseNames.length; i++)
+         {
+            String name = lowerCaseNames[i];
+            for (int start = 0; start + GRAM_LENGTH <= name.length(); start++)
+            {
+               String gram = name.substring(start, start + GRAM_LENGTH);
+               TIntArrayList list = postings.get(gram);
+               if (list == null)
+               {
+                  list = new TIntArrayList(4);
+                  postings.put(gram, list);
+               }
+               // Names are visited in order, so a variable containing the same substring twice is only added once.
+               if (list.isEmpty() || list.get(list.size() - 1) != i)
+                  list.add(i);
+            }
+         }
+
+         gramIndex = new HashMap<String, int[]>(2 * postings.size());
+         for (Map.Entry<String, TIntArrayList> entry : postings.entrySet())
+            gramIndex.put(entry.getKey(), entry.getValue().toArray());
+         variablesByGram = gramIndex;
+      }
+      return gramIndex;
+   }
+
+   private ArrayList<YoVariable<?>> toVariableList(TIntArrayList indices)
+   {
+      return toVariableList(indices.toArray());
+   }
+
+   private ArrayList<YoVariable<?>> toVariableList(int[] indices)
+   {
+      ArrayList<YoVariable<?>> list = new ArrayList<YoVariable<?>>(indices.length);
+      for (int index : indices)
+         list.add(variables[index]);
+      return list;
+   }
+
+   public int getNumberOfVariables()
+   {
+      return variables.length;
+   }
+}
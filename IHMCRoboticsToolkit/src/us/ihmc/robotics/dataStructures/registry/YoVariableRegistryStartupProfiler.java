@@ -0,0 +1,163 @@
+package us.ihmc.robotics.dataStructures.registry;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+
+/**
+ * Measures how the construction time of a controller is spread over its {@link YoVariableRegistry} tree.
+ * <p>
+ * While profiling, every registry creation and variable registration is an event, and the time elapsed since the previous event is attributed to the
+ * registry of the new event: whatever code ran in between was building that part of the controller. Summing these times over a subtree gives the cost of
+ * constructing it, which is printed by {@link #printReport(YoVariableRegistry, PrintStream)} or can be checked with {@link #getSubtreeTimeInSeconds(YoVariableRegistry)}.
+ * </p>
+ * <p>
+ * Profiling is off by default and costs a single boolean check per event. Enable it with {@link #start()}, or from the start of the process by setting the
+ * system property {@code yoVariableRegistry.profileStartup} to true.
+ * </p>
+ */
+public class YoVariableRegistryStartupProfiler
+{
+   private static volatile boolean profiling = Boolean.getBoolean("yoVariableRegistry.profileStartup");
+
+   private static final IdentityHashMap<YoVariableRegistry, RegistryProfile> profiles = new IdentityHashMap<YoVariableRegistry, RegistryProfile>();
+   private static long lastEventTime = System.nanoTime();
+
+   private YoVariableRegistryStartupProfiler()
+   {
+   }
+
+   /**
+    * Clears the previous measurements and starts profiling.
+    */
+   public static synchronized void start()
+   {
+      profiles.clear();
+      lastEventTime = System.nanoTime();
+      profiling = true;
+   }
+
+   public static synchronized void stop()
+   {
+      profiling = false;
+   }
+
+   public static boolean isProfiling()
+   {
+      return profiling;
+   }
+
+   /**
+    * Called when {@code registry} is created or gets a new variable.
+    */
+   static void recordEvent(YoVariableRegistry registry)
+   {
+      if (profiling)
+         recordEventSynchronized(registry);
+   }
+
+   private static synchronized void recordEventSynchronized(YoVariableRegistry registry)
+   {
+      long now = System.nanoTime();
+      getOrCreateProfile(registry).selfTime += now - lastEventTime;
+      lastEventTime = now;
+   }
+
+   private static RegistryProfile getOrCreateProfile(YoVariableRegistry registry)
+   {
+      RegistryProfile profile = profiles.get(registry);
+      if (profile == null)
+      {
+         profile = new RegistryProfile();
+         profiles.put(registry, profile);
+      }
+      return profile;
+   }
+
+   /**
+    * @return the time attributed to this registry only, excluding its children, in seconds.
+    */
+   public static synchronized double getSelfTimeInSeconds(YoVariableRegistry registry)
+   {
+      RegistryProfile profile = profiles.get(registry);
+      return profile == null ? 0.0 : profile.selfTime * 1.0e-9;
+   }
+
+   /**
+    * @return the time attributed to this registry and all its descendants, in seconds.
+    */
+   public static synchronized double getSubtreeTimeInSeconds(YoVariableRegistry registry)
+   {
+      return getSubtreeTime(registry) * 1.0e-9;
+   }
+
+   private static long getSubtreeTime(YoVariableRegistry registry)
+   {
+      RegistryProfile profile = profiles.get(registry);
+      long subtreeTime = profile == null ? 0L : profile.selfTime;
+      ArrayList<YoVariableRegistry> children = registry.getChildren();
+      for (int i = 0; i < children.size(); i++)
+         subtreeTime += getSubtreeTime(children.get(i));
+      return subtreeTime;
+   }
+
+   /**
+    * Prints the registry tree, most expensive subtrees first, with for each registry the time of its subtree, its own time and its number of variables.
+    * Subtrees taking less than {@code minimumPercentage} of the total time of {@code root} are omitted.
+    */
+   public static synchronized void printReport(YoVariableRegistry root, PrintStream out, double minimumPercentage)
+   {
+      long totalTime = getSubtreeTime(root);
+      out.println("YoVariableRegistry construction profile of " + root.getName() + ": " + formatMilliseconds(totalTime) + " ms, "
+            + root.getAllVariablesIncludingDescendants().size() + " variables");
+      out.println("  subtree (ms)     self (ms)  variables  registry");
+      printReport(root, out, totalTime, minimumPercentage, 0);
+   }
+
+   public static void printReport(YoVariableRegistry root, PrintStream out)
+   {
+      printReport(root, out, 1.0);
+   }
+
+   private static void printReport(YoVariableRegistry registry, PrintStream out, long totalTime, double minimumPercentage, int depth)
+   {
+      long subtreeTime = getSubtreeTime(registry);
+      if (depth > 0 && totalTime > 0 && 100.0 * subtreeTime / totalTime < minimumPercentage)
+         return;
+
+      RegistryProfile profile = profiles.get(registry);
+      long selfTime = profile == null ? 0L : profile.selfTime;
+
+      StringBuilder line = new StringBuilder();
+      line.append(String.format("%14s %13s %10d  ", formatMilliseconds(subtreeTime), formatMilliseconds(selfTime), registry.getNumberOfYoVariables()));
+      for (int i = 0; i < depth; i++)
+         line.append("  ");
+      line.append(registry.getName());
+      out.println(line);
+
+      ArrayList<YoVariableRegistry> children = new ArrayList<YoVariableRegistry>(registry.getChildren());
+      Collections.sort(children, new Comparator<YoVariableRegistry>()
+      {
+         @Override
+         public int compare(YoVariableRegistry registry1, YoVariableRegistry registry2)
+         {
+            return Long.compare(getSubtreeTime(registry2), getSubtreeTime(registry1));
+         }
+      });
+
+      for (int i = 0; i < children.size(); i++)
+         printReport(children.get(i), out, totalTime, minimumPercentage, depth + 1);
+   }
+
+   private static String formatMilliseconds(long nanoseconds)
+   {
+      return String.format("%.1f", nanoseconds * 1.0e-6);
+   }
+
+   private static class RegistryProfile
+   {
+      private long selfTime = 0L;
+   }
+}
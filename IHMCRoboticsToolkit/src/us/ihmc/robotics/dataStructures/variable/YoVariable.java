@@ -1,7 +1,5 @@
 package us.ihmc.robotics.dataStructures.variable;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.NoSuchElementException;
 import java.util.regex.Pattern;
@@ -30,7 +28,14 @@ public abstract class YoVariable<T extends YoVariable<T>>
    public static final int MAX_LENGTH_SHORT_NAME = 20;
    public static boolean warnAboutNullRegistries = true;
 
-   protected transient String stackTraceAtInitialization;
+   /**
+    * Capturing where each variable is created is costly when creating tens of thousands of variables, so it is off by default.
+    * Enable it by setting the system property {@code yoVariable.captureStackTraceAtInitialization} to true or with {@link #setCaptureStackTraceAtInitialization(boolean)}.
+    */
+   private static boolean captureStackTraceAtInitialization = Boolean.getBoolean("yoVariable.captureStackTraceAtInitialization");
+
+   /** Raw frames captured at creation, only formatted when requested by {@link #getStackTraceAtInitialization()}. */
+   protected transient Throwable stackTraceAtInitialization;
    protected ArrayList<VariableChangedListener> variableChangedListeners;
    protected double manualMinScaling = 0.0, manualMaxScaling = 1.0, stepSize = 0.1;
 
@@ -51,14 +56,8 @@ public abstract class YoVariable<T extends YoVariable<T>>
       this.registry = registry;
       this.variableChangedListeners = null;
 
-      Throwable t = new Throwable();
-      StringWriter sw = new StringWriter();
-      PrintWriter pw = new PrintWriter(sw);
-      t.printStackTrace(pw);
-      stackTraceAtInitialization = sw.toString();
-      stackTraceAtInitialization = stackTraceAtInitialization.substring(21);
-      stackTraceAtInitialization = stackTraceAtInitialization.replaceAll("at(.*)\\(", "at ");
-      stackTraceAtInitialization = stackTraceAtInitialization.replaceAll("\\)", "");
+      if (captureStackTraceAtInitialization)
+         stackTraceAtInitialization = new Throwable();
 
       registerVariable(registry, this);
    }
@@ -147,9 +146,47 @@ public abstract class YoVariable<T extends YoVariable<T>>
       return this.description;
    }
    
+   public static void setCaptureStackTraceAtInitialization(boolean capture)
+   {
+      captureStackTraceAtInitialization = capture;
+   }
+
+   public static boolean isCapturingStackTraceAtInitialization()
+   {
+      return captureStackTraceAtInitialization;
+   }
+
+   /**
+    * Retrieves where this variable was created, one {@code at File.java:line} entry per line.
+    *
+    * @return the formatted stack trace, or null if it was not captured, see {@link #setCaptureStackTraceAtInitialization(boolean)}
+    */
    public String getStackTraceAtInitialization()
    {
-      return this.stackTraceAtInitialization;
+      if (stackTraceAtInitialization == null)
+         return null;
+
+      StringBuilder builder = new StringBuilder();
+      StackTraceElement[] stackTrace = stackTraceAtInitialization.getStackTrace();
+      for (int i = 0; i < stackTrace.length; i++)
+      {
+         if (i > 0)
+            builder.append('\t');
+         builder.append("at ");
+
+         StackTraceElement element = stackTrace[i];
+         if (element.isNativeMethod())
+            builder.append("Native Method");
+         else if (element.getFileName() == null)
+            builder.append("Unknown Source");
+         else if (element.getLineNumber() >= 0)
+            builder.append(element.getFileName()).append(':').append(element.getLineNumber());
+         else
+            builder.append(element.getFileName());
+
+         builder.append('\n');
+      }
+      return builder.toString();
    }
 
    /**
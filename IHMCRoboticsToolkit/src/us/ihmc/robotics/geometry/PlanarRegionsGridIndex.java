@@ -0,0 +1,221 @@
+package us.ihmc.robotics.geometry;
+
+import java.util.List;
+
+/**
+ * Immutable uniform grid over the bounding boxes of a list of planar regions projected onto the XY-plane.
+ * Used by {@link PlanarRegionsList} to only run the exact queries on the regions that are close to the query.
+ *
+ * The grid has about as many cells as there are regions, and every region is stored in all the cells its bounding box overlaps.
+ * The bounding boxes are copied when the grid is built, so the grid has to be rebuilt when the regions change.
+ */
+class PlanarRegionsGridIndex
+{
+   private static final int MAXIMUM_NUMBER_OF_CELLS_PER_AXIS = 256;
+
+   private final int numberOfRegions;
+
+   private final double[] regionXMin;
+   private final double[] regionYMin;
+   private final double[] regionXMax;
+   private final double[] regionYMax;
+
+   /** Regions without a bounding box, for instance empty regions, are always a candidate. */
+   private final int[] unboundedRegions;
+
+   private final double xMin, yMin, xMax, yMax;
+   private final double cellSize;
+   private final int numberOfCellsX, numberOfCellsY;
+
+   /** The regions in cell i are cellRegions[cellStarts[i]] till cellRegions[cellStarts[i + 1]]. */
+   private final int[] cellStarts;
+   private final int[] cellRegions;
+
+   PlanarRegionsGridIndex(List<PlanarRegion> regions)
+   {
+      numberOfRegions = regions.size();
+      regionXMin = new double[numberOfRegions];
+      regionYMin = new double[numberOfRegions];
+      regionXMax = new double[numberOfRegions];
+      regionYMax = new double[numberOfRegions];
+
+      double xMin = Double.POSITIVE_INFINITY, yMin = Double.POSITIVE_INFINITY;
+      double xMax = Double.NEGATIVE_INFINITY, yMax = Double.NEGATIVE_INFINITY;
+      int numberOfUnboundedRegions = 0;
+
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         BoundingBox3d boundingBox = regions.get(i).getBoundingBox3dInWorld();
+         regionXMin[i] = boundingBox.getXMin();
+         regionYMin[i] = boundingBox.getYMin();
+         regionXMax[i] = boundingBox.getXMax();
+         regionYMax[i] = boundingBox.getYMax();
+
+         if (isBounded(i))
+         {
+            xMin = Math.min(xMin, regionXMin[i]);
+            yMin = Math.min(yMin, regionYMin[i]);
+            xMax = Math.max(xMax, regionXMax[i]);
+            yMax = Math.max(yMax, regionYMax[i]);
+         }
+         else
+         {
+            numberOfUnboundedRegions++;
+         }
+      }
+
+      unboundedRegions = new int[numberOfUnboundedRegions];
+      for (int i = 0, j = 0; i < numberOfRegions; i++)
+      {
+         if (!isBounded(i))
+            unboundedRegions[j++] = i;
+      }
+
+      int numberOfBoundedRegions = numberOfRegions - numberOfUnboundedRegions;
+      if (numberOfBoundedRegions == 0)
+      {
+         this.xMin = this.yMin = this.xMax = this.yMax = Double.NaN;
+         cellSize = 1.0;
+         numberOfCellsX = numberOfCellsY = 0;
+         cellStarts = new int[1];
+         cellRegions = new int[0];
+         return;
+      }
+
+      this.xMin = xMin;
+      this.yMin = yMin;
+      this.xMax = xMax;
+      this.yMax = yMax;
+
+      // Aim for about one cell per region
+      double width = xMax - xMin;
+      double height = yMax - yMin;
+      double cellSize = Math.sqrt(width * height / numberOfBoundedRegions);
+      if (!(cellSize > 0.0))
+         cellSize = Math.max(width, height) / numberOfBoundedRegions;
+      cellSize = Math.max(cellSize, Math.max(width, height) / MAXIMUM_NUMBER_OF_CELLS_PER_AXIS);
+      if (!(cellSize > 0.0))
+         cellSize = 1.0;
+      this.cellSize = cellSize;
+
+      numberOfCellsX = Math.min((int) (width / cellSize) + 1, MAXIMUM_NUMBER_OF_CELLS_PER_AXIS);
+      numberOfCellsY = Math.min((int) (height / cellSize) + 1, MAXIMUM_NUMBER_OF_CELLS_PER_AXIS);
+
+      // Count the regions per cell, then fill the cells
+      cellStarts = new int[numberOfCellsX * numberOfCellsY + 1];
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         if (!isBounded(i))
+            continue;
+
+         for (int cellY = cellY(regionYMin[i]); cellY <= cellY(regionYMax[i]); cellY++)
+         {
+            for (int cellX = cellX(regionXMin[i]); cellX <= cellX(regionXMax[i]); cellX++)
+            {
+               cellStarts[cellY * numberOfCellsX + cellX + 1]++;
+            }
+         }
+      }
+
+      for (int cell = 0; cell < numberOfCellsX * numberOfCellsY; cell++)
+      {
+         cellStarts[cell + 1] += cellStarts[cell];
+      }
+
+      cellRegions = new int[cellStarts[cellStarts.length - 1]];
+      int[] cellFill = new int[numberOfCellsX * numberOfCellsY];
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         if (!isBounded(i))
+            continue;
+
+         for (int cellY = cellY(regionYMin[i]); cellY <= cellY(regionYMax[i]); cellY++)
+         {
+            for (int cellX = cellX(regionXMin[i]); cellX <= cellX(regionXMax[i]); cellX++)
+            {
+               int cell = cellY * numberOfCellsX + cellX;
+               cellRegions[cellStarts[cell] + cellFill[cell]++] = i;
+            }
+         }
+      }
+   }
+
+   private boolean isBounded(int region)
+   {
+      return regionXMin[region] <= regionXMax[region] && regionYMin[region] <= regionYMax[region];
+   }
+
+   private int cellX(double x)
+   {
+      return clampCell((int) Math.floor((x - xMin) / cellSize), numberOfCellsX);
+   }
+
+   private int cellY(double y)
+   {
+      return clampCell((int) Math.floor((y - yMin) / cellSize), numberOfCellsY);
+   }
+
+   private static int clampCell(int cell, int numberOfCells)
+   {
+      if (cell < 0)
+         return 0;
+      if (cell >= numberOfCells)
+         return numberOfCells - 1;
+      return cell;
+   }
+
+   /**
+    * Marks the regions whose bounding box overlaps with the given box as candidates.
+    * Region i is marked by setting bit i % 64 of candidatesToPack[i / 64].
+    *
+    * @param queryXMin minimum x-coordinate of the query box.
+    * @param queryYMin minimum y-coordinate of the query box.
+    * @param queryXMax maximum x-coordinate of the query box.
+    * @param queryYMax maximum y-coordinate of the query box.
+    * @param candidatesToPack bit set, at least {@link #getCandidateWords()} long.
+    */
+   void markCandidates(double queryXMin, double queryYMin, double queryXMax, double queryYMax, long[] candidatesToPack)
+   {
+      for (int i = 0; i < unboundedRegions.length; i++)
+      {
+         int region = unboundedRegions[i];
+         candidatesToPack[region >>> 6] |= 1L << region;
+      }
+
+      if (!(queryXMin <= xMax && queryXMax >= xMin && queryYMin <= yMax && queryYMax >= yMin))
+         return;
+
+      int cellXMin = cellX(queryXMin);
+      int cellXMax = cellX(queryXMax);
+      int cellYMax = cellY(queryYMax);
+
+      for (int cellY = cellY(queryYMin); cellY <= cellYMax; cellY++)
+      {
+         for (int cellX = cellXMin; cellX <= cellXMax; cellX++)
+         {
+            int cell = cellY * numberOfCellsX + cellX;
+            for (int j = cellStarts[cell]; j < cellStarts[cell + 1]; j++)
+            {
+               int region = cellRegions[j];
+               if (regionXMin[region] <= queryXMax && regionXMax[region] >= queryXMin && regionYMin[region] <= queryYMax && regionYMax[region] >= queryYMin)
+               {
+                  candidatesToPack[region >>> 6] |= 1L << region;
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * @return the length of the bit set needed by {@link #markCandidates(double, double, double, double, long[])}.
+    */
+   int getCandidateWords()
+   {
+      return (numberOfRegions + 63) >>> 6;
+   }
+
+   int getNumberOfRegions()
+   {
+      return numberOfRegions;
+   }
+}
@@ -6,10 +6,23 @@ import java.util.List;
 import javax.vecmath.Point2d;
 import javax.vecmath.Point3d;
 
+/**
+ * List of planar regions with queries that use a grid of the regions bounding boxes once there are enough regions.
+ * <p>
+ * The queries keep their scratch data per thread, so they can be called from several threads at the same time as long as the regions are not
+ * modified meanwhile.
+ * </p>
+ */
 public class PlanarRegionsList
 {
+   /** Below this number of regions, a linear search is faster than the grid. */
+   private static final int MINIMUM_NUMBER_OF_REGIONS_FOR_GRID = 16;
+
    private final List<PlanarRegion> regions;
 
+   private volatile PlanarRegionsGridIndex gridIndex = null;
+   private final ThreadLocal<long[]> candidatesForThread = new ThreadLocal<>();
+
    public PlanarRegionsList(PlanarRegion... planarRegions)
    {
       regions = new ArrayList<>();
@@ -31,6 +44,63 @@ public class PlanarRegionsList
    public void addPlanarRegion(PlanarRegion region)
    {
       regions.add(region);
+      gridIndex = null;
+   }
+
+   /**
+    * Rebuilds the grid used to speed up the queries. The grid is built automatically on the first query after regions are added or removed,
+    * call this method when the regions themselves have been modified.
+    */
+   public void updateGridIndex()
+   {
+      if (regions.size() >= MINIMUM_NUMBER_OF_REGIONS_FOR_GRID)
+         gridIndex = new PlanarRegionsGridIndex(regions);
+      else
+         gridIndex = null;
+   }
+
+   /**
+    * Marks the regions whose bounding box might overlap with the given box in the candidates of the calling thread.
+    * @return the candidates, or null if there are too few regions to use the grid and all regions should be checked.
+    */
+   private long[] findCandidates(double xMin, double yMin, double xMax, double yMax)
+   {
+      if (regions.size() < MINIMUM_NUMBER_OF_REGIONS_FOR_GRID)
+         return null;
+
+      PlanarRegionsGridIndex gridIndex = this.gridIndex;
+      if (gridIndex == null || gridIndex.getNumberOfRegions() != regions.size())
+      {
+         gridIndex = new PlanarRegionsGridIndex(regions);
+         this.gridIndex = gridIndex;
+      }
+
+      long[] candidates = candidatesForThread.get();
+      if (candidates == null || candidates.length < gridIndex.getCandidateWords())
+      {
+         candidates = new long[gridIndex.getCandidateWords()];
+         candidatesForThread.set(candidates);
+      }
+
+      gridIndex.markCandidates(xMin, yMin, xMax, yMax, candidates);
+      return candidates;
+   }
+
+   /**
+    * @return the index of the next candidate region from the candidates, starting at fromIndex, and clears it. Returns -1 when there are no more candidates.
+    */
+   private static int pollNextCandidate(long[] candidates, int fromIndex)
+   {
+      for (int word = fromIndex >>> 6; word < candidates.length; word++)
+      {
+         if (candidates[word] != 0L)
+         {
+            int index = (word << 6) + Long.numberOfTrailingZeros(candidates[word]);
+            candidates[word] &= candidates[word] - 1L;
+            return index;
+         }
+      }
+      return -1;
    }
 
    /**
@@ -41,22 +111,47 @@ public class PlanarRegionsList
     */
    public List<PlanarRegion> findPlanarRegionsIntersectingPolygon(ConvexPolygon2d convexPolygon)
    {
-      List<PlanarRegion> containers = null;
+      List<PlanarRegion> containers = new ArrayList<>();
+      findPlanarRegionsIntersectingPolygon(convexPolygon, containers);
+      return containers.isEmpty() ? null : containers;
+   }
 
-      for (int i = 0; i < regions.size(); i++)
-      {
-         PlanarRegion candidateRegion = regions.get(i);
-         if (candidateRegion.isVertical()) continue;
+   /**
+    * Find all the planar regions that intersect with the given convex polygon.
+    * The algorithm is equivalent to projecting all the regions onto the XY-plane and then finding the regions intersecting with the given convex polygon.
+    * @param convexPolygon the query.
+    * @param intersectingRegionsToPack list the intersecting regions are added to.
+    */
+   public void findPlanarRegionsIntersectingPolygon(ConvexPolygon2d convexPolygon, List<PlanarRegion> intersectingRegionsToPack)
+   {
+      BoundingBox2d boundingBox = convexPolygon.getBoundingBox();
+      Point2d minPoint = boundingBox.getMinPoint();
+      Point2d maxPoint = boundingBox.getMaxPoint();
 
-         if (candidateRegion.isPolygonIntersecting(convexPolygon))
+      long[] candidates = findCandidates(minPoint.getX(), minPoint.getY(), maxPoint.getX(), maxPoint.getY());
+      if (candidates != null)
+      {
+         for (int i = pollNextCandidate(candidates, 0); i >= 0; i = pollNextCandidate(candidates, i))
          {
-            if (containers == null)
-               containers = new ArrayList<>();
-            containers.add(candidateRegion);
+            addIfIntersectingPolygon(regions.get(i), convexPolygon, intersectingRegionsToPack);
          }
       }
+      else
+      {
+         for (int i = 0; i < regions.size(); i++)
+         {
+            addIfIntersectingPolygon(regions.get(i), convexPolygon, intersectingRegionsToPack);
+         }
+      }
+   }
 
-      return containers;
+   private static void addIfIntersectingPolygon(PlanarRegion candidateRegion, ConvexPolygon2d convexPolygon, List<PlanarRegion> intersectingRegionsToPack)
+   {
+      if (candidateRegion.isVertical())
+         return;
+
+      if (candidateRegion.isPolygonIntersecting(convexPolygon))
+         intersectingRegionsToPack.add(candidateRegion);
    }
 
     /**
@@ -65,20 +160,42 @@ public class PlanarRegionsList
     * @param lineSegmentInWorld the query.
     * @param intersectingRegionsToPack ArrayList were the intersecting regions will be packed into.
     */
-   public void findPlanarRegionsIntersectingLineSegment(LineSegment2d lineSegmentInWorld, ArrayList<PlanarRegion> intersectingRegionsToPack)
+   public void findPlanarRegionsIntersectingLineSegment(LineSegment2d lineSegmentInWorld, List<PlanarRegion> intersectingRegionsToPack)
    {
-      for (int i = 0; i < regions.size(); i++)
+      Point2d firstEndpoint = lineSegmentInWorld.getFirstEndpoint();
+      Point2d secondEndpoint = lineSegmentInWorld.getSecondEndpoint();
+      double xMin = Math.min(firstEndpoint.getX(), secondEndpoint.getX());
+      double yMin = Math.min(firstEndpoint.getY(), secondEndpoint.getY());
+      double xMax = Math.max(firstEndpoint.getX(), secondEndpoint.getX());
+      double yMax = Math.max(firstEndpoint.getY(), secondEndpoint.getY());
+
+      long[] candidates = findCandidates(xMin, yMin, xMax, yMax);
+      if (candidates != null)
       {
-         PlanarRegion candidateRegion = regions.get(i);
-         if (isLineSegmentObviouslyOutsideBoundingBox(candidateRegion, lineSegmentInWorld)) continue;
-
-         if (candidateRegion.isVertical()) continue;
-
-         if (candidateRegion.isLineSegmentIntersecting(lineSegmentInWorld))
+         for (int i = pollNextCandidate(candidates, 0); i >= 0; i = pollNextCandidate(candidates, i))
          {
-            intersectingRegionsToPack.add(candidateRegion);
+            addIfIntersectingLineSegment(regions.get(i), lineSegmentInWorld, intersectingRegionsToPack);
          }
       }
+      else
+      {
+         for (int i = 0; i < regions.size(); i++)
+         {
+            addIfIntersectingLineSegment(regions.get(i), lineSegmentInWorld, intersectingRegionsToPack);
+         }
+      }
+   }
+
+   private void addIfIntersectingLineSegment(PlanarRegion candidateRegion, LineSegment2d lineSegmentInWorld, List<PlanarRegion> intersectingRegionsToPack)
+   {
+      if (isLineSegmentObviouslyOutsideBoundingBox(candidateRegion, lineSegmentInWorld)) return;
+
+      if (candidateRegion.isVertical()) return;
+
+      if (candidateRegion.isLineSegmentIntersecting(lineSegmentInWorld))
+      {
+         intersectingRegionsToPack.add(candidateRegion);
+      }
    }
 
    /**
@@ -116,20 +233,41 @@ public class PlanarRegionsList
     */
    public List<PlanarRegion> findPlanarRegionsContainingPoint(Point3d point, double maximumOrthogonalDistance)
    {
-      List<PlanarRegion> containers = null;
+      List<PlanarRegion> containers = new ArrayList<>();
+      findPlanarRegionsContainingPoint(point, maximumOrthogonalDistance, containers);
+      return containers.isEmpty() ? null : containers;
+   }
+
+   /**
+    * Find all the planar regions that contain the given point.
+    * @param point the query coordinates.
+    * @param maximumOrthogonalDistance tolerance expressed as maximum orthogonal distance from the region.
+    * @param containersToPack list the regions containing the query are added to.
+    */
+   public void findPlanarRegionsContainingPoint(Point3d point, double maximumOrthogonalDistance, List<PlanarRegion> containersToPack)
+   {
+      // A point within the orthogonal distance of a region is at most that far from the region in the XY-plane
+      double x = point.getX();
+      double y = point.getY();
+      double distance = Math.abs(maximumOrthogonalDistance);
 
-      for (int i = 0; i < regions.size(); i++)
+      long[] candidates = findCandidates(x - distance, y - distance, x + distance, y + distance);
+      if (candidates != null)
       {
-         PlanarRegion candidateRegion = regions.get(i);
-         if (candidateRegion.isPointInside(point, maximumOrthogonalDistance))
+         for (int i = pollNextCandidate(candidates, 0); i >= 0; i = pollNextCandidate(candidates, i))
          {
-            if (containers == null)
-               containers = new ArrayList<>();
-            containers.add(candidateRegion);
+            if (regions.get(i).isPointInside(point, maximumOrthogonalDistance))
+               containersToPack.add(regions.get(i));
+         }
+      }
+      else
+      {
+         for (int i = 0; i < regions.size(); i++)
+         {
+            if (regions.get(i).isPointInside(point, maximumOrthogonalDistance))
+               containersToPack.add(regions.get(i));
          }
       }
-
-      return containers;
    }
 
    /**
@@ -152,20 +290,37 @@ public class PlanarRegionsList
     */
    public List<PlanarRegion> findPlanarRegionsContainingPointByProjectionOntoXYPlane(double x, double y)
    {
-      List<PlanarRegion> containers = null;
+      List<PlanarRegion> containers = new ArrayList<>();
+      findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y, containers);
+      return containers.isEmpty() ? null : containers;
+   }
 
-      for (int i = 0; i < regions.size(); i++)
+   /**
+    * Find all the planar regions that contain the given point.
+    * The algorithm is equivalent to projecting all the regions onto the XY-plane and then finding the regions containing the point.
+    * @param x the query x-coordinate.
+    * @param y the query y-coordinate.
+    * @param containersToPack list the regions containing the query are added to.
+    */
+   public void findPlanarRegionsContainingPointByProjectionOntoXYPlane(double x, double y, List<PlanarRegion> containersToPack)
+   {
+      long[] candidates = findCandidates(x, y, x, y);
+      if (candidates != null)
       {
-         PlanarRegion candidateRegion = regions.get(i);
-         if (candidateRegion.isPointInsideByProjectionOntoXYPlane(x, y))
+         for (int i = pollNextCandidate(candidates, 0); i >= 0; i = pollNextCandidate(candidates, i))
          {
-            if (containers == null)
-               containers = new ArrayList<>();
-            containers.add(candidateRegion);
+            if (regions.get(i).isPointInsideByProjectionOntoXYPlane(x, y))
+               containersToPack.add(regions.get(i));
+         }
+      }
+      else
+      {
+         for (int i = 0; i < regions.size(); i++)
+         {
+            if (regions.get(i).isPointInsideByProjectionOntoXYPlane(x, y))
+               containersToPack.add(regions.get(i));
          }
       }
-
-      return containers;
    }
 
    /** Returns true if this list of planar regions is empty (contains no planar regions). */
@@ -201,6 +356,7 @@ public class PlanarRegionsList
    /** Retrieves the i<sup>th</sup> planar region of this list and removes it from this list. */
    public PlanarRegion pollPlanarRegion(int index)
    {
+      gridIndex = null;
       return regions.remove(index);
    }
 
@@ -2,6 +2,7 @@ package us.ihmc.robotics.referenceFrames;
 
 import java.io.Serializable;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.vecmath.AxisAngle4d;
 import javax.vecmath.Matrix3d;
@@ -37,7 +38,8 @@ public abstract class ReferenceFrame implements Serializable, NameBasedHashCodeH
    private final RigidBodyTransform transformToParent;
 
    // These need to be longs instead of integers or they'll role over too soon. With longs, you get at least 100 years of runtime.
-   protected static long nextTransformToRootID = 1;
+   // Atomic so that frame trees updated on different threads never hand out the same ID. See ReferenceFrameTree for sharing transforms between threads.
+   protected static final AtomicLong nextTransformToRootID = new AtomicLong(1);
    private long transformToRootID = Long.MIN_VALUE;
    private final RigidBodyTransform transformToRoot;
    private final RigidBodyTransform inverseTransformToRoot;
@@ -556,6 +558,7 @@ public abstract class ReferenceFrame implements Serializable, NameBasedHashCodeH
 
       boolean updateFromHereOnOut = false;
       long previousUpdateId = 0;
+      long updateId = 0;
 
       for (int i = 0; i < chainLength; i++)
       {
@@ -566,7 +569,7 @@ public abstract class ReferenceFrame implements Serializable, NameBasedHashCodeH
             if (referenceFrame.transformToRootID < previousUpdateId)
             {
                updateFromHereOnOut = true;
-               nextTransformToRootID++;
+               updateId = nextTransformToRootID.incrementAndGet();
             }
          }
 
@@ -599,7 +602,7 @@ public abstract class ReferenceFrame implements Serializable, NameBasedHashCodeH
                referenceFrame.transformToRoot.normalizeRotationPart();
                referenceFrame.inverseTransformToRoot.invert(referenceFrame.transformToRoot);
 
-               referenceFrame.transformToRootID = nextTransformToRootID;
+               referenceFrame.transformToRootID = updateId;
             }
          }
 
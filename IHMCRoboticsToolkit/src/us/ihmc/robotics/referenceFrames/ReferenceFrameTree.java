@@ -0,0 +1,133 @@
+package us.ihmc.robotics.referenceFrames;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+
+/**
+ * Groups a set of reference frames sharing the same root so their transforms to the root can be computed once per tick
+ * and shared with other threads through an immutable {@link ReferenceFrameTreeSnapshot}.
+ * <p>
+ * The thread that owns the frames (typically the one updating the robot model) calls {@link #update()} after updating the frames.
+ * Any other thread can then call {@link #getSnapshot()} and query the returned snapshot without locking, instead of working on its own copy of the robot model.
+ * Each tree keeps its own generation counter which is incremented on every update and stored in the snapshot.
+ * </p>
+ * <p>
+ * This class is not thread-safe itself: only one thread should call {@link #update()}.
+ * </p>
+ */
+public class ReferenceFrameTree
+{
+   private final ReferenceFrame rootFrame;
+   /** Frames ordered such that a parent always comes before its children, the root frame is first. */
+   private final ReferenceFrame[] frames;
+   private final Map<ReferenceFrame, Integer> frameIndices;
+
+   private final RigidBodyTransform transformToRoot = new RigidBodyTransform();
+
+   private long generation = 0;
+   private volatile ReferenceFrameTreeSnapshot snapshot;
+
+   /**
+    * Creates a tree containing the given frames and all their ancestors.
+    *
+    * @param frames the frames to include in the snapshots. They all need to have the same root frame.
+    */
+   public ReferenceFrameTree(ReferenceFrame... frames)
+   {
+      this(Arrays.asList(frames));
+   }
+
+   public ReferenceFrameTree(List<? extends ReferenceFrame> frames)
+   {
+      if (frames.isEmpty())
+         throw new RuntimeException("Need at least one frame to create a " + getClass().getSimpleName());
+
+      rootFrame = frames.get(0).getRootFrame();
+
+      frameIndices = new HashMap<>();
+      List<ReferenceFrame> allFrames = new ArrayList<>();
+
+      for (ReferenceFrame frame : frames)
+      {
+         frame.verifySameRoots(rootFrame);
+
+         for (ReferenceFrame ancestor = frame; ancestor != null && !frameIndices.containsKey(ancestor); ancestor = ancestor.getParent())
+         {
+            frameIndices.put(ancestor, -1);
+            allFrames.add(ancestor);
+         }
+      }
+
+      Collections.sort(allFrames, new Comparator<ReferenceFrame>()
+      {
+         @Override
+         public int compare(ReferenceFrame frame1, ReferenceFrame frame2)
+         {
+            return Integer.compare(computeDepth(frame1), computeDepth(frame2));
+         }
+      });
+
+      this.frames = allFrames.toArray(new ReferenceFrame[allFrames.size()]);
+      for (int i = 0; i < this.frames.length; i++)
+         frameIndices.put(this.frames[i], i);
+
+      update();
+   }
+
+   private static int computeDepth(ReferenceFrame frame)
+   {
+      int depth = 0;
+      for (ReferenceFrame ancestor = frame.getParent(); ancestor != null; ancestor = ancestor.getParent())
+         depth++;
+      return depth;
+   }
+
+   /**
+    * Computes the transform to the root of every frame in this tree and publishes them as a new snapshot.
+    * The frames themselves have to be updated beforehand.
+    * A new snapshot is created each call such that snapshots handed out earlier are never modified.
+    */
+   public void update()
+   {
+      double[] transformsToRoot = new double[ReferenceFrameTreeSnapshot.TRANSFORM_SIZE * frames.length];
+
+      for (int i = 0; i < frames.length; i++)
+      {
+         frames[i].getTransformToDesiredFrame(transformToRoot, rootFrame);
+         ReferenceFrameTreeSnapshot.pack(transformToRoot, i, transformsToRoot);
+      }
+
+      generation++;
+      snapshot = new ReferenceFrameTreeSnapshot(rootFrame, frameIndices, transformsToRoot, generation);
+   }
+
+   /**
+    * Returns the snapshot computed at the last call to {@link #update()}. Can be called from any thread.
+    */
+   public ReferenceFrameTreeSnapshot getSnapshot()
+   {
+      return snapshot;
+   }
+
+   public long getGeneration()
+   {
+      return generation;
+   }
+
+   public ReferenceFrame getRootFrame()
+   {
+      return rootFrame;
+   }
+
+   public int getNumberOfFrames()
+   {
+      return frames.length;
+   }
+}
@@ -0,0 +1,135 @@
+package us.ihmc.robotics.referenceFrames;
+
+import java.util.Map;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+
+/**
+ * Immutable set of transforms to the root frame created by {@link ReferenceFrameTree#update()}.
+ * The transforms are stored in a single array, 12 doubles (rotation row-major followed by translation) per frame.
+ * All the queries are read-only and can be performed from any number of threads without locking.
+ */
+public class ReferenceFrameTreeSnapshot
+{
+   static final int TRANSFORM_SIZE = 12;
+
+   private final ReferenceFrame rootFrame;
+   private final Map<ReferenceFrame, Integer> frameIndices;
+   private final double[] transformsToRoot;
+   private final long generation;
+
+   ReferenceFrameTreeSnapshot(ReferenceFrame rootFrame, Map<ReferenceFrame, Integer> frameIndices, double[] transformsToRoot, long generation)
+   {
+      this.rootFrame = rootFrame;
+      this.frameIndices = frameIndices;
+      this.transformsToRoot = transformsToRoot;
+      this.generation = generation;
+   }
+
+   static void pack(RigidBodyTransform transform, int frameIndex, double[] transformsToRoot)
+   {
+      int offset = TRANSFORM_SIZE * frameIndex;
+      transformsToRoot[offset++] = transform.mat00;
+      transformsToRoot[offset++] = transform.mat01;
+      transformsToRoot[offset++] = transform.mat02;
+      transformsToRoot[offset++] = transform.mat10;
+      transformsToRoot[offset++] = transform.mat11;
+      transformsToRoot[offset++] = transform.mat12;
+      transformsToRoot[offset++] = transform.mat20;
+      transformsToRoot[offset++] = transform.mat21;
+      transformsToRoot[offset++] = transform.mat22;
+      transformsToRoot[offset++] = transform.mat03;
+      transformsToRoot[offset++] = transform.mat13;
+      transformsToRoot[offset] = transform.mat23;
+   }
+
+   /**
+    * Packs the transform from {@code frame} to the root frame of the tree, as it was when this snapshot was created.
+    */
+   public void getTransformToRoot(ReferenceFrame frame, RigidBodyTransform transformToPack)
+   {
+      int offset = getOffset(frame);
+      double[] t = transformsToRoot;
+      transformToPack.mat00 = t[offset];
+      transformToPack.mat01 = t[offset + 1];
+      transformToPack.mat02 = t[offset + 2];
+      transformToPack.mat10 = t[offset + 3];
+      transformToPack.mat11 = t[offset + 4];
+      transformToPack.mat12 = t[offset + 5];
+      transformToPack.mat20 = t[offset + 6];
+      transformToPack.mat21 = t[offset + 7];
+      transformToPack.mat22 = t[offset + 8];
+      transformToPack.mat03 = t[offset + 9];
+      transformToPack.mat13 = t[offset + 10];
+      transformToPack.mat23 = t[offset + 11];
+   }
+
+   /**
+    * Snapshot equivalent of {@link ReferenceFrame#getTransformToDesiredFrame(RigidBodyTransform, ReferenceFrame)}:
+    * packs the transform from {@code frame} to {@code desiredFrame}.
+    */
+   public void getTransformToDesiredFrame(ReferenceFrame frame, ReferenceFrame desiredFrame, RigidBodyTransform transformToPack)
+   {
+      int a = getOffset(frame);
+      int b = getOffset(desiredFrame);
+      double[] t = transformsToRoot;
+
+      // transformToPack = inverse(desiredFrameToRoot) * frameToRoot, the rotation of desiredFrame is used transposed.
+      for (int row = 0; row < 3; row++)
+      {
+         double b0 = t[b + row], b1 = t[b + 3 + row], b2 = t[b + 6 + row];
+         double r0 = b0 * t[a] + b1 * t[a + 3] + b2 * t[a + 6];
+         double r1 = b0 * t[a + 1] + b1 * t[a + 4] + b2 * t[a + 7];
+         double r2 = b0 * t[a + 2] + b1 * t[a + 5] + b2 * t[a + 8];
+         double p = b0 * (t[a + 9] - t[b + 9]) + b1 * (t[a + 10] - t[b + 10]) + b2 * (t[a + 11] - t[b + 11]);
+
+         switch (row)
+         {
+         case 0:
+            transformToPack.mat00 = r0;
+            transformToPack.mat01 = r1;
+            transformToPack.mat02 = r2;
+            transformToPack.mat03 = p;
+            break;
+         case 1:
+            transformToPack.mat10 = r0;
+            transformToPack.mat11 = r1;
+            transformToPack.mat12 = r2;
+            transformToPack.mat13 = p;
+            break;
+         default:
+            transformToPack.mat20 = r0;
+            transformToPack.mat21 = r1;
+            transformToPack.mat22 = r2;
+            transformToPack.mat23 = p;
+            break;
+         }
+      }
+   }
+
+   public boolean containsFrame(ReferenceFrame frame)
+   {
+      return frameIndices.containsKey(frame);
+   }
+
+   public ReferenceFrame getRootFrame()
+   {
+      return rootFrame;
+   }
+
+   /**
+    * @return the generation of the {@link ReferenceFrameTree} at the time this snapshot was created. Starts at 1 and increases by one at each update.
+    */
+   public long getGeneration()
+   {
+      return generation;
+   }
+
+   private int getOffset(ReferenceFrame frame)
+   {
+      Integer index = frameIndices.get(frame);
+      if (index == null)
+         throw new RuntimeException("The frame " + frame + " is not part of this snapshot.");
+      return TRANSFORM_SIZE * index;
+   }
+}
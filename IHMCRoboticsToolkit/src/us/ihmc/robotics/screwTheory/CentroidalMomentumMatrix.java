@@ -18,9 +18,12 @@ public class CentroidalMomentumMatrix
    private final DenseMatrix64F tempMatrix = new DenseMatrix64F(6, 1);
    private final Vector3d zero = new Vector3d();
    private final boolean[][] isAncestorMapping;
+   private final RigidBody rootBody;
+   private FlattenedMultiBodySystem flattenedMultiBodySystem;
 
    public CentroidalMomentumMatrix(RigidBody rootBody, ReferenceFrame centerOfMassFrame)
    {
+      this.rootBody = rootBody;
       this.jointList = ScrewTools.computeSupportAndSubtreeJoints(rootBody);
       this.centerOfMassFrame = centerOfMassFrame;
       int nDegreesOfFreedom = ScrewTools.computeDegreesOfFreedom(jointList);
@@ -42,8 +45,24 @@ public class CentroidalMomentumMatrix
       }
    }
 
+   /**
+    * Runs {@link #compute()} on a {@link FlattenedMultiBodySystem} instead of the rigid-body tree.
+    * Only works when {@code rootBody} is the root of the system.
+    */
+   public void setUseFlattenedMultiBodySystem(boolean useFlattenedMultiBodySystem)
+   {
+      flattenedMultiBodySystem = useFlattenedMultiBodySystem ? new FlattenedMultiBodySystem(rootBody) : null;
+   }
+
    public void compute()
    {
+      if (flattenedMultiBodySystem != null)
+      {
+         flattenedMultiBodySystem.updateConfiguration();
+         flattenedMultiBodySystem.computeCentroidalMomentumMatrix(centerOfMassFrame, centroidalMomentumMatrix);
+         return;
+      }
+
       for (Momentum momentum : unitMomenta)
       {
          momentum.setAngularPart(zero);
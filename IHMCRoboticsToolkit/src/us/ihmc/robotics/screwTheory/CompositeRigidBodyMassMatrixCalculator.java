@@ -20,6 +20,7 @@ public class CompositeRigidBodyMassMatrixCalculator implements MassMatrixCalcula
    private final Momentum[] unitMomenta;
    private final Twist tempTwist = new Twist();
    private int nMomentaInUse = 0;
+   private FlattenedMultiBodySystem flattenedMultiBodySystem;
 
    public CompositeRigidBodyMassMatrixCalculator(RigidBody rootBody, ArrayList<InverseDynamicsJoint> jointsToIgnore)
    {
@@ -45,9 +46,25 @@ public class CompositeRigidBodyMassMatrixCalculator implements MassMatrixCalcula
       this(rootBody, new ArrayList<InverseDynamicsJoint>());
    }
    
+   /**
+    * Runs {@link #compute()} on a {@link FlattenedMultiBodySystem} instead of the rigid-body tree.
+    * Only works when {@code rootBody} is the root of the system.
+    */
+   public void setUseFlattenedMultiBodySystem(boolean useFlattenedMultiBodySystem)
+   {
+      flattenedMultiBodySystem = useFlattenedMultiBodySystem ? new FlattenedMultiBodySystem(rootBody, jointsToIgnore) : null;
+   }
+
    @Override
    public void compute()
    {
+      if (flattenedMultiBodySystem != null)
+      {
+         flattenedMultiBodySystem.updateConfiguration();
+         flattenedMultiBodySystem.computeMassMatrix(massMatrix);
+         return;
+      }
+
       MatrixTools.setToZero(massMatrix);
 
       for (int i = 0; i < allRigidBodiesInOrder.length; i++)
@@ -0,0 +1,807 @@
+package us.ihmc.robotics.screwTheory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.ejml.data.DenseMatrix64F;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+
+/**
+ * Array form of a tree of {@code RigidBody}s and {@code InverseDynamicsJoint}s.
+ * <p>
+ * The bodies are sorted from the root to the end-effectors, such that the parent of a body always comes before the body itself.
+ * Body {@code i} is the successor of joint {@code i}, and its parent is the body at index {@link #getParentIndex(int)},
+ * or the root body when the parent index is {@code -1}.
+ * The root body is assumed to be fixed in the inertial frame.
+ * </p>
+ * <p>
+ * The state of the system is copied from the joints and bodies into contiguous arrays via {@link #updateConfiguration()}
+ * and {@link #updateVelocitiesAndAccelerations(boolean)}, all the quantities being expressed in the body-fixed frame of each body.
+ * The algorithms then run as loops over the body indices without map lookups or reference frame changes:
+ * <ul>
+ *    <li> {@link #computeTwists()} and {@link #computeSpatialAccelerations(boolean, boolean)} compute the twist and spatial acceleration of each body,
+ *    <li> {@link #computeInverseDynamics(boolean)} runs the recursive Newton-Euler algorithm,
+ *    <li> {@link #computeMassMatrix(DenseMatrix64F)} runs the composite rigid body algorithm,
+ *    <li> {@link #computeCentroidalMomentumMatrix(ReferenceFrame, DenseMatrix64F)} computes the centroidal momentum matrix.
+ * </ul>
+ * See Featherstone - Rigid Body Dynamics Algorithms (2008).
+ * </p>
+ * <p>
+ * Spatial vectors are stored as six consecutive doubles, angular part first as in {@link SpatialMotionVector#getArray(double[], int)},
+ * and inertias as the mass moment of inertia (3 x 3 row-major), the cross part, and the mass, such that the inertia matrix is
+ * [J, tilde(c)<sup>T</sup>; tilde(c), mI] as in {@link GeneralizedRigidBodyInertia#getMatrix(DenseMatrix64F)}.
+ * </p>
+ */
+public class FlattenedMultiBodySystem
+{
+   private static final int SIZE = 6;
+   private static final int INERTIA_SIZE = 13;
+
+   private final RigidBody rootBody;
+   private final RigidBody[] bodies;
+   private final InverseDynamicsJoint[] joints;
+   private final HashMap<RigidBody, Integer> bodyIndices = new HashMap<>();
+
+   private final int[] parentIndices;
+   private final int[] degreesOfFreedomIndices;
+   private final int[] degreesOfFreedom;
+   private final int numberOfDegreesOfFreedom;
+
+   /** Rotation and translation of each body-fixed frame with respect to the parent body-fixed frame. */
+   private final double[] rotations;
+   private final double[] translations;
+   /** Unit twists of each joint expressed in the successor body-fixed frame, one column of six doubles per degree of freedom. */
+   private final double[] motionSubspaces;
+   private final double[] inertias;
+
+   /** Twist and spatial acceleration of each body with respect to its parent body. */
+   private final double[] jointTwists;
+   private final double[] jointAccelerations;
+
+   private final double[] rootAcceleration = new double[SIZE];
+   private final double[] externalWrenches;
+
+   /** Twist and spatial acceleration of each body with respect to the inertial frame. */
+   private final double[] bodyTwists;
+   private final double[] bodyAccelerations;
+   private final double[] jointWrenches;
+   private final double[] jointTorques;
+   private final double[] compositeInertias;
+
+   private final double[] temp = new double[SIZE];
+   private final double[] tempTransformedMotion = new double[SIZE];
+   private final double[] tempColumns = new double[SIZE * InverseDynamicsJoint.maxDoF];
+   private final double[] tempRotatedInertia = new double[9];
+   private final double[] tempPoseRotations;
+   private final double[] tempPoseTranslations;
+
+   private final RigidBodyTransform tempTransform = new RigidBodyTransform();
+   private final DenseMatrix64F tempInertiaMatrix = new DenseMatrix64F(SIZE, SIZE);
+   private final Twist tempTwist = new Twist();
+   private final SpatialAccelerationVector tempAcceleration = new SpatialAccelerationVector();
+   private final Wrench tempWrench = new Wrench();
+
+   public FlattenedMultiBodySystem(RigidBody rootBody)
+   {
+      this(rootBody, Collections.<InverseDynamicsJoint> emptyList());
+   }
+
+   /**
+    * Flattens the tree starting at {@code rootBody}.
+    *
+    * @param rootBody the root of the system, has to be fixed in the inertial frame.
+    * @param jointsToIgnore joints that are left out of the system, together with their subtree.
+    */
+   public FlattenedMultiBodySystem(RigidBody rootBody, List<InverseDynamicsJoint> jointsToIgnore)
+   {
+      if (!rootBody.isRootBody())
+         throw new RuntimeException("The system has to start at the root body, " + rootBody.getName() + " has a parent joint.");
+
+      this.rootBody = rootBody;
+
+      ArrayList<InverseDynamicsJoint> jointList = new ArrayList<>();
+      ArrayList<RigidBody> bodyList = new ArrayList<>();
+      ArrayList<RigidBody> morgue = new ArrayList<>();
+      morgue.add(rootBody);
+
+      while (!morgue.isEmpty())
+      {
+         RigidBody currentBody = morgue.remove(0);
+
+         for (InverseDynamicsJoint joint : currentBody.getChildrenJoints())
+         {
+            RigidBody successor = joint.getSuccessor();
+            if (jointsToIgnore.contains(joint) || successor == null)
+               continue;
+            if (bodyIndices.containsKey(successor))
+               throw new RuntimeException("This algorithm doesn't do loops.");
+
+            bodyIndices.put(successor, bodyList.size());
+            jointList.add(joint);
+            bodyList.add(successor);
+            morgue.add(successor);
+         }
+      }
+
+      bodies = bodyList.toArray(new RigidBody[bodyList.size()]);
+      joints = jointList.toArray(new InverseDynamicsJoint[jointList.size()]);
+      int numberOfBodies = bodies.length;
+
+      parentIndices = new int[numberOfBodies];
+      degreesOfFreedomIndices = new int[numberOfBodies];
+      degreesOfFreedom = new int[numberOfBodies];
+      int dofIndex = 0;
+      for (int i = 0; i < numberOfBodies; i++)
+      {
+         RigidBody predecessor = joints[i].getPredecessor();
+         parentIndices[i] = predecessor == rootBody ? -1 : bodyIndices.get(predecessor);
+         degreesOfFreedomIndices[i] = dofIndex;
+         degreesOfFreedom[i] = joints[i].getDegreesOfFreedom();
+         dofIndex += degreesOfFreedom[i];
+      }
+      numberOfDegreesOfFreedom = dofIndex;
+
+      rotations = new double[9 * numberOfBodies];
+      translations = new double[3 * numberOfBodies];
+      motionSubspaces = new double[SIZE * numberOfDegreesOfFreedom];
+      inertias = new double[INERTIA_SIZE * numberOfBodies];
+      jointTwists = new double[SIZE * numberOfBodies];
+      jointAccelerations = new double[SIZE * numberOfBodies];
+      externalWrenches = new double[SIZE * numberOfBodies];
+      bodyTwists = new double[SIZE * numberOfBodies];
+      bodyAccelerations = new double[SIZE * numberOfBodies];
+      jointWrenches = new double[SIZE * numberOfBodies];
+      jointTorques = new double[numberOfDegreesOfFreedom];
+      compositeInertias = new double[INERTIA_SIZE * numberOfBodies];
+      tempPoseRotations = new double[9 * numberOfBodies];
+      tempPoseTranslations = new double[3 * numberOfBodies];
+   }
+
+   /**
+    * Copies the transforms between the bodies, the motion subspaces of the joints, and the inertias of the bodies.
+    * Has to be called every time the configuration of the system has changed.
+    */
+   public void updateConfiguration()
+   {
+      for (int i = 0; i < bodies.length; i++)
+      {
+         InverseDynamicsJoint joint = joints[i];
+         ReferenceFrame bodyFrame = bodies[i].getBodyFixedFrame();
+
+         bodyFrame.getTransformToDesiredFrame(tempTransform, joint.getPredecessor().getBodyFixedFrame());
+         int r = 9 * i;
+         rotations[r + 0] = tempTransform.getM00();
+         rotations[r + 1] = tempTransform.getM01();
+         rotations[r + 2] = tempTransform.getM02();
+         rotations[r + 3] = tempTransform.getM10();
+         rotations[r + 4] = tempTransform.getM11();
+         rotations[r + 5] = tempTransform.getM12();
+         rotations[r + 6] = tempTransform.getM20();
+         rotations[r + 7] = tempTransform.getM21();
+         rotations[r + 8] = tempTransform.getM22();
+         translations[3 * i + 0] = tempTransform.getM03();
+         translations[3 * i + 1] = tempTransform.getM13();
+         translations[3 * i + 2] = tempTransform.getM23();
+
+         List<Twist> unitTwists = joint.getMotionSubspace().getAllUnitTwists();
+         for (int k = 0; k < degreesOfFreedom[i]; k++)
+         {
+            tempTwist.set(unitTwists.get(k));
+            tempTwist.changeFrame(bodyFrame);
+            tempTwist.getArray(motionSubspaces, SIZE * (degreesOfFreedomIndices[i] + k));
+         }
+
+         RigidBodyInertia inertia = bodies[i].getInertia();
+         inertia.getExpressedInFrame().checkReferenceFrameMatch(bodyFrame);
+         inertia.getMatrix(tempInertiaMatrix);
+         int offset = INERTIA_SIZE * i;
+         for (int row = 0; row < 3; row++)
+         {
+            for (int column = 0; column < 3; column++)
+               inertias[offset + 3 * row + column] = tempInertiaMatrix.unsafe_get(row, column);
+         }
+         inertias[offset + 9] = tempInertiaMatrix.unsafe_get(5, 1);
+         inertias[offset + 10] = tempInertiaMatrix.unsafe_get(3, 2);
+         inertias[offset + 11] = tempInertiaMatrix.unsafe_get(4, 0);
+         inertias[offset + 12] = tempInertiaMatrix.unsafe_get(3, 3);
+      }
+   }
+
+   /**
+    * Copies the twist and spatial acceleration of each joint.
+    * Has to be called every time the joint velocities or accelerations have changed.
+    *
+    * @param useDesireds whether the desired or actual joint accelerations are used.
+    */
+   public void updateVelocitiesAndAccelerations(boolean useDesireds)
+   {
+      for (int i = 0; i < bodies.length; i++)
+      {
+         InverseDynamicsJoint joint = joints[i];
+
+         joint.getSuccessorTwist(tempTwist);
+         tempTwist.getArray(jointTwists, SIZE * i);
+
+         if (useDesireds)
+            joint.getDesiredSuccessorAcceleration(tempAcceleration);
+         else
+            joint.getSuccessorAcceleration(tempAcceleration);
+         tempAcceleration.getArray(jointAccelerations, SIZE * i);
+      }
+   }
+
+   /**
+    * @param rootAcceleration the spatial acceleration of the root body, expressed in its body-fixed frame.
+    *  Usually the opposite of the gravitational acceleration, see {@link ScrewTools#createGravitationalSpatialAcceleration(RigidBody, double)}.
+    */
+   public void setRootAcceleration(SpatialAccelerationVector rootAcceleration)
+   {
+      rootAcceleration.getExpressedInFrame().checkReferenceFrameMatch(rootBody.getBodyFixedFrame());
+      rootAcceleration.getArray(this.rootAcceleration, 0);
+   }
+
+   /**
+    * @param bodyIndex index of the body the wrench is exerted on.
+    * @param externalWrench the wrench exerted on the body, expressed in its body-fixed frame.
+    */
+   public void setExternalWrench(int bodyIndex, Wrench externalWrench)
+   {
+      externalWrench.getExpressedInFrame().checkReferenceFrameMatch(bodies[bodyIndex].getBodyFixedFrame());
+      externalWrench.getMatrix(temp);
+      System.arraycopy(temp, 0, externalWrenches, SIZE * bodyIndex, SIZE);
+   }
+
+   public void setExternalWrenchesToZero()
+   {
+      for (int i = 0; i < externalWrenches.length; i++)
+         externalWrenches[i] = 0.0;
+   }
+
+   /**
+    * Computes the twist of each body with respect to the inertial frame:
+    * <br> T<sub>i</sub> = X<sub>i,p</sub> T<sub>p</sub> + T<sub>J</sub> </br>
+    */
+   public void computeTwists()
+   {
+      for (int i = 0; i < bodies.length; i++)
+      {
+         int offset = SIZE * i;
+         int parent = parentIndices[i];
+
+         if (parent < 0)
+         {
+            for (int k = 0; k < SIZE; k++)
+               bodyTwists[offset + k] = jointTwists[offset + k];
+         }
+         else
+         {
+            transformMotionToChild(i, bodyTwists, SIZE * parent, bodyTwists, offset);
+            for (int k = 0; k < SIZE; k++)
+               bodyTwists[offset + k] += jointTwists[offset + k];
+         }
+      }
+   }
+
+   /**
+    * Computes the spatial acceleration of each body with respect to the inertial frame:
+    * <br> A<sub>i</sub> = X<sub>i,p</sub> A<sub>p</sub> + A<sub>J</sub> + T<sub>i</sub> &times; T<sub>J</sub> </br>
+    * Requires the twists to be up-to-date when {@code doVelocityTerms} is true, see {@link #computeTwists()}.
+    *
+    * @param doVelocityTerms whether the centrifugal and Coriolis accelerations are considered or ignored.
+    * @param doAccelerationTerms whether the joint accelerations are considered or ignored.
+    */
+   public void computeSpatialAccelerations(boolean doVelocityTerms, boolean doAccelerationTerms)
+   {
+      for (int i = 0; i < bodies.length; i++)
+      {
+         int offset = SIZE * i;
+         int parent = parentIndices[i];
+
+         if (parent < 0)
+            transformMotionToChild(i, rootAcceleration, 0, bodyAccelerations, offset);
+         else
+            transformMotionToChild(i, bodyAccelerations, SIZE * parent, bodyAccelerations, offset);
+
+         if (doAccelerationTerms)
+         {
+            for (int k = 0; k < SIZE; k++)
+               bodyAccelerations[offset + k] += jointAccelerations[offset + k];
+         }
+
+         if (doVelocityTerms)
+         {
+            crossMotion(bodyTwists, offset, jointTwists, offset, temp);
+            for (int k = 0; k < SIZE; k++)
+               bodyAccelerations[offset + k] += temp[k];
+         }
+      }
+   }
+
+   /**
+    * Recursive Newton-Euler algorithm.
+    * Computes the wrench exerted by each joint on its successor and the resulting joint torques,
+    * given the up-to-date twists and spatial accelerations of the bodies.
+    *
+    * @param doVelocityTerms whether the twists of the bodies are considered or ignored.
+    */
+   public void computeInverseDynamics(boolean doVelocityTerms)
+   {
+      for (int i = 0; i < bodies.length; i++)
+      {
+         int offset = SIZE * i;
+         int inertiaOffset = INERTIA_SIZE * i;
+
+         multiplyInertia(inertias, inertiaOffset, bodyAccelerations, offset, jointWrenches, offset);
+
+         if (doVelocityTerms)
+         {
+            multiplyInertia(inertias, inertiaOffset, bodyTwists, offset, temp, 0);
+            crossForce(bodyTwists, offset, temp, tempTransformedMotion);
+            for (int k = 0; k < SIZE; k++)
+               jointWrenches[offset + k] += tempTransformedMotion[k];
+         }
+
+         for (int k = 0; k < SIZE; k++)
+            jointWrenches[offset + k] -= externalWrenches[offset + k];
+      }
+
+      for (int i = bodies.length - 1; i >= 0; i--)
+      {
+         int offset = SIZE * i;
+
+         for (int k = 0; k < degreesOfFreedom[i]; k++)
+         {
+            int dofIndex = degreesOfFreedomIndices[i] + k;
+            jointTorques[dofIndex] = dot(motionSubspaces, SIZE * dofIndex, jointWrenches, offset);
+         }
+
+         int parent = parentIndices[i];
+         if (parent >= 0)
+         {
+            transformForceToParent(i, jointWrenches, offset, temp, 0);
+            for (int k = 0; k < SIZE; k++)
+               jointWrenches[SIZE * parent + k] += temp[k];
+         }
+      }
+   }
+
+   /**
+    * Computes the inertia of the subtree of each body, expressed in its body-fixed frame.
+    */
+   private void computeCompositeInertias()
+   {
+      System.arraycopy(inertias, 0, compositeInertias, 0, inertias.length);
+
+      for (int i = bodies.length - 1; i >= 0; i--)
+      {
+         int parent = parentIndices[i];
+         if (parent < 0)
+            continue;
+
+         addInertiaToParent(i, compositeInertias, INERTIA_SIZE * i, compositeInertias, INERTIA_SIZE * parent);
+      }
+   }
+
+   /**
+    * Composite rigid body algorithm.
+    *
+    * @param massMatrixToPack the joint space mass matrix, ordered as {@link #getJointsInOrder()}. Modified.
+    */
+   public void computeMassMatrix(DenseMatrix64F massMatrixToPack)
+   {
+      massMatrixToPack.reshape(numberOfDegreesOfFreedom, numberOfDegreesOfFreedom);
+      massMatrixToPack.zero();
+      computeCompositeInertias();
+
+      for (int i = bodies.length - 1; i >= 0; i--)
+      {
+         int numberOfColumns = degreesOfFreedom[i];
+
+         // F = I_i S_i
+         for (int k = 0; k < numberOfColumns; k++)
+            multiplyInertia(compositeInertias, INERTIA_SIZE * i, motionSubspaces, SIZE * (degreesOfFreedomIndices[i] + k), tempColumns, SIZE * k);
+
+         setMassMatrixBlock(massMatrixToPack, i, i, numberOfColumns);
+
+         int j = i;
+         while (parentIndices[j] >= 0)
+         {
+            for (int k = 0; k < numberOfColumns; k++)
+            {
+               transformForceToParent(j, tempColumns, SIZE * k, temp, 0);
+               System.arraycopy(temp, 0, tempColumns, SIZE * k, SIZE);
+            }
+            j = parentIndices[j];
+            setMassMatrixBlock(massMatrixToPack, i, j, numberOfColumns);
+         }
+      }
+   }
+
+   private void setMassMatrixBlock(DenseMatrix64F massMatrix, int i, int j, int numberOfColumns)
+   {
+      for (int m = 0; m < numberOfColumns; m++)
+      {
+         int row = degreesOfFreedomIndices[i] + m;
+
+         for (int n = 0; n < degreesOfFreedom[j]; n++)
+         {
+            int column = degreesOfFreedomIndices[j] + n;
+            double entry = dot(tempColumns, SIZE * m, motionSubspaces, SIZE * column);
+            massMatrix.unsafe_set(row, column, entry);
+            massMatrix.unsafe_set(column, row, entry);
+         }
+      }
+   }
+
+   /**
+    * Computes the matrix that maps the joint velocities to the momentum of the system about the origin of {@code centerOfMassFrame}.
+    *
+    * @param centerOfMassFrame the frame in which the momentum is expressed.
+    * @param centroidalMomentumMatrixToPack 6 x n matrix, ordered as {@link #getJointsInOrder()}. Modified.
+    */
+   public void computeCentroidalMomentumMatrix(ReferenceFrame centerOfMassFrame, DenseMatrix64F centroidalMomentumMatrixToPack)
+   {
+      centroidalMomentumMatrixToPack.reshape(SIZE, numberOfDegreesOfFreedom);
+      computeCompositeInertias();
+
+      rootBody.getBodyFixedFrame().getTransformToDesiredFrame(tempTransform, centerOfMassFrame);
+
+      for (int i = 0; i < bodies.length; i++)
+      {
+         // Pose of body i in the center of mass frame
+         int r = 9 * i;
+         int t = 3 * i;
+         int parent = parentIndices[i];
+         if (parent < 0)
+         {
+            composePose(tempTransform.getM00(), tempTransform.getM01(), tempTransform.getM02(), tempTransform.getM10(), tempTransform.getM11(),
+                  tempTransform.getM12(), tempTransform.getM20(), tempTransform.getM21(), tempTransform.getM22(), tempTransform.getM03(),
+                  tempTransform.getM13(), tempTransform.getM23(), i);
+         }
+         else
+         {
+            int pr = 9 * parent;
+            int pt = 3 * parent;
+            composePose(tempPoseRotations[pr + 0], tempPoseRotations[pr + 1], tempPoseRotations[pr + 2], tempPoseRotations[pr + 3],
+                  tempPoseRotations[pr + 4], tempPoseRotations[pr + 5], tempPoseRotations[pr + 6], tempPoseRotations[pr + 7], tempPoseRotations[pr + 8],
+                  tempPoseTranslations[pt + 0], tempPoseTranslations[pt + 1], tempPoseTranslations[pt + 2], i);
+         }
+
+         for (int k = 0; k < degreesOfFreedom[i]; k++)
+         {
+            int column = degreesOfFreedomIndices[i] + k;
+            multiplyInertia(compositeInertias, INERTIA_SIZE * i, motionSubspaces, SIZE * column, temp, 0);
+            transformForce(tempPoseRotations, r, tempPoseTranslations, t, temp, 0, tempTransformedMotion, 0);
+
+            for (int row = 0; row < SIZE; row++)
+               centroidalMomentumMatrixToPack.unsafe_set(row, column, tempTransformedMotion[row]);
+         }
+      }
+   }
+
+   /**
+    * Sets the pose of body i to the given pose of its parent composed with the transform from body i to its parent.
+    */
+   private void composePose(double m00, double m01, double m02, double m10, double m11, double m12, double m20, double m21, double m22, double x, double y,
+         double z, int i)
+   {
+      int r = 9 * i;
+      int t = 3 * i;
+      double[] R = rotations;
+
+      tempPoseRotations[r + 0] = m00 * R[r + 0] + m01 * R[r + 3] + m02 * R[r + 6];
+      tempPoseRotations[r + 1] = m00 * R[r + 1] + m01 * R[r + 4] + m02 * R[r + 7];
+      tempPoseRotations[r + 2] = m00 * R[r + 2] + m01 * R[r + 5] + m02 * R[r + 8];
+      tempPoseRotations[r + 3] = m10 * R[r + 0] + m11 * R[r + 3] + m12 * R[r + 6];
+      tempPoseRotations[r + 4] = m10 * R[r + 1] + m11 * R[r + 4] + m12 * R[r + 7];
+      tempPoseRotations[r + 5] = m10 * R[r + 2] + m11 * R[r + 5] + m12 * R[r + 8];
+      tempPoseRotations[r + 6] = m20 * R[r + 0] + m21 * R[r + 3] + m22 * R[r + 6];
+      tempPoseRotations[r + 7] = m20 * R[r + 1] + m21 * R[r + 4] + m22 * R[r + 7];
+      tempPoseRotations[r + 8] = m20 * R[r + 2] + m21 * R[r + 5] + m22 * R[r + 8];
+
+      double tx = translations[t + 0], ty = translations[t + 1], tz = translations[t + 2];
+      tempPoseTranslations[t + 0] = m00 * tx + m01 * ty + m02 * tz + x;
+      tempPoseTranslations[t + 1] = m10 * tx + m11 * ty + m12 * tz + y;
+      tempPoseTranslations[t + 2] = m20 * tx + m21 * ty + m22 * tz + z;
+   }
+
+   /**
+    * Transforms a motion vector from the parent frame of body i to the frame of body i:
+    * <br> &omega;<sub>i</sub> = R<sup>T</sup> &omega;<sub>p</sub>, v<sub>i</sub> = R<sup>T</sup> (v<sub>p</sub> - t &times; &omega;<sub>p</sub>) </br>
+    * where R and t are the rotation and translation of body i in its parent frame.
+    */
+   private void transformMotionToChild(int i, double[] in, int inOffset, double[] out, int outOffset)
+   {
+      int r = 9 * i;
+      int t = 3 * i;
+      double[] R = rotations;
+
+      double wx = in[inOffset + 0], wy = in[inOffset + 1], wz = in[inOffset + 2];
+      double tx = translations[t + 0], ty = translations[t + 1], tz = translations[t + 2];
+      double vx = in[inOffset + 3] - (ty * wz - tz * wy);
+      double vy = in[inOffset + 4] - (tz * wx - tx * wz);
+      double vz = in[inOffset + 5] - (tx * wy - ty * wx);
+
+      out[outOffset + 0] = R[r + 0] * wx + R[r + 3] * wy + R[r + 6] * wz;
+      out[outOffset + 1] = R[r + 1] * wx + R[r + 4] * wy + R[r + 7] * wz;
+      out[outOffset + 2] = R[r + 2] * wx + R[r + 5] * wy + R[r + 8] * wz;
+      out[outOffset + 3] = R[r + 0] * vx + R[r + 3] * vy + R[r + 6] * vz;
+      out[outOffset + 4] = R[r + 1] * vx + R[r + 4] * vy + R[r + 7] * vz;
+      out[outOffset + 5] = R[r + 2] * vx + R[r + 5] * vy + R[r + 8] * vz;
+   }
+
+   /**
+    * Expresses the inertia of body i in its parent frame and adds it to the given parent inertia.
+    * The inertia is first rotated, J<sub>r</sub> = R J R<sup>T</sup> and c<sub>r</sub> = R c, and then translated by p = -t:
+    * <br> J<sub>p</sub> += J<sub>r</sub> - tilde(c<sub>r</sub>) tilde(p) - (tilde(c<sub>r</sub>) tilde(p))<sup>T</sup> - m tilde(p) tilde(p),
+    * c<sub>p</sub> += c<sub>r</sub> + m p, m<sub>p</sub> += m </br>
+    * See {@link GeneralizedRigidBodyInertia#changeFrame(ReferenceFrame)}.
+    */
+   private void addInertiaToParent(int i, double[] in, int inOffset, double[] out, int outOffset)
+   {
+      int r = 9 * i;
+      double[] R = rotations;
+
+      // R J
+      for (int row = 0; row < 3; row++)
+      {
+         for (int column = 0; column < 3; column++)
+         {
+            tempRotatedInertia[3 * row + column] = R[r + 3 * row] * in[inOffset + column] + R[r + 3 * row + 1] * in[inOffset + 3 + column]
+                  + R[r + 3 * row + 2] * in[inOffset + 6 + column];
+         }
+      }
+
+      double cx = in[inOffset + 9], cy = in[inOffset + 10], cz = in[inOffset + 11];
+      double mass = in[inOffset + 12];
+      double crx = R[r + 0] * cx + R[r + 1] * cy + R[r + 2] * cz;
+      double cry = R[r + 3] * cx + R[r + 4] * cy + R[r + 5] * cz;
+      double crz = R[r + 6] * cx + R[r + 7] * cy + R[r + 8] * cz;
+      double px = -translations[3 * i + 0], py = -translations[3 * i + 1], pz = -translations[3 * i + 2];
+
+      // (R J) R^T
+      for (int row = 0; row < 3; row++)
+      {
+         for (int column = 0; column < 3; column++)
+         {
+            out[outOffset + 3 * row + column] += tempRotatedInertia[3 * row] * R[r + 3 * column] + tempRotatedInertia[3 * row + 1] * R[r + 3 * column + 1]
+                  + tempRotatedInertia[3 * row + 2] * R[r + 3 * column + 2];
+         }
+      }
+
+      // - tilde(c) tilde(p) - (tilde(c) tilde(p))^T
+      out[outOffset + 0] += 2.0 * (crz * pz + cry * py);
+      out[outOffset + 4] += 2.0 * (crx * px + crz * pz);
+      out[outOffset + 8] += 2.0 * (crx * px + cry * py);
+      double xy = -cry * px - crx * py;
+      double xz = -crz * px - crx * pz;
+      double yz = -crz * py - cry * pz;
+
+      // - m tilde(p) tilde(p) = m (|p|^2 I - p p^T)
+      out[outOffset + 0] += mass * (py * py + pz * pz);
+      out[outOffset + 4] += mass * (px * px + pz * pz);
+      out[outOffset + 8] += mass * (px * px + py * py);
+      xy -= mass * px * py;
+      xz -= mass * px * pz;
+      yz -= mass * py * pz;
+
+      out[outOffset + 1] += xy;
+      out[outOffset + 3] += xy;
+      out[outOffset + 2] += xz;
+      out[outOffset + 6] += xz;
+      out[outOffset + 5] += yz;
+      out[outOffset + 7] += yz;
+
+      out[outOffset + 9] += crx + mass * px;
+      out[outOffset + 10] += cry + mass * py;
+      out[outOffset + 11] += crz + mass * pz;
+      out[outOffset + 12] += mass;
+   }
+
+   /**
+    * Transforms a force vector from the frame of body i to its parent frame:
+    * <br> f<sub>p</sub> = R f<sub>i</sub>, &tau;<sub>p</sub> = R &tau;<sub>i</sub> + t &times; f<sub>p</sub> </br>
+    */
+   private void transformForceToParent(int i, double[] in, int inOffset, double[] out, int outOffset)
+   {
+      transformForce(rotations, 9 * i, translations, 3 * i, in, inOffset, out, outOffset);
+   }
+
+   private static void transformForce(double[] R, int r, double[] translations, int t, double[] in, int inOffset, double[] out, int outOffset)
+   {
+      double nx = in[inOffset + 0], ny = in[inOffset + 1], nz = in[inOffset + 2];
+      double fx = in[inOffset + 3], fy = in[inOffset + 4], fz = in[inOffset + 5];
+
+      double fpx = R[r + 0] * fx + R[r + 1] * fy + R[r + 2] * fz;
+      double fpy = R[r + 3] * fx + R[r + 4] * fy + R[r + 5] * fz;
+      double fpz = R[r + 6] * fx + R[r + 7] * fy + R[r + 8] * fz;
+      double tx = translations[t + 0], ty = translations[t + 1], tz = translations[t + 2];
+
+      out[outOffset + 0] = R[r + 0] * nx + R[r + 1] * ny + R[r + 2] * nz + ty * fpz - tz * fpy;
+      out[outOffset + 1] = R[r + 3] * nx + R[r + 4] * ny + R[r + 5] * nz + tz * fpx - tx * fpz;
+      out[outOffset + 2] = R[r + 6] * nx + R[r + 7] * ny + R[r + 8] * nz + tx * fpy - ty * fpx;
+      out[outOffset + 3] = fpx;
+      out[outOffset + 4] = fpy;
+      out[outOffset + 5] = fpz;
+   }
+
+   /**
+    * Spatial cross product of two motion vectors: [&omega;<sub>1</sub> &times; &omega;<sub>2</sub>; &omega;<sub>1</sub> &times; v<sub>2</sub> + v<sub>1</sub> &times; &omega;<sub>2</sub>]
+    */
+   private static void crossMotion(double[] a, int aOffset, double[] b, int bOffset, double[] out)
+   {
+      double wx = a[aOffset + 0], wy = a[aOffset + 1], wz = a[aOffset + 2];
+      double vx = a[aOffset + 3], vy = a[aOffset + 4], vz = a[aOffset + 5];
+      double bwx = b[bOffset + 0], bwy = b[bOffset + 1], bwz = b[bOffset + 2];
+      double bvx = b[bOffset + 3], bvy = b[bOffset + 4], bvz = b[bOffset + 5];
+
+      out[0] = wy * bwz - wz * bwy;
+      out[1] = wz * bwx - wx * bwz;
+      out[2] = wx * bwy - wy * bwx;
+      out[3] = wy * bvz - wz * bvy + vy * bwz - vz * bwy;
+      out[4] = wz * bvx - wx * bvz + vz * bwx - vx * bwz;
+      out[5] = wx * bvy - wy * bvx + vx * bwy - vy * bwx;
+   }
+
+   /**
+    * Spatial cross product of a motion vector and a force vector: [&omega; &times; n + v &times; f; &omega; &times; f]
+    */
+   private static void crossForce(double[] motion, int motionOffset, double[] force, double[] out)
+   {
+      double wx = motion[motionOffset + 0], wy = motion[motionOffset + 1], wz = motion[motionOffset + 2];
+      double vx = motion[motionOffset + 3], vy = motion[motionOffset + 4], vz = motion[motionOffset + 5];
+      double nx = force[0], ny = force[1], nz = force[2];
+      double fx = force[3], fy = force[4], fz = force[5];
+
+      out[0] = wy * nz - wz * ny + vy * fz - vz * fy;
+      out[1] = wz * nx - wx * nz + vz * fx - vx * fz;
+      out[2] = wx * ny - wy * nx + vx * fy - vy * fx;
+      out[3] = wy * fz - wz * fy;
+      out[4] = wz * fx - wx * fz;
+      out[5] = wx * fy - wy * fx;
+   }
+
+   /**
+    * Multiplies a motion vector by an inertia: [J &omega; - c &times; v; c &times; &omega; + m v]
+    */
+   private static void multiplyInertia(double[] inertia, int inertiaOffset, double[] in, int inOffset, double[] out, int outOffset)
+   {
+      double wx = in[inOffset + 0], wy = in[inOffset + 1], wz = in[inOffset + 2];
+      double vx = in[inOffset + 3], vy = in[inOffset + 4], vz = in[inOffset + 5];
+      double cx = inertia[inertiaOffset + 9], cy = inertia[inertiaOffset + 10], cz = inertia[inertiaOffset + 11];
+      double mass = inertia[inertiaOffset + 12];
+
+      out[outOffset + 0] = inertia[inertiaOffset + 0] * wx + inertia[inertiaOffset + 1] * wy + inertia[inertiaOffset + 2] * wz - (cy * vz - cz * vy);
+      out[outOffset + 1] = inertia[inertiaOffset + 3] * wx + inertia[inertiaOffset + 4] * wy + inertia[inertiaOffset + 5] * wz - (cz * vx - cx * vz);
+      out[outOffset + 2] = inertia[inertiaOffset + 6] * wx + inertia[inertiaOffset + 7] * wy + inertia[inertiaOffset + 8] * wz - (cx * vy - cy * vx);
+      out[outOffset + 3] = cy * wz - cz * wy + mass * vx;
+      out[outOffset + 4] = cz * wx - cx * wz + mass * vy;
+      out[outOffset + 5] = cx * wy - cy * wx + mass * vz;
+   }
+
+   private static double dot(double[] a, int aOffset, double[] b, int bOffset)
+   {
+      double sum = 0.0;
+      for (int k = 0; k < SIZE; k++)
+         sum += a[aOffset + k] * b[bOffset + k];
+      return sum;
+   }
+
+   /**
+    * Sets the torque of each joint from the wrenches computed by {@link #computeInverseDynamics(boolean)}.
+    */
+   public void setJointTorques()
+   {
+      for (int i = 0; i < joints.length; i++)
+      {
+         getJointWrench(i, tempWrench);
+         joints[i].setTorqueFromWrench(tempWrench);
+      }
+   }
+
+   /**
+    * @param twistToPack the twist of body i with respect to the inertial frame, expressed in its body-fixed frame. Modified.
+    */
+   public void getTwistOfBody(int bodyIndex, ReferenceFrame inertialFrame, Twist twistToPack)
+   {
+      ReferenceFrame bodyFrame = bodies[bodyIndex].getBodyFixedFrame();
+      int offset = SIZE * bodyIndex;
+      twistToPack.setToZero(bodyFrame, inertialFrame, bodyFrame);
+      twistToPack.setAngularPart(bodyTwists[offset + 0], bodyTwists[offset + 1], bodyTwists[offset + 2]);
+      twistToPack.setLinearPart(bodyTwists[offset + 3], bodyTwists[offset + 4], bodyTwists[offset + 5]);
+   }
+
+   /**
+    * @param accelerationToPack the spatial acceleration of body i with respect to the inertial frame, expressed in its body-fixed frame. Modified.
+    */
+   public void getAccelerationOfBody(int bodyIndex, ReferenceFrame inertialFrame, SpatialAccelerationVector accelerationToPack)
+   {
+      ReferenceFrame bodyFrame = bodies[bodyIndex].getBodyFixedFrame();
+      int offset = SIZE * bodyIndex;
+      accelerationToPack.setToZero(bodyFrame, inertialFrame, bodyFrame);
+      accelerationToPack.setAngularPart(bodyAccelerations[offset + 0], bodyAccelerations[offset + 1], bodyAccelerations[offset + 2]);
+      accelerationToPack.setLinearPart(bodyAccelerations[offset + 3], bodyAccelerations[offset + 4], bodyAccelerations[offset + 5]);
+   }
+
+   /**
+    * @param wrenchToPack the wrench exerted by joint i on its successor, expressed in the body-fixed frame of the successor. Modified.
+    */
+   public void getJointWrench(int jointIndex, Wrench wrenchToPack)
+   {
+      ReferenceFrame bodyFrame = bodies[jointIndex].getBodyFixedFrame();
+      System.arraycopy(jointWrenches, SIZE * jointIndex, temp, 0, SIZE);
+      wrenchToPack.setToZero(bodyFrame, bodyFrame);
+      wrenchToPack.set(bodyFrame, temp);
+   }
+
+   /**
+    * @param jointTorquesToPack the joint torques computed by {@link #computeInverseDynamics(boolean)}, ordered as {@link #getJointsInOrder()}. Modified.
+    */
+   public void getJointTorques(DenseMatrix64F jointTorquesToPack)
+   {
+      jointTorquesToPack.reshape(numberOfDegreesOfFreedom, 1);
+      System.arraycopy(jointTorques, 0, jointTorquesToPack.getData(), 0, numberOfDegreesOfFreedom);
+   }
+
+   public RigidBody getRootBody()
+   {
+      return rootBody;
+   }
+
+   public int getNumberOfBodies()
+   {
+      return bodies.length;
+   }
+
+   public int getNumberOfDegreesOfFreedom()
+   {
+      return numberOfDegreesOfFreedom;
+   }
+
+   public RigidBody getBody(int bodyIndex)
+   {
+      return bodies[bodyIndex];
+   }
+
+   public InverseDynamicsJoint getJoint(int jointIndex)
+   {
+      return joints[jointIndex];
+   }
+
+   /**
+    * @return the index of the given body, or -1 if it is the root body or not part of the system.
+    */
+   public int getBodyIndex(RigidBody body)
+   {
+      Integer index = bodyIndices.get(body);
+      return index == null ? -1 : index;
+   }
+
+   /**
+    * @return the index of the parent of body i, or -1 if the parent is the root body.
+    */
+   public int getParentIndex(int bodyIndex)
+   {
+      return parentIndices[bodyIndex];
+   }
+
+   /**
+    * @return the index of the first degree of freedom of joint i in the joint space vectors and matrices.
+    */
+   public int getDegreesOfFreedomIndex(int jointIndex)
+   {
+      return degreesOfFreedomIndices[jointIndex];
+   }
+
+   /**
+    * @return the joints ordered from the root to the end-effectors. Joint i is the parent joint of body i.
+    */
+   public InverseDynamicsJoint[] getJointsInOrder()
+   {
+      return joints;
+   }
+}
@@ -34,6 +34,10 @@ public class InverseDynamicsCalculator
    private final boolean doVelocityTerms;
 
    private InverseDynamicsCalculatorListener inverseDynamicsCalculatorListener;
+
+   private FlattenedMultiBodySystem flattenedMultiBodySystem;
+   private Wrench[] externalWrenchesInOrder;
+   private Wrench[] jointWrenchesInOrder;
    
    public InverseDynamicsCalculator(TwistCalculator twistCalculator, double gravity)
    {
@@ -84,11 +88,41 @@ public class InverseDynamicsCalculator
       this.inverseDynamicsCalculatorListener = inverseDynamicsCalculatorListener;
    }
    
+   /**
+    * Runs {@link #compute()} on a {@link FlattenedMultiBodySystem} instead of the rigid-body tree.
+    * The results are the same, but the {@link SpatialAccelerationCalculator} is not updated anymore by {@link #compute()}.
+    * Only works when the root body of the system is fixed in the inertial frame.
+    */
+   public void setUseFlattenedMultiBodySystem(boolean useFlattenedMultiBodySystem)
+   {
+      if (!useFlattenedMultiBodySystem)
+      {
+         flattenedMultiBodySystem = null;
+         return;
+      }
+
+      flattenedMultiBodySystem = new FlattenedMultiBodySystem(rootBody, jointsToIgnore);
+      externalWrenchesInOrder = new Wrench[flattenedMultiBodySystem.getNumberOfBodies()];
+      jointWrenchesInOrder = new Wrench[flattenedMultiBodySystem.getNumberOfBodies()];
+      for (int i = 0; i < flattenedMultiBodySystem.getNumberOfBodies(); i++)
+      {
+         externalWrenchesInOrder[i] = externalWrenches.get(flattenedMultiBodySystem.getBody(i));
+         jointWrenchesInOrder[i] = jointWrenches.get(flattenedMultiBodySystem.getJoint(i));
+      }
+   }
+
    public void compute()
    {
-      computeTwistsAndSpatialAccelerations();
-      computeNetWrenches();
-      computeJointWrenchesAndTorques();
+      if (flattenedMultiBodySystem != null)
+      {
+         computeUsingFlattenedMultiBodySystem();
+      }
+      else
+      {
+         computeTwistsAndSpatialAccelerations();
+         computeNetWrenches();
+         computeJointWrenchesAndTorques();
+      }
       
       if (inverseDynamicsCalculatorListener != null) inverseDynamicsCalculatorListener.inverseDynamicsCalculatorIsDone(this);
    }
@@ -108,6 +142,27 @@ public class InverseDynamicsCalculator
       return spatialAccelerationCalculator;
    }
 
+   private void computeUsingFlattenedMultiBodySystem()
+   {
+      flattenedMultiBodySystem.updateConfiguration();
+      flattenedMultiBodySystem.updateVelocitiesAndAccelerations(spatialAccelerationCalculator.isUsingDesireds());
+      flattenedMultiBodySystem.setRootAcceleration(spatialAccelerationCalculator.getRootAcceleration());
+
+      for (int i = 0; i < externalWrenchesInOrder.length; i++)
+         flattenedMultiBodySystem.setExternalWrench(i, externalWrenchesInOrder[i]);
+
+      flattenedMultiBodySystem.computeTwists();
+      flattenedMultiBodySystem.computeSpatialAccelerations(spatialAccelerationCalculator.areVelocityTermsConsidered(),
+            spatialAccelerationCalculator.areAccelerationTermsConsidered());
+      flattenedMultiBodySystem.computeInverseDynamics(doVelocityTerms);
+
+      for (int i = 0; i < jointWrenchesInOrder.length; i++)
+      {
+         flattenedMultiBodySystem.getJointWrench(i, jointWrenchesInOrder[i]);
+         flattenedMultiBodySystem.getJoint(i).setTorqueFromWrench(jointWrenchesInOrder[i]);
+      }
+   }
+
    private void computeTwistsAndSpatialAccelerations()
    {
       spatialAccelerationCalculator.compute();
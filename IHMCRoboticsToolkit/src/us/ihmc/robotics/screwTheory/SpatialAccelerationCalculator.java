@@ -376,6 +376,26 @@ public class SpatialAccelerationCalculator
       return rootBody;
    }
 
+   SpatialAccelerationVector getRootAcceleration()
+   {
+      return rootAcceleration;
+   }
+
+   boolean areVelocityTermsConsidered()
+   {
+      return doVelocityTerms;
+   }
+
+   boolean areAccelerationTermsConsidered()
+   {
+      return doAccelerationTerms;
+   }
+
+   boolean isUsingDesireds()
+   {
+      return useDesireds;
+   }
+
    private void populateMapsAndLists()
    {
       accelerations.put(rootBody, new SpatialAccelerationVector());
@@ -17,10 +17,20 @@ public class ExecutionTimer
    private final DoubleYoVariable maximum;
    private final SimpleMovingAverageFilteredYoVariable movingAverage;
    private final LongYoVariable count;
+   private final LatencyHistogram latencyHistogram;
 
    private long startTime;
 
    public ExecutionTimer(String name, double measurementDelayInSeconds, YoVariableRegistry registry)
+   {
+      this(name, measurementDelayInSeconds, Double.NaN, registry);
+   }
+
+   /**
+    * Creates a timer that also keeps a {@link LatencyHistogram} of the measured times, counting the ones longer than {@code deadlineInSeconds}
+    * as deadline misses. No histogram is kept if the deadline is NaN.
+    */
+   public ExecutionTimer(String name, double measurementDelayInSeconds, double deadlineInSeconds, YoVariableRegistry registry)
    {
       this.measurementDelay = (long) (measurementDelayInSeconds * 1e9);
 
@@ -30,6 +40,11 @@ public class ExecutionTimer
       standardDeviation = new DoubleYoVariable(name + "StandardDeviation", registry);
       maximum = new DoubleYoVariable(name + "Maximum", registry);
       count = new LongYoVariable(name + "Count", registry);
+
+      if (Double.isNaN(deadlineInSeconds))
+         latencyHistogram = null;
+      else
+         latencyHistogram = new LatencyHistogram(name, deadlineInSeconds, registry);
    }
 
    public void startMeasurement()
@@ -48,6 +63,10 @@ public class ExecutionTimer
       if ((currentNanoTime - timeOfFirstMeasurement) > measurementDelay)
       {
          final double timeTaken = ((double) (currentNanoTime - startTime)) / 1e9;
+
+         if (latencyHistogram != null)
+            latencyHistogram.record(currentNanoTime - startTime);
+
          final double previousAverage = average.getDoubleValue();
          double previousSumOfSquares = MathTools.square(standardDeviation.getDoubleValue()) * ((double) count.getLongValue());
 
@@ -95,4 +114,12 @@ public class ExecutionTimer
       return maximum;
    }
 
+   /**
+    * @return the histogram of the measured times, or null if the timer was created without a deadline.
+    */
+   public LatencyHistogram getLatencyHistogram()
+   {
+      return latencyHistogram;
+   }
+
 }
@@ -0,0 +1,164 @@
+package us.ihmc.robotics.time;
+
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
+
+/**
+ * Histogram of execution times with a fixed set of buckets, used to see the tail latency of a real-time stage that averages and maxima hide.
+ * <p>
+ * As in an HDR histogram, the buckets are exact for the smallest values and grow with the magnitude of the value so that the relative error
+ * stays below 2 / {@link #SUB_BUCKET_COUNT}, about 3%, for times from 1ns to about 17s. Larger times go in the last bucket. Recording a time does not
+ * allocate and costs a few operations. The percentiles are only computed every {@link #PERCENTILE_UPDATE_PERIOD} samples, and are stored
+ * in YoVariables along with the number of deadline misses so they are logged with the rest of the data.
+ * </p>
+ */
+public class LatencyHistogram
+{
+   private static final int SUB_BUCKET_BITS = 6;
+   public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+   private static final int MAXIMUM_VALUE_BITS = 34;
+   public static final int PERCENTILE_UPDATE_PERIOD = 100;
+
+   private final long[] counts = new long[getBucketIndex((1L << MAXIMUM_VALUE_BITS) - 1L) + 1];
+   private final long deadlineInNanoseconds;
+   private long totalCount = 0;
+   private long maximumInNanoseconds = 0;
+   private long startTime;
+
+   private final DoubleYoVariable percentile50;
+   private final DoubleYoVariable percentile99;
+   private final DoubleYoVariable percentile999;
+   private final LongYoVariable deadlineMisses;
+
+   /**
+    * @param deadlineInSeconds the times longer than this are counted as deadline misses, usually the period of the thread.
+    */
+   public LatencyHistogram(String name, double deadlineInSeconds, YoVariableRegistry registry)
+   {
+      this.deadlineInNanoseconds = TimeTools.secondsToNanoSeconds(deadlineInSeconds);
+
+      percentile50 = new DoubleYoVariable(name + "P50", registry);
+      percentile99 = new DoubleYoVariable(name + "P99", registry);
+      percentile999 = new DoubleYoVariable(name + "P999", registry);
+      deadlineMisses = new LongYoVariable(name + "DeadlineMisses", registry);
+   }
+
+   public void startMeasurement()
+   {
+      startTime = System.nanoTime();
+   }
+
+   public void stopMeasurement()
+   {
+      record(System.nanoTime() - startTime);
+   }
+
+   public void record(long timeInNanoseconds)
+   {
+      if (timeInNanoseconds < 0L)
+         timeInNanoseconds = 0L;
+
+      counts[Math.min(getBucketIndex(timeInNanoseconds), counts.length - 1)]++;
+      totalCount++;
+
+      if (timeInNanoseconds > maximumInNanoseconds)
+         maximumInNanoseconds = timeInNanoseconds;
+
+      if (timeInNanoseconds > deadlineInNanoseconds)
+         deadlineMisses.increment();
+
+      if (totalCount % PERCENTILE_UPDATE_PERIOD == 0)
+         updatePercentiles();
+   }
+
+   /**
+    * Computes the percentiles now instead of waiting for the next update.
+    */
+   public void updatePercentiles()
+   {
+      percentile50.set(getPercentile(50.0));
+      percentile99.set(getPercentile(99.0));
+      percentile999.set(getPercentile(99.9));
+   }
+
+   /**
+    * @param percentile between 0 and 100.
+    * @return the time, in seconds, below which {@code percentile} percent of the recorded times are, or 0 if nothing has been recorded.
+    */
+   public double getPercentile(double percentile)
+   {
+      if (totalCount == 0)
+         return 0.0;
+
+      long countAtPercentile = Math.max(1L, (long) Math.ceil(percentile / 100.0 * totalCount));
+      long cumulativeCount = 0;
+
+      for (int i = 0; i < counts.length - 1; i++)
+      {
+         cumulativeCount += counts[i];
+         if (cumulativeCount >= countAtPercentile)
+            return TimeTools.nanoSecondstoSeconds(Math.min(getHighestValueInBucket(i), maximumInNanoseconds));
+      }
+
+      // The last bucket also holds all the times that are too large for the histogram.
+
+      return TimeTools.nanoSecondstoSeconds(maximumInNanoseconds);
+   }
+
+   public void reset()
+   {
+      for (int i = 0; i < counts.length; i++)
+         counts[i] = 0;
+
+      totalCount = 0;
+      maximumInNanoseconds = 0;
+      deadlineMisses.set(0);
+      updatePercentiles();
+   }
+
+   public long getTotalCount()
+   {
+      return totalCount;
+   }
+
+   public long getDeadlineMisses()
+   {
+      return deadlineMisses.getLongValue();
+   }
+
+   public double getMaximum()
+   {
+      return TimeTools.nanoSecondstoSeconds(maximumInNanoseconds);
+   }
+
+   public DoubleYoVariable getPercentile50()
+   {
+      return percentile50;
+   }
+
+   public DoubleYoVariable getPercentile99()
+   {
+      return percentile99;
+   }
+
+   public DoubleYoVariable getPercentile999()
+   {
+      return percentile999;
+   }
+
+   private static int getBucketIndex(long value)
+   {
+      // Values below SUB_BUCKET_COUNT are exact, above that every power of two is split in SUB_BUCKET_COUNT / 2 buckets.
+      int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1);
+      return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >> shift);
+   }
+
+   private static long getHighestValueInBucket(int index)
+   {
+      int halfSubBucketCount = SUB_BUCKET_COUNT >> 1;
+      int shift = Math.max(0, index / halfSubBucketCount - 1);
+      long subBucket = index - ((long) shift << (SUB_BUCKET_BITS - 1));
+      return ((subBucket + 1L) << shift) - 1L;
+   }
+}
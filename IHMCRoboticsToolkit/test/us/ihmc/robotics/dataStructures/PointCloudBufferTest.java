@@ -0,0 +1,127 @@
+package us.ihmc.robotics.dataStructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class PointCloudBufferTest
+{
+   private static final double EPSILON = 1.0e-5;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testAddGrowAndClear()
+   {
+      Random random = new Random(4561L);
+      PointCloudBuffer buffer = new PointCloudBuffer(2);
+      assertTrue(buffer.isEmpty());
+
+      float[] expected = new float[3 * 100];
+      for (int i = 0; i < 100; i++)
+      {
+         expected[3 * i] = random.nextFloat();
+         expected[3 * i + 1] = random.nextFloat();
+         expected[3 * i + 2] = random.nextFloat();
+         buffer.add(expected[3 * i], expected[3 * i + 1], expected[3 * i + 2], i, 0xff000000 | i);
+      }
+
+      assertEquals(100, buffer.size());
+      for (int i = 0; i < 100; i++)
+      {
+         assertEquals(expected[3 * i], buffer.getX(i), 0.0);
+         assertEquals(expected[3 * i + 1], buffer.getY(i), 0.0);
+         assertEquals(expected[3 * i + 2], buffer.getZ(i), 0.0);
+         assertEquals(i, buffer.getIntensity(i), 0.0);
+         assertEquals(0xff000000 | i, buffer.getColor(i));
+      }
+
+      float[] xyz = buffer.toXYZArray();
+      assertEquals(expected.length, xyz.length);
+      for (int i = 0; i < expected.length; i++)
+         assertEquals(expected[i], xyz[i], 0.0);
+
+      float[] backingArray = buffer.getXYZArray();
+      buffer.clear();
+      assertTrue(buffer.isEmpty());
+      buffer.add(1.0f, 2.0f, 3.0f);
+      assertTrue(backingArray == buffer.getXYZArray());
+      assertEquals(3, buffer.toXYZArray().length);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testApplyTransform()
+   {
+      Random random = new Random(4562L);
+      PointCloudBuffer buffer = new PointCloudBuffer();
+      Point3d[] expected = new Point3d[50];
+
+      for (int i = 0; i < expected.length; i++)
+      {
+         buffer.add(random.nextFloat(), random.nextFloat(), random.nextFloat());
+         expected[i] = new Point3d();
+         buffer.getPoint(i, expected[i]);
+      }
+
+      RigidBodyTransform transform = RigidBodyTransform.generateRandomTransform(random);
+      buffer.applyTransform(transform);
+
+      Point3d actual = new Point3d();
+      for (int i = 0; i < expected.length; i++)
+      {
+         transform.transform(expected[i]);
+         buffer.getPoint(i, actual);
+         assertTrue(expected[i].epsilonEquals(actual, EPSILON));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSetRangeAndCopyPoint()
+   {
+      PointCloudBuffer buffer = new PointCloudBuffer();
+      buffer.setHasIntensities(true);
+      for (int i = 0; i < 10; i++)
+         buffer.add(i, 2 * i, 3 * i, 4 * i, i);
+
+      PointCloudBuffer range = new PointCloudBuffer(1);
+      range.set(buffer, 3, 7);
+      assertEquals(4, range.size());
+      assertTrue(range.hasIntensities());
+      assertFalse(range.hasColors());
+      for (int i = 0; i < 4; i++)
+      {
+         assertEquals(i + 3, range.getX(i), 0.0);
+         assertEquals(2 * (i + 3), range.getY(i), 0.0);
+         assertEquals(3 * (i + 3), range.getZ(i), 0.0);
+         assertEquals(4 * (i + 3), range.getIntensity(i), 0.0);
+         assertEquals(i + 3, range.getColor(i));
+      }
+
+      // Keep the even points only, as a filter would.
+      int numberOfPointsKept = 0;
+      for (int i = 0; i < buffer.size(); i++)
+      {
+         if (i % 2 == 1)
+            continue;
+         buffer.copyPoint(i, numberOfPointsKept++);
+      }
+      buffer.setSize(numberOfPointsKept);
+
+      assertEquals(5, buffer.size());
+      for (int i = 0; i < buffer.size(); i++)
+      {
+         assertEquals(2 * i, buffer.getX(i), 0.0);
+         assertEquals(2 * i, buffer.getColor(i));
+      }
+   }
+}
@@ -0,0 +1,200 @@
+package us.ihmc.robotics.dataStructures.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class YoVariableRegistryIndexTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testLookupsMatchRegistrySearch()
+   {
+      Random random = new Random(1984L);
+      YoVariableRegistry root = createRandomTree(random);
+      YoVariableRegistryIndex index = root.getIndex();
+      assertEquals(root.getAllVariablesIncludingDescendants().size(), index.getNumberOfVariables());
+
+      ArrayList<String> queries = new ArrayList<String>();
+      for (YoVariable<?> variable : root.getAllVariablesIncludingDescendants())
+      {
+         String[] nameSpaceParts = variable.getYoVariableRegistry().getNameSpace().getName().split("\\.");
+         queries.add(variable.getName());
+         queries.add(variable.getName().toUpperCase());
+         queries.add(nameSpaceParts[nameSpaceParts.length - 1] + "." + variable.getName());
+         queries.add(variable.getFullNameWithNameSpace());
+      }
+      queries.add("doesNotExist");
+      queries.add("registry0.doesNotExist");
+      queries.add("ry0.variable0");
+
+      for (String query : queries)
+      {
+         assertTrue(query, getVariableRecursively(root, query) == index.getVariable(query));
+
+         ArrayList<YoVariable<?>> expected = new ArrayList<YoVariable<?>>();
+         getVariablesRecursively(root, query, expected);
+         ArrayList<YoVariable<?>> actual = new ArrayList<YoVariable<?>>();
+         index.getVariables(actual, query);
+         assertEquals(query, expected, actual);
+         assertEquals(expected.size(), index.getNumberOfMatchingVariables(query));
+
+         // The registry uses the index once it has been queried enough.
+         assertTrue(query, expected.isEmpty() ? root.getVariable(query) == null : root.getVariable(query) == expected.get(0));
+         assertEquals(expected, root.getVariables(query));
+         assertEquals(expected.size() == 1, root.hasUniqueVariable(query));
+      }
+
+      for (YoVariable<?> variable : root.getAllVariablesIncludingDescendants())
+      {
+         assertTrue(index.getVariableByFullName(variable.getFullNameWithNameSpace()) == variable);
+         assertTrue(index.getVariablesByShortName(variable.getShortName()).contains(variable));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testPrefixAndContainsQueries()
+   {
+      Random random = new Random(1985L);
+      YoVariableRegistry root = createRandomTree(random);
+      YoVariableRegistryIndex index = root.getIndex();
+      ArrayList<YoVariable<?>> allVariables = root.getAllVariablesIncludingDescendants();
+
+      String[] queries = {"v", "Va", "variable1", "able", "ABLE2", "e1", "x", "", "variable12345"};
+      for (String query : queries)
+      {
+         ArrayList<YoVariable<?>> expectedPrefix = new ArrayList<YoVariable<?>>();
+         ArrayList<YoVariable<?>> expectedContains = new ArrayList<YoVariable<?>>();
+         for (YoVariable<?> variable : allVariables)
+         {
+            if (variable.getName().toLowerCase().startsWith(query.toLowerCase()))
+               expectedPrefix.add(variable);
+            if (variable.getName().toLowerCase().contains(query.toLowerCase()))
+               expectedContains.add(variable);
+         }
+
+         assertEquals(query, expectedPrefix, index.getVariablesStartingWith(query));
+         assertEquals(query, expectedContains, index.getVariablesContaining(query));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testIndexIsInvalidatedWhenTheTreeChanges()
+   {
+      YoVariableRegistry root = new YoVariableRegistry("root");
+      YoVariableRegistry child = new YoVariableRegistry("child");
+      root.addChild(child);
+      new DoubleYoVariable("first", child);
+
+      YoVariableRegistryIndex index = root.getIndex();
+      assertTrue(index == root.getIndex());
+      assertNull(index.getVariable("second"));
+
+      DoubleYoVariable second = new DoubleYoVariable("second", child);
+      assertFalse(index == root.getIndex());
+      assertTrue(root.getIndex().getVariable("child.second") == second);
+
+      YoVariableRegistry grandChild = new YoVariableRegistry("grandChild");
+      DoubleYoVariable third = new DoubleYoVariable("third", grandChild);
+      YoVariableRegistryIndex childIndex = child.getIndex();
+      index = root.getIndex();
+      child.addChild(grandChild);
+      assertFalse(childIndex == child.getIndex());
+      assertFalse(index == root.getIndex());
+      assertTrue(root.getIndex().getVariable("root.child.grandChild.third") == third);
+
+      index = root.getIndex();
+      child.clear();
+      assertFalse(index == root.getIndex());
+      assertNull(root.getIndex().getVariable("second"));
+
+      // Many lookups interleaved with registrations.
+      for (int i = 0; i < 100; i++)
+      {
+         DoubleYoVariable variable = new DoubleYoVariable("variable" + i, child);
+         for (int j = 0; j < 10; j++)
+            assertTrue(root.getVariable("variable" + i) == variable);
+      }
+   }
+
+   private static YoVariableRegistry createRandomTree(Random random)
+   {
+      YoVariableRegistry root = new YoVariableRegistry("root");
+      ArrayList<YoVariableRegistry> registries = new ArrayList<YoVariableRegistry>();
+      registries.add(root);
+
+      for (int i = 0; i < 30; i++)
+      {
+         // Registries with the same name in different places of the tree, to test namespace matching.
+         String name = "registry" + (i % 10);
+         YoVariableRegistry parent = registries.get(random.nextInt(registries.size()));
+         if (parent.getNameSpace().contains(name) || hasChildNamed(parent, name))
+            continue;
+
+         YoVariableRegistry registry = new YoVariableRegistry(name);
+         parent.addChild(registry);
+         registries.add(registry);
+      }
+
+      for (YoVariableRegistry registry : registries)
+      {
+         int numberOfVariables = random.nextInt(20);
+         for (int i = 0; i < numberOfVariables; i++)
+         {
+            String name = (random.nextBoolean() ? "variable" : "Var") + i + (random.nextBoolean() ? "WithAVeryLongSuffix" : "");
+            new DoubleYoVariable(name, registry);
+         }
+      }
+
+      return root;
+   }
+
+   private static boolean hasChildNamed(YoVariableRegistry registry, String name)
+   {
+      for (YoVariableRegistry child : registry.getChildren())
+      {
+         if (child.getName().equals(name))
+            return true;
+      }
+      return false;
+   }
+
+   private static YoVariable<?> getVariableRecursively(YoVariableRegistry registry, String name)
+   {
+      ArrayList<YoVariable<?>> matches = new ArrayList<YoVariable<?>>();
+      getVariablesRecursively(registry, name, matches);
+      return matches.isEmpty() ? null : matches.get(0);
+   }
+
+   /**
+    * Reference implementation: the search done by the registries before the index.
+    */
+   private static void getVariablesRecursively(YoVariableRegistry registry, String name, ArrayList<YoVariable<?>> matches)
+   {
+      int dotIndex = name.lastIndexOf('.');
+      boolean nameSpaceMatches = dotIndex == -1 || registry.getNameSpace().endsWith(name.substring(0, dotIndex));
+      if (nameSpaceMatches)
+      {
+         for (YoVariable<?> variable : registry.getAllVariablesInThisListOnly())
+         {
+            if (variable.getName().equalsIgnoreCase(name.substring(dotIndex + 1)))
+               matches.add(variable);
+         }
+      }
+
+      for (YoVariableRegistry child : registry.getChildren())
+         getVariablesRecursively(child, name, matches);
+   }
+}
@@ -0,0 +1,62 @@
+package us.ihmc.robotics.dataStructures.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class YoVariableRegistryStartupProfilerTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testTimeIsAttributedToTheRegistryBeingBuilt() throws InterruptedException
+   {
+      YoVariableRegistryStartupProfiler.start();
+
+      try
+      {
+         YoVariableRegistry root = new YoVariableRegistry("root");
+
+         YoVariableRegistry slow = new YoVariableRegistry("slow");
+         root.addChild(slow);
+         Thread.sleep(50);
+         new DoubleYoVariable("slowVariable", slow);
+
+         YoVariableRegistry fast = new YoVariableRegistry("fast");
+         root.addChild(fast);
+         new DoubleYoVariable("fastVariable", fast);
+
+         YoVariableRegistry slowChild = new YoVariableRegistry("slowChild");
+         slow.addChild(slowChild);
+         Thread.sleep(50);
+         new DoubleYoVariable("slowChildVariable", slowChild);
+
+         assertTrue(YoVariableRegistryStartupProfiler.getSelfTimeInSeconds(slow) >= 0.05);
+         assertTrue(YoVariableRegistryStartupProfiler.getSubtreeTimeInSeconds(slow) >= 0.1);
+         assertTrue(YoVariableRegistryStartupProfiler.getSubtreeTimeInSeconds(fast) < 0.05);
+         assertEquals(YoVariableRegistryStartupProfiler.getSubtreeTimeInSeconds(root),
+                      YoVariableRegistryStartupProfiler.getSelfTimeInSeconds(root) + YoVariableRegistryStartupProfiler.getSubtreeTimeInSeconds(slow)
+                            + YoVariableRegistryStartupProfiler.getSubtreeTimeInSeconds(fast), 1.0e-9);
+
+         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+         YoVariableRegistryStartupProfiler.printReport(root, new PrintStream(outputStream), 0.0);
+         String report = outputStream.toString();
+         assertTrue(report.contains("slowChild"));
+         assertTrue(report.indexOf("slow") < report.indexOf("fast"));
+      }
+      finally
+      {
+         YoVariableRegistryStartupProfiler.stop();
+      }
+
+      YoVariableRegistry afterStop = new YoVariableRegistry("afterStop");
+      new DoubleYoVariable("variable", afterStop);
+      assertEquals(0.0, YoVariableRegistryStartupProfiler.getSubtreeTimeInSeconds(afterStop), 0.0);
+   }
+}
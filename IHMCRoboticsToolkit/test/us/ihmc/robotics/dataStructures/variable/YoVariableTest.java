@@ -493,6 +493,29 @@ public class YoVariableTest
       }
    }
 
+	@ContinuousIntegrationTest(estimatedDuration = 0.0)
+	@Test(timeout=300000)
+   public void testStackTraceAtInitialization()
+   {
+      boolean wasCapturing = YoVariable.isCapturingStackTraceAtInitialization();
+
+      try
+      {
+         YoVariable.setCaptureStackTraceAtInitialization(false);
+         assertNull(new DoubleYoVariable("notCaptured", registry).getStackTraceAtInitialization());
+
+         YoVariable.setCaptureStackTraceAtInitialization(true);
+         String stackTrace = new DoubleYoVariable("captured", registry).getStackTraceAtInitialization();
+         assertNotNull(stackTrace);
+         assertTrue(stackTrace.startsWith("at YoVariable.java:"));
+         assertTrue(stackTrace.contains("\tat YoVariableTest.java:"));
+      }
+      finally
+      {
+         YoVariable.setCaptureStackTraceAtInitialization(wasCapturing);
+      }
+   }
+
 	@ContinuousIntegrationTest(estimatedDuration = 0.0)
 	@Test(timeout=300000)
    public void testRecursiveCompareYoVariables() throws IllegalArgumentException, IllegalAccessException, SecurityException, NoSuchFieldException
@@ -6,12 +6,15 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.vecmath.Point2d;
 import javax.vecmath.Point3d;
 
 import org.junit.Test;
 
+import us.ihmc.robotics.random.RandomTools;
 import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.tools.testing.MutationTestingTools;
 
@@ -173,6 +176,139 @@ public class PlanarRegionsListTest
       assertNull(result);
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testGridIndexMatchesLinearSearch() throws Exception
+   {
+      Random random = new Random(4587L);
+      List<PlanarRegion> planarRegions = new ArrayList<>();
+      for (int i = 0; i < 300; i++)
+      {
+         planarRegions.add(PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 3, 1.0, 5));
+      }
+      planarRegions.add(new PlanarRegion());
+      PlanarRegionsList planarRegionsList = new PlanarRegionsList(planarRegions);
+
+      ArrayList<PlanarRegion> expected = new ArrayList<>();
+      ArrayList<PlanarRegion> actual = new ArrayList<>();
+
+      for (int query = 0; query < 1000; query++)
+      {
+         ConvexPolygon2d convexPolygon = ConvexPolygon2d.generateRandomConvexPolygon2d(random, 0.3, 5);
+         convexPolygon.update();
+         convexPolygon = PlanarRegionTest.translateConvexPolygon(RandomTools.generateRandomDouble(random, 11.0), RandomTools.generateRandomDouble(random, 11.0),
+                                                                 convexPolygon);
+         expected.clear();
+         for (PlanarRegion planarRegion : planarRegions)
+         {
+            if (!planarRegion.isVertical() && planarRegion.isPolygonIntersecting(convexPolygon))
+               expected.add(planarRegion);
+         }
+         actual.clear();
+         planarRegionsList.findPlanarRegionsIntersectingPolygon(convexPolygon, actual);
+         assertEquals(expected, actual);
+         assertEquals(expected.isEmpty() ? null : expected, planarRegionsList.findPlanarRegionsIntersectingPolygon(convexPolygon));
+
+         Point3d point = RandomTools.generateRandomPoint(random, 11.0, 11.0, 11.0);
+         double maximumOrthogonalDistance = RandomTools.generateRandomDouble(random, 0.0, 5.0);
+         expected.clear();
+         for (PlanarRegion planarRegion : planarRegions)
+         {
+            if (planarRegion.isPointInside(point, maximumOrthogonalDistance))
+               expected.add(planarRegion);
+         }
+         actual.clear();
+         planarRegionsList.findPlanarRegionsContainingPoint(point, maximumOrthogonalDistance, actual);
+         assertEquals(expected, actual);
+
+         expected.clear();
+         for (PlanarRegion planarRegion : planarRegions)
+         {
+            if (planarRegion.isPointInsideByProjectionOntoXYPlane(point.getX(), point.getY()))
+               expected.add(planarRegion);
+         }
+         actual.clear();
+         planarRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(point.getX(), point.getY(), actual);
+         assertEquals(expected, actual);
+
+         LineSegment2d lineSegment = new LineSegment2d(RandomTools.generateRandomPoint2d(random, 11.0, 11.0), RandomTools.generateRandomPoint2d(random, 11.0, 11.0));
+         expected.clear();
+         for (PlanarRegion planarRegion : planarRegions)
+         {
+            if (!planarRegion.isVertical() && planarRegion.isLineSegmentIntersecting(lineSegment))
+               expected.add(planarRegion);
+         }
+         actual.clear();
+         planarRegionsList.findPlanarRegionsIntersectingLineSegment(lineSegment, actual);
+         assertEquals(expected, actual);
+      }
+
+      // Regions added after the grid is built are found as well
+      ConvexPolygon2d convexPolygon = new ConvexPolygon2d();
+      convexPolygon.addVertex(100.0, 100.0);
+      convexPolygon.addVertex(101.0, 100.0);
+      convexPolygon.addVertex(101.0, 101.0);
+      convexPolygon.update();
+      PlanarRegion farAwayRegion = new PlanarRegion(new RigidBodyTransform(), convexPolygon);
+      assertNull(planarRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(100.9, 100.5));
+      planarRegionsList.addPlanarRegion(farAwayRegion);
+      List<PlanarRegion> result = planarRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(100.9, 100.5);
+      assertEquals(1, result.size());
+      assertTrue(result.get(0) == farAwayRegion);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testQueriesFromSeveralThreads() throws Exception
+   {
+      Random random = new Random(3298L);
+      List<PlanarRegion> planarRegions = new ArrayList<>();
+      for (int i = 0; i < 300; i++)
+      {
+         planarRegions.add(PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 3, 1.0, 5));
+      }
+      final PlanarRegionsList planarRegionsList = new PlanarRegionsList(planarRegions);
+
+      final int numberOfQueries = 500;
+      final double[] queryCoordinates = new double[2 * numberOfQueries];
+      final List<List<PlanarRegion>> expectedResults = new ArrayList<>();
+      for (int query = 0; query < numberOfQueries; query++)
+      {
+         queryCoordinates[2 * query] = RandomTools.generateRandomDouble(random, 11.0);
+         queryCoordinates[2 * query + 1] = RandomTools.generateRandomDouble(random, 11.0);
+         expectedResults.add(planarRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(queryCoordinates[2 * query], queryCoordinates[2 * query + 1]));
+      }
+
+      final AtomicInteger numberOfWrongResults = new AtomicInteger();
+      Thread[] threads = new Thread[4];
+      for (int i = 0; i < threads.length; i++)
+      {
+         threads[i] = new Thread(new Runnable()
+         {
+            @Override
+            public void run()
+            {
+               for (int repetition = 0; repetition < 20; repetition++)
+               {
+                  for (int query = 0; query < numberOfQueries; query++)
+                  {
+                     List<PlanarRegion> result = planarRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(queryCoordinates[2 * query],
+                                                                                                                          queryCoordinates[2 * query + 1]);
+                     if (expectedResults.get(query) == null ? result != null : !expectedResults.get(query).equals(result))
+                        numberOfWrongResults.incrementAndGet();
+                  }
+               }
+            }
+         });
+         threads[i].start();
+      }
+
+      for (int i = 0; i < threads.length; i++)
+         threads[i].join();
+
+      assertEquals(0, numberOfWrongResults.get());
+   }
+
    public static void main(String[] args)
    {
       String targetTests = PlanarRegionsListTest.class.getName();
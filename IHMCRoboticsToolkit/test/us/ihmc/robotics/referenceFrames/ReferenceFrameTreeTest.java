@@ -0,0 +1,181 @@
+package us.ihmc.robotics.referenceFrames;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class ReferenceFrameTreeTest
+{
+   private static final double EPSILON = 1.0e-12;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testSnapshotMatchesFrames()
+   {
+      Random random = new Random(1561L);
+      List<TransformReferenceFrame> frames = createRandomFrameTree(random, 30);
+      ReferenceFrameTree tree = new ReferenceFrameTree(frames);
+      // All the ancestors up to the world frame are included.
+      assertEquals(frames.size() + 1, tree.getNumberOfFrames());
+
+      RigidBodyTransform expected = new RigidBodyTransform();
+      RigidBodyTransform actual = new RigidBodyTransform();
+
+      for (int iteration = 0; iteration < 20; iteration++)
+      {
+         randomizeFrames(random, frames);
+         tree.update();
+         ReferenceFrameTreeSnapshot snapshot = tree.getSnapshot();
+
+         for (ReferenceFrame frame : frames)
+         {
+            frame.getTransformToDesiredFrame(expected, ReferenceFrame.getWorldFrame());
+            snapshot.getTransformToRoot(frame, actual);
+            assertTrue(expected.epsilonEquals(actual, EPSILON));
+
+            ReferenceFrame desiredFrame = frames.get(random.nextInt(frames.size()));
+            frame.getTransformToDesiredFrame(expected, desiredFrame);
+            snapshot.getTransformToDesiredFrame(frame, desiredFrame, actual);
+            assertTrue(expected.epsilonEquals(actual, EPSILON));
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testSnapshotIsImmutable()
+   {
+      Random random = new Random(1562L);
+      List<TransformReferenceFrame> frames = createRandomFrameTree(random, 10);
+      ReferenceFrameTree tree = new ReferenceFrameTree(frames);
+      ReferenceFrame leaf = frames.get(frames.size() - 1);
+
+      ReferenceFrameTreeSnapshot oldSnapshot = tree.getSnapshot();
+      RigidBodyTransform oldTransform = leaf.getTransformToWorldFrame();
+      assertEquals(1, oldSnapshot.getGeneration());
+
+      randomizeFrames(random, frames);
+      tree.update();
+      ReferenceFrameTreeSnapshot newSnapshot = tree.getSnapshot();
+      assertEquals(2, newSnapshot.getGeneration());
+      assertEquals(2, tree.getGeneration());
+
+      RigidBodyTransform actual = new RigidBodyTransform();
+      oldSnapshot.getTransformToRoot(leaf, actual);
+      assertTrue(oldTransform.epsilonEquals(actual, EPSILON));
+      newSnapshot.getTransformToRoot(leaf, actual);
+      assertTrue(leaf.getTransformToWorldFrame().epsilonEquals(actual, EPSILON));
+      assertFalse(oldTransform.epsilonEquals(actual, EPSILON));
+
+      assertFalse(newSnapshot.containsFrame(ReferenceFrame.constructARootFrame("otherRoot")));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testConcurrentReaders() throws Exception
+   {
+      Random random = new Random(1563L);
+      final List<TransformReferenceFrame> frames = createRandomFrameTree(random, 20);
+      final ReferenceFrameTree tree = new ReferenceFrameTree(frames);
+      final ReferenceFrame leaf = frames.get(frames.size() - 1);
+      final ReferenceFrame otherFrame = frames.get(frames.size() / 2);
+
+      // The leaf to world transform of every generation, as computed by the thread owning the frames.
+      final List<RigidBodyTransform> expectedTransforms = new ArrayList<>();
+      expectedTransforms.add(null);
+      expectedTransforms.add(leaf.getTransformToWorldFrame());
+      for (int i = 0; i < 200; i++)
+      {
+         randomizeFrames(random, frames);
+         expectedTransforms.add(leaf.getTransformToWorldFrame());
+      }
+
+      final AtomicBoolean done = new AtomicBoolean(false);
+      final AtomicReference<String> failure = new AtomicReference<>();
+      List<Thread> readers = new ArrayList<>();
+
+      for (int i = 0; i < 4; i++)
+      {
+         Thread reader = new Thread(new Runnable()
+         {
+            @Override
+            public void run()
+            {
+               RigidBodyTransform transformToRoot = new RigidBodyTransform();
+               RigidBodyTransform leafToOther = new RigidBodyTransform();
+               RigidBodyTransform otherToRoot = new RigidBodyTransform();
+
+               while (!done.get())
+               {
+                  ReferenceFrameTreeSnapshot snapshot = tree.getSnapshot();
+                  snapshot.getTransformToRoot(leaf, transformToRoot);
+                  RigidBodyTransform expected = expectedTransforms.get((int) snapshot.getGeneration());
+                  if (!expected.epsilonEquals(transformToRoot, EPSILON))
+                     failure.set("Inconsistent transform at generation " + snapshot.getGeneration());
+
+                  snapshot.getTransformToDesiredFrame(leaf, otherFrame, leafToOther);
+                  snapshot.getTransformToRoot(otherFrame, otherToRoot);
+                  otherToRoot.multiply(leafToOther);
+                  if (!expected.epsilonEquals(otherToRoot, 1.0e-10))
+                     failure.set("Inconsistent relative transform at generation " + snapshot.getGeneration());
+               }
+            }
+         });
+         readers.add(reader);
+         reader.start();
+      }
+
+      // Replay the same random sequence on the owner thread.
+      random = new Random(1563L);
+      createRandomFrameTree(random, 20);
+      for (int i = 0; i < 200; i++)
+      {
+         randomizeFrames(random, frames);
+         tree.update();
+         Thread.sleep(1);
+      }
+
+      done.set(true);
+      for (Thread reader : readers)
+         reader.join();
+
+      assertEquals(null, failure.get());
+   }
+
+   private static List<TransformReferenceFrame> createRandomFrameTree(Random random, int numberOfFrames)
+   {
+      List<TransformReferenceFrame> frames = new ArrayList<>();
+
+      for (int i = 0; i < numberOfFrames; i++)
+      {
+         ReferenceFrame parent = frames.isEmpty() || random.nextInt(5) == 0 ? ReferenceFrame.getWorldFrame() : frames.get(random.nextInt(frames.size()));
+         TransformReferenceFrame frame = new TransformReferenceFrame("frame" + i, parent);
+         frame.setTransformAndUpdate(RigidBodyTransform.generateRandomTransform(random));
+         frames.add(frame);
+      }
+
+      // Make sure the last frame is deep in the tree.
+      TransformReferenceFrame leaf = new TransformReferenceFrame("leaf", frames.get(frames.size() - 1));
+      leaf.setTransformAndUpdate(RigidBodyTransform.generateRandomTransform(random));
+      frames.add(leaf);
+
+      return frames;
+   }
+
+   private static void randomizeFrames(Random random, List<TransformReferenceFrame> frames)
+   {
+      for (TransformReferenceFrame frame : frames)
+         frame.setTransformAndUpdate(RigidBodyTransform.generateRandomTransform(random));
+   }
+}
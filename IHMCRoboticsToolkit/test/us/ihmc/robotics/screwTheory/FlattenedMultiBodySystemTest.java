@@ -0,0 +1,203 @@
+package us.ihmc.robotics.screwTheory;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.MatrixFeatures;
+import org.ejml.ops.RandomMatrices;
+import org.junit.Test;
+
+import us.ihmc.robotics.referenceFrames.CenterOfMassReferenceFrame;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class FlattenedMultiBodySystemTest
+{
+   private static final double EPSILON = 1.0e-10;
+   private static final int NUMBER_OF_ITERATIONS = 20;
+
+   private final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testTwistsAndSpatialAccelerations()
+   {
+      Random random = new Random(1451L);
+
+      for (int iteration = 0; iteration < NUMBER_OF_ITERATIONS; iteration++)
+      {
+         RandomFloatingTree tree = new RandomFloatingTree(random);
+         tree.setRandomState(random);
+
+         TwistCalculator twistCalculator = new TwistCalculator(worldFrame, tree.elevator);
+         SpatialAccelerationCalculator spatialAccelerationCalculator = new SpatialAccelerationCalculator(tree.elevator, twistCalculator, 9.81, true);
+         twistCalculator.compute();
+         spatialAccelerationCalculator.compute();
+
+         FlattenedMultiBodySystem system = new FlattenedMultiBodySystem(tree.elevator);
+         system.updateConfiguration();
+         system.updateVelocitiesAndAccelerations(true);
+         system.setRootAcceleration(ScrewTools.createGravitationalSpatialAcceleration(tree.elevator, 9.81));
+         system.computeTwists();
+         system.computeSpatialAccelerations(true, true);
+
+         Twist expectedTwist = new Twist();
+         Twist actualTwist = new Twist();
+         SpatialAccelerationVector expectedAcceleration = new SpatialAccelerationVector();
+         SpatialAccelerationVector actualAcceleration = new SpatialAccelerationVector();
+
+         for (int i = 0; i < system.getNumberOfBodies(); i++)
+         {
+            RigidBody body = system.getBody(i);
+
+            twistCalculator.getTwistOfBody(expectedTwist, body);
+            system.getTwistOfBody(i, worldFrame, actualTwist);
+            assertTrue(expectedTwist.epsilonEquals(actualTwist, EPSILON));
+
+            spatialAccelerationCalculator.getAccelerationOfBody(expectedAcceleration, body);
+            system.getAccelerationOfBody(i, worldFrame, actualAcceleration);
+            assertTrue(expectedAcceleration.epsilonEquals(actualAcceleration, EPSILON));
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testInverseDynamics()
+   {
+      Random random = new Random(1452L);
+
+      for (int iteration = 0; iteration < NUMBER_OF_ITERATIONS; iteration++)
+      {
+         RandomFloatingTree tree = new RandomFloatingTree(random);
+         tree.setRandomState(random);
+
+         TwistCalculator twistCalculator = new TwistCalculator(worldFrame, tree.elevator);
+         InverseDynamicsCalculator expectedCalculator = new InverseDynamicsCalculator(twistCalculator, 9.81);
+         InverseDynamicsCalculator flattenedCalculator = new InverseDynamicsCalculator(twistCalculator, 9.81);
+         flattenedCalculator.setUseFlattenedMultiBodySystem(true);
+
+         RigidBody leaf = tree.joints.get(tree.joints.size() - 1).getSuccessor();
+         Wrench externalWrench = new Wrench(leaf.getBodyFixedFrame(), leaf.getBodyFixedFrame(), RandomMatrices.createRandom(6, 1, random));
+         expectedCalculator.setExternalWrench(leaf, externalWrench);
+         flattenedCalculator.setExternalWrench(leaf, externalWrench);
+
+         twistCalculator.compute();
+         expectedCalculator.compute();
+         DenseMatrix64F expectedTorques = ScrewTools.getTauMatrix(tree.getJointsInOrder());
+         Wrench expectedWrench = new Wrench();
+         List<Wrench> expectedWrenches = new ArrayList<>();
+         for (InverseDynamicsJoint joint : tree.getJointsInOrder())
+         {
+            expectedCalculator.getJointWrench(joint, expectedWrench);
+            expectedWrenches.add(new Wrench(expectedWrench));
+         }
+
+         flattenedCalculator.compute();
+         DenseMatrix64F actualTorques = ScrewTools.getTauMatrix(tree.getJointsInOrder());
+         Wrench actualWrench = new Wrench();
+         InverseDynamicsJoint[] joints = tree.getJointsInOrder();
+         for (int i = 0; i < joints.length; i++)
+         {
+            flattenedCalculator.getJointWrench(joints[i], actualWrench);
+            assertWrenchEquals(expectedWrenches.get(i), actualWrench);
+         }
+
+         assertTrue(MatrixFeatures.isEquals(expectedTorques, actualTorques, EPSILON));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testMassMatrix()
+   {
+      Random random = new Random(1453L);
+
+      for (int iteration = 0; iteration < NUMBER_OF_ITERATIONS; iteration++)
+      {
+         RandomFloatingTree tree = new RandomFloatingTree(random);
+         tree.setRandomState(random);
+
+         CompositeRigidBodyMassMatrixCalculator expectedCalculator = new CompositeRigidBodyMassMatrixCalculator(tree.elevator);
+         CompositeRigidBodyMassMatrixCalculator flattenedCalculator = new CompositeRigidBodyMassMatrixCalculator(tree.elevator);
+         flattenedCalculator.setUseFlattenedMultiBodySystem(true);
+
+         expectedCalculator.compute();
+         flattenedCalculator.compute();
+
+         assertTrue(MatrixFeatures.isEquals(expectedCalculator.getMassMatrix(), flattenedCalculator.getMassMatrix(), EPSILON));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testCentroidalMomentumMatrix()
+   {
+      Random random = new Random(1454L);
+
+      for (int iteration = 0; iteration < NUMBER_OF_ITERATIONS; iteration++)
+      {
+         RandomFloatingTree tree = new RandomFloatingTree(random);
+         tree.setRandomState(random);
+
+         CenterOfMassReferenceFrame centerOfMassFrame = new CenterOfMassReferenceFrame("centerOfMass", worldFrame, tree.elevator);
+         centerOfMassFrame.update();
+
+         CentroidalMomentumMatrix expectedMatrix = new CentroidalMomentumMatrix(tree.elevator, centerOfMassFrame);
+         CentroidalMomentumMatrix flattenedMatrix = new CentroidalMomentumMatrix(tree.elevator, centerOfMassFrame);
+         flattenedMatrix.setUseFlattenedMultiBodySystem(true);
+
+         expectedMatrix.compute();
+         flattenedMatrix.compute();
+
+         assertTrue(MatrixFeatures.isEquals(expectedMatrix.getMatrix(), flattenedMatrix.getMatrix(), EPSILON));
+      }
+   }
+
+   private static void assertWrenchEquals(Wrench expected, Wrench actual)
+   {
+      expected.getBodyFrame().checkReferenceFrameMatch(actual.getBodyFrame());
+      expected.getExpressedInFrame().checkReferenceFrameMatch(actual.getExpressedInFrame());
+      DenseMatrix64F expectedMatrix = new DenseMatrix64F(6, 1);
+      DenseMatrix64F actualMatrix = new DenseMatrix64F(6, 1);
+      expected.getMatrix(expectedMatrix);
+      actual.getMatrix(actualMatrix);
+      assertTrue(MatrixFeatures.isEquals(expectedMatrix, actualMatrix, EPSILON));
+   }
+
+   private static class RandomFloatingTree
+   {
+      private final RigidBody elevator;
+      private final SixDoFJoint rootJoint;
+      private final List<OneDoFJoint> joints = new ArrayList<>();
+
+      public RandomFloatingTree(Random random)
+      {
+         elevator = new RigidBody("elevator", ReferenceFrame.getWorldFrame());
+         rootJoint = new SixDoFJoint("rootJoint", elevator, elevator.getBodyFixedFrame());
+         RigidBody rootBody = ScrewTestTools.addRandomRigidBody("rootBody", random, rootJoint);
+         joints.addAll(ScrewTestTools.createRandomTreeRobotWithOneDoFJoints("tree", rootBody, 20, random));
+      }
+
+      public void setRandomState(Random random)
+      {
+         ScrewTestTools.setRandomPositionAndOrientation(rootJoint, random);
+         ScrewTestTools.setRandomVelocity(rootJoint, random);
+         ScrewTestTools.setRandomPositions(joints, random);
+         ScrewTestTools.setRandomVelocities(joints, random);
+         ScrewTestTools.setRandomDesiredAccelerations(joints, random);
+         DenseMatrix64F rootJointAcceleration = RandomMatrices.createRandom(6, 1, random);
+         rootJoint.setDesiredAcceleration(rootJointAcceleration, 0);
+         elevator.updateFramesRecursively();
+      }
+
+      public InverseDynamicsJoint[] getJointsInOrder()
+      {
+         return ScrewTools.computeSubtreeJoints(elevator);
+      }
+   }
+}
@@ -0,0 +1,89 @@
+package us.ihmc.robotics.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class LatencyHistogramTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testPercentilesAreWithinTheBucketPrecision()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry("test");
+      LatencyHistogram histogram = new LatencyHistogram("stage", 1.0e-3, registry);
+      Random random = new Random(1776L);
+
+      long[] times = new long[100000];
+      for (int i = 0; i < times.length; i++)
+      {
+         // Mostly around 300us with a long tail.
+         times[i] = (long) (300000.0 * Math.exp(0.5 * random.nextGaussian()));
+         histogram.record(times[i]);
+      }
+      Arrays.sort(times);
+
+      double relativePrecision = 2.0 / LatencyHistogram.SUB_BUCKET_COUNT;
+      for (double percentile : new double[] {50.0, 90.0, 99.0, 99.9, 100.0})
+      {
+         double expected = TimeTools.nanoSecondstoSeconds(times[(int) Math.ceil(percentile / 100.0 * times.length) - 1]);
+         assertEquals(expected, histogram.getPercentile(percentile), expected * relativePrecision);
+      }
+
+      assertEquals(histogram.getPercentile(99.0), histogram.getPercentile99().getDoubleValue(), 0.0);
+      assertEquals(histogram.getPercentile(99.9), registry.getVariable("stageP999").getValueAsDouble(), 0.0);
+      assertEquals(TimeTools.nanoSecondstoSeconds(times[times.length - 1]), histogram.getMaximum(), 0.0);
+      assertEquals(times.length, histogram.getTotalCount());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testDeadlineMissesAndReset()
+   {
+      LatencyHistogram histogram = new LatencyHistogram("stage", 1.0e-3, new YoVariableRegistry("test"));
+
+      for (int i = 0; i < 10; i++)
+         histogram.record(i);
+      assertEquals(4.0e-9, histogram.getPercentile(50.0), 0.0);
+
+      histogram.record(999999L);
+      histogram.record(1000001L);
+      histogram.record(100L * 1000000000L); // Beyond the largest bucket.
+      assertEquals(2, histogram.getDeadlineMisses());
+      assertEquals(100.0, histogram.getPercentile(100.0), 0.0);
+
+      histogram.updatePercentiles();
+      assertTrue(histogram.getPercentile999().getDoubleValue() > 1.0e-3);
+
+      histogram.reset();
+      assertEquals(0, histogram.getTotalCount());
+      assertEquals(0, histogram.getDeadlineMisses());
+      assertEquals(0.0, histogram.getPercentile(99.0), 0.0);
+      assertEquals(0.0, histogram.getPercentile999().getDoubleValue(), 0.0);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testExecutionTimerFeedsTheHistogram()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry("test");
+      ExecutionTimer timer = new ExecutionTimer("timer", 0.0, 1.0e-9, registry);
+
+      for (int i = 0; i < LatencyHistogram.PERCENTILE_UPDATE_PERIOD; i++)
+      {
+         timer.startMeasurement();
+         timer.stopMeasurement();
+      }
+
+      assertEquals(LatencyHistogram.PERCENTILE_UPDATE_PERIOD, timer.getLatencyHistogram().getTotalCount());
+      assertTrue(registry.getVariable("timerP50").getValueAsDouble() > 0.0);
+      assertEquals(null, new ExecutionTimer("noHistogram", 0.0, registry).getLatencyHistogram());
+   }
+}
@@ -75,7 +75,7 @@ public class DRCControllerThread implements MultiThreadedRobotControlElement
 
    private final ModularRobotController robotController;
 
-   private final ExecutionTimer controllerTimer = new ExecutionTimer("controllerTimer", 10.0, registry);
+   private final ExecutionTimer controllerTimer;
    private final LongYoVariable lastEstimatorStartTime = new LongYoVariable("nextExecutionTime", registry);
    private final LongYoVariable totalDelay = new LongYoVariable("totalDelay", registry);
    private final LongYoVariable expectedEstimatorTick = new LongYoVariable("expectedEstimatorTick", registry);
@@ -112,6 +112,7 @@ public class DRCControllerThread implements MultiThreadedRobotControlElement
       this.controlDTInNS = TimeTools.secondsToNanoSeconds(robotModel.getControllerDT());
       this.estimatorDTInNS = TimeTools.secondsToNanoSeconds(estimatorDT);
       this.estimatorTicksPerControlTick = this.controlDTInNS / this.estimatorDTInNS;
+      this.controllerTimer = new ExecutionTimer("controllerTimer", 10.0, robotModel.getControllerDT(), registry);
       this.controllerFullRobotModel = threadDataSynchronizer.getControllerFullRobotModel();
       this.rootFrame = this.controllerFullRobotModel.getRootJoint().getFrameAfterJoint();
       this.outputProcessor = robotModel.getOutputProcessor(controllerFullRobotModel);
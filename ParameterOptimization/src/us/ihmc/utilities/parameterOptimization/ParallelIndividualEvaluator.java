@@ -0,0 +1,274 @@
+package us.ihmc.utilities.parameterOptimization;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates {@link IndividualToEvaluate}s in parallel on a pool of worker threads.
+ * <p>
+ * Each individual is started and run to completion on a worker, so the individuals must not share state: every individual made by
+ * {@link IndividualToEvaluate#createNewIndividual()} is expected to own its simulation. The returned futures complete when the fitness is known.
+ * </p>
+ * <p>
+ * Fitnesses are cached by the values of the parameters to optimize, which is what the genotype of an individual decodes to. An individual with the same
+ * parameters as one already evaluated, or being evaluated, gets its fitness from the cache instead of being simulated again. The cache assumes that the
+ * evaluations are deterministic and can be disabled with {@link #setUseFitnessCache(boolean)}.
+ * </p>
+ */
+public class ParallelIndividualEvaluator
+{
+   private static final long ASYNCHRONOUS_EVALUATION_POLLING_PERIOD_MS = 10;
+
+   private final int numberOfThreads;
+   private final ExecutorService executorService;
+   private final ConcurrentHashMap<FitnessCacheKey, FutureTask<Double>> fitnessCache = new ConcurrentHashMap<FitnessCacheKey, FutureTask<Double>>();
+   private volatile boolean useFitnessCache = true;
+
+   private final AtomicInteger numberOfSimulatedIndividuals = new AtomicInteger();
+   private final AtomicInteger numberOfCacheHits = new AtomicInteger();
+   private long firstSubmissionTime = -1L;
+   private long lastCompletionTime = -1L;
+   private int numberOfEvaluatedIndividuals = 0;
+
+   public ParallelIndividualEvaluator()
+   {
+      this(Runtime.getRuntime().availableProcessors());
+   }
+
+   public ParallelIndividualEvaluator(int numberOfThreads)
+   {
+      this.numberOfThreads = numberOfThreads;
+      executorService = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory()
+      {
+         private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+         @Override
+         public Thread newThread(Runnable runnable)
+         {
+            Thread thread = new Thread(runnable, "IndividualEvaluator-thread-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+         }
+      });
+   }
+
+   /**
+    * Submits the evaluation of {@code individual} to the worker pool.
+    *
+    * @return the fitness of the individual, once evaluated. If the evaluation throws, so does {@link Future#get()}.
+    */
+   public Future<Double> evaluate(final IndividualToEvaluate individual)
+   {
+      synchronized (this)
+      {
+         if (firstSubmissionTime < 0L)
+            firstSubmissionTime = System.nanoTime();
+      }
+
+      return executorService.submit(new Callable<Double>()
+      {
+         @Override
+         public Double call() throws Exception
+         {
+            double fitness = useFitnessCache ? evaluateUsingCache(individual) : simulate(individual);
+            evaluationCompleted();
+            return fitness;
+         }
+      });
+   }
+
+   /**
+    * Evaluates all the individuals and waits for them to be done.
+    */
+   public void evaluateAll(IndividualToEvaluate[] individuals)
+   {
+      Future<?>[] futures = new Future<?>[individuals.length];
+      for (int i = 0; i < individuals.length; i++)
+         futures[i] = evaluate(individuals[i]);
+
+      for (int i = 0; i < futures.length; i++)
+         waitForEvaluation(futures[i]);
+   }
+
+   /**
+    * Waits for the given evaluation to be done and returns the fitness, rethrowing a failure of the evaluation as a {@link RuntimeException}.
+    */
+   public static double waitForEvaluation(Future<?> evaluation)
+   {
+      try
+      {
+         return ((Number) evaluation.get()).doubleValue();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new RuntimeException("Interrupted while waiting for an evaluation", e);
+      }
+      catch (ExecutionException e)
+      {
+         throw new RuntimeException("Evaluation failed", e.getCause());
+      }
+   }
+
+   private double evaluateUsingCache(final IndividualToEvaluate individual) throws Exception
+   {
+      FitnessCacheKey key = new FitnessCacheKey(individual.getAllParametersToOptimize().getValuesAsDoubles());
+      FutureTask<Double> simulation = new FutureTask<Double>(new Callable<Double>()
+      {
+         @Override
+         public Double call() throws Exception
+         {
+            return simulate(individual);
+         }
+      });
+
+      FutureTask<Double> cachedSimulation = fitnessCache.putIfAbsent(key, simulation);
+      if (cachedSimulation == null)
+      {
+         simulation.run();
+         try
+         {
+            return getFitness(simulation);
+         }
+         catch (Exception e)
+         {
+            fitnessCache.remove(key, simulation);
+            throw e;
+         }
+      }
+
+      // Already simulated, or being simulated by another worker.
+      double fitness = getFitness(cachedSimulation);
+      individual.setFitness(fitness);
+      numberOfCacheHits.incrementAndGet();
+      return fitness;
+   }
+
+   private static double getFitness(FutureTask<Double> simulation) throws Exception
+   {
+      try
+      {
+         return simulation.get();
+      }
+      catch (ExecutionException e)
+      {
+         if (e.getCause() instanceof Exception)
+            throw (Exception) e.getCause();
+         throw e;
+      }
+   }
+
+   private double simulate(IndividualToEvaluate individual) throws InterruptedException
+   {
+      if (!individual.isEvaluationDone())
+         individual.startEvaluation();
+
+      // Individuals that hand off their evaluation, for instance to a simulation dispatcher, are done later.
+      while (!individual.isEvaluationDone())
+         Thread.sleep(ASYNCHRONOUS_EVALUATION_POLLING_PERIOD_MS);
+
+      numberOfSimulatedIndividuals.incrementAndGet();
+      return individual.getFitness();
+   }
+
+   private synchronized void evaluationCompleted()
+   {
+      numberOfEvaluatedIndividuals++;
+      lastCompletionTime = System.nanoTime();
+   }
+
+   /**
+    * @return the number of individuals evaluated per minute, between the first submission and the last completed evaluation.
+    */
+   public synchronized double getIndividualsPerMinute()
+   {
+      if (numberOfEvaluatedIndividuals == 0)
+         return 0.0;
+
+      double elapsedMinutes = (lastCompletionTime - firstSubmissionTime) * 1.0e-9 / 60.0;
+      return elapsedMinutes > 0.0 ? numberOfEvaluatedIndividuals / elapsedMinutes : Double.POSITIVE_INFINITY;
+   }
+
+   public int getNumberOfThreads()
+   {
+      return numberOfThreads;
+   }
+
+   public synchronized int getNumberOfEvaluatedIndividuals()
+   {
+      return numberOfEvaluatedIndividuals;
+   }
+
+   /**
+    * @return the number of individuals actually simulated, the others got their fitness from the cache.
+    */
+   public int getNumberOfSimulatedIndividuals()
+   {
+      return numberOfSimulatedIndividuals.get();
+   }
+
+   public int getNumberOfCacheHits()
+   {
+      return numberOfCacheHits.get();
+   }
+
+   public void setUseFitnessCache(boolean useFitnessCache)
+   {
+      this.useFitnessCache = useFitnessCache;
+   }
+
+   public void clearFitnessCache()
+   {
+      fitnessCache.clear();
+   }
+
+   public synchronized void resetStatistics()
+   {
+      numberOfSimulatedIndividuals.set(0);
+      numberOfCacheHits.set(0);
+      numberOfEvaluatedIndividuals = 0;
+      firstSubmissionTime = -1L;
+      lastCompletionTime = -1L;
+   }
+
+   public void shutdown()
+   {
+      executorService.shutdownNow();
+   }
+
+   private static class FitnessCacheKey
+   {
+      private final double[] values;
+      private final int hashCode;
+
+      public FitnessCacheKey(double[] values)
+      {
+         this.values = values;
+         this.hashCode = Arrays.hashCode(values);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hashCode;
+      }
+
+      @Override
+      public boolean equals(Object object)
+      {
+         if (!(object instanceof FitnessCacheKey))
+            return false;
+
+         FitnessCacheKey other = (FitnessCacheKey) object;
+         return hashCode == other.hashCode && Arrays.equals(values, other.values);
+      }
+   }
+}
@@ -9,11 +9,21 @@ public class SimpleRandomGradientDecentParameterOptimizer implements ParameterOp
 
    private final double stepChange;
    private final Random random;
+   private final ParallelIndividualEvaluator individualEvaluator;
    
    public SimpleRandomGradientDecentParameterOptimizer(Random random, double stepChange)
+   {
+      this(random, stepChange, null);
+   }
+
+   /**
+    * With an evaluator, each step tries one random change per worker thread in parallel and keeps the best one, instead of trying a single change.
+    */
+   public SimpleRandomGradientDecentParameterOptimizer(Random random, double stepChange, ParallelIndividualEvaluator individualEvaluator)
    {
       this.random = random;
       this.stepChange = stepChange;
+      this.individualEvaluator = individualEvaluator;
    }
    
    public IndividualToEvaluate optimize(OptimizationProblem optimizationProblem)
@@ -39,23 +49,76 @@ public class SimpleRandomGradientDecentParameterOptimizer implements ParameterOp
       IndividualToEvaluate bestIndividual = null;
       int maximumNumberOfEvaluations = optimizationProblem.getMaximumNumberOfIndividualsToEvaluate();
       
-      for (int i=0; i<maximumNumberOfEvaluations; i++)
+      int numberOfChangesPerStep = individualEvaluator == null ? 1 : individualEvaluator.getNumberOfThreads();
+      int numberOfEvaluations = 0;
+      
+      while (numberOfEvaluations < maximumNumberOfEvaluations)
       {
-         int parameterToChangeIndex = random.nextInt(numberOfParameters);
-//         ParameterToOptimize parameterToChange = listOfParametersToOptimize.get(parameterToChangeIndex);
-         double currentValue = zeroToOnes[parameterToChangeIndex];
-         double change = (1.0 - 2.0 * random.nextDouble()) * stepChange;
-         double newValue = currentValue + change;
-         
-         if (newValue < 0.0) newValue = 0.0;
-         if (newValue > 1.0) newValue = 1.0;
-         
-         zeroToOnes[parameterToChangeIndex] = newValue;
-         
-         IndividualToEvaluate testIndividual = seedIndividual.createNewIndividual();
-         ListOfParametersToOptimize listOfParametersToOptimize = testIndividual.getAllParametersToOptimize();
-         listOfParametersToOptimize.setCurrentValuesGivenZeroToOnes(zeroToOnes);
+         int numberOfChanges = Math.min(numberOfChangesPerStep, maximumNumberOfEvaluations - numberOfEvaluations);
+         double[][] changedZeroToOnes = new double[numberOfChanges][];
+         IndividualToEvaluate[] testIndividuals = new IndividualToEvaluate[numberOfChanges];
+
+         for (int i=0; i<numberOfChanges; i++)
+         {
+            int parameterToChangeIndex = random.nextInt(numberOfParameters);
+//            ParameterToOptimize parameterToChange = listOfParametersToOptimize.get(parameterToChangeIndex);
+            double currentValue = zeroToOnes[parameterToChangeIndex];
+            double change = (1.0 - 2.0 * random.nextDouble()) * stepChange;
+            double newValue = currentValue + change;
+
+            if (newValue < 0.0) newValue = 0.0;
+            if (newValue > 1.0) newValue = 1.0;
+
+            changedZeroToOnes[i] = zeroToOnes.clone();
+            changedZeroToOnes[i][parameterToChangeIndex] = newValue;
+
+            testIndividuals[i] = seedIndividual.createNewIndividual();
+            ListOfParametersToOptimize listOfParametersToOptimize = testIndividuals[i].getAllParametersToOptimize();
+            listOfParametersToOptimize.setCurrentValuesGivenZeroToOnes(changedZeroToOnes[i]);
+         }
+
+         evaluate(testIndividuals);
+         numberOfEvaluations += numberOfChanges;
 
+         int bestChangeIndex = -1;
+         for (int i=0; i<numberOfChanges; i++)
+         {
+            double cost = testIndividuals[i].getFitness();
+            notifyEvaluatedIndividualListeners(testIndividuals[i]);
+
+//            double cost = costFunction.evaluate(listOfParametersToOptimize);
+//            System.out.println("Parameter optimizer: cost = " + cost + ", bestCost = " + bestCost);
+
+            boolean improvement = isAnImprovement(cost, bestCost, maximize);
+
+            if (improvement)
+            {
+               bestCost = cost;
+               bestIndividual = testIndividuals[i];
+               bestChangeIndex = i;
+            }
+         }
+
+         if (bestChangeIndex >= 0)
+            zeroToOnes = changedZeroToOnes[bestChangeIndex];
+
+         boolean cutoffFitnessReached = isAnImprovement(bestCost, cutoffFitness, maximize);
+         if (cutoffFitnessReached) return bestIndividual;
+      }
+      
+      return bestIndividual;
+   }
+
+   private void evaluate(IndividualToEvaluate[] testIndividuals)
+   {
+      if (individualEvaluator != null)
+      {
+         individualEvaluator.evaluateAll(testIndividuals);
+         return;
+      }
+
+      for (IndividualToEvaluate testIndividual : testIndividuals)
+      {
          testIndividual.startEvaluation();
          while(!testIndividual.isEvaluationDone())
          {
@@ -67,29 +130,7 @@ public class SimpleRandomGradientDecentParameterOptimizer implements ParameterOp
             {
             }
          }
-         double cost = testIndividual.getFitness();
-         notifyEvaluatedIndividualListeners(testIndividual);
-         
-//         double cost = costFunction.evaluate(listOfParametersToOptimize);
-//         System.out.println("Parameter optimizer: cost = " + cost + ", bestCost = " + bestCost);
-         
-         boolean improvement = isAnImprovement(cost, bestCost, maximize);
-         
-         if (improvement)
-         {
-            bestCost = cost;
-            bestIndividual = testIndividual;
-         }
-         else
-         {
-            zeroToOnes[parameterToChangeIndex] = currentValue;
-         }
-
-         boolean cutoffFitnessReached = isAnImprovement(bestCost, cutoffFitness, maximize);
-         if (cutoffFitnessReached) return bestIndividual;
       }
-      
-      return bestIndividual;
    }
 
    private boolean isAnImprovement(double newCost, double oldCost, boolean maximize)
@@ -3,10 +3,13 @@ package us.ihmc.utilities.parameterOptimization.geneticAlgorithm;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Random;
+import java.util.concurrent.Future;
 
 import us.ihmc.utilities.parameterOptimization.EvaluatedIndividualListener;
 import us.ihmc.utilities.parameterOptimization.IndividualToEvaluate;
+import us.ihmc.utilities.parameterOptimization.ParallelIndividualEvaluator;
 
 /**
  * <p>Title: Genetic Algorithm Library </p>
@@ -34,6 +37,7 @@ public class Population
    private final int popNumber;
 
    private final Comparator<GeneticAlgorithmIndividualToEvaluate> comparator;
+   private final ParallelIndividualEvaluator individualEvaluator;
    
    private boolean allIndividualsEvaluated = false;
 
@@ -57,6 +61,7 @@ public class Population
       this.popName = name;
       this.popNumber = popNumber;
       this.comparator = comparator;
+      this.individualEvaluator = populationParameters.getIndividualEvaluator();
       
       generation = new GeneticAlgorithmIndividualToEvaluate[numIndividuals];
 
@@ -112,13 +117,15 @@ public class Population
 //      // evaluateAllIndividuals();
 //   }
 
-   private Population(Random random, int numberOfIndividuals, Comparator<GeneticAlgorithmIndividualToEvaluate> comparator, String name, int popNumber)
+   private Population(Random random, int numberOfIndividuals, Comparator<GeneticAlgorithmIndividualToEvaluate> comparator, String name, int popNumber,
+         ParallelIndividualEvaluator individualEvaluator)
    {
       this.random = random;
       
       this.popName = name;
       this.popNumber = popNumber;
       this.comparator = comparator;
+      this.individualEvaluator = individualEvaluator;
       
       generation = new GeneticAlgorithmIndividualToEvaluate[numberOfIndividuals];
 
@@ -147,6 +154,12 @@ public class Population
       if (allIndividualsEvaluated)
          return;
 
+      if (individualEvaluator != null)
+      {
+         evaluateAllIndividualsInParallel();
+         return;
+      }
+
       // System.out.println("Starting the Evals");
       for (int i = 0; i < generation.length; i++)
       {
@@ -174,6 +187,25 @@ public class Population
 
       allIndividualsEvaluated = true;
    }
+
+   private void evaluateAllIndividualsInParallel()
+   {
+      // Parents that are not mated are copied into the next generation, so the same individual can be there more than once.
+      IdentityHashMap<GeneticAlgorithmIndividualToEvaluate, Future<Double>> evaluations = new IdentityHashMap<GeneticAlgorithmIndividualToEvaluate, Future<Double>>();
+      for (int i = 0; i < generation.length; i++)
+      {
+         if (!evaluations.containsKey(generation[i]))
+            evaluations.put(generation[i], individualEvaluator.evaluate(generation[i].getIndividualToEvaluate()));
+      }
+
+      for (int i = 0; i < generation.length; i++)
+      {
+         ParallelIndividualEvaluator.waitForEvaluation(evaluations.get(generation[i]));
+         notifyEvaluatedIndividualListeners(generation[i].getIndividualToEvaluate());
+      }
+
+      allIndividualsEvaluated = true;
+   }
    
 
    public int getNumberOfIndividuals()
@@ -199,7 +231,7 @@ public class Population
 
    public Population breed(double crossoverRate, double mutationRate)
    {
-      Population retPop = new Population(this.random, generation.length, this.comparator, this.popName, this.popNumber + 1);
+      Population retPop = new Population(this.random, generation.length, this.comparator, this.popName, this.popNumber + 1, individualEvaluator);
 
       GeneticAlgorithmIndividualToEvaluate parent1, parent2;
       GeneticAlgorithmIndividualToEvaluate[] children = new GeneticAlgorithmIndividualToEvaluate[2];
@@ -4,6 +4,7 @@ import java.util.Comparator;
 import java.util.Random;
 
 import us.ihmc.utilities.parameterOptimization.IndividualToEvaluate;
+import us.ihmc.utilities.parameterOptimization.ParallelIndividualEvaluator;
 
 public class PopulationParameters
 {
@@ -18,6 +19,8 @@ public class PopulationParameters
    private int numberOfSeedIndividualsToCopyIntoFirstPopulation = 0;
    private double mutationRateForCopiedIndividuals = 0.0;
    
+   private ParallelIndividualEvaluator individualEvaluator;
+   
    public PopulationParameters(String name, Random random, int populationSize)
    {
       this.name = name;
@@ -75,6 +78,19 @@ public class PopulationParameters
    {
       return random;
    }
+
+   public ParallelIndividualEvaluator getIndividualEvaluator()
+   {
+      return individualEvaluator;
+   }
+
+   /**
+    * Sets the evaluator used to evaluate the individuals of the populations in parallel. If null, the individuals are evaluated one at a time.
+    */
+   public void setIndividualEvaluator(ParallelIndividualEvaluator individualEvaluator)
+   {
+      this.individualEvaluator = individualEvaluator;
+   }
   
 
 }
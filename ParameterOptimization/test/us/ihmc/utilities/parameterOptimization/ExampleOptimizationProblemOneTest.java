@@ -34,6 +34,33 @@ public class ExampleOptimizationProblemOneTest
       
       assertEquals(10.0, optimalX, 0.02);
    }
+
+	@ContinuousIntegrationTest(estimatedDuration = 0.1)
+	@Test(timeout = 30000)
+   public void testSimpleXSquaredOptimizationInParallel()
+   {
+      SimpleXSquaredCostFunction sampleCostFunction = new SimpleXSquaredCostFunction();      
+      boolean maximize = false;
+      double cutoffFitness = Double.NEGATIVE_INFINITY;
+      
+      int maximumNumberOfIndividualsToEvaluate = 2000;
+      OptimizationProblem optimizationProblem = new OptimizationProblem(sampleCostFunction, maximize, cutoffFitness, maximumNumberOfIndividualsToEvaluate);
+      
+      double stepChange = 0.01;
+      Random random = new Random(1776L);
+      ParallelIndividualEvaluator individualEvaluator = new ParallelIndividualEvaluator(4);
+      
+      SimpleRandomGradientDecentParameterOptimizer optimizer = new SimpleRandomGradientDecentParameterOptimizer(random, stepChange, individualEvaluator);
+      IndividualToEvaluate optimalIndividualToEvaluate = optimizer.optimize(optimizationProblem);
+      
+      ListOfParametersToOptimize optimalListOfParametersToOptimize = optimalIndividualToEvaluate.getAllParametersToOptimize();
+      DoubleParameterToOptimize optimalXParameter = (DoubleParameterToOptimize) optimalListOfParametersToOptimize.get(0);
+      double optimalX = optimalXParameter.getCurrentValue();
+      
+      assertEquals(10.0, optimalX, 0.02);
+      assertEquals(maximumNumberOfIndividualsToEvaluate, individualEvaluator.getNumberOfEvaluatedIndividuals());
+      individualEvaluator.shutdown();
+   }
    
    private class SimpleXSquaredCostFunction extends IndividualToEvaluate
    {
@@ -0,0 +1,136 @@
+package us.ihmc.utilities.parameterOptimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.utilities.parameterOptimization.geneticAlgorithm.ExampleIndividualToEvaluateOne;
+import us.ihmc.utilities.parameterOptimization.geneticAlgorithm.MaximizationIndividualComparator;
+import us.ihmc.utilities.parameterOptimization.geneticAlgorithm.Population;
+import us.ihmc.utilities.parameterOptimization.geneticAlgorithm.PopulationParameters;
+
+public class ParallelIndividualEvaluatorTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testDuplicateIndividualsAreNotSimulatedTwice()
+   {
+      ParallelIndividualEvaluator evaluator = new ParallelIndividualEvaluator(4);
+      AtomicInteger numberOfSimulations = new AtomicInteger();
+
+      int numberOfDifferentIndividuals = 10;
+      CountingIndividual[] individuals = new CountingIndividual[3 * numberOfDifferentIndividuals];
+      for (int i = 0; i < individuals.length; i++)
+      {
+         individuals[i] = new CountingIndividual(numberOfSimulations);
+         individuals[i].parameter.setCurrentValue(i % numberOfDifferentIndividuals);
+      }
+
+      evaluator.evaluateAll(individuals);
+
+      for (int i = 0; i < individuals.length; i++)
+         assertEquals(i % numberOfDifferentIndividuals, individuals[i].getFitness(), 0.0);
+
+      assertEquals(numberOfDifferentIndividuals, numberOfSimulations.get());
+      assertEquals(numberOfDifferentIndividuals, evaluator.getNumberOfSimulatedIndividuals());
+      assertEquals(individuals.length - numberOfDifferentIndividuals, evaluator.getNumberOfCacheHits());
+      assertEquals(individuals.length, evaluator.getNumberOfEvaluatedIndividuals());
+      assertTrue(evaluator.getIndividualsPerMinute() > 0.0);
+
+      evaluator.setUseFitnessCache(false);
+      evaluator.resetStatistics();
+      CountingIndividual individual = new CountingIndividual(numberOfSimulations);
+      assertEquals(0.0, ParallelIndividualEvaluator.waitForEvaluation(evaluator.evaluate(individual)), 0.0);
+      assertEquals(numberOfDifferentIndividuals + 1, numberOfSimulations.get());
+      assertEquals(0, evaluator.getNumberOfCacheHits());
+
+      evaluator.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testParallelPopulationEvolvesLikeSequentialOne()
+   {
+      ParallelIndividualEvaluator evaluator = new ParallelIndividualEvaluator(4);
+
+      Population sequentialPopulation = new Population(createPopulationParameters(null), 0);
+      Population parallelPopulation = new Population(createPopulationParameters(evaluator), 0);
+
+      for (int i = 0; i < 20; i++)
+      {
+         assertEquals(sequentialPopulation.getMaximumFitness(), parallelPopulation.getMaximumFitness(), 0.0);
+         assertEquals(sequentialPopulation.getAverageFitness(), parallelPopulation.getAverageFitness(), 0.0);
+         assertTrue(parallelPopulation.allIndividualsEvaluated());
+
+         sequentialPopulation = sequentialPopulation.breed(0.6, 0.01);
+         parallelPopulation = parallelPopulation.breed(0.6, 0.01);
+      }
+
+      assertTrue(evaluator.getNumberOfCacheHits() > 0);
+      evaluator.shutdown();
+   }
+
+   private static PopulationParameters createPopulationParameters(ParallelIndividualEvaluator evaluator)
+   {
+      PopulationParameters populationParameters = new PopulationParameters("test", new Random(1776L), 100);
+      populationParameters.setComparator(new MaximizationIndividualComparator());
+      populationParameters.setSeedIndividualToEvaluate(new ExampleIndividualToEvaluateOne());
+      populationParameters.setIndividualEvaluator(evaluator);
+      return populationParameters;
+   }
+
+   private static class CountingIndividual extends IndividualToEvaluate
+   {
+      private final ListOfParametersToOptimize listOfParametersToOptimize = new ListOfParametersToOptimize();
+      private final IntegerParameterToOptimize parameter = new IntegerParameterToOptimize("parameter", 0, 100, listOfParametersToOptimize);
+      private final AtomicInteger numberOfSimulations;
+      private volatile boolean evaluationDone = false;
+
+      public CountingIndividual(AtomicInteger numberOfSimulations)
+      {
+         this.numberOfSimulations = numberOfSimulations;
+      }
+
+      @Override
+      public IndividualToEvaluate createNewIndividual()
+      {
+         return new CountingIndividual(numberOfSimulations);
+      }
+
+      @Override
+      public ListOfParametersToOptimize getControlParametersToOptimize()
+      {
+         return listOfParametersToOptimize;
+      }
+
+      @Override
+      public ListOfParametersToOptimize getStructuralParametersToOptimize()
+      {
+         return null;
+      }
+
+      @Override
+      public void startEvaluation()
+      {
+         numberOfSimulations.incrementAndGet();
+         evaluationDone = true;
+      }
+
+      @Override
+      public boolean isEvaluationDone()
+      {
+         return evaluationDone;
+      }
+
+      @Override
+      public double computeFitness()
+      {
+         return parameter.getCurrentValue();
+      }
+   }
+}
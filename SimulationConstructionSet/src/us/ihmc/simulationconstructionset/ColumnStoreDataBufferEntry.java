@@ -0,0 +1,363 @@
+package us.ihmc.simulationconstructionset;
+
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.simulationconstructionset.dataBuffer.DataBufferColumnStore;
+
+/**
+ * DataBufferEntry that keeps its samples in one column of a shared {@link DataBufferColumnStore} instead of in its own double array.
+ * <p>
+ * Min and max are maintained incrementally by the store, so recording a sample never rescans the data. {@link #getData()} returns a
+ * copy of the column that is only refreshed when samples changed since the last call. Writing into that array does not change
+ * the stored samples.
+ */
+public class ColumnStoreDataBufferEntry extends DataBufferEntry
+{
+   private final DataBufferColumnStore columnStore;
+   private final int column;
+   private int length;
+
+   private double[] dataCopy = null;
+   private boolean dataCopyStale = true;
+
+   private boolean minMaxChanged = true;
+   private double reportedMin = 0.0, reportedMax = 0.0;
+
+   public ColumnStoreDataBufferEntry(YoVariable<?> variable, DataBufferColumnStore columnStore, int nPoints)
+   {
+      super(variable);
+
+      this.columnStore = columnStore;
+      this.column = columnStore.addColumn();
+
+      columnStore.ensureCapacity(nPoints);
+      clearData(nPoints);
+   }
+
+   public int getColumn()
+   {
+      return column;
+   }
+
+   @Override
+   public int getDataLength()
+   {
+      return length;
+   }
+
+   @Override
+   public synchronized double[] getData()
+   {
+      if (dataCopy == null || dataCopy.length != length)
+      {
+         dataCopy = new double[length];
+         dataCopyStale = true;
+      }
+
+      if (dataCopyStale)
+      {
+         dataCopyStale = false;
+         columnStore.read(column, dataCopy, length);
+      }
+
+      return dataCopy;
+   }
+
+   public double getDataAtIndex(int index)
+   {
+      return columnStore.get(column, index);
+   }
+
+   @Override
+   protected void copyValueThrough()
+   {
+      columnStore.fill(column, 0, length, getVariableValueAsADouble());
+      dataHasChanged();
+   }
+
+   @Override
+   protected void enlargeBufferSize(int newSize)
+   {
+      columnStore.ensureCapacity(newSize);
+      columnStore.fill(column, length, newSize, columnStore.get(column, length - 1));
+
+      length = newSize;
+      dataHasChanged();
+   }
+
+   @Override
+   protected int cropData(int start, int end)
+   {
+      if ((start < 0) || (end > length))
+         return -1;
+
+      int oldNPoints = length;
+      int nPoints = computeBufferSizeAfterCrop(start, end, oldNPoints);
+
+      if (nPoints == 0)
+         nPoints = oldNPoints;
+
+      double[] oldData = readColumn();
+      double[] newData = new double[nPoints];
+
+      for (int i = 0; i < nPoints; i++)
+      {
+         newData[i] = oldData[(i + start) % oldNPoints];
+      }
+
+      writeColumn(newData, nPoints);
+
+      return length;
+   }
+
+   @Override
+   public int cutData(int start, int end)
+   {
+      if (start > end)
+         return -1;
+
+      if ((start < 0) || (end > length))
+         return -1;
+
+      int oldNPoints = length;
+      int nPoints = computeBufferSizeAfterCut(start, end, oldNPoints);
+
+      if (nPoints == 0)
+         nPoints = oldNPoints;
+
+      double[] oldData = readColumn();
+      double[] newData = new double[nPoints];
+
+      int difference = end - start + 1;
+      System.arraycopy(oldData, 0, newData, 0, start);
+
+      for (int i = end + 1; i < oldNPoints; i++)
+      {
+         newData[i - difference] = oldData[i];
+      }
+
+      writeColumn(newData, nPoints);
+
+      return length;
+   }
+
+   @Override
+   public int thinData(int keepEveryNthPoint)
+   {
+      int newNumberOfPoints = length / keepEveryNthPoint;
+
+      double[] oldData = readColumn();
+      double[] newData = new double[newNumberOfPoints];
+
+      for (int index = 0; index < newNumberOfPoints; index++)
+      {
+         newData[index] = oldData[index * keepEveryNthPoint];
+      }
+
+      writeColumn(newData, newNumberOfPoints);
+
+      return newNumberOfPoints;
+   }
+
+   @Override
+   protected void packData(int start)
+   {
+      if ((start <= 0) || (start >= length))
+         return;
+
+      double[] oldData = readColumn();
+      double[] newData = new double[length];
+
+      for (int i = 0; i < length; i++)
+      {
+         newData[i] = oldData[(i + start) % length];
+      }
+
+      writeColumn(newData, length);
+   }
+
+   @Override
+   public void setDataAtIndexToYoVariableValue(int index)
+   {
+      columnStore.set(column, index, getVariableValueAsADouble());
+      dataCopyStale = true;
+   }
+
+   @Override
+   protected void setYoVariableValueToDataAtIndex(int index)
+   {
+      getVariable().setValueFromDouble(columnStore.get(column, index));
+   }
+
+   @Override
+   protected void setData(double[] data, int nPoints)
+   {
+      if (data.length != nPoints)
+         System.err.println("data and nPoints are not consistent in ColumnStoreDataBufferEntry.setData()!!");
+
+      writeColumn(data, nPoints);
+   }
+
+   @Override
+   protected void clearData(int nPoints)
+   {
+      columnStore.ensureCapacity(nPoints);
+      columnStore.fill(column, 0, nPoints, 0.0);
+      columnStore.fill(column, nPoints, columnStore.getCapacity(), Double.NaN);
+
+      length = nPoints;
+      dataHasChanged();
+   }
+
+   @Override
+   protected void setData(double data, int index)
+   {
+      columnStore.set(column, index, data);
+      dataCopyStale = true;
+   }
+
+   @Override
+   public double computeAverage()
+   {
+      double total = 0.0;
+
+      for (int i = 0; i < length; i++)
+      {
+         total = total + columnStore.get(column, i);
+      }
+
+      return total / ((double) length);
+   }
+
+   @Override
+   protected double[] getWindowedData(int in, int bufferLength)
+   {
+      double[] ret = new double[bufferLength];
+      int n = in;
+
+      for (int i = 0; i < bufferLength; i++)
+      {
+         ret[i] = columnStore.get(column, n);
+         n++;
+         if (n >= length)
+            n = 0;
+      }
+
+      return ret;
+   }
+
+   @Override
+   public double getMax()
+   {
+      return finiteOrZero(columnStore.getMax(column));
+   }
+
+   @Override
+   public double getMin()
+   {
+      return finiteOrZero(columnStore.getMin(column));
+   }
+
+   @Override
+   public double getMax(int leftIndex, int rightIndex, int leftPlotIndex, int rightPlotIndex)
+   {
+      double max;
+
+      if (leftIndex < rightIndex)
+      {
+         max = columnStore.getMax(column, leftIndex, rightIndex);
+      }
+      else
+      {
+         max = Math.max(columnStore.getMax(column, leftIndex, rightPlotIndex), columnStore.getMax(column, leftPlotIndex, rightIndex));
+      }
+
+      return finiteOrZero(max);
+   }
+
+   @Override
+   public double getMin(int leftIndex, int rightIndex, int leftPlotIndex, int rightPlotIndex)
+   {
+      double min;
+
+      if (leftIndex < rightIndex)
+      {
+         min = columnStore.getMin(column, leftIndex, rightIndex);
+      }
+      else
+      {
+         min = Math.min(columnStore.getMin(column, leftIndex, rightPlotIndex), columnStore.getMin(column, leftPlotIndex, rightIndex));
+      }
+
+      return finiteOrZero(min);
+   }
+
+   @Override
+   public synchronized void resetMinMaxChanged()
+   {
+      minMaxChanged = false;
+      reportedMin = getMin();
+      reportedMax = getMax();
+   }
+
+   @Override
+   public synchronized boolean minMaxChanged()
+   {
+      return minMaxChanged || (reportedMin != getMin()) || (reportedMax != getMax());
+   }
+
+   @Override
+   public boolean checkIfDataIsEqual(DataBufferEntry entry2, int inPoint, int outPoint, double epsilon)
+   {
+      double[] data2 = entry2.getData();
+
+      if ((inPoint >= length) || (inPoint >= data2.length) || (outPoint >= length) || (outPoint >= data2.length))
+         return false;
+
+      if (inPoint > outPoint)
+         throw new RuntimeException("Sorry, but we assume that inPoint is not greater than outPoint in this method!");
+
+      for (int i = inPoint; i < outPoint; i++)
+      {
+         if (Math.abs(columnStore.get(column, i) - data2[i]) > epsilon)
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   @Override
+   public void getVariableNameAndValueAtIndex(StringBuffer stringBuffer, int index)
+   {
+      getVariable().getNameAndValueStringFromDouble(stringBuffer, columnStore.get(column, index));
+   }
+
+   private double[] readColumn()
+   {
+      double[] ret = new double[length];
+      columnStore.read(column, ret, length);
+
+      return ret;
+   }
+
+   private void writeColumn(double[] data, int nPoints)
+   {
+      columnStore.ensureCapacity(nPoints);
+      columnStore.write(column, data, nPoints);
+
+      length = nPoints;
+      dataHasChanged();
+   }
+
+   private synchronized void dataHasChanged()
+   {
+      dataCopyStale = true;
+      minMaxChanged = true;
+   }
+
+   private static double finiteOrZero(double value)
+   {
+      return Double.isInfinite(value) ? 0.0 : value;
+   }
+}
@@ -1,5 +1,6 @@
 package us.ihmc.simulationconstructionset;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 
@@ -13,6 +14,7 @@ import us.ihmc.robotics.dataStructures.variable.YoVariableList;
 import us.ihmc.simulationconstructionset.commands.DataBufferCommandsExecutor;
 import us.ihmc.simulationconstructionset.commands.ToggleKeyPointModeCommandExecutor;
 import us.ihmc.simulationconstructionset.commands.ToggleKeyPointModeCommandListener;
+import us.ihmc.simulationconstructionset.dataBuffer.DataBufferColumnStore;
 import us.ihmc.simulationconstructionset.gui.KeyPoints;
 import us.ihmc.simulationconstructionset.gui.RegularExpression;
 import us.ihmc.simulationconstructionset.gui.config.VarGroup;
@@ -48,6 +50,8 @@ public class DataBuffer extends YoVariableHolderImplementation
 
    private boolean safeToManualyChangeIndex = true;
 
+   private DataBufferColumnStore columnStore = null;
+
    public DataBuffer()
    {
       entries = new ArrayList<DataBufferEntry>();
@@ -62,6 +66,12 @@ public class DataBuffer extends YoVariableHolderImplementation
       entries.clear();
       entries = null;
 
+      if (columnStore != null)
+      {
+         columnStore.close();
+         columnStore = null;
+      }
+
       index = -1;
    }
 
@@ -96,6 +106,35 @@ public class DataBuffer extends YoVariableHolderImplementation
       return this.wrapBuffer;
    }
 
+   /**
+    * Switches this buffer to the off-heap column store. The samples of all variables are then kept in one {@link DataBufferColumnStore}
+    * with incrementally maintained min/max instead of in one double array per entry. Entries already in the buffer are moved to the
+    * column store, so this should be called before graphs are created for them.
+    *
+    * @param directory directory in which the memory-mapped column files are created, or null to keep the columns in direct memory.
+    */
+   public void enableColumnStore(File directory)
+   {
+      if (columnStore != null)
+         return;
+
+      columnStore = new DataBufferColumnStore(bufferSize, directory);
+
+      for (int i = 0; i < entries.size(); i++)
+      {
+         DataBufferEntry entry = entries.get(i);
+
+         ColumnStoreDataBufferEntry columnStoreEntry = new ColumnStoreDataBufferEntry(entry.getVariable(), columnStore, bufferSize);
+         columnStoreEntry.setData(entry.getData(), bufferSize);
+         entries.set(i, columnStoreEntry);
+      }
+   }
+
+   public boolean isColumnStoreEnabled()
+   {
+      return columnStore != null;
+   }
+
    public void addEntry(DataBufferEntry entry)
    {
       if (entry.getDataLength() != this.bufferSize)
@@ -109,7 +148,11 @@ public class DataBuffer extends YoVariableHolderImplementation
       addVariableToHolder(newVariable);
       yoVariableSet.add(newVariable);
 
-      DataBufferEntry entry = new DataBufferEntry(newVariable, nPoints);
+      DataBufferEntry entry;
+      if (columnStore != null)
+         entry = new ColumnStoreDataBufferEntry(newVariable, columnStore, nPoints);
+      else
+         entry = new DataBufferEntry(newVariable, nPoints);
       this.addEntry(entry);
 
       if (newVariable.getName().equals("t"))
@@ -315,14 +358,11 @@ public class DataBuffer extends YoVariableHolderImplementation
 
    public void clearAll(int nPoints)
    {
-      double[] blankData;
-
       for (int i = 0; i < entries.size(); i++)
       {
          DataBufferEntry entry = entries.get(i);
 
-         blankData = new double[nPoints];
-         entry.setData(blankData, nPoints);
+         entry.clearData(nPoints);
       }
 
       this.bufferSize = nPoints;
@@ -346,6 +386,9 @@ public class DataBuffer extends YoVariableHolderImplementation
 
    private void enlargeBufferSize(int newSize)
    {
+      if (columnStore != null)
+         columnStore.ensureCapacity(newSize);
+
       for (int i = 0; i < entries.size(); i++)
       {
          DataBufferEntry entry = entries.get(i);
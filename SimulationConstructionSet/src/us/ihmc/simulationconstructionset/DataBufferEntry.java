@@ -30,6 +30,17 @@ public class DataBufferEntry implements DataEntry
       reCalcMinMax();
    }
 
+   /**
+    * For subclasses that keep their samples somewhere else than in a double array.
+    */
+   protected DataBufferEntry(YoVariable<?> variable)
+   {
+      this.variable = variable;
+
+      this.min = 0.0;
+      this.max = 0.0;
+   }
+
    @Override
    public void setInverted(boolean inverted)
    {
@@ -401,6 +412,11 @@ public class DataBufferEntry implements DataEntry
       reCalcMinMax();
    }
 
+   protected void clearData(int nPoints)
+   {
+      setData(new double[nPoints], nPoints);
+   }
+
    protected void setData(double data, int index)
    {
       this.data[index] = data;
@@ -526,13 +542,15 @@ public class DataBufferEntry implements DataEntry
    {
       //      System.out.println(this.variable.getName() + ": InPoint = " + inPoint + ", outPoint = " + outPoint);
 
+      double[] data2 = entry2.getData();
+
       if (inPoint >= this.data.length)
          return false;
-      if (inPoint >= entry2.data.length)
+      if (inPoint >= data2.length)
          return false;
       if (outPoint >= this.data.length)
          return false;
-      if (outPoint >= entry2.data.length)
+      if (outPoint >= data2.length)
          return false;
 
       if (inPoint > outPoint)
@@ -542,7 +560,7 @@ public class DataBufferEntry implements DataEntry
       for (int i = inPoint; i < outPoint; i++)
       {
          double dataOne = this.data[i];
-         double dataTwo = entry2.data[i];
+         double dataTwo = data2[i];
 
          //         System.out.println(this.variable.getName() + ": dataOne = " + dataOne + ", dataTwo = " + dataTwo);
 
@@ -38,6 +38,7 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
 
    private double SIMULATION_DT = 0.0004;
    private int RECORD_FREQ = 1;
+   private int numberOfSimulationThreads = 1;
 
    private Robot[] robots;
 
@@ -50,6 +51,8 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
    private ArrayList<SimulationDoneListener> simulateDoneListeners = new ArrayList<SimulationDoneListener>();
    private ArrayList<SimulationDoneCriterion> simulateDoneCriterions;
 
+   private SimulationCheckpointer checkpointer;
+
    // private VarList robVarList, gcVarList; //controllerVarList,
    // private ArrayList<VarList> controllerVarLists = new ArrayList<VarList>();
 
@@ -93,6 +96,22 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
       // recomputeTiming();
    }
 
+   /**
+    * Steps the robots in parallel on the given number of threads. The results are the same as with a single thread.
+    */
+   public void setNumberOfSimulationThreads(int numberOfSimulationThreads)
+   {
+      if (mySimulator != null)
+         mySimulator.setNumberOfSimulationThreads(numberOfSimulationThreads);
+
+      this.numberOfSimulationThreads = numberOfSimulationThreads;
+   }
+
+   public int getNumberOfSimulationThreads()
+   {
+      return numberOfSimulationThreads;
+   }
+
    public void setRecordDT(double recordDT)
    {
       RECORD_FREQ = (int) Math.round(recordDT / mySimulator.getDT());
@@ -226,6 +245,9 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
    {
       myDataBuffer.closeAndDispose();
 
+      if (mySimulator != null)
+         mySimulator.closeAndDispose();
+
       myDataBuffer = null;
       mySimulator = null;
    }
@@ -233,7 +255,10 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
    public void setRobots(Robot[] robots)
    {
       this.robots = robots;
+      if (mySimulator != null)
+         mySimulator.closeAndDispose();
       mySimulator = new Simulator(simulationSynchronizer, robots, SIMULATION_DT);
+      mySimulator.setNumberOfSimulationThreads(numberOfSimulationThreads);
       this.setDT(SIMULATION_DT, RECORD_FREQ);
 
       if (robots != null)
@@ -271,6 +296,7 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
       if (mySimulator == null)
       {
          mySimulator = new Simulator(simulationSynchronizer, robots, SIMULATION_DT);
+         mySimulator.setNumberOfSimulationThreads(numberOfSimulationThreads);
       }
       else
       {
@@ -396,7 +422,7 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
             }
          }
 
-         myDataBuffer.tickAndUpdate();
+         tickAndUpdate();
          numTicks -= RECORD_FREQ;
       }
 
@@ -425,6 +451,30 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
    public void tickAndUpdate()
    {
       myDataBuffer.tickAndUpdate();
+
+      if (checkpointer != null)
+         checkpointer.recordTickCompleted();
+   }
+
+   /**
+    * Starts taking a checkpoint of the full state every {@code recordTicksPerCheckpoint} record ticks, so that the simulation can be
+    * brought back to an earlier tick with {@link SimulationCheckpointer#seek(long)}. Call this once all the variables and rewound
+    * listeners have been added.
+    */
+   public SimulationCheckpointer enableCheckpoints(int recordTicksPerCheckpoint, int maximumNumberOfCheckpoints)
+   {
+      checkpointer = new SimulationCheckpointer(this, recordTicksPerCheckpoint, maximumNumberOfCheckpoints);
+      return checkpointer;
+   }
+
+   public void disableCheckpoints()
+   {
+      checkpointer = null;
+   }
+
+   public SimulationCheckpointer getCheckpointer()
+   {
+      return checkpointer;
    }
 
    public synchronized void simulate(double simulationTime) throws UnreasonableAccelerationException
@@ -0,0 +1,222 @@
+package us.ihmc.simulationconstructionset;
+
+import java.util.ArrayList;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import us.ihmc.robotics.dataStructures.listener.CheckpointableRewoundListener;
+import us.ihmc.robotics.dataStructures.listener.RewoundListener;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.simulationconstructionset.dataBuffer.SimulationCheckpoint;
+
+/**
+ * Takes a {@link SimulationCheckpoint} of a {@link Simulation} every few record ticks, so that the simulation can be brought to any
+ * later record tick by restoring the nearest checkpoint and simulating only the remaining ticks, instead of simulating from the start.
+ * <p>
+ * Record ticks are counted from the creation of the checkpointer and are the ticks recorded in the {@link DataBuffer}, each of them
+ * being {@link Simulation#getRecordFreq()} simulation ticks. Restoring a checkpoint branches the simulation: the checkpoints taken
+ * after it are dropped, and simulating from there records over the data that followed it in the data buffer. Simulating after the
+ * data buffer index has been moved back, for instance from the GUI, branches the same way from the record tick of that index.
+ * </p>
+ * <p>
+ * The custom state of the {@link CheckpointableRewoundListener}s of the robots is part of the checkpoints. Other listeners only
+ * get {@link RewoundListener#wasRewound()}, as when the data buffer index is changed.
+ * </p>
+ */
+public class SimulationCheckpointer
+{
+   private final Simulation simulation;
+   private final int recordTicksPerCheckpoint;
+   private final int maximumNumberOfCheckpoints;
+
+   private final TreeMap<Long, SimulationCheckpoint> checkpoints = new TreeMap<Long, SimulationCheckpoint>();
+   private final ArrayList<CheckpointableRewoundListener> checkpointableListeners = new ArrayList<CheckpointableRewoundListener>();
+
+   private YoVariable<?>[] variables = new YoVariable<?>[0];
+   private long recordTick = 0;
+   /** Index of the data buffer at {@link #recordTick}, used to notice that the index was moved between two record ticks. */
+   private int dataBufferIndex;
+
+   /**
+    * Creates the checkpointer and takes the first checkpoint, at record tick 0.
+    *
+    * @param recordTicksPerCheckpoint number of record ticks between two checkpoints.
+    * @param maximumNumberOfCheckpoints number of checkpoints kept, the oldest ones are dropped first.
+    */
+   public SimulationCheckpointer(Simulation simulation, int recordTicksPerCheckpoint, int maximumNumberOfCheckpoints)
+   {
+      if (recordTicksPerCheckpoint < 1 || maximumNumberOfCheckpoints < 1)
+         throw new RuntimeException("Need at least one record tick per checkpoint and one checkpoint");
+
+      this.simulation = simulation;
+      this.recordTicksPerCheckpoint = recordTicksPerCheckpoint;
+      this.maximumNumberOfCheckpoints = maximumNumberOfCheckpoints;
+
+      Robot[] robots = simulation.getRobots();
+      if (robots != null)
+      {
+         for (Robot robot : robots)
+         {
+            for (RewoundListener rewoundListener : robot.getRobotsYoVariableRegistry().getAllSimulationRewoundListeners())
+            {
+               if (rewoundListener instanceof CheckpointableRewoundListener)
+                  checkpointableListeners.add((CheckpointableRewoundListener) rewoundListener);
+            }
+         }
+      }
+
+      dataBufferIndex = simulation.getDataBuffer().getIndex();
+      takeCheckpoint();
+   }
+
+   /**
+    * Adds a listener whose state is part of the checkpoints. It is not attached to the data buffer, see
+    * {@link DataBuffer#attachSimulationRewoundListener(RewoundListener)} for that. Checkpoints taken before it was added are dropped.
+    */
+   public synchronized void addCheckpointableListener(CheckpointableRewoundListener listener)
+   {
+      checkpointableListeners.add(listener);
+      checkpoints.clear();
+      takeCheckpoint();
+   }
+
+   /**
+    * Called by the simulation every time a tick has been recorded in the data buffer.
+    */
+   synchronized void recordTickCompleted()
+   {
+      DataBuffer dataBuffer = simulation.getDataBuffer();
+      int newDataBufferIndex = dataBuffer.getIndex();
+      int previousDataBufferIndex = newDataBufferIndex - 1;
+      if (previousDataBufferIndex != dataBufferIndex)
+      {
+         // The index was moved back before this tick, this tick was simulated from the record tick of the previous index.
+         int recordTicksMovedBack = Math.floorMod(dataBufferIndex - previousDataBufferIndex, dataBuffer.getBufferSize());
+         recordTick -= recordTicksMovedBack;
+         checkpoints.tailMap(recordTick, false).clear();
+      }
+
+      recordTick++;
+      dataBufferIndex = newDataBufferIndex;
+
+      if (recordTick % recordTicksPerCheckpoint == 0)
+         takeCheckpoint();
+   }
+
+   /**
+    * Takes a checkpoint of the current state at the current record tick, replacing the one already taken at that tick, if any.
+    */
+   public synchronized void takeCheckpoint()
+   {
+      YoVariable<?>[] variables = getVariables();
+      checkpoints.put(recordTick, SimulationCheckpoint.capture(recordTick, simulation.getDataBuffer().getIndex(), variables, checkpointableListeners));
+
+      while (checkpoints.size() > maximumNumberOfCheckpoints)
+         checkpoints.pollFirstEntry();
+   }
+
+   private YoVariable<?>[] getVariables()
+   {
+      // The variables are shared by the checkpoints and only replaced when variables have been added to the data buffer.
+      ArrayList<DataBufferEntry> entries = simulation.getDataBuffer().getEntries();
+      if (entries.size() != variables.length)
+      {
+         variables = new YoVariable<?>[entries.size()];
+         for (int i = 0; i < variables.length; i++)
+            variables[i] = entries.get(i).getVariable();
+      }
+
+      return variables;
+   }
+
+   /**
+    * Restores the last checkpoint taken at or before {@code recordTick} and drops the checkpoints after it.
+    *
+    * @return the record tick of the restored checkpoint.
+    */
+   public long restoreNearestCheckpoint(long recordTick)
+   {
+      synchronized (simulation.getSimulationSynchronizer())
+      {
+         synchronized (this)
+         {
+            Entry<Long, SimulationCheckpoint> nearestCheckpoint = checkpoints.floorEntry(recordTick);
+            if (nearestCheckpoint == null)
+               throw new RuntimeException("No checkpoint at or before record tick " + recordTick + ", the oldest one is at " + getOldestCheckpointRecordTick());
+
+            SimulationCheckpoint checkpoint = nearestCheckpoint.getValue();
+            checkpoints.tailMap(checkpoint.getRecordTick(), false).clear();
+
+            // Moving the index loads the recorded values, which are then overwritten by the exact ones of the checkpoint.
+            DataBuffer dataBuffer = simulation.getDataBuffer();
+            dataBuffer.setIndexButDoNotNotifySimulationRewoundListeners(checkpoint.getDataBufferIndex());
+            checkpoint.restore(checkpointableListeners);
+            dataBuffer.setDataAtIndexToYoVariableValues();
+
+            Robot[] robots = simulation.getRobots();
+            if (robots != null)
+            {
+               for (Robot robot : robots)
+                  robot.update();
+            }
+
+            dataBuffer.notifySimulationRewoundListenerListeners();
+
+            this.recordTick = checkpoint.getRecordTick();
+            this.dataBufferIndex = checkpoint.getDataBufferIndex();
+            return this.recordTick;
+         }
+      }
+   }
+
+   /**
+    * Brings the simulation to {@code recordTick} by restoring the nearest checkpoint and simulating the remaining record ticks.
+    * This is also how to branch from an earlier tick: seek to it, change some variables, and simulate.
+    *
+    * @return the number of record ticks that were simulated.
+    */
+   public long seek(long recordTick) throws UnreasonableAccelerationException
+   {
+      synchronized (simulation.getSimulationSynchronizer())
+      {
+         long restoredRecordTick = restoreNearestCheckpoint(recordTick);
+         long recordFreq = simulation.getRecordFreq();
+
+         for (long tick = restoredRecordTick; tick < recordTick; tick++)
+         {
+            for (int i = 0; i < recordFreq; i++)
+               simulation.simulate();
+
+            simulation.tickAndUpdate();
+         }
+
+         return recordTick - restoredRecordTick;
+      }
+   }
+
+   public synchronized long getRecordTick()
+   {
+      return recordTick;
+   }
+
+   public synchronized int getNumberOfCheckpoints()
+   {
+      return checkpoints.size();
+   }
+
+   public synchronized long getOldestCheckpointRecordTick()
+   {
+      return checkpoints.isEmpty() ? -1L : checkpoints.firstKey();
+   }
+
+   /**
+    * @return the approximate memory used by all the checkpoints, in bytes.
+    */
+   public synchronized long getSizeInBytes()
+   {
+      long sizeInBytes = 0L;
+      for (SimulationCheckpoint checkpoint : checkpoints.values())
+         sizeInBytes += checkpoint.getSizeInBytes();
+      return sizeInBytes;
+   }
+}
@@ -421,6 +421,11 @@ public class SimulationConstructionSet implements Runnable, YoVariableHolder, Ru
       this.myDataBuffer = mySimulation.getDataBuffer();
       this.simulationSynchronizer = mySimulation.getSimulationSynchronizer();
 
+      if (parameters.getUseColumnStoreDataBuffer())
+         myDataBuffer.enableColumnStore(parameters.getColumnStoreDirectory());
+
+      mySimulation.setNumberOfSimulationThreads(parameters.getNumberOfSimulationThreads());
+
       ArrayList<YoVariable<?>> originalRootVariables = rootRegistry.getAllVariablesIncludingDescendants();
       try
       {
@@ -637,6 +642,17 @@ public class SimulationConstructionSet implements Runnable, YoVariableHolder, Ru
       recomputeTiming();
    }
 
+   /**
+    * Sets the number of threads the robots are stepped on. Stepping the robots in parallel gives the same results as stepping
+    * them one after the other, collisions between robots and scripts are still handled on the simulation thread.
+    *
+    * @param numberOfSimulationThreads Number of threads, 1 to step the robots on the simulation thread.
+    */
+   public void setNumberOfSimulationThreads(int numberOfSimulationThreads)
+   {
+      mySimulation.setNumberOfSimulationThreads(numberOfSimulationThreads);
+   }
+
    /**
     * Retrieves the Robots used in this simulation.
     *
@@ -2480,7 +2496,7 @@ public class SimulationConstructionSet implements Runnable, YoVariableHolder, Ru
 
          ticksSimulated -= recordFreq; // This prevents the following stuff from happening continuosly after one record cycle
 
-         myDataBuffer.tickAndUpdate(); // Update the data buffer and the min max values of each point it contains
+         mySimulation.tickAndUpdate(); // Update the data buffer and the min max values of each point it contains
 
          if (myGUI != null)
          {
@@ -2894,7 +2910,7 @@ public class SimulationConstructionSet implements Runnable, YoVariableHolder, Ru
 
          mySimulation.notifySimulateDoneListeners();
 
-         myDataBuffer.tickAndUpdate();
+         mySimulation.tickAndUpdate();
 
          if (myGUI != null)
          {
@@ -2904,6 +2920,20 @@ public class SimulationConstructionSet implements Runnable, YoVariableHolder, Ru
       }
    }
 
+   /**
+    * Starts taking a checkpoint of the full simulation state every {@code recordTicksPerCheckpoint} record ticks.  Seeking to a record tick with
+    * the returned checkpointer restores the nearest checkpoint and only simulates the ticks after it.
+    *
+    * @see Simulation#enableCheckpoints(int, int)
+    */
+   public SimulationCheckpointer enableCheckpoints(int recordTicksPerCheckpoint, int maximumNumberOfCheckpoints)
+   {
+      synchronized (simulationSynchronizer)
+      {
+         return mySimulation.enableCheckpoints(recordTicksPerCheckpoint, maximumNumberOfCheckpoints);
+      }
+   }
+
    /**
     * Simulates the specified number of steps.  If the number is less than a record cycle a data point will not be created.
     *
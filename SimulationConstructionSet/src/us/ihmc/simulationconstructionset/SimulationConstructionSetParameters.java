@@ -1,5 +1,7 @@
 package us.ihmc.simulationconstructionset;
 
+import java.io.File;
+
 public class SimulationConstructionSetParameters
 {
    private boolean showSplashScreen = true;
@@ -7,6 +9,9 @@ public class SimulationConstructionSetParameters
    private boolean showWindows = true;
    private int dataBufferSize = 8192;
    private boolean showYoGraphicObjects = true;
+   private boolean useColumnStoreDataBuffer = false;
+   private File columnStoreDirectory = null;
+   private int numberOfSimulationThreads = 1;
   
 
    public SimulationConstructionSetParameters()
@@ -63,6 +68,26 @@ public class SimulationConstructionSetParameters
          setDataBufferSize(dataBufferSize);
       }
       
+      property = System.getProperty("scs.dataBuffer.columnStore");
+      if (property != null)
+      {
+         Boolean useColumnStoreDataBuffer = Boolean.parseBoolean(property);
+         setUseColumnStoreDataBuffer(useColumnStoreDataBuffer);
+      }
+
+      property = System.getProperty("scs.dataBuffer.columnStoreDirectory");
+      if (property != null)
+      {
+         setColumnStoreDirectory(new File(property));
+      }
+
+      property = System.getProperty("scs.simulation.threads");
+      if (property != null)
+      {
+         Integer numberOfSimulationThreads = Integer.parseInt(property);
+         setNumberOfSimulationThreads(numberOfSimulationThreads);
+      }
+
       property = System.getProperty("show.scs.yographics");
       if (property != null)
       {
@@ -121,6 +146,45 @@ public class SimulationConstructionSetParameters
       this.showYoGraphicObjects = showYoGraphicObjects;
    }
    
+   public boolean getUseColumnStoreDataBuffer()
+   {
+      return useColumnStoreDataBuffer;
+   }
+
+   /**
+    * Keep the data buffer samples off-heap in a column store instead of one double array per variable.
+    */
+   public void setUseColumnStoreDataBuffer(boolean useColumnStoreDataBuffer)
+   {
+      this.useColumnStoreDataBuffer = useColumnStoreDataBuffer;
+   }
+
+   public File getColumnStoreDirectory()
+   {
+      return columnStoreDirectory;
+   }
+
+   /**
+    * Directory in which the column store memory-maps its files. When null, the column store uses direct memory.
+    */
+   public void setColumnStoreDirectory(File columnStoreDirectory)
+   {
+      this.columnStoreDirectory = columnStoreDirectory;
+   }
+
+   public int getNumberOfSimulationThreads()
+   {
+      return numberOfSimulationThreads;
+   }
+
+   /**
+    * Number of threads the robots of the simulation are stepped on. Only helps when simulating several robots.
+    */
+   public void setNumberOfSimulationThreads(int numberOfSimulationThreads)
+   {
+      this.numberOfSimulationThreads = numberOfSimulationThreads;
+   }
+
    @Override
    public String toString()
    {
@@ -129,6 +193,8 @@ public class SimulationConstructionSetParameters
       st += "showWindows: " + showWindows + "\n";    
       st += "dataBufferSize: " + dataBufferSize + "\n";    
       st += "showYoGraphicObjects: " + showYoGraphicObjects + "\n";    
+      st += "useColumnStoreDataBuffer: " + useColumnStoreDataBuffer + "\n";
+      st += "numberOfSimulationThreads: " + numberOfSimulationThreads + "\n";
       return st;   
    }
 }
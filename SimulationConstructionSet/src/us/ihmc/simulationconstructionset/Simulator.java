@@ -1,7 +1,10 @@
 package us.ihmc.simulationconstructionset;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
 import us.ihmc.simulationconstructionset.physics.CollisionHandler;
 import us.ihmc.simulationconstructionset.physics.ScsCollisionDetector;
 import us.ihmc.simulationconstructionset.physics.collision.CollisionDetectionResult;
@@ -9,10 +12,22 @@ import us.ihmc.simulationconstructionset.physics.visualize.DefaultCollisionVisua
 import us.ihmc.simulationconstructionset.scripts.Script;
 import us.ihmc.simulationconstructionset.synchronization.SimulationSynchronizer;
 
+/**
+ * Steps the robots of a simulation.
+ * <p>
+ * With more than one simulation thread, the per-robot work of a tick is split over a fork-join pool: the kinematics update of
+ * every robot, and then the dynamics and integration of every robot. The ground contact models, the collision detector, the
+ * collision handler and the scripts run serially in robot order, since the ground profiles they use are shared and keep scratch
+ * variables. When there are scripts, the whole state update runs serially so that they see the same robot states as when
+ * stepping the robots one after the other. As long as the robots do not share any other state, the results are the same as
+ * with serial stepping, including when a robot throws an {@link UnreasonableAccelerationException}.
+ */
 public class Simulator implements java.io.Serializable
 {
    private static final long serialVersionUID = -3492879446149849938L;
 
+   private static final int UPDATE_STATE = 0, DYNAMICS_AND_INTEGRATE = 1;
+
    private final SimulationSynchronizer simulationSynchronizer;
    private Robot[] robots;
 
@@ -24,6 +39,12 @@ public class Simulator implements java.io.Serializable
    private DefaultCollisionVisualizer collisionVisualizer;
    protected ArrayList<WrenchContactPoint> forceSensor = new ArrayList<WrenchContactPoint>();
 
+   private int numberOfSimulationThreads = 1;
+   private transient ForkJoinPool robotStepPool;
+   private transient UnreasonableAccelerationException[] unreasonableAccelerationExceptions;
+   private transient YoVariable<?>[][] robotVariables;
+   private transient long[][] robotVariableValuesBeforeDynamics;
+
    // private final YoVariable time;
 
    public Simulator(SimulationSynchronizer simulationSynchronizer, Robot[] robots, double dt)
@@ -38,6 +59,47 @@ public class Simulator implements java.io.Serializable
    public void setRobots(Robot[] robots)
    {
       this.robots = robots;
+      this.robotVariables = null;
+      this.robotVariableValuesBeforeDynamics = null;
+   }
+
+   /**
+    * Sets the number of threads the robots are stepped on. With one thread, which is the default, the robots are stepped one after
+    * the other on the simulation thread.
+    */
+   public void setNumberOfSimulationThreads(int numberOfSimulationThreads)
+   {
+      if (numberOfSimulationThreads < 1)
+         throw new RuntimeException("Need at least one simulation thread, got " + numberOfSimulationThreads);
+
+      if (numberOfSimulationThreads != this.numberOfSimulationThreads)
+         shutdownRobotStepPool();
+
+      this.numberOfSimulationThreads = numberOfSimulationThreads;
+   }
+
+   public int getNumberOfSimulationThreads()
+   {
+      return numberOfSimulationThreads;
+   }
+
+   public void closeAndDispose()
+   {
+      shutdownRobotStepPool();
+   }
+
+   private void shutdownRobotStepPool()
+   {
+      if (robotStepPool != null)
+      {
+         robotStepPool.shutdown();
+         robotStepPool = null;
+      }
+   }
+
+   private boolean stepRobotsInParallel()
+   {
+      return numberOfSimulationThreads > 1 && robots != null && robots.length > 1;
    }
 
    public void setDT(double simulateDT)
@@ -80,31 +142,29 @@ public class Simulator implements java.io.Serializable
    {
       synchronized (simulationSynchronizer)
       {
-         for (Robot robot : robots)
+         if (stepRobotsInParallel() && scripts == null)
          {
-            // +++JEP090122 This updates the locations and velocities of everything. Need to do this instead of just update so that the ground contact has the
-            // most recent velocities and is rewindable...
-            robot.updateVelocities();
+            runRobotStepActions(UPDATE_STATE);
 
-            //          rob.update();
-
-            robot.updateAllGroundContactPointVelocities(); // +++JEP OPTIMIZE: Need to do this once so all point velocities get updated. Otherwise only those in contact will.
-
-
-            if (robot.getGroundContactModel() != null)
+            // The ground profiles can be shared between the robots and are not thread safe.
+            for (Robot robot : robots)
             {
-               robot.getGroundContactModel().doGroundContact(); // Do the ground contact model
+               doGroundContact(robot);
             }
-
-            // Needed to move this outside and do it even if no ground contact model, for
-            // Contact models that are done outside of the robot.
-            robot.decideGroundContactPointsInContact(); // +++JEP OPTIMIZE. This should be in a GroundContactDetector...
-
-            if (scripts != null) // Run the scripts
+         }
+         else
+         {
+            for (Robot robot : robots)
             {
-               for (Script script : scripts)
+               updateRobotKinematics(robot);
+               doGroundContact(robot);
+
+               if (scripts != null) // Run the scripts
                {
-                  script.doScript(robot.getTime());
+                  for (Script script : scripts)
+                  {
+                     script.doScript(robot.getTime());
+                  }
                }
             }
          }
@@ -127,6 +187,29 @@ public class Simulator implements java.io.Serializable
       }
    }
 
+   private static void updateRobotKinematics(Robot robot)
+   {
+      // +++JEP090122 This updates the locations and velocities of everything. Need to do this instead of just update so that the ground contact has the
+      // most recent velocities and is rewindable...
+      robot.updateVelocities();
+
+      //          rob.update();
+
+      robot.updateAllGroundContactPointVelocities(); // +++JEP OPTIMIZE: Need to do this once so all point velocities get updated. Otherwise only those in contact will.
+   }
+
+   private static void doGroundContact(Robot robot)
+   {
+      if (robot.getGroundContactModel() != null)
+      {
+         robot.getGroundContactModel().doGroundContact(); // Do the ground contact model
+      }
+
+      // Needed to move this outside and do it even if no ground contact model, for
+      // Contact models that are done outside of the robot.
+      robot.decideGroundContactPointsInContact(); // +++JEP OPTIMIZE. This should be in a GroundContactDetector...
+   }
+
    protected void doControl()
    {
       for (Robot robot : robots)
@@ -143,6 +226,13 @@ public class Simulator implements java.io.Serializable
    {
       synchronized (simulationSynchronizer)
       {
+         if (stepRobotsInParallel())
+         {
+            runRobotStepActions(DYNAMICS_AND_INTEGRATE);
+            throwFirstUnreasonableAccelerationException();
+            return;
+         }
+
          for (int i = 0; i < robots.length; i++)
          {
             Robot robot = robots[i];
@@ -152,6 +242,134 @@ public class Simulator implements java.io.Serializable
       }
    }
 
+   private void runRobotStepActions(int phase)
+   {
+      if (robotStepPool == null)
+         robotStepPool = new ForkJoinPool(numberOfSimulationThreads);
+
+      if (unreasonableAccelerationExceptions == null || unreasonableAccelerationExceptions.length != robots.length)
+         unreasonableAccelerationExceptions = new UnreasonableAccelerationException[robots.length];
+
+      if (robotVariables == null || robotVariables.length != robots.length)
+      {
+         robotVariables = new YoVariable<?>[robots.length][];
+         robotVariableValuesBeforeDynamics = new long[robots.length][];
+      }
+
+      robotStepPool.invoke(new RobotStepAction(phase, 0, robots.length));
+   }
+
+   private void throwFirstUnreasonableAccelerationException() throws UnreasonableAccelerationException
+   {
+      int firstFailedRobotIndex = -1;
+      for (int i = 0; i < unreasonableAccelerationExceptions.length; i++)
+      {
+         if (unreasonableAccelerationExceptions[i] != null)
+         {
+            firstFailedRobotIndex = i;
+            break;
+         }
+      }
+
+      if (firstFailedRobotIndex == -1)
+         return;
+
+      // The serial stepping stops at the first robot that failed, so put the robots after it back to where they were before the dynamics.
+      for (int i = firstFailedRobotIndex + 1; i < robots.length; i++)
+      {
+         restoreVariableValuesBeforeDynamics(i);
+      }
+
+      UnreasonableAccelerationException exception = unreasonableAccelerationExceptions[firstFailedRobotIndex];
+      for (int i = 0; i < unreasonableAccelerationExceptions.length; i++)
+      {
+         unreasonableAccelerationExceptions[i] = null;
+      }
+
+      throw exception;
+   }
+
+   private void saveVariableValuesBeforeDynamics(int robotIndex)
+   {
+      if (robotVariables[robotIndex] == null)
+      {
+         robotVariables[robotIndex] = robots[robotIndex].getRobotsYoVariableRegistry().getAllVariablesArray();
+         robotVariableValuesBeforeDynamics[robotIndex] = new long[robotVariables[robotIndex].length];
+      }
+
+      YoVariable<?>[] variables = robotVariables[robotIndex];
+      long[] values = robotVariableValuesBeforeDynamics[robotIndex];
+      for (int i = 0; i < variables.length; i++)
+      {
+         values[i] = variables[i].getValueAsLongBits();
+      }
+   }
+
+   private void restoreVariableValuesBeforeDynamics(int robotIndex)
+   {
+      YoVariable<?>[] variables = robotVariables[robotIndex];
+      long[] values = robotVariableValuesBeforeDynamics[robotIndex];
+      for (int i = 0; i < variables.length; i++)
+      {
+         if (variables[i].getValueAsLongBits() != values[i])
+            variables[i].setValueFromLongBits(values[i]);
+      }
+   }
+
+   private void stepRobot(int phase, int robotIndex)
+   {
+      Robot robot = robots[robotIndex];
+
+      if (phase == UPDATE_STATE)
+      {
+         updateRobotKinematics(robot);
+      }
+      else
+      {
+         saveVariableValuesBeforeDynamics(robotIndex);
+
+         try
+         {
+            robot.doDynamicsAndIntegrate(DT);
+            robot.updateIMUMountAccelerations();
+         }
+         catch (UnreasonableAccelerationException e)
+         {
+            unreasonableAccelerationExceptions[robotIndex] = e;
+         }
+      }
+   }
+
+   private class RobotStepAction extends RecursiveAction
+   {
+      private static final long serialVersionUID = 4164398725913094731L;
+
+      private final int phase;
+      private final int fromRobotIndex;
+      private final int toRobotIndex;
+
+      public RobotStepAction(int phase, int fromRobotIndex, int toRobotIndex)
+      {
+         this.phase = phase;
+         this.fromRobotIndex = fromRobotIndex;
+         this.toRobotIndex = toRobotIndex;
+      }
+
+      @Override
+      protected void compute()
+      {
+         if (toRobotIndex - fromRobotIndex == 1)
+         {
+            stepRobot(phase, fromRobotIndex);
+         }
+         else
+         {
+            int middleRobotIndex = (fromRobotIndex + toRobotIndex) / 2;
+            invokeAll(new RobotStepAction(phase, fromRobotIndex, middleRobotIndex), new RobotStepAction(phase, middleRobotIndex, toRobotIndex));
+         }
+      }
+   }
+
    protected void forceClassLoading()
    {
       //
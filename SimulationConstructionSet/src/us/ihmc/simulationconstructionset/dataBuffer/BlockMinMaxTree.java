@@ -0,0 +1,167 @@
+package us.ihmc.simulationconstructionset.dataBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Segment tree over the per-block minimum and maximum of one column of a {@link DataBufferColumnStore}.
+ * Leaves hold the min/max of one block of samples, inner nodes hold the min/max of their children.
+ * NaN samples are ignored, an empty block has a min of +Infinity and a max of -Infinity.
+ */
+class BlockMinMaxTree
+{
+   private final int numberOfBlocks;
+   private final int firstLeaf;
+   private final double[] min;
+   private final double[] max;
+
+   BlockMinMaxTree(int numberOfBlocks)
+   {
+      this.numberOfBlocks = numberOfBlocks;
+
+      int leaves = 1;
+      while (leaves < numberOfBlocks)
+         leaves = leaves << 1;
+
+      this.firstLeaf = leaves;
+      this.min = new double[2 * leaves];
+      this.max = new double[2 * leaves];
+
+      clear();
+   }
+
+   void clear()
+   {
+      Arrays.fill(min, Double.POSITIVE_INFINITY);
+      Arrays.fill(max, Double.NEGATIVE_INFINITY);
+   }
+
+   int getNumberOfBlocks()
+   {
+      return numberOfBlocks;
+   }
+
+   double getBlockMin(int block)
+   {
+      return min[firstLeaf + block];
+   }
+
+   double getBlockMax(int block)
+   {
+      return max[firstLeaf + block];
+   }
+
+   double getMin()
+   {
+      return min[1];
+   }
+
+   double getMax()
+   {
+      return max[1];
+   }
+
+   /**
+    * Widens the bounds of a block to include the given value. Stops climbing the tree as soon as a node already contains the value,
+    * so this is constant time unless the value is a new extremum for a large part of the column.
+    */
+   void extendBlock(int block, double value)
+   {
+      if (Double.isNaN(value))
+         return;
+
+      int node = firstLeaf + block;
+      boolean updateMin = true;
+      boolean updateMax = true;
+
+      while (node > 0 && (updateMin || updateMax))
+      {
+         if (updateMin)
+         {
+            if (value < min[node])
+               min[node] = value;
+            else
+               updateMin = false;
+         }
+
+         if (updateMax)
+         {
+            if (value > max[node])
+               max[node] = value;
+            else
+               updateMax = false;
+         }
+
+         node = node >> 1;
+      }
+   }
+
+   /**
+    * Replaces the bounds of a block and updates its ancestors until a node no longer changes.
+    */
+   void setBlock(int block, double blockMin, double blockMax)
+   {
+      int node = firstLeaf + block;
+      min[node] = blockMin;
+      max[node] = blockMax;
+      node = node >> 1;
+
+      while (node > 0)
+      {
+         double newMin = Math.min(min[2 * node], min[2 * node + 1]);
+         double newMax = Math.max(max[2 * node], max[2 * node + 1]);
+
+         if (newMin == min[node] && newMax == max[node])
+            return;
+
+         min[node] = newMin;
+         max[node] = newMax;
+         node = node >> 1;
+      }
+   }
+
+   /**
+    * Min over the blocks in [fromBlock, toBlock).
+    */
+   double getMin(int fromBlock, int toBlock)
+   {
+      double ret = Double.POSITIVE_INFINITY;
+      int left = fromBlock + firstLeaf;
+      int right = toBlock + firstLeaf;
+
+      while (left < right)
+      {
+         if ((left & 1) == 1)
+            ret = Math.min(ret, min[left++]);
+         if ((right & 1) == 1)
+            ret = Math.min(ret, min[--right]);
+
+         left = left >> 1;
+         right = right >> 1;
+      }
+
+      return ret;
+   }
+
+   /**
+    * Max over the blocks in [fromBlock, toBlock).
+    */
+   double getMax(int fromBlock, int toBlock)
+   {
+      double ret = Double.NEGATIVE_INFINITY;
+      int left = fromBlock + firstLeaf;
+      int right = toBlock + firstLeaf;
+
+      while (left < right)
+      {
+         if ((left & 1) == 1)
+            ret = Math.max(ret, max[left++]);
+         if ((right & 1) == 1)
+            ret = Math.max(ret, max[--right]);
+
+         left = left >> 1;
+         right = right >> 1;
+      }
+
+      return ret;
+   }
+}
@@ -0,0 +1,437 @@
+package us.ihmc.simulationconstructionset.dataBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Off-heap storage for the samples of all entries of a DataBuffer.
+ * <p>
+ * Every column holds the samples of one variable and is stored contiguously. Columns are grouped in segments that are either
+ * memory-mapped temporary files (when a directory is given) or direct byte buffers. Samples past the length of a column are kept
+ * at NaN so they never contribute to the min/max.
+ * <p>
+ * The min and max of every column are kept per block of {@link #SAMPLES_PER_BLOCK} samples in a {@link BlockMinMaxTree}. Writing
+ * a sample only touches its block, so {@link #set(int, int, double)} costs a constant amount of work, and min/max queries over a
+ * window are answered in O(log n).
+ * <p>
+ * Writing samples is meant to be done from a single thread. Readers on other threads may see slightly stale min/max values but
+ * will never see a layout that is being resized.
+ */
+public class DataBufferColumnStore
+{
+   public static final int SAMPLES_PER_BLOCK = 64;
+   private static final int BLOCK_SHIFT = 6;
+
+   private static final long MAXIMUM_SEGMENT_SIZE_IN_BYTES = 1L << 30;
+   private static final int MAXIMUM_COLUMNS_PER_SEGMENT = 256;
+
+   private final File directory;
+
+   private volatile Layout layout;
+   private int numberOfColumns = 0;
+
+   /**
+    * @param initialCapacity number of samples allocated per column.
+    * @param directory directory in which the memory-mapped column files are created, or null to use direct memory.
+    */
+   public DataBufferColumnStore(int initialCapacity, File directory)
+   {
+      this.directory = directory;
+      this.layout = new Layout(Math.max(initialCapacity, 1), 0);
+   }
+
+   /**
+    * Allocates a new column filled with NaN.
+    *
+    * @return index of the new column.
+    */
+   public synchronized int addColumn()
+   {
+      int column = numberOfColumns;
+      Layout layout = this.layout;
+
+      if (column >= layout.numberOfColumnSlots)
+      {
+         layout.addSegment();
+      }
+
+      // The tree is added before the array is published, so readers never see a column without its tree.
+      BlockMinMaxTree[] trees = layout.trees;
+      if (column >= trees.length)
+      {
+         trees = Arrays.copyOf(trees, Math.max(2 * trees.length, 16));
+      }
+
+      trees[column] = new BlockMinMaxTree(layout.numberOfBlocks);
+      layout.trees = trees;
+      numberOfColumns++;
+
+      return column;
+   }
+
+   public int getNumberOfColumns()
+   {
+      return numberOfColumns;
+   }
+
+   public int getCapacity()
+   {
+      return layout.capacity;
+   }
+
+   /**
+    * Grows every column to hold at least the requested number of samples. The new samples are NaN. Does nothing if the columns are
+    * already large enough.
+    */
+   public synchronized void ensureCapacity(int newCapacity)
+   {
+      Layout oldLayout = this.layout;
+
+      if (newCapacity <= oldLayout.capacity)
+         return;
+
+      Layout newLayout = new Layout(newCapacity, numberOfColumns);
+      double[] columnData = new double[oldLayout.capacity];
+
+      for (int column = 0; column < numberOfColumns; column++)
+      {
+         oldLayout.read(column, columnData, oldLayout.capacity);
+         newLayout.write(column, columnData, oldLayout.capacity);
+         newLayout.trees[column] = new BlockMinMaxTree(newLayout.numberOfBlocks);
+         newLayout.rebuildTree(column);
+      }
+
+      this.layout = newLayout;
+      oldLayout.deleteFiles();
+   }
+
+   public double get(int column, int index)
+   {
+      Layout layout = this.layout;
+      return layout.segments[column / layout.columnsPerSegment].get(layout.offset(column, index));
+   }
+
+   /**
+    * Stores a sample and updates the bounds of its block.
+    */
+   public void set(int column, int index, double value)
+   {
+      Layout layout = this.layout;
+      DoubleBuffer segment = layout.segments[column / layout.columnsPerSegment];
+      int offset = layout.offset(column, index);
+
+      double oldValue = segment.get(offset);
+      segment.put(offset, value);
+
+      BlockMinMaxTree tree = layout.trees[column];
+      int block = index >> BLOCK_SHIFT;
+
+      if ((oldValue <= tree.getBlockMin(block)) || (oldValue >= tree.getBlockMax(block)))
+      {
+         // The overwritten sample was an extremum of its block, only this block needs to be scanned again.
+         layout.rescanBlock(column, block);
+      }
+      else
+      {
+         tree.extendBlock(block, value);
+      }
+   }
+
+   /**
+    * Sets the samples in [fromIndex, toIndex) to the given value.
+    */
+   public void fill(int column, int fromIndex, int toIndex, double value)
+   {
+      Layout layout = this.layout;
+      DoubleBuffer segment = layout.segments[column / layout.columnsPerSegment];
+
+      for (int i = fromIndex; i < toIndex; i++)
+      {
+         segment.put(layout.offset(column, i), value);
+      }
+
+      if (fromIndex >= toIndex)
+         return;
+
+      int lastBlock = (toIndex - 1) >> BLOCK_SHIFT;
+      for (int block = fromIndex >> BLOCK_SHIFT; block <= lastBlock; block++)
+      {
+         layout.rescanBlock(column, block);
+      }
+   }
+
+   /**
+    * Copies the first length samples of a column into the destination array.
+    */
+   public void read(int column, double[] destination, int length)
+   {
+      layout.read(column, destination, length);
+   }
+
+   /**
+    * Replaces the content of a column by the first length samples of the source array. The remainder of the column is set to NaN.
+    */
+   public void write(int column, double[] source, int length)
+   {
+      Layout layout = this.layout;
+      layout.write(column, source, length);
+      layout.rebuildTree(column);
+   }
+
+   /**
+    * @return the minimum over the whole column, +Infinity if the column holds no numbers.
+    */
+   public double getMin(int column)
+   {
+      return layout.trees[column].getMin();
+   }
+
+   /**
+    * @return the maximum over the whole column, -Infinity if the column holds no numbers.
+    */
+   public double getMax(int column)
+   {
+      return layout.trees[column].getMax();
+   }
+
+   /**
+    * @return the minimum over the samples in [fromIndex, toIndex), +Infinity if there are none.
+    */
+   public double getMin(int column, int fromIndex, int toIndex)
+   {
+      Layout layout = this.layout;
+      double ret = Double.POSITIVE_INFINITY;
+
+      if (fromIndex >= toIndex)
+         return ret;
+
+      int firstFullBlock = (fromIndex + SAMPLES_PER_BLOCK - 1) >> BLOCK_SHIFT;
+      int lastFullBlock = toIndex >> BLOCK_SHIFT;
+
+      if (firstFullBlock >= lastFullBlock)
+      {
+         return layout.scanMin(column, fromIndex, toIndex);
+      }
+
+      ret = Math.min(ret, layout.scanMin(column, fromIndex, firstFullBlock << BLOCK_SHIFT));
+      ret = Math.min(ret, layout.trees[column].getMin(firstFullBlock, lastFullBlock));
+      ret = Math.min(ret, layout.scanMin(column, lastFullBlock << BLOCK_SHIFT, toIndex));
+
+      return ret;
+   }
+
+   /**
+    * @return the maximum over the samples in [fromIndex, toIndex), -Infinity if there are none.
+    */
+   public double getMax(int column, int fromIndex, int toIndex)
+   {
+      Layout layout = this.layout;
+      double ret = Double.NEGATIVE_INFINITY;
+
+      if (fromIndex >= toIndex)
+         return ret;
+
+      int firstFullBlock = (fromIndex + SAMPLES_PER_BLOCK - 1) >> BLOCK_SHIFT;
+      int lastFullBlock = toIndex >> BLOCK_SHIFT;
+
+      if (firstFullBlock >= lastFullBlock)
+      {
+         return layout.scanMax(column, fromIndex, toIndex);
+      }
+
+      ret = Math.max(ret, layout.scanMax(column, fromIndex, firstFullBlock << BLOCK_SHIFT));
+      ret = Math.max(ret, layout.trees[column].getMax(firstFullBlock, lastFullBlock));
+      ret = Math.max(ret, layout.scanMax(column, lastFullBlock << BLOCK_SHIFT, toIndex));
+
+      return ret;
+   }
+
+   /**
+    * Releases the segments and deletes the memory-mapped files.
+    */
+   public synchronized void close()
+   {
+      Layout oldLayout = layout;
+      layout = new Layout(1, 0);
+      numberOfColumns = 0;
+
+      oldLayout.deleteFiles();
+   }
+
+   private DoubleBuffer allocateSegment(long sizeInBytes, ArrayList<File> files)
+   {
+      if (directory == null)
+      {
+         return ByteBuffer.allocateDirect((int) sizeInBytes).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+      }
+
+      try
+      {
+         File file = File.createTempFile("DataBuffer", ".columns", directory);
+         file.deleteOnExit();
+         files.add(file);
+
+         RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+         try
+         {
+            MappedByteBuffer mappedByteBuffer = randomAccessFile.getChannel().map(MapMode.READ_WRITE, 0, sizeInBytes);
+            return mappedByteBuffer.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+         }
+         finally
+         {
+            // The mapping stays valid after the channel is closed.
+            randomAccessFile.close();
+         }
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException("Could not map data buffer column file in " + directory, e);
+      }
+   }
+
+   private class Layout
+   {
+      private final int capacity;
+      private final int numberOfBlocks;
+      private final int columnsPerSegment;
+      private final ArrayList<File> files = new ArrayList<File>();
+      private volatile DoubleBuffer[] segments = new DoubleBuffer[0];
+      private int numberOfColumnSlots = 0;
+      private volatile BlockMinMaxTree[] trees;
+
+      private Layout(int capacity, int numberOfColumns)
+      {
+         if (8L * capacity > Integer.MAX_VALUE)
+            throw new RuntimeException("Data buffer column of " + capacity + " samples does not fit in a single segment");
+
+         this.capacity = capacity;
+         this.numberOfBlocks = (capacity + SAMPLES_PER_BLOCK - 1) >> BLOCK_SHIFT;
+         this.columnsPerSegment = (int) Math.max(1, Math.min(MAXIMUM_COLUMNS_PER_SEGMENT, MAXIMUM_SEGMENT_SIZE_IN_BYTES / (8L * capacity)));
+         this.trees = new BlockMinMaxTree[Math.max(numberOfColumns, 16)];
+
+         while (numberOfColumnSlots < numberOfColumns)
+         {
+            addSegment();
+         }
+      }
+
+      private void addSegment()
+      {
+         DoubleBuffer segment = allocateSegment(8L * capacity * columnsPerSegment, files);
+
+         for (int i = 0; i < segment.capacity(); i++)
+         {
+            segment.put(i, Double.NaN);
+         }
+
+         DoubleBuffer[] newSegments = Arrays.copyOf(segments, segments.length + 1);
+         newSegments[newSegments.length - 1] = segment;
+         segments = newSegments;
+         numberOfColumnSlots += columnsPerSegment;
+      }
+
+      /**
+       * Deletes the memory-mapped files of this layout once it has been replaced. Readers that still hold the layout keep a valid
+       * mapping.
+       */
+      private void deleteFiles()
+      {
+         for (int i = 0; i < files.size(); i++)
+         {
+            files.get(i).delete();
+         }
+
+         files.clear();
+      }
+
+      private int offset(int column, int index)
+      {
+         return (column % columnsPerSegment) * capacity + index;
+      }
+
+      private void read(int column, double[] destination, int length)
+      {
+         DoubleBuffer segment = segments[column / columnsPerSegment];
+         int offset = offset(column, 0);
+
+         for (int i = 0; i < length; i++)
+         {
+            destination[i] = segment.get(offset + i);
+         }
+      }
+
+      private void write(int column, double[] source, int length)
+      {
+         DoubleBuffer segment = segments[column / columnsPerSegment];
+         int offset = offset(column, 0);
+
+         for (int i = 0; i < length; i++)
+         {
+            segment.put(offset + i, source[i]);
+         }
+
+         for (int i = length; i < capacity; i++)
+         {
+            segment.put(offset + i, Double.NaN);
+         }
+      }
+
+      private void rebuildTree(int column)
+      {
+         trees[column].clear();
+
+         for (int block = 0; block < numberOfBlocks; block++)
+         {
+            rescanBlock(column, block);
+         }
+      }
+
+      private void rescanBlock(int column, int block)
+      {
+         int fromIndex = block << BLOCK_SHIFT;
+         int toIndex = Math.min(fromIndex + SAMPLES_PER_BLOCK, capacity);
+
+         trees[column].setBlock(block, scanMin(column, fromIndex, toIndex), scanMax(column, fromIndex, toIndex));
+      }
+
+      private double scanMin(int column, int fromIndex, int toIndex)
+      {
+         DoubleBuffer segment = segments[column / columnsPerSegment];
+         int offset = offset(column, 0);
+         double ret = Double.POSITIVE_INFINITY;
+
+         for (int i = fromIndex; i < toIndex; i++)
+         {
+            double value = segment.get(offset + i);
+            if (value < ret)
+               ret = value;
+         }
+
+         return ret;
+      }
+
+      private double scanMax(int column, int fromIndex, int toIndex)
+      {
+         DoubleBuffer segment = segments[column / columnsPerSegment];
+         int offset = offset(column, 0);
+         double ret = Double.NEGATIVE_INFINITY;
+
+         for (int i = fromIndex; i < toIndex; i++)
+         {
+            double value = segment.get(offset + i);
+            if (value > ret)
+               ret = value;
+         }
+
+         return ret;
+      }
+   }
+}
@@ -0,0 +1,111 @@
+package us.ihmc.simulationconstructionset.dataBuffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import us.ihmc.robotics.dataStructures.listener.CheckpointableRewoundListener;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+
+/**
+ * Full state of a simulation at one record tick.
+ * <p>
+ * The value of every variable is kept as its raw long bits, so restoring a checkpoint is exact for all variable types, unlike the
+ * DataBuffer which stores doubles. The joint states are YoVariables and are therefore part of the snapshot. The state of the
+ * {@link CheckpointableRewoundListener}s is kept as the bytes they wrote.
+ */
+public class SimulationCheckpoint
+{
+   private final long recordTick;
+   private final int dataBufferIndex;
+   private final YoVariable<?>[] variables;
+   private final long[] values;
+   private final byte[] listenerState;
+
+   private SimulationCheckpoint(long recordTick, int dataBufferIndex, YoVariable<?>[] variables, long[] values, byte[] listenerState)
+   {
+      this.recordTick = recordTick;
+      this.dataBufferIndex = dataBufferIndex;
+      this.variables = variables;
+      this.values = values;
+      this.listenerState = listenerState;
+   }
+
+   /**
+    * Takes a snapshot of the current values of the variables and of the state of the listeners.
+    *
+    * @param variables the variables to store. The array is kept by the checkpoint and must not be modified afterwards.
+    */
+   public static SimulationCheckpoint capture(long recordTick, int dataBufferIndex, YoVariable<?>[] variables, List<CheckpointableRewoundListener> listeners)
+   {
+      long[] values = new long[variables.length];
+      for (int i = 0; i < variables.length; i++)
+         values[i] = variables[i].getValueAsLongBits();
+
+      byte[] listenerState = null;
+      if (!listeners.isEmpty())
+      {
+         try
+         {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+            for (int i = 0; i < listeners.size(); i++)
+               listeners.get(i).writeCheckpoint(dataOutputStream);
+            dataOutputStream.flush();
+            listenerState = byteArrayOutputStream.toByteArray();
+         }
+         catch (IOException e)
+         {
+            throw new RuntimeException("Could not write the checkpoint of the rewound listeners", e);
+         }
+      }
+
+      return new SimulationCheckpoint(recordTick, dataBufferIndex, variables, values, listenerState);
+   }
+
+   /**
+    * Sets the variables back to their value at the checkpoint, without notifying their listeners, and gives the listeners their state back.
+    *
+    * @param listeners the listeners given to {@link #capture}, in the same order.
+    */
+   public void restore(List<CheckpointableRewoundListener> listeners)
+   {
+      for (int i = 0; i < variables.length; i++)
+         variables[i].setValueFromLongBits(values[i], false);
+
+      if (listenerState == null)
+         return;
+
+      try
+      {
+         DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(listenerState));
+         for (int i = 0; i < listeners.size(); i++)
+            listeners.get(i).readCheckpoint(dataInputStream);
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException("Could not read the checkpoint of the rewound listeners", e);
+      }
+   }
+
+   public long getRecordTick()
+   {
+      return recordTick;
+   }
+
+   public int getDataBufferIndex()
+   {
+      return dataBufferIndex;
+   }
+
+   /**
+    * @return the approximate memory used by this checkpoint, in bytes.
+    */
+   public long getSizeInBytes()
+   {
+      return 8L * values.length + (listenerState == null ? 0 : listenerState.length);
+   }
+}
@@ -676,7 +676,11 @@ public abstract class YoVariablePanel extends JPanel implements KeyListener, Mou
 
             if(searchPanel != null && searchPanel.showInitStackTrace())
             {
-               displayText += "\n Initialized " + yoVariable.getStackTraceAtInitialization();
+               String stackTraceAtInitialization = yoVariable.getStackTraceAtInitialization();
+               if (stackTraceAtInitialization != null)
+                  displayText += "\n Initialized " + stackTraceAtInitialization;
+               else
+                  displayText += "\n Initialization stack trace not captured, run with -DyoVariable.captureStackTraceAtInitialization=true";
             }
 
             displayText = displayText.replaceAll("\n", "<br>");
@@ -0,0 +1,57 @@
+package us.ihmc.simulationconstructionset.physics.collision;
+
+import java.util.List;
+
+import us.ihmc.robotics.geometry.BoundingBox3d;
+import us.ihmc.simulationconstructionset.physics.CollisionShape;
+
+/**
+ * Reference broad phase that tests the bounding boxes of every pair of shapes. Costs O(n^2) per call, use
+ * {@link SweepAndPruneBroadPhase} for scenes with many shapes.
+ */
+public class AllPairsBroadPhase implements CollisionBroadPhase
+{
+   private BoundingBox3d[] boundingBoxes = new BoundingBox3d[0];
+
+   @Override
+   public void computeCandidatePairs(List<? extends CollisionShape> collisionShapes, CollisionPairList candidatePairsToPack)
+   {
+      candidatePairsToPack.clear();
+
+      int numberOfShapes = collisionShapes.size();
+
+      if (boundingBoxes.length < numberOfShapes)
+      {
+         boundingBoxes = new BoundingBox3d[numberOfShapes];
+
+         for (int i = 0; i < numberOfShapes; i++)
+         {
+            boundingBoxes[i] = new BoundingBox3d(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+         }
+      }
+
+      for (int i = 0; i < numberOfShapes; i++)
+      {
+         collisionShapes.get(i).getBoundingBox(boundingBoxes[i]);
+      }
+
+      for (int i = 0; i < numberOfShapes; i++)
+      {
+         CollisionShape shapeOne = collisionShapes.get(i);
+
+         for (int j = i + 1; j < numberOfShapes; j++)
+         {
+            CollisionShape shapeTwo = collisionShapes.get(j);
+
+            if ((shapeOne.getCollisionGroup() & shapeTwo.getCollisionMask()) == 0x00)
+               continue;
+
+            if ((shapeTwo.getCollisionGroup() & shapeOne.getCollisionMask()) == 0x00)
+               continue;
+
+            if (boundingBoxes[i].intersects(boundingBoxes[j]))
+               candidatePairsToPack.add(i, j);
+         }
+      }
+   }
+}
@@ -0,0 +1,22 @@
+package us.ihmc.simulationconstructionset.physics.collision;
+
+import java.util.List;
+
+import us.ihmc.simulationconstructionset.physics.CollisionShape;
+
+/**
+ * First phase of collision detection. Finds the pairs of shapes that may be colliding so that only those are handed to the
+ * exact, shape specific collision tests.
+ * <p>
+ * Implementations have to be exact: a pair is a candidate if and only if the bounding boxes of the two shapes intersect and the
+ * collision group of each shape matches the collision mask of the other one.
+ */
+public interface CollisionBroadPhase
+{
+   /**
+    * Packs the candidate pairs as indices in the list of shapes. The shapes must already have their transformed collision shape
+    * computed. The pairs are packed with the lower index first and sorted, so they come out in the same order as a double loop over
+    * the shapes.
+    */
+   public abstract void computeCandidatePairs(List<? extends CollisionShape> collisionShapes, CollisionPairList candidatePairsToPack);
+}
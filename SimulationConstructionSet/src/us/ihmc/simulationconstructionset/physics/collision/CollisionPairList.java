@@ -0,0 +1,63 @@
+package us.ihmc.simulationconstructionset.physics.collision;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of pairs of shape indices that does not generate garbage once it has reached its working size.
+ */
+public class CollisionPairList
+{
+   private long[] pairs;
+   private int size = 0;
+
+   public CollisionPairList()
+   {
+      this(64);
+   }
+
+   public CollisionPairList(int initialCapacity)
+   {
+      pairs = new long[Math.max(initialCapacity, 1)];
+   }
+
+   public void clear()
+   {
+      size = 0;
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   /**
+    * Adds the pair, storing the lower index first.
+    */
+   public void add(int indexOne, int indexTwo)
+   {
+      if (size == pairs.length)
+         pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+
+      int first = Math.min(indexOne, indexTwo);
+      int second = Math.max(indexOne, indexTwo);
+      pairs[size++] = ((long) first << 32) | (second & 0xFFFFFFFFL);
+   }
+
+   public int getFirst(int pairIndex)
+   {
+      return (int) (pairs[pairIndex] >>> 32);
+   }
+
+   public int getSecond(int pairIndex)
+   {
+      return (int) pairs[pairIndex];
+   }
+
+   /**
+    * Sorts the pairs on their first index, then on their second index.
+    */
+   public void sort()
+   {
+      Arrays.sort(pairs, 0, size);
+   }
+}
@@ -0,0 +1,180 @@
+package us.ihmc.simulationconstructionset.physics.collision;
+
+import java.util.List;
+
+import us.ihmc.robotics.geometry.BoundingBox3d;
+import us.ihmc.simulationconstructionset.physics.CollisionShape;
+
+/**
+ * Sweep and prune broad phase.
+ * <p>
+ * The bounding boxes are sorted on their lower bound along the axis on which the shapes are the most spread out, and swept in that
+ * order: a box only has to be tested against the boxes that start before it ends. The sort order is kept from one call to the next
+ * and fixed with an insertion sort, which is close to linear since shapes only move a little between two ticks. The cost is then
+ * O(n + k) where k is the number of boxes overlapping on the sweep axis.
+ */
+public class SweepAndPruneBroadPhase implements CollisionBroadPhase
+{
+   private static final int X = 0, Y = 1, Z = 2;
+
+   /** Changing axis costs a full re-sort, so only do it when another axis is clearly better. */
+   private static final double AXIS_SWITCH_VARIANCE_RATIO = 1.5;
+
+   private final BoundingBox3d boundingBox = new BoundingBox3d(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+
+   private double[] minimums = new double[0];
+   private double[] maximums = new double[0];
+   private int[] sortedIndices = new int[0];
+   private int numberOfSortedShapes = 0;
+   private int sweepAxis = X;
+
+   private final double[] centerSum = new double[3];
+   private final double[] centerSumOfSquares = new double[3];
+
+   @Override
+   public void computeCandidatePairs(List<? extends CollisionShape> collisionShapes, CollisionPairList candidatePairsToPack)
+   {
+      candidatePairsToPack.clear();
+
+      int numberOfShapes = collisionShapes.size();
+      updateBounds(collisionShapes, numberOfShapes);
+
+      sweepAxis = computeSweepAxis(numberOfShapes);
+      sortOnMinimum(sweepAxis, numberOfShapes);
+
+      int firstOtherAxis = (sweepAxis + 1) % 3;
+      int secondOtherAxis = (sweepAxis + 2) % 3;
+
+      for (int a = 0; a < numberOfShapes; a++)
+      {
+         int i = sortedIndices[a];
+         double maximumOnSweepAxis = maximums[3 * i + sweepAxis];
+
+         for (int b = a + 1; b < numberOfShapes; b++)
+         {
+            int j = sortedIndices[b];
+
+            if (minimums[3 * j + sweepAxis] > maximumOnSweepAxis)
+               break;
+
+            if (!overlapOnAxis(i, j, firstOtherAxis) || !overlapOnAxis(i, j, secondOtherAxis))
+               continue;
+
+            CollisionShape shapeOne = collisionShapes.get(i);
+            CollisionShape shapeTwo = collisionShapes.get(j);
+
+            if ((shapeOne.getCollisionGroup() & shapeTwo.getCollisionMask()) == 0x00)
+               continue;
+
+            if ((shapeTwo.getCollisionGroup() & shapeOne.getCollisionMask()) == 0x00)
+               continue;
+
+            candidatePairsToPack.add(i, j);
+         }
+      }
+
+      candidatePairsToPack.sort();
+   }
+
+   private void updateBounds(List<? extends CollisionShape> collisionShapes, int numberOfShapes)
+   {
+      if (minimums.length < 3 * numberOfShapes)
+      {
+         minimums = new double[3 * numberOfShapes];
+         maximums = new double[3 * numberOfShapes];
+      }
+
+      if (numberOfSortedShapes != numberOfShapes)
+      {
+         sortedIndices = new int[numberOfShapes];
+
+         for (int i = 0; i < numberOfShapes; i++)
+         {
+            sortedIndices[i] = i;
+         }
+
+         numberOfSortedShapes = numberOfShapes;
+      }
+
+      for (int i = 0; i < numberOfShapes; i++)
+      {
+         collisionShapes.get(i).getBoundingBox(boundingBox);
+
+         minimums[3 * i + X] = boundingBox.getXMin();
+         minimums[3 * i + Y] = boundingBox.getYMin();
+         minimums[3 * i + Z] = boundingBox.getZMin();
+         maximums[3 * i + X] = boundingBox.getXMax();
+         maximums[3 * i + Y] = boundingBox.getYMax();
+         maximums[3 * i + Z] = boundingBox.getZMax();
+      }
+   }
+
+   /**
+    * Picks the axis along which the box centers have the largest variance, so that the fewest boxes overlap on it. Keeps the current
+    * axis unless another one is clearly better.
+    */
+   private int computeSweepAxis(int numberOfShapes)
+   {
+      if (numberOfShapes < 2)
+         return sweepAxis;
+
+      double[] sum = centerSum;
+      double[] sumOfSquares = centerSumOfSquares;
+
+      for (int axis = X; axis <= Z; axis++)
+      {
+         sum[axis] = 0.0;
+         sumOfSquares[axis] = 0.0;
+      }
+
+      for (int i = 0; i < numberOfShapes; i++)
+      {
+         for (int axis = X; axis <= Z; axis++)
+         {
+            double center = 0.5 * (minimums[3 * i + axis] + maximums[3 * i + axis]);
+            sum[axis] += center;
+            sumOfSquares[axis] += center * center;
+         }
+      }
+
+      int bestAxis = sweepAxis;
+      double currentVariance = sumOfSquares[sweepAxis] - sum[sweepAxis] * sum[sweepAxis] / numberOfShapes;
+      double largestVariance = AXIS_SWITCH_VARIANCE_RATIO * currentVariance;
+
+      for (int axis = X; axis <= Z; axis++)
+      {
+         double variance = sumOfSquares[axis] - sum[axis] * sum[axis] / numberOfShapes;
+
+         if (variance > largestVariance)
+         {
+            largestVariance = variance;
+            bestAxis = axis;
+         }
+      }
+
+      return bestAxis;
+   }
+
+   private void sortOnMinimum(int axis, int numberOfShapes)
+   {
+      for (int a = 1; a < numberOfShapes; a++)
+      {
+         int index = sortedIndices[a];
+         double minimum = minimums[3 * index + axis];
+
+         int b = a - 1;
+         while (b >= 0 && minimums[3 * sortedIndices[b] + axis] > minimum)
+         {
+            sortedIndices[b + 1] = sortedIndices[b];
+            b--;
+         }
+
+         sortedIndices[b + 1] = index;
+      }
+   }
+
+   private boolean overlapOnAxis(int i, int j, int axis)
+   {
+      return maximums[3 * i + axis] >= minimums[3 * j + axis] && maximums[3 * j + axis] >= minimums[3 * i + axis];
+   }
+}
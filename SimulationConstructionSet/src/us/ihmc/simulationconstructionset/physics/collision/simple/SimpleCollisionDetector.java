@@ -10,7 +10,6 @@ import us.ihmc.geometry.polytope.ExpandingPolytopeAlgorithm;
 import us.ihmc.geometry.polytope.GilbertJohnsonKeerthiCollisionDetector;
 import us.ihmc.geometry.polytope.SimplexPolytope;
 import us.ihmc.geometry.polytope.SupportingVertexHolder;
-import us.ihmc.robotics.geometry.BoundingBox3d;
 import us.ihmc.robotics.geometry.LineSegment3d;
 import us.ihmc.robotics.geometry.RigidBodyTransform;
 import us.ihmc.simulationconstructionset.Link;
@@ -18,7 +17,10 @@ import us.ihmc.simulationconstructionset.physics.CollisionShape;
 import us.ihmc.simulationconstructionset.physics.CollisionShapeDescription;
 import us.ihmc.simulationconstructionset.physics.CollisionShapeFactory;
 import us.ihmc.simulationconstructionset.physics.ScsCollisionDetector;
+import us.ihmc.simulationconstructionset.physics.collision.CollisionBroadPhase;
 import us.ihmc.simulationconstructionset.physics.collision.CollisionDetectionResult;
+import us.ihmc.simulationconstructionset.physics.collision.CollisionPairList;
+import us.ihmc.simulationconstructionset.physics.collision.SweepAndPruneBroadPhase;
 
 public class SimpleCollisionDetector implements ScsCollisionDetector
 {
@@ -41,6 +43,7 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
    public SimpleCollisionDetector(double objectSmoothingRadius)
    {
       this.objectSmoothingRadius = objectSmoothingRadius;
+      setupNarrowPhaseTests();
    }
 
    public void setObjectSmoothingRadius(double objectSmoothingRadius)
@@ -78,17 +81,81 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
 
    private boolean useSimpleSpeedupMethod = false;
 
-   //TODO: Get rid of the need for this by first phase collision detection.
    private double percentChanceCheckCollision = 0.9;
 
 
+   /**
+    * Randomly skips pairs of shapes that have not collided yet. This may miss collisions, use the broad phase instead.
+    */
+   @Deprecated
    public void setUseSimpleSpeedupMethod()
    {
       this.useSimpleSpeedupMethod = true;
    }
 
-   private final BoundingBox3d boundingBoxOne = new BoundingBox3d(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
-   private final BoundingBox3d boundingBoxTwo = new BoundingBox3d(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+   private CollisionBroadPhase broadPhase = new SweepAndPruneBroadPhase();
+   private final CollisionPairList candidatePairs = new CollisionPairList();
+   private SimpleCollisionShapeType[] shapeTypes = new SimpleCollisionShapeType[0];
+
+   /**
+    * Narrow phase tests, indexed by the ordinals of the two shape types. When {@link #swapShapes} is set for a pair of types, the test
+    * takes the second shape first.
+    */
+   private final NarrowPhaseTest[][] narrowPhaseTests = new NarrowPhaseTest[SimpleCollisionShapeType.values.length][SimpleCollisionShapeType.values.length];
+   private final boolean[][] swapShapes = new boolean[SimpleCollisionShapeType.values.length][SimpleCollisionShapeType.values.length];
+
+   private enum NarrowPhaseTest
+   {
+      NONE, SPHERE_SPHERE, CAPSULE_CAPSULE, POLYTOPE_POLYTOPE, CYLINDER_CYLINDER, CAPSULE_SPHERE, SPHERE_POLYTOPE, SPHERE_CYLINDER, CAPSULE_POLYTOPE,
+      CAPSULE_CYLINDER, CYLINDER_POLYTOPE, BOX_BOX
+   }
+
+   private void setupNarrowPhaseTests()
+   {
+      int numberOfTypes = SimpleCollisionShapeType.values.length;
+
+      for (int i = 0; i < numberOfTypes; i++)
+      {
+         for (int j = 0; j < numberOfTypes; j++)
+         {
+            narrowPhaseTests[i][j] = NarrowPhaseTest.NONE;
+         }
+      }
+
+      //TODO: Add Plane
+      setNarrowPhaseTest(SimpleCollisionShapeType.SPHERE, SimpleCollisionShapeType.SPHERE, NarrowPhaseTest.SPHERE_SPHERE);
+      setNarrowPhaseTest(SimpleCollisionShapeType.CAPSULE, SimpleCollisionShapeType.CAPSULE, NarrowPhaseTest.CAPSULE_CAPSULE);
+      setNarrowPhaseTest(SimpleCollisionShapeType.POLYTOPE, SimpleCollisionShapeType.POLYTOPE, NarrowPhaseTest.POLYTOPE_POLYTOPE);
+      setNarrowPhaseTest(SimpleCollisionShapeType.CYLINDER, SimpleCollisionShapeType.CYLINDER, NarrowPhaseTest.CYLINDER_CYLINDER);
+      setNarrowPhaseTest(SimpleCollisionShapeType.CAPSULE, SimpleCollisionShapeType.SPHERE, NarrowPhaseTest.CAPSULE_SPHERE);
+      setNarrowPhaseTest(SimpleCollisionShapeType.SPHERE, SimpleCollisionShapeType.POLYTOPE, NarrowPhaseTest.SPHERE_POLYTOPE);
+      setNarrowPhaseTest(SimpleCollisionShapeType.SPHERE, SimpleCollisionShapeType.CYLINDER, NarrowPhaseTest.SPHERE_CYLINDER);
+      setNarrowPhaseTest(SimpleCollisionShapeType.CAPSULE, SimpleCollisionShapeType.POLYTOPE, NarrowPhaseTest.CAPSULE_POLYTOPE);
+      setNarrowPhaseTest(SimpleCollisionShapeType.CAPSULE, SimpleCollisionShapeType.CYLINDER, NarrowPhaseTest.CAPSULE_CYLINDER);
+      setNarrowPhaseTest(SimpleCollisionShapeType.CYLINDER, SimpleCollisionShapeType.POLYTOPE, NarrowPhaseTest.CYLINDER_POLYTOPE);
+      setNarrowPhaseTest(SimpleCollisionShapeType.BOX, SimpleCollisionShapeType.BOX, NarrowPhaseTest.BOX_BOX);
+   }
+
+   private void setNarrowPhaseTest(SimpleCollisionShapeType firstType, SimpleCollisionShapeType secondType, NarrowPhaseTest narrowPhaseTest)
+   {
+      narrowPhaseTests[firstType.ordinal()][secondType.ordinal()] = narrowPhaseTest;
+      swapShapes[firstType.ordinal()][secondType.ordinal()] = false;
+
+      if (firstType != secondType)
+      {
+         narrowPhaseTests[secondType.ordinal()][firstType.ordinal()] = narrowPhaseTest;
+         swapShapes[secondType.ordinal()][firstType.ordinal()] = true;
+      }
+   }
+
+   /**
+    * Sets the broad phase used to find the pairs of shapes that are then checked for collision. Defaults to a
+    * {@link SweepAndPruneBroadPhase}.
+    */
+   public void setBroadPhase(CollisionBroadPhase broadPhase)
+   {
+      this.broadPhase = broadPhase;
+   }
 
    @Override
    public void performCollisionDetection(CollisionDetectionResult result)
@@ -100,160 +167,91 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
          haveCollided = new boolean[numberOfObjects][numberOfObjects];
       }
 
-      for (int i = 0; i < numberOfObjects; i++)
+      if (shapeTypes.length != numberOfObjects)
       {
-         CollisionShape collisionShape = collisionObjects.get(i);
-         collisionShape.computeTransformedCollisionShape();
+         shapeTypes = new SimpleCollisionShapeType[numberOfObjects];
       }
 
       for (int i = 0; i < numberOfObjects; i++)
       {
-         CollisionShape objectOne = collisionObjects.get(i);
-         CollisionShapeDescription<?> descriptionOne = objectOne.getTransformedCollisionShapeDescription();
-
-         for (int j = i + 1; j < numberOfObjects; j++)
-         {
-            if ((useSimpleSpeedupMethod) && (!haveCollided[i][j]) && (random.nextDouble() < percentChanceCheckCollision ))
-               continue;
-
-            CollisionShape objectTwo = collisionObjects.get(j);
-            CollisionShapeDescription<?> descriptionTwo = objectTwo.getTransformedCollisionShapeDescription();
-
-            if ((objectOne.getCollisionGroup() & objectTwo.getCollisionMask()) == 0x00)
-            {
-               continue;
-            }
-            
-            if ((objectTwo.getCollisionGroup() & objectOne.getCollisionMask()) == 0x00)
-            {
-               continue;
-            }
-
-            objectOne.getBoundingBox(boundingBoxOne);
-            objectTwo.getBoundingBox(boundingBoxTwo);
-
-            if (!boundingBoxOne.intersects(boundingBoxTwo))
-            {
-               continue;
-            }
-
-            boolean areColliding = false;
-
-            //TODO: Make this shorter and more efficient...
-            //TODO: Add Plane
-            if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
-            {
-               areColliding = doSphereSphereCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
-                     (SphereShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
-            {
-               areColliding = doCapsuleCapsuleCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
-                     (CapsuleShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
-            {
-               areColliding = doPolytopePolytopeCollisionDetection(objectOne, (PolytopeShapeDescription<?>) descriptionOne, objectTwo,
-                     (PolytopeShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
-            {
-               areColliding = doCylinderCylinderCollisionDetection(objectOne, (CylinderShapeDescription<?>) descriptionOne, objectTwo,
-                     (CylinderShapeDescription<?>) descriptionTwo, result);
-            }
-
+         CollisionShape collisionShape = collisionObjects.get(i);
+         collisionShape.computeTransformedCollisionShape();
+         shapeTypes[i] = SimpleCollisionShapeType.getType(collisionShape.getTransformedCollisionShapeDescription());
+      }
 
-            else if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
-            {
-               areColliding = doCapsuleSphereCollisionDetection(objectTwo, (CapsuleShapeDescription<?>) descriptionTwo, objectOne,
-                     (SphereShapeDescription<?>) descriptionOne, result);
-            }
-            else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
-            {
-               areColliding = doCapsuleSphereCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
-                     (SphereShapeDescription<?>) descriptionTwo, result);
-            }
+      broadPhase.computeCandidatePairs(collisionObjects, candidatePairs);
 
-            else if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
-            {
-               areColliding = doSpherePolytopeCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
-                     (PolytopeShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
-            {
-               areColliding = doSpherePolytopeCollisionDetection(objectTwo, (SphereShapeDescription<?>) descriptionTwo, objectOne,
-                     (PolytopeShapeDescription<?>) descriptionOne, result);
-            }
+      for (int pairIndex = 0; pairIndex < candidatePairs.size(); pairIndex++)
+      {
+         int i = candidatePairs.getFirst(pairIndex);
+         int j = candidatePairs.getSecond(pairIndex);
 
-            else if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
-            {
-               areColliding = doSphereCylinderCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
-                     (CylinderShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
-            {
-               areColliding = doSphereCylinderCollisionDetection(objectTwo, (SphereShapeDescription<?>) descriptionTwo, objectOne,
-                     (CylinderShapeDescription<?>) descriptionOne, result);
-            }
+         if ((useSimpleSpeedupMethod) && (!haveCollided[i][j]) && (random.nextDouble() < percentChanceCheckCollision))
+            continue;
 
+         NarrowPhaseTest narrowPhaseTest = narrowPhaseTests[shapeTypes[i].ordinal()][shapeTypes[j].ordinal()];
 
-            else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
-            {
-               areColliding = doCapsulePolytopeCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
-                     (PolytopeShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
-            {
-               areColliding = doCapsulePolytopeCollisionDetection(objectTwo, (CapsuleShapeDescription<?>) descriptionTwo, objectOne,
-                     (PolytopeShapeDescription<?>) descriptionOne, result);
-            }
-            else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
-            {
-               areColliding = doCapsuleCylinderCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
-                     (CylinderShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
-            {
-               areColliding = doCapsuleCylinderCollisionDetection(objectTwo, (CapsuleShapeDescription<?>) descriptionTwo, objectOne,
-                     (CylinderShapeDescription<?>) descriptionOne, result);
-            }
+         if (narrowPhaseTest == NarrowPhaseTest.NONE)
+            continue;
 
-            else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
-            {
-               areColliding = doCylinderPolytopeCollisionDetection(objectTwo, (CylinderShapeDescription<?>) descriptionTwo, objectOne,
-                     (PolytopeShapeDescription<?>) descriptionOne, result);
-            }
-            else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
-            {
-               areColliding = doCylinderPolytopeCollisionDetection(objectOne, (CylinderShapeDescription<?>) descriptionOne, objectTwo,
-                     (PolytopeShapeDescription<?>) descriptionTwo, result);
-            }
+         boolean areColliding;
 
-            else if ((descriptionOne instanceof BoxShapeDescription) && (descriptionTwo instanceof BoxShapeDescription))
-            {
-               areColliding = doBoxBoxCollisionDetection(objectOne, (BoxShapeDescription<?>) descriptionOne, objectTwo, (BoxShapeDescription<?>) descriptionTwo,
-                     result);
-            }
+         if (swapShapes[shapeTypes[i].ordinal()][shapeTypes[j].ordinal()])
+            areColliding = performNarrowPhaseTest(narrowPhaseTest, collisionObjects.get(j), collisionObjects.get(i), result);
+         else
+            areColliding = performNarrowPhaseTest(narrowPhaseTest, collisionObjects.get(i), collisionObjects.get(j), result);
 
-            if (areColliding)
-            {
-               if (useSimpleSpeedupMethod) haveCollided[i][j] = true;
-               //               ArrayList<CollisionShape> arrayList = collidingPairs.get(objectOne);
-               //               if (arrayList == null)
-               //               {
-               //                  arrayList = new ArrayList<>();
-               //                  collidingPairs.put(objectOne, arrayList);
-               //               }
-               //
-               //               if (!arrayList.contains(objectTwo))
-               //               {
-               //                  arrayList.add(objectTwo);
-               //               }
-            }
+         if (areColliding)
+         {
+            if (useSimpleSpeedupMethod)
+               haveCollided[i][j] = true;
          }
       }
    }
 
+   private boolean performNarrowPhaseTest(NarrowPhaseTest narrowPhaseTest, CollisionShape objectOne, CollisionShape objectTwo, CollisionDetectionResult result)
+   {
+      CollisionShapeDescription<?> descriptionOne = objectOne.getTransformedCollisionShapeDescription();
+      CollisionShapeDescription<?> descriptionTwo = objectTwo.getTransformedCollisionShapeDescription();
+
+      switch (narrowPhaseTest)
+      {
+      case SPHERE_SPHERE:
+         return doSphereSphereCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo, (SphereShapeDescription<?>) descriptionTwo,
+                                                 result);
+      case CAPSULE_CAPSULE:
+         return doCapsuleCapsuleCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
+                                                   (CapsuleShapeDescription<?>) descriptionTwo, result);
+      case POLYTOPE_POLYTOPE:
+         return doPolytopePolytopeCollisionDetection(objectOne, (PolytopeShapeDescription<?>) descriptionOne, objectTwo,
+                                                     (PolytopeShapeDescription<?>) descriptionTwo, result);
+      case CYLINDER_CYLINDER:
+         return doCylinderCylinderCollisionDetection(objectOne, (CylinderShapeDescription<?>) descriptionOne, objectTwo,
+                                                     (CylinderShapeDescription<?>) descriptionTwo, result);
+      case CAPSULE_SPHERE:
+         return doCapsuleSphereCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
+                                                  (SphereShapeDescription<?>) descriptionTwo, result);
+      case SPHERE_POLYTOPE:
+         return doSpherePolytopeCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
+                                                   (PolytopeShapeDescription<?>) descriptionTwo, result);
+      case SPHERE_CYLINDER:
+         return doSphereCylinderCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
+                                                   (CylinderShapeDescription<?>) descriptionTwo, result);
+      case CAPSULE_POLYTOPE:
+         return doCapsulePolytopeCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
+                                                    (PolytopeShapeDescription<?>) descriptionTwo, result);
+      case CAPSULE_CYLINDER:
+         return doCapsuleCylinderCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
+                                                    (CylinderShapeDescription<?>) descriptionTwo, result);
+      case CYLINDER_POLYTOPE:
+         return doCylinderPolytopeCollisionDetection(objectOne, (CylinderShapeDescription<?>) descriptionOne, objectTwo,
+                                                     (PolytopeShapeDescription<?>) descriptionTwo, result);
+      case BOX_BOX:
+         return doBoxBoxCollisionDetection(objectOne, (BoxShapeDescription<?>) descriptionOne, objectTwo, (BoxShapeDescription<?>) descriptionTwo, result);
+      default:
+         return false;
+      }
+   }
 
    private boolean doPolytopePolytopeCollisionDetection(CollisionShape objectOne, PolytopeShapeDescription<?> polytopeShapeDescriptionOne,
          CollisionShape objectTwo, PolytopeShapeDescription<?> polytopeShapeDescriptionTwo, CollisionDetectionResult result)
@@ -0,0 +1,29 @@
+package us.ihmc.simulationconstructionset.physics.collision.simple;
+
+import us.ihmc.simulationconstructionset.physics.CollisionShapeDescription;
+
+/**
+ * Types of shape handled by the {@link SimpleCollisionDetector}, used to index its table of narrow phase collision tests.
+ */
+public enum SimpleCollisionShapeType
+{
+   SPHERE, CAPSULE, POLYTOPE, CYLINDER, BOX, UNSUPPORTED;
+
+   public static final SimpleCollisionShapeType[] values = values();
+
+   public static SimpleCollisionShapeType getType(CollisionShapeDescription<?> description)
+   {
+      if (description instanceof SphereShapeDescription)
+         return SPHERE;
+      if (description instanceof CapsuleShapeDescription)
+         return CAPSULE;
+      if (description instanceof PolytopeShapeDescription)
+         return POLYTOPE;
+      if (description instanceof CylinderShapeDescription)
+         return CYLINDER;
+      if (description instanceof BoxShapeDescription)
+         return BOX;
+
+      return UNSUPPORTED;
+   }
+}
@@ -141,34 +141,13 @@ public class DispatchedSimulationDescription implements RemoteSimulationDescript
    public void startSimulation()
    {
       this.isSimulationDone = false;
-      System.out.println("Before Running t = " + time.getDoubleValue());
-
-      printState();
 
       Thread anim = new Thread("Simulation Anim")
       {
          @Override
-         public void run()    // throws Exception
+         public void run()
          {
-            try
-            {
-               simulation.simulate(1000.0);    // At most simulate for 1000.0 seconds, even if it doesn't finish...
-               isSimulationDone = true;
-            }
-
-            catch (UnreasonableAccelerationException e)
-            {
-               System.out.println("Simulation Crashed with Unreasonable Acceleration");    // + e.getMessage());
-               isSimulationDone = true;
-
-               // e.printStackTrace();
-               // throw e;
-            }
-            catch (Exception e)
-            {
-               System.out.println("Simulation went wrong!!!\n" + e.getMessage());
-               isSimulationDone = true;
-            }
+            runSimulation();
          }
       };
 
@@ -177,6 +156,35 @@ public class DispatchedSimulationDescription implements RemoteSimulationDescript
       System.out.println("That Sim is now running on a new thread.");
    }
 
+   @Override
+   public void runSimulation()
+   {
+      this.isSimulationDone = false;
+      System.out.println("Before Running t = " + time.getDoubleValue());
+
+      printState();
+
+      try
+      {
+         simulation.simulate(1000.0);    // At most simulate for 1000.0 seconds, even if it doesn't finish...
+         isSimulationDone = true;
+      }
+
+      catch (UnreasonableAccelerationException e)
+      {
+         System.out.println("Simulation Crashed with Unreasonable Acceleration");    // + e.getMessage());
+         isSimulationDone = true;
+
+         // e.printStackTrace();
+         // throw e;
+      }
+      catch (Exception e)
+      {
+         System.out.println("Simulation went wrong!!!\n" + e.getMessage());
+         isSimulationDone = true;
+      }
+   }
+
    @Override
    public boolean isSimulationDone()
    {
@@ -7,15 +7,15 @@ import us.ihmc.utilities.parameterOptimization.ListOfParametersToOptimize;
 
 public abstract class DispatchedSimulationIndividualToEvaluate extends IndividualToEvaluate
 {
-   private boolean evalDone = false;
+   private volatile boolean evalDone = false;
    private double fitness;
 
    private final String[] outputStateVariableNames;
-   private final SimulationDispatcher simulationDispatcher;
+   private final SimulationDispatcherInterface simulationDispatcher;
    private final Simulation simulation;
    private final SimulationConstructor simulationConstructor;
 
-   public DispatchedSimulationIndividualToEvaluate(String[] outputStateVariableNames, SimulationDispatcher simulationDispatcher, Simulation simulation,
+   public DispatchedSimulationIndividualToEvaluate(String[] outputStateVariableNames, SimulationDispatcherInterface simulationDispatcher, Simulation simulation,
          SimulationConstructor simulationConstructor)
    {
       this.outputStateVariableNames = outputStateVariableNames;
@@ -12,7 +12,11 @@ import java.util.ArrayList;
 import us.ihmc.simulationconstructionset.simulationDispatcher.client.gui.SimulationDispatcherGUI;
 import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.RemoteSimulationRunnerInterface;
 
-public class SimulationDispatcher implements Runnable
+/**
+ * Dispatches simulations to {@link us.ihmc.simulationconstructionset.simulationDispatcher.server.RemoteSimulationRunner}s over RMI. To use all the cores of
+ * this machine, or plain sockets to other machines, see {@link SimulationFarm}.
+ */
+public class SimulationDispatcher implements Runnable, SimulationDispatcherInterface
 {
    private final String password = "***REMOVED***";
    private final DispatchHostList dispatchHostList;
@@ -269,6 +273,7 @@ public class SimulationDispatcher implements Runnable
 
    }
 
+   @Override
    public synchronized void addSimulation(SimulationToDispatch sim)
    {
       System.out.println("Dispatching Simulation: " + sim.getDescription());
@@ -0,0 +1,9 @@
+package us.ihmc.simulationconstructionset.simulationDispatcher.client;
+
+public interface SimulationDispatcherInterface
+{
+   /**
+    * Queues the simulation to be run. Its {@link DispatchDoneListener} is notified with the final state once it is done.
+    */
+   public abstract void addSimulation(SimulationToDispatch simulationToDispatch);
+}
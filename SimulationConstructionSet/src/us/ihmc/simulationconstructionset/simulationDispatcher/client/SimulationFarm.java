@@ -0,0 +1,645 @@
+package us.ihmc.simulationconstructionset.simulationDispatcher.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.RemoteSimulationDescription;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmHandshake;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmJob;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmObjectInputStream;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmResult;
+import us.ihmc.simulationconstructionset.simulationDispatcher.server.SimulationFarmWorker;
+
+/**
+ * Runs simulations on a set of {@link SimulationFarmWorker}s, without RMI.
+ * <p>
+ * The farm listens on a socket. Workers are JVMs forked on this machine by {@link #startLocalWorkers(int, String...)}, workers started anywhere else with
+ * the address of the farm, or workers listening on a port that the farm connects to with {@link #connectToWorker(String, int)}. Each connection runs one
+ * simulation at a time: it takes the next simulation from the queue, sends it and waits for the final state to come back.
+ * </p>
+ * <p>
+ * Workers run whatever they are sent, so by default the farm only listens on the loopback interface, and both ends of every connection have to prove that
+ * they know the secret of the farm, see {@link SimulationFarmHandshake}, before anything is deserialized. Only the classes allowed by
+ * {@link SimulationFarmObjectInputStream} are read back.
+ * </p>
+ * <p>
+ * The number of simulations queued or running is bounded, {@link #addSimulation(SimulationToDispatch)} and
+ * {@link #submit(RemoteSimulationDescription, String[], double[], Object)} block when it is reached. When a worker dies, its simulation goes back to the
+ * front of the queue for another worker, up to {@value #MAXIMUM_NUMBER_OF_ATTEMPTS} times. When the last worker dies, the simulations still in the
+ * queue fail, since nothing would run them.
+ * </p>
+ */
+public class SimulationFarm implements SimulationDispatcherInterface
+{
+   private static final int MAXIMUM_NUMBER_OF_ATTEMPTS = 3;
+   private static final String SHUT_DOWN_MESSAGE = "the simulation farm was shut down";
+   private static final String NO_WORKERS_LEFT_MESSAGE = "the last worker of the simulation farm died";
+
+   private final ServerSocket serverSocket;
+   private final String secret;
+   private final LinkedHashSet<String> additionalAllowedClassNames = new LinkedHashSet<String>();
+   private final Semaphore outstandingSimulations;
+   private final LinkedBlockingDeque<PendingSimulation> queuedSimulations = new LinkedBlockingDeque<PendingSimulation>();
+
+   private final ArrayList<WorkerConnection> workerConnections = new ArrayList<WorkerConnection>();
+   private final ArrayList<Process> workerProcesses = new ArrayList<Process>();
+   private final ArrayList<SimulationToDispatch> doneSimulations = new ArrayList<SimulationToDispatch>();
+
+   private final AtomicLong nextJobId = new AtomicLong();
+   private final AtomicInteger numberOfRunningSimulations = new AtomicInteger();
+   private final AtomicInteger numberOfCompletedSimulations = new AtomicInteger();
+   private final AtomicInteger numberOfFailedSimulations = new AtomicInteger();
+   private final AtomicInteger numberOfRescheduledSimulations = new AtomicInteger();
+
+   private long retiredWorkersBusyTime = 0L;
+   private long retiredWorkersConnectedTime = 0L;
+
+   private volatile boolean running = true;
+
+   /**
+    * Creates a farm listening on a free port of the loopback interface, allowing four simulations per processor to be queued or running.
+    */
+   public SimulationFarm()
+   {
+      this(0, 4 * Runtime.getRuntime().availableProcessors());
+   }
+
+   /**
+    * Creates a farm listening on the loopback interface, with a new random secret.
+    *
+    * @param port the port to listen on for workers, 0 for any free port.
+    * @param maximumNumberOfOutstandingSimulations how many simulations can be queued or running before adding a new one blocks.
+    */
+   public SimulationFarm(int port, int maximumNumberOfOutstandingSimulations)
+   {
+      this(InetAddress.getLoopbackAddress(), port, maximumNumberOfOutstandingSimulations, SimulationFarmHandshake.createSecret());
+   }
+
+   /**
+    * Creates a farm that workers of other machines can connect to.
+    *
+    * @param bindAddress the address of the interface to listen on, null for all of them.
+    * @param port the port to listen on for workers, 0 for any free port.
+    * @param maximumNumberOfOutstandingSimulations how many simulations can be queued or running before adding a new one blocks.
+    * @param secret the secret shared with the workers.
+    */
+   public SimulationFarm(InetAddress bindAddress, int port, int maximumNumberOfOutstandingSimulations, String secret)
+   {
+      if (secret == null || secret.isEmpty())
+         throw new RuntimeException("The simulation farm needs a secret");
+
+      this.secret = secret;
+      outstandingSimulations = new Semaphore(maximumNumberOfOutstandingSimulations);
+
+      try
+      {
+         serverSocket = new ServerSocket(port, 0, bindAddress);
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException("Could not open the simulation farm server socket on port " + port, e);
+      }
+
+      Thread acceptThread = new Thread(new Runnable()
+      {
+         @Override
+         public void run()
+         {
+            acceptWorkers();
+         }
+      }, "SimulationFarmAccept");
+      acceptThread.setDaemon(true);
+      acceptThread.start();
+   }
+
+   public int getPort()
+   {
+      return serverSocket.getLocalPort();
+   }
+
+   /**
+    * @return the address that workers of this machine connect to.
+    */
+   public InetAddress getAddress()
+   {
+      InetAddress address = serverSocket.getInetAddress();
+      return address.isAnyLocalAddress() ? InetAddress.getLoopbackAddress() : address;
+   }
+
+   /**
+    * @return the secret that workers have to know, give it to them in {@value SimulationFarmWorker#SECRET_ENVIRONMENT_VARIABLE}.
+    */
+   public String getSecret()
+   {
+      return secret;
+   }
+
+   /**
+    * Allows the given classes in the final states sent back by the workers, and in the simulations sent to the workers forked afterwards by
+    * {@link #startLocalWorkers(int, String...)}. Other workers get them in {@value SimulationFarmWorker#ALLOWED_CLASSES_ENVIRONMENT_VARIABLE}.
+    */
+   public void allowClasses(Class<?>... classes)
+   {
+      synchronized (additionalAllowedClassNames)
+      {
+         for (int i = 0; i < classes.length; i++)
+            additionalAllowedClassNames.add(classes[i].getName());
+      }
+   }
+
+   private ArrayList<String> getAdditionalAllowedClassNames()
+   {
+      synchronized (additionalAllowedClassNames)
+      {
+         return new ArrayList<String>(additionalAllowedClassNames);
+      }
+   }
+
+   private void acceptWorkers()
+   {
+      while (running)
+      {
+         try
+         {
+            addWorkerConnection(serverSocket.accept());
+         }
+         catch (IOException e)
+         {
+            if (running)
+               System.err.println("SimulationFarm: failed to accept a worker: " + e.getMessage());
+         }
+      }
+   }
+
+   /**
+    * Forks {@code numberOfWorkers} JVMs on this machine, with the classpath of this one, each running a {@link SimulationFarmWorker} connected to this farm.
+    */
+   public void startLocalWorkers(int numberOfWorkers, String... jvmArguments)
+   {
+      String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+      for (int i = 0; i < numberOfWorkers; i++)
+      {
+         List<String> command = new ArrayList<String>();
+         command.add(java);
+         command.addAll(Arrays.asList(jvmArguments));
+         command.add("-cp");
+         command.add(System.getProperty("java.class.path"));
+         command.add(SimulationFarmWorker.class.getName());
+         command.add(getAddress().getHostAddress());
+         command.add(String.valueOf(getPort()));
+
+         // The environment does not show up in the process list, unlike the arguments.
+         ProcessBuilder processBuilder = new ProcessBuilder(command).inheritIO();
+         processBuilder.environment().put(SimulationFarmWorker.SECRET_ENVIRONMENT_VARIABLE, secret);
+         processBuilder.environment().put(SimulationFarmWorker.ALLOWED_CLASSES_ENVIRONMENT_VARIABLE, String.join(",", getAdditionalAllowedClassNames()));
+
+         try
+         {
+            Process process = processBuilder.start();
+            synchronized (workerProcesses)
+            {
+               workerProcesses.add(process);
+            }
+         }
+         catch (IOException e)
+         {
+            throw new RuntimeException("Could not start a simulation farm worker", e);
+         }
+      }
+   }
+
+   /**
+    * Connects to a {@link SimulationFarmWorker} listening on {@code host:port}. Connect several times to run several simulations at once on that host.
+    */
+   public void connectToWorker(String host, int port)
+   {
+      try
+      {
+         addWorkerConnection(new Socket(host, port));
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException("Could not connect to the simulation farm worker " + host + ":" + port, e);
+      }
+   }
+
+   private void addWorkerConnection(Socket socket)
+   {
+      // The connection only counts as a worker once it has passed the handshake, on its own thread.
+      WorkerConnection workerConnection = new WorkerConnection(socket);
+      Thread thread = new Thread(workerConnection, "SimulationFarmWorker-" + socket.getRemoteSocketAddress());
+      thread.setDaemon(true);
+      thread.start();
+   }
+
+   @Override
+   public void addSimulation(SimulationToDispatch simulationToDispatch)
+   {
+      DispatchedSimulationDescription description = new DispatchedSimulationDescription(simulationToDispatch.getConstructor(),
+                                                                                         simulationToDispatch.getInputStateVariableNames(),
+                                                                                         simulationToDispatch.getOutputStateVariableNames());
+      queueSimulation(new PendingSimulation(description, simulationToDispatch.getStructuralParameterNames(),
+                                            simulationToDispatch.getStructuralParameterValues(), simulationToDispatch.getInputState(), simulationToDispatch));
+   }
+
+   /**
+    * Queues a simulation and returns its final state, as given by {@link RemoteSimulationDescription#getSimulationState()}, once it is done.
+    */
+   public Future<Object> submit(RemoteSimulationDescription description, String[] structuralParameterNames, double[] structuralParameterValues,
+                                Object inputState)
+   {
+      PendingSimulation pendingSimulation = new PendingSimulation(description, structuralParameterNames, structuralParameterValues, inputState, null);
+      queueSimulation(pendingSimulation);
+      return pendingSimulation.result;
+   }
+
+   private void queueSimulation(PendingSimulation pendingSimulation)
+   {
+      if (!running)
+         throw new RuntimeException("The simulation farm is shut down");
+
+      try
+      {
+         outstandingSimulations.acquire();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new RuntimeException("Interrupted while waiting for room in the simulation farm queue", e);
+      }
+
+      queuedSimulations.add(pendingSimulation);
+
+      // The farm might have been shut down while waiting for room in the queue.
+      if (!running)
+         failQueuedSimulations(SHUT_DOWN_MESSAGE);
+   }
+
+   private void failQueuedSimulations(String reason)
+   {
+      PendingSimulation pendingSimulation;
+      while ((pendingSimulation = queuedSimulations.poll()) != null)
+         simulationFailed(pendingSimulation, reason);
+   }
+
+   private void simulationDone(PendingSimulation pendingSimulation, SimulationFarmResult result)
+   {
+      if (result.getErrorMessage() != null)
+      {
+         simulationFailed(pendingSimulation, result.getErrorMessage());
+         return;
+      }
+
+      numberOfCompletedSimulations.incrementAndGet();
+      outstandingSimulations.release();
+
+      if (pendingSimulation.simulationToDispatch != null)
+         notifyDispatchDoneListener(pendingSimulation.simulationToDispatch, (double[]) result.getFinalState());
+      pendingSimulation.result.complete(result.getFinalState());
+   }
+
+   private void simulationFailed(PendingSimulation pendingSimulation, String reason)
+   {
+      System.err.println("SimulationFarm: simulation failed: " + reason);
+      numberOfFailedSimulations.incrementAndGet();
+      outstandingSimulations.release();
+
+      // The listener still has to know that the simulation is over, it gets a final state of NaNs.
+      SimulationToDispatch simulationToDispatch = pendingSimulation.simulationToDispatch;
+      if (simulationToDispatch != null)
+      {
+         double[] finalState = new double[simulationToDispatch.getOutputStateVariableNames().length];
+         Arrays.fill(finalState, Double.NaN);
+         simulationToDispatch.setResultsString("failed: " + reason);
+         notifyDispatchDoneListener(simulationToDispatch, finalState);
+      }
+      pendingSimulation.result.completeExceptionally(new RuntimeException(reason));
+   }
+
+   private void notifyDispatchDoneListener(SimulationToDispatch simulationToDispatch, double[] finalState)
+   {
+      simulationToDispatch.setFinalState(finalState);
+
+      try
+      {
+         DispatchDoneListener listener = simulationToDispatch.getDispatchDoneListener();
+         if (listener != null)
+            listener.dispatchDone(simulationToDispatch, finalState);
+      }
+      catch (RuntimeException e)
+      {
+         e.printStackTrace();
+      }
+
+      simulationToDispatch.setSimulationFinished();
+
+      synchronized (doneSimulations)
+      {
+         doneSimulations.add(simulationToDispatch);
+      }
+   }
+
+   private void reschedule(PendingSimulation pendingSimulation, String reason)
+   {
+      pendingSimulation.numberOfAttempts++;
+      if (pendingSimulation.numberOfAttempts >= MAXIMUM_NUMBER_OF_ATTEMPTS)
+      {
+         simulationFailed(pendingSimulation, "gave up after " + pendingSimulation.numberOfAttempts + " attempts, last worker failure: " + reason);
+         return;
+      }
+
+      numberOfRescheduledSimulations.incrementAndGet();
+      queuedSimulations.addFirst(pendingSimulation);
+   }
+
+   public int getNumberOfWorkers()
+   {
+      synchronized (workerConnections)
+      {
+         return workerConnections.size();
+      }
+   }
+
+   public int getNumberOfQueuedSimulations()
+   {
+      return queuedSimulations.size();
+   }
+
+   public int getNumberOfRunningSimulations()
+   {
+      return numberOfRunningSimulations.get();
+   }
+
+   public int getNumberOfCompletedSimulations()
+   {
+      return numberOfCompletedSimulations.get();
+   }
+
+   public int getNumberOfFailedSimulations()
+   {
+      return numberOfFailedSimulations.get();
+   }
+
+   /**
+    * @return how many times a simulation was put back in the queue because its worker died.
+    */
+   public int getNumberOfRescheduledSimulations()
+   {
+      return numberOfRescheduledSimulations.get();
+   }
+
+   public SimulationToDispatch[] getDoneSimulations()
+   {
+      synchronized (doneSimulations)
+      {
+         return doneSimulations.toArray(new SimulationToDispatch[doneSimulations.size()]);
+      }
+   }
+
+   /**
+    * @return the fraction of the time the workers, current and past, spent running simulations since they connected.
+    */
+   public double getUtilization()
+   {
+      long now = System.nanoTime();
+
+      synchronized (workerConnections)
+      {
+         long busyTime = retiredWorkersBusyTime;
+         long connectedTime = retiredWorkersConnectedTime;
+
+         for (int i = 0; i < workerConnections.size(); i++)
+         {
+            WorkerConnection workerConnection = workerConnections.get(i);
+            busyTime += workerConnection.getBusyTime(now);
+            connectedTime += now - workerConnection.connectionTime;
+         }
+
+         return connectedTime > 0L ? (double) busyTime / (double) connectedTime : 0.0;
+      }
+   }
+
+   public String getStatistics()
+   {
+      return "workers: " + getNumberOfWorkers() + ", queued: " + getNumberOfQueuedSimulations() + ", running: " + getNumberOfRunningSimulations()
+            + ", completed: " + getNumberOfCompletedSimulations() + ", failed: " + getNumberOfFailedSimulations() + ", rescheduled: "
+            + getNumberOfRescheduledSimulations() + ", utilization: " + String.format("%.1f%%", 100.0 * getUtilization());
+   }
+
+   /**
+    * Disconnects the workers, stops the forked ones, and fails the simulations that did not run.
+    */
+   public void shutdown()
+   {
+      running = false;
+
+      try
+      {
+         serverSocket.close();
+      }
+      catch (IOException e)
+      {
+      }
+
+      synchronized (workerConnections)
+      {
+         for (int i = 0; i < workerConnections.size(); i++)
+            workerConnections.get(i).close();
+      }
+
+      synchronized (workerProcesses)
+      {
+         for (int i = 0; i < workerProcesses.size(); i++)
+            workerProcesses.get(i).destroy();
+         workerProcesses.clear();
+      }
+
+      failQueuedSimulations(SHUT_DOWN_MESSAGE);
+   }
+
+   private class WorkerConnection implements Runnable
+   {
+      private final Socket socket;
+      private final long connectionTime = System.nanoTime();
+      private volatile Thread thread;
+
+      private long busyTime = 0L;
+      private long currentSimulationStartTime = -1L;
+
+      public WorkerConnection(Socket socket)
+      {
+         this.socket = socket;
+      }
+
+      @Override
+      public void run()
+      {
+         thread = Thread.currentThread();
+         PendingSimulation currentSimulation = null;
+
+         try
+         {
+            SimulationFarmHandshake.authenticate(socket, secret, true);
+            if (!register())
+               return;
+
+            ObjectOutputStream outputStream = new ObjectOutputStream(socket.getOutputStream());
+            outputStream.flush();
+            ObjectInputStream inputStream = new SimulationFarmObjectInputStream(socket.getInputStream(), getAdditionalAllowedClassNames());
+
+            while (running)
+            {
+               currentSimulation = queuedSimulations.take();
+               simulationStarted();
+
+               outputStream.writeObject(currentSimulation.createJob());
+               outputStream.flush();
+               outputStream.reset();
+
+               SimulationFarmResult result = (SimulationFarmResult) inputStream.readObject();
+               if (result.getJobId() != currentSimulation.jobId)
+                  throw new IOException("Expected the result of job " + currentSimulation.jobId + ", got " + result.getJobId());
+
+               simulationFinished();
+               PendingSimulation doneSimulation = currentSimulation;
+               currentSimulation = null;
+               simulationDone(doneSimulation, result);
+            }
+         }
+         catch (InterruptedException e)
+         {
+         }
+         catch (IOException | ClassNotFoundException e)
+         {
+            if (running)
+               System.err.println("SimulationFarm: lost worker " + socket.getRemoteSocketAddress() + ": " + e.getMessage());
+         }
+         finally
+         {
+            if (currentSimulation != null)
+            {
+               simulationFinished();
+               if (running)
+                  reschedule(currentSimulation, "lost worker " + socket.getRemoteSocketAddress());
+               else
+                  simulationFailed(currentSimulation, SHUT_DOWN_MESSAGE);
+            }
+
+            close();
+            retire();
+         }
+      }
+
+      /**
+       * @return false if the farm was shut down in the meantime.
+       */
+      private boolean register()
+      {
+         synchronized (workerConnections)
+         {
+            if (!running)
+               return false;
+
+            workerConnections.add(this);
+            return true;
+         }
+      }
+
+      private synchronized void simulationStarted()
+      {
+         numberOfRunningSimulations.incrementAndGet();
+         currentSimulationStartTime = System.nanoTime();
+      }
+
+      private synchronized void simulationFinished()
+      {
+         numberOfRunningSimulations.decrementAndGet();
+         busyTime += System.nanoTime() - currentSimulationStartTime;
+         currentSimulationStartTime = -1L;
+      }
+
+      private synchronized long getBusyTime(long now)
+      {
+         return currentSimulationStartTime < 0L ? busyTime : busyTime + now - currentSimulationStartTime;
+      }
+
+      private void retire()
+      {
+         long now = System.nanoTime();
+         boolean lastWorkerDied = false;
+
+         synchronized (workerConnections)
+         {
+            if (workerConnections.remove(this))
+            {
+               retiredWorkersBusyTime += getBusyTime(now);
+               retiredWorkersConnectedTime += now - connectionTime;
+               lastWorkerDied = running && workerConnections.isEmpty();
+            }
+         }
+
+         // Includes the simulation of this worker that was just put back in the queue.
+         if (lastWorkerDied)
+            failQueuedSimulations(NO_WORKERS_LEFT_MESSAGE);
+      }
+
+      public void close()
+      {
+         try
+         {
+            socket.close();
+         }
+         catch (IOException e)
+         {
+         }
+
+         // Wakes the connection up if it is waiting for a simulation to be queued.
+         Thread thread = this.thread;
+         if (thread != null && thread != Thread.currentThread())
+            thread.interrupt();
+      }
+   }
+
+   private class PendingSimulation
+   {
+      private final long jobId = nextJobId.getAndIncrement();
+      private final RemoteSimulationDescription description;
+      private final String[] structuralParameterNames;
+      private final double[] structuralParameterValues;
+      private final Object inputState;
+      private final SimulationToDispatch simulationToDispatch;
+      private final CompletableFuture<Object> result = new CompletableFuture<Object>();
+      private int numberOfAttempts = 0;
+
+      public PendingSimulation(RemoteSimulationDescription description, String[] structuralParameterNames, double[] structuralParameterValues,
+                               Object inputState, SimulationToDispatch simulationToDispatch)
+      {
+         this.description = description;
+         this.structuralParameterNames = structuralParameterNames;
+         this.structuralParameterValues = structuralParameterValues;
+         this.inputState = inputState;
+         this.simulationToDispatch = simulationToDispatch;
+      }
+
+      public SimulationFarmJob createJob()
+      {
+         return new SimulationFarmJob(jobId, description, structuralParameterNames, structuralParameterValues, inputState);
+      }
+   }
+}
@@ -10,6 +10,11 @@ public interface RemoteSimulationDescription extends java.io.Serializable
    
    public abstract void startSimulation();
 
+   /**
+    * Runs the simulation on the calling thread and returns once it is done.
+    */
+   public abstract void runSimulation();
+
    public abstract boolean isSimulationDone();
 
    public abstract Object getSimulationState();
@@ -0,0 +1,99 @@
+package us.ihmc.simulationconstructionset.simulationDispatcher.interfaces;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Checks that both ends of a simulation farm connection know the same secret before any object is read from it.
+ * <p>
+ * Each side sends a random challenge and answers the challenge of the other side with an HMAC of it keyed by the secret, so the secret itself never goes
+ * over the socket. The farm and the worker answer with a different prefix, a peer can not pass by sending back the answer it was just given.
+ * </p>
+ */
+public class SimulationFarmHandshake
+{
+   private static final String ALGORITHM = "HmacSHA256";
+   private static final int CHALLENGE_LENGTH = 32;
+   private static final int TIMEOUT_IN_MILLISECONDS = 10000;
+   private static final byte FARM_SIDE = 'F';
+   private static final byte WORKER_SIDE = 'W';
+
+   private static final SecureRandom random = new SecureRandom();
+
+   /**
+    * @return a new random secret, to share between a farm and its workers.
+    */
+   public static String createSecret()
+   {
+      byte[] secret = new byte[CHALLENGE_LENGTH];
+      random.nextBytes(secret);
+      return Base64.getEncoder().encodeToString(secret);
+   }
+
+   /**
+    * Runs the handshake on a connection that has not been used yet.
+    *
+    * @param farmSide true on the farm end of the connection, false on the worker end.
+    * @throws IOException if the other end does not know the secret or does not answer in time.
+    */
+   public static void authenticate(Socket socket, String secret, boolean farmSide) throws IOException
+   {
+      if (secret == null || secret.isEmpty())
+         throw new IOException("No simulation farm secret");
+
+      int timeout = socket.getSoTimeout();
+      socket.setSoTimeout(TIMEOUT_IN_MILLISECONDS);
+
+      try
+      {
+         DataOutputStream outputStream = new DataOutputStream(socket.getOutputStream());
+         DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+
+         byte[] challenge = new byte[CHALLENGE_LENGTH];
+         random.nextBytes(challenge);
+         outputStream.write(challenge);
+         outputStream.flush();
+
+         byte[] peerChallenge = new byte[CHALLENGE_LENGTH];
+         inputStream.readFully(peerChallenge);
+         outputStream.write(computeAnswer(secret, farmSide ? FARM_SIDE : WORKER_SIDE, peerChallenge));
+         outputStream.flush();
+
+         byte[] expectedAnswer = computeAnswer(secret, farmSide ? WORKER_SIDE : FARM_SIDE, challenge);
+         byte[] peerAnswer = new byte[expectedAnswer.length];
+         inputStream.readFully(peerAnswer);
+
+         if (!MessageDigest.isEqual(expectedAnswer, peerAnswer))
+            throw new IOException(socket.getRemoteSocketAddress() + " does not know the simulation farm secret");
+      }
+      finally
+      {
+         socket.setSoTimeout(timeout);
+      }
+   }
+
+   private static byte[] computeAnswer(String secret, byte side, byte[] challenge)
+   {
+      try
+      {
+         Mac mac = Mac.getInstance(ALGORITHM);
+         mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+         mac.update(side);
+         return mac.doFinal(challenge);
+      }
+      catch (GeneralSecurityException e)
+      {
+         throw new RuntimeException("Could not compute the simulation farm handshake", e);
+      }
+   }
+}
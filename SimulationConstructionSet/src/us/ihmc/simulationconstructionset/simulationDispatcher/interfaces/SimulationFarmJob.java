@@ -0,0 +1,52 @@
+package us.ihmc.simulationconstructionset.simulationDispatcher.interfaces;
+
+import java.io.Serializable;
+
+/**
+ * Simulation sent by the simulation farm to one of its workers.
+ */
+public class SimulationFarmJob implements Serializable
+{
+   private static final long serialVersionUID = -2305478120375633291L;
+
+   private final long jobId;
+   private final RemoteSimulationDescription description;
+   private final String[] structuralParameterNames;
+   private final double[] structuralParameterValues;
+   private final Object inputState;
+
+   public SimulationFarmJob(long jobId, RemoteSimulationDescription description, String[] structuralParameterNames, double[] structuralParameterValues,
+                            Object inputState)
+   {
+      this.jobId = jobId;
+      this.description = description;
+      this.structuralParameterNames = structuralParameterNames;
+      this.structuralParameterValues = structuralParameterValues;
+      this.inputState = inputState;
+   }
+
+   public long getJobId()
+   {
+      return jobId;
+   }
+
+   public RemoteSimulationDescription getDescription()
+   {
+      return description;
+   }
+
+   public String[] getStructuralParameterNames()
+   {
+      return structuralParameterNames;
+   }
+
+   public double[] getStructuralParameterValues()
+   {
+      return structuralParameterValues;
+   }
+
+   public Object getInputState()
+   {
+      return inputState;
+   }
+}
@@ -0,0 +1,79 @@
+package us.ihmc.simulationconstructionset.simulationDispatcher.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads the jobs and results of a simulation farm connection, and refuses any other class.
+ * <p>
+ * Allowed are {@link SimulationFarmJob}, {@link SimulationFarmResult}, the implementations of {@link RemoteSimulationDescription}, strings, boxed
+ * primitives, arrays of those and of primitives, and the classes given to the constructor. A description or a state holding anything else has to have its
+ * classes added on both ends.
+ * </p>
+ */
+public class SimulationFarmObjectInputStream extends ObjectInputStream
+{
+   private static final Set<String> ALWAYS_ALLOWED_CLASS_NAMES = new HashSet<String>(Arrays.asList(SimulationFarmJob.class.getName(),
+                                                                                                    SimulationFarmResult.class.getName(),
+                                                                                                    String.class.getName(), Number.class.getName(),
+                                                                                                    Boolean.class.getName(), Character.class.getName(),
+                                                                                                    Byte.class.getName(), Short.class.getName(),
+                                                                                                    Integer.class.getName(), Long.class.getName(),
+                                                                                                    Float.class.getName(), Double.class.getName()));
+
+   private final Set<String> additionalAllowedClassNames;
+
+   public SimulationFarmObjectInputStream(InputStream inputStream, Collection<String> additionalAllowedClassNames) throws IOException
+   {
+      super(inputStream);
+      this.additionalAllowedClassNames = new HashSet<String>(additionalAllowedClassNames);
+   }
+
+   @Override
+   protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException
+   {
+      String className = description.getName();
+      String componentClassName = getComponentClassName(className);
+
+      // Primitive arrays have nothing left to check.
+      if (componentClassName == null)
+         return super.resolveClass(description);
+
+      if (ALWAYS_ALLOWED_CLASS_NAMES.contains(componentClassName) || additionalAllowedClassNames.contains(componentClassName))
+         return super.resolveClass(description);
+
+      // Loading the class does not initialize it, it is only used if it is a simulation description.
+      Class<?> clazz = super.resolveClass(description);
+      Class<?> componentClass = clazz;
+      while (componentClass.isArray())
+         componentClass = componentClass.getComponentType();
+
+      if (RemoteSimulationDescription.class.isAssignableFrom(componentClass))
+         return clazz;
+
+      throw new InvalidClassException(className, "not allowed on a simulation farm connection");
+   }
+
+   /**
+    * @return the name of the class of the elements of an array class, the name itself if it is not an array, or null for an array of primitives.
+    */
+   private static String getComponentClassName(String className)
+   {
+      int dimensions = 0;
+      while (className.charAt(dimensions) == '[')
+         dimensions++;
+
+      if (dimensions == 0)
+         return className;
+      if (className.charAt(dimensions) == 'L' && className.endsWith(";"))
+         return className.substring(dimensions + 1, className.length() - 1);
+      return null;
+   }
+}
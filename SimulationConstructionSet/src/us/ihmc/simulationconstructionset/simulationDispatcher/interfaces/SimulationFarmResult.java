@@ -0,0 +1,40 @@
+package us.ihmc.simulationconstructionset.simulationDispatcher.interfaces;
+
+import java.io.Serializable;
+
+/**
+ * Final state of a {@link SimulationFarmJob}, or the reason it failed, sent back by the worker.
+ */
+public class SimulationFarmResult implements Serializable
+{
+   private static final long serialVersionUID = 4452126018860478345L;
+
+   private final long jobId;
+   private final Object finalState;
+   private final String errorMessage;
+
+   public SimulationFarmResult(long jobId, Object finalState, String errorMessage)
+   {
+      this.jobId = jobId;
+      this.finalState = finalState;
+      this.errorMessage = errorMessage;
+   }
+
+   public long getJobId()
+   {
+      return jobId;
+   }
+
+   public Object getFinalState()
+   {
+      return finalState;
+   }
+
+   /**
+    * @return null if the simulation ran successfully.
+    */
+   public String getErrorMessage()
+   {
+      return errorMessage;
+   }
+}
@@ -0,0 +1,165 @@
+package us.ihmc.simulationconstructionset.simulationDispatcher.server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import us.ihmc.simulationconstructionset.simulationDispatcher.client.SimulationFarm;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.RemoteSimulationDescription;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmHandshake;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmJob;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmObjectInputStream;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmResult;
+
+/**
+ * Runs the simulations sent by a {@link SimulationFarm} over a socket, one at a time, and sends back their final state.
+ * <p>
+ * Usage: {@code SimulationFarmWorker <farmHost> <farmPort>} connects to a farm, {@code SimulationFarmWorker -listen <port>} waits for farms of this machine to
+ * connect and serves each connection on its own thread. {@code SimulationFarmWorker -listen <bindAddress> <port>} listens on another interface instead, use
+ * {@code 0.0.0.0} for all of them.
+ * </p>
+ * <p>
+ * The secret shared with the farm, see {@link SimulationFarm#getSecret()}, is taken from the {@value #SECRET_ENVIRONMENT_VARIABLE} environment variable.
+ * The classes that the simulations need besides the ones always allowed by {@link SimulationFarmObjectInputStream} are taken, separated by commas, from
+ * {@value #ALLOWED_CLASSES_ENVIRONMENT_VARIABLE}.
+ * </p>
+ */
+public class SimulationFarmWorker implements Runnable
+{
+   public static final String SECRET_ENVIRONMENT_VARIABLE = "SIMULATION_FARM_SECRET";
+   public static final String ALLOWED_CLASSES_ENVIRONMENT_VARIABLE = "SIMULATION_FARM_ALLOWED_CLASSES";
+
+   private static boolean DEBUG = false;
+
+   private final Socket socket;
+   private final String secret;
+   private final Collection<String> additionalAllowedClassNames;
+
+   public SimulationFarmWorker(Socket socket, String secret)
+   {
+      this(socket, secret, new ArrayList<String>());
+   }
+
+   /**
+    * @param secret the secret of the farm, the connection is closed if the other end does not know it.
+    * @param additionalAllowedClassNames the classes that the simulations need besides the ones always allowed by {@link SimulationFarmObjectInputStream}.
+    */
+   public SimulationFarmWorker(Socket socket, String secret, Collection<String> additionalAllowedClassNames)
+   {
+      this.socket = socket;
+      this.secret = secret;
+      this.additionalAllowedClassNames = additionalAllowedClassNames;
+   }
+
+   /**
+    * Serves the simulations of the farm until the connection is closed.
+    */
+   @Override
+   public void run()
+   {
+      try
+      {
+         SimulationFarmHandshake.authenticate(socket, secret, false);
+
+         ObjectOutputStream outputStream = new ObjectOutputStream(socket.getOutputStream());
+         outputStream.flush();
+         ObjectInputStream inputStream = new SimulationFarmObjectInputStream(socket.getInputStream(), additionalAllowedClassNames);
+
+         while (true)
+         {
+            SimulationFarmJob job = (SimulationFarmJob) inputStream.readObject();
+            if (DEBUG)
+               System.out.println("SimulationFarmWorker: running job " + job.getJobId());
+
+            outputStream.writeObject(runJob(job));
+            outputStream.flush();
+            outputStream.reset();
+         }
+      }
+      catch (EOFException e)
+      {
+         // The farm closed the connection.
+      }
+      catch (IOException | ClassNotFoundException e)
+      {
+         System.err.println("SimulationFarmWorker: connection to " + socket.getRemoteSocketAddress() + " lost: " + e.getMessage());
+      }
+      finally
+      {
+         try
+         {
+            socket.close();
+         }
+         catch (IOException e)
+         {
+         }
+      }
+   }
+
+   private static SimulationFarmResult runJob(SimulationFarmJob job)
+   {
+      RemoteSimulationDescription description = job.getDescription();
+
+      try
+      {
+         description.createSimulation(job.getStructuralParameterNames(), job.getStructuralParameterValues());
+         description.setSimulationState(job.getInputState());
+         description.runSimulation();
+         Object finalState = description.getSimulationState();
+         description.destroySimulation();
+
+         return new SimulationFarmResult(job.getJobId(), finalState, null);
+      }
+      catch (Exception e)
+      {
+         StringWriter stackTrace = new StringWriter();
+         e.printStackTrace(new PrintWriter(stackTrace));
+         return new SimulationFarmResult(job.getJobId(), null, stackTrace.toString());
+      }
+   }
+
+   public static void main(String[] args) throws IOException
+   {
+      String secret = System.getenv(SECRET_ENVIRONMENT_VARIABLE);
+      if (secret == null || secret.isEmpty())
+      {
+         System.err.println("SimulationFarmWorker: set " + SECRET_ENVIRONMENT_VARIABLE + " to the secret of the simulation farm");
+         return;
+      }
+
+      ArrayList<String> additionalAllowedClassNames = new ArrayList<String>();
+      String allowedClasses = System.getenv(ALLOWED_CLASSES_ENVIRONMENT_VARIABLE);
+      if (allowedClasses != null && !allowedClasses.isEmpty())
+         additionalAllowedClassNames.addAll(Arrays.asList(allowedClasses.split(",")));
+
+      if ((args.length == 2 || args.length == 3) && args[0].equals("-listen"))
+      {
+         InetAddress bindAddress = args.length == 3 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+         ServerSocket serverSocket = new ServerSocket(Integer.parseInt(args[args.length - 1]), 0, bindAddress);
+         System.out.println("SimulationFarmWorker: waiting for farms on " + serverSocket.getLocalSocketAddress());
+
+         while (true)
+         {
+            Socket socket = serverSocket.accept();
+            new Thread(new SimulationFarmWorker(socket, secret, additionalAllowedClassNames), "SimulationFarmWorker-" + socket.getRemoteSocketAddress()).start();
+         }
+      }
+      else if (args.length == 2)
+      {
+         new SimulationFarmWorker(new Socket(args[0], Integer.parseInt(args[1])), secret, additionalAllowedClassNames).run();
+      }
+      else
+      {
+         System.err.println("Usage: SimulationFarmWorker <farmHost> <farmPort>, or SimulationFarmWorker -listen [bindAddress] <port>");
+      }
+   }
+}
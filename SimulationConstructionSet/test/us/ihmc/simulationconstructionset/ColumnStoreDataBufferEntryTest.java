@@ -0,0 +1,107 @@
+package us.ihmc.simulationconstructionset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.simulationconstructionset.dataBuffer.DataBufferColumnStore;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class ColumnStoreDataBufferEntryTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testSameAsDataBufferEntry()
+   {
+      Random random = new Random(1234L);
+      int nPoints = 500;
+
+      DoubleYoVariable variable = new DoubleYoVariable("variable", null);
+      DataBufferColumnStore columnStore = new DataBufferColumnStore(nPoints, null);
+      DataBufferEntry expectedEntry = new DataBufferEntry(variable, nPoints);
+      ColumnStoreDataBufferEntry columnStoreEntry = new ColumnStoreDataBufferEntry(variable, columnStore, nPoints);
+
+      for (int i = 0; i < 3 * nPoints; i++)
+      {
+         variable.set(random.nextDouble() * 10.0 - 3.0);
+         expectedEntry.setDataAtIndexToYoVariableValue(i % nPoints);
+         columnStoreEntry.setDataAtIndexToYoVariableValue(i % nPoints);
+      }
+
+      assertEntriesEqual(expectedEntry, columnStoreEntry);
+
+      int left = 100, right = 400;
+      assertEquals(expectedEntry.getMax(left, right, 0, nPoints), columnStoreEntry.getMax(left, right, 0, nPoints), 0.0);
+      assertEquals(expectedEntry.getMin(left, right, 0, nPoints), columnStoreEntry.getMin(left, right, 0, nPoints), 0.0);
+      assertEquals(expectedEntry.getMax(right, left, 0, nPoints), columnStoreEntry.getMax(right, left, 0, nPoints), 0.0);
+      assertEquals(expectedEntry.getMin(right, left, 0, nPoints), columnStoreEntry.getMin(right, left, 0, nPoints), 0.0);
+
+      expectedEntry.enlargeBufferSize(750);
+      columnStoreEntry.enlargeBufferSize(750);
+      assertEntriesEqual(expectedEntry, columnStoreEntry);
+
+      expectedEntry.packData(123);
+      columnStoreEntry.packData(123);
+      assertEntriesEqual(expectedEntry, columnStoreEntry);
+
+      assertEquals(expectedEntry.cropData(50, 600), columnStoreEntry.cropData(50, 600));
+      assertEntriesEqual(expectedEntry, columnStoreEntry);
+
+      assertEquals(expectedEntry.cutData(10, 20), columnStoreEntry.cutData(10, 20));
+      assertEntriesEqual(expectedEntry, columnStoreEntry);
+
+      assertEquals(expectedEntry.thinData(3), columnStoreEntry.thinData(3));
+      assertArrayEquals(expectedEntry.getData(), columnStoreEntry.getData(), 0.0);
+      assertEquals(expectedEntry.computeAverage(), columnStoreEntry.computeAverage(), 1e-12);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testDataBufferWithColumnStore()
+   {
+      int bufferSize = 100;
+      DataBuffer dataBuffer = new DataBuffer(bufferSize);
+      DoubleYoVariable a = new DoubleYoVariable("a", null);
+      DoubleYoVariable b = new DoubleYoVariable("b", null);
+
+      try
+      {
+         dataBuffer.addVariable(a);
+         dataBuffer.enableColumnStore(null);
+         dataBuffer.addVariable(b);
+      }
+      catch (DataBuffer.RepeatDataBufferEntryException e)
+      {
+         throw new RuntimeException(e);
+      }
+
+      for (int i = 0; i < 2 * bufferSize; i++)
+      {
+         a.set(i);
+         b.set(-i);
+         dataBuffer.tickAndUpdate();
+      }
+
+      assertEquals(bufferSize * 3 / 2 * 3 / 2, dataBuffer.getBufferSize());
+      assertEquals(2 * bufferSize - 1.0, dataBuffer.getEntry(a).getMax(), 0.0);
+      assertEquals(-(2 * bufferSize - 1.0), dataBuffer.getEntry(b).getMin(), 0.0);
+
+      dataBuffer.setIndex(10);
+      assertEquals(9.0, a.getDoubleValue(), 0.0);
+      assertEquals(-9.0, b.getDoubleValue(), 0.0);
+
+      dataBuffer.closeAndDispose();
+   }
+
+   private static void assertEntriesEqual(DataBufferEntry expectedEntry, ColumnStoreDataBufferEntry columnStoreEntry)
+   {
+      assertEquals(expectedEntry.getDataLength(), columnStoreEntry.getDataLength());
+      assertArrayEquals(expectedEntry.getData(), columnStoreEntry.getData(), 0.0);
+      assertEquals(expectedEntry.getMax(), columnStoreEntry.getMax(), 0.0);
+      assertEquals(expectedEntry.getMin(), columnStoreEntry.getMin(), 0.0);
+   }
+}
@@ -0,0 +1,174 @@
+package us.ihmc.simulationconstructionset;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import javax.vecmath.Vector3d;
+
+import org.junit.Test;
+
+import us.ihmc.simulationconstructionset.util.LinearGroundContactModel;
+import us.ihmc.simulationconstructionset.util.ground.CombinedTerrainObject3D;
+import us.ihmc.simulationconstructionset.util.simulationRunner.SimulationRewindabilityVerifier;
+import us.ihmc.simulationconstructionset.util.simulationRunner.VariableDifference;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class ParallelSimulatorTest
+{
+   private static final boolean SHOW_GUI = false;
+   private static final boolean VERBOSE = false;
+
+   private static final int NUMBER_OF_ROBOTS = 8;
+   private static final double DT = 0.0001;
+
+   @ContinuousIntegrationTest(estimatedDuration = 3.0)
+   @Test(timeout = 300000)
+   public void testParallelSteppingIsSameAsSerialStepping() throws UnreasonableAccelerationException
+   {
+      SimulationConstructionSet serialSCS = constructSimulationConstructionSet(1);
+      SimulationConstructionSet parallelSCS = constructSimulationConstructionSet(4);
+
+      ArrayList<String> exceptions = new ArrayList<String>();
+      SimulationRewindabilityVerifier verifier = new SimulationRewindabilityVerifier(serialSCS, parallelSCS, exceptions);
+
+      for (int i = 0; i < 20; i++)
+      {
+         verifier.simulateForNumberOfTicks(50);
+
+         // Compares all the variables of both simulations, with no difference allowed.
+         ArrayList<VariableDifference> variableDifferences = verifier.verifySimulationsAreSameToStart();
+
+         if (VERBOSE)
+            System.out.println(VariableDifference.allVariableDifferencesToString(variableDifferences));
+
+         assertTrue(variableDifferences.isEmpty());
+      }
+
+      serialSCS.closeAndDispose();
+      parallelSCS.closeAndDispose();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 3.0)
+   @Test(timeout = 300000)
+   public void testParallelSteppingWithSharedGroundIsSameAsSerialStepping() throws UnreasonableAccelerationException
+   {
+      SimulationConstructionSet serialSCS = constructSimulationConstructionSetWithSharedGround(1);
+      SimulationConstructionSet parallelSCS = constructSimulationConstructionSetWithSharedGround(4);
+
+      ArrayList<String> exceptions = new ArrayList<String>();
+      SimulationRewindabilityVerifier verifier = new SimulationRewindabilityVerifier(serialSCS, parallelSCS, exceptions);
+
+      for (int i = 0; i < 20; i++)
+      {
+         verifier.simulateForNumberOfTicks(50);
+
+         ArrayList<VariableDifference> variableDifferences = verifier.verifySimulationsAreSameToStart();
+
+         if (VERBOSE)
+            System.out.println(VariableDifference.allVariableDifferencesToString(variableDifferences));
+
+         assertTrue(variableDifferences.isEmpty());
+      }
+
+      serialSCS.closeAndDispose();
+      parallelSCS.closeAndDispose();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 3.0)
+   @Test(timeout = 300000)
+   public void testParallelSteppingIsRewindable() throws UnreasonableAccelerationException
+   {
+      SimulationConstructionSet scs1 = constructSimulationConstructionSet(4);
+      SimulationConstructionSet scs2 = constructSimulationConstructionSet(4);
+
+      ArrayList<String> exceptions = new ArrayList<String>();
+      SimulationRewindabilityVerifier verifier = new SimulationRewindabilityVerifier(scs1, scs2, exceptions);
+
+      int numTests = 500;
+      double maxDifferenceAllowed = 1e-12;
+
+      ArrayList<VariableDifference> variableDifferences = verifier.checkRewindabilityWithSimpleMethod(numTests, maxDifferenceAllowed);
+
+      if (VERBOSE)
+         System.out.println(VariableDifference.allVariableDifferencesToString(variableDifferences));
+
+      assertTrue(variableDifferences.isEmpty());
+
+      scs1.closeAndDispose();
+      scs2.closeAndDispose();
+   }
+
+   private SimulationConstructionSet constructSimulationConstructionSet(int numberOfSimulationThreads)
+   {
+      Random random = new Random(1986L);
+
+      Robot[] robots = new Robot[NUMBER_OF_ROBOTS];
+
+      for (int i = 0; i < NUMBER_OF_ROBOTS; i++)
+      {
+         Robot robot = RandomRobotGenerator.generateRandomLinearChainRobot("randomRobot" + i, true, 5, random);
+         robot.setGravity(new Vector3d(0.0, 0.0, -0.01));
+         RandomRobotGenerator.setRandomJointVelocities(robot, random);
+         robots[i] = robot;
+      }
+
+      return constructSimulationConstructionSet(robots, numberOfSimulationThreads);
+   }
+
+   /**
+    * All the robots have ground contact points on each of their joints and use the same ground, which keeps scratch variables.
+    */
+   private SimulationConstructionSet constructSimulationConstructionSetWithSharedGround(int numberOfSimulationThreads)
+   {
+      Random random = new Random(1987L);
+
+      CombinedTerrainObject3D ground = new CombinedTerrainObject3D("sharedGround");
+      ground.addBox(-10.0, -10.0, 10.0, 10.0, -0.5, 0.0);
+      ground.addBox(-0.5, -0.5, 0.5, 0.5, 0.0, 0.1);
+
+      Robot[] robots = new Robot[NUMBER_OF_ROBOTS];
+
+      for (int i = 0; i < NUMBER_OF_ROBOTS; i++)
+      {
+         Robot robot = RandomRobotGenerator.generateRandomLinearChainRobot("randomRobot" + i, true, 5, random);
+         robot.setGravity(new Vector3d(0.0, 0.0, -9.81));
+
+         addGroundContactPoints(robot, robot.getRootJoints().get(0));
+         LinearGroundContactModel groundContactModel = new LinearGroundContactModel(robot, robot.getRobotsYoVariableRegistry());
+         groundContactModel.setGroundProfile3D(ground);
+         robot.setGroundContactModel(groundContactModel);
+
+         FloatingJoint rootJoint = (FloatingJoint) robot.getRootJoints().get(0);
+         rootJoint.setPosition(0.3 * (i - NUMBER_OF_ROBOTS / 2), 0.0, 0.2);
+         RandomRobotGenerator.setRandomJointVelocities(robot, random);
+         robots[i] = robot;
+      }
+
+      return constructSimulationConstructionSet(robots, numberOfSimulationThreads);
+   }
+
+   private static void addGroundContactPoints(Robot robot, Joint joint)
+   {
+      joint.addGroundContactPoint(new GroundContactPoint("gc_" + joint.getName(), robot));
+
+      for (Joint childJoint : joint.getChildrenJoints())
+      {
+         addGroundContactPoints(robot, childJoint);
+      }
+   }
+
+   private SimulationConstructionSet constructSimulationConstructionSet(Robot[] robots, int numberOfSimulationThreads)
+   {
+      SimulationConstructionSetParameters parameters = new SimulationConstructionSetParameters();
+      parameters.setCreateGUI(SHOW_GUI);
+      parameters.setNumberOfSimulationThreads(numberOfSimulationThreads);
+
+      SimulationConstructionSet scs = new SimulationConstructionSet(robots, parameters);
+      scs.setDT(DT, 1);
+      scs.startOnAThread();
+
+      return scs;
+   }
+}
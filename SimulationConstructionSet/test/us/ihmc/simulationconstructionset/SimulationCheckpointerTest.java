@@ -0,0 +1,99 @@
+package us.ihmc.simulationconstructionset;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.vecmath.Vector3d;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.Axis;
+import us.ihmc.robotics.geometry.RotationalInertiaCalculator;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class SimulationCheckpointerTest
+{
+   private static final int RECORD_FREQUENCY = 5;
+   private static final int RECORD_TICKS_PER_CHECKPOINT = 10;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSeekBackAndReplayIsSameAsUninterruptedRun() throws UnreasonableAccelerationException
+   {
+      Simulation uninterrupted = createPendulumSimulation();
+      simulateRecordTicks(uninterrupted, 67);
+      double[] stateAtTick67 = getPendulumState(uninterrupted);
+      simulateRecordTicks(uninterrupted, 33);
+      double[] stateAtTick100 = getPendulumState(uninterrupted);
+
+      Simulation simulation = createPendulumSimulation();
+      SimulationCheckpointer checkpointer = simulation.enableCheckpoints(RECORD_TICKS_PER_CHECKPOINT, 100);
+      simulateRecordTicks(simulation, 100);
+      assertEquals(100L, checkpointer.getRecordTick());
+
+      assertEquals(7L, checkpointer.seek(67L));
+      assertEquals(67L, checkpointer.getRecordTick());
+      assertStateEquals(stateAtTick67, getPendulumState(simulation));
+
+      simulateRecordTicks(simulation, 33);
+      assertEquals(100L, checkpointer.getRecordTick());
+      assertStateEquals(stateAtTick100, getPendulumState(simulation));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testRecordTickFollowsDataBufferRewind() throws UnreasonableAccelerationException
+   {
+      Simulation uninterrupted = createPendulumSimulation();
+      simulateRecordTicks(uninterrupted, 65);
+      double[] stateAtTick65 = getPendulumState(uninterrupted);
+
+      Simulation simulation = createPendulumSimulation();
+      SimulationCheckpointer checkpointer = simulation.enableCheckpoints(RECORD_TICKS_PER_CHECKPOINT, 100);
+      simulateRecordTicks(simulation, 100);
+
+      // Same as rewinding from the GUI and simulating from there.
+      DataBuffer dataBuffer = simulation.getDataBuffer();
+      dataBuffer.setIndex(dataBuffer.getIndex() - 50);
+      simulateRecordTicks(simulation, 20);
+
+      assertEquals(70L, checkpointer.getRecordTick());
+      assertEquals(8, checkpointer.getNumberOfCheckpoints());
+
+      assertEquals(5L, checkpointer.seek(65L));
+      assertStateEquals(stateAtTick65, getPendulumState(simulation));
+   }
+
+   private static void simulateRecordTicks(Simulation simulation, int numberOfRecordTicks) throws UnreasonableAccelerationException
+   {
+      simulation.simulate(numberOfRecordTicks * RECORD_FREQUENCY);
+   }
+
+   private static Simulation createPendulumSimulation()
+   {
+      Robot robot = new Robot("pendulum");
+      PinJoint pinJoint = new PinJoint("pin", new Vector3d(), robot, Axis.Y);
+      Link link = new Link("link");
+      link.setMass(1.0);
+      link.setComOffset(0.0, 0.0, -0.5);
+      link.setMomentOfInertia(RotationalInertiaCalculator.getRotationalInertiaMatrixOfSolidEllipsoid(1.0, 0.05, 0.05, 0.5));
+      pinJoint.setLink(link);
+      robot.addRootJoint(pinJoint);
+      pinJoint.setQ(1.0);
+
+      Simulation simulation = new Simulation(robot, 1024);
+      simulation.setDT(0.001, RECORD_FREQUENCY);
+      return simulation;
+   }
+
+   private static double[] getPendulumState(Simulation simulation)
+   {
+      PinJoint pinJoint = (PinJoint) simulation.getRobots()[0].getRootJoints().get(0);
+      return new double[] {pinJoint.getQYoVariable().getDoubleValue(), pinJoint.getQDYoVariable().getDoubleValue()};
+   }
+
+   private static void assertStateEquals(double[] expected, double[] actual)
+   {
+      assertEquals(expected[0], actual[0], 0.0);
+      assertEquals(expected[1], actual[1], 0.0);
+   }
+}
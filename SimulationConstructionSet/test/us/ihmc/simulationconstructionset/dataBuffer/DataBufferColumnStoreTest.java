@@ -0,0 +1,158 @@
+package us.ihmc.simulationconstructionset.dataBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class DataBufferColumnStoreTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testMinMaxMatchBruteForceWhileOverwriting()
+   {
+      Random random = new Random(1776L);
+      int capacity = 1000;
+      DataBufferColumnStore columnStore = new DataBufferColumnStore(capacity, null);
+      int column = columnStore.addColumn();
+      columnStore.fill(column, 0, capacity, 0.0);
+
+      double[] expected = new double[capacity];
+
+      for (int i = 0; i < 20000; i++)
+      {
+         int index = random.nextInt(capacity);
+         double value = random.nextDouble() * 100.0 - 50.0;
+
+         columnStore.set(column, index, value);
+         expected[index] = value;
+
+         if (i % 100 == 0)
+         {
+            assertEquals(bruteForceMin(expected, 0, capacity), columnStore.getMin(column), 0.0);
+            assertEquals(bruteForceMax(expected, 0, capacity), columnStore.getMax(column), 0.0);
+
+            int from = random.nextInt(capacity);
+            int to = from + random.nextInt(capacity - from + 1);
+
+            assertEquals(bruteForceMin(expected, from, to), columnStore.getMin(column, from, to), 0.0);
+            assertEquals(bruteForceMax(expected, from, to), columnStore.getMax(column, from, to), 0.0);
+         }
+      }
+
+      columnStore.close();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testEnsureCapacityKeepsData()
+   {
+      Random random = new Random(42L);
+      int capacity = 130;
+      DataBufferColumnStore columnStore = new DataBufferColumnStore(capacity, null);
+
+      int numberOfColumns = 300;
+      double[][] expected = new double[numberOfColumns][capacity];
+
+      for (int column = 0; column < numberOfColumns; column++)
+      {
+         assertEquals(column, columnStore.addColumn());
+
+         for (int i = 0; i < capacity; i++)
+         {
+            expected[column][i] = random.nextGaussian();
+         }
+
+         columnStore.write(column, expected[column], capacity);
+      }
+
+      columnStore.ensureCapacity(3 * capacity);
+      assertEquals(3 * capacity, columnStore.getCapacity());
+
+      double[] read = new double[capacity];
+      for (int column = 0; column < numberOfColumns; column++)
+      {
+         columnStore.read(column, read, capacity);
+
+         for (int i = 0; i < capacity; i++)
+         {
+            assertEquals(expected[column][i], read[i], 0.0);
+         }
+
+         assertEquals(bruteForceMin(expected[column], 0, capacity), columnStore.getMin(column), 0.0);
+         assertEquals(bruteForceMax(expected[column], 0, capacity), columnStore.getMax(column), 0.0);
+         assertEquals(Double.NaN, columnStore.get(column, 2 * capacity), 0.0);
+      }
+
+      columnStore.close();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testMemoryMappedColumns() throws Exception
+   {
+      File directory = new File(System.getProperty("java.io.tmpdir"));
+      DataBufferColumnStore columnStore = new DataBufferColumnStore(256, directory);
+
+      int first = columnStore.addColumn();
+      int second = columnStore.addColumn();
+
+      for (int i = 0; i < 256; i++)
+      {
+         columnStore.set(first, i, i);
+         columnStore.set(second, i, -i);
+      }
+
+      assertEquals(255.0, columnStore.getMax(first), 0.0);
+      assertEquals(-255.0, columnStore.getMin(second), 0.0);
+      assertEquals(100.0, columnStore.get(first, 100), 0.0);
+      assertEquals(-100.0, columnStore.get(second, 100), 0.0);
+
+      columnStore.close();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testGrowingDeletesReplacedFiles() throws Exception
+   {
+      File directory = Files.createTempDirectory("DataBufferColumnStoreTest").toFile();
+      DataBufferColumnStore columnStore = new DataBufferColumnStore(256, directory);
+
+      int column = columnStore.addColumn();
+      for (int i = 0; i < 256; i++)
+         columnStore.set(column, i, i);
+      assertEquals(1, directory.listFiles().length);
+
+      columnStore.ensureCapacity(1024);
+      columnStore.ensureCapacity(4096);
+      assertEquals(1, directory.listFiles().length);
+      assertEquals(255.0, columnStore.getMax(column), 0.0);
+      assertEquals(100.0, columnStore.get(column, 100), 0.0);
+
+      columnStore.close();
+      assertEquals(0, directory.listFiles().length);
+      assertTrue(directory.delete());
+   }
+
+   private static double bruteForceMin(double[] data, int from, int to)
+   {
+      double ret = Double.POSITIVE_INFINITY;
+      for (int i = from; i < to; i++)
+         ret = Math.min(ret, data[i]);
+      return ret;
+   }
+
+   private static double bruteForceMax(double[] data, int from, int to)
+   {
+      double ret = Double.NEGATIVE_INFINITY;
+      for (int i = from; i < to; i++)
+         ret = Math.max(ret, data[i]);
+      return ret;
+   }
+}
@@ -0,0 +1,114 @@
+package us.ihmc.simulationconstructionset.dataBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.dataStructures.listener.CheckpointableRewoundListener;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.BooleanYoVariable;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.EnumYoVariable;
+import us.ihmc.robotics.dataStructures.variable.IntegerYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class SimulationCheckpointTest
+{
+   private enum TestEnum
+   {
+      A, B, C
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testRestoreIsExactForAllVariableTypes()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry("test");
+      DoubleYoVariable doubleVariable = new DoubleYoVariable("double", registry);
+      LongYoVariable longVariable = new LongYoVariable("long", registry);
+      IntegerYoVariable integerVariable = new IntegerYoVariable("integer", registry);
+      BooleanYoVariable booleanVariable = new BooleanYoVariable("boolean", registry);
+      EnumYoVariable<TestEnum> enumVariable = new EnumYoVariable<TestEnum>("enum", registry, TestEnum.class);
+
+      doubleVariable.set(Math.PI);
+      longVariable.set(Long.MAX_VALUE - 1L); // Not representable as a double.
+      integerVariable.set(-12);
+      booleanVariable.set(true);
+      enumVariable.set(TestEnum.C);
+
+      YoVariable<?>[] variables = registry.getAllVariablesArray();
+      SimulationCheckpoint checkpoint = SimulationCheckpoint.capture(42L, 7, variables, new ArrayList<CheckpointableRewoundListener>());
+
+      doubleVariable.set(1.0);
+      longVariable.set(3L);
+      integerVariable.set(5);
+      booleanVariable.set(false);
+      enumVariable.set(TestEnum.A);
+
+      checkpoint.restore(new ArrayList<CheckpointableRewoundListener>());
+
+      assertEquals(Math.PI, doubleVariable.getDoubleValue(), 0.0);
+      assertEquals(Long.MAX_VALUE - 1L, longVariable.getLongValue());
+      assertEquals(-12, integerVariable.getIntegerValue());
+      assertEquals(true, booleanVariable.getBooleanValue());
+      assertEquals(TestEnum.C, enumVariable.getEnumValue());
+      assertEquals(42L, checkpoint.getRecordTick());
+      assertEquals(7, checkpoint.getDataBufferIndex());
+      assertEquals(8L * variables.length, checkpoint.getSizeInBytes());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testListenerStateIsRestored()
+   {
+      ArrayList<CheckpointableRewoundListener> listeners = new ArrayList<CheckpointableRewoundListener>();
+      CountingListener firstListener = new CountingListener();
+      CountingListener secondListener = new CountingListener();
+      listeners.add(firstListener);
+      listeners.add(secondListener);
+
+      firstListener.count = 3;
+      secondListener.count = 11;
+      SimulationCheckpoint checkpoint = SimulationCheckpoint.capture(0L, 0, new YoVariable<?>[0], listeners);
+
+      firstListener.count = 100;
+      secondListener.count = 200;
+      checkpoint.restore(listeners);
+
+      assertEquals(3, firstListener.count);
+      assertEquals(11, secondListener.count);
+      assertFalse(firstListener.wasRewound);
+   }
+
+   private static class CountingListener implements CheckpointableRewoundListener
+   {
+      private int count;
+      private boolean wasRewound = false;
+
+      @Override
+      public void wasRewound()
+      {
+         wasRewound = true;
+      }
+
+      @Override
+      public void writeCheckpoint(DataOutput dataOutput) throws IOException
+      {
+         dataOutput.writeInt(count);
+      }
+
+      @Override
+      public void readCheckpoint(DataInput dataInput) throws IOException
+      {
+         count = dataInput.readInt();
+      }
+   }
+}
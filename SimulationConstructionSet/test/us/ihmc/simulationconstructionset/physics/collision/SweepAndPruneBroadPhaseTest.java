@@ -0,0 +1,113 @@
+package us.ihmc.simulationconstructionset.physics.collision;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.robotics.geometry.RigidBodyTransform;
+import us.ihmc.simulationconstructionset.physics.CollisionShape;
+import us.ihmc.simulationconstructionset.physics.CollisionShapeDescription;
+import us.ihmc.simulationconstructionset.physics.CollisionShapeFactory;
+import us.ihmc.simulationconstructionset.physics.collision.simple.SimpleCollisionDetector;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class SweepAndPruneBroadPhaseTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.3)
+   @Test(timeout = 30000)
+   public void testSameCandidatePairsAsAllPairs()
+   {
+      Random random = new Random(1984L);
+
+      SimpleCollisionDetector detector = new SimpleCollisionDetector();
+      CollisionShapeFactory shapeFactory = detector.getShapeFactory();
+
+      int numberOfShapes = 300;
+      ArrayList<CollisionShape> shapes = new ArrayList<CollisionShape>();
+
+      for (int i = 0; i < numberOfShapes; i++)
+      {
+         CollisionShapeDescription<?> description;
+         if (i % 3 == 0)
+            description = shapeFactory.createSphere(0.05 + 0.3 * random.nextDouble());
+         else if (i % 3 == 1)
+            description = shapeFactory.createCapsule(0.05 + 0.1 * random.nextDouble(), 0.3 + 0.5 * random.nextDouble());
+         else
+            description = shapeFactory.createBox(0.1 + 0.3 * random.nextDouble(), 0.1 + 0.3 * random.nextDouble(), 0.1 + 0.3 * random.nextDouble());
+
+         int collisionGroup = 1 << random.nextInt(4);
+         int collisionMask = random.nextInt(16);
+         shapes.add(shapeFactory.addShape(null, new RigidBodyTransform(), description, false, collisionGroup, collisionMask));
+      }
+
+      SweepAndPruneBroadPhase sweepAndPrune = new SweepAndPruneBroadPhase();
+      AllPairsBroadPhase allPairs = new AllPairsBroadPhase();
+      CollisionPairList sweepAndPrunePairs = new CollisionPairList();
+      CollisionPairList allPairsPairs = new CollisionPairList();
+
+      RigidBodyTransform transform = new RigidBodyTransform();
+      double[] positions = new double[3 * numberOfShapes];
+      for (int i = 0; i < positions.length; i++)
+      {
+         positions[i] = 5.0 * random.nextDouble();
+      }
+
+      int totalNumberOfPairs = 0;
+
+      for (int tick = 0; tick < 50; tick++)
+      {
+         for (int i = 0; i < numberOfShapes; i++)
+         {
+            for (int axis = 0; axis < 3; axis++)
+            {
+               positions[3 * i + axis] += 0.05 * (random.nextDouble() - 0.5);
+            }
+
+            transform.setRotationEulerAndZeroTranslation(random.nextDouble(), random.nextDouble(), random.nextDouble());
+            transform.setTranslation(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]);
+            shapes.get(i).setTransformToWorld(transform);
+            shapes.get(i).computeTransformedCollisionShape();
+         }
+
+         sweepAndPrune.computeCandidatePairs(shapes, sweepAndPrunePairs);
+         allPairs.computeCandidatePairs(shapes, allPairsPairs);
+
+         assertEquals(allPairsPairs.size(), sweepAndPrunePairs.size());
+
+         for (int pairIndex = 0; pairIndex < allPairsPairs.size(); pairIndex++)
+         {
+            assertEquals(allPairsPairs.getFirst(pairIndex), sweepAndPrunePairs.getFirst(pairIndex));
+            assertEquals(allPairsPairs.getSecond(pairIndex), sweepAndPrunePairs.getSecond(pairIndex));
+         }
+
+         totalNumberOfPairs += allPairsPairs.size();
+      }
+
+      assertTrue(totalNumberOfPairs > 0);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testCollisionPairListOrdering()
+   {
+      CollisionPairList pairs = new CollisionPairList(1);
+      pairs.add(5, 2);
+      pairs.add(1, 7);
+      pairs.add(2, 3);
+      pairs.add(1, 0);
+      pairs.sort();
+
+      int[][] expected = new int[][] {{0, 1}, {1, 7}, {2, 3}, {2, 5}};
+      assertEquals(expected.length, pairs.size());
+
+      for (int i = 0; i < expected.length; i++)
+      {
+         assertEquals(expected[i][0], pairs.getFirst(i));
+         assertEquals(expected[i][1], pairs.getSecond(i));
+      }
+   }
+}
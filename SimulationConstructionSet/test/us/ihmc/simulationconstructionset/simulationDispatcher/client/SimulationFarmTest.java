@@ -0,0 +1,311 @@
+package us.ihmc.simulationconstructionset.simulationDispatcher.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.RemoteSimulationDescription;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmJob;
+import us.ihmc.simulationconstructionset.simulationDispatcher.interfaces.SimulationFarmObjectInputStream;
+import us.ihmc.simulationconstructionset.simulationDispatcher.server.SimulationFarmWorker;
+import us.ihmc.tools.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class SimulationFarmTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSimulationsRunOnAllWorkers() throws IOException, InterruptedException, ExecutionException
+   {
+      SimulationFarm simulationFarm = new SimulationFarm(0, 8);
+      startWorkers(simulationFarm, 4);
+
+      ArrayList<Future<Object>> results = new ArrayList<Future<Object>>();
+      for (int i = 0; i < 100; i++)
+         results.add(simulationFarm.submit(new SquaringDescription(false), null, null, new double[] {i, -i}));
+
+      for (int i = 0; i < results.size(); i++)
+         assertArrayEquals(new double[] {i * i, i * i}, (double[]) results.get(i).get(), 0.0);
+
+      assertEquals(100, simulationFarm.getNumberOfCompletedSimulations());
+      assertEquals(0, simulationFarm.getNumberOfFailedSimulations());
+      assertEquals(0, simulationFarm.getNumberOfQueuedSimulations());
+      assertEquals(4, simulationFarm.getNumberOfWorkers());
+      assertTrue(simulationFarm.getUtilization() > 0.0 && simulationFarm.getUtilization() <= 1.0);
+
+      simulationFarm.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSimulationOfADeadWorkerIsRescheduled() throws IOException, InterruptedException, ExecutionException
+   {
+      SimulationFarm simulationFarm = new SimulationFarm(0, 8);
+      startWorkers(simulationFarm, 2);
+
+      SquaringDescription.workerKilled.set(false);
+      Future<Object> result = simulationFarm.submit(new SquaringDescription(true), null, null, new double[] {3.0});
+      assertArrayEquals(new double[] {9.0}, (double[]) result.get(), 0.0);
+
+      assertTrue(SquaringDescription.workerKilled.get());
+      assertEquals(1, simulationFarm.getNumberOfRescheduledSimulations());
+      assertEquals(1, simulationFarm.getNumberOfCompletedSimulations());
+
+      simulationFarm.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSimulationsFailWhenTheOnlyWorkerDies() throws IOException, InterruptedException
+   {
+      SimulationFarm simulationFarm = new SimulationFarm(0, 8);
+
+      // Both are queued before the worker connects, it takes the first one and dies running it.
+      SquaringDescription.workerKilled.set(false);
+      Future<Object> killingResult = simulationFarm.submit(new SquaringDescription(true), null, null, new double[] {3.0});
+      SimulationToDispatch waitingSimulation = new SimulationToDispatch(null, "waiting", null, null, null, new String[] {"x"}, new double[] {1.0},
+                                                                        new String[] {"x"}, null);
+      simulationFarm.addSimulation(waitingSimulation);
+
+      startWorker(simulationFarm, simulationFarm.getSecret());
+
+      assertFailed(killingResult);
+      while (!waitingSimulation.isSimulationFinished())
+         Thread.sleep(1);
+
+      assertTrue(SquaringDescription.workerKilled.get());
+      assertTrue(Double.isNaN(waitingSimulation.getFinalState()[0]));
+      assertEquals(0, simulationFarm.getNumberOfWorkers());
+      assertEquals(0, simulationFarm.getNumberOfQueuedSimulations());
+      assertEquals(2, simulationFarm.getNumberOfFailedSimulations());
+      assertEquals(1, simulationFarm.getNumberOfRescheduledSimulations());
+
+      simulationFarm.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testShutdownFinishesWaitingSimulations() throws InterruptedException
+   {
+      final SimulationFarm simulationFarm = new SimulationFarm(0, 2);
+
+      final ArrayList<SimulationToDispatch> finishedSimulations = new ArrayList<SimulationToDispatch>();
+      DispatchDoneListener dispatchDoneListener = new DispatchDoneListener()
+      {
+         @Override
+         public void dispatchDone(SimulationToDispatch simulationToDispatch, double[] finalState)
+         {
+            synchronized (finishedSimulations)
+            {
+               finishedSimulations.add(simulationToDispatch);
+            }
+         }
+      };
+
+      // Without workers, the first two simulations fill the farm and the third one waits for room.
+      final SimulationToDispatch[] simulations = new SimulationToDispatch[3];
+      for (int i = 0; i < simulations.length; i++)
+         simulations[i] = new SimulationToDispatch(null, "simulation" + i, null, null, null, new String[] {"x"}, new double[] {i}, new String[] {"x"},
+                                                   dispatchDoneListener);
+
+      simulationFarm.addSimulation(simulations[0]);
+      Future<Object> result = simulationFarm.submit(new SquaringDescription(false), null, null, new double[] {1.0});
+
+      Thread waitingThread = new Thread(new Runnable()
+      {
+         @Override
+         public void run()
+         {
+            simulationFarm.addSimulation(simulations[2]);
+         }
+      });
+      waitingThread.start();
+
+      while (waitingThread.getState() != Thread.State.WAITING)
+         Thread.sleep(1);
+
+      simulationFarm.shutdown();
+      waitingThread.join();
+
+      assertTrue(result.isDone());
+      assertFailed(result);
+
+      assertTrue(simulations[0].isSimulationFinished());
+      assertTrue(simulations[2].isSimulationFinished());
+      assertTrue(Double.isNaN(simulations[0].getFinalState()[0]));
+      assertEquals(2, finishedSimulations.size());
+      assertEquals(3, simulationFarm.getNumberOfFailedSimulations());
+      assertEquals(0, simulationFarm.getNumberOfQueuedSimulations());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testWorkerWithoutTheSecretIsRefused() throws IOException, InterruptedException, ExecutionException
+   {
+      SimulationFarm simulationFarm = new SimulationFarm(0, 8);
+      Future<Object> result = simulationFarm.submit(new SquaringDescription(false), null, null, new double[] {2.0});
+
+      Thread worker = startWorker(simulationFarm, "not the secret");
+      worker.join();
+
+      assertEquals(0, simulationFarm.getNumberOfWorkers());
+      assertEquals(1, simulationFarm.getNumberOfQueuedSimulations());
+
+      startWorkers(simulationFarm, 1);
+      assertArrayEquals(new double[] {4.0}, (double[]) result.get(), 0.0);
+
+      simulationFarm.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testOnlyAllowedClassesAreDeserialized() throws IOException, ClassNotFoundException
+   {
+      SimulationFarmJob job = new SimulationFarmJob(7L, new SquaringDescription(false), new String[] {"a"}, new double[] {1.0}, new double[][] {{2.0}});
+      SimulationFarmJob readJob = (SimulationFarmJob) deserialize(serialize(job), new ArrayList<String>());
+      assertEquals(7L, readJob.getJobId());
+      assertTrue(readJob.getDescription() instanceof SquaringDescription);
+
+      byte[] list = serialize(new ArrayList<Double>());
+      try
+      {
+         deserialize(list, new ArrayList<String>());
+         fail("An ArrayList should not be deserialized unless allowed");
+      }
+      catch (InvalidClassException e)
+      {
+      }
+
+      ArrayList<String> allowedClassNames = new ArrayList<String>();
+      allowedClassNames.add(ArrayList.class.getName());
+      assertTrue(deserialize(list, allowedClassNames) instanceof ArrayList);
+   }
+
+   private static byte[] serialize(Object object) throws IOException
+   {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream outputStream = new ObjectOutputStream(bytes);
+      outputStream.writeObject(object);
+      outputStream.close();
+      return bytes.toByteArray();
+   }
+
+   private static Object deserialize(byte[] bytes, ArrayList<String> additionalAllowedClassNames) throws IOException, ClassNotFoundException
+   {
+      SimulationFarmObjectInputStream inputStream = new SimulationFarmObjectInputStream(new ByteArrayInputStream(bytes), additionalAllowedClassNames);
+      try
+      {
+         return inputStream.readObject();
+      }
+      finally
+      {
+         inputStream.close();
+      }
+   }
+
+   private static void assertFailed(Future<Object> result) throws InterruptedException
+   {
+      try
+      {
+         result.get();
+         fail("The simulation should have failed");
+      }
+      catch (ExecutionException e)
+      {
+      }
+   }
+
+   private static void startWorkers(SimulationFarm simulationFarm, int numberOfWorkers) throws IOException, InterruptedException
+   {
+      for (int i = 0; i < numberOfWorkers; i++)
+         startWorker(simulationFarm, simulationFarm.getSecret());
+
+      while (simulationFarm.getNumberOfWorkers() < numberOfWorkers)
+         Thread.sleep(1);
+   }
+
+   private static Thread startWorker(SimulationFarm simulationFarm, String secret) throws IOException
+   {
+      Thread worker = new Thread(new SimulationFarmWorker(new Socket(simulationFarm.getAddress(), simulationFarm.getPort()), secret));
+      worker.setDaemon(true);
+      worker.start();
+      return worker;
+   }
+
+   @SuppressWarnings("serial")
+   private static class SquaringDescription implements RemoteSimulationDescription
+   {
+      private static final AtomicBoolean workerKilled = new AtomicBoolean();
+
+      private final boolean killFirstWorker;
+      private double[] state;
+
+      public SquaringDescription(boolean killFirstWorker)
+      {
+         this.killFirstWorker = killFirstWorker;
+      }
+
+      @Override
+      public void createSimulation(String[] structuralParameterNames, double[] structuralParameterValues)
+      {
+      }
+
+      @Override
+      public void destroySimulation()
+      {
+      }
+
+      @Override
+      public void setSimulationState(Object state)
+      {
+         this.state = ((double[]) state).clone();
+      }
+
+      @Override
+      public void startSimulation()
+      {
+         runSimulation();
+      }
+
+      @Override
+      public void runSimulation()
+      {
+         if (killFirstWorker && workerKilled.compareAndSet(false, true))
+            throw new Error("Killing the worker");
+
+         for (int i = 0; i < state.length; i++)
+            state[i] = state[i] * state[i];
+      }
+
+      @Override
+      public boolean isSimulationDone()
+      {
+         return true;
+      }
+
+      @Override
+      public Object getSimulationState()
+      {
+         return state;
+      }
+
+      @Override
+      public Object getSimulationData()
+      {
+         return null;
+      }
+   }
+}
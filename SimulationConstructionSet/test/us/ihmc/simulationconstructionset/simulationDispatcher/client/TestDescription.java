@@ -46,6 +46,12 @@ public class TestDescription implements RemoteSimulationDescription
       System.out.println("TestDescription: startSimulation");
    }
 
+   @Override
+   public void runSimulation()
+   {
+      System.out.println("TestDescription: runSimulation");
+   }
+
    @Override
    public boolean isSimulationDone()
    {
@@ -0,0 +1,20 @@
+package us.ihmc.valkyrie;
+
+import us.ihmc.avatar.FlattenedMultiBodySystemBenchmark;
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+
+public class ValkyrieFlattenedMultiBodySystemBenchmark extends FlattenedMultiBodySystemBenchmark
+{
+   private final DRCRobotModel robotModel = new ValkyrieRobotModel(DRCRobotModel.RobotTarget.SCS, false);
+
+   @Override
+   public DRCRobotModel getRobotModel()
+   {
+      return robotModel;
+   }
+
+   public static void main(String[] args)
+   {
+      new ValkyrieFlattenedMultiBodySystemBenchmark().runBenchmark();
+   }
+}